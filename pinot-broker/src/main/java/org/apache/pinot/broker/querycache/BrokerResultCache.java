@@ -0,0 +1,155 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.querycache;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import javax.annotation.Nullable;
+import org.apache.pinot.common.metrics.BrokerGauge;
+import org.apache.pinot.common.metrics.BrokerMetrics;
+import org.apache.pinot.common.response.broker.BrokerResponseNative;
+import org.apache.pinot.common.utils.cache.SizeBoundedCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Broker level cache of the serialized query responses, so that the queries repeatedly issued by the dashboards do not
+ * need to be scattered to the servers.
+ * <p>The cache key is the compiled query sent to the OFFLINE and REALTIME table, which includes the time boundary
+ * filter for the hybrid tables, so a moved time boundary never hits the stale entries. Each entry also records the
+ * routing version (see {@code BrokerRoutingManager#getRoutingVersion(String)}) of the queried tables, and is
+ * invalidated on lookup when the routing has changed since the entry was cached (e.g. segments added/removed/refreshed,
+ * external view changed). The entries for the queries that touch the REALTIME table additionally expire after the
+ * configured TTL because the consuming segments keep ingesting data without changing the routing; when the TTL is not
+ * positive, these queries are not cached.
+ * <p>The size of the cache is bounded by the total bytes of the keys and values, and the least recently used entries
+ * are evicted first.
+ */
+public class BrokerResultCache {
+  private static final Logger LOGGER = LoggerFactory.getLogger(BrokerResultCache.class);
+
+  private final SizeBoundedCache<Entry> _cache;
+  private final long _realtimeTtlMs;
+
+  public BrokerResultCache(long maxSizeInBytes, long realtimeTtlMs) {
+    _cache = new SizeBoundedCache<>(maxSizeInBytes, entry -> entry._response.length);
+    _realtimeTtlMs = realtimeTtlMs;
+  }
+
+  /**
+   * Sets the broker metrics to emit the size of the cache.
+   */
+  public void setBrokerMetrics(BrokerMetrics brokerMetrics) {
+    _cache.setSizeInBytesListener(
+        sizeInBytes -> brokerMetrics.setValueOfGlobalGauge(BrokerGauge.RESULT_CACHE_SIZE_BYTES, sizeInBytes));
+  }
+
+  /**
+   * Returns whether the responses of the queries that touch the REALTIME table can be cached.
+   */
+  public boolean isRealtimeCacheable() {
+    return _realtimeTtlMs > 0;
+  }
+
+  /**
+   * Returns whether the given response is complete and can be cached, i.e. all the segments are available on the
+   * broker and present on the servers, all the queried servers responded, and there is no exception or trace info.
+   * Partial responses must not be cached, or they would be served even after the missing segments become available.
+   */
+  public static boolean isCacheable(BrokerResponseNative brokerResponse, int numUnavailableSegments) {
+    if (numUnavailableSegments > 0) {
+      return false;
+    }
+    // NOTE: The segments missing on the servers are reported as SERVER_SEGMENT_MISSING_ERROR exception
+    return brokerResponse.getExceptionsSize() == 0
+        && brokerResponse.getNumServersResponded() == brokerResponse.getNumServersQueried()
+        && brokerResponse.getTraceInfo().isEmpty();
+  }
+
+  /**
+   * Returns the cached response for the given key, or {@code null} if it is not cached, expired or the routing of the
+   * queried tables has changed since it was cached. The returned response is a new instance which can be modified.
+   */
+  @Nullable
+  public BrokerResponseNative get(String key, long offlineRoutingVersion, long realtimeRoutingVersion) {
+    Entry entry = _cache.get(key);
+    if (entry == null) {
+      return null;
+    }
+    if (entry._offlineRoutingVersion != offlineRoutingVersion || entry._realtimeRoutingVersion != realtimeRoutingVersion
+        || System.currentTimeMillis() > entry._expirationTimeMs) {
+      _cache.invalidate(key);
+      return null;
+    }
+    try {
+      return BrokerResponseNative.fromJsonString(new String(entry._response, StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      LOGGER.warn("Caught exception while deserializing the cached response, invalidating it", e);
+      _cache.invalidate(key);
+      return null;
+    }
+  }
+
+  /**
+   * Puts the response into the cache, and returns whether the entry is cached. The routing versions should be read
+   * before calculating the routing for the query so that any concurrent routing change invalidates the entry.
+   */
+  public boolean put(String key, BrokerResponseNative brokerResponse, long offlineRoutingVersion,
+      long realtimeRoutingVersion, boolean touchesRealtime) {
+    if (touchesRealtime && !isRealtimeCacheable()) {
+      return false;
+    }
+    byte[] response;
+    try {
+      response = brokerResponse.toJsonString().getBytes(StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      LOGGER.warn("Caught exception while serializing the response, skipping caching it", e);
+      return false;
+    }
+    long expirationTimeMs = touchesRealtime ? System.currentTimeMillis() + _realtimeTtlMs : Long.MAX_VALUE;
+    return _cache.put(key, new Entry(response, offlineRoutingVersion, realtimeRoutingVersion, expirationTimeMs));
+  }
+
+  public void invalidateAll() {
+    _cache.invalidateAll();
+  }
+
+  public long getNumEntries() {
+    return _cache.getNumEntries();
+  }
+
+  public long getSizeInBytes() {
+    return _cache.getSizeInBytes();
+  }
+
+  private static class Entry {
+    final byte[] _response;
+    final long _offlineRoutingVersion;
+    final long _realtimeRoutingVersion;
+    final long _expirationTimeMs;
+
+    Entry(byte[] response, long offlineRoutingVersion, long realtimeRoutingVersion, long expirationTimeMs) {
+      _response = response;
+      _offlineRoutingVersion = offlineRoutingVersion;
+      _realtimeRoutingVersion = realtimeRoutingVersion;
+      _expirationTimeMs = expirationTimeMs;
+    }
+  }
+}
@@ -48,6 +48,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.pinot.broker.api.AccessControl;
 import org.apache.pinot.broker.api.RequesterIdentity;
 import org.apache.pinot.broker.broker.AccessControlFactory;
+import org.apache.pinot.broker.querycache.BrokerResultCache;
 import org.apache.pinot.broker.querylog.QueryLogger;
 import org.apache.pinot.broker.queryquota.QueryQuotaManager;
 import org.apache.pinot.broker.routing.BrokerRoutingManager;
@@ -134,6 +135,7 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
   private final boolean _enableQueryLimitOverride;
   private final boolean _enableDistinctCountBitmapOverride;
   private final Map<Long, QueryServers> _queriesById;
+  private final BrokerResultCache _resultCache;
 
   public BaseBrokerRequestHandler(PinotConfiguration config, String brokerId, BrokerRoutingManager routingManager,
       AccessControlFactory accessControlFactory, QueryQuotaManager queryQuotaManager, TableCache tableCache,
@@ -161,10 +163,21 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
     boolean enableQueryCancellation =
         Boolean.parseBoolean(config.getProperty(Broker.CONFIG_OF_BROKER_ENABLE_QUERY_CANCELLATION));
     _queriesById = enableQueryCancellation ? new ConcurrentHashMap<>() : null;
+    long resultCacheSizeInBytes = config.getProperty(Broker.CONFIG_OF_BROKER_RESULT_CACHE_SIZE_BYTES,
+        Broker.DEFAULT_BROKER_RESULT_CACHE_SIZE_BYTES);
+    long resultCacheRealtimeTtlMs = config.getProperty(Broker.CONFIG_OF_BROKER_RESULT_CACHE_REALTIME_TTL_MS,
+        Broker.DEFAULT_BROKER_RESULT_CACHE_REALTIME_TTL_MS);
+    if (resultCacheSizeInBytes > 0) {
+      _resultCache = new BrokerResultCache(resultCacheSizeInBytes, resultCacheRealtimeTtlMs);
+      _resultCache.setBrokerMetrics(brokerMetrics);
+    } else {
+      _resultCache = null;
+    }
     LOGGER.info(
         "Broker Id: {}, timeout: {}ms, query response limit: {}, query log length: {}, query log max rate: {}qps, "
-            + "enabling query cancellation: {}", _brokerId, _brokerTimeoutMs, _queryResponseLimit,
-        _queryLogger.getMaxQueryLengthToLog(), _queryLogger.getLogRateLimit(), enableQueryCancellation);
+            + "enabling query cancellation: {}, result cache size: {}bytes, result cache realtime TTL: {}ms", _brokerId,
+        _brokerTimeoutMs, _queryResponseLimit, _queryLogger.getMaxQueryLengthToLog(), _queryLogger.getLogRateLimit(),
+        enableQueryCancellation, resultCacheSizeInBytes, resultCacheRealtimeTtlMs);
   }
 
   @Override
@@ -562,6 +575,39 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
         realtimeBrokerRequest.getPinotQuery().setFilterExpression(null);
       }
 
+      // Look up the result cache
+      // NOTE: Read the routing versions before calculating the routing so that any concurrent routing change
+      //       invalidates the cached response.
+      String resultCacheKey = null;
+      long offlineRoutingVersion = -1;
+      long realtimeRoutingVersion = -1;
+      boolean touchesRealtime = realtimeBrokerRequest != null;
+      if (_resultCache != null && !pinotQuery.isExplain() && (!touchesRealtime || _resultCache.isRealtimeCacheable())
+          && !QueryOptionsUtils.isSkipResultCache(pinotQuery.getQueryOptions())) {
+        resultCacheKey = getResultCacheKey(pinotQuery, offlineBrokerRequest, realtimeBrokerRequest);
+        if (offlineBrokerRequest != null) {
+          offlineRoutingVersion = _routingManager.getRoutingVersion(offlineTableName);
+        }
+        if (realtimeBrokerRequest != null) {
+          realtimeRoutingVersion = _routingManager.getRoutingVersion(realtimeTableName);
+        }
+        BrokerResponseNative cachedResponse =
+            _resultCache.get(resultCacheKey, offlineRoutingVersion, realtimeRoutingVersion);
+        if (cachedResponse != null) {
+          _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.RESULT_CACHE_HITS, 1);
+          long totalTimeMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - compilationStartTimeNs);
+          cachedResponse.setTimeUsedMs(totalTimeMs);
+          requestContext.setQueryProcessingTime(totalTimeMs);
+          augmentStatistics(requestContext, cachedResponse);
+          _brokerMetrics.addTimedTableValue(rawTableName, BrokerTimer.QUERY_TOTAL_TIME_MS, totalTimeMs,
+              TimeUnit.MILLISECONDS);
+          _queryLogger.log(new QueryLogger.QueryLogParams(requestId, query, requestContext, tableName, 0,
+              new ServerStats(), cachedResponse, totalTimeMs, requesterIdentity));
+          return cachedResponse;
+        }
+        _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.RESULT_CACHE_MISSES, 1);
+      }
+
       // Calculate routing table for the query
       // TODO: Modify RoutingManager interface to directly take PinotQuery
       long routingStartTimeNs = System.nanoTime();
@@ -703,6 +749,12 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
 
       brokerResponse.setExceptions(exceptions);
       brokerResponse.setNumSegmentsPrunedByBroker(numPrunedSegmentsTotal);
+
+      // Only cache the complete responses
+      if (resultCacheKey != null && BrokerResultCache.isCacheable(brokerResponse, numUnavailableSegments)) {
+        _resultCache.put(resultCacheKey, brokerResponse, offlineRoutingVersion, realtimeRoutingVersion,
+            touchesRealtime);
+      }
       long executionEndTimeNs = System.nanoTime();
       _brokerMetrics.addPhaseTiming(rawTableName, BrokerQueryPhase.QUERY_EXECUTION,
           executionEndTimeNs - routingEndTimeNs);
@@ -732,6 +784,22 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
     }
   }
 
+  /**
+   * Returns the key of the result cache for the query, which consists of the query issued to the broker (including the
+   * query options) and the queries sent to the OFFLINE and REALTIME table (including the time boundary filter).
+   */
+  private static String getResultCacheKey(PinotQuery pinotQuery, @Nullable BrokerRequest offlineBrokerRequest,
+      @Nullable BrokerRequest realtimeBrokerRequest) {
+    StringBuilder resultCacheKey = new StringBuilder(pinotQuery.toString());
+    if (offlineBrokerRequest != null) {
+      resultCacheKey.append("|offline:").append(offlineBrokerRequest.getPinotQuery());
+    }
+    if (realtimeBrokerRequest != null) {
+      resultCacheKey.append("|realtime:").append(realtimeBrokerRequest.getPinotQuery());
+    }
+    return resultCacheKey.toString();
+  }
+
   private BrokerResponseNative getEmptyBrokerOnlyResponse(long requestId, String query,
       RequesterIdentity requesterIdentity, RequestContext requestContext, PinotQuery pinotQuery, String tableName) {
     if (pinotQuery.isExplain()) {
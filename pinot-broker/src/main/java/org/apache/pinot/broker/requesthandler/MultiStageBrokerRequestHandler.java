@@ -111,8 +111,15 @@ public class MultiStageBrokerRequestHandler extends BaseBrokerRequestHandler {
 
     long releaseMs = config.getProperty(QueryConfig.KEY_OF_SCHEDULER_RELEASE_TIMEOUT_MS,
         QueryConfig.DEFAULT_SCHEDULER_RELEASE_TIMEOUT_MS);
-    _reducerScheduler = new OpChainSchedulerService(new RoundRobinScheduler(releaseMs),
-        Executors.newCachedThreadPool(new NamedThreadFactory("query_broker_reducer_" + _reducerPort + "_port")));
+    long timeSliceMs = config.getProperty(QueryConfig.KEY_OF_SCHEDULER_TIME_SLICE_MS,
+        QueryConfig.DEFAULT_SCHEDULER_TIME_SLICE_MS);
+    int maxRunningOpChains = config.getProperty(QueryConfig.KEY_OF_SCHEDULER_MAX_RUNNING_OPCHAINS,
+        QueryConfig.DEFAULT_SCHEDULER_MAX_RUNNING_OPCHAINS);
+    int maxPriority = config.getProperty(QueryConfig.KEY_OF_SCHEDULER_MAX_PRIORITY,
+        QueryConfig.DEFAULT_SCHEDULER_MAX_PRIORITY);
+    _reducerScheduler = new OpChainSchedulerService(new RoundRobinScheduler(releaseMs, maxPriority),
+        Executors.newCachedThreadPool(new NamedThreadFactory("query_broker_reducer_" + _reducerPort + "_port")),
+        timeSliceMs, maxRunningOpChains);
     _mailboxService = new MailboxService(_reducerHostname, _reducerPort, config, _reducerScheduler::onDataAvailable);
 
     // TODO: move this to a startUp() function.
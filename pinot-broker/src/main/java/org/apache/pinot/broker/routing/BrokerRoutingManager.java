@@ -27,6 +27,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.annotation.Nullable;
 import org.apache.helix.AccessOption;
 import org.apache.helix.BaseDataAccessor;
@@ -93,6 +94,7 @@ import org.slf4j.LoggerFactory;
  *   <li>{@link #getRoutingTable(BrokerRequest, long)}: Returns the routing table for a query</li>
  *   <li>{@link #getTimeBoundaryInfo(String)}: Returns the time boundary info for a table</li>
  *   <li>{@link #getQueryTimeoutMs(String)}: Returns the table-level query timeout in milliseconds for a table</li>
+ *   <li>{@link #getRoutingVersion(String)}: Returns the version of the routing for a table</li>
  * </ul>
  *
  * TODO: Expose RoutingEntry class to get a consistent view in the broker request handler and save the redundant map
@@ -100,6 +102,8 @@ import org.slf4j.LoggerFactory;
  */
 public class BrokerRoutingManager implements RoutingManager, ClusterChangeHandler {
   private static final Logger LOGGER = LoggerFactory.getLogger(BrokerRoutingManager.class);
+  // Shared across all the tables so that the rebuilt routing never reuses a version of the previous routing
+  private static final AtomicLong ROUTING_VERSION_GENERATOR = new AtomicLong();
 
   private final BrokerMetrics _brokerMetrics;
   private final Map<String, RoutingEntry> _routingEntryMap = new ConcurrentHashMap<>();
@@ -522,7 +526,8 @@ public class BrokerRoutingManager implements RoutingManager, ClusterChangeHandle
         LOGGER.info("Enabling SegmentPartitionMetadataManager for table: {} on partition column: {}", tableNameWithType,
             partitionConfig.getKey());
         partitionMetadataManager = new SegmentPartitionMetadataManager(tableNameWithType, partitionConfig.getKey(),
-            partitionConfig.getValue().getFunctionName(), partitionConfig.getValue().getNumPartitions());
+            partitionConfig.getValue().getFunctionName(), partitionConfig.getValue().getNumPartitions(),
+            partitionConfig.getValue().getFunctionConfig());
       }
     }
 
@@ -699,6 +704,16 @@ public class BrokerRoutingManager implements RoutingManager, ClusterChangeHandle
     return routingEntry != null ? routingEntry.getQueryTimeoutMs() : null;
   }
 
+  /**
+   * Returns the version of the routing for the given table, or -1 if the routing does not exist. The version changes
+   * whenever the routing is built/rebuilt, the segment assignment (ideal state/external view) or the time boundary
+   * changes, or a segment is refreshed, and can be used to detect the staleness of the cached query results.
+   */
+  public long getRoutingVersion(String tableNameWithType) {
+    RoutingEntry routingEntry = _routingEntryMap.get(tableNameWithType);
+    return routingEntry != null ? routingEntry.getRoutingVersion() : -1;
+  }
+
   private static class RoutingEntry {
     final String _tableNameWithType;
     final String _idealStatePath;
@@ -716,6 +731,8 @@ public class BrokerRoutingManager implements RoutingManager, ClusterChangeHandle
     transient int _lastUpdateExternalViewVersion;
     // Time boundary manager is only available for the offline part of the hybrid table
     transient TimeBoundaryManager _timeBoundaryManager;
+    // Version of the routing, bumped on every change of the routing
+    volatile long _routingVersion = ROUTING_VERSION_GENERATOR.incrementAndGet();
 
     RoutingEntry(String tableNameWithType, String idealStatePath, String externalViewPath,
         SegmentPreSelector segmentPreSelector, SegmentSelector segmentSelector, List<SegmentPruner> segmentPruners,
@@ -751,6 +768,7 @@ public class BrokerRoutingManager implements RoutingManager, ClusterChangeHandle
 
     void setTimeBoundaryManager(@Nullable TimeBoundaryManager timeBoundaryManager) {
       _timeBoundaryManager = timeBoundaryManager;
+      _routingVersion = ROUTING_VERSION_GENERATOR.incrementAndGet();
     }
 
     @Nullable
@@ -767,6 +785,10 @@ public class BrokerRoutingManager implements RoutingManager, ClusterChangeHandle
       return _queryTimeoutMs;
     }
 
+    long getRoutingVersion() {
+      return _routingVersion;
+    }
+
     // NOTE: The change gets applied in sequence, and before change applied to all components, there could be some
     // inconsistency between components, which is fine because the inconsistency only exists for the newly changed
     // segments and only lasts for a very short time.
@@ -781,6 +803,7 @@ public class BrokerRoutingManager implements RoutingManager, ClusterChangeHandle
       }
       _lastUpdateIdealStateVersion = idealState.getStat().getVersion();
       _lastUpdateExternalViewVersion = externalView.getStat().getVersion();
+      _routingVersion = ROUTING_VERSION_GENERATOR.incrementAndGet();
     }
 
     void onInstancesChange(Set<String> enabledInstances, List<String> changedInstances) {
@@ -792,6 +815,7 @@ public class BrokerRoutingManager implements RoutingManager, ClusterChangeHandle
       if (_timeBoundaryManager != null) {
         _timeBoundaryManager.refreshSegment(segment);
       }
+      _routingVersion = ROUTING_VERSION_GENERATOR.incrementAndGet();
     }
 
     InstanceSelector.SelectionResult calculateRouting(BrokerRequest brokerRequest, long requestId) {
@@ -56,6 +56,7 @@ public class SegmentPartitionMetadataManager implements SegmentZkMetadataFetchLi
   private final String _partitionColumn;
   private final String _partitionFunctionName;
   private final int _numPartitions;
+  private final Map<String, String> _partitionFunctionConfig;
 
   // cache-able content, only follow changes if onlineSegments list (of ideal-state) is changed.
   private final Map<String, SegmentInfo> _segmentInfoMap = new HashMap<>();
@@ -65,10 +66,16 @@ public class SegmentPartitionMetadataManager implements SegmentZkMetadataFetchLi
 
   public SegmentPartitionMetadataManager(String tableNameWithType, String partitionColumn, String partitionFunctionName,
       int numPartitions) {
+    this(tableNameWithType, partitionColumn, partitionFunctionName, numPartitions, null);
+  }
+
+  public SegmentPartitionMetadataManager(String tableNameWithType, String partitionColumn, String partitionFunctionName,
+      int numPartitions, @Nullable Map<String, String> partitionFunctionConfig) {
     _tableNameWithType = tableNameWithType;
     _partitionColumn = partitionColumn;
     _partitionFunctionName = partitionFunctionName;
     _numPartitions = numPartitions;
+    _partitionFunctionConfig = partitionFunctionConfig;
   }
 
   @Override
@@ -157,7 +164,7 @@ public class SegmentPartitionMetadataManager implements SegmentZkMetadataFetchLi
     }
     _tablePartitionInfo =
         new TablePartitionInfo(_tableNameWithType, _partitionColumn, _partitionFunctionName, _numPartitions,
-            partitionInfoMap, segmentsWithInvalidPartition);
+            _partitionFunctionConfig, partitionInfoMap, segmentsWithInvalidPartition);
   }
 
   @Override
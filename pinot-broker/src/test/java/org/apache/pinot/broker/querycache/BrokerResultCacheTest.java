@@ -0,0 +1,156 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.querycache;
+
+import java.util.Collections;
+import org.apache.pinot.common.exception.QueryException;
+import org.apache.pinot.common.metrics.BrokerGauge;
+import org.apache.pinot.common.metrics.BrokerMetrics;
+import org.apache.pinot.common.response.broker.BrokerResponseNative;
+import org.apache.pinot.common.response.broker.QueryProcessingException;
+import org.apache.pinot.common.response.broker.ResultTable;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+
+public class BrokerResultCacheTest {
+  private static final String KEY = "SELECT COUNT(*) FROM myTable";
+
+  @Test
+  public void testGetAndPut() {
+    BrokerResultCache resultCache = new BrokerResultCache(1_000_000L, 0L);
+    assertNull(resultCache.get(KEY, 1L, -1L));
+    assertTrue(resultCache.put(KEY, getBrokerResponse(), 1L, -1L, false));
+    assertEquals(resultCache.getNumEntries(), 1);
+    assertTrue(resultCache.getSizeInBytes() > 0);
+
+    BrokerResponseNative cachedResponse = resultCache.get(KEY, 1L, -1L);
+    assertNotNull(cachedResponse);
+    assertEquals(cachedResponse.getNumDocsScanned(), 100L);
+    assertEquals(cachedResponse.getResultTable().getRows().get(0)[0], 100);
+
+    // Modifying the returned response should not affect the cached response
+    cachedResponse.setNumDocsScanned(0L);
+    cachedResponse = resultCache.get(KEY, 1L, -1L);
+    assertNotNull(cachedResponse);
+    assertEquals(cachedResponse.getNumDocsScanned(), 100L);
+
+    resultCache.invalidateAll();
+    assertEquals(resultCache.getNumEntries(), 0);
+    assertEquals(resultCache.getSizeInBytes(), 0L);
+  }
+
+  @Test
+  public void testRoutingVersionChange() {
+    BrokerResultCache resultCache = new BrokerResultCache(1_000_000L, 60_000L);
+    BrokerMetrics brokerMetrics = mock(BrokerMetrics.class);
+    resultCache.setBrokerMetrics(brokerMetrics);
+    assertTrue(resultCache.put(KEY, getBrokerResponse(), 1L, 2L, true));
+    assertNotNull(resultCache.get(KEY, 1L, 2L));
+    verify(brokerMetrics).setValueOfGlobalGauge(BrokerGauge.RESULT_CACHE_SIZE_BYTES, resultCache.getSizeInBytes());
+
+    // Changed routing should invalidate the entry and update the size metric
+    assertNull(resultCache.get(KEY, 1L, 3L));
+    assertEquals(resultCache.getNumEntries(), 0);
+    assertEquals(resultCache.getSizeInBytes(), 0L);
+    verify(brokerMetrics).setValueOfGlobalGauge(BrokerGauge.RESULT_CACHE_SIZE_BYTES, 0L);
+    assertNull(resultCache.get(KEY, 1L, 2L));
+  }
+
+  @Test
+  public void testRealtimeTtl()
+      throws InterruptedException {
+    // Queries touching the REALTIME table should not be cached without TTL
+    BrokerResultCache resultCache = new BrokerResultCache(1_000_000L, 0L);
+    assertFalse(resultCache.isRealtimeCacheable());
+    assertFalse(resultCache.put(KEY, getBrokerResponse(), -1L, 1L, true));
+    assertEquals(resultCache.getNumEntries(), 0);
+
+    resultCache = new BrokerResultCache(1_000_000L, 10L);
+    assertTrue(resultCache.isRealtimeCacheable());
+    assertTrue(resultCache.put(KEY, getBrokerResponse(), -1L, 1L, true));
+    Thread.sleep(20L);
+    assertNull(resultCache.get(KEY, -1L, 1L));
+    assertEquals(resultCache.getNumEntries(), 0);
+  }
+
+  @Test
+  public void testSizeLimit() {
+    BrokerResultCache resultCache = new BrokerResultCache(100_000L, 0L);
+    // Entry larger than 1/10 of the cache should not be cached
+    assertFalse(resultCache.put(new String(new char[10_000]), getBrokerResponse(), 1L, -1L, false));
+    assertEquals(resultCache.getNumEntries(), 0);
+
+    // Total size should be bounded
+    for (int i = 0; i < 100; i++) {
+      assertTrue(resultCache.put(KEY + i, getBrokerResponse(), 1L, -1L, false));
+      assertTrue(resultCache.getSizeInBytes() <= 100_000L);
+    }
+    assertTrue(resultCache.getNumEntries() < 100);
+    assertNotNull(resultCache.get(KEY + 99, 1L, -1L));
+  }
+
+  @Test
+  public void testIsCacheable() {
+    assertTrue(BrokerResultCache.isCacheable(getBrokerResponse(), 0));
+
+    // Segments unavailable on the broker
+    BrokerResponseNative brokerResponse = getBrokerResponse();
+    assertFalse(BrokerResultCache.isCacheable(brokerResponse, 1));
+    brokerResponse.addToExceptions(new QueryProcessingException(QueryException.BROKER_SEGMENT_UNAVAILABLE_ERROR_CODE,
+        "1 segments unavailable: [myTable_0]"));
+    assertFalse(BrokerResultCache.isCacheable(brokerResponse, 1));
+
+    // Segments missing on the server
+    brokerResponse = getBrokerResponse();
+    brokerResponse.addToExceptions(new QueryProcessingException(QueryException.SERVER_SEGMENT_MISSING_ERROR_CODE,
+        "1 segments [myTable_0] missing on server: Server_localhost_8098"));
+    assertFalse(BrokerResultCache.isCacheable(brokerResponse, 0));
+
+    // Server not responded
+    brokerResponse = getBrokerResponse();
+    brokerResponse.setNumServersQueried(2);
+    assertFalse(BrokerResultCache.isCacheable(brokerResponse, 0));
+
+    // Trace enabled
+    brokerResponse = getBrokerResponse();
+    brokerResponse.setTraceInfo(Collections.singletonMap("Server_localhost_8098", "[]"));
+    assertFalse(BrokerResultCache.isCacheable(brokerResponse, 0));
+  }
+
+  private static BrokerResponseNative getBrokerResponse() {
+    BrokerResponseNative brokerResponse = new BrokerResponseNative();
+    DataSchema dataSchema = new DataSchema(new String[]{"count(*)"}, new ColumnDataType[]{ColumnDataType.LONG});
+    brokerResponse.setResultTable(new ResultTable(dataSchema, Collections.singletonList(new Object[]{100})));
+    brokerResponse.setNumDocsScanned(100L);
+    brokerResponse.setTotalDocs(1000L);
+    brokerResponse.setNumServersQueried(1);
+    brokerResponse.setNumServersResponded(1);
+    return brokerResponse;
+  }
+}
@@ -96,6 +96,13 @@ public final class DataBlockUtils {
     }
   }
 
+  /**
+   * Returns the type of the serialized data block without deserializing it or moving the buffer position.
+   */
+  public static DataBlock.Type getDataBlockType(ByteBuffer byteBuffer) {
+    return DataBlock.Type.fromOrdinal(byteBuffer.getInt(byteBuffer.position()) >> VERSION_TYPE_SHIFT);
+  }
+
   public static List<Object[]> extractRows(DataBlock dataBlock, Function<CustomObject, Object> customObjectSerde) {
     DataSchema dataSchema = dataBlock.getDataSchema();
     DataSchema.ColumnDataType[] columnDataTypes = dataSchema.getColumnDataTypes();
@@ -108,6 +115,21 @@ public final class DataBlockUtils {
     return rows;
   }
 
+  /**
+   * Extracts the rows with the given row ids from the data block, in the order of the row ids.
+   */
+  public static List<Object[]> extractRows(DataBlock dataBlock, Function<CustomObject, Object> customObjectSerde,
+      int[] rowIds, int numRowIds) {
+    DataSchema dataSchema = dataBlock.getDataSchema();
+    DataSchema.ColumnDataType[] columnDataTypes = dataSchema.getColumnDataTypes();
+    RoaringBitmap[] nullBitmaps = extractNullBitmaps(dataBlock);
+    List<Object[]> rows = new ArrayList<>(numRowIds);
+    for (int i = 0; i < numRowIds; i++) {
+      rows.add(extractRowFromDataBlock(dataBlock, rowIds[i], columnDataTypes, nullBitmaps, customObjectSerde));
+    }
+    return rows;
+  }
+
   /**
    * Given a {@link DataSchema}, compute each column's offset and fill them into the passed in array, then return the
    * row size in bytes.
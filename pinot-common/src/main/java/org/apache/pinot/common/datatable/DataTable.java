@@ -134,11 +134,19 @@ public interface DataTable {
     OPERATOR_EXECUTION_TIME_MS(30, "operatorExecutionTimeMs", MetadataValueType.LONG),
     OPERATOR_ID(31, "operatorId", MetadataValueType.STRING),
     OPERATOR_EXEC_START_TIME_MS(32, "operatorExecStartTimeMs", MetadataValueType.LONG),
-    OPERATOR_EXEC_END_TIME_MS(33, "operatorExecEndTimeMs", MetadataValueType.LONG);
+    OPERATOR_EXEC_END_TIME_MS(33, "operatorExecEndTimeMs", MetadataValueType.LONG),
+    NUM_ROWS_SPILLED(34, "numRowsSpilled", MetadataValueType.LONG),
+    NUM_BYTES_SPILLED(35, "numBytesSpilled", MetadataValueType.LONG),
+    SCHEDULER_WAIT_TIME_MS(36, "schedulerWaitTimeMs", MetadataValueType.LONG),
+    NUM_PARTIAL_AGGREGATION_FLUSHES(37, "numPartialAggregationFlushes", MetadataValueType.INT),
+    PARTIAL_AGGREGATION_PASS_THROUGH(38, "partialAggregationPassThrough", MetadataValueType.STRING),
+    ADAPTIVE_MAX_DOCS_PER_CALL(39, "adaptiveMaxDocsPerCall", MetadataValueType.INT),
+    NUM_SEGMENTS_PRUNED_BY_ORDER_BY_BOUNDARY(40, "numSegmentsPrunedByOrderByBoundary", MetadataValueType.INT),
+    NUM_DOCS_PRUNED_BY_ORDER_BY_BOUNDARY(41, "numDocsPrunedByOrderByBoundary", MetadataValueType.LONG);
 
     // We keep this constant to track the max id added so far for backward compatibility.
     // Increase it when adding new keys, but NEVER DECREASE IT!!!
-    private static final int MAX_ID = 33;
+    private static final int MAX_ID = 41;
 
     private static final MetadataKey[] ID_TO_ENUM_KEY_MAP = new MetadataKey[MAX_ID + 1];
     private static final Map<String, MetadataKey> NAME_TO_ENUM_KEY_MAP = new HashMap<>();
@@ -35,7 +35,8 @@ public enum BrokerGauge implements AbstractMetrics.Gauge {
   RESIZE_TIME_MS("milliseconds", false),
   UNHEALTHY_SERVERS("servers", true),
   TIME_BOUNDARY_DIFFERENCE("milliseconds", false),
-  JVM_HEAP_USED_BYTES("bytes", true);
+  JVM_HEAP_USED_BYTES("bytes", true),
+  RESULT_CACHE_SIZE_BYTES("bytes", true);
 
   private final String _brokerGaugeName;
   private final String _unit;
@@ -77,6 +77,10 @@ public enum BrokerMeter implements AbstractMetrics.Meter {
 
   NUM_RESIZES("numResizes", false),
 
+  // Track the broker result cache lookups
+  RESULT_CACHE_HITS("queries", false),
+  RESULT_CACHE_MISSES("queries", false),
+
   HELIX_ZOOKEEPER_RECONNECTS("reconnects", true),
 
   REQUEST_DROPPED_DUE_TO_ACCESS_ERROR("requestsDropped", false),
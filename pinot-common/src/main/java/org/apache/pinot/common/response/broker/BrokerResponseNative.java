@@ -92,6 +92,11 @@ public class BrokerResponseNative implements BrokerResponse {
   private long _numSegmentsPrunedByValue = 0L;
   private long _explainPlanNumEmptyFilterSegments = 0L;
   private long _explainPlanNumMatchAllFilterSegments = 0L;
+  // Smallest number of docs per block picked by the adaptive block sizing, 0 if not enabled for the query
+  private int _adaptiveMaxDocsPerCall = 0;
+  // Number of segments and docs skipped by the selection order-by boundary shared across the segments
+  private int _numSegmentsPrunedByOrderByBoundary = 0;
+  private long _numDocsPrunedByOrderByBoundary = 0L;
   private int _numRowsResultSet = 0;
   private ResultTable _resultTable;
   private Map<String, String> _traceInfo = new HashMap<>();
@@ -288,6 +293,39 @@ public class BrokerResponseNative implements BrokerResponse {
     _numSegmentsPrunedByValue = numSegmentsPrunedByValue;
   }
 
+  @JsonProperty("adaptiveMaxDocsPerCall")
+  @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+  public int getAdaptiveMaxDocsPerCall() {
+    return _adaptiveMaxDocsPerCall;
+  }
+
+  @JsonProperty("adaptiveMaxDocsPerCall")
+  public void setAdaptiveMaxDocsPerCall(int adaptiveMaxDocsPerCall) {
+    _adaptiveMaxDocsPerCall = adaptiveMaxDocsPerCall;
+  }
+
+  @JsonProperty("numSegmentsPrunedByOrderByBoundary")
+  @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+  public int getNumSegmentsPrunedByOrderByBoundary() {
+    return _numSegmentsPrunedByOrderByBoundary;
+  }
+
+  @JsonProperty("numSegmentsPrunedByOrderByBoundary")
+  public void setNumSegmentsPrunedByOrderByBoundary(int numSegmentsPrunedByOrderByBoundary) {
+    _numSegmentsPrunedByOrderByBoundary = numSegmentsPrunedByOrderByBoundary;
+  }
+
+  @JsonProperty("numDocsPrunedByOrderByBoundary")
+  @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+  public long getNumDocsPrunedByOrderByBoundary() {
+    return _numDocsPrunedByOrderByBoundary;
+  }
+
+  @JsonProperty("numDocsPrunedByOrderByBoundary")
+  public void setNumDocsPrunedByOrderByBoundary(long numDocsPrunedByOrderByBoundary) {
+    _numDocsPrunedByOrderByBoundary = numDocsPrunedByOrderByBoundary;
+  }
+
   @JsonProperty("explainPlanNumEmptyFilterSegments")
   @Override
   public long getExplainPlanNumEmptyFilterSegments() {
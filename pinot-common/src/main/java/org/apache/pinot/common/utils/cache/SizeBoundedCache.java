@@ -0,0 +1,115 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.common.utils.cache;
+
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.Weigher;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+import java.util.function.ToIntFunction;
+import javax.annotation.Nullable;
+
+
+/**
+ * Cache of the serialized results (e.g. query responses) keyed by string, where the size of the cache is bounded by the
+ * total bytes of the keys and values, and the least recently used entries are evicted first.
+ * <p>The size listener is notified with the total bytes of the cache whenever it changes, including when the entries
+ * are evicted, replaced or invalidated, so that it can be used to emit the size metric.
+ */
+public class SizeBoundedCache<V> {
+  // Do not cache the values that take more than this fraction of the cache so that a single query cannot flush the
+  // whole cache
+  private static final int MAX_ENTRY_SIZE_FRACTION = 10;
+
+  private final Cache<String, V> _cache;
+  private final ToIntFunction<V> _valueSizeFunction;
+  private final long _maxEntrySizeInBytes;
+  private final AtomicLong _sizeInBytes = new AtomicLong();
+  private volatile LongConsumer _sizeInBytesListener;
+
+  /**
+   * @param maxSizeInBytes Max total bytes of the keys and values
+   * @param valueSizeFunction Function to compute the size in bytes of a value
+   */
+  public SizeBoundedCache(long maxSizeInBytes, ToIntFunction<V> valueSizeFunction) {
+    Preconditions.checkArgument(maxSizeInBytes > 0, "Invalid max size in bytes: %s", maxSizeInBytes);
+    _valueSizeFunction = valueSizeFunction;
+    _maxEntrySizeInBytes = maxSizeInBytes / MAX_ENTRY_SIZE_FRACTION;
+    // NOTE: The removal listener is invoked for the evicted, replaced and invalidated entries
+    _cache = CacheBuilder.newBuilder().maximumWeight(maxSizeInBytes).weigher((Weigher<String, V>) this::getSizeInBytes)
+        .removalListener((RemovalListener<String, V>) notification -> updateSizeInBytes(
+            -getSizeInBytes(notification.getKey(), notification.getValue()))).build();
+  }
+
+  /**
+   * Sets the listener to be notified with the total bytes of the cache whenever it changes.
+   */
+  public void setSizeInBytesListener(LongConsumer sizeInBytesListener) {
+    _sizeInBytesListener = sizeInBytesListener;
+  }
+
+  @Nullable
+  public V get(String key) {
+    return _cache.getIfPresent(key);
+  }
+
+  /**
+   * Puts the value into the cache, and returns whether the entry is cached.
+   */
+  public boolean put(String key, V value) {
+    long sizeInBytes = getSizeInBytes(key, value);
+    if (sizeInBytes > _maxEntrySizeInBytes) {
+      return false;
+    }
+    updateSizeInBytes(sizeInBytes);
+    _cache.put(key, value);
+    return true;
+  }
+
+  public void invalidate(String key) {
+    _cache.invalidate(key);
+  }
+
+  public void invalidateAll() {
+    _cache.invalidateAll();
+  }
+
+  public long getNumEntries() {
+    return _cache.size();
+  }
+
+  public long getSizeInBytes() {
+    return _sizeInBytes.get();
+  }
+
+  private void updateSizeInBytes(long delta) {
+    long sizeInBytes = _sizeInBytes.addAndGet(delta);
+    LongConsumer sizeInBytesListener = _sizeInBytesListener;
+    if (sizeInBytesListener != null) {
+      sizeInBytesListener.accept(sizeInBytes);
+    }
+  }
+
+  private int getSizeInBytes(String key, V value) {
+    return 2 * key.length() + _valueSizeFunction.applyAsInt(value);
+  }
+}
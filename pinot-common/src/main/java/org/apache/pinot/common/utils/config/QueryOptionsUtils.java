@@ -127,6 +127,10 @@ public class QueryOptionsUtils {
     return "false".equalsIgnoreCase(queryOptions.get(QueryOptionKey.USE_SCAN_REORDER_OPTIMIZATION));
   }
 
+  public static boolean isInferPartitionedJoin(Map<String, String> queryOptions) {
+    return !"false".equalsIgnoreCase(queryOptions.get(QueryOptionKey.INFER_PARTITIONED_JOIN));
+  }
+
   @Nullable
   public static Integer getNumReplicaGroupsToQuery(Map<String, String> queryOptions) {
     String numReplicaGroupsToQuery = queryOptions.get(QueryOptionKey.NUM_REPLICA_GROUPS_TO_QUERY);
@@ -174,6 +178,36 @@ public class QueryOptionsUtils {
     return maxLeafLimitStr != null ? Integer.parseInt(maxLeafLimitStr) : null;
   }
 
+  @Nullable
+  public static Long getJoinSpillThresholdBytes(Map<String, String> queryOptions) {
+    String joinSpillThresholdBytes = queryOptions.get(QueryOptionKey.JOIN_SPILL_THRESHOLD_BYTES);
+    return joinSpillThresholdBytes != null ? Long.parseLong(joinSpillThresholdBytes) : null;
+  }
+
+  @Nullable
+  public static Long getSortSpillThresholdBytes(Map<String, String> queryOptions) {
+    String sortSpillThresholdBytes = queryOptions.get(QueryOptionKey.SORT_SPILL_THRESHOLD_BYTES);
+    return sortSpillThresholdBytes != null ? Long.parseLong(sortSpillThresholdBytes) : null;
+  }
+
+  @Nullable
+  public static Integer getSchedulerPriority(Map<String, String> queryOptions) {
+    String schedulerPriority = queryOptions.get(QueryOptionKey.SCHEDULER_PRIORITY);
+    return schedulerPriority != null ? Integer.parseInt(schedulerPriority) : null;
+  }
+
+  @Nullable
+  public static Integer getRuntimeFilterMaxInListSize(Map<String, String> queryOptions) {
+    String maxInListSize = queryOptions.get(QueryOptionKey.RUNTIME_FILTER_MAX_IN_LIST_SIZE);
+    return maxInListSize != null ? Integer.parseInt(maxInListSize) : null;
+  }
+
+  @Nullable
+  public static Integer getPartialAggregationMaxNumGroups(Map<String, String> queryOptions) {
+    String maxNumGroups = queryOptions.get(QueryOptionKey.PARTIAL_AGGREGATION_MAX_NUM_GROUPS);
+    return maxNumGroups != null ? Integer.parseInt(maxNumGroups) : null;
+  }
+
   @Nullable
   public static Integer getNumGroupsLimit(Map<String, String> queryOptions) {
     String maxNumGroupLimit = queryOptions.get(QueryOptionKey.NUM_GROUPS_LIMIT);
@@ -192,6 +226,34 @@ public class QueryOptionsUtils {
     return groupByTrimThreshold != null ? Integer.parseInt(groupByTrimThreshold) : null;
   }
 
+  @Nullable
+  public static Integer getNumGroupByCombinePartitions(Map<String, String> queryOptions) {
+    String numGroupByCombinePartitions = queryOptions.get(QueryOptionKey.NUM_GROUP_BY_COMBINE_PARTITIONS);
+    return numGroupByCombinePartitions != null ? Integer.parseInt(numGroupByCombinePartitions) : null;
+  }
+
+  public static boolean isOffHeapGroupByEnabled(Map<String, String> queryOptions) {
+    return Boolean.parseBoolean(queryOptions.get(QueryOptionKey.ENABLE_OFF_HEAP_GROUP_BY));
+  }
+
+  public static boolean isAdaptiveMaxDocsPerCallEnabled(Map<String, String> queryOptions) {
+    return Boolean.parseBoolean(queryOptions.get(QueryOptionKey.ENABLE_ADAPTIVE_MAX_DOCS_PER_CALL));
+  }
+
+  public static boolean isCostBasedSegmentSchedulingEnabled(Map<String, String> queryOptions) {
+    return Boolean.parseBoolean(queryOptions.get(QueryOptionKey.ENABLE_COST_BASED_SEGMENT_SCHEDULING));
+  }
+
+  @Nullable
+  public static Integer getMinDocsPerSegmentRange(Map<String, String> queryOptions) {
+    String minDocsPerSegmentRange = queryOptions.get(QueryOptionKey.MIN_DOCS_PER_SEGMENT_RANGE);
+    return minDocsPerSegmentRange != null ? Integer.parseInt(minDocsPerSegmentRange) : null;
+  }
+
+  public static boolean isSkipResultCache(Map<String, String> queryOptions) {
+    return Boolean.parseBoolean(queryOptions.get(QueryOptionKey.SKIP_RESULT_CACHE));
+  }
+
   public static boolean shouldDropResults(Map<String, String> queryOptions) {
     return Boolean.parseBoolean(queryOptions.get(CommonConstants.Broker.Request.QueryOptionKey.DROP_RESULTS));
   }
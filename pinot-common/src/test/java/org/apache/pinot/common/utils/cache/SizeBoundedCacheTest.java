@@ -0,0 +1,72 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.common.utils.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+
+public class SizeBoundedCacheTest {
+
+  @Test
+  public void testSizeInBytes() {
+    // Use single entry size of 100 bytes (2 * 10 bytes key + 80 bytes value)
+    int entrySize = 100;
+    long maxSizeInBytes = 1000;
+    SizeBoundedCache<byte[]> cache = new SizeBoundedCache<>(maxSizeInBytes, value -> value.length);
+    AtomicLong reportedSizeInBytes = new AtomicLong(-1);
+    cache.setSizeInBytesListener(reportedSizeInBytes::set);
+
+    // Entry larger than 1/10 of the cache should not be cached
+    assertFalse(cache.put("largeEntry", new byte[81]));
+    assertNull(cache.get("largeEntry"));
+    assertEquals(cache.getSizeInBytes(), 0);
+
+    // Evicted entries should be excluded from the size
+    for (int i = 0; i < 100; i++) {
+      assertTrue(cache.put(String.format("entry%05d", i), new byte[80]));
+      assertTrue(cache.getSizeInBytes() <= maxSizeInBytes);
+      assertEquals(cache.getSizeInBytes(), cache.getNumEntries() * entrySize);
+      assertEquals(reportedSizeInBytes.get(), cache.getSizeInBytes());
+    }
+
+    // Replaced entry should not be double counted
+    String key = String.format("entry%05d", 99);
+    assertTrue(cache.put(key, new byte[80]));
+    assertEquals(cache.getSizeInBytes(), cache.getNumEntries() * entrySize);
+    assertEquals(reportedSizeInBytes.get(), cache.getSizeInBytes());
+
+    // Invalidated entry should be excluded from the size, and the listener should be notified
+    long sizeInBytes = cache.getSizeInBytes();
+    cache.invalidate(key);
+    assertNull(cache.get(key));
+    assertEquals(cache.getSizeInBytes(), sizeInBytes - entrySize);
+    assertEquals(reportedSizeInBytes.get(), sizeInBytes - entrySize);
+
+    cache.invalidateAll();
+    assertEquals(cache.getNumEntries(), 0);
+    assertEquals(cache.getSizeInBytes(), 0);
+    assertEquals(reportedSizeInBytes.get(), 0);
+  }
+}
@@ -213,6 +213,30 @@ public class PerQueryCPUMemAccountantFactory implements ThreadAccountantFactory
       }
     }
 
+    /**
+     * Off-heap allocations are not captured by the thread allocated bytes sampled from the JVM, so they are added to
+     * the resource usage provider of the current thread and picked up by the next memory sample.
+     */
+    @Override
+    public void recordOffHeapBytesAllocated(long bytes) {
+      if (_isThreadMemorySamplingEnabled) {
+        ThreadResourceUsageProvider threadResourceUsageProvider = getThreadResourceUsageProvider();
+        if (threadResourceUsageProvider != null) {
+          threadResourceUsageProvider.recordOffHeapBytesAllocated(bytes);
+        }
+      }
+    }
+
+    @Override
+    public void recordOffHeapBytesReleased(long bytes) {
+      if (_isThreadMemorySamplingEnabled) {
+        ThreadResourceUsageProvider threadResourceUsageProvider = getThreadResourceUsageProvider();
+        if (threadResourceUsageProvider != null) {
+          threadResourceUsageProvider.recordOffHeapBytesReleased(bytes);
+        }
+      }
+    }
+
     private ThreadResourceUsageProvider getThreadResourceUsageProvider() {
       return _threadResourceUsageProvider.get();
     }
@@ -25,6 +25,7 @@ import org.apache.pinot.core.operator.dociditerators.OrDocIdIterator;
 import org.apache.pinot.core.operator.dociditerators.RangelessBitmapDocIdIterator;
 import org.apache.pinot.core.operator.dociditerators.ScanBasedDocIdIterator;
 import org.apache.pinot.core.operator.docidsets.BitmapDocIdSet;
+import org.apache.pinot.core.operator.docidsets.DocIdRangeDocIdSet;
 import org.apache.pinot.core.operator.docidsets.RangelessBitmapDocIdSet;
 import org.apache.pinot.segment.spi.Constants;
 import org.roaringbitmap.RoaringBitmapWriter;
@@ -48,6 +49,17 @@ public interface BlockDocIdSet {
    */
   long getNumEntriesScannedInFilter();
 
+  /**
+   * Returns a {@code BlockDocIdSet} that only contains the matching document ids within the range of
+   * [startDocId, endDocId). This is used to process disjoint document id ranges of the same segment in parallel. The
+   * default implementation filters the document ids returned from the iterator, and the index-based and scan-based
+   * implementations override it to skip the documents out of the range without reading them.
+   * <p>NOTE: This method should be called before the iterator is fetched.
+   */
+  default BlockDocIdSet withDocIdRange(int startDocId, int endDocId) {
+    return new DocIdRangeDocIdSet(this, startDocId, endDocId);
+  }
+
   /**
    * For scan-based FilterBlockDocIdSet, pre-scans the documents and returns a non-scan-based FilterBlockDocIdSet.
    */
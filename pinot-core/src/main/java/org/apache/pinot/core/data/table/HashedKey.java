@@ -0,0 +1,73 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.data.table;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+
+/**
+ * Specialized {@link Key} for the mixed-type key columns, which directly references the key values in the front of the
+ * record values instead of copying them into a separate array, and precomputes the hash code so that it is not
+ * recomputed on every map operation (e.g. rehash, compute, resize).
+ * <p>NOTE: The key values in the referenced array must not be modified after the key is created. The
+ *          {@link IndexedTable} only modifies the aggregation values after the key values.
+ */
+public class HashedKey extends Key {
+  private final Object[] _values;
+  private final int _numKeyColumns;
+  private final int _hashCode;
+
+  public HashedKey(Object[] values, int numKeyColumns) {
+    _values = values;
+    _numKeyColumns = numKeyColumns;
+    int hashCode = 1;
+    for (int i = 0; i < numKeyColumns; i++) {
+      hashCode = 31 * hashCode + Objects.hashCode(values[i]);
+    }
+    _hashCode = hashCode;
+  }
+
+  @Override
+  public Object[] getValues() {
+    return Arrays.copyOf(_values, _numKeyColumns);
+  }
+
+  // NOTE: Not check class for performance concern
+  @SuppressWarnings("EqualsWhichDoesntCheckParameterClass")
+  @Override
+  public boolean equals(Object o) {
+    HashedKey that = (HashedKey) o;
+    if (_hashCode != that._hashCode) {
+      return false;
+    }
+    Object[] thatValues = that._values;
+    for (int i = 0; i < _numKeyColumns; i++) {
+      if (!Objects.equals(_values[i], thatValues[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    return _hashCode;
+  }
+}
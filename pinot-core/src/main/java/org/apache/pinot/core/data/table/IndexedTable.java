@@ -18,7 +18,6 @@
  */
 package org.apache.pinot.core.data.table;
 
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
@@ -40,6 +39,8 @@ public abstract class IndexedTable extends BaseTable {
   protected final Map<Key, Record> _lookupMap;
   protected final int _resultSize;
   protected final int _numKeyColumns;
+  // Layout of the LongKey, or -1 to use the HashedKey
+  protected final byte _longKeyLayout;
   protected final AggregationFunction[] _aggregationFunctions;
   protected final boolean _hasOrderBy;
   protected final TableResizer _tableResizer;
@@ -69,6 +70,7 @@ public abstract class IndexedTable extends BaseTable {
     List<ExpressionContext> groupByExpressions = queryContext.getGroupByExpressions();
     assert groupByExpressions != null;
     _numKeyColumns = groupByExpressions.size();
+    _longKeyLayout = getLongKeyLayout(dataSchema, _numKeyColumns, queryContext.isNullHandlingEnabled());
     _aggregationFunctions = queryContext.getAggregationFunctions();
     List<OrderByExpressionContext> orderByExpressions = queryContext.getOrderByExpressions();
     if (orderByExpressions != null) {
@@ -90,12 +92,43 @@ public abstract class IndexedTable extends BaseTable {
     }
   }
 
+  /**
+   * Returns the layout of the {@link LongKey} if the key columns can be packed into a long, or -1 otherwise.
+   */
+  private static byte getLongKeyLayout(DataSchema dataSchema, int numKeyColumns, boolean nullHandlingEnabled) {
+    // Key values can be null when null handling is enabled
+    if (nullHandlingEnabled) {
+      return -1;
+    }
+    ColumnDataType[] storedColumnDataTypes = dataSchema.getStoredColumnDataTypes();
+    if (numKeyColumns == 1) {
+      if (storedColumnDataTypes[0] == ColumnDataType.INT) {
+        return LongKey.INT;
+      }
+      if (storedColumnDataTypes[0] == ColumnDataType.LONG) {
+        return LongKey.LONG;
+      }
+    } else if (numKeyColumns == 2) {
+      if (storedColumnDataTypes[0] == ColumnDataType.INT && storedColumnDataTypes[1] == ColumnDataType.INT) {
+        return LongKey.INT_INT;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the key for the given record values (with key columns in the front). All the records upserted into the
+   * table with {@link #upsert(Key, Record)} should use the keys created by this method.
+   */
+  public Key getKey(Object[] values) {
+    return _longKeyLayout >= 0 ? LongKey.fromValues(values, _longKeyLayout) : new HashedKey(values, _numKeyColumns);
+  }
+
   @Override
   public boolean upsert(Record record) {
     // NOTE: The record will always have key columns (group-by expressions) in the front. This is handled in
     //       AggregationGroupByOrderByOperator.
-    Object[] keyValues = Arrays.copyOf(record.getValues(), _numKeyColumns);
-    return upsert(new Key(keyValues), record);
+    return upsert(getKey(record.getValues()), record);
   }
 
   /**
@@ -34,4 +34,12 @@ public class IntermediateRecord {
     _record = record;
     _values = values;
   }
+
+  /**
+   * Creates an IntermediateRecord without the order-by values, which can only be used when the records do not need to
+   * be ordered (e.g. to be merged into an indexed table).
+   */
+  public static IntermediateRecord create(Key key, Record record) {
+    return new IntermediateRecord(key, record, null);
+  }
 }
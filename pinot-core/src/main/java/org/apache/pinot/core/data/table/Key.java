@@ -33,6 +33,8 @@ import java.util.Arrays;
  *   <li>STRING: String</li>
  *   <li>BYTES: ByteArray</li>
  * </ul>
+ * <p>The {@link IndexedTable} uses the specialized keys ({@link LongKey} and {@link HashedKey}) created with
+ * {@link IndexedTable#getKey(Object[])}, which should not be mixed with the generic keys in the same table.
  *
  * TODO: Consider replacing Key with Record as the concept is very close and the implementation is the same
  */
@@ -43,6 +45,13 @@ public class Key {
     _values = values;
   }
 
+  /**
+   * Constructor for the specialized keys that do not store the values as an Object[].
+   */
+  protected Key() {
+    _values = null;
+  }
+
   public Object[] getValues() {
     return _values;
   }
@@ -0,0 +1,87 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.data.table;
+
+import it.unimi.dsi.fastutil.HashCommon;
+
+
+/**
+ * Specialized {@link Key} for up to 2 INT columns or 1 LONG column, where the values are packed into a long to avoid
+ * boxing the values and allocating the value array.
+ */
+public class LongKey extends Key {
+  public static final byte INT = 0;
+  public static final byte LONG = 1;
+  public static final byte INT_INT = 2;
+
+  private final long _value;
+  private final byte _layout;
+
+  private LongKey(long value, byte layout) {
+    _value = value;
+    _layout = layout;
+  }
+
+  /**
+   * Creates a key from the leading values of the given record values based on the layout.
+   */
+  public static LongKey fromValues(Object[] values, byte layout) {
+    switch (layout) {
+      case INT:
+        return new LongKey((Integer) values[0], INT);
+      case LONG:
+        return new LongKey((Long) values[0], LONG);
+      case INT_INT:
+        return new LongKey(((long) (Integer) values[0] << 32) | ((Integer) values[1] & 0xFFFFFFFFL), INT_INT);
+      default:
+        throw new IllegalStateException("Unsupported layout: " + layout);
+    }
+  }
+
+  /**
+   * Decodes the values from the packed long. This is not on the hot path of the {@link IndexedTable} as the records
+   * always have the key values in the front.
+   */
+  @Override
+  public Object[] getValues() {
+    switch (_layout) {
+      case INT:
+        return new Object[]{(int) _value};
+      case LONG:
+        return new Object[]{_value};
+      case INT_INT:
+        return new Object[]{(int) (_value >> 32), (int) _value};
+      default:
+        throw new IllegalStateException("Unsupported layout: " + _layout);
+    }
+  }
+
+  // NOTE: Not check class for performance concern
+  @SuppressWarnings("EqualsWhichDoesntCheckParameterClass")
+  @Override
+  public boolean equals(Object o) {
+    return _value == ((LongKey) o)._value;
+  }
+
+  @Override
+  public int hashCode() {
+    // Mix the bits so that the packed values spread over the buckets
+    return Long.hashCode(HashCommon.mix(_value));
+  }
+}
@@ -0,0 +1,189 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.data.table;
+
+import it.unimi.dsi.fastutil.HashCommon;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.spi.trace.Tracing;
+
+
+/**
+ * {@link Table} implementation for combining group-by results from multiple threads without sharing a concurrent map
+ * across the threads. The records are merged in 2 phases:
+ * <ul>
+ *   <li>
+ *     Phase 1: each worker upserts its records into its own set of partitions (one {@link SimpleIndexedTable} per
+ *     partition) picked by the hash of the key, so no synchronization is needed.
+ *   </li>
+ *   <li>
+ *     Phase 2: each partition is merged across all the workers independently, so different partitions can be merged in
+ *     parallel. Because the partitions hold disjoint keys, trimming each partition to the trim size does not lose any
+ *     record that would be kept by trimming the whole table.
+ *   </li>
+ * </ul>
+ * The merged partitions are combined into this table when {@link #finish(boolean, boolean)} is called.
+ */
+public class PartitionedIndexedTable extends IndexedTable {
+  private final DataSchema _partitionDataSchema;
+  private final QueryContext _queryContext;
+  private final int _partitionResultSize;
+  private final int _partitionTrimSize;
+  private final int _partitionTrimThreshold;
+  private final int _numWorkers;
+  private final int _numPartitions;
+  // Indexed by [workerId][partitionId], lazily created
+  private final SimpleIndexedTable[][] _workerPartitions;
+  private final SimpleIndexedTable[] _mergedPartitions;
+  private final AtomicInteger _partitionNumResizes = new AtomicInteger();
+  private final AtomicLong _partitionResizeTimeMs = new AtomicLong();
+
+  public PartitionedIndexedTable(DataSchema dataSchema, QueryContext queryContext, int resultSize, int trimSize,
+      int trimThreshold, int numWorkers, int numPartitions) {
+    super(dataSchema, queryContext, resultSize, trimSize, trimThreshold, new HashMap<>());
+    _partitionDataSchema = dataSchema;
+    _queryContext = queryContext;
+    _partitionResultSize = resultSize;
+    _partitionTrimSize = trimSize;
+    _partitionTrimThreshold = trimThreshold;
+    _numWorkers = numWorkers;
+    _numPartitions = numPartitions;
+    _workerPartitions = new SimpleIndexedTable[numWorkers][numPartitions];
+    _mergedPartitions = new SimpleIndexedTable[numPartitions];
+  }
+
+  public int getNumPartitions() {
+    return _numPartitions;
+  }
+
+  /**
+   * Phase 1: upserts a record into the partitions of the given worker. Records from the same worker must be upserted
+   * from the same thread, and all the workers must finish before {@link #mergePartition(int)} is called.
+   */
+  public void upsert(int workerId, Record record) {
+    Key key = getKey(record.getValues());
+    SimpleIndexedTable[] partitions = _workerPartitions[workerId];
+    int partitionId = getPartitionId(key);
+    SimpleIndexedTable partition = partitions[partitionId];
+    if (partition == null) {
+      partition = new SimpleIndexedTable(_partitionDataSchema, _queryContext, _partitionResultSize, _partitionTrimSize,
+          _partitionTrimThreshold);
+      partitions[partitionId] = partition;
+    }
+    partition.upsert(key, record);
+  }
+
+  /**
+   * Phase 2: merges the given partition across all the workers. Different partitions can be merged in parallel.
+   */
+  public void mergePartition(int partitionId) {
+    SimpleIndexedTable mergedPartition = null;
+    int mergedKeys = 0;
+    for (int i = 0; i < _numWorkers; i++) {
+      SimpleIndexedTable workerPartition = _workerPartitions[i][partitionId];
+      if (workerPartition == null) {
+        continue;
+      }
+      _workerPartitions[i][partitionId] = null;
+      if (mergedPartition == null) {
+        mergedPartition = workerPartition;
+        continue;
+      }
+      // Merge the smaller partition into the larger one
+      if (workerPartition._lookupMap.size() > mergedPartition._lookupMap.size()) {
+        SimpleIndexedTable temp = mergedPartition;
+        mergedPartition = workerPartition;
+        workerPartition = temp;
+      }
+      for (Map.Entry<Key, Record> entry : workerPartition._lookupMap.entrySet()) {
+        mergedPartition.upsert(entry.getKey(), entry.getValue());
+        Tracing.ThreadAccountantOps.sampleAndCheckInterruptionPeriodically(mergedKeys);
+        mergedKeys++;
+      }
+      recordResizes(workerPartition);
+    }
+    if (mergedPartition != null) {
+      if (_hasOrderBy && mergedPartition._lookupMap.size() > _trimSize) {
+        mergedPartition.resize();
+      }
+      recordResizes(mergedPartition);
+      _mergedPartitions[partitionId] = mergedPartition;
+    }
+  }
+
+  private void recordResizes(SimpleIndexedTable partition) {
+    _partitionNumResizes.addAndGet(partition.getNumResizes());
+    _partitionResizeTimeMs.addAndGet(partition.getResizeTimeMs());
+  }
+
+  /**
+   * Picks the partition from the high bits of the mixed hash, so that the keys within a partition still spread over
+   * the buckets of the partition's hash map.
+   */
+  private int getPartitionId(Key key) {
+    return (int) (((HashCommon.mix(key.hashCode()) & 0xFFFFFFFFL) * _numPartitions) >>> 32);
+  }
+
+  /**
+   * Records must be upserted through {@link #upsert(int, Record)}.
+   */
+  @Override
+  public boolean upsert(Key key, Record record) {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Combines the merged partitions, then finishes the table. Must be called after all the partitions are merged.
+   */
+  @Override
+  public void finish(boolean sort, boolean storeFinalResult) {
+    for (SimpleIndexedTable mergedPartition : _mergedPartitions) {
+      if (mergedPartition == null) {
+        continue;
+      }
+      if (_hasOrderBy) {
+        // Keys are disjoint across partitions, and the top records are picked when finishing the table
+        _lookupMap.putAll(mergedPartition._lookupMap);
+      } else {
+        // Keep up to result size records as the indexed table stops accepting new records at result size
+        for (Map.Entry<Key, Record> entry : mergedPartition._lookupMap.entrySet()) {
+          if (_lookupMap.size() >= _resultSize) {
+            break;
+          }
+          _lookupMap.put(entry.getKey(), entry.getValue());
+        }
+      }
+    }
+    super.finish(sort, storeFinalResult);
+  }
+
+  @Override
+  public int getNumResizes() {
+    return super.getNumResizes() + _partitionNumResizes.get();
+  }
+
+  @Override
+  public long getResizeTimeMs() {
+    return super.getResizeTimeMs() + _partitionResizeTimeMs.get();
+  }
+}
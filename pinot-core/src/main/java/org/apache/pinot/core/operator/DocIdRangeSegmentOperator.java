@@ -0,0 +1,95 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator;
+
+import java.util.Collections;
+import java.util.List;
+import org.apache.pinot.core.common.Operator;
+import org.apache.pinot.core.operator.blocks.results.BaseResultsBlock;
+import org.apache.pinot.segment.spi.IndexSegment;
+
+
+/**
+ * A wrapper around the segment-level operator that processes one of the disjoint document id ranges split from a large
+ * segment. The ranges of the same segment are processed in parallel and combined like separate segments.
+ * <p>All the ranges split from the same segment share the same range boundaries array, which is used to count the
+ * ranges as a single segment in the execution statistics.
+ */
+public class DocIdRangeSegmentOperator<T extends BaseResultsBlock> extends BaseOperator<T> {
+  private static final String EXPLAIN_NAME = "DOC_ID_RANGE_SEGMENT";
+
+  private final Operator<T> _childOperator;
+  private final IndexSegment _indexSegment;
+  private final int[] _docIdRangeBoundaries;
+  private final int _rangeId;
+
+  public DocIdRangeSegmentOperator(Operator<T> childOperator, IndexSegment indexSegment, int[] docIdRangeBoundaries,
+      int rangeId) {
+    _childOperator = childOperator;
+    _indexSegment = indexSegment;
+    _docIdRangeBoundaries = docIdRangeBoundaries;
+    _rangeId = rangeId;
+  }
+
+  /**
+   * Returns the boundaries of all the document id ranges split from the segment, where range {@code i} covers the
+   * document ids within [boundaries[i], boundaries[i + 1]).
+   */
+  public int[] getDocIdRangeBoundaries() {
+    return _docIdRangeBoundaries;
+  }
+
+  public int getRangeId() {
+    return _rangeId;
+  }
+
+  @Override
+  protected T getNextBlock() {
+    return _childOperator.nextBlock();
+  }
+
+  @SuppressWarnings("rawtypes")
+  @Override
+  public List<Operator> getChildOperators() {
+    return Collections.singletonList(_childOperator);
+  }
+
+  @Override
+  public String toExplainString() {
+    return new StringBuilder(EXPLAIN_NAME).append("(startDocId:").append(_docIdRangeBoundaries[_rangeId])
+        .append(",endDocId:").append(_docIdRangeBoundaries[_rangeId + 1]).append(')').toString();
+  }
+
+  @Override
+  public IndexSegment getIndexSegment() {
+    return _indexSegment;
+  }
+
+  /**
+   * Returns the execution statistics of the child operator, with the total docs limited to the documents within the
+   * range so that the ranges of the same segment sum up to the total docs of the segment.
+   */
+  @Override
+  public ExecutionStatistics getExecutionStatistics() {
+    ExecutionStatistics executionStatistics = _childOperator.getExecutionStatistics();
+    return new ExecutionStatistics(executionStatistics.getNumDocsScanned(),
+        executionStatistics.getNumEntriesScannedInFilter(), executionStatistics.getNumEntriesScannedPostFilter(),
+        _docIdRangeBoundaries[_rangeId + 1] - _docIdRangeBoundaries[_rangeId]);
+  }
+}
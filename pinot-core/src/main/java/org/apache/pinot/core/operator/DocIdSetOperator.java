@@ -44,15 +44,30 @@ public class DocIdSetOperator extends BaseOperator<DocIdSetBlock> {
 
   private final BaseFilterOperator _filterOperator;
   private final int _maxSizeOfDocIdSet;
+  private final boolean _adaptiveMaxSizeOfDocIdSet;
 
   private BlockDocIdSet _blockDocIdSet;
   private BlockDocIdIterator _blockDocIdIterator;
   private int _currentDocId = 0;
 
   public DocIdSetOperator(BaseFilterOperator filterOperator, int maxSizeOfDocIdSet) {
+    this(filterOperator, maxSizeOfDocIdSet, false);
+  }
+
+  /**
+   * @param adaptiveMaxSizeOfDocIdSet Whether the max size of the document id set was picked per query (adaptive block
+   *                                  sizing), in which case it is reported in the explain output
+   */
+  public DocIdSetOperator(BaseFilterOperator filterOperator, int maxSizeOfDocIdSet,
+      boolean adaptiveMaxSizeOfDocIdSet) {
     Preconditions.checkArgument(maxSizeOfDocIdSet > 0 && maxSizeOfDocIdSet <= DocIdSetPlanNode.MAX_DOC_PER_CALL);
     _filterOperator = filterOperator;
     _maxSizeOfDocIdSet = maxSizeOfDocIdSet;
+    _adaptiveMaxSizeOfDocIdSet = adaptiveMaxSizeOfDocIdSet;
+  }
+
+  public int getMaxSizeOfDocIdSet() {
+    return _maxSizeOfDocIdSet;
   }
 
   @Override
@@ -65,6 +80,7 @@ public class DocIdSetOperator extends BaseOperator<DocIdSetBlock> {
     if (_blockDocIdSet == null) {
       _blockDocIdSet = _filterOperator.nextBlock().getBlockDocIdSet();
       _blockDocIdIterator = _blockDocIdSet.iterator();
+      Tracing.activeRecording().setMaxDocsPerCall(_maxSizeOfDocIdSet);
     }
 
     Tracing.ThreadAccountantOps.sample();
@@ -87,6 +103,9 @@ public class DocIdSetOperator extends BaseOperator<DocIdSetBlock> {
 
   @Override
   public String toExplainString() {
+    if (_adaptiveMaxSizeOfDocIdSet) {
+      return EXPLAIN_NAME + "(maxDocsPerCall:" + _maxSizeOfDocIdSet + ')';
+    }
     return EXPLAIN_NAME;
   }
 
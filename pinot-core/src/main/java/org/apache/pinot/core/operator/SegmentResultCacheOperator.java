@@ -0,0 +1,158 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.apache.pinot.common.datatable.DataTable;
+import org.apache.pinot.common.datatable.DataTable.MetadataKey;
+import org.apache.pinot.common.datatable.DataTableFactory;
+import org.apache.pinot.common.metrics.ServerMeter;
+import org.apache.pinot.common.metrics.ServerMetrics;
+import org.apache.pinot.core.common.Operator;
+import org.apache.pinot.core.operator.blocks.results.BaseResultsBlock;
+import org.apache.pinot.core.operator.blocks.results.GroupByResultsBlock;
+import org.apache.pinot.core.operator.blocks.results.SegmentResultsBlockSerDe;
+import org.apache.pinot.core.plan.PlanNode;
+import org.apache.pinot.core.query.cache.SegmentResultCache;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.segment.spi.IndexSegment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * A wrapper around the segment-level operator which serves the segment results from the {@link SegmentResultCache}
+ * when available, and caches the results after processing the segment otherwise.
+ * Same as {@link AcquireReleaseColumnsSegmentOperator}, it expects the PlanNode of the execution instead of the
+ * Operator, so that the segment is only planned on cache miss.
+ */
+@SuppressWarnings("unchecked")
+public class SegmentResultCacheOperator extends BaseOperator<BaseResultsBlock> {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SegmentResultCacheOperator.class);
+  private static final String EXPLAIN_NAME = "SEGMENT_RESULT_CACHE";
+
+  private final PlanNode _planNode;
+  private final IndexSegment _indexSegment;
+  private final QueryContext _queryContext;
+  private final SegmentResultCache _segmentResultCache;
+  private final String _cacheKey;
+  private final ServerMetrics _serverMetrics;
+
+  private Operator<BaseResultsBlock> _childOperator;
+  private ExecutionStatistics _cachedExecutionStatistics;
+
+  public SegmentResultCacheOperator(PlanNode planNode, IndexSegment indexSegment, QueryContext queryContext,
+      SegmentResultCache segmentResultCache, String cacheKey, @Nullable ServerMetrics serverMetrics) {
+    _planNode = planNode;
+    _indexSegment = indexSegment;
+    _queryContext = queryContext;
+    _segmentResultCache = segmentResultCache;
+    _cacheKey = cacheKey;
+    _serverMetrics = serverMetrics;
+  }
+
+  @Override
+  protected BaseResultsBlock getNextBlock() {
+    byte[] cachedResults = _segmentResultCache.get(_cacheKey);
+    if (cachedResults != null) {
+      try {
+        BaseResultsBlock resultsBlock = getCachedResultsBlock(DataTableFactory.getDataTable(cachedResults));
+        addMeteredValue(ServerMeter.SEGMENT_RESULT_CACHE_HITS);
+        return resultsBlock;
+      } catch (IOException e) {
+        LOGGER.warn("Caught exception while deserializing the cached results of segment: {}, re-processing the segment",
+            _indexSegment.getSegmentName(), e);
+      }
+    }
+    addMeteredValue(ServerMeter.SEGMENT_RESULT_CACHE_MISSES);
+    _childOperator = (Operator<BaseResultsBlock>) _planNode.run();
+    BaseResultsBlock resultsBlock = _childOperator.nextBlock();
+    cacheResultsBlock(resultsBlock);
+    return resultsBlock;
+  }
+
+  private BaseResultsBlock getCachedResultsBlock(DataTable dataTable) {
+    BaseResultsBlock resultsBlock = SegmentResultsBlockSerDe.fromDataTable(dataTable, _queryContext);
+    Map<String, String> metadata = dataTable.getMetadata();
+    if (resultsBlock instanceof GroupByResultsBlock && Boolean.parseBoolean(
+        metadata.get(MetadataKey.NUM_GROUPS_LIMIT_REACHED.getName()))) {
+      ((GroupByResultsBlock) resultsBlock).setNumGroupsLimitReached(true);
+    }
+    // NOTE: Keep the documents scanned when the results were cached so that the query stats are consistent, but no
+    //       entry is scanned when serving from the cache.
+    _cachedExecutionStatistics =
+        new ExecutionStatistics(Long.parseLong(metadata.get(MetadataKey.NUM_DOCS_SCANNED.getName())), 0, 0,
+            Long.parseLong(metadata.get(MetadataKey.TOTAL_DOCS.getName())));
+    return resultsBlock;
+  }
+
+  private void cacheResultsBlock(BaseResultsBlock resultsBlock) {
+    try {
+      DataTable dataTable = SegmentResultsBlockSerDe.toDataTable(resultsBlock);
+      if (dataTable == null) {
+        return;
+      }
+      ExecutionStatistics executionStatistics = _childOperator.getExecutionStatistics();
+      Map<String, String> metadata = dataTable.getMetadata();
+      metadata.put(MetadataKey.NUM_DOCS_SCANNED.getName(), Long.toString(executionStatistics.getNumDocsScanned()));
+      metadata.put(MetadataKey.TOTAL_DOCS.getName(), Long.toString(executionStatistics.getNumTotalDocs()));
+      if (resultsBlock instanceof GroupByResultsBlock
+          && ((GroupByResultsBlock) resultsBlock).isNumGroupsLimitReached()) {
+        metadata.put(MetadataKey.NUM_GROUPS_LIMIT_REACHED.getName(), "true");
+      }
+      _segmentResultCache.put(_cacheKey, dataTable.toBytes());
+    } catch (Exception e) {
+      LOGGER.warn("Caught exception while caching the results of segment: {}", _indexSegment.getSegmentName(), e);
+    }
+  }
+
+  private void addMeteredValue(ServerMeter meter) {
+    if (_serverMetrics != null) {
+      _serverMetrics.addMeteredTableValue(_queryContext.getTableName(), meter, 1L);
+    }
+  }
+
+  @Override
+  public String toExplainString() {
+    return EXPLAIN_NAME;
+  }
+
+  @Override
+  public List<Operator> getChildOperators() {
+    // The segment is not planned when the results are served from the cache
+    return _childOperator != null ? Collections.singletonList(_childOperator) : Collections.emptyList();
+  }
+
+  @Override
+  public IndexSegment getIndexSegment() {
+    return _indexSegment;
+  }
+
+  @Override
+  public ExecutionStatistics getExecutionStatistics() {
+    if (_cachedExecutionStatistics != null) {
+      return _cachedExecutionStatistics;
+    }
+    return _childOperator == null ? new ExecutionStatistics(0, 0, 0, 0) : _childOperator.getExecutionStatistics();
+  }
+}
@@ -53,6 +53,21 @@ public class InstanceResponseBlock implements Block {
       }
     }
     _metadata = resultsBlock.getResultsMetadata();
+    int adaptiveMaxDocsPerCall = queryContext.getMinAdaptiveMaxDocsPerCall();
+    if (adaptiveMaxDocsPerCall > 0) {
+      _metadata.put(DataTable.MetadataKey.ADAPTIVE_MAX_DOCS_PER_CALL.getName(),
+          Integer.toString(adaptiveMaxDocsPerCall));
+    }
+    int numSegmentsPrunedByOrderByBoundary = queryContext.getNumSegmentsPrunedByOrderByBoundary();
+    if (numSegmentsPrunedByOrderByBoundary > 0) {
+      _metadata.put(DataTable.MetadataKey.NUM_SEGMENTS_PRUNED_BY_ORDER_BY_BOUNDARY.getName(),
+          Integer.toString(numSegmentsPrunedByOrderByBoundary));
+    }
+    long numDocsPrunedByOrderByBoundary = queryContext.getNumDocsPrunedByOrderByBoundary();
+    if (numDocsPrunedByOrderByBoundary > 0) {
+      _metadata.put(DataTable.MetadataKey.NUM_DOCS_PRUNED_BY_ORDER_BY_BOUNDARY.getName(),
+          Long.toString(numDocsPrunedByOrderByBoundary));
+    }
   }
 
   /**
@@ -209,7 +209,7 @@ public class GroupByResultsBlock extends BaseResultsBlock {
     return dataTableBuilder.build();
   }
 
-  private void setDataTableColumn(ColumnDataType storedColumnDataType, DataTableBuilder dataTableBuilder,
+  static void setDataTableColumn(ColumnDataType storedColumnDataType, DataTableBuilder dataTableBuilder,
       int columnIndex, Object value)
       throws IOException {
     switch (storedColumnDataType) {
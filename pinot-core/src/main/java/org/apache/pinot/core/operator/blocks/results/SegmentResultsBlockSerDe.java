@@ -0,0 +1,185 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.blocks.results;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import javax.annotation.Nullable;
+import org.apache.pinot.common.datatable.DataTable;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.core.common.datatable.DataTableBuilder;
+import org.apache.pinot.core.common.datatable.DataTableBuilderFactory;
+import org.apache.pinot.core.data.table.IntermediateRecord;
+import org.apache.pinot.core.data.table.Key;
+import org.apache.pinot.core.data.table.Record;
+import org.apache.pinot.core.query.aggregation.function.AggregationFunction;
+import org.apache.pinot.core.query.aggregation.function.AggregationFunctionUtils;
+import org.apache.pinot.core.query.aggregation.groupby.AggregationGroupByResult;
+import org.apache.pinot.core.query.aggregation.groupby.GroupKeyGenerator;
+import org.apache.pinot.core.query.request.context.QueryContext;
+
+
+/**
+ * The {@code SegmentResultsBlockSerDe} class serializes the segment level aggregation and group-by results blocks into
+ * {@link DataTable}s with the intermediate results, and deserializes them back into results blocks that can be merged
+ * by the combine operators. Null handling is not supported.
+ */
+@SuppressWarnings("rawtypes")
+public class SegmentResultsBlockSerDe {
+  private SegmentResultsBlockSerDe() {
+  }
+
+  /**
+   * Serializes the segment level results block into a {@link DataTable}, or returns {@code null} if the results block
+   * is not supported.
+   */
+  @Nullable
+  public static DataTable toDataTable(BaseResultsBlock resultsBlock)
+      throws IOException {
+    if (resultsBlock instanceof AggregationResultsBlock) {
+      return toDataTable((AggregationResultsBlock) resultsBlock);
+    }
+    if (resultsBlock instanceof GroupByResultsBlock) {
+      return toDataTable((GroupByResultsBlock) resultsBlock);
+    }
+    return null;
+  }
+
+  private static DataTable toDataTable(AggregationResultsBlock resultsBlock)
+      throws IOException {
+    AggregationFunction[] aggregationFunctions = resultsBlock.getAggregationFunctions();
+    int numAggregationFunctions = aggregationFunctions.length;
+    String[] columnNames = new String[numAggregationFunctions];
+    ColumnDataType[] columnDataTypes = new ColumnDataType[numAggregationFunctions];
+    for (int i = 0; i < numAggregationFunctions; i++) {
+      columnNames[i] = aggregationFunctions[i].getResultColumnName();
+      columnDataTypes[i] = aggregationFunctions[i].getIntermediateResultColumnType();
+    }
+    DataTableBuilder dataTableBuilder =
+        DataTableBuilderFactory.getDataTableBuilder(new DataSchema(columnNames, columnDataTypes));
+    List<Object> results = resultsBlock.getResults();
+    dataTableBuilder.startRow();
+    for (int i = 0; i < numAggregationFunctions; i++) {
+      GroupByResultsBlock.setDataTableColumn(columnDataTypes[i], dataTableBuilder, i, results.get(i));
+    }
+    dataTableBuilder.finishRow();
+    return dataTableBuilder.build();
+  }
+
+  private static DataTable toDataTable(GroupByResultsBlock resultsBlock)
+      throws IOException {
+    DataSchema dataSchema = resultsBlock.getDataSchema();
+    ColumnDataType[] storedColumnDataTypes = dataSchema.getStoredColumnDataTypes();
+    int numColumns = storedColumnDataTypes.length;
+    DataTableBuilder dataTableBuilder = DataTableBuilderFactory.getDataTableBuilder(dataSchema);
+    Collection<IntermediateRecord> intermediateRecords = resultsBlock.getIntermediateRecords();
+    if (intermediateRecords != null) {
+      for (IntermediateRecord intermediateRecord : intermediateRecords) {
+        addRow(dataTableBuilder, storedColumnDataTypes, intermediateRecord._record.getValues());
+      }
+    } else {
+      AggregationGroupByResult aggregationGroupByResult = resultsBlock.getAggregationGroupByResult();
+      if (aggregationGroupByResult != null) {
+        Iterator<GroupKeyGenerator.GroupKey> groupKeyIterator = aggregationGroupByResult.getGroupKeyIterator();
+        while (groupKeyIterator.hasNext()) {
+          GroupKeyGenerator.GroupKey groupKey = groupKeyIterator.next();
+          Object[] keys = groupKey._keys;
+          int numKeys = keys.length;
+          Object[] values = Arrays.copyOf(keys, numColumns);
+          for (int i = numKeys; i < numColumns; i++) {
+            values[i] = aggregationGroupByResult.getResultForGroupId(i - numKeys, groupKey._groupId);
+          }
+          addRow(dataTableBuilder, storedColumnDataTypes, values);
+        }
+      }
+    }
+    return dataTableBuilder.build();
+  }
+
+  private static void addRow(DataTableBuilder dataTableBuilder, ColumnDataType[] storedColumnDataTypes,
+      Object[] values)
+      throws IOException {
+    dataTableBuilder.startRow();
+    for (int colId = 0; colId < storedColumnDataTypes.length; colId++) {
+      GroupByResultsBlock.setDataTableColumn(storedColumnDataTypes[colId], dataTableBuilder, colId, values[colId]);
+    }
+    dataTableBuilder.finishRow();
+  }
+
+  /**
+   * Deserializes the {@link DataTable} serialized by {@link #toDataTable(BaseResultsBlock)} back into a segment level
+   * results block.
+   */
+  public static BaseResultsBlock fromDataTable(DataTable dataTable, QueryContext queryContext) {
+    DataSchema dataSchema = dataTable.getDataSchema();
+    ColumnDataType[] storedColumnDataTypes = dataSchema.getStoredColumnDataTypes();
+    int numColumns = storedColumnDataTypes.length;
+    if (queryContext.getGroupByExpressions() == null) {
+      AggregationFunction[] aggregationFunctions = queryContext.getAggregationFunctions();
+      assert aggregationFunctions != null;
+      List<Object> results = new ArrayList<>(numColumns);
+      for (int i = 0; i < numColumns; i++) {
+        results.add(AggregationFunctionUtils.getIntermediateResult(dataTable, storedColumnDataTypes[i], 0, i));
+      }
+      return new AggregationResultsBlock(aggregationFunctions, results);
+    }
+    int numGroupByExpressions = queryContext.getGroupByExpressions().size();
+    int numRows = dataTable.getNumberOfRows();
+    List<IntermediateRecord> intermediateRecords = new ArrayList<>(numRows);
+    for (int rowId = 0; rowId < numRows; rowId++) {
+      Object[] values = new Object[numColumns];
+      for (int colId = 0; colId < numGroupByExpressions; colId++) {
+        values[colId] = getKey(dataTable, storedColumnDataTypes[colId], rowId, colId);
+      }
+      for (int colId = numGroupByExpressions; colId < numColumns; colId++) {
+        values[colId] = AggregationFunctionUtils.getIntermediateResult(dataTable, storedColumnDataTypes[colId], rowId,
+            colId);
+      }
+      intermediateRecords.add(
+          IntermediateRecord.create(new Key(Arrays.copyOf(values, numGroupByExpressions)), new Record(values)));
+    }
+    return new GroupByResultsBlock(dataSchema, intermediateRecords);
+  }
+
+  private static Object getKey(DataTable dataTable, ColumnDataType storedColumnDataType, int rowId, int colId) {
+    switch (storedColumnDataType) {
+      case INT:
+        return dataTable.getInt(rowId, colId);
+      case LONG:
+        return dataTable.getLong(rowId, colId);
+      case FLOAT:
+        return dataTable.getFloat(rowId, colId);
+      case DOUBLE:
+        return dataTable.getDouble(rowId, colId);
+      case BIG_DECIMAL:
+        return dataTable.getBigDecimal(rowId, colId);
+      case STRING:
+        return dataTable.getString(rowId, colId);
+      case BYTES:
+        return dataTable.getBytes(rowId, colId);
+      default:
+        throw new IllegalStateException("Unsupported stored type for group key: " + storedColumnDataType);
+    }
+  }
+}
@@ -76,8 +76,7 @@ public abstract class BaseCombineOperator<T extends BaseResultsBlock> extends Ba
   protected BaseCombineOperator(ResultsBlockMerger<T> resultsBlockMerger, List<Operator> operators,
       QueryContext queryContext, ExecutorService executorService) {
     _resultsBlockMerger = resultsBlockMerger;
-    _operators = operators;
-    _numOperators = _operators.size();
+    _numOperators = operators.size();
     _queryContext = queryContext;
     _executorService = executorService;
 
@@ -86,6 +85,15 @@ public abstract class BaseCombineOperator<T extends BaseResultsBlock> extends Ba
     //       The parallelism is bounded by the task count.
     _numTasks = QueryMultiThreadingUtils.getNumTasksForQuery(operators.size(), queryContext.getMaxExecutionThreads());
 
+    // NOTE: The tasks claim the operators dynamically in the list order, so when there are more operators than tasks,
+    //       putting the most expensive operators first balances the load across the tasks (longest processing time
+    //       first scheduling), and prevents a large segment claimed at the end from becoming the straggler.
+    if (queryContext.isCostBasedSegmentScheduling() && _numTasks > 1 && _numTasks < _numOperators) {
+      _operators = CombineOperatorUtils.sortOperatorsByEstimatedCost(operators);
+    } else {
+      _operators = operators;
+    }
+
     // Use a Phaser to ensure all the Futures are done (not scheduled, finished or interrupted) before the main thread
     // returns. We need to ensure this because the main thread holds the reference to the segments. If a segment is
     // deleted/refreshed, the segment will be released after the main thread returns, which would lead to undefined
@@ -156,6 +164,9 @@ public abstract class BaseCombineOperator<T extends BaseResultsBlock> extends Ba
     }
     // Deregister the main thread and wait for all threads done
     _phaser.awaitAdvance(_phaser.arriveAndDeregister());
+    // Release the resources (e.g. off-heap group-by storage) not released by the operators, which is safe now that all
+    // the threads are done
+    _queryContext.releaseResources();
   }
 
   protected ExceptionResultsBlock getTimeoutResultsBlock(int numBlocksMerged) {
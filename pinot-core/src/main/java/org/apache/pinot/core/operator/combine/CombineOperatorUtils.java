@@ -18,10 +18,20 @@
  */
 package org.apache.pinot.core.operator.combine;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import org.apache.pinot.core.common.Operator;
+import org.apache.pinot.core.operator.AcquireReleaseColumnsSegmentOperator;
+import org.apache.pinot.core.operator.DocIdRangeSegmentOperator;
 import org.apache.pinot.core.operator.ExecutionStatistics;
+import org.apache.pinot.core.operator.SegmentResultCacheOperator;
 import org.apache.pinot.core.operator.blocks.results.BaseResultsBlock;
+import org.apache.pinot.core.operator.filter.BaseFilterOperator;
+import org.apache.pinot.core.operator.filter.DocIdRangeFilterOperator;
 import org.apache.pinot.segment.spi.MutableSegment;
 
 
@@ -32,11 +42,15 @@ public class CombineOperatorUtils {
 
   /**
    * Sets the execution statistics into the results block.
+   * <p>The operators processing different doc id ranges of the same segment are counted as a single segment, which is
+   * matched when any of the ranges has matching documents.
    */
   public static void setExecutionStatistics(BaseResultsBlock resultsBlock, List<Operator> operators,
       long threadCpuTimeNs, int numServerThreads) {
     int numSegmentsProcessed = operators.size();
     int numSegmentsMatched = 0;
+    // Doc id ranges of the same segment share the same boundaries array, so use it as the identity of the segment split
+    Map<int[], Boolean> docIdRangeSegmentMatched = null;
     int numConsumingSegmentsProcessed = 0;
     int numConsumingSegmentsMatched = 0;
     long numDocsScanned = 0;
@@ -45,7 +59,22 @@ public class CombineOperatorUtils {
     long numTotalDocs = 0;
     for (Operator operator : operators) {
       ExecutionStatistics executionStatistics = operator.getExecutionStatistics();
-      if (executionStatistics.getNumDocsScanned() > 0) {
+      if (operator instanceof DocIdRangeSegmentOperator) {
+        if (docIdRangeSegmentMatched == null) {
+          docIdRangeSegmentMatched = new IdentityHashMap<>();
+        }
+        int[] docIdRangeBoundaries = ((DocIdRangeSegmentOperator) operator).getDocIdRangeBoundaries();
+        Boolean matched = docIdRangeSegmentMatched.get(docIdRangeBoundaries);
+        if (matched != null) {
+          numSegmentsProcessed--;
+        }
+        if (executionStatistics.getNumDocsScanned() > 0 && matched != Boolean.TRUE) {
+          numSegmentsMatched++;
+          docIdRangeSegmentMatched.put(docIdRangeBoundaries, true);
+        } else if (matched == null) {
+          docIdRangeSegmentMatched.put(docIdRangeBoundaries, false);
+        }
+      } else if (executionStatistics.getNumDocsScanned() > 0) {
         numSegmentsMatched++;
       }
       // TODO: Check all operators and properly implement the getIndexSegment and remove this exception handling
@@ -75,4 +104,66 @@ public class CombineOperatorUtils {
     resultsBlock.setExecutionThreadCpuTimeNs(threadCpuTimeNs);
     resultsBlock.setNumServerThreads(numServerThreads);
   }
+
+  /**
+   * Returns a copy of the segment level operators sorted by the estimated cost in descending order. Processing the most
+   * expensive segments first lets the cheap segments fill in the gaps at the tail, which reduces the chance of a single
+   * worker thread picking up a large segment at the end and becoming the straggler of the query.
+   */
+  public static List<Operator> sortOperatorsByEstimatedCost(List<Operator> operators) {
+    int numOperators = operators.size();
+    long[] costs = new long[numOperators];
+    Integer[] indices = new Integer[numOperators];
+    for (int i = 0; i < numOperators; i++) {
+      costs[i] = getEstimatedCost(operators.get(i));
+      indices[i] = i;
+    }
+    // NOTE: Arrays.sort() on objects is stable, so the operators with the same cost keep the original order
+    Arrays.sort(indices, Comparator.comparingLong((Integer i) -> costs[i]).reversed());
+    List<Operator> sortedOperators = new ArrayList<>(numOperators);
+    for (int index : indices) {
+      sortedOperators.add(operators.get(index));
+    }
+    return sortedOperators;
+  }
+
+  /**
+   * Estimates the cost of executing the given segment level operator as the number of documents in the segment (or doc
+   * id range) expected to match the filter, based on {@link BaseFilterOperator#getEstimatedSelectivity()}. Returns 0
+   * when the filter never matches, or when the cost cannot be estimated (e.g. metadata based operators without filter).
+   * <p>NOTE: This method is invoked on the query thread for every segment before the worker tasks are submitted, so it
+   * must only rely on metadata. Do not count the matching documents here (e.g. with
+   * {@link BaseFilterOperator#getNumMatchingDocs()}), which might evaluate the whole filter.
+   */
+  public static long getEstimatedCost(Operator operator) {
+    if (operator instanceof DocIdRangeFilterOperator) {
+      DocIdRangeFilterOperator filterOperator = (DocIdRangeFilterOperator) operator;
+      return getEstimatedCost(filterOperator, filterOperator.getEndDocId() - filterOperator.getStartDocId());
+    }
+    if (operator instanceof BaseFilterOperator) {
+      BaseFilterOperator filterOperator = (BaseFilterOperator) operator;
+      return getEstimatedCost(filterOperator, filterOperator.getNumDocs());
+    }
+    if (operator instanceof AcquireReleaseColumnsSegmentOperator || operator instanceof SegmentResultCacheOperator) {
+      // The child operator is not materialized until the columns are acquired, or until the segment results are missed
+      // in the segment result cache
+      return operator.getIndexSegment().getSegmentMetadata().getTotalDocs();
+    }
+    // Take the max cost among the children to handle operators with multiple filters (e.g. filtered aggregations)
+    long cost = 0;
+    List<? extends Operator> childOperators = operator.getChildOperators();
+    if (childOperators != null) {
+      for (Operator childOperator : childOperators) {
+        if (childOperator != null) {
+          cost = Math.max(cost, getEstimatedCost(childOperator));
+        }
+      }
+    }
+    return cost;
+  }
+
+  private static long getEstimatedCost(BaseFilterOperator filterOperator, int numDocs) {
+    // Round up so that a filter that might match always costs more than a filter that never matches
+    return (long) Math.ceil(numDocs * filterOperator.getEstimatedSelectivity());
+  }
 }
@@ -24,14 +24,16 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.core.common.Operator;
 import org.apache.pinot.core.data.table.ConcurrentIndexedTable;
 import org.apache.pinot.core.data.table.IndexedTable;
 import org.apache.pinot.core.data.table.IntermediateRecord;
-import org.apache.pinot.core.data.table.Key;
+import org.apache.pinot.core.data.table.PartitionedIndexedTable;
 import org.apache.pinot.core.data.table.Record;
 import org.apache.pinot.core.data.table.UnboundedConcurrentIndexedTable;
 import org.apache.pinot.core.operator.AcquireReleaseColumnsSegmentOperator;
@@ -43,6 +45,9 @@ import org.apache.pinot.core.query.aggregation.groupby.AggregationGroupByResult;
 import org.apache.pinot.core.query.aggregation.groupby.GroupKeyGenerator;
 import org.apache.pinot.core.query.request.context.QueryContext;
 import org.apache.pinot.core.util.GroupByUtils;
+import org.apache.pinot.core.util.trace.TraceRunnable;
+import org.apache.pinot.spi.accounting.ThreadExecutionContext;
+import org.apache.pinot.spi.accounting.ThreadResourceUsageProvider;
 import org.apache.pinot.spi.trace.Tracing;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -50,6 +55,10 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Combine operator for group-by queries.
+ * <p>By default all the worker threads merge the segment results into a shared concurrent indexed table. When
+ * {@code numGroupByCombinePartitions} is set, the results are merged with a {@link PartitionedIndexedTable} instead:
+ * each worker merges into its own partitions, and the partitions are merged in parallel after all the segments are
+ * processed.
  * TODO: Use CombineOperatorUtils.getNumThreadsForQuery() to get the parallelism of the query instead of using
  *       all threads
  */
@@ -65,6 +74,9 @@ public class GroupByCombineOperator extends BaseSingleBlockCombineOperator<Group
   private final int _numAggregationFunctions;
   private final int _numGroupByExpressions;
   private final int _numColumns;
+  private final int _numPartitions;
+  // Use an AtomicInteger to assign a worker id to each task for the partitioned merge
+  private final AtomicInteger _nextWorkerId = new AtomicInteger();
   // We use a CountDownLatch to track if all Futures are finished by the query timeout, and cancel the unfinished
   // _futures (try to interrupt the execution if it already started).
   private final CountDownLatch _operatorLatch;
@@ -99,6 +111,7 @@ public class GroupByCombineOperator extends BaseSingleBlockCombineOperator<Group
     assert _queryContext.getGroupByExpressions() != null;
     _numGroupByExpressions = _queryContext.getGroupByExpressions().size();
     _numColumns = _numGroupByExpressions + _numAggregationFunctions;
+    _numPartitions = queryContext.getNumGroupByCombinePartitions();
     _operatorLatch = new CountDownLatch(_numTasks);
   }
 
@@ -123,6 +136,7 @@ public class GroupByCombineOperator extends BaseSingleBlockCombineOperator<Group
    */
   @Override
   protected void processSegments() {
+    int workerId = _nextWorkerId.getAndIncrement();
     int operatorId;
     while (_processingException.get() == null && (operatorId = _nextOperatorId.getAndIncrement()) < _numOperators) {
       Operator operator = _operators.get(operatorId);
@@ -136,7 +150,11 @@ public class GroupByCombineOperator extends BaseSingleBlockCombineOperator<Group
             if (_indexedTable == null) {
               DataSchema dataSchema = resultsBlock.getDataSchema();
               // NOTE: Use trimSize as resultSize on server size.
-              if (_trimThreshold >= MAX_TRIM_THRESHOLD) {
+              if (_numPartitions > 0) {
+                _indexedTable =
+                    new PartitionedIndexedTable(dataSchema, _queryContext, _trimSize, _trimSize, _trimThreshold,
+                        _numTasks, _numPartitions);
+              } else if (_trimThreshold >= MAX_TRIM_THRESHOLD) {
                 // special case of trim threshold where it is set to max value.
                 // there won't be any trimming during upsert in this case.
                 // thus we can avoid the overhead of read-lock and write-lock
@@ -166,24 +184,29 @@ public class GroupByCombineOperator extends BaseSingleBlockCombineOperator<Group
           AggregationGroupByResult aggregationGroupByResult = resultsBlock.getAggregationGroupByResult();
           if (aggregationGroupByResult != null) {
             // Iterate over the group-by keys, for each key, update the group-by result in the indexedTable
-            Iterator<GroupKeyGenerator.GroupKey> dicGroupKeyIterator = aggregationGroupByResult.getGroupKeyIterator();
-            while (dicGroupKeyIterator.hasNext()) {
-              GroupKeyGenerator.GroupKey groupKey = dicGroupKeyIterator.next();
-              Object[] keys = groupKey._keys;
-              Object[] values = Arrays.copyOf(keys, _numColumns);
-              int groupId = groupKey._groupId;
-              for (int i = 0; i < _numAggregationFunctions; i++) {
-                values[_numGroupByExpressions + i] = aggregationGroupByResult.getResultForGroupId(i, groupId);
+            try {
+              Iterator<GroupKeyGenerator.GroupKey> dicGroupKeyIterator =
+                  aggregationGroupByResult.getGroupKeyIterator();
+              while (dicGroupKeyIterator.hasNext()) {
+                GroupKeyGenerator.GroupKey groupKey = dicGroupKeyIterator.next();
+                Object[] values = Arrays.copyOf(groupKey._keys, _numColumns);
+                int groupId = groupKey._groupId;
+                for (int i = 0; i < _numAggregationFunctions; i++) {
+                  values[_numGroupByExpressions + i] = aggregationGroupByResult.getResultForGroupId(i, groupId);
+                }
+                upsert(workerId, new Record(values));
+                Tracing.ThreadAccountantOps.sampleAndCheckInterruptionPeriodically(mergedKeys);
+                mergedKeys++;
               }
-              _indexedTable.upsert(new Key(keys), new Record(values));
-              Tracing.ThreadAccountantOps.sampleAndCheckInterruptionPeriodically(mergedKeys);
-              mergedKeys++;
+            } finally {
+              // Release the off-heap group-by storage (if any) once the results are merged into the indexedTable
+              aggregationGroupByResult.close();
             }
           }
         } else {
           for (IntermediateRecord intermediateResult : intermediateRecords) {
-            //TODO: change upsert api so that it accepts intermediateRecord directly
-            _indexedTable.upsert(intermediateResult._key, intermediateResult._record);
+            // NOTE: Upsert the record only so that the indexed table creates the specialized key
+            upsert(workerId, intermediateResult._record);
             Tracing.ThreadAccountantOps.sampleAndCheckInterruptionPeriodically(mergedKeys);
             mergedKeys++;
           }
@@ -196,6 +219,14 @@ public class GroupByCombineOperator extends BaseSingleBlockCombineOperator<Group
     }
   }
 
+  private void upsert(int workerId, Record record) {
+    if (_numPartitions > 0) {
+      ((PartitionedIndexedTable) _indexedTable).upsert(workerId, record);
+    } else {
+      _indexedTable.upsert(record);
+    }
+  }
+
   @Override
   public void onProcessSegmentsException(Throwable t) {
     _processingException.compareAndSet(null, t);
@@ -239,6 +270,12 @@ public class GroupByCombineOperator extends BaseSingleBlockCombineOperator<Group
     }
 
     IndexedTable indexedTable = _indexedTable;
+    if (indexedTable instanceof PartitionedIndexedTable) {
+      BaseResultsBlock exceptionResultsBlock = mergePartitions((PartitionedIndexedTable) indexedTable);
+      if (exceptionResultsBlock != null) {
+        return exceptionResultsBlock;
+      }
+    }
     if (!_queryContext.isServerReturnFinalResult()) {
       indexedTable.finish(false);
     } else {
@@ -250,4 +287,72 @@ public class GroupByCombineOperator extends BaseSingleBlockCombineOperator<Group
     mergedBlock.setResizeTimeMs(indexedTable.getResizeTimeMs());
     return mergedBlock;
   }
+
+  /**
+   * Merges the partitions of the {@link PartitionedIndexedTable} in parallel. The main thread merges partitions along
+   * with the helper tasks, so all the partitions are merged even if the helper tasks cannot be scheduled. Returns an
+   * exception results block if the merge fails or times out, {@code null} otherwise.
+   */
+  private BaseResultsBlock mergePartitions(PartitionedIndexedTable partitionedIndexedTable)
+      throws InterruptedException {
+    int numPartitions = partitionedIndexedTable.getNumPartitions();
+    AtomicInteger nextPartitionId = new AtomicInteger();
+    CountDownLatch partitionsLatch = new CountDownLatch(numPartitions);
+    Runnable mergeRunnable = () -> {
+      int partitionId;
+      while ((partitionId = nextPartitionId.getAndIncrement()) < numPartitions) {
+        try {
+          // Skip merging the remaining partitions after a failure, but still count them down
+          if (_processingException.get() == null) {
+            partitionedIndexedTable.mergePartition(partitionId);
+          }
+        } catch (Throwable t) {
+          _processingException.compareAndSet(null, t);
+        } finally {
+          partitionsLatch.countDown();
+        }
+      }
+    };
+
+    int numHelperTasks = Math.min(_numTasks, numPartitions) - 1;
+    Future[] futures = new Future[numHelperTasks];
+    ThreadExecutionContext parentContext = Tracing.getThreadAccountant().getThreadExecutionContext();
+    for (int i = 0; i < numHelperTasks; i++) {
+      int taskId = i;
+      futures[i] = _executorService.submit(new TraceRunnable() {
+        @Override
+        public void runJob() {
+          Tracing.ThreadAccountantOps.setupWorker(taskId, new ThreadResourceUsageProvider(), parentContext);
+          try {
+            mergeRunnable.run();
+          } finally {
+            Tracing.ThreadAccountantOps.clear();
+          }
+        }
+      });
+    }
+    mergeRunnable.run();
+
+    try {
+      long timeoutMs = _queryContext.getEndTimeMs() - System.currentTimeMillis();
+      if (!partitionsLatch.await(timeoutMs, TimeUnit.MILLISECONDS)) {
+        String errorMessage =
+            String.format("Timed out while merging group-by partitions after %dms, queryContext = %s", timeoutMs,
+                _queryContext);
+        LOGGER.error(errorMessage);
+        return new ExceptionResultsBlock(new TimeoutException(errorMessage));
+      }
+    } finally {
+      for (Future future : futures) {
+        if (!future.isDone()) {
+          future.cancel(true);
+        }
+      }
+    }
+    Throwable processingException = _processingException.get();
+    if (processingException != null) {
+      return new ExceptionResultsBlock(processingException);
+    }
+    return null;
+  }
 }
@@ -42,6 +42,10 @@ public final class BitmapDocIdIterator implements BitmapBasedDocIdIterator {
     return _docIds;
   }
 
+  public int getNumDocs() {
+    return _numDocs;
+  }
+
   @Override
   public int next() {
     if (_docIdIterator.hasNext()) {
@@ -0,0 +1,72 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.dociditerators;
+
+import org.apache.pinot.core.common.BlockDocIdIterator;
+import org.apache.pinot.segment.spi.Constants;
+
+
+/**
+ * The {@code DocIdRangeDocIdIterator} wraps another {@link BlockDocIdIterator} and only returns the document ids
+ * within the range of [startDocId, endDocId). It is used for the document id sets that cannot skip the documents out
+ * of the range by themselves.
+ */
+public final class DocIdRangeDocIdIterator implements BlockDocIdIterator {
+  private final BlockDocIdIterator _docIdIterator;
+  private final int _startDocId;
+  private final int _endDocId;
+
+  private boolean _started;
+  private boolean _exhausted;
+
+  public DocIdRangeDocIdIterator(BlockDocIdIterator docIdIterator, int startDocId, int endDocId) {
+    _docIdIterator = docIdIterator;
+    _startDocId = startDocId;
+    _endDocId = endDocId;
+  }
+
+  @Override
+  public int next() {
+    if (!_started) {
+      return advance(_startDocId);
+    }
+    if (_exhausted) {
+      return Constants.EOF;
+    }
+    return clamp(_docIdIterator.next());
+  }
+
+  @Override
+  public int advance(int targetDocId) {
+    _started = true;
+    if (_exhausted || targetDocId >= _endDocId) {
+      _exhausted = true;
+      return Constants.EOF;
+    }
+    return clamp(_docIdIterator.advance(Math.max(targetDocId, _startDocId)));
+  }
+
+  private int clamp(int docId) {
+    if (docId == Constants.EOF || docId >= _endDocId) {
+      _exhausted = true;
+      return Constants.EOF;
+    }
+    return docId;
+  }
+}
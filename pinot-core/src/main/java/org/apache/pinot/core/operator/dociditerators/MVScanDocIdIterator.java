@@ -45,14 +45,23 @@ public final class MVScanDocIdIterator implements ScanBasedDocIdIterator {
   private final ValueMatcher _valueMatcher;
   private final int _cardinality;
 
-  private int _nextDocId = 0;
+  private int _nextDocId;
   private long _numEntriesScanned = 0L;
 
   public MVScanDocIdIterator(PredicateEvaluator predicateEvaluator, DataSource dataSource, int numDocs) {
+    this(predicateEvaluator, dataSource, 0, numDocs);
+  }
+
+  /**
+   * Scans the documents within the range of [startDocId, endDocId).
+   */
+  public MVScanDocIdIterator(PredicateEvaluator predicateEvaluator, DataSource dataSource, int startDocId,
+      int endDocId) {
     _predicateEvaluator = predicateEvaluator;
     _reader = dataSource.getForwardIndex();
     _readerContext = _reader.createContext();
-    _numDocs = numDocs;
+    _nextDocId = startDocId;
+    _numDocs = endDocId;
     _maxNumValuesPerMVEntry = dataSource.getDataSourceMetadata().getMaxNumValuesPerMVEntry();
     _valueMatcher = getValueMatcher();
     _cardinality = dataSource.getDataSourceMetadata().getCardinality();
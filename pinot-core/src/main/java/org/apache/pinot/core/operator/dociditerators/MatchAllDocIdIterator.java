@@ -28,10 +28,18 @@ import org.apache.pinot.segment.spi.Constants;
 public final class MatchAllDocIdIterator implements BlockDocIdIterator {
   private final int _numDocs;
 
-  private int _nextDocId = 0;
+  private int _nextDocId;
 
   public MatchAllDocIdIterator(int numDocs) {
-    _numDocs = numDocs;
+    this(0, numDocs);
+  }
+
+  /**
+   * Iterates over the document ids within the range of [startDocId, endDocId).
+   */
+  public MatchAllDocIdIterator(int startDocId, int endDocId) {
+    _nextDocId = startDocId;
+    _numDocs = endDocId;
   }
 
   @Override
@@ -18,6 +18,7 @@
  */
 package org.apache.pinot.core.operator.dociditerators;
 
+import java.math.BigDecimal;
 import java.util.OptionalInt;
 import org.apache.pinot.core.common.BlockDocIdIterator;
 import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
@@ -48,15 +49,24 @@ public final class SVScanDocIdIterator implements ScanBasedDocIdIterator {
   private int _cursor;
   private final int _cardinality;
 
-  private int _nextDocId = 0;
+  private int _nextDocId;
   private long _numEntriesScanned = 0L;
 
   public SVScanDocIdIterator(PredicateEvaluator predicateEvaluator, DataSource dataSource, int numDocs, int batchSize) {
+    this(predicateEvaluator, dataSource, 0, numDocs, batchSize);
+  }
+
+  /**
+   * Scans the documents within the range of [startDocId, endDocId).
+   */
+  public SVScanDocIdIterator(PredicateEvaluator predicateEvaluator, DataSource dataSource, int startDocId,
+      int endDocId, int batchSize) {
     _batch = new int[batchSize];
     _predicateEvaluator = predicateEvaluator;
     _reader = dataSource.getForwardIndex();
     _readerContext = _reader.createContext();
-    _numDocs = numDocs;
+    _nextDocId = startDocId;
+    _numDocs = endDocId;
     _valueMatcher = getValueMatcher();
     _cardinality = dataSource.getDataSourceMetadata().getCardinality();
   }
@@ -292,25 +302,49 @@ public final class SVScanDocIdIterator implements ScanBasedDocIdIterator {
 
   private class BigDecimalMatcher implements ValueMatcher {
 
+    private final BigDecimal[] _buffer = new BigDecimal[_batch.length];
+
     @Override
     public boolean doesValueMatch(int docId) {
       return _predicateEvaluator.applySV(_reader.getBigDecimal(docId, _readerContext));
     }
+
+    @Override
+    public int matchValues(int limit, int[] docIds) {
+      _reader.readValuesSV(docIds, limit, _buffer, _readerContext);
+      return _predicateEvaluator.applySV(limit, docIds, _buffer);
+    }
   }
 
   private class StringMatcher implements ValueMatcher {
 
+    private final String[] _buffer = new String[_batch.length];
+
     @Override
     public boolean doesValueMatch(int docId) {
       return _predicateEvaluator.applySV(_reader.getString(docId, _readerContext));
     }
+
+    @Override
+    public int matchValues(int limit, int[] docIds) {
+      _reader.readValuesSV(docIds, limit, _buffer, _readerContext);
+      return _predicateEvaluator.applySV(limit, docIds, _buffer);
+    }
   }
 
   private class BytesMatcher implements ValueMatcher {
 
+    private final byte[][] _buffer = new byte[_batch.length][];
+
     @Override
     public boolean doesValueMatch(int docId) {
       return _predicateEvaluator.applySV(_reader.getBytes(docId, _readerContext));
     }
+
+    @Override
+    public int matchValues(int limit, int[] docIds) {
+      _reader.readValuesSV(docIds, limit, _buffer, _readerContext);
+      return _predicateEvaluator.applySV(limit, docIds, _buffer);
+    }
   }
 }
@@ -60,9 +60,12 @@ public final class AndDocIdSet implements BlockDocIdSet {
   private final boolean _cardinalityBasedRankingForScan;
 
   public AndDocIdSet(List<BlockDocIdSet> docIdSets, @Nullable Map<String, String> queryOptions) {
+    this(docIdSets, !MapUtils.isEmpty(queryOptions) && QueryOptionsUtils.isAndScanReorderingEnabled(queryOptions));
+  }
+
+  private AndDocIdSet(List<BlockDocIdSet> docIdSets, boolean cardinalityBasedRankingForScan) {
     _docIdSets = docIdSets;
-    _cardinalityBasedRankingForScan =
-        !MapUtils.isEmpty(queryOptions) && QueryOptionsUtils.isAndScanReorderingEnabled(queryOptions);
+    _cardinalityBasedRankingForScan = cardinalityBasedRankingForScan;
   }
 
   @Override
@@ -177,4 +180,14 @@ public final class AndDocIdSet implements BlockDocIdSet {
     }
     return numEntriesScannedInFilter;
   }
+
+  @Override
+  public AndDocIdSet withDocIdRange(int startDocId, int endDocId) {
+    // Push down the document id range so that the children can skip the documents out of the range
+    List<BlockDocIdSet> docIdSets = new ArrayList<>(_docIdSets.size());
+    for (BlockDocIdSet docIdSet : _docIdSets) {
+      docIdSets.add(docIdSet.withDocIdRange(startDocId, endDocId));
+    }
+    return new AndDocIdSet(docIdSets, _cardinalityBasedRankingForScan);
+  }
 }
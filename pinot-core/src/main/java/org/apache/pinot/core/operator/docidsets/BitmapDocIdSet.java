@@ -21,6 +21,7 @@ package org.apache.pinot.core.operator.docidsets;
 import org.apache.pinot.core.common.BlockDocIdSet;
 import org.apache.pinot.core.operator.dociditerators.BitmapDocIdIterator;
 import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
 
 
 public class BitmapDocIdSet implements BlockDocIdSet {
@@ -43,4 +44,20 @@ public class BitmapDocIdSet implements BlockDocIdSet {
   public long getNumEntriesScannedInFilter() {
     return 0L;
   }
+
+  @Override
+  public BitmapDocIdSet withDocIdRange(int startDocId, int endDocId) {
+    return new BitmapDocIdSet(getDocIdsInRange(_iterator.getDocIds(), startDocId, endDocId),
+        Math.min(endDocId, _iterator.getNumDocs()));
+  }
+
+  /**
+   * Returns the document ids within the range of [startDocId, endDocId). Only the containers overlapping the range are
+   * visited, so this is much cheaper than filtering the document ids one by one.
+   */
+  static ImmutableRoaringBitmap getDocIdsInRange(ImmutableRoaringBitmap docIds, int startDocId, int endDocId) {
+    MutableRoaringBitmap docIdRange = new MutableRoaringBitmap();
+    docIdRange.add((long) startDocId, (long) endDocId);
+    return ImmutableRoaringBitmap.and(docIds, docIdRange);
+  }
 }
@@ -0,0 +1,55 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.docidsets;
+
+import org.apache.pinot.core.common.BlockDocIdSet;
+import org.apache.pinot.core.operator.dociditerators.DocIdRangeDocIdIterator;
+
+
+/**
+ * The {@code DocIdRangeDocIdSet} restricts the document ids of another {@link BlockDocIdSet} to the range of
+ * [startDocId, endDocId). It is the fallback of {@link BlockDocIdSet#withDocIdRange(int, int)} for the document id
+ * sets that cannot natively limit the documents to be processed.
+ */
+public final class DocIdRangeDocIdSet implements BlockDocIdSet {
+  private final BlockDocIdSet _docIdSet;
+  private final int _startDocId;
+  private final int _endDocId;
+
+  public DocIdRangeDocIdSet(BlockDocIdSet docIdSet, int startDocId, int endDocId) {
+    _docIdSet = docIdSet;
+    _startDocId = startDocId;
+    _endDocId = endDocId;
+  }
+
+  @Override
+  public DocIdRangeDocIdIterator iterator() {
+    return new DocIdRangeDocIdIterator(_docIdSet.iterator(), _startDocId, _endDocId);
+  }
+
+  @Override
+  public long getNumEntriesScannedInFilter() {
+    return _docIdSet.getNumEntriesScannedInFilter();
+  }
+
+  @Override
+  public BlockDocIdSet withDocIdRange(int startDocId, int endDocId) {
+    return _docIdSet.withDocIdRange(Math.max(startDocId, _startDocId), Math.min(endDocId, _endDocId));
+  }
+}
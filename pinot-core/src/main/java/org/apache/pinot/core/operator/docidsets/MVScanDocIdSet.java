@@ -25,19 +25,42 @@ import org.apache.pinot.segment.spi.datasource.DataSource;
 
 
 public final class MVScanDocIdSet implements BlockDocIdSet {
-  private final MVScanDocIdIterator _docIdIterator;
+  private final PredicateEvaluator _predicateEvaluator;
+  private final DataSource _dataSource;
+  private final int _startDocId;
+  private final int _endDocId;
+
+  // NOTE: Lazily create the iterator so that no reader context is allocated when the document id set is replaced by a
+  //       document id range of it
+  private MVScanDocIdIterator _docIdIterator;
 
   public MVScanDocIdSet(PredicateEvaluator predicateEvaluator, DataSource dataSource, int numDocs) {
-    _docIdIterator = new MVScanDocIdIterator(predicateEvaluator, dataSource, numDocs);
+    this(predicateEvaluator, dataSource, 0, numDocs);
+  }
+
+  private MVScanDocIdSet(PredicateEvaluator predicateEvaluator, DataSource dataSource, int startDocId, int endDocId) {
+    _predicateEvaluator = predicateEvaluator;
+    _dataSource = dataSource;
+    _startDocId = startDocId;
+    _endDocId = endDocId;
   }
 
   @Override
   public MVScanDocIdIterator iterator() {
+    if (_docIdIterator == null) {
+      _docIdIterator = new MVScanDocIdIterator(_predicateEvaluator, _dataSource, _startDocId, _endDocId);
+    }
     return _docIdIterator;
   }
 
   @Override
   public long getNumEntriesScannedInFilter() {
-    return _docIdIterator.getNumEntriesScanned();
+    return _docIdIterator != null ? _docIdIterator.getNumEntriesScanned() : 0L;
+  }
+
+  @Override
+  public MVScanDocIdSet withDocIdRange(int startDocId, int endDocId) {
+    return new MVScanDocIdSet(_predicateEvaluator, _dataSource, Math.max(startDocId, _startDocId),
+        Math.min(endDocId, _endDocId));
   }
 }
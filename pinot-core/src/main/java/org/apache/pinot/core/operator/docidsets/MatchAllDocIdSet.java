@@ -23,19 +23,30 @@ import org.apache.pinot.core.operator.dociditerators.MatchAllDocIdIterator;
 
 
 public final class MatchAllDocIdSet implements BlockDocIdSet {
+  private final int _startDocId;
   private final int _numDocs;
 
   public MatchAllDocIdSet(int numDocs) {
+    this(0, numDocs);
+  }
+
+  private MatchAllDocIdSet(int startDocId, int numDocs) {
+    _startDocId = startDocId;
     _numDocs = numDocs;
   }
 
   @Override
   public MatchAllDocIdIterator iterator() {
-    return new MatchAllDocIdIterator(_numDocs);
+    return new MatchAllDocIdIterator(_startDocId, _numDocs);
   }
 
   @Override
   public long getNumEntriesScannedInFilter() {
     return 0L;
   }
+
+  @Override
+  public MatchAllDocIdSet withDocIdRange(int startDocId, int endDocId) {
+    return new MatchAllDocIdSet(Math.max(startDocId, _startDocId), Math.min(endDocId, _numDocs));
+  }
 }
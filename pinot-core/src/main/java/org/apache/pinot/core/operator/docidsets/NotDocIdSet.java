@@ -41,4 +41,12 @@ public class NotDocIdSet implements BlockDocIdSet {
   public long getNumEntriesScannedInFilter() {
     return _childDocIdSet.getNumEntriesScannedInFilter();
   }
+
+  @Override
+  public BlockDocIdSet withDocIdRange(int startDocId, int endDocId) {
+    // Only the child documents within the range are needed to compute the inverted documents within the range
+    int numDocs = Math.min(endDocId, _numDocs);
+    return new DocIdRangeDocIdSet(new NotDocIdSet(_childDocIdSet.withDocIdRange(startDocId, numDocs), numDocs),
+        startDocId, numDocs);
+  }
 }
@@ -118,4 +118,14 @@ public final class OrDocIdSet implements BlockDocIdSet {
     }
     return numEntriesScannedInFilter;
   }
+
+  @Override
+  public OrDocIdSet withDocIdRange(int startDocId, int endDocId) {
+    // Push down the document id range so that the children can skip the documents out of the range
+    List<BlockDocIdSet> docIdSets = new ArrayList<>(_docIdSets.size());
+    for (BlockDocIdSet docIdSet : _docIdSets) {
+      docIdSets.add(docIdSet.withDocIdRange(startDocId, endDocId));
+    }
+    return new OrDocIdSet(docIdSets, Math.min(endDocId, _numDocs));
+  }
 }
@@ -43,4 +43,9 @@ public class RangelessBitmapDocIdSet implements BlockDocIdSet {
   public long getNumEntriesScannedInFilter() {
     return 0L;
   }
+
+  @Override
+  public RangelessBitmapDocIdSet withDocIdRange(int startDocId, int endDocId) {
+    return new RangelessBitmapDocIdSet(BitmapDocIdSet.getDocIdsInRange(_iterator.getDocIds(), startDocId, endDocId));
+  }
 }
@@ -25,19 +25,45 @@ import org.apache.pinot.segment.spi.datasource.DataSource;
 
 
 public final class SVScanDocIdSet implements BlockDocIdSet {
-  private final SVScanDocIdIterator _docIdIterator;
+  private final PredicateEvaluator _predicateEvaluator;
+  private final DataSource _dataSource;
+  private final int _startDocId;
+  private final int _endDocId;
+  private final int _batchSize;
+
+  // NOTE: Lazily create the iterator so that no reader context is allocated when the document id set is replaced by a
+  //       document id range of it
+  private SVScanDocIdIterator _docIdIterator;
 
   public SVScanDocIdSet(PredicateEvaluator predicateEvaluator, DataSource dataSource, int numDocs, int batchSize) {
-    _docIdIterator = new SVScanDocIdIterator(predicateEvaluator, dataSource, numDocs, batchSize);
+    this(predicateEvaluator, dataSource, 0, numDocs, batchSize);
+  }
+
+  private SVScanDocIdSet(PredicateEvaluator predicateEvaluator, DataSource dataSource, int startDocId, int endDocId,
+      int batchSize) {
+    _predicateEvaluator = predicateEvaluator;
+    _dataSource = dataSource;
+    _startDocId = startDocId;
+    _endDocId = endDocId;
+    _batchSize = batchSize;
   }
 
   @Override
   public SVScanDocIdIterator iterator() {
+    if (_docIdIterator == null) {
+      _docIdIterator = new SVScanDocIdIterator(_predicateEvaluator, _dataSource, _startDocId, _endDocId, _batchSize);
+    }
     return _docIdIterator;
   }
 
   @Override
   public long getNumEntriesScannedInFilter() {
-    return _docIdIterator.getNumEntriesScanned();
+    return _docIdIterator != null ? _docIdIterator.getNumEntriesScanned() : 0L;
+  }
+
+  @Override
+  public SVScanDocIdSet withDocIdRange(int startDocId, int endDocId) {
+    return new SVScanDocIdSet(_predicateEvaluator, _dataSource, Math.max(startDocId, _startDocId),
+        Math.min(endDocId, _endDocId), _batchSize);
   }
 }
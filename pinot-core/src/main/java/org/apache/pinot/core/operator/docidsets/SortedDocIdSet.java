@@ -18,6 +18,7 @@
  */
 package org.apache.pinot.core.operator.docidsets;
 
+import java.util.ArrayList;
 import java.util.List;
 import org.apache.pinot.core.common.BlockDocIdSet;
 import org.apache.pinot.core.operator.dociditerators.SortedDocIdIterator;
@@ -42,4 +43,21 @@ public final class SortedDocIdSet implements BlockDocIdSet {
   public long getNumEntriesScannedInFilter() {
     return 0L;
   }
+
+  @Override
+  public BlockDocIdSet withDocIdRange(int startDocId, int endDocId) {
+    // NOTE: docIdRange has inclusive start and end.
+    int lastDocId = endDocId - 1;
+    List<IntPair> docIdRanges = new ArrayList<>();
+    for (IntPair docIdRange : _docIdRanges) {
+      if (docIdRange.getLeft() > lastDocId) {
+        break;
+      }
+      if (docIdRange.getRight() >= startDocId) {
+        docIdRanges.add(
+            new IntPair(Math.max(docIdRange.getLeft(), startDocId), Math.min(docIdRange.getRight(), lastDocId)));
+      }
+    }
+    return docIdRanges.isEmpty() ? EmptyDocIdSet.getInstance() : new SortedDocIdSet(docIdRanges);
+  }
 }
@@ -77,6 +77,18 @@ public class AndFilterOperator extends BaseFilterOperator {
     return allChildrenCanProduceBitmaps;
   }
 
+  /**
+   * Estimates the selectivity assuming the child filters are independent.
+   */
+  @Override
+  public double getEstimatedSelectivity() {
+    double selectivity = 1;
+    for (BaseFilterOperator child : _filterOperators) {
+      selectivity *= child.getEstimatedSelectivity();
+    }
+    return selectivity;
+  }
+
   @Override
   public int getNumMatchingDocs() {
     if (_filterOperators.size() == 2) {
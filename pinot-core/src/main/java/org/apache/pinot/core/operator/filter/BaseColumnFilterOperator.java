@@ -24,6 +24,7 @@ import org.apache.pinot.core.common.BlockDocIdSet;
 import org.apache.pinot.core.operator.docidsets.AndDocIdSet;
 import org.apache.pinot.core.operator.docidsets.BitmapDocIdSet;
 import org.apache.pinot.core.operator.docidsets.EmptyDocIdSet;
+import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
 import org.apache.pinot.core.query.request.context.QueryContext;
 import org.apache.pinot.segment.spi.datasource.DataSource;
 import org.apache.pinot.segment.spi.index.reader.NullValueVectorReader;
@@ -42,6 +43,24 @@ public abstract class BaseColumnFilterOperator extends BaseFilterOperator {
 
   protected abstract BlockDocIdSet getNextBlockWithoutNullHandling();
 
+  /**
+   * Estimates the selectivity of the given predicate from the number of values it matches (or excludes) and the
+   * cardinality of the column, assuming the documents are evenly distributed across the values. Returns 1 when the
+   * number of matching values or the cardinality is unknown (e.g. for RANGE predicates).
+   */
+  protected double getEstimatedSelectivity(PredicateEvaluator predicateEvaluator) {
+    if (isResultEmpty()) {
+      return 0;
+    }
+    int numMatchingItems = predicateEvaluator.getNumMatchingItems();
+    int cardinality = _dataSource.getDataSourceMetadata().getCardinality();
+    if (numMatchingItems == Integer.MIN_VALUE || cardinality <= 0) {
+      return 1;
+    }
+    double fraction = Math.min((double) Math.abs(numMatchingItems) / cardinality, 1);
+    return numMatchingItems >= 0 ? fraction : 1 - fraction;
+  }
+
   @Override
   protected BlockDocIdSet getTrues() {
     if (_nullHandlingEnabled) {
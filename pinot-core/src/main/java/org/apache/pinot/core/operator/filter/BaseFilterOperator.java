@@ -39,6 +39,13 @@ public abstract class BaseFilterOperator extends BaseOperator<FilterBlock> {
     _nullHandlingEnabled = nullHandlingEnabled;
   }
 
+  /**
+   * Returns the total number of documents in the segment the filter is applied to.
+   */
+  public int getNumDocs() {
+    return _numDocs;
+  }
+
   /**
    * Returns {@code true} if the result is always empty, {@code false} otherwise.
    */
@@ -67,6 +74,15 @@ public abstract class BaseFilterOperator extends BaseOperator<FilterBlock> {
     throw new UnsupportedOperationException();
   }
 
+  /**
+   * Returns the estimated fraction of the documents matching the filter, in range [0, 1]. The estimate is computed from
+   * the filter structure and the index metadata only, without evaluating the filter, so it is cheap enough to be used
+   * while planning the query. Returns 1 when it cannot be estimated.
+   */
+  public double getEstimatedSelectivity() {
+    return isResultEmpty() ? 0 : 1;
+  }
+
   /**
    * @return true if the filter operator can produce a bitmap of docIds
    */
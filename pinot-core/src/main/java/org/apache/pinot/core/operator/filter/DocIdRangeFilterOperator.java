@@ -0,0 +1,92 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.filter;
+
+import java.util.Collections;
+import java.util.List;
+import org.apache.pinot.core.common.BlockDocIdSet;
+import org.apache.pinot.core.common.Operator;
+
+
+/**
+ * The {@code DocIdRangeFilterOperator} restricts the result of another filter operator to the document ids within the
+ * range of [startDocId, endDocId). It is used to process disjoint document id ranges of a large segment in parallel,
+ * where the index-based and scan-based document id sets only read the documents within the range.
+ * <p>NOTE: The result never matches all the documents of the segment, so that the optimizations that solve the query
+ *          for the whole segment (e.g. with the metadata) are not applied to a single range.
+ */
+public class DocIdRangeFilterOperator extends BaseFilterOperator {
+  private static final String EXPLAIN_NAME = "FILTER_DOC_ID_RANGE";
+
+  private final BaseFilterOperator _filterOperator;
+  private final int _startDocId;
+  private final int _endDocId;
+
+  public DocIdRangeFilterOperator(BaseFilterOperator filterOperator, int startDocId, int endDocId) {
+    super(filterOperator._numDocs, filterOperator._nullHandlingEnabled);
+    _filterOperator = filterOperator;
+    _startDocId = startDocId;
+    _endDocId = endDocId;
+  }
+
+  public int getStartDocId() {
+    return _startDocId;
+  }
+
+  public int getEndDocId() {
+    return _endDocId;
+  }
+
+  @Override
+  public boolean isResultEmpty() {
+    return _filterOperator.isResultEmpty();
+  }
+
+  @Override
+  public double getEstimatedSelectivity() {
+    return _filterOperator.getEstimatedSelectivity();
+  }
+
+  @Override
+  protected BlockDocIdSet getTrues() {
+    return _filterOperator.getTrues().withDocIdRange(_startDocId, _endDocId);
+  }
+
+  @Override
+  protected BlockDocIdSet getNulls() {
+    return _filterOperator.getNulls().withDocIdRange(_startDocId, _endDocId);
+  }
+
+  @Override
+  protected BlockDocIdSet getFalses() {
+    return _filterOperator.getFalses().withDocIdRange(_startDocId, _endDocId);
+  }
+
+  @SuppressWarnings("rawtypes")
+  @Override
+  public List<Operator> getChildOperators() {
+    return Collections.singletonList(_filterOperator);
+  }
+
+  @Override
+  public String toExplainString() {
+    return new StringBuilder(EXPLAIN_NAME).append("(startDocId:").append(_startDocId).append(",endDocId:")
+        .append(_endDocId).append(')').toString();
+  }
+}
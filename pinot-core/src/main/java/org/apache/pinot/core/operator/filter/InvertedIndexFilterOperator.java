@@ -98,6 +98,11 @@ public class InvertedIndexFilterOperator extends BaseColumnFilterOperator {
     return true;
   }
 
+  @Override
+  public double getEstimatedSelectivity() {
+    return getEstimatedSelectivity(_predicateEvaluator);
+  }
+
   @Override
   public int getNumMatchingDocs() {
     int count = 0;
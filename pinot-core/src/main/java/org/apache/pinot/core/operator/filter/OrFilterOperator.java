@@ -87,6 +87,18 @@ public class OrFilterOperator extends BaseFilterOperator {
     return allChildrenProduceBitmaps;
   }
 
+  /**
+   * Estimates the selectivity as the sum of the child selectivities, which is an upper bound.
+   */
+  @Override
+  public double getEstimatedSelectivity() {
+    double selectivity = 0;
+    for (BaseFilterOperator child : _filterOperators) {
+      selectivity += child.getEstimatedSelectivity();
+    }
+    return Math.min(selectivity, 1);
+  }
+
   @Override
   public int getNumMatchingDocs() {
     if (_filterOperators.size() == 2) {
@@ -64,6 +64,11 @@ public class ScanBasedFilterOperator extends BaseColumnFilterOperator {
   }
 
 
+  @Override
+  public double getEstimatedSelectivity() {
+    return getEstimatedSelectivity(_predicateEvaluator);
+  }
+
   @Override
   public List<Operator> getChildOperators() {
     return Collections.emptyList();
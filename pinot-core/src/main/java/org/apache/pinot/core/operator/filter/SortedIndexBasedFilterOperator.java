@@ -138,6 +138,11 @@ public class SortedIndexBasedFilterOperator extends BaseColumnFilterOperator {
     return true;
   }
 
+  @Override
+  public double getEstimatedSelectivity() {
+    return getEstimatedSelectivity(_predicateEvaluator);
+  }
+
   @Override
   public int getNumMatchingDocs() {
     int count = 0;
@@ -112,6 +112,10 @@ public abstract class BaseDictionaryBasedPredicateEvaluator extends BasePredicat
     throw new UnsupportedOperationException();
   }
 
+  // NOTE: Subclasses reimplement the batch applySV(int limit, int[] docIds, ...) methods so that the single-value
+  //       applySV can be inlined. The EQ, NOT_EQ and RANGE implementations compact the matching doc ids without a
+  //       data-dependent branch: the doc id is always copied and the write cursor only advances on a match.
+
   /**
    * Apply a single-value entry to the predicate.
    *
@@ -125,9 +125,8 @@ public class EqualsPredicateEvaluatorFactory {
       int matches = 0;
       for (int i = 0; i < limit; i++) {
         int value = values[i];
-        if (applySV(value)) {
-          docIds[matches++] = docIds[i];
-        }
+        docIds[matches] = docIds[i];
+        matches += applySV(value) ? 1 : 0;
       }
       return matches;
     }
@@ -195,9 +194,8 @@ public class EqualsPredicateEvaluatorFactory {
       int matches = 0;
       for (int i = 0; i < limit; i++) {
         int value = values[i];
-        if (applySV(value)) {
-          docIds[matches++] = docIds[i];
-        }
+        docIds[matches] = docIds[i];
+        matches += applySV(value) ? 1 : 0;
       }
       return matches;
     }
@@ -248,9 +246,8 @@ public class EqualsPredicateEvaluatorFactory {
       int matches = 0;
       for (int i = 0; i < limit; i++) {
         long value = values[i];
-        if (applySV(value)) {
-          docIds[matches++] = docIds[i];
-        }
+        docIds[matches] = docIds[i];
+        matches += applySV(value) ? 1 : 0;
       }
       return matches;
     }
@@ -296,9 +293,8 @@ public class EqualsPredicateEvaluatorFactory {
       int matches = 0;
       for (int i = 0; i < limit; i++) {
         float value = values[i];
-        if (applySV(value)) {
-          docIds[matches++] = docIds[i];
-        }
+        docIds[matches] = docIds[i];
+        matches += applySV(value) ? 1 : 0;
       }
       return matches;
     }
@@ -344,9 +340,8 @@ public class EqualsPredicateEvaluatorFactory {
       int matches = 0;
       for (int i = 0; i < limit; i++) {
         double value = values[i];
-        if (applySV(value)) {
-          docIds[matches++] = docIds[i];
-        }
+        docIds[matches] = docIds[i];
+        matches += applySV(value) ? 1 : 0;
       }
       return matches;
     }
@@ -123,9 +123,8 @@ public class NotEqualsPredicateEvaluatorFactory {
       int matches = 0;
       for (int i = 0; i < limit; i++) {
         int value = values[i];
-        if (applySV(value)) {
-          docIds[matches++] = docIds[i];
-        }
+        docIds[matches] = docIds[i];
+        matches += applySV(value) ? 1 : 0;
       }
       return matches;
     }
@@ -205,9 +204,8 @@ public class NotEqualsPredicateEvaluatorFactory {
       int matches = 0;
       for (int i = 0; i < limit; i++) {
         int value = values[i];
-        if (applySV(value)) {
-          docIds[matches++] = docIds[i];
-        }
+        docIds[matches] = docIds[i];
+        matches += applySV(value) ? 1 : 0;
       }
       return matches;
     }
@@ -247,9 +245,8 @@ public class NotEqualsPredicateEvaluatorFactory {
       int matches = 0;
       for (int i = 0; i < limit; i++) {
         long value = values[i];
-        if (applySV(value)) {
-          docIds[matches++] = docIds[i];
-        }
+        docIds[matches] = docIds[i];
+        matches += applySV(value) ? 1 : 0;
       }
       return matches;
     }
@@ -289,9 +286,8 @@ public class NotEqualsPredicateEvaluatorFactory {
       int matches = 0;
       for (int i = 0; i < limit; i++) {
         float value = values[i];
-        if (applySV(value)) {
-          docIds[matches++] = docIds[i];
-        }
+        docIds[matches] = docIds[i];
+        matches += applySV(value) ? 1 : 0;
       }
       return matches;
     }
@@ -331,9 +327,8 @@ public class NotEqualsPredicateEvaluatorFactory {
       int matches = 0;
       for (int i = 0; i < limit; i++) {
         double value = values[i];
-        if (applySV(value)) {
-          docIds[matches++] = docIds[i];
-        }
+        docIds[matches] = docIds[i];
+        matches += applySV(value) ? 1 : 0;
       }
       return matches;
     }
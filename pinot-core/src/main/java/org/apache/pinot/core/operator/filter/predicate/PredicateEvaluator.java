@@ -79,7 +79,7 @@ public interface PredicateEvaluator {
    * @param limit How much of the input to consume.
    * @param docIds The docIds associated with the values - may be modified by invocation.
    * @param values Batch of dictionary ids or raw values.
-   * @return the index of the first non-matching entry.
+   * @return the number of matching entries, i.e. the length of the compacted docIds prefix.
    */
   default int applySV(int limit, int[] docIds, int[] values) {
     int matches = 0;
@@ -153,7 +153,7 @@ public interface PredicateEvaluator {
    * @param limit How much of the input to consume.
    * @param docIds The docIds associated with the values - may be modified by invocation.
    * @param values Batch of raw values - may be modified by invocation.
-   * @return the index of the first non-matching entry.
+   * @return the number of matching entries, i.e. the length of the compacted docIds prefix.
    */
   default int applySV(int limit, int[] docIds, long[] values) {
     int matches = 0;
@@ -190,7 +190,7 @@ public interface PredicateEvaluator {
    * @param limit How much of the input to consume.
    * @param docIds The docIds associated with the values - may be modified by invocation.
    * @param values Batch of raw values - may be modified by invocation.
-   * @return the index of the first non-matching entry.
+   * @return the number of matching entries, i.e. the length of the compacted docIds prefix.
    */
   default int applySV(int limit, int[] docIds, float[] values) {
     int matches = 0;
@@ -227,7 +227,7 @@ public interface PredicateEvaluator {
    * @param limit How much of the input to consume.
    * @param docIds The docIds associated with the values - may be modified by invocation.
    * @param values Batch of raw values - may be modified by invocation.
-   * @return the index of the first non-matching entry.
+   * @return the number of matching entries, i.e. the length of the compacted docIds prefix.
    */
   default int applySV(int limit, int[] docIds, double[] values) {
     int matches = 0;
@@ -257,6 +257,26 @@ public interface PredicateEvaluator {
    */
   boolean applySV(BigDecimal value);
 
+  /**
+   * Apply the predicate to a batch of single-value entries.
+   * Compact matching entries into the prefix of the docIds array.
+   *
+   * @param limit How much of the input to consume.
+   * @param docIds The docIds associated with the values - may be modified by invocation.
+   * @param values Batch of raw values - may be modified by invocation.
+   * @return the number of matching entries, i.e. the length of the compacted docIds prefix.
+   */
+  default int applySV(int limit, int[] docIds, BigDecimal[] values) {
+    int matches = 0;
+    for (int i = 0; i < limit; i++) {
+      BigDecimal value = values[i];
+      if (applySV(value)) {
+        docIds[matches++] = docIds[i];
+      }
+    }
+    return matches;
+  }
+
   /**
    * Apply a single-value entry to the predicate.
    *
@@ -265,6 +285,26 @@ public interface PredicateEvaluator {
    */
   boolean applySV(String value);
 
+  /**
+   * Apply the predicate to a batch of single-value entries.
+   * Compact matching entries into the prefix of the docIds array.
+   *
+   * @param limit How much of the input to consume.
+   * @param docIds The docIds associated with the values - may be modified by invocation.
+   * @param values Batch of raw values - may be modified by invocation.
+   * @return the number of matching entries, i.e. the length of the compacted docIds prefix.
+   */
+  default int applySV(int limit, int[] docIds, String[] values) {
+    int matches = 0;
+    for (int i = 0; i < limit; i++) {
+      String value = values[i];
+      if (applySV(value)) {
+        docIds[matches++] = docIds[i];
+      }
+    }
+    return matches;
+  }
+
   /**
    * Apply a multi-value entry to the predicate.
    *
@@ -282,6 +322,26 @@ public interface PredicateEvaluator {
    */
   boolean applySV(byte[] value);
 
+  /**
+   * Apply the predicate to a batch of single-value entries.
+   * Compact matching entries into the prefix of the docIds array.
+   *
+   * @param limit How much of the input to consume.
+   * @param docIds The docIds associated with the values - may be modified by invocation.
+   * @param values Batch of raw values - may be modified by invocation.
+   * @return the number of matching entries, i.e. the length of the compacted docIds prefix.
+   */
+  default int applySV(int limit, int[] docIds, byte[][] values) {
+    int matches = 0;
+    for (int i = 0; i < limit; i++) {
+      byte[] value = values[i];
+      if (applySV(value)) {
+        docIds[matches++] = docIds[i];
+      }
+    }
+    return matches;
+  }
+
   /**
    * Apply a multi-value entry to the predicate.
    *
@@ -179,7 +179,7 @@ public class RangePredicateEvaluatorFactory {
 
     @Override
     public boolean applySV(int dictId) {
-      return _startDictId <= dictId && _endDictId > dictId;
+      return _startDictId <= dictId & _endDictId > dictId;
     }
 
     @Override
@@ -188,9 +188,8 @@ public class RangePredicateEvaluatorFactory {
       int matches = 0;
       for (int i = 0; i < limit; i++) {
         int dictId = dictIds[i];
-        if (applySV(dictId)) {
-          docIds[matches++] = docIds[i];
-        }
+        docIds[matches] = docIds[i];
+        matches += applySV(dictId) ? 1 : 0;
       }
       return matches;
     }
@@ -350,7 +349,7 @@ public class RangePredicateEvaluatorFactory {
 
     @Override
     public boolean applySV(int value) {
-      return value >= _inclusiveLowerBound && value <= _inclusiveUpperBound;
+      return value >= _inclusiveLowerBound & value <= _inclusiveUpperBound;
     }
 
     @Override
@@ -359,9 +358,8 @@ public class RangePredicateEvaluatorFactory {
       int matches = 0;
       for (int i = 0; i < limit; i++) {
         int value = values[i];
-        if (applySV(value)) {
-          docIds[matches++] = docIds[i];
-        }
+        docIds[matches] = docIds[i];
+        matches += applySV(value) ? 1 : 0;
       }
       return matches;
     }
@@ -406,7 +404,7 @@ public class RangePredicateEvaluatorFactory {
 
     @Override
     public boolean applySV(long value) {
-      return value >= _inclusiveLowerBound && value <= _inclusiveUpperBound;
+      return value >= _inclusiveLowerBound & value <= _inclusiveUpperBound;
     }
 
     @Override
@@ -415,9 +413,8 @@ public class RangePredicateEvaluatorFactory {
       int matches = 0;
       for (int i = 0; i < limit; i++) {
         long value = values[i];
-        if (applySV(value)) {
-          docIds[matches++] = docIds[i];
-        }
+        docIds[matches] = docIds[i];
+        matches += applySV(value) ? 1 : 0;
       }
       return matches;
     }
@@ -462,7 +459,7 @@ public class RangePredicateEvaluatorFactory {
 
     @Override
     public boolean applySV(float value) {
-      return value >= _inclusiveLowerBound && value <= _inclusiveUpperBound;
+      return value >= _inclusiveLowerBound & value <= _inclusiveUpperBound;
     }
 
     @Override
@@ -471,9 +468,8 @@ public class RangePredicateEvaluatorFactory {
       int matches = 0;
       for (int i = 0; i < limit; i++) {
         float value = values[i];
-        if (applySV(value)) {
-          docIds[matches++] = docIds[i];
-        }
+        docIds[matches] = docIds[i];
+        matches += applySV(value) ? 1 : 0;
       }
       return matches;
     }
@@ -518,7 +514,7 @@ public class RangePredicateEvaluatorFactory {
 
     @Override
     public boolean applySV(double value) {
-      return value >= _inclusiveLowerBound && value <= _inclusiveUpperBound;
+      return value >= _inclusiveLowerBound & value <= _inclusiveUpperBound;
     }
 
     @Override
@@ -527,9 +523,8 @@ public class RangePredicateEvaluatorFactory {
       int matches = 0;
       for (int i = 0; i < limit; i++) {
         double value = values[i];
-        if (applySV(value)) {
-          docIds[matches++] = docIds[i];
-        }
+        docIds[matches] = docIds[i];
+        matches += applySV(value) ? 1 : 0;
       }
       return matches;
     }
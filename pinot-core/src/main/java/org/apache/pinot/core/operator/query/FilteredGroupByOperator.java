@@ -116,43 +116,52 @@ public class FilteredGroupByOperator extends BaseOperator<GroupByResultsBlock> {
     }
 
     GroupKeyGenerator groupKeyGenerator = null;
-    for (Pair<AggregationFunction[], BaseProjectOperator<?>> pair : _projectOperators) {
-      AggregationFunction[] aggregationFunctions = pair.getLeft();
-      BaseProjectOperator<?> projectOperator = pair.getRight();
-
-      // Perform aggregation group-by on all the blocks
-      DefaultGroupByExecutor groupByExecutor;
-      if (groupKeyGenerator == null) {
-        // The group key generator should be shared across all AggregationFunctions so that agg results can be
-        // aligned. Given that filtered aggregations are stored as an iterable of iterables so that all filtered aggs
-        // with the same filter can share transform blocks, rather than a singular flat iterable in the case where
-        // aggs are all non-filtered, sharing a GroupKeyGenerator across all aggs cannot be accomplished by allowing
-        // the GroupByExecutor to have sole ownership of the GroupKeyGenerator. Therefore, we allow constructing a
-        // GroupByExecutor with a pre-existing GroupKeyGenerator so that the GroupKeyGenerator can be shared across
-        // loop iterations i.e. across all aggs.
-        groupByExecutor =
-            new DefaultGroupByExecutor(_queryContext, aggregationFunctions, _groupByExpressions, projectOperator);
-        groupKeyGenerator = groupByExecutor.getGroupKeyGenerator();
-      } else {
-        groupByExecutor =
-            new DefaultGroupByExecutor(_queryContext, aggregationFunctions, _groupByExpressions, projectOperator,
-                groupKeyGenerator);
+    try {
+      for (Pair<AggregationFunction[], BaseProjectOperator<?>> pair : _projectOperators) {
+        AggregationFunction[] aggregationFunctions = pair.getLeft();
+        BaseProjectOperator<?> projectOperator = pair.getRight();
+
+        // Perform aggregation group-by on all the blocks
+        DefaultGroupByExecutor groupByExecutor;
+        if (groupKeyGenerator == null) {
+          // The group key generator should be shared across all AggregationFunctions so that agg results can be
+          // aligned. Given that filtered aggregations are stored as an iterable of iterables so that all filtered aggs
+          // with the same filter can share transform blocks, rather than a singular flat iterable in the case where
+          // aggs are all non-filtered, sharing a GroupKeyGenerator across all aggs cannot be accomplished by allowing
+          // the GroupByExecutor to have sole ownership of the GroupKeyGenerator. Therefore, we allow constructing a
+          // GroupByExecutor with a pre-existing GroupKeyGenerator so that the GroupKeyGenerator can be shared across
+          // loop iterations i.e. across all aggs.
+          groupByExecutor =
+              new DefaultGroupByExecutor(_queryContext, aggregationFunctions, _groupByExpressions, projectOperator);
+          groupKeyGenerator = groupByExecutor.getGroupKeyGenerator();
+        } else {
+          groupByExecutor =
+              new DefaultGroupByExecutor(_queryContext, aggregationFunctions, _groupByExpressions, projectOperator,
+                  groupKeyGenerator);
+        }
+
+        GroupByResultHolder[] filterGroupByResults = groupByExecutor.getGroupByResultHolders();
+        for (int i = 0; i < aggregationFunctions.length; i++) {
+          groupByResultHolders[resultHolderIndexMap.get(aggregationFunctions[i])] = filterGroupByResults[i];
+        }
+
+        int numDocsScanned = 0;
+        ValueBlock valueBlock;
+        while ((valueBlock = projectOperator.nextBlock()) != null) {
+          numDocsScanned += valueBlock.getNumDocs();
+          groupByExecutor.process(valueBlock);
+        }
+
+        _numDocsScanned += numDocsScanned;
+        _numEntriesScannedInFilter += projectOperator.getExecutionStatistics().getNumEntriesScannedInFilter();
+        _numEntriesScannedPostFilter += (long) numDocsScanned * projectOperator.getNumColumnsProjected();
       }
-
-      int numDocsScanned = 0;
-      ValueBlock valueBlock;
-      while ((valueBlock = projectOperator.nextBlock()) != null) {
-        numDocsScanned += valueBlock.getNumDocs();
-        groupByExecutor.process(valueBlock);
-      }
-
-      _numDocsScanned += numDocsScanned;
-      _numEntriesScannedInFilter += projectOperator.getExecutionStatistics().getNumEntriesScannedInFilter();
-      _numEntriesScannedPostFilter += (long) numDocsScanned * projectOperator.getNumColumnsProjected();
-      GroupByResultHolder[] filterGroupByResults = groupByExecutor.getGroupByResultHolders();
-      for (int i = 0; i < aggregationFunctions.length; i++) {
-        groupByResultHolders[resultHolderIndexMap.get(aggregationFunctions[i])] = filterGroupByResults[i];
+    } catch (Throwable t) {
+      // Release the off-heap group-by storage (if any) before propagating the failure
+      if (groupKeyGenerator != null) {
+        new AggregationGroupByResult(groupKeyGenerator, _aggregationFunctions, groupByResultHolders).close();
       }
+      throw t;
     }
     assert groupKeyGenerator != null;
     for (GroupByResultHolder groupByResultHolder : groupByResultHolders) {
@@ -174,8 +183,13 @@ public class FilteredGroupByOperator extends BaseOperator<GroupByResultsBlock> {
       int trimSize = GroupByUtils.getTableCapacity(_queryContext.getLimit(), minGroupTrimSize);
       if (groupKeyGenerator.getNumKeys() > trimSize) {
         TableResizer tableResizer = new TableResizer(_dataSchema, _queryContext);
-        Collection<IntermediateRecord> intermediateRecords =
-            tableResizer.trimInSegmentResults(groupKeyGenerator, groupByResultHolders, trimSize);
+        Collection<IntermediateRecord> intermediateRecords;
+        try {
+          intermediateRecords = tableResizer.trimInSegmentResults(groupKeyGenerator, groupByResultHolders, trimSize);
+        } finally {
+          // Release the off-heap group-by storage (if any) once the results are trimmed into intermediate records
+          new AggregationGroupByResult(groupKeyGenerator, _aggregationFunctions, groupByResultHolders).close();
+        }
         GroupByResultsBlock resultsBlock = new GroupByResultsBlock(_dataSchema, intermediateRecords);
         resultsBlock.setNumGroupsLimitReached(numGroupsLimitReached);
         return resultsBlock;
@@ -102,9 +102,15 @@ public class GroupByOperator extends BaseOperator<GroupByResultsBlock> {
       groupByExecutor = new DefaultGroupByExecutor(_queryContext, _groupByExpressions, _projectOperator);
     }
     ValueBlock valueBlock;
-    while ((valueBlock = _projectOperator.nextBlock()) != null) {
-      _numDocsScanned += valueBlock.getNumDocs();
-      groupByExecutor.process(valueBlock);
+    try {
+      while ((valueBlock = _projectOperator.nextBlock()) != null) {
+        _numDocsScanned += valueBlock.getNumDocs();
+        groupByExecutor.process(valueBlock);
+      }
+    } catch (Throwable t) {
+      // Release the off-heap group-by storage (if any) before propagating the failure
+      groupByExecutor.getResult().close();
+      throw t;
     }
 
     // Check if the groups limit is reached
@@ -122,7 +128,13 @@ public class GroupByOperator extends BaseOperator<GroupByResultsBlock> {
       int trimSize = GroupByUtils.getTableCapacity(_queryContext.getLimit(), minGroupTrimSize);
       if (groupByExecutor.getNumGroups() > trimSize) {
         TableResizer tableResizer = new TableResizer(_dataSchema, _queryContext);
-        Collection<IntermediateRecord> intermediateRecords = groupByExecutor.trimGroupByResult(trimSize, tableResizer);
+        Collection<IntermediateRecord> intermediateRecords;
+        try {
+          intermediateRecords = groupByExecutor.trimGroupByResult(trimSize, tableResizer);
+        } finally {
+          // Release the off-heap group-by storage (if any) once the results are trimmed into intermediate records
+          groupByExecutor.getResult().close();
+        }
         GroupByResultsBlock resultsBlock = new GroupByResultsBlock(_dataSchema, intermediateRecords);
         resultsBlock.setNumGroupsLimitReached(numGroupsLimitReached);
         return resultsBlock;
@@ -28,6 +28,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.PriorityQueue;
 import java.util.Set;
+import javax.annotation.Nullable;
 import org.apache.pinot.common.request.context.ExpressionContext;
 import org.apache.pinot.common.request.context.OrderByExpressionContext;
 import org.apache.pinot.common.utils.DataSchema;
@@ -46,9 +47,13 @@ import org.apache.pinot.core.operator.blocks.results.SelectionResultsBlock;
 import org.apache.pinot.core.operator.transform.TransformOperator;
 import org.apache.pinot.core.query.request.context.QueryContext;
 import org.apache.pinot.core.query.selection.SelectionOperatorUtils;
+import org.apache.pinot.core.query.selection.SelectionOrderByBoundary;
 import org.apache.pinot.core.query.utils.OrderByComparatorFactory;
+import org.apache.pinot.segment.spi.ImmutableSegment;
 import org.apache.pinot.segment.spi.IndexSegment;
 import org.apache.pinot.segment.spi.datasource.DataSource;
+import org.apache.pinot.segment.spi.datasource.DataSourceMetadata;
+import org.apache.pinot.segment.spi.index.reader.Dictionary;
 import org.roaringbitmap.RoaringBitmap;
 
 
@@ -69,9 +74,16 @@ import org.roaringbitmap.RoaringBitmap;
  *     FROM table ORDER BY col).
  *   </li>
  * </ul>
+ * <p>When null handling is disabled, the operator shares the boundary of the top rows (see
+ * {@link SelectionOrderByBoundary}) with the other segments of the query. The segment is skipped when its first
+ * order-by column min/max value cannot beat the boundary, and the rows whose first order-by value cannot beat the
+ * boundary are skipped (comparing the primitive values or the dictionary ids for sorted dictionaries) before being
+ * materialized into the priority queue.
  */
 public class SelectionOrderByOperator extends BaseOperator<SelectionResultsBlock> {
   private static final String EXPLAIN_NAME = "SELECT_ORDERBY";
+  // Marker for the blocks where all the rows are pruned
+  private static final boolean[] PRUNED_BLOCK = new boolean[0];
 
   private final IndexSegment _indexSegment;
   private final QueryContext _queryContext;
@@ -84,9 +96,14 @@ public class SelectionOrderByOperator extends BaseOperator<SelectionResultsBlock
   private final int _numRowsToKeep;
   private final Comparator<Object[]> _comparator;
   private final PriorityQueue<Object[]> _rows;
+  private final SelectionOrderByBoundary _boundary;
+
+  private boolean[] _prunedRows;
 
   private int _numDocsScanned = 0;
   private long _numEntriesScannedPostFilter = 0;
+  // Number of rows skipped by the boundary before being inserted into the priority queue
+  private long _numDocsPrunedByBoundary = 0;
 
   public SelectionOrderByOperator(IndexSegment indexSegment, QueryContext queryContext,
       List<ExpressionContext> expressions, BaseProjectOperator<?> projectOperator) {
@@ -110,6 +127,19 @@ public class SelectionOrderByOperator extends BaseOperator<SelectionResultsBlock
         OrderByComparatorFactory.getComparator(_orderByExpressions, _orderByColumnContexts, _nullHandlingEnabled);
     _rows = new PriorityQueue<>(Math.min(_numRowsToKeep, SelectionOperatorUtils.MAX_ROW_HOLDER_INITIAL_CAPACITY),
         _comparator.reversed());
+    if (!_nullHandlingEnabled && _numRowsToKeep > 0) {
+      // Only share the boundary across the segments with the same order-by value types so that the values are
+      // comparable
+      StringBuilder boundaryKey = new StringBuilder();
+      for (ColumnContext columnContext : _orderByColumnContexts) {
+        boundaryKey.append(columnContext.getDataType()).append(',');
+      }
+      Comparator<Object[]> comparator = _comparator;
+      _boundary = queryContext.getOrComputeSharedValue(SelectionOrderByBoundary.class, boundaryKey.toString(),
+          k -> new SelectionOrderByBoundary(comparator, numOrderByExpressions));
+    } else {
+      _boundary = null;
+    }
   }
 
   @Override
@@ -142,14 +172,20 @@ public class SelectionOrderByOperator extends BaseOperator<SelectionResultsBlock
     // Fetch all the expressions and insert them into the priority queue
     BlockValSet[] blockValSets = new BlockValSet[numExpressions];
     int numColumnsProjected = _projectOperator.getNumColumnsProjected();
+    boolean skipSegment = canSkipSegment();
     ValueBlock valueBlock;
-    while ((valueBlock = _projectOperator.nextBlock()) != null) {
+    while (!skipSegment && (valueBlock = _projectOperator.nextBlock()) != null) {
       for (int i = 0; i < numExpressions; i++) {
         ExpressionContext expression = _expressions.get(i);
         blockValSets[i] = valueBlock.getBlockValueSet(expression);
       }
-      RowBasedBlockValueFetcher blockValueFetcher = new RowBasedBlockValueFetcher(blockValSets);
       int numDocsFetched = valueBlock.getNumDocs();
+      boolean[] prunedRows = pruneRows(blockValSets[0], numDocsFetched);
+      if (prunedRows == PRUNED_BLOCK) {
+        _numDocsScanned += numDocsFetched;
+        continue;
+      }
+      RowBasedBlockValueFetcher blockValueFetcher = new RowBasedBlockValueFetcher(blockValSets);
       if (_nullHandlingEnabled) {
         RoaringBitmap[] nullBitmaps = new RoaringBitmap[numExpressions];
         for (int i = 0; i < numExpressions; i++) {
@@ -167,12 +203,17 @@ public class SelectionOrderByOperator extends BaseOperator<SelectionResultsBlock
         }
       } else {
         for (int i = 0; i < numDocsFetched; i++) {
+          if (prunedRows != null && prunedRows[i]) {
+            continue;
+          }
           SelectionOperatorUtils.addToPriorityQueue(blockValueFetcher.getRow(i), _rows, _numRowsToKeep);
         }
+        updateBoundary();
       }
       _numDocsScanned += numDocsFetched;
     }
     _numEntriesScannedPostFilter = (long) _numDocsScanned * numColumnsProjected;
+    _queryContext.addOrderByBoundaryPrunedStats(skipSegment ? 1 : 0, _numDocsPrunedByBoundary);
 
     // Create the data schema
     String[] columnNames = new String[numExpressions];
@@ -197,14 +238,20 @@ public class SelectionOrderByOperator extends BaseOperator<SelectionResultsBlock
     // Fetch the order-by expressions and docIds and insert them into the priority queue
     BlockValSet[] blockValSets = new BlockValSet[numOrderByExpressions];
     int numColumnsProjected = _projectOperator.getNumColumnsProjected();
+    boolean skipSegment = canSkipSegment();
     ValueBlock valueBlock;
-    while ((valueBlock = _projectOperator.nextBlock()) != null) {
+    while (!skipSegment && (valueBlock = _projectOperator.nextBlock()) != null) {
       for (int i = 0; i < numOrderByExpressions; i++) {
         ExpressionContext expression = _orderByExpressions.get(i).getExpression();
         blockValSets[i] = valueBlock.getBlockValueSet(expression);
       }
-      RowBasedBlockValueFetcher blockValueFetcher = new RowBasedBlockValueFetcher(blockValSets);
       int numDocsFetched = valueBlock.getNumDocs();
+      boolean[] prunedRows = pruneRows(blockValSets[0], numDocsFetched);
+      if (prunedRows == PRUNED_BLOCK) {
+        _numDocsScanned += numDocsFetched;
+        continue;
+      }
+      RowBasedBlockValueFetcher blockValueFetcher = new RowBasedBlockValueFetcher(blockValSets);
       int[] docIds = valueBlock.getDocIds();
       if (_nullHandlingEnabled) {
         RoaringBitmap[] nullBitmaps = new RoaringBitmap[numOrderByExpressions];
@@ -224,6 +271,9 @@ public class SelectionOrderByOperator extends BaseOperator<SelectionResultsBlock
         }
       } else {
         for (int i = 0; i < numDocsFetched; i++) {
+          if (prunedRows != null && prunedRows[i]) {
+            continue;
+          }
           // NOTE: We pre-allocate the complete row so that we can fill up the non-order-by output expression values
           // later
           //       without creating extra rows or re-constructing the priority queue. We can change the values in-place
@@ -233,10 +283,12 @@ public class SelectionOrderByOperator extends BaseOperator<SelectionResultsBlock
           row[numOrderByExpressions] = docIds[i];
           SelectionOperatorUtils.addToPriorityQueue(row, _rows, _numRowsToKeep);
         }
+        updateBoundary();
       }
       _numDocsScanned += numDocsFetched;
     }
     _numEntriesScannedPostFilter = (long) _numDocsScanned * numColumnsProjected;
+    _queryContext.addOrderByBoundaryPrunedStats(skipSegment ? 1 : 0, _numDocsPrunedByBoundary);
 
     // Copy the rows (shallow copy so that any modification will also be reflected to the priority queue) into a list,
     // and store the document ids into a bitmap
@@ -306,6 +358,160 @@ public class SelectionOrderByOperator extends BaseOperator<SelectionResultsBlock
     return new SelectionResultsBlock(dataSchema, getSortedRows(), _comparator);
   }
 
+  /**
+   * Returns whether the whole segment can be skipped because the min/max value of the first order-by column cannot
+   * beat the boundary shared by the other segments.
+   */
+  private boolean canSkipSegment() {
+    if (_boundary == null || !(_indexSegment instanceof ImmutableSegment)) {
+      return false;
+    }
+    Object[] boundary = _boundary.get();
+    if (boundary == null) {
+      return false;
+    }
+    OrderByExpressionContext firstOrderByExpression = _orderByExpressions.get(0);
+    ExpressionContext firstExpression = firstOrderByExpression.getExpression();
+    if (firstExpression.getType() != ExpressionContext.Type.IDENTIFIER) {
+      return false;
+    }
+    DataSourceMetadata dataSourceMetadata =
+        _indexSegment.getDataSource(firstExpression.getIdentifier()).getDataSourceMetadata();
+    boolean asc = firstOrderByExpression.isAsc();
+    Comparable value = asc ? dataSourceMetadata.getMinValue() : dataSourceMetadata.getMaxValue();
+    Object boundaryValue = boundary[0];
+    if (value == null || value.getClass() != boundaryValue.getClass()) {
+      return false;
+    }
+    return isPruned(value.compareTo(boundaryValue), asc);
+  }
+
+  /**
+   * Marks the rows whose first order-by value cannot beat the current boundary (the better one of the shared boundary
+   * and the local priority queue head). Returns {@link #PRUNED_BLOCK} if all the rows are pruned, the marked rows if
+   * some of the rows are pruned, or {@code null} if no row is pruned.
+   */
+  @Nullable
+  private boolean[] pruneRows(BlockValSet blockValSet, int numDocs) {
+    if (_boundary == null || !blockValSet.isSingleValue()) {
+      return null;
+    }
+    Object[] boundary = _boundary.get();
+    if (_rows.size() >= _numRowsToKeep) {
+      Object[] head = _rows.peek();
+      if (boundary == null || _comparator.compare(head, boundary) < 0) {
+        boundary = head;
+      }
+    }
+    if (boundary == null) {
+      return null;
+    }
+    if (_prunedRows == null || _prunedRows.length < numDocs) {
+      _prunedRows = new boolean[numDocs];
+    }
+    boolean asc = _orderByExpressions.get(0).isAsc();
+    Object boundaryValue = boundary[0];
+    int numPrunedRows = 0;
+    switch (blockValSet.getValueType().getStoredType()) {
+      case INT: {
+        int intBoundary = (Integer) boundaryValue;
+        int[] values = blockValSet.getIntValuesSV();
+        for (int i = 0; i < numDocs; i++) {
+          boolean pruned = isPruned(Integer.compare(values[i], intBoundary), asc);
+          _prunedRows[i] = pruned;
+          numPrunedRows += pruned ? 1 : 0;
+        }
+        break;
+      }
+      case LONG: {
+        long longBoundary = (Long) boundaryValue;
+        long[] values = blockValSet.getLongValuesSV();
+        for (int i = 0; i < numDocs; i++) {
+          boolean pruned = isPruned(Long.compare(values[i], longBoundary), asc);
+          _prunedRows[i] = pruned;
+          numPrunedRows += pruned ? 1 : 0;
+        }
+        break;
+      }
+      case FLOAT: {
+        float floatBoundary = (Float) boundaryValue;
+        float[] values = blockValSet.getFloatValuesSV();
+        for (int i = 0; i < numDocs; i++) {
+          boolean pruned = isPruned(Float.compare(values[i], floatBoundary), asc);
+          _prunedRows[i] = pruned;
+          numPrunedRows += pruned ? 1 : 0;
+        }
+        break;
+      }
+      case DOUBLE: {
+        double doubleBoundary = (Double) boundaryValue;
+        double[] values = blockValSet.getDoubleValuesSV();
+        for (int i = 0; i < numDocs; i++) {
+          boolean pruned = isPruned(Double.compare(values[i], doubleBoundary), asc);
+          _prunedRows[i] = pruned;
+          numPrunedRows += pruned ? 1 : 0;
+        }
+        break;
+      }
+      case STRING: {
+        Dictionary dictionary = blockValSet.getDictionary();
+        if (dictionary != null && dictionary.isSorted()) {
+          // Compare the dictionary ids without reading the values
+          int index = dictionary.insertionIndexOf((String) boundaryValue);
+          // When the boundary value does not exist in the dictionary, compare with the insertion point (first value
+          // larger than the boundary value) and treat the dictionary id before it as smaller than the boundary
+          int boundaryDictId = index >= 0 ? index : -(index + 1);
+          int compareOffset = index >= 0 ? 0 : 1;
+          int[] dictIds = blockValSet.getDictionaryIdsSV();
+          for (int i = 0; i < numDocs; i++) {
+            int dictId = dictIds[i];
+            int result = dictId < boundaryDictId ? -1 : (dictId == boundaryDictId ? compareOffset : 1);
+            boolean pruned = isPruned(result, asc);
+            _prunedRows[i] = pruned;
+            numPrunedRows += pruned ? 1 : 0;
+          }
+        } else {
+          String stringBoundary = (String) boundaryValue;
+          String[] values = blockValSet.getStringValuesSV();
+          for (int i = 0; i < numDocs; i++) {
+            boolean pruned = isPruned(values[i].compareTo(stringBoundary), asc);
+            _prunedRows[i] = pruned;
+            numPrunedRows += pruned ? 1 : 0;
+          }
+        }
+        break;
+      }
+      default:
+        return null;
+    }
+    _numDocsPrunedByBoundary += numPrunedRows;
+    if (numPrunedRows == numDocs) {
+      return PRUNED_BLOCK;
+    }
+    return numPrunedRows > 0 ? _prunedRows : null;
+  }
+
+  /**
+   * Returns whether the row (or segment) can be pruned based on the comparison result of its first order-by value and
+   * the boundary value. When there is only one order-by expression, the values equal to the boundary can also be
+   * pruned because there are already enough rows with the same value.
+   */
+  private boolean isPruned(int result, boolean asc) {
+    if (!asc) {
+      result = -result;
+    }
+    return result > 0 || (result == 0 && _orderByExpressions.size() == 1);
+  }
+
+  /**
+   * Publishes the local priority queue head as the shared boundary when the priority queue is full.
+   */
+  private void updateBoundary() {
+    if (_boundary != null && _rows.size() >= _numRowsToKeep) {
+      _boundary.update(_rows.peek());
+    }
+  }
+
   private List<Object[]> getSortedRows() {
     int numRows = _rows.size();
     Object[][] sortedRows = new Object[numRows][];
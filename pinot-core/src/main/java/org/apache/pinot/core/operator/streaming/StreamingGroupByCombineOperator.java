@@ -32,7 +32,6 @@ import org.apache.pinot.core.common.Operator;
 import org.apache.pinot.core.data.table.ConcurrentIndexedTable;
 import org.apache.pinot.core.data.table.IndexedTable;
 import org.apache.pinot.core.data.table.IntermediateRecord;
-import org.apache.pinot.core.data.table.Key;
 import org.apache.pinot.core.data.table.Record;
 import org.apache.pinot.core.data.table.UnboundedConcurrentIndexedTable;
 import org.apache.pinot.core.operator.AcquireReleaseColumnsSegmentOperator;
@@ -194,24 +193,29 @@ public class StreamingGroupByCombineOperator extends BaseStreamingCombineOperato
           AggregationGroupByResult aggregationGroupByResult = resultsBlock.getAggregationGroupByResult();
           if (aggregationGroupByResult != null) {
             // Iterate over the group-by keys, for each key, update the group-by result in the indexedTable
-            Iterator<GroupKeyGenerator.GroupKey> dicGroupKeyIterator = aggregationGroupByResult.getGroupKeyIterator();
-            while (dicGroupKeyIterator.hasNext()) {
-              GroupKeyGenerator.GroupKey groupKey = dicGroupKeyIterator.next();
-              Object[] keys = groupKey._keys;
-              Object[] values = Arrays.copyOf(keys, _numColumns);
-              int groupId = groupKey._groupId;
-              for (int i = 0; i < _numAggregationFunctions; i++) {
-                values[_numGroupByExpressions + i] = aggregationGroupByResult.getResultForGroupId(i, groupId);
+            try {
+              Iterator<GroupKeyGenerator.GroupKey> dicGroupKeyIterator =
+                  aggregationGroupByResult.getGroupKeyIterator();
+              while (dicGroupKeyIterator.hasNext()) {
+                GroupKeyGenerator.GroupKey groupKey = dicGroupKeyIterator.next();
+                Object[] values = Arrays.copyOf(groupKey._keys, _numColumns);
+                int groupId = groupKey._groupId;
+                for (int i = 0; i < _numAggregationFunctions; i++) {
+                  values[_numGroupByExpressions + i] = aggregationGroupByResult.getResultForGroupId(i, groupId);
+                }
+                _indexedTable.upsert(new Record(values));
+                Tracing.ThreadAccountantOps.sampleAndCheckInterruptionPeriodically(mergedKeys);
+                mergedKeys++;
               }
-              _indexedTable.upsert(new Key(keys), new Record(values));
-              Tracing.ThreadAccountantOps.sampleAndCheckInterruptionPeriodically(mergedKeys);
-              mergedKeys++;
+            } finally {
+              // Release the off-heap group-by storage (if any) once the results are merged into the indexedTable
+              aggregationGroupByResult.close();
             }
           }
         } else {
           for (IntermediateRecord intermediateResult : intermediateRecords) {
-            //TODO: change upsert api so that it accepts intermediateRecord directly
-            _indexedTable.upsert(intermediateResult._key, intermediateResult._record);
+            // NOTE: Upsert the record only so that the indexed table creates the specialized key
+            _indexedTable.upsert(intermediateResult._record);
             Tracing.ThreadAccountantOps.sampleAndCheckInterruptionPeriodically(mergedKeys);
             mergedKeys++;
           }
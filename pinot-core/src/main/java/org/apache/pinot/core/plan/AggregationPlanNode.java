@@ -28,6 +28,7 @@ import org.apache.pinot.core.common.Operator;
 import org.apache.pinot.core.operator.BaseProjectOperator;
 import org.apache.pinot.core.operator.blocks.results.AggregationResultsBlock;
 import org.apache.pinot.core.operator.filter.BaseFilterOperator;
+import org.apache.pinot.core.operator.filter.DocIdRangeFilterOperator;
 import org.apache.pinot.core.operator.query.AggregationOperator;
 import org.apache.pinot.core.operator.query.FastFilteredCountOperator;
 import org.apache.pinot.core.operator.query.FilteredAggregationOperator;
@@ -64,10 +65,23 @@ public class AggregationPlanNode implements PlanNode {
 
   private final IndexSegment _indexSegment;
   private final QueryContext _queryContext;
+  // Process the documents within [startDocId, endDocId), or the whole segment when endDocId is negative
+  private final int _startDocId;
+  private final int _endDocId;
 
   public AggregationPlanNode(IndexSegment indexSegment, QueryContext queryContext) {
+    this(indexSegment, queryContext, 0, -1);
+  }
+
+  /**
+   * Processes only the documents within the range of [startDocId, endDocId) of the segment, which is one of the
+   * disjoint document id ranges split from a large segment. Filtered aggregations are not supported.
+   */
+  public AggregationPlanNode(IndexSegment indexSegment, QueryContext queryContext, int startDocId, int endDocId) {
     _indexSegment = indexSegment;
     _queryContext = queryContext;
+    _startDocId = startDocId;
+    _endDocId = endDocId;
   }
 
   @Override
@@ -94,11 +108,16 @@ public class AggregationPlanNode implements PlanNode {
   public Operator<AggregationResultsBlock> buildNonFilteredAggOperator() {
     assert _queryContext.getAggregationFunctions() != null;
 
-    int numTotalDocs = _indexSegment.getSegmentMetadata().getTotalDocs();
+    boolean isDocIdRange = _endDocId >= 0;
+    int numTotalDocs = isDocIdRange ? _endDocId - _startDocId : _indexSegment.getSegmentMetadata().getTotalDocs();
     AggregationFunction[] aggregationFunctions = _queryContext.getAggregationFunctions();
 
     FilterPlanNode filterPlanNode = new FilterPlanNode(_indexSegment, _queryContext);
     BaseFilterOperator filterOperator = filterPlanNode.run();
+    if (isDocIdRange) {
+      // NOTE: The range filter cannot optimize count nor match all, so the plan falls back to the scan-based plan
+      filterOperator = new DocIdRangeFilterOperator(filterOperator, _startDocId, _endDocId);
+    }
 
     if (canOptimizeFilteredCount(filterOperator, aggregationFunctions) && !_queryContext.isNullHandlingEnabled()) {
       return new FastFilteredCountOperator(aggregationFunctions, filterOperator, _indexSegment.getSegmentMetadata());
@@ -120,7 +139,8 @@ public class AggregationPlanNode implements PlanNode {
 
     // Use star-tree to solve the query if possible
     List<StarTreeV2> starTrees = _indexSegment.getStarTrees();
-    if (starTrees != null && !_queryContext.isSkipStarTree() && !_queryContext.isNullHandlingEnabled()) {
+    if (starTrees != null && !isDocIdRange && !_queryContext.isSkipStarTree()
+        && !_queryContext.isNullHandlingEnabled()) {
       AggregationFunctionColumnPair[] aggregationFunctionColumnPairs =
           StarTreeUtils.extractAggregationFunctionPairs(aggregationFunctions);
       if (aggregationFunctionColumnPairs != null) {
@@ -153,7 +173,7 @@ public class AggregationPlanNode implements PlanNode {
    * Returns {@code true} if the given aggregations can be solved with dictionary or column metadata, {@code false}
    * otherwise.
    */
-  private static boolean isFitForNonScanBasedPlan(AggregationFunction[] aggregationFunctions,
+  public static boolean isFitForNonScanBasedPlan(AggregationFunction[] aggregationFunctions,
       IndexSegment indexSegment) {
     for (AggregationFunction aggregationFunction : aggregationFunctions) {
       if (aggregationFunction.getType() == COUNT) {
@@ -0,0 +1,51 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.plan;
+
+import org.apache.pinot.core.common.Operator;
+import org.apache.pinot.core.operator.DocIdRangeSegmentOperator;
+import org.apache.pinot.core.operator.blocks.results.BaseResultsBlock;
+import org.apache.pinot.segment.spi.IndexSegment;
+
+
+/**
+ * A wrapper for the segment-level plan node that processes one of the disjoint document id ranges split from a large
+ * segment. The child plan node should only process the documents within the range.
+ */
+public class DocIdRangeSegmentPlanNode implements PlanNode {
+  private final PlanNode _childPlanNode;
+  private final IndexSegment _indexSegment;
+  private final int[] _docIdRangeBoundaries;
+  private final int _rangeId;
+
+  public DocIdRangeSegmentPlanNode(PlanNode childPlanNode, IndexSegment indexSegment, int[] docIdRangeBoundaries,
+      int rangeId) {
+    _childPlanNode = childPlanNode;
+    _indexSegment = indexSegment;
+    _docIdRangeBoundaries = docIdRangeBoundaries;
+    _rangeId = rangeId;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public DocIdRangeSegmentOperator<BaseResultsBlock> run() {
+    return new DocIdRangeSegmentOperator<>((Operator<BaseResultsBlock>) _childPlanNode.run(), _indexSegment,
+        _docIdRangeBoundaries, _rangeId);
+  }
+}
@@ -18,35 +18,130 @@
  */
 package org.apache.pinot.core.plan;
 
+import java.util.Collection;
 import javax.annotation.Nullable;
 import org.apache.pinot.core.operator.DocIdSetOperator;
 import org.apache.pinot.core.operator.filter.BaseFilterOperator;
 import org.apache.pinot.core.query.request.context.QueryContext;
 import org.apache.pinot.segment.spi.IndexSegment;
+import org.apache.pinot.segment.spi.datasource.DataSource;
+import org.apache.pinot.segment.spi.datasource.DataSourceMetadata;
 
 
 public class DocIdSetPlanNode implements PlanNode {
   public static final int MAX_DOC_PER_CALL = 10_000;
 
+  // Lower bound of the adaptive block size, below which the per-block overhead starts to dominate
+  public static final int MIN_ADAPTIVE_DOC_PER_CALL = 1_000;
+  // Target size of the per-block working buffers (doc ids and projected values) for adaptive block sizing, chosen to
+  // stay within the per-core L2 cache
+  public static final int ADAPTIVE_TARGET_BLOCK_BYTES = 512 * 1024;
+  // Estimated size of a variable-width value (STRING, BYTES, BIG_DECIMAL), which is also the upper bound of the bytes
+  // pulled into the cache for a single value
+  private static final int CACHE_LINE_BYTES = 64;
+
   private final IndexSegment _indexSegment;
   private final QueryContext _queryContext;
   private final int _maxDocPerCall;
   private final BaseFilterOperator _filterOperator;
+  private final Collection<DataSource> _projectedDataSources;
 
   public DocIdSetPlanNode(IndexSegment indexSegment, QueryContext queryContext, int maxDocPerCall,
       @Nullable BaseFilterOperator filterOperator) {
+    this(indexSegment, queryContext, maxDocPerCall, filterOperator, null);
+  }
+
+  /**
+   * When the projected data sources are provided and adaptive block sizing is enabled for the query, the
+   * {@code maxDocPerCall} is treated as an upper bound, and the actual block size is picked based on the projected
+   * columns and the filter selectivity. The picked size is reported through
+   * {@link QueryContext#updateMinAdaptiveMaxDocsPerCall(int)}.
+   * <p>NOTE: Adaptive block sizing can only shrink the blocks. Blocks larger than {@link #MAX_DOC_PER_CALL} are not
+   * supported because the downstream buffers (e.g. {@code DataFetcher}, transform functions and group-by executors)
+   * are sized with that constant, so narrow projections keep using {@link #MAX_DOC_PER_CALL}.
+   */
+  public DocIdSetPlanNode(IndexSegment indexSegment, QueryContext queryContext, int maxDocPerCall,
+      @Nullable BaseFilterOperator filterOperator, @Nullable Collection<DataSource> projectedDataSources) {
     assert maxDocPerCall > 0 && maxDocPerCall <= MAX_DOC_PER_CALL;
 
     _indexSegment = indexSegment;
     _queryContext = queryContext;
     _maxDocPerCall = maxDocPerCall;
     _filterOperator = filterOperator;
+    _projectedDataSources = projectedDataSources;
   }
 
   @Override
   public DocIdSetOperator run() {
-    return new DocIdSetOperator(
-        _filterOperator != null ? _filterOperator : new FilterPlanNode(_indexSegment, _queryContext).run(),
-        _maxDocPerCall);
+    BaseFilterOperator filterOperator =
+        _filterOperator != null ? _filterOperator : new FilterPlanNode(_indexSegment, _queryContext).run();
+    if (_projectedDataSources != null && _queryContext.isAdaptiveMaxDocsPerCall()) {
+      int maxDocPerCall = Math.min(_maxDocPerCall,
+          getAdaptiveMaxDocPerCall(_projectedDataSources, getEstimatedSelectivity(filterOperator)));
+      _queryContext.updateMinAdaptiveMaxDocsPerCall(maxDocPerCall);
+      return new DocIdSetOperator(filterOperator, maxDocPerCall, true);
+    }
+    return new DocIdSetOperator(filterOperator, _maxDocPerCall);
+  }
+
+  /**
+   * Returns the estimated fraction of the documents matching the filter. The estimate only relies on the filter
+   * structure and the index metadata (see {@link BaseFilterOperator#getEstimatedSelectivity()}) so that the filter is
+   * not evaluated while planning. Filters that cannot be estimated are treated as matching all documents, which keeps
+   * the block size picked from the projected column widths only.
+   */
+  private double getEstimatedSelectivity(BaseFilterOperator filterOperator) {
+    int numDocs = _indexSegment.getSegmentMetadata().getTotalDocs();
+    if (numDocs == 0 || filterOperator.isResultMatchingAll()) {
+      return 1.0;
+    }
+    return Math.max(filterOperator.getEstimatedSelectivity(), 1.0 / numDocs);
+  }
+
+  /**
+   * Returns the number of documents per block such that the working buffers for the given projected columns fit in
+   * {@link #ADAPTIVE_TARGET_BLOCK_BYTES}, bounded by [{@link #MIN_ADAPTIVE_DOC_PER_CALL}, {@link #MAX_DOC_PER_CALL}].
+   * With a sparse filter, each matching value is read from a different part of the forward index, so it is accounted
+   * for with the bytes it effectively pulls into the cache (up to a cache line) instead of its width.
+   */
+  public static int getAdaptiveMaxDocPerCall(Collection<DataSource> projectedDataSources, double selectivity) {
+    double bytesPerDoc = Integer.BYTES;
+    for (DataSource dataSource : projectedDataSources) {
+      DataSourceMetadata dataSourceMetadata = dataSource.getDataSourceMetadata();
+      int valueWidth = getValueWidth(dataSourceMetadata);
+      if (dataSource.getDictionary() != null) {
+        // Both the dictionary ids and the values are buffered
+        valueWidth += Integer.BYTES;
+      }
+      bytesPerDoc +=
+          Math.min(valueWidth / selectivity, CACHE_LINE_BYTES) * getAverageNumValuesPerDoc(dataSourceMetadata);
+    }
+    int maxDocPerCall = (int) (ADAPTIVE_TARGET_BLOCK_BYTES / bytesPerDoc);
+    return Math.max(Math.min(maxDocPerCall, MAX_DOC_PER_CALL), MIN_ADAPTIVE_DOC_PER_CALL);
+  }
+
+  private static int getValueWidth(DataSourceMetadata dataSourceMetadata) {
+    switch (dataSourceMetadata.getDataType().getStoredType()) {
+      case INT:
+      case FLOAT:
+        return Integer.BYTES;
+      case LONG:
+      case DOUBLE:
+        return Long.BYTES;
+      default:
+        return CACHE_LINE_BYTES;
+    }
+  }
+
+  private static double getAverageNumValuesPerDoc(DataSourceMetadata dataSourceMetadata) {
+    if (dataSourceMetadata.isSingleValue()) {
+      return 1;
+    }
+    int numDocs = dataSourceMetadata.getNumDocs();
+    int numValues = dataSourceMetadata.getNumValues();
+    if (numDocs > 0 && numValues > 0) {
+      return Math.max((double) numValues / numDocs, 1);
+    }
+    return Math.max(dataSourceMetadata.getMaxNumValuesPerMVEntry(), 1);
   }
 }
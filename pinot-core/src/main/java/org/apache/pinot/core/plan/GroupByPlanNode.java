@@ -27,6 +27,7 @@ import org.apache.pinot.core.common.Operator;
 import org.apache.pinot.core.operator.BaseProjectOperator;
 import org.apache.pinot.core.operator.blocks.results.GroupByResultsBlock;
 import org.apache.pinot.core.operator.filter.BaseFilterOperator;
+import org.apache.pinot.core.operator.filter.DocIdRangeFilterOperator;
 import org.apache.pinot.core.operator.query.FilteredGroupByOperator;
 import org.apache.pinot.core.operator.query.GroupByOperator;
 import org.apache.pinot.core.query.aggregation.function.AggregationFunction;
@@ -47,10 +48,23 @@ import org.apache.pinot.segment.spi.index.startree.StarTreeV2;
 public class GroupByPlanNode implements PlanNode {
   private final IndexSegment _indexSegment;
   private final QueryContext _queryContext;
+  // Process the documents within [startDocId, endDocId), or the whole segment when endDocId is negative
+  private final int _startDocId;
+  private final int _endDocId;
 
   public GroupByPlanNode(IndexSegment indexSegment, QueryContext queryContext) {
+    this(indexSegment, queryContext, 0, -1);
+  }
+
+  /**
+   * Processes only the documents within the range of [startDocId, endDocId) of the segment, which is one of the
+   * disjoint document id ranges split from a large segment. Filtered aggregations are not supported.
+   */
+  public GroupByPlanNode(IndexSegment indexSegment, QueryContext queryContext, int startDocId, int endDocId) {
     _indexSegment = indexSegment;
     _queryContext = queryContext;
+    _startDocId = startDocId;
+    _endDocId = endDocId;
   }
 
   @Override
@@ -67,7 +81,8 @@ public class GroupByPlanNode implements PlanNode {
   }
 
   private GroupByOperator buildNonFilteredGroupByPlan() {
-    int numTotalDocs = _indexSegment.getSegmentMetadata().getTotalDocs();
+    boolean isDocIdRange = _endDocId >= 0;
+    int numTotalDocs = isDocIdRange ? _endDocId - _startDocId : _indexSegment.getSegmentMetadata().getTotalDocs();
     AggregationFunction[] aggregationFunctions = _queryContext.getAggregationFunctions();
     List<ExpressionContext> groupByExpressionsList = _queryContext.getGroupByExpressions();
     assert aggregationFunctions != null && groupByExpressionsList != null;
@@ -75,10 +90,13 @@ public class GroupByPlanNode implements PlanNode {
 
     FilterPlanNode filterPlanNode = new FilterPlanNode(_indexSegment, _queryContext);
     BaseFilterOperator filterOperator = filterPlanNode.run();
+    if (isDocIdRange) {
+      filterOperator = new DocIdRangeFilterOperator(filterOperator, _startDocId, _endDocId);
+    }
 
     // Use star-tree to solve the query if possible
     List<StarTreeV2> starTrees = _indexSegment.getStarTrees();
-    if (starTrees != null && !_queryContext.isSkipStarTree()) {
+    if (starTrees != null && !isDocIdRange && !_queryContext.isSkipStarTree()) {
       AggregationFunctionColumnPair[] aggregationFunctionColumnPairs =
           StarTreeUtils.extractAggregationFunctionPairs(aggregationFunctions);
       if (aggregationFunctionColumnPairs != null) {
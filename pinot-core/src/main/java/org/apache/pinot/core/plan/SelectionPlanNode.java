@@ -27,6 +27,8 @@ import org.apache.pinot.common.utils.config.QueryOptionsUtils;
 import org.apache.pinot.core.common.Operator;
 import org.apache.pinot.core.operator.BaseProjectOperator;
 import org.apache.pinot.core.operator.blocks.results.SelectionResultsBlock;
+import org.apache.pinot.core.operator.filter.BaseFilterOperator;
+import org.apache.pinot.core.operator.filter.DocIdRangeFilterOperator;
 import org.apache.pinot.core.operator.query.EmptySelectionOperator;
 import org.apache.pinot.core.operator.query.SelectionOnlyOperator;
 import org.apache.pinot.core.operator.query.SelectionOrderByOperator;
@@ -45,10 +47,24 @@ import org.apache.pinot.segment.spi.index.reader.NullValueVectorReader;
 public class SelectionPlanNode implements PlanNode {
   private final IndexSegment _indexSegment;
   private final QueryContext _queryContext;
+  // Process the documents within [startDocId, endDocId), or the whole segment when endDocId is negative
+  private final int _startDocId;
+  private final int _endDocId;
 
   public SelectionPlanNode(IndexSegment indexSegment, QueryContext queryContext) {
+    this(indexSegment, queryContext, 0, -1);
+  }
+
+  /**
+   * Processes only the documents within the range of [startDocId, endDocId) of the segment, which is one of the
+   * disjoint document id ranges split from a large segment. Only selection-only queries (without order-by) are
+   * supported.
+   */
+  public SelectionPlanNode(IndexSegment indexSegment, QueryContext queryContext, int startDocId, int endDocId) {
     _indexSegment = indexSegment;
     _queryContext = queryContext;
+    _startDocId = startDocId;
+    _endDocId = endDocId;
   }
 
   @Override
@@ -67,10 +83,16 @@ public class SelectionPlanNode implements PlanNode {
       // Selection only
       // ie: SELECT ... FROM Table WHERE ... LIMIT 10
       int maxDocsPerCall = Math.min(limit, DocIdSetPlanNode.MAX_DOC_PER_CALL);
+      BaseFilterOperator filterOperator = null;
+      if (_endDocId >= 0) {
+        filterOperator = new DocIdRangeFilterOperator(new FilterPlanNode(_indexSegment, _queryContext).run(),
+            _startDocId, _endDocId);
+      }
       BaseProjectOperator<?> projectOperator =
-          new ProjectPlanNode(_indexSegment, _queryContext, expressions, maxDocsPerCall).run();
+          new ProjectPlanNode(_indexSegment, _queryContext, expressions, maxDocsPerCall, filterOperator).run();
       return new SelectionOnlyOperator(_indexSegment, _queryContext, expressions, projectOperator);
     }
+    assert _endDocId < 0 : "Doc id range is not supported for selection order-by queries";
     int numOrderByExpressions = orderByExpressions.size();
     // Although it is a break of abstraction, some code, specially merging, assumes that if there is an order by
     // expression the operator will return a block whose selection result is a priority queue.
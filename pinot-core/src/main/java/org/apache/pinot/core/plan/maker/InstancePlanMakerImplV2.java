@@ -26,6 +26,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
+import javax.annotation.Nullable;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.MapUtils;
 import org.apache.pinot.common.metrics.ServerMetrics;
@@ -39,21 +40,28 @@ import org.apache.pinot.core.plan.AcquireReleaseColumnsSegmentPlanNode;
 import org.apache.pinot.core.plan.AggregationPlanNode;
 import org.apache.pinot.core.plan.CombinePlanNode;
 import org.apache.pinot.core.plan.DistinctPlanNode;
+import org.apache.pinot.core.plan.DocIdRangeSegmentPlanNode;
 import org.apache.pinot.core.plan.GlobalPlanImplV0;
 import org.apache.pinot.core.plan.GroupByPlanNode;
 import org.apache.pinot.core.plan.InstanceResponsePlanNode;
 import org.apache.pinot.core.plan.Plan;
 import org.apache.pinot.core.plan.PlanNode;
+import org.apache.pinot.core.plan.SegmentResultCachePlanNode;
 import org.apache.pinot.core.plan.SelectionPlanNode;
 import org.apache.pinot.core.plan.StreamingInstanceResponsePlanNode;
 import org.apache.pinot.core.plan.StreamingSelectionPlanNode;
+import org.apache.pinot.core.query.aggregation.function.AggregationFunction;
+import org.apache.pinot.core.query.cache.SegmentResultCache;
 import org.apache.pinot.core.query.prefetch.FetchPlanner;
 import org.apache.pinot.core.query.prefetch.FetchPlannerRegistry;
 import org.apache.pinot.core.query.request.context.QueryContext;
 import org.apache.pinot.core.query.request.context.utils.QueryContextUtils;
 import org.apache.pinot.core.util.GroupByUtils;
+import org.apache.pinot.core.util.QueryMultiThreadingUtils;
+import org.apache.pinot.segment.spi.AggregationFunctionType;
 import org.apache.pinot.segment.spi.FetchContext;
 import org.apache.pinot.segment.spi.IndexSegment;
+import org.apache.pinot.segment.spi.MutableSegment;
 import org.apache.pinot.spi.env.PinotConfiguration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -86,6 +94,10 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
   // set as pinot.server.query.executor.groupby.trim.threshold
   public static final String GROUPBY_TRIM_THRESHOLD_KEY = "groupby.trim.threshold";
   public static final int DEFAULT_GROUPBY_TRIM_THRESHOLD = 1_000_000;
+  // Instance config key for the max size of the segment result cache, non-positive value disables the cache
+  // Set as pinot.server.query.executor.segment.result.cache.size.bytes
+  public static final String SEGMENT_RESULT_CACHE_SIZE_BYTES_KEY = "segment.result.cache.size.bytes";
+  public static final long DEFAULT_SEGMENT_RESULT_CACHE_SIZE_BYTES = 0L;
 
   private static final Logger LOGGER = LoggerFactory.getLogger(InstancePlanMakerImplV2.class);
 
@@ -98,6 +110,7 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
   private int _minSegmentGroupTrimSize = DEFAULT_MIN_SEGMENT_GROUP_TRIM_SIZE;
   private int _minServerGroupTrimSize = DEFAULT_MIN_SERVER_GROUP_TRIM_SIZE;
   private int _groupByTrimThreshold = DEFAULT_GROUPBY_TRIM_THRESHOLD;
+  private SegmentResultCache _segmentResultCache;
 
   public InstancePlanMakerImplV2() {
   }
@@ -128,16 +141,28 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
     _groupByTrimThreshold = queryExecutorConfig.getProperty(GROUPBY_TRIM_THRESHOLD_KEY, DEFAULT_GROUPBY_TRIM_THRESHOLD);
     Preconditions.checkState(_groupByTrimThreshold > 0,
         "Invalid configurable: groupByTrimThreshold: %d must be positive", _groupByTrimThreshold);
+    long segmentResultCacheSizeBytes = queryExecutorConfig.getProperty(SEGMENT_RESULT_CACHE_SIZE_BYTES_KEY,
+        DEFAULT_SEGMENT_RESULT_CACHE_SIZE_BYTES);
+    if (segmentResultCacheSizeBytes > 0) {
+      _segmentResultCache = new SegmentResultCache(segmentResultCacheSizeBytes);
+    }
     LOGGER.info("Initialized plan maker with maxExecutionThreads: {}, maxInitialResultHolderCapacity: {}, "
-            + "numGroupsLimit: {}, minSegmentGroupTrimSize: {}, minServerGroupTrimSize: {}, groupByTrimThreshold: {}",
-        _maxExecutionThreads, _maxInitialResultHolderCapacity, _numGroupsLimit, _minSegmentGroupTrimSize,
-        _minServerGroupTrimSize, _groupByTrimThreshold);
+            + "numGroupsLimit: {}, minSegmentGroupTrimSize: {}, minServerGroupTrimSize: {}, groupByTrimThreshold: {}, "
+            + "segmentResultCacheSizeBytes: {}", _maxExecutionThreads, _maxInitialResultHolderCapacity, _numGroupsLimit,
+        _minSegmentGroupTrimSize, _minServerGroupTrimSize, _groupByTrimThreshold, segmentResultCacheSizeBytes);
   }
 
   @Override
   public Plan makeInstancePlan(List<IndexSegment> indexSegments, QueryContext queryContext,
       ExecutorService executorService, ServerMetrics serverMetrics) {
     applyQueryOptions(queryContext);
+    String queryCacheKey = null;
+    if (_segmentResultCache != null) {
+      queryCacheKey = SegmentResultCache.getQueryKey(queryContext);
+      if (serverMetrics != null) {
+        _segmentResultCache.setServerMetrics(serverMetrics);
+      }
+    }
 
     int numSegments = indexSegments.size();
     List<PlanNode> planNodes = new ArrayList<>(numSegments);
@@ -149,13 +174,19 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
         FetchContext fetchContext = _fetchPlanner.planFetchForProcessing(indexSegment, queryContext);
         fetchContexts.add(fetchContext);
         planNodes.add(
-            new AcquireReleaseColumnsSegmentPlanNode(makeSegmentPlanNode(indexSegment, queryContext), indexSegment,
+            new AcquireReleaseColumnsSegmentPlanNode(
+                makeSegmentPlanNode(indexSegment, queryContext, queryCacheKey, serverMetrics), indexSegment,
                 fetchContext));
       }
     } else {
       fetchContexts = Collections.emptyList();
       for (IndexSegment indexSegment : indexSegments) {
-        planNodes.add(makeSegmentPlanNode(indexSegment, queryContext));
+        int numDocIdRanges = getNumDocIdRanges(indexSegment, queryContext);
+        if (numDocIdRanges > 1) {
+          addDocIdRangePlanNodes(planNodes, indexSegment, queryContext, numDocIdRanges);
+        } else {
+          planNodes.add(makeSegmentPlanNode(indexSegment, queryContext, queryCacheKey, serverMetrics));
+        }
       }
     }
 
@@ -176,6 +207,18 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
     // Set skipScanFilterReorder
     queryContext.setSkipScanFilterReorder(QueryOptionsUtils.isSkipScanFilterReorder(queryOptions));
 
+    // Set adaptiveMaxDocsPerCall
+    queryContext.setAdaptiveMaxDocsPerCall(QueryOptionsUtils.isAdaptiveMaxDocsPerCallEnabled(queryOptions));
+
+    // Set costBasedSegmentScheduling
+    queryContext.setCostBasedSegmentScheduling(QueryOptionsUtils.isCostBasedSegmentSchedulingEnabled(queryOptions));
+
+    // Set minDocsPerSegmentRange
+    Integer minDocsPerSegmentRange = QueryOptionsUtils.getMinDocsPerSegmentRange(queryOptions);
+    if (minDocsPerSegmentRange != null) {
+      queryContext.setMinDocsPerSegmentRange(minDocsPerSegmentRange);
+    }
+
     // Set maxExecutionThreads
     int maxExecutionThreads;
     Integer maxExecutionThreadsFromQuery = QueryOptionsUtils.getMaxExecutionThreads(queryOptions);
@@ -226,6 +269,13 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
       } else {
         queryContext.setGroupTrimThreshold(_groupByTrimThreshold);
       }
+      // Set offHeapGroupBy
+      queryContext.setOffHeapGroupBy(QueryOptionsUtils.isOffHeapGroupByEnabled(queryOptions));
+      // Set numGroupByCombinePartitions
+      Integer numGroupByCombinePartitions = QueryOptionsUtils.getNumGroupByCombinePartitions(queryOptions);
+      if (numGroupByCombinePartitions != null) {
+        queryContext.setNumGroupByCombinePartitions(numGroupByCombinePartitions);
+      }
     }
   }
 
@@ -249,6 +299,144 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
     }
   }
 
+  /**
+   * Makes the segment plan node, and wraps it to serve the segment results from the segment result cache when the query
+   * (with non-null query cache key) and the segment are eligible.
+   */
+  private PlanNode makeSegmentPlanNode(IndexSegment indexSegment, QueryContext queryContext,
+      @Nullable String queryCacheKey, @Nullable ServerMetrics serverMetrics) {
+    PlanNode planNode = makeSegmentPlanNode(indexSegment, queryContext);
+    if (queryCacheKey == null || !SegmentResultCache.isCacheable(indexSegment)) {
+      return planNode;
+    }
+    return new SegmentResultCachePlanNode(planNode, indexSegment, queryContext, _segmentResultCache,
+        SegmentResultCache.getKey(indexSegment, queryCacheKey), serverMetrics);
+  }
+
+  /**
+   * Returns the number of disjoint document id ranges to split the segment into so that the ranges can be processed in
+   * parallel, or 1 if the segment should not be split. The number of ranges is bounded by the number of threads of the
+   * query. The following queries are split:
+   * <ul>
+   *   <li>Group-by queries</li>
+   *   <li>Aggregation queries that need to scan the segment</li>
+   *   <li>Selection-only queries (without order-by)</li>
+   * </ul>
+   * The following cases are not split:
+   * <ul>
+   *   <li>
+   *     Mutable segments: the number of documents keeps growing while consuming, and each range plan would take its own
+   *     snapshot of the indexed documents, so the ranges cannot be computed up front
+   *   </li>
+   *   <li>
+   *     Upsert segments: each range plan would take its own snapshot of the valid documents, so a document updated
+   *     between the snapshots might be counted twice or missed
+   *   </li>
+   *   <li>
+   *     Star-tree: the star-tree documents are not the segment documents, so the segment document id ranges do not
+   *     apply to them
+   *   </li>
+   *   <li>
+   *     Unfiltered aggregations solved with the column metadata or dictionary (see
+   *     {@link AggregationPlanNode#isFitForNonScanBasedPlan}), and filtered COUNT solved with the index based count:
+   *     the ranges would turn them into scans
+   *   </li>
+   *   <li>
+   *     Filtered aggregations: each aggregation has its own filter, which is not limited to the range
+   *   </li>
+   *   <li>
+   *     Selection order-by queries: the order-by combine operators prune and order the segments with the segment level
+   *     column min/max values, which are the same for all the ranges of the segment so that the ranges cannot be pruned
+   *     independently, and the partially ordered operators rely on the whole segment being sorted
+   *   </li>
+   *   <li>
+   *     Distinct queries: they can be solved from the dictionary without scanning the segment, and early terminate once
+   *     enough distinct values are collected
+   *   </li>
+   * </ul>
+   */
+  @VisibleForTesting
+  static int getNumDocIdRanges(IndexSegment indexSegment, QueryContext queryContext) {
+    int minDocsPerSegmentRange = queryContext.getMinDocsPerSegmentRange();
+    if (minDocsPerSegmentRange <= 0) {
+      return 1;
+    }
+    int numDocs = indexSegment.getSegmentMetadata().getTotalDocs();
+    if (numDocs / minDocsPerSegmentRange < 2) {
+      return 1;
+    }
+    if (indexSegment instanceof MutableSegment) {
+      return 1;
+    }
+    // The valid docs snapshot should be consistent across all the ranges of the segment
+    if (!queryContext.isSkipUpsert() && (indexSegment.getQueryableDocIds() != null
+        || indexSegment.getValidDocIds() != null)) {
+      return 1;
+    }
+    if (QueryContextUtils.isSelectionOnlyQuery(queryContext)) {
+      if (queryContext.getLimit() == 0) {
+        return 1;
+      }
+      return getNumDocIdRanges(numDocs, minDocsPerSegmentRange, queryContext);
+    }
+    if (!QueryContextUtils.isAggregationQuery(queryContext) || queryContext.hasFilteredAggregations()) {
+      return 1;
+    }
+    if (indexSegment.getStarTrees() != null && !queryContext.isSkipStarTree()) {
+      return 1;
+    }
+    if (queryContext.getGroupByExpressions() == null && !queryContext.isNullHandlingEnabled()) {
+      AggregationFunction[] aggregationFunctions = queryContext.getAggregationFunctions();
+      assert aggregationFunctions != null;
+      if (queryContext.getFilter() == null) {
+        if (AggregationPlanNode.isFitForNonScanBasedPlan(aggregationFunctions, indexSegment)) {
+          return 1;
+        }
+      } else if (aggregationFunctions.length == 1
+          && aggregationFunctions[0].getType() == AggregationFunctionType.COUNT) {
+        return 1;
+      }
+    }
+    return getNumDocIdRanges(numDocs, minDocsPerSegmentRange, queryContext);
+  }
+
+  private static int getNumDocIdRanges(int numDocs, int minDocsPerSegmentRange, QueryContext queryContext) {
+    int maxExecutionThreads = queryContext.getMaxExecutionThreads();
+    if (maxExecutionThreads <= 0) {
+      maxExecutionThreads = QueryMultiThreadingUtils.MAX_NUM_THREADS_PER_QUERY;
+    }
+    return Math.min(numDocs / minDocsPerSegmentRange, maxExecutionThreads);
+  }
+
+  /**
+   * Splits the segment into the given number of disjoint document id ranges with (almost) the same number of documents,
+   * and adds a plan node for each range. The ranges are combined like separate segments.
+   */
+  private void addDocIdRangePlanNodes(List<PlanNode> planNodes, IndexSegment indexSegment, QueryContext queryContext,
+      int numDocIdRanges) {
+    rewriteQueryContextWithHints(queryContext, indexSegment);
+    int numDocs = indexSegment.getSegmentMetadata().getTotalDocs();
+    int[] docIdRangeBoundaries = new int[numDocIdRanges + 1];
+    for (int i = 1; i <= numDocIdRanges; i++) {
+      docIdRangeBoundaries[i] = (int) ((long) numDocs * i / numDocIdRanges);
+    }
+    boolean isSelectionQuery = QueryContextUtils.isSelectionQuery(queryContext);
+    boolean isGroupByQuery = queryContext.getGroupByExpressions() != null;
+    for (int i = 0; i < numDocIdRanges; i++) {
+      int startDocId = docIdRangeBoundaries[i];
+      int endDocId = docIdRangeBoundaries[i + 1];
+      PlanNode planNode;
+      if (isSelectionQuery) {
+        planNode = new SelectionPlanNode(indexSegment, queryContext, startDocId, endDocId);
+      } else if (isGroupByQuery) {
+        planNode = new GroupByPlanNode(indexSegment, queryContext, startDocId, endDocId);
+      } else {
+        planNode = new AggregationPlanNode(indexSegment, queryContext, startDocId, endDocId);
+      }
+      planNodes.add(new DocIdRangeSegmentPlanNode(planNode, indexSegment, docIdRangeBoundaries, i));
+    }
+  }
+
   @Override
   public Plan makeStreamingInstancePlan(List<IndexSegment> indexSegments, QueryContext queryContext,
       ExecutorService executorService, StreamObserver<Server.ServerResponse> streamObserver,
@@ -27,6 +27,7 @@ import org.apache.pinot.core.query.aggregation.AggregationResultHolder;
 import org.apache.pinot.core.query.aggregation.ObjectAggregationResultHolder;
 import org.apache.pinot.core.query.aggregation.groupby.GroupByResultHolder;
 import org.apache.pinot.core.query.aggregation.groupby.ObjectGroupByResultHolder;
+import org.apache.pinot.core.query.aggregation.groupby.OffHeapAvgPairGroupByResultHolder;
 import org.apache.pinot.segment.local.customobject.AvgPair;
 import org.apache.pinot.segment.spi.AggregationFunctionType;
 import org.apache.pinot.spi.data.FieldSpec.DataType;
@@ -224,6 +225,11 @@ public class AvgAggregationFunction extends BaseSingleInputAggregationFunction<A
   }
 
   protected void setGroupByResult(int groupKey, GroupByResultHolder groupByResultHolder, double sum, long count) {
+    if (groupByResultHolder instanceof OffHeapAvgPairGroupByResultHolder) {
+      // The off-heap result holder returns a copy of the pair, so update it in place
+      ((OffHeapAvgPairGroupByResultHolder) groupByResultHolder).apply(groupKey, sum, count);
+      return;
+    }
     AvgPair avgPair = groupByResultHolder.getResult(groupKey);
     if (avgPair == null) {
       groupByResultHolder.setValueForKey(groupKey, new AvgPair(sum, count));
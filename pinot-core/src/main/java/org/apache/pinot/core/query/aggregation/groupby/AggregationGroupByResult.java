@@ -18,6 +18,8 @@
  */
 package org.apache.pinot.core.query.aggregation.groupby;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.util.Iterator;
 import org.apache.pinot.core.query.aggregation.function.AggregationFunction;
 
@@ -26,9 +28,10 @@ import org.apache.pinot.core.query.aggregation.function.AggregationFunction;
  * This class holds the result of aggregation group by queries.
  * It provides an iterator over group-by keys, and provides a method
  * to get the aggregation result for the given group-by key.
+ * <p>The result must be closed once consumed to release the off-heap group-by storage (if any).
  */
 @SuppressWarnings("rawtypes")
-public class AggregationGroupByResult {
+public class AggregationGroupByResult implements Closeable {
   private final GroupKeyGenerator _groupKeyGenerator;
   private final AggregationFunction[] _aggregationFunctions;
   private final GroupByResultHolder[] _resultHolders;
@@ -50,4 +53,25 @@ public class AggregationGroupByResult {
   public Object getResultForGroupId(int index, int groupId) {
     return _aggregationFunctions[index].extractGroupByResult(_resultHolders[index], groupId);
   }
+
+  /**
+   * Releases the off-heap memory held by the group key generator and the result holders.
+   */
+  @Override
+  public void close() {
+    closeQuietly(_groupKeyGenerator);
+    for (GroupByResultHolder resultHolder : _resultHolders) {
+      closeQuietly(resultHolder);
+    }
+  }
+
+  private static void closeQuietly(Object object) {
+    if (object instanceof Closeable) {
+      try {
+        ((Closeable) object).close();
+      } catch (IOException e) {
+        // Ignored, the off-heap holders do not throw IOException
+      }
+    }
+  }
 }
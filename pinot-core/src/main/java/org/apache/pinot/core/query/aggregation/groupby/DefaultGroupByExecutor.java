@@ -18,6 +18,7 @@
  */
 package org.apache.pinot.core.query.aggregation.groupby;
 
+import java.io.Closeable;
 import java.util.Collection;
 import java.util.Map;
 import javax.annotation.Nullable;
@@ -103,8 +104,13 @@ public class DefaultGroupByExecutor implements GroupByExecutor {
                   _nullHandlingEnabled);
         }
       } else {
-        _groupKeyGenerator = new DictionaryBasedGroupKeyGenerator(projectOperator, groupByExpressions, numGroupsLimit,
-            maxInitialResultHolderCapacity);
+        DictionaryBasedGroupKeyGenerator dictionaryBasedGroupKeyGenerator =
+            new DictionaryBasedGroupKeyGenerator(projectOperator, groupByExpressions, numGroupsLimit,
+                maxInitialResultHolderCapacity, queryContext.isOffHeapGroupBy());
+        if (queryContext.isOffHeapGroupBy()) {
+          queryContext.registerResourceToRelease(dictionaryBasedGroupKeyGenerator);
+        }
+        _groupKeyGenerator = dictionaryBasedGroupKeyGenerator;
       }
     }
 
@@ -113,8 +119,21 @@ public class DefaultGroupByExecutor implements GroupByExecutor {
     int initialCapacity = Math.min(maxNumResults, maxInitialResultHolderCapacity);
     int numAggregationFunctions = _aggregationFunctions.length;
     _groupByResultHolders = new GroupByResultHolder[numAggregationFunctions];
+    // Only store the results off-heap when the number of groups can go beyond the initial capacity
+    boolean offHeap = queryContext.isOffHeapGroupBy() && maxNumResults > maxInitialResultHolderCapacity;
     for (int i = 0; i < numAggregationFunctions; i++) {
-      _groupByResultHolders[i] = _aggregationFunctions[i].createGroupByResultHolder(initialCapacity, maxNumResults);
+      GroupByResultHolder groupByResultHolder = null;
+      if (offHeap) {
+        groupByResultHolder = createOffHeapResultHolder(_aggregationFunctions[i], initialCapacity, maxNumResults);
+        if (groupByResultHolder != null) {
+          // Release the off-heap storage when the query finishes in case the results are never consumed
+          queryContext.registerResourceToRelease((Closeable) groupByResultHolder);
+        }
+      }
+      if (groupByResultHolder == null) {
+        groupByResultHolder = _aggregationFunctions[i].createGroupByResultHolder(initialCapacity, maxNumResults);
+      }
+      _groupByResultHolders[i] = groupByResultHolder;
     }
 
     // Initialize map from document Id to group key
@@ -127,6 +146,32 @@ public class DefaultGroupByExecutor implements GroupByExecutor {
     }
   }
 
+  /**
+   * Creates an off-heap result holder for the fixed-width aggregation functions (COUNT, SUM, MIN, MAX, AVG), or returns
+   * {@code null} if the aggregation function is not supported. The results of SUM, MIN and MAX are stored as nullable
+   * objects when null handling is enabled, thus cannot be stored off-heap.
+   */
+  @Nullable
+  private GroupByResultHolder createOffHeapResultHolder(AggregationFunction aggregationFunction, int initialCapacity,
+      int maxCapacity) {
+    switch (aggregationFunction.getType()) {
+      case COUNT:
+        return new OffHeapDoubleGroupByResultHolder(initialCapacity, maxCapacity, 0.0);
+      case SUM:
+        return _nullHandlingEnabled ? null : new OffHeapDoubleGroupByResultHolder(initialCapacity, maxCapacity, 0.0);
+      case MIN:
+        return _nullHandlingEnabled ? null
+            : new OffHeapDoubleGroupByResultHolder(initialCapacity, maxCapacity, Double.POSITIVE_INFINITY);
+      case MAX:
+        return _nullHandlingEnabled ? null
+            : new OffHeapDoubleGroupByResultHolder(initialCapacity, maxCapacity, Double.NEGATIVE_INFINITY);
+      case AVG:
+        return new OffHeapAvgPairGroupByResultHolder(initialCapacity, maxCapacity);
+      default:
+        return null;
+    }
+  }
+
   @Override
   public void process(ValueBlock valueBlock) {
     // Generate group keys
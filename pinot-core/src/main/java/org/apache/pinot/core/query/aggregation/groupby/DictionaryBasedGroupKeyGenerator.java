@@ -25,6 +25,7 @@ import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
 import it.unimi.dsi.fastutil.objects.Object2IntMap;
 import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import java.io.Closeable;
 import java.util.Arrays;
 import java.util.Iterator;
 import org.apache.pinot.common.request.context.ExpressionContext;
@@ -53,6 +54,11 @@ import org.apache.pinot.segment.spi.index.reader.Dictionary;
  *     raw keys and map them onto contiguous group ids. (LONG_MAP_BASED)
  *   </li>
  *   <li>
+ *     If off-heap storage is enabled and the maximum number of possible group keys is larger than the threshold, but
+ *     still fit into long, generate long raw keys and map them onto contiguous group ids with an off-heap map.
+ *     (OFF_HEAP_LONG_MAP_BASED)
+ *   </li>
+ *   <li>
  *     If the maximum number of possible group keys cannot fit into long, use int arrays as the raw keys to store the
  *     dictionary ids of all the group-by columns and map them onto contiguous group ids. (ARRAY_MAP_BASED)
  *   </li>
@@ -60,7 +66,7 @@ import org.apache.pinot.segment.spi.index.reader.Dictionary;
  * <p>All the logic is maintained internally, and to the outside world, the group ids are always int type, and are
  * bounded by the number of groups limit (globalGroupIdUpperBound is always smaller or equal to numGroupsLimit).
  */
-public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
+public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator, Closeable {
   // NOTE: map size = map capacity (power of 2) * load factor
   private static final int INITIAL_MAP_SIZE = (int) ((1 << 9) * 0.75f);
   private static final int MAX_CACHING_MAP_SIZE = (int) ((1 << 20) * 0.75f);
@@ -100,6 +106,16 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
 
   public DictionaryBasedGroupKeyGenerator(BaseProjectOperator<?> projectOperator,
       ExpressionContext[] groupByExpressions, int numGroupsLimit, int arrayBasedThreshold) {
+    this(projectOperator, groupByExpressions, numGroupsLimit, arrayBasedThreshold, false);
+  }
+
+  /**
+   * @param offHeap Whether to store the group id map off-heap for high cardinality group-by (when the maximum number of
+   *                possible group keys is larger than the array based threshold but still fit into long). The group
+   *                key generator must be closed to release the off-heap memory.
+   */
+  public DictionaryBasedGroupKeyGenerator(BaseProjectOperator<?> projectOperator,
+      ExpressionContext[] groupByExpressions, int numGroupsLimit, int arrayBasedThreshold, boolean offHeap) {
     assert numGroupsLimit >= arrayBasedThreshold;
 
     _groupByExpressions = groupByExpressions;
@@ -146,6 +162,10 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
         groupIdMap.trim();
       }
       _rawKeyHolder = new ArrayMapBasedHolder(groupIdMap);
+    } else if (offHeap && cardinalityProduct > arrayBasedThreshold) {
+      // OffHeapLongMapBasedHolder
+      _globalGroupIdUpperBound = (int) Math.min(cardinalityProduct, numGroupsLimit);
+      _rawKeyHolder = new OffHeapLongMapBasedHolder(new OffHeapLongGroupIdMap());
     } else {
       if (cardinalityProduct > Integer.MAX_VALUE) {
         // LongMapBasedHolder
@@ -215,6 +235,13 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
     return _rawKeyHolder.getNumKeys();
   }
 
+  @Override
+  public void close() {
+    if (_rawKeyHolder instanceof OffHeapLongMapBasedHolder) {
+      ((OffHeapLongMapBasedHolder) _rawKeyHolder)._groupIdMap.close();
+    }
+  }
+
   private interface RawKeyHolder {
 
     /**
@@ -673,6 +700,74 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
     }
   }
 
+  private class OffHeapLongMapBasedHolder implements RawKeyHolder {
+    private final OffHeapLongGroupIdMap _groupIdMap;
+
+    public OffHeapLongMapBasedHolder(OffHeapLongGroupIdMap groupIdMap) {
+      _groupIdMap = groupIdMap;
+    }
+
+    @Override
+    public void processSingleValue(int numDocs, int[] outGroupIds) {
+      for (int i = 0; i < numDocs; i++) {
+        long rawKey = 0L;
+        for (int j = _numGroupByExpressions - 1; j >= 0; j--) {
+          rawKey = rawKey * _cardinalities[j] + _singleValueDictIds[j][i];
+        }
+        outGroupIds[i] = _groupIdMap.getGroupId(rawKey, _globalGroupIdUpperBound);
+      }
+    }
+
+    @Override
+    public void processMultiValue(int numDocs, int[][] outGroupIds) {
+      for (int i = 0; i < numDocs; i++) {
+        long[] rawKeys = getLongRawKeys(i);
+        int length = rawKeys.length;
+        int[] groupIds = new int[length];
+        for (int j = 0; j < length; j++) {
+          groupIds[j] = _groupIdMap.getGroupId(rawKeys[j], _globalGroupIdUpperBound);
+        }
+        outGroupIds[i] = groupIds;
+      }
+    }
+
+    @Override
+    public int getGroupIdUpperBound() {
+      return _groupIdMap.size();
+    }
+
+    @Override
+    public Iterator<GroupKey> getGroupKeys() {
+      return new Iterator<GroupKey>() {
+        private final Iterator<OffHeapLongGroupIdMap.Entry> _iterator = _groupIdMap.iterator();
+        private final GroupKey _groupKey = new GroupKey();
+
+        @Override
+        public boolean hasNext() {
+          return _iterator.hasNext();
+        }
+
+        @Override
+        public GroupKey next() {
+          OffHeapLongGroupIdMap.Entry entry = _iterator.next();
+          _groupKey._groupId = entry._groupId;
+          _groupKey._keys = getKeys(entry._rawKey);
+          return _groupKey;
+        }
+
+        @Override
+        public void remove() {
+          throw new UnsupportedOperationException();
+        }
+      };
+    }
+
+    @Override
+    public int getNumKeys() {
+      return _groupIdMap.size();
+    }
+  }
+
   /**
    * Helper method to calculate raw keys that can fit into integer for the given index.
    *
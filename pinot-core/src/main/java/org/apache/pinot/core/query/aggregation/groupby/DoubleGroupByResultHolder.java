@@ -71,6 +71,11 @@ public class DoubleGroupByResultHolder implements GroupByResultHolder {
     }
   }
 
+  @Override
+  public void clearResults(int numGroupKeys) {
+    Arrays.fill(_resultArray, 0, Math.min(numGroupKeys, _resultHolderCapacity), _defaultValue);
+  }
+
   @Override
   public double getDoubleResult(int groupKey) {
     if (groupKey == GroupKeyGenerator.INVALID_ID) {
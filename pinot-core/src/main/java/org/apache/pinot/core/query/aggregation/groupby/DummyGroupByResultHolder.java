@@ -53,4 +53,8 @@ public class DummyGroupByResultHolder implements GroupByResultHolder {
   @Override
   public void ensureCapacity(int capacity) {
   }
+
+  @Override
+  public void clearResults(int numGroupKeys) {
+  }
 }
@@ -86,4 +86,12 @@ public interface GroupByResultHolder {
    * @param capacity
    */
   void ensureCapacity(int capacity);
+
+  /**
+   * Resets the results for the group keys in range [0, numGroupKeys) to the default value, so that the result holder
+   * can be reused for a new set of group keys without re-allocating the storage.
+   *
+   * @param numGroupKeys
+   */
+  void clearResults(int numGroupKeys);
 }
@@ -70,6 +70,11 @@ public class IntGroupByResultHolder implements GroupByResultHolder {
     }
   }
 
+  @Override
+  public void clearResults(int numGroupKeys) {
+    Arrays.fill(_resultArray, 0, Math.min(numGroupKeys, _resultHolderCapacity), _defaultValue);
+  }
+
   @Override
   public double getDoubleResult(int groupKey) {
     throw new UnsupportedOperationException();
@@ -19,6 +19,7 @@
 package org.apache.pinot.core.query.aggregation.groupby;
 
 import com.google.common.base.Preconditions;
+import java.util.Arrays;
 
 
 /**
@@ -60,6 +61,11 @@ public class ObjectGroupByResultHolder implements GroupByResultHolder {
     }
   }
 
+  @Override
+  public void clearResults(int numGroupKeys) {
+    Arrays.fill(_resultArray, 0, Math.min(numGroupKeys, _resultHolderCapacity), null);
+  }
+
   @Override
   public double getDoubleResult(int groupKey) {
     throw new UnsupportedOperationException();
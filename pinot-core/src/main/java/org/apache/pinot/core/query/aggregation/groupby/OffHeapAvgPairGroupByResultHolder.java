@@ -0,0 +1,160 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.aggregation.groupby;
+
+import com.google.common.base.Preconditions;
+import java.io.Closeable;
+import org.apache.pinot.segment.local.customobject.AvgPair;
+import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
+
+
+/**
+ * Result Holder for {@link AvgPair} results implemented using an off-heap buffer, where the sum and the count of each
+ * group are stored next to each other in a 16-byte slot.
+ * <p>NOTE: {@link #getResult(int)} returns a copy of the stored pair, so updates must go through
+ * {@link #apply(int, double, long)} or {@link #setValueForKey(int, Object)}.
+ * <p>The off-heap buffer is released when the result holder is closed.
+ */
+public class OffHeapAvgPairGroupByResultHolder implements GroupByResultHolder, Closeable {
+  private static final int SLOT_SIZE = Double.BYTES + Long.BYTES;
+  // Count of the groups without result, to distinguish them from the groups with an empty pair
+  private static final long NO_RESULT_COUNT = -1L;
+
+  private final int _maxCapacity;
+
+  private int _resultHolderCapacity;
+  private PinotDataBuffer _resultBuffer;
+
+  /**
+   * Constructor for the class.
+   *
+   * @param initialCapacity Initial capacity of the result holder
+   * @param maxCapacity Maximum capacity of the result holder
+   */
+  public OffHeapAvgPairGroupByResultHolder(int initialCapacity, int maxCapacity) {
+    _maxCapacity = maxCapacity;
+
+    _resultHolderCapacity = Math.max(initialCapacity, 1);
+    _resultBuffer = allocate(_resultHolderCapacity);
+    clear(0, _resultHolderCapacity);
+  }
+
+  @Override
+  public void ensureCapacity(int capacity) {
+    Preconditions.checkArgument(capacity <= _maxCapacity);
+
+    if (capacity > _resultHolderCapacity) {
+      int copyLength = _resultHolderCapacity;
+      _resultHolderCapacity = Math.max(_resultHolderCapacity * 2, capacity);
+
+      // Cap the growth to maximum possible number of group keys
+      _resultHolderCapacity = Math.min(_resultHolderCapacity, _maxCapacity);
+
+      PinotDataBuffer current = _resultBuffer;
+      _resultBuffer = allocate(_resultHolderCapacity);
+      current.copyTo(0, _resultBuffer, 0, (long) copyLength * SLOT_SIZE);
+      OffHeapGroupByBufferUtils.close(current);
+      clear(copyLength, _resultHolderCapacity);
+    }
+  }
+
+  /**
+   * Adds the given sum and count to the pair of the given group key.
+   */
+  public void apply(int groupKey, double sum, long count) {
+    if (groupKey != GroupKeyGenerator.INVALID_ID) {
+      long offset = (long) groupKey * SLOT_SIZE;
+      long currentCount = _resultBuffer.getLong(offset + Double.BYTES);
+      if (currentCount == NO_RESULT_COUNT) {
+        _resultBuffer.putDouble(offset, sum);
+        _resultBuffer.putLong(offset + Double.BYTES, count);
+      } else {
+        _resultBuffer.putDouble(offset, _resultBuffer.getDouble(offset) + sum);
+        _resultBuffer.putLong(offset + Double.BYTES, currentCount + count);
+      }
+    }
+  }
+
+  @Override
+  public void clearResults(int numGroupKeys) {
+    clear(0, Math.min(numGroupKeys, _resultHolderCapacity));
+  }
+
+  @Override
+  public double getDoubleResult(int groupKey) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public int getIntResult(int groupKey) {
+    throw new UnsupportedOperationException();
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public <T> T getResult(int groupKey) {
+    if (groupKey == GroupKeyGenerator.INVALID_ID) {
+      return null;
+    }
+    long offset = (long) groupKey * SLOT_SIZE;
+    long count = _resultBuffer.getLong(offset + Double.BYTES);
+    return count != NO_RESULT_COUNT ? (T) new AvgPair(_resultBuffer.getDouble(offset), count) : null;
+  }
+
+  @Override
+  public void setValueForKey(int groupKey, double newValue) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void setValueForKey(int groupKey, int value) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void setValueForKey(int groupKey, Object newValue) {
+    if (groupKey != GroupKeyGenerator.INVALID_ID) {
+      AvgPair avgPair = (AvgPair) newValue;
+      long offset = (long) groupKey * SLOT_SIZE;
+      _resultBuffer.putDouble(offset, avgPair.getSum());
+      _resultBuffer.putLong(offset + Double.BYTES, avgPair.getCount());
+    }
+  }
+
+  @Override
+  public void close() {
+    if (_resultBuffer != null) {
+      OffHeapGroupByBufferUtils.close(_resultBuffer);
+      _resultBuffer = null;
+    }
+  }
+
+  /**
+   * Marks the group keys in range [startGroupKey, endGroupKey) as without result.
+   */
+  private void clear(int startGroupKey, int endGroupKey) {
+    for (int i = startGroupKey; i < endGroupKey; i++) {
+      _resultBuffer.putLong((long) i * SLOT_SIZE + Double.BYTES, NO_RESULT_COUNT);
+    }
+  }
+
+  private static PinotDataBuffer allocate(int capacity) {
+    return OffHeapGroupByBufferUtils.allocate((long) capacity * SLOT_SIZE, "OffHeapAvgPairGroupByResultHolder");
+  }
+}
@@ -0,0 +1,135 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.aggregation.groupby;
+
+import com.google.common.base.Preconditions;
+import java.io.Closeable;
+import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
+
+
+/**
+ * Result Holder implemented using an off-heap double buffer, for high cardinality group-by queries where keeping the
+ * results in a heap array causes large GC pauses.
+ * <p>The off-heap buffer is released when the result holder is closed.
+ */
+public class OffHeapDoubleGroupByResultHolder implements GroupByResultHolder, Closeable {
+  private final int _maxCapacity;
+  private final double _defaultValue;
+
+  private int _resultHolderCapacity;
+  private PinotDataBuffer _resultBuffer;
+
+  /**
+   * Constructor for the class.
+   *
+   * @param initialCapacity Initial capacity of the result holder
+   * @param maxCapacity Maximum capacity of the result holder
+   * @param defaultValue Default value of un-initialized results
+   */
+  public OffHeapDoubleGroupByResultHolder(int initialCapacity, int maxCapacity, double defaultValue) {
+    _maxCapacity = maxCapacity;
+    _defaultValue = defaultValue;
+
+    _resultHolderCapacity = Math.max(initialCapacity, 1);
+    _resultBuffer = allocate(_resultHolderCapacity);
+    fill(0, _resultHolderCapacity);
+  }
+
+  @Override
+  public void ensureCapacity(int capacity) {
+    Preconditions.checkArgument(capacity <= _maxCapacity);
+
+    if (capacity > _resultHolderCapacity) {
+      int copyLength = _resultHolderCapacity;
+      _resultHolderCapacity = Math.max(_resultHolderCapacity * 2, capacity);
+
+      // Cap the growth to maximum possible number of group keys
+      _resultHolderCapacity = Math.min(_resultHolderCapacity, _maxCapacity);
+
+      PinotDataBuffer current = _resultBuffer;
+      _resultBuffer = allocate(_resultHolderCapacity);
+      current.copyTo(0, _resultBuffer, 0, (long) copyLength * Double.BYTES);
+      OffHeapGroupByBufferUtils.close(current);
+      fill(copyLength, _resultHolderCapacity);
+    }
+  }
+
+  @Override
+  public void clearResults(int numGroupKeys) {
+    fill(0, Math.min(numGroupKeys, _resultHolderCapacity));
+  }
+
+  @Override
+  public double getDoubleResult(int groupKey) {
+    if (groupKey == GroupKeyGenerator.INVALID_ID) {
+      return _defaultValue;
+    } else {
+      return _resultBuffer.getDouble((long) groupKey * Double.BYTES);
+    }
+  }
+
+  @Override
+  public int getIntResult(int groupKey) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public <T> T getResult(int groupKey) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void setValueForKey(int groupKey, double newValue) {
+    if (groupKey != GroupKeyGenerator.INVALID_ID) {
+      _resultBuffer.putDouble((long) groupKey * Double.BYTES, newValue);
+    }
+  }
+
+  @Override
+  public void setValueForKey(int groupKey, int value) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void setValueForKey(int groupKey, Object newValue) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void close() {
+    if (_resultBuffer != null) {
+      OffHeapGroupByBufferUtils.close(_resultBuffer);
+      _resultBuffer = null;
+    }
+  }
+
+  /**
+   * Fills the results for group keys in range [startGroupKey, endGroupKey) with the default value. Off-heap buffers are
+   * not zeroed on allocation, so this is required even when the default value is 0.
+   */
+  private void fill(int startGroupKey, int endGroupKey) {
+    for (int i = startGroupKey; i < endGroupKey; i++) {
+      _resultBuffer.putDouble((long) i * Double.BYTES, _defaultValue);
+    }
+  }
+
+  private static PinotDataBuffer allocate(int capacity) {
+    return OffHeapGroupByBufferUtils.allocate((long) capacity * Double.BYTES, "OffHeapDoubleGroupByResultHolder");
+  }
+}
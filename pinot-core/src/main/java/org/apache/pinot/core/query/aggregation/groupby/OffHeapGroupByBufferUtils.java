@@ -0,0 +1,51 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.aggregation.groupby;
+
+import java.io.IOException;
+import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
+import org.apache.pinot.spi.trace.Tracing;
+
+
+/**
+ * Helper methods to manage the off-heap buffers backing the off-heap group-by storage.
+ * <p>Off-heap allocations are not visible to the JVM allocation sampling, so they are reported to the thread accountant
+ * explicitly to be included in the per-query memory usage, and reported again when released so that only the live
+ * off-heap memory is accounted.
+ */
+class OffHeapGroupByBufferUtils {
+  private OffHeapGroupByBufferUtils() {
+  }
+
+  static PinotDataBuffer allocate(long size, String description) {
+    PinotDataBuffer buffer = PinotDataBuffer.allocateDirect(size, PinotDataBuffer.NATIVE_ORDER, description);
+    Tracing.ThreadAccountantOps.recordOffHeapBytesAllocated(size);
+    return buffer;
+  }
+
+  static void close(PinotDataBuffer buffer) {
+    long size = buffer.size();
+    try {
+      buffer.close();
+    } catch (IOException e) {
+      throw new RuntimeException("Caught exception while closing off-heap group-by buffer", e);
+    }
+    Tracing.ThreadAccountantOps.recordOffHeapBytesReleased(size);
+  }
+}
@@ -0,0 +1,197 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.aggregation.groupby;
+
+import it.unimi.dsi.fastutil.HashCommon;
+import java.io.Closeable;
+import java.util.Iterator;
+import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
+
+
+/**
+ * Off-heap long-to-int open addressing hashmap from raw keys to group ids, with {@link GroupKeyGenerator#INVALID_ID}
+ * as the default return value.
+ * <p>Similar to {@link DictionaryBasedGroupKeyGenerator.IntGroupIdMap}, keys and values are stored next to each other
+ * (in a 16-byte slot) to reduce the cache miss, but in an off-heap buffer so that maps with millions of entries do not
+ * add to the GC pressure. The off-heap buffer is released when the map is closed.
+ */
+public class OffHeapLongGroupIdMap implements Closeable {
+  private static final float LOAD_FACTOR = 0.75f;
+  private static final int SLOT_SIZE = 16;
+  private static final int VALUE_OFFSET = Long.BYTES;
+  // Initialize the map with capacity 256 so that the buffer can fit into a single memory page
+  private static final int DEFAULT_INITIAL_CAPACITY = 1 << 8;
+
+  private PinotDataBuffer _buffer;
+  private int _capacity;
+  private int _mask;
+  private int _maxNumEntries;
+  private int _size;
+
+  public OffHeapLongGroupIdMap() {
+    this(DEFAULT_INITIAL_CAPACITY);
+  }
+
+  /**
+   * @param initialCapacity Initial number of slots, rounded up to the next power of 2
+   */
+  public OffHeapLongGroupIdMap(int initialCapacity) {
+    _capacity = HashCommon.nextPowerOfTwo(Math.max(initialCapacity, 2));
+    _mask = _capacity - 1;
+    _maxNumEntries = (int) (_capacity * LOAD_FACTOR);
+    _buffer = allocate(_capacity);
+  }
+
+  public int size() {
+    return _size;
+  }
+
+  /**
+   * Returns the group id for the given raw key. Create a new group id if the raw key does not exist and the group id
+   * upper bound is not reached.
+   */
+  public int getGroupId(long rawKey, int groupIdUpperBound) {
+    // NOTE: Key 0 is reserved as the null key. Use (rawKey + 1) as the internal key because rawKey can never be -1 or
+    //       Long.MAX_VALUE (raw key is always smaller than the cardinality product).
+    long internalKey = rawKey + 1;
+    int index = (int) HashCommon.mix(internalKey) & _mask;
+    while (true) {
+      long offset = (long) index * SLOT_SIZE;
+      long key = _buffer.getLong(offset);
+      if (key == internalKey) {
+        return _buffer.getInt(offset + VALUE_OFFSET);
+      }
+      if (key == 0) {
+        return _size < groupIdUpperBound ? addNewGroup(internalKey, offset) : GroupKeyGenerator.INVALID_ID;
+      }
+      index = (index + 1) & _mask;
+    }
+  }
+
+  /**
+   * Returns the group id for the given raw key, or {@link GroupKeyGenerator#INVALID_ID} if the raw key does not exist.
+   */
+  public int get(long rawKey) {
+    long internalKey = rawKey + 1;
+    int index = (int) HashCommon.mix(internalKey) & _mask;
+    while (true) {
+      long offset = (long) index * SLOT_SIZE;
+      long key = _buffer.getLong(offset);
+      if (key == internalKey) {
+        return _buffer.getInt(offset + VALUE_OFFSET);
+      }
+      if (key == 0) {
+        return GroupKeyGenerator.INVALID_ID;
+      }
+      index = (index + 1) & _mask;
+    }
+  }
+
+  private int addNewGroup(long internalKey, long offset) {
+    int groupId = _size++;
+    _buffer.putLong(offset, internalKey);
+    _buffer.putInt(offset + VALUE_OFFSET, groupId);
+    if (_size > _maxNumEntries) {
+      expand();
+    }
+    return groupId;
+  }
+
+  private void expand() {
+    PinotDataBuffer oldBuffer = _buffer;
+    _capacity <<= 1;
+    _mask = _capacity - 1;
+    _maxNumEntries <<= 1;
+    _buffer = allocate(_capacity);
+    long oldOffset = 0;
+    for (int i = 0; i < _size; i++) {
+      long key;
+      while ((key = oldBuffer.getLong(oldOffset)) == 0) {
+        oldOffset += SLOT_SIZE;
+      }
+      int value = oldBuffer.getInt(oldOffset + VALUE_OFFSET);
+      int newIndex = (int) HashCommon.mix(key) & _mask;
+      while (_buffer.getLong((long) newIndex * SLOT_SIZE) != 0) {
+        newIndex = (newIndex + 1) & _mask;
+      }
+      long newOffset = (long) newIndex * SLOT_SIZE;
+      _buffer.putLong(newOffset, key);
+      _buffer.putInt(newOffset + VALUE_OFFSET, value);
+      oldOffset += SLOT_SIZE;
+    }
+    OffHeapGroupByBufferUtils.close(oldBuffer);
+  }
+
+  public Iterator<Entry> iterator() {
+    return new Iterator<Entry>() {
+      private final Entry _entry = new Entry();
+      private long _offset;
+      private int _numRemainingEntries = _size;
+
+      @Override
+      public boolean hasNext() {
+        return _numRemainingEntries > 0;
+      }
+
+      @Override
+      public Entry next() {
+        long key;
+        while ((key = _buffer.getLong(_offset)) == 0) {
+          _offset += SLOT_SIZE;
+        }
+        _entry._rawKey = key - 1;
+        _entry._groupId = _buffer.getInt(_offset + VALUE_OFFSET);
+        _offset += SLOT_SIZE;
+        _numRemainingEntries--;
+        return _entry;
+      }
+
+      @Override
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+    };
+  }
+
+  @Override
+  public void close() {
+    if (_buffer != null) {
+      OffHeapGroupByBufferUtils.close(_buffer);
+      _buffer = null;
+    }
+  }
+
+  /**
+   * Allocates the buffer for the given number of slots, and marks all the slots as empty because off-heap buffers are
+   * not zeroed on allocation.
+   */
+  private static PinotDataBuffer allocate(int capacity) {
+    long size = (long) capacity * SLOT_SIZE;
+    PinotDataBuffer buffer = OffHeapGroupByBufferUtils.allocate(size, "OffHeapLongGroupIdMap");
+    for (long offset = 0; offset < size; offset += SLOT_SIZE) {
+      buffer.putLong(offset, 0L);
+    }
+    return buffer;
+  }
+
+  public static class Entry {
+    public long _rawKey;
+    public int _groupId;
+  }
+}
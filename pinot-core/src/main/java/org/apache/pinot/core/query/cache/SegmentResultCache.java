@@ -0,0 +1,129 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.cache;
+
+import java.util.List;
+import javax.annotation.Nullable;
+import org.apache.commons.collections.MapUtils;
+import org.apache.pinot.common.metrics.ServerGauge;
+import org.apache.pinot.common.metrics.ServerMetrics;
+import org.apache.pinot.common.request.context.ExpressionContext;
+import org.apache.pinot.common.utils.cache.SizeBoundedCache;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.query.request.context.utils.QueryContextUtils;
+import org.apache.pinot.segment.spi.ImmutableSegment;
+import org.apache.pinot.segment.spi.IndexSegment;
+import org.apache.pinot.segment.spi.SegmentMetadata;
+
+
+/**
+ * Server level cache of the serialized segment level results of the aggregation and group-by queries, so that the
+ * queries repeatedly issued by the dashboards do not need to re-process the immutable segments.
+ * <p>The cache key consists of the canonicalized query (filter, aggregations, group-by and the settings that affect the
+ * segment level group-by results), the segment name, CRC and creation time. Replacing or regenerating a segment changes
+ * its CRC and creation time, so the stale entries are never served and get evicted as the least recently used entries.
+ * Reloading a segment without changing its data (e.g. adding an index) keeps the cached results valid. The size of the
+ * cache is bounded by the total bytes of the keys and values.
+ * <p>Only the immutable segments without valid doc ids (i.e. non-upsert segments) are cached because the results of
+ * the other segments change over time.
+ */
+public class SegmentResultCache {
+  private final SizeBoundedCache<byte[]> _cache;
+
+  public SegmentResultCache(long maxSizeInBytes) {
+    _cache = new SizeBoundedCache<>(maxSizeInBytes, value -> value.length);
+  }
+
+  /**
+   * Sets the server metrics to emit the size of the cache.
+   */
+  public void setServerMetrics(ServerMetrics serverMetrics) {
+    _cache.setSizeInBytesListener(
+        sizeInBytes -> serverMetrics.setValueOfGlobalGauge(ServerGauge.SEGMENT_RESULT_CACHE_SIZE_BYTES, sizeInBytes));
+  }
+
+  /**
+   * Returns the canonicalized query to be used as part of the cache key, or {@code null} if the results of the query
+   * cannot be cached (only the aggregation and group-by queries without null handling and expression override hints are
+   * cached).
+   */
+  @Nullable
+  public static String getQueryKey(QueryContext queryContext) {
+    // NOTE: Expression override hints are applied per segment, so the query can be different for each segment
+    if (queryContext.isExplain() || queryContext.isNullHandlingEnabled() || !QueryContextUtils.isAggregationQuery(
+        queryContext) || MapUtils.isNotEmpty(queryContext.getExpressionOverrideHints())) {
+      return null;
+    }
+    StringBuilder queryKey = new StringBuilder(queryContext.getTableName());
+    // The aggregations are generated from the SELECT, HAVING and ORDER-BY clauses in order
+    queryKey.append("|filter:").append(queryContext.getFilter()).append("|select:")
+        .append(queryContext.getSelectExpressions()).append("|having:").append(queryContext.getHavingFilter())
+        .append("|orderBy:").append(queryContext.getOrderByExpressions());
+    List<ExpressionContext> groupByExpressions = queryContext.getGroupByExpressions();
+    if (groupByExpressions != null) {
+      // The segment level group-by results might be limited or trimmed based on the following settings
+      queryKey.append("|groupBy:").append(groupByExpressions).append("|limit:").append(queryContext.getLimit())
+          .append("|numGroupsLimit:").append(queryContext.getNumGroupsLimit())
+          .append("|maxInitialResultHolderCapacity:").append(queryContext.getMaxInitialResultHolderCapacity())
+          .append("|minSegmentGroupTrimSize:").append(queryContext.getMinSegmentGroupTrimSize());
+    }
+    return queryKey.toString();
+  }
+
+  /**
+   * Returns whether the results of the given segment can be cached.
+   */
+  public static boolean isCacheable(IndexSegment indexSegment) {
+    return indexSegment instanceof ImmutableSegment && indexSegment.getValidDocIds() == null
+        && indexSegment.getQueryableDocIds() == null;
+  }
+
+  /**
+   * Returns the cache key for the given segment and canonicalized query.
+   */
+  public static String getKey(IndexSegment indexSegment, String queryKey) {
+    SegmentMetadata segmentMetadata = indexSegment.getSegmentMetadata();
+    return indexSegment.getSegmentName() + '|' + segmentMetadata.getCrc() + '|' + segmentMetadata.getIndexCreationTime()
+        + '|' + queryKey;
+  }
+
+  @Nullable
+  public byte[] get(String key) {
+    return _cache.get(key);
+  }
+
+  /**
+   * Puts the serialized segment results into the cache, and returns whether the entry is cached.
+   */
+  public boolean put(String key, byte[] value) {
+    return _cache.put(key, value);
+  }
+
+  public void invalidateAll() {
+    _cache.invalidateAll();
+  }
+
+  public long getNumEntries() {
+    return _cache.getNumEntries();
+  }
+
+  public long getSizeInBytes() {
+    return _cache.getSizeInBytes();
+  }
+}
@@ -57,6 +57,8 @@ import org.apache.pinot.core.plan.Plan;
 import org.apache.pinot.core.plan.maker.PlanMaker;
 import org.apache.pinot.core.query.aggregation.function.AggregationFunction;
 import org.apache.pinot.core.query.config.QueryExecutorConfig;
+import org.apache.pinot.core.query.prefetch.FetchPlannerRegistry;
+import org.apache.pinot.core.query.prefetch.RecentAccessFetchPlanner;
 import org.apache.pinot.core.query.pruner.SegmentPrunerService;
 import org.apache.pinot.core.query.pruner.SegmentPrunerStatistics;
 import org.apache.pinot.core.query.request.ServerQueryRequest;
@@ -86,6 +88,9 @@ import org.slf4j.LoggerFactory;
 @ThreadSafe
 public class ServerQueryExecutorV1Impl implements QueryExecutor {
   public static final String ENABLE_PREFETCH = "enable.prefetch";
+  // Warms up the columns accessed by recent queries on newly loaded segments, only effective when prefetch is enabled
+  public static final String ENABLE_PREFETCH_WARMUP = "enable.prefetch.warmup";
+  public static final String PREFETCH_WARMUP_ACCESS_WINDOW_MS = "prefetch.warmup.access.window.ms";
 
   private static final Logger LOGGER = LoggerFactory.getLogger(ServerQueryExecutorV1Impl.class);
   private static final String IN_PARTITIONED_SUBQUERY = "inPartitionedSubquery";
@@ -103,6 +108,17 @@ public class ServerQueryExecutorV1Impl implements QueryExecutor {
       throws ConfigurationException {
     _instanceDataManager = instanceDataManager;
     _serverMetrics = serverMetrics;
+    _enablePrefetch = Boolean.parseBoolean(config.getProperty(ENABLE_PREFETCH));
+    if (_enablePrefetch && config.getProperty(ENABLE_PREFETCH_WARMUP, false)) {
+      // Register before building the pruners and plan maker, which look up the planner when constructed
+      long accessWindowMs =
+          config.getProperty(PREFETCH_WARMUP_ACCESS_WINDOW_MS, RecentAccessFetchPlanner.DEFAULT_ACCESS_WINDOW_MS);
+      if (FetchPlannerRegistry.registerPlanner(new RecentAccessFetchPlanner(accessWindowMs))) {
+        LOGGER.info("Registered fetch planner warming up columns accessed within: {}ms", accessWindowMs);
+      } else {
+        LOGGER.warn("Fetch planner already registered, skip registering the warmup fetch planner");
+      }
+    }
     QueryExecutorConfig queryExecutorConfig = new QueryExecutorConfig(config);
     LOGGER.info("Trying to build SegmentPrunerService");
     _segmentPrunerService = new SegmentPrunerService(queryExecutorConfig.getPrunerConfig());
@@ -115,7 +131,6 @@ public class ServerQueryExecutorV1Impl implements QueryExecutor {
     }
     _planMaker.init(config);
     _defaultTimeoutMs = queryExecutorConfig.getTimeOut();
-    _enablePrefetch = Boolean.parseBoolean(config.getProperty(ENABLE_PREFETCH));
     LOGGER.info("Initialized query executor with defaultTimeoutMs: {}, enablePrefetch: {}", _defaultTimeoutMs,
         _enablePrefetch);
   }
@@ -18,6 +18,8 @@
  */
 package org.apache.pinot.core.query.prefetch;
 
+import java.util.Collections;
+import java.util.UUID;
 import org.apache.pinot.core.query.request.context.QueryContext;
 import org.apache.pinot.segment.spi.FetchContext;
 import org.apache.pinot.segment.spi.IndexSegment;
@@ -50,4 +52,15 @@ public interface FetchPlanner {
    * @return context to guide data prefetching.
    */
   FetchContext planFetchForProcessing(IndexSegment indexSegment, QueryContext queryContext);
+
+  /**
+   * Plan what index data to warm up right after the segment is loaded, before any query accesses it. For example, one
+   * can warm up the columns that recent queries on the table accessed. Nothing is warmed up by default.
+   *
+   * @param indexSegment segment just loaded.
+   * @return context to guide data prefetching.
+   */
+  default FetchContext planFetchForWarmup(IndexSegment indexSegment) {
+    return new FetchContext(UUID.randomUUID(), indexSegment.getSegmentName(), Collections.emptySet());
+  }
 }
@@ -0,0 +1,138 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.prefetch;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.segment.spi.FetchContext;
+import org.apache.pinot.segment.spi.IndexSegment;
+import org.apache.pinot.segment.spi.index.IndexType;
+import org.apache.pinot.segment.spi.index.StandardIndexes;
+import org.apache.pinot.spi.utils.builder.TableNameBuilder;
+
+
+/**
+ * Fetch planner that tracks the columns accessed by the recent queries on each table, and plans to warm them up on the
+ * newly loaded segments of the table so that the first queries after a reload or rebalance do not pay for the cold
+ * page faults. Columns only accessed for pruning only get their bloom filter warmed up.
+ * <p>This planner is only registered when the warmup is enabled, so the accesses are not tracked otherwise. The
+ * accesses are recorded once per query from the fetch context of its first planned segment, instead of for every
+ * segment processed by the query.
+ */
+public class RecentAccessFetchPlanner extends DefaultFetchPlanner {
+  public static final long DEFAULT_ACCESS_WINDOW_MS = TimeUnit.HOURS.toMillis(1);
+  // Keys of the query shared values marking the accesses of the query as recorded
+  private static final String PRUNING_ACCESS_RECORDED_KEY = "recentAccessFetchPlanner.pruning";
+  private static final String PROCESSING_ACCESS_RECORDED_KEY = "recentAccessFetchPlanner.processing";
+
+  private final long _accessWindowMs;
+  // Raw table name -> column -> last access time in millis
+  private final Map<String, Map<String, Long>> _pruningAccesses = new ConcurrentHashMap<>();
+  private final Map<String, Map<String, Long>> _processingAccesses = new ConcurrentHashMap<>();
+
+  public RecentAccessFetchPlanner() {
+    this(DEFAULT_ACCESS_WINDOW_MS);
+  }
+
+  /**
+   * @param accessWindowMs only columns accessed within this window are warmed up.
+   */
+  public RecentAccessFetchPlanner(long accessWindowMs) {
+    _accessWindowMs = accessWindowMs;
+  }
+
+  @Override
+  public FetchContext planFetchForPruning(IndexSegment indexSegment, QueryContext queryContext) {
+    FetchContext fetchContext = super.planFetchForPruning(indexSegment, queryContext);
+    recordAccessOnce(_pruningAccesses, PRUNING_ACCESS_RECORDED_KEY, queryContext, fetchContext);
+    return fetchContext;
+  }
+
+  @Override
+  public FetchContext planFetchForProcessing(IndexSegment indexSegment, QueryContext queryContext) {
+    FetchContext fetchContext = super.planFetchForProcessing(indexSegment, queryContext);
+    recordAccessOnce(_processingAccesses, PROCESSING_ACCESS_RECORDED_KEY, queryContext, fetchContext);
+    return fetchContext;
+  }
+
+  /**
+   * Warm up the columns accessed within the access window and present in the segment.
+   */
+  @Override
+  public FetchContext planFetchForWarmup(IndexSegment indexSegment) {
+    String tableName = indexSegment.getSegmentMetadata().getTableName();
+    Map<String, List<IndexType<?, ?, ?>>> columnToIndexList = new HashMap<>();
+    if (tableName != null) {
+      String rawTableName = TableNameBuilder.extractRawTableName(tableName);
+      long minAccessTimeMs = System.currentTimeMillis() - _accessWindowMs;
+      Set<String> segmentColumns = indexSegment.getPhysicalColumnNames();
+      for (String column : getRecentColumns(_pruningAccesses, rawTableName, minAccessTimeMs)) {
+        if (segmentColumns.contains(column)) {
+          columnToIndexList.put(column, Collections.singletonList(StandardIndexes.bloomFilter()));
+        }
+      }
+      // Processing fetches all index types of the column, which includes the bloom filter
+      for (String column : getRecentColumns(_processingAccesses, rawTableName, minAccessTimeMs)) {
+        if (segmentColumns.contains(column)) {
+          columnToIndexList.put(column, null);
+        }
+      }
+    }
+    return new FetchContext(UUID.randomUUID(), indexSegment.getSegmentName(), columnToIndexList);
+  }
+
+  private static void recordAccessOnce(Map<String, Map<String, Long>> accesses, String recordedKey,
+      QueryContext queryContext, FetchContext fetchContext) {
+    queryContext.getOrComputeSharedValue(Boolean.class, recordedKey, k -> {
+      recordAccess(accesses, queryContext.getTableName(), fetchContext.getColumnToIndexList().keySet());
+      return Boolean.TRUE;
+    });
+  }
+
+  private static void recordAccess(Map<String, Map<String, Long>> accesses, @Nullable String tableName,
+      Set<String> columns) {
+    if (tableName == null || columns.isEmpty()) {
+      return;
+    }
+    Map<String, Long> columnAccesses =
+        accesses.computeIfAbsent(TableNameBuilder.extractRawTableName(tableName), k -> new ConcurrentHashMap<>());
+    long accessTimeMs = System.currentTimeMillis();
+    for (String column : columns) {
+      columnAccesses.put(column, accessTimeMs);
+    }
+  }
+
+  private static Set<String> getRecentColumns(Map<String, Map<String, Long>> accesses, String rawTableName,
+      long minAccessTimeMs) {
+    Map<String, Long> columnAccesses = accesses.get(rawTableName);
+    if (columnAccesses == null) {
+      return Collections.emptySet();
+    }
+    columnAccesses.values().removeIf(accessTimeMs -> accessTimeMs < minAccessTimeMs);
+    return columnAccesses.keySet();
+  }
+}
@@ -71,8 +71,11 @@ public class ExecutionStatsAggregator {
   private long _numSegmentsPrunedInvalid = 0L;
   private long _numSegmentsPrunedByLimit = 0L;
   private long _numSegmentsPrunedByValue = 0L;
+  private int _numSegmentsPrunedByOrderByBoundary = 0;
+  private long _numDocsPrunedByOrderByBoundary = 0L;
   private long _explainPlanNumEmptyFilterSegments = 0L;
   private long _explainPlanNumMatchAllFilterSegments = 0L;
+  private int _adaptiveMaxDocsPerCall = Integer.MAX_VALUE;
   private boolean _numGroupsLimitReached = false;
   private int _numBlocks = 0;
   private int _numRows = 0;
@@ -230,6 +233,15 @@ public class ExecutionStatsAggregator {
         l -> _numSegmentsPrunedByLimit += l);
     withNotNullLongMetadata(metadata, DataTable.MetadataKey.NUM_SEGMENTS_PRUNED_BY_VALUE,
         l -> _numSegmentsPrunedByValue += l);
+    withNotNullLongMetadata(metadata, DataTable.MetadataKey.NUM_SEGMENTS_PRUNED_BY_ORDER_BY_BOUNDARY,
+        l -> _numSegmentsPrunedByOrderByBoundary += (int) l);
+    withNotNullLongMetadata(metadata, DataTable.MetadataKey.NUM_DOCS_PRUNED_BY_ORDER_BY_BOUNDARY,
+        l -> _numDocsPrunedByOrderByBoundary += l);
+
+    String adaptiveMaxDocsPerCallString = metadata.get(DataTable.MetadataKey.ADAPTIVE_MAX_DOCS_PER_CALL.getName());
+    if (adaptiveMaxDocsPerCallString != null) {
+      _adaptiveMaxDocsPerCall = Math.min(Integer.parseInt(adaptiveMaxDocsPerCallString), _adaptiveMaxDocsPerCall);
+    }
 
     String explainPlanNumEmptyFilterSegments =
         metadata.get(DataTable.MetadataKey.EXPLAIN_PLAN_NUM_EMPTY_FILTER_SEGMENTS.getName());
@@ -318,6 +330,8 @@ public class ExecutionStatsAggregator {
     brokerResponseNative.setNumSegmentsPrunedInvalid(_numSegmentsPrunedInvalid);
     brokerResponseNative.setNumSegmentsPrunedByLimit(_numSegmentsPrunedByLimit);
     brokerResponseNative.setNumSegmentsPrunedByValue(_numSegmentsPrunedByValue);
+    brokerResponseNative.setNumSegmentsPrunedByOrderByBoundary(_numSegmentsPrunedByOrderByBoundary);
+    brokerResponseNative.setNumDocsPrunedByOrderByBoundary(_numDocsPrunedByOrderByBoundary);
     brokerResponseNative.setExplainPlanNumEmptyFilterSegments(_explainPlanNumEmptyFilterSegments);
     brokerResponseNative.setExplainPlanNumMatchAllFilterSegments(_explainPlanNumMatchAllFilterSegments);
     if (_numConsumingSegmentsQueried > 0) {
@@ -326,6 +340,9 @@ public class ExecutionStatsAggregator {
     if (_minConsumingFreshnessTimeMs != Long.MAX_VALUE) {
       brokerResponseNative.setMinConsumingFreshnessTimeMs(_minConsumingFreshnessTimeMs);
     }
+    if (_adaptiveMaxDocsPerCall != Integer.MAX_VALUE) {
+      brokerResponseNative.setAdaptiveMaxDocsPerCall(_adaptiveMaxDocsPerCall);
+    }
     brokerResponseNative.setNumConsumingSegmentsProcessed(_numConsumingSegmentsProcessed);
     brokerResponseNative.setNumConsumingSegmentsMatched(_numConsumingSegmentsMatched);
 
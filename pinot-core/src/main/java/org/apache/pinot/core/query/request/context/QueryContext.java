@@ -19,14 +19,20 @@
 package org.apache.pinot.core.query.request.context;
 
 import com.google.common.base.Preconditions;
+import java.io.Closeable;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 import javax.annotation.Nullable;
 import org.apache.commons.lang3.tuple.Pair;
@@ -86,6 +92,8 @@ public class QueryContext {
   private final boolean _explain;
 
   private final Function<Class<?>, Map<?, ?>> _sharedValues = MemoizedClassAssociation.of(ConcurrentHashMap::new);
+  // Resources (e.g. off-heap group-by storage) to be released when the query execution finishes
+  private final Queue<Closeable> _resourcesToRelease = new ConcurrentLinkedQueue<>();
 
   // Pre-calculate the aggregation functions and columns for the query so that it can be shared across all the segments
   private AggregationFunction[] _aggregationFunctions;
@@ -106,6 +114,17 @@ public class QueryContext {
   private boolean _skipStarTree;
   // Whether to skip reordering scan filters for the query
   private boolean _skipScanFilterReorder;
+  // Whether to pick the number of docs per block based on the projected columns
+  private boolean _adaptiveMaxDocsPerCall;
+  // Smallest number of docs per block picked by the adaptive block sizing across the segments, 0 if not picked
+  private final AtomicInteger _minAdaptiveMaxDocsPerCall = new AtomicInteger();
+  // Number of segments and docs skipped by the selection order-by boundary shared across the segments
+  private final AtomicInteger _numSegmentsPrunedByOrderByBoundary = new AtomicInteger();
+  private final AtomicLong _numDocsPrunedByOrderByBoundary = new AtomicLong();
+  // Whether to process the segments in the order of the estimated cost (most expensive first) in the combine operator
+  private boolean _costBasedSegmentScheduling;
+  // Minimum number of docs per doc id range when splitting the large segments, non-positive to not split the segments
+  private int _minDocsPerSegmentRange;
   // Maximum number of threads used to execute the query
   private int _maxExecutionThreads = InstancePlanMakerImplV2.DEFAULT_MAX_EXECUTION_THREADS;
   // The following properties apply to group-by queries
@@ -119,6 +138,10 @@ public class QueryContext {
   private int _minServerGroupTrimSize = InstancePlanMakerImplV2.DEFAULT_MIN_SERVER_GROUP_TRIM_SIZE;
   // Trim threshold to use for server combine for SQL GROUP BY
   private int _groupTrimThreshold = InstancePlanMakerImplV2.DEFAULT_GROUPBY_TRIM_THRESHOLD;
+  // Whether to store the group-by keys and results off-heap for SQL GROUP BY
+  private boolean _offHeapGroupBy;
+  // Number of partitions for the partitioned server combine for SQL GROUP BY, non-positive to use a shared table
+  private int _numGroupByCombinePartitions;
   // Whether null handling is enabled
   private boolean _nullHandlingEnabled;
   // Whether server returns the final result
@@ -338,6 +361,68 @@ public class QueryContext {
     _skipScanFilterReorder = skipScanFilterReorder;
   }
 
+  public boolean isAdaptiveMaxDocsPerCall() {
+    return _adaptiveMaxDocsPerCall;
+  }
+
+  public void setAdaptiveMaxDocsPerCall(boolean adaptiveMaxDocsPerCall) {
+    _adaptiveMaxDocsPerCall = adaptiveMaxDocsPerCall;
+  }
+
+  /**
+   * Returns the smallest number of docs per block picked by the adaptive block sizing across the segments, or 0 if
+   * adaptive block sizing is not applied to any segment.
+   */
+  public int getMinAdaptiveMaxDocsPerCall() {
+    return _minAdaptiveMaxDocsPerCall.get();
+  }
+
+  /**
+   * Records the number of docs per block picked by the adaptive block sizing for a segment. Can be invoked
+   * concurrently when the segments are planned in parallel.
+   */
+  public void updateMinAdaptiveMaxDocsPerCall(int maxDocsPerCall) {
+    _minAdaptiveMaxDocsPerCall.accumulateAndGet(maxDocsPerCall,
+        (current, value) -> current == 0 ? value : Math.min(current, value));
+  }
+
+  public int getNumSegmentsPrunedByOrderByBoundary() {
+    return _numSegmentsPrunedByOrderByBoundary.get();
+  }
+
+  public long getNumDocsPrunedByOrderByBoundary() {
+    return _numDocsPrunedByOrderByBoundary.get();
+  }
+
+  /**
+   * Records the number of segments and docs skipped by the selection order-by boundary for a segment. Can be invoked
+   * concurrently when the segments are processed in parallel.
+   */
+  public void addOrderByBoundaryPrunedStats(int numSegmentsPruned, long numDocsPruned) {
+    if (numSegmentsPruned > 0) {
+      _numSegmentsPrunedByOrderByBoundary.addAndGet(numSegmentsPruned);
+    }
+    if (numDocsPruned > 0) {
+      _numDocsPrunedByOrderByBoundary.addAndGet(numDocsPruned);
+    }
+  }
+
+  public boolean isCostBasedSegmentScheduling() {
+    return _costBasedSegmentScheduling;
+  }
+
+  public void setCostBasedSegmentScheduling(boolean costBasedSegmentScheduling) {
+    _costBasedSegmentScheduling = costBasedSegmentScheduling;
+  }
+
+  public int getMinDocsPerSegmentRange() {
+    return _minDocsPerSegmentRange;
+  }
+
+  public void setMinDocsPerSegmentRange(int minDocsPerSegmentRange) {
+    _minDocsPerSegmentRange = minDocsPerSegmentRange;
+  }
+
   public int getMaxExecutionThreads() {
     return _maxExecutionThreads;
   }
@@ -386,6 +471,22 @@ public class QueryContext {
     _groupTrimThreshold = groupTrimThreshold;
   }
 
+  public boolean isOffHeapGroupBy() {
+    return _offHeapGroupBy;
+  }
+
+  public void setOffHeapGroupBy(boolean offHeapGroupBy) {
+    _offHeapGroupBy = offHeapGroupBy;
+  }
+
+  public int getNumGroupByCombinePartitions() {
+    return _numGroupByCombinePartitions;
+  }
+
+  public void setNumGroupByCombinePartitions(int numGroupByCombinePartitions) {
+    _numGroupByCombinePartitions = numGroupByCombinePartitions;
+  }
+
   public boolean isNullHandlingEnabled() {
     return _nullHandlingEnabled;
   }
@@ -416,6 +517,30 @@ public class QueryContext {
     return ((ConcurrentHashMap<K, V>) _sharedValues.apply(type)).computeIfAbsent(key, mapper);
   }
 
+  /**
+   * Registers a resource (e.g. off-heap group-by storage) to be released by {@link #releaseResources()} when the query
+   * execution finishes. This guarantees the release even if the operator consuming the resource does not get the
+   * chance to release it (e.g. on failure, timeout or early termination). Closing the resource must be idempotent.
+   */
+  public void registerResourceToRelease(Closeable resource) {
+    _resourcesToRelease.add(resource);
+  }
+
+  /**
+   * Releases all the registered resources. Must be invoked after all the threads accessing the resources are done.
+   */
+  public void releaseResources() {
+    Closeable resource;
+    while ((resource = _resourcesToRelease.poll()) != null) {
+      try {
+        resource.close();
+      } catch (IOException e) {
+        // Ignored, the registered resources do not throw IOException
+      }
+    }
+  }
+
+
   /**
    * NOTE: For debugging only.
    */
@@ -0,0 +1,72 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.selection;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.annotation.Nullable;
+
+
+/**
+ * Boundary of the top rows shared across all the segments of a selection order-by query, which is the worst row among
+ * the top rows found so far by any segment (i.e. the head of a full priority queue). A row that is not better than the
+ * boundary can never make the final top rows, so the segments processed later can skip such rows (and whole blocks or
+ * segments) without materializing them.
+ * <p>The boundary only contains the order-by values, and is published atomically so that the segment threads can read
+ * it without locking.
+ */
+public class SelectionOrderByBoundary {
+  private final Comparator<Object[]> _comparator;
+  private final int _numOrderByExpressions;
+  private final AtomicReference<Object[]> _boundary = new AtomicReference<>();
+
+  public SelectionOrderByBoundary(Comparator<Object[]> comparator, int numOrderByExpressions) {
+    _comparator = comparator;
+    _numOrderByExpressions = numOrderByExpressions;
+  }
+
+  /**
+   * Returns the current boundary (order-by values only), or {@code null} if no segment has collected enough rows yet.
+   */
+  @Nullable
+  public Object[] get() {
+    return _boundary.get();
+  }
+
+  /**
+   * Publishes the given row (worst row of a full set of top rows) as the boundary if it is better than the current
+   * boundary.
+   */
+  public void update(Object[] row) {
+    Object[] newBoundary = null;
+    while (true) {
+      Object[] boundary = _boundary.get();
+      if (boundary != null && _comparator.compare(row, boundary) >= 0) {
+        return;
+      }
+      if (newBoundary == null) {
+        newBoundary = Arrays.copyOf(row, _numOrderByExpressions);
+      }
+      if (_boundary.compareAndSet(boundary, newBoundary)) {
+        return;
+      }
+    }
+  }
+}
@@ -19,7 +19,9 @@
 package org.apache.pinot.core.routing;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import javax.annotation.Nullable;
 
 
 public class TablePartitionInfo {
@@ -27,15 +29,24 @@ public class TablePartitionInfo {
   private final String _partitionColumn;
   private final String _partitionFunctionName;
   private final int _numPartitions;
+  private final Map<String, String> _partitionFunctionConfig;
   private final PartitionInfo[] _partitionInfoMap;
   private final Set<String> _segmentsWithInvalidPartition;
 
   public TablePartitionInfo(String tableNameWithType, String partitionColumn, String partitionFunctionName,
       int numPartitions, PartitionInfo[] partitionInfoMap, Set<String> segmentsWithInvalidPartition) {
+    this(tableNameWithType, partitionColumn, partitionFunctionName, numPartitions, null, partitionInfoMap,
+        segmentsWithInvalidPartition);
+  }
+
+  public TablePartitionInfo(String tableNameWithType, String partitionColumn, String partitionFunctionName,
+      int numPartitions, @Nullable Map<String, String> partitionFunctionConfig, PartitionInfo[] partitionInfoMap,
+      Set<String> segmentsWithInvalidPartition) {
     _tableNameWithType = tableNameWithType;
     _partitionColumn = partitionColumn;
     _partitionFunctionName = partitionFunctionName;
     _numPartitions = numPartitions;
+    _partitionFunctionConfig = partitionFunctionConfig;
     _partitionInfoMap = partitionInfoMap;
     _segmentsWithInvalidPartition = segmentsWithInvalidPartition;
   }
@@ -56,6 +67,11 @@ public class TablePartitionInfo {
     return _numPartitions;
   }
 
+  @Nullable
+  public Map<String, String> getPartitionFunctionConfig() {
+    return _partitionFunctionConfig;
+  }
+
   public PartitionInfo[] getPartitionInfoMap() {
     return _partitionInfoMap;
   }
@@ -116,6 +116,74 @@ public class IndexedTableTest {
     }
   }
 
+  @Test
+  public void testPartitionedIndexedTable()
+      throws InterruptedException, TimeoutException, ExecutionException {
+    QueryContext queryContext = QueryContextConverterUtils.getQueryContext(
+        "SELECT SUM(m1), MAX(m2) FROM testTable GROUP BY d1, d2, d3 ORDER BY SUM(m1)");
+    DataSchema dataSchema = new DataSchema(new String[]{"d1", "d2", "d3", "sum(m1)", "max(m2)"}, new ColumnDataType[]{
+        ColumnDataType.STRING, ColumnDataType.INT, ColumnDataType.DOUBLE, ColumnDataType.DOUBLE, ColumnDataType.DOUBLE
+    });
+    int numWorkers = 3;
+    int numPartitions = 4;
+    PartitionedIndexedTable indexedTable =
+        new PartitionedIndexedTable(dataSchema, queryContext, 5, TRIM_SIZE, TRIM_THRESHOLD, numWorkers, numPartitions);
+
+    // Phase 1: 3 workers upsert together into their own partitions
+    // a inserted 4 times (40), b inserted 3 times (30), c (10000) and f (20000) should be trimmed out no matter what
+    Object[][][] workerRecords = new Object[][][]{
+        {{"a", 1, 10d, 10d, 100d}, {"b", 2, 20d, 10d, 200d}, {"c", 3, 30d, 10000d, 300d}, {"d", 4, 40d, 10d, 400d}},
+        {{"a", 1, 10d, 10d, 100d}, {"f", 6, 60d, 20000d, 600d}, {"g", 7, 70d, 10d, 700d}, {"b", 2, 20d, 10d, 200d}},
+        {{"a", 1, 10d, 10d, 100d}, {"h", 8, 80d, 10d, 800d}, {"a", 1, 10d, 10d, 100d}, {"b", 2, 20d, 10d, 200d}}
+    };
+    ExecutorService executorService = Executors.newFixedThreadPool(numWorkers);
+    try {
+      List<Callable<Void>> upsertCallables = new ArrayList<>(numWorkers);
+      for (int i = 0; i < numWorkers; i++) {
+        int workerId = i;
+        upsertCallables.add(() -> {
+          for (Object[] values : workerRecords[workerId]) {
+            indexedTable.upsert(workerId, getRecord(values.clone()));
+          }
+          return null;
+        });
+      }
+      for (Future future : executorService.invokeAll(upsertCallables)) {
+        future.get(10, TimeUnit.SECONDS);
+      }
+
+      // Phase 2: merge the partitions in parallel
+      List<Callable<Void>> mergeCallables = new ArrayList<>(numPartitions);
+      for (int i = 0; i < numPartitions; i++) {
+        int partitionId = i;
+        mergeCallables.add(() -> {
+          indexedTable.mergePartition(partitionId);
+          return null;
+        });
+      }
+      for (Future future : executorService.invokeAll(mergeCallables)) {
+        future.get(10, TimeUnit.SECONDS);
+      }
+    } finally {
+      executorService.shutdown();
+    }
+
+    indexedTable.finish(false);
+    Assert.assertEquals(indexedTable.size(), 5);
+    checkEvicted(indexedTable, "c", "f");
+    Iterator<Record> iterator = indexedTable.iterator();
+    while (iterator.hasNext()) {
+      Object[] values = iterator.next().getValues();
+      if (values[0].equals("a")) {
+        Assert.assertEquals(values[3], 40d);
+      } else if (values[0].equals("b")) {
+        Assert.assertEquals(values[3], 30d);
+      } else {
+        Assert.assertEquals(values[3], 10d);
+      }
+    }
+  }
+
   @Test(dataProvider = "initDataProvider")
   public void testNonConcurrentIndexedTable(String orderBy, List<String> survivors) {
     QueryContext queryContext = QueryContextConverterUtils.getQueryContext(
@@ -242,6 +310,79 @@ public class IndexedTableTest {
     return new Record(columns);
   }
 
+  @Test
+  public void testSpecializedKeys() {
+    // Single INT key
+    QueryContext queryContext =
+        QueryContextConverterUtils.getQueryContext("SELECT SUM(m1) FROM testTable GROUP BY d1 ORDER BY SUM(m1) DESC");
+    DataSchema dataSchema =
+        new DataSchema(new String[]{"d1", "sum(m1)"}, new ColumnDataType[]{ColumnDataType.INT, ColumnDataType.DOUBLE});
+    IndexedTable indexedTable = new SimpleIndexedTable(dataSchema, queryContext, 2, TRIM_SIZE, TRIM_THRESHOLD);
+    Assert.assertTrue(indexedTable.getKey(new Object[]{1, 10d}) instanceof LongKey);
+    Assert.assertEquals(indexedTable.getKey(new Object[]{-1, 10d}).getValues(), new Object[]{-1});
+    indexedTable.upsert(getRecord(new Object[]{1, 10d}));
+    indexedTable.upsert(getRecord(new Object[]{-1, 20d}));
+    indexedTable.upsert(getRecord(new Object[]{1, 15d}));
+    indexedTable.upsert(getRecord(new Object[]{2, 1d}));
+    indexedTable.finish(true);
+    checkRecords(indexedTable, new Object[]{1, 25d}, new Object[]{-1, 20d});
+
+    // Single LONG key (TIMESTAMP is stored as LONG)
+    queryContext =
+        QueryContextConverterUtils.getQueryContext("SELECT SUM(m1) FROM testTable GROUP BY d1 ORDER BY SUM(m1) DESC");
+    dataSchema = new DataSchema(new String[]{"d1", "sum(m1)"},
+        new ColumnDataType[]{ColumnDataType.TIMESTAMP, ColumnDataType.DOUBLE});
+    indexedTable = new ConcurrentIndexedTable(dataSchema, queryContext, 2, TRIM_SIZE, TRIM_THRESHOLD);
+    Assert.assertTrue(indexedTable.getKey(new Object[]{1L, 10d}) instanceof LongKey);
+    Assert.assertEquals(indexedTable.getKey(new Object[]{Long.MIN_VALUE, 10d}).getValues(),
+        new Object[]{Long.MIN_VALUE});
+    indexedTable.upsert(getRecord(new Object[]{Long.MIN_VALUE, 10d}));
+    indexedTable.upsert(getRecord(new Object[]{Long.MAX_VALUE, 20d}));
+    indexedTable.upsert(getRecord(new Object[]{Long.MIN_VALUE, 15d}));
+    indexedTable.upsert(getRecord(new Object[]{0L, 1d}));
+    indexedTable.finish(true);
+    checkRecords(indexedTable, new Object[]{Long.MIN_VALUE, 25d}, new Object[]{Long.MAX_VALUE, 20d});
+
+    // 2 INT keys
+    queryContext = QueryContextConverterUtils.getQueryContext(
+        "SELECT SUM(m1) FROM testTable GROUP BY d1, d2 ORDER BY SUM(m1) DESC");
+    dataSchema = new DataSchema(new String[]{"d1", "d2", "sum(m1)"},
+        new ColumnDataType[]{ColumnDataType.INT, ColumnDataType.INT, ColumnDataType.DOUBLE});
+    indexedTable = new SimpleIndexedTable(dataSchema, queryContext, 2, TRIM_SIZE, TRIM_THRESHOLD);
+    Assert.assertTrue(indexedTable.getKey(new Object[]{1, 2, 10d}) instanceof LongKey);
+    Assert.assertEquals(indexedTable.getKey(new Object[]{-1, Integer.MIN_VALUE, 10d}).getValues(),
+        new Object[]{-1, Integer.MIN_VALUE});
+    indexedTable.upsert(getRecord(new Object[]{1, -1, 10d}));
+    indexedTable.upsert(getRecord(new Object[]{-1, 1, 20d}));
+    indexedTable.upsert(getRecord(new Object[]{1, -1, 15d}));
+    indexedTable.upsert(getRecord(new Object[]{-1, -1, 1d}));
+    indexedTable.finish(true);
+    checkRecords(indexedTable, new Object[]{1, -1, 25d}, new Object[]{-1, 1, 20d});
+
+    // Mixed type keys
+    queryContext = QueryContextConverterUtils.getQueryContext(
+        "SELECT SUM(m1) FROM testTable GROUP BY d1, d2 ORDER BY SUM(m1) DESC");
+    dataSchema = new DataSchema(new String[]{"d1", "d2", "sum(m1)"},
+        new ColumnDataType[]{ColumnDataType.STRING, ColumnDataType.INT, ColumnDataType.DOUBLE});
+    indexedTable = new SimpleIndexedTable(dataSchema, queryContext, 2, TRIM_SIZE, TRIM_THRESHOLD);
+    Assert.assertTrue(indexedTable.getKey(new Object[]{"a", 1, 10d}) instanceof HashedKey);
+    Assert.assertEquals(indexedTable.getKey(new Object[]{"a", 1, 10d}).getValues(), new Object[]{"a", 1});
+    indexedTable.upsert(getRecord(new Object[]{"a", 1, 10d}));
+    indexedTable.upsert(getRecord(new Object[]{"b", 1, 20d}));
+    indexedTable.upsert(getRecord(new Object[]{"a", 1, 15d}));
+    indexedTable.upsert(getRecord(new Object[]{"a", 2, 1d}));
+    indexedTable.finish(true);
+    checkRecords(indexedTable, new Object[]{"a", 1, 25d}, new Object[]{"b", 1, 20d});
+  }
+
+  private void checkRecords(Table indexedTable, Object[]... expectedValues) {
+    Assert.assertEquals(indexedTable.size(), expectedValues.length);
+    Iterator<Record> iterator = indexedTable.iterator();
+    for (Object[] values : expectedValues) {
+      Assert.assertEquals(iterator.next().getValues(), values);
+    }
+  }
+
   @Test
   public void testNoMoreNewRecords() {
     QueryContext queryContext =
@@ -0,0 +1,166 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.combine;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.apache.pinot.core.common.Block;
+import org.apache.pinot.core.common.BlockDocIdSet;
+import org.apache.pinot.core.common.Operator;
+import org.apache.pinot.core.operator.AcquireReleaseColumnsSegmentOperator;
+import org.apache.pinot.core.operator.BaseOperator;
+import org.apache.pinot.core.operator.SegmentResultCacheOperator;
+import org.apache.pinot.core.operator.filter.DocIdRangeFilterOperator;
+import org.apache.pinot.core.operator.filter.EmptyFilterOperator;
+import org.apache.pinot.core.operator.filter.MatchAllFilterOperator;
+import org.apache.pinot.core.plan.PlanNode;
+import org.apache.pinot.core.query.cache.SegmentResultCache;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.segment.spi.FetchContext;
+import org.apache.pinot.segment.spi.IndexSegment;
+import org.apache.pinot.segment.spi.SegmentMetadata;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+
+@SuppressWarnings("rawtypes")
+public class CombineOperatorUtilsTest {
+
+  @Test
+  public void testGetEstimatedCost() {
+    assertEquals(CombineOperatorUtils.getEstimatedCost(new MatchAllFilterOperator(100)), 100);
+    assertEquals(CombineOperatorUtils.getEstimatedCost(EmptyFilterOperator.getInstance()), 0);
+    assertEquals(CombineOperatorUtils.getEstimatedCost(new DummyOperator(new MatchAllFilterOperator(100))), 100);
+    assertEquals(CombineOperatorUtils.getEstimatedCost(new DummyOperator(EmptyFilterOperator.getInstance())), 0);
+    assertEquals(CombineOperatorUtils.getEstimatedCost(
+        new DummyOperator(new MatchAllFilterOperator(100), null, new MatchAllFilterOperator(200))), 200);
+    assertEquals(CombineOperatorUtils.getEstimatedCost(new DummyOperator()), 0);
+
+    // Filter should not be evaluated to estimate the cost
+    assertEquals(CombineOperatorUtils.getEstimatedCost(new DummyOperator(new NonEvaluableFilterOperator(100))), 100);
+
+    // Selective filter should be cheaper than the whole segment
+    assertEquals(CombineOperatorUtils.getEstimatedCost(new SelectiveFilterOperator(1000, 0.1)), 100);
+    assertEquals(CombineOperatorUtils.getEstimatedCost(new SelectiveFilterOperator(1000, 0.0001)), 1);
+    assertEquals(CombineOperatorUtils.getEstimatedCost(
+        new DocIdRangeFilterOperator(new SelectiveFilterOperator(1000, 0.1), 200, 400)), 20);
+  }
+
+  @Test
+  public void testGetEstimatedCostOfSegmentOperators() {
+    IndexSegment indexSegment = mock(IndexSegment.class);
+    SegmentMetadata segmentMetadata = mock(SegmentMetadata.class);
+    when(segmentMetadata.getTotalDocs()).thenReturn(100);
+    when(indexSegment.getSegmentMetadata()).thenReturn(segmentMetadata);
+    PlanNode planNode = mock(PlanNode.class);
+
+    // The segment is not planned to estimate the cost
+    assertEquals(CombineOperatorUtils.getEstimatedCost(
+        new AcquireReleaseColumnsSegmentOperator(planNode, indexSegment, mock(FetchContext.class))), 100);
+    assertEquals(CombineOperatorUtils.getEstimatedCost(
+        new SegmentResultCacheOperator(planNode, indexSegment, mock(QueryContext.class), new SegmentResultCache(1024),
+            "key", null)), 100);
+    verify(planNode, never()).run();
+  }
+
+  @Test
+  public void testSortOperatorsByEstimatedCost() {
+    Operator small = new DummyOperator(new MatchAllFilterOperator(10));
+    Operator large = new DummyOperator(new MatchAllFilterOperator(1000));
+    Operator medium1 = new DummyOperator(new MatchAllFilterOperator(100));
+    Operator medium2 = new DummyOperator(new MatchAllFilterOperator(100));
+    Operator empty = new DummyOperator(EmptyFilterOperator.getInstance());
+    List<Operator> operators = Arrays.asList(small, empty, medium1, large, medium2);
+
+    List<Operator> sortedOperators = CombineOperatorUtils.sortOperatorsByEstimatedCost(operators);
+    assertEquals(sortedOperators.size(), 5);
+    assertSame(sortedOperators.get(0), large);
+    // Operators with the same cost should keep the original order
+    assertSame(sortedOperators.get(1), medium1);
+    assertSame(sortedOperators.get(2), medium2);
+    assertSame(sortedOperators.get(3), small);
+    assertSame(sortedOperators.get(4), empty);
+
+    // Original list should not be modified
+    assertSame(operators.get(0), small);
+  }
+
+  private static class SelectiveFilterOperator extends NonEvaluableFilterOperator {
+    private final double _selectivity;
+
+    SelectiveFilterOperator(int numDocs, double selectivity) {
+      super(numDocs);
+      _selectivity = selectivity;
+    }
+
+    @Override
+    public double getEstimatedSelectivity() {
+      return _selectivity;
+    }
+  }
+
+  private static class NonEvaluableFilterOperator extends MatchAllFilterOperator {
+
+    NonEvaluableFilterOperator(int numDocs) {
+      super(numDocs);
+    }
+
+    @Override
+    protected BlockDocIdSet getTrues() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int getNumMatchingDocs() {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  private static class DummyOperator extends BaseOperator {
+    private static final String EXPLAIN_NAME = "DUMMY";
+
+    private final List<Operator> _childOperators;
+
+    DummyOperator(Operator... childOperators) {
+      _childOperators = childOperators.length > 0 ? Arrays.asList(childOperators) : Collections.emptyList();
+    }
+
+    @Override
+    protected Block getNextBlock() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String toExplainString() {
+      return EXPLAIN_NAME;
+    }
+
+    @Override
+    public List<Operator> getChildOperators() {
+      return _childOperators;
+    }
+  }
+}
@@ -0,0 +1,117 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.dociditerators;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.apache.pinot.core.common.BlockDocIdIterator;
+import org.apache.pinot.core.common.BlockDocIdSet;
+import org.apache.pinot.core.operator.docidsets.BitmapDocIdSet;
+import org.apache.pinot.core.operator.docidsets.DocIdRangeDocIdSet;
+import org.apache.pinot.core.operator.docidsets.EmptyDocIdSet;
+import org.apache.pinot.core.operator.docidsets.MatchAllDocIdSet;
+import org.apache.pinot.core.operator.docidsets.NotDocIdSet;
+import org.apache.pinot.core.operator.docidsets.OrDocIdSet;
+import org.apache.pinot.core.operator.docidsets.SortedDocIdSet;
+import org.apache.pinot.segment.spi.Constants;
+import org.apache.pinot.spi.utils.Pairs.IntPair;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+
+public class DocIdRangeDocIdIteratorTest {
+  private static final int NUM_DOCS = 100;
+
+  @Test
+  public void testMatchAllDocIdSet() {
+    BlockDocIdSet docIdSet = new MatchAllDocIdSet(NUM_DOCS).withDocIdRange(20, 25);
+    assertEquals(getDocIds(docIdSet), Arrays.asList(20, 21, 22, 23, 24));
+    assertEquals(getDocIds(docIdSet.withDocIdRange(22, 30)), Arrays.asList(22, 23, 24));
+    assertEquals(getDocIds(new MatchAllDocIdSet(NUM_DOCS).withDocIdRange(98, 120)), Arrays.asList(98, 99));
+  }
+
+  @Test
+  public void testBitmapDocIdSet() {
+    ImmutableRoaringBitmap docIds = ImmutableRoaringBitmap.bitmapOf(1, 5, 10, 20, 30, 99);
+    BlockDocIdSet docIdSet = new BitmapDocIdSet(docIds, NUM_DOCS);
+    assertEquals(getDocIds(docIdSet.withDocIdRange(5, 30)), Arrays.asList(5, 10, 20));
+    assertEquals(getDocIds(docIdSet.withDocIdRange(31, 99)), Collections.emptyList());
+    assertEquals(getDocIds(docIdSet.withDocIdRange(0, NUM_DOCS)), Arrays.asList(1, 5, 10, 20, 30, 99));
+  }
+
+  @Test
+  public void testSortedDocIdSet() {
+    BlockDocIdSet docIdSet = new SortedDocIdSet(Arrays.asList(new IntPair(3, 6), new IntPair(10, 12)));
+    assertEquals(getDocIds(docIdSet.withDocIdRange(5, 11)), Arrays.asList(5, 6, 10));
+    assertEquals(getDocIds(docIdSet.withDocIdRange(0, 4)), Collections.singletonList(3));
+    assertSame(docIdSet.withDocIdRange(7, 10), EmptyDocIdSet.getInstance());
+  }
+
+  @Test
+  public void testNotDocIdSet() {
+    ImmutableRoaringBitmap docIds = ImmutableRoaringBitmap.bitmapOf(11, 13, 50);
+    BlockDocIdSet docIdSet = new NotDocIdSet(new BitmapDocIdSet(docIds, NUM_DOCS), NUM_DOCS);
+    assertEquals(getDocIds(docIdSet.withDocIdRange(10, 15)), Arrays.asList(10, 12, 14));
+    assertEquals(getDocIds(docIdSet.withDocIdRange(97, NUM_DOCS)), Arrays.asList(97, 98, 99));
+  }
+
+  @Test
+  public void testOrDocIdSet() {
+    BlockDocIdSet docIdSet = new OrDocIdSet(Arrays.asList(new BitmapDocIdSet(ImmutableRoaringBitmap.bitmapOf(1, 30),
+        NUM_DOCS), new SortedDocIdSet(Collections.singletonList(new IntPair(20, 22)))), NUM_DOCS);
+    assertEquals(getDocIds(docIdSet.withDocIdRange(21, 40)), Arrays.asList(21, 22, 30));
+  }
+
+  @Test
+  public void testGenericDocIdRange() {
+    // Wrap a doc id set that is not range aware
+    ImmutableRoaringBitmap docIds = ImmutableRoaringBitmap.bitmapOf(1, 5, 10, 20, 30);
+    assertEquals(getDocIds(new DocIdRangeDocIdSet(new BitmapDocIdSet(docIds, NUM_DOCS), 5, 21)),
+        Arrays.asList(5, 10, 20));
+    assertEquals(
+        getDocIds(new DocIdRangeDocIdSet(new BitmapDocIdSet(docIds, NUM_DOCS), 5, 21).withDocIdRange(6, NUM_DOCS)),
+        Arrays.asList(10, 20));
+
+    BlockDocIdIterator docIdIterator = new DocIdRangeDocIdSet(new BitmapDocIdSet(docIds, NUM_DOCS), 5, 21).iterator();
+    assertEquals(docIdIterator.advance(0), 5);
+    assertEquals(docIdIterator.advance(11), 20);
+    assertEquals(docIdIterator.next(), Constants.EOF);
+    assertEquals(docIdIterator.next(), Constants.EOF);
+  }
+
+  @Test
+  public void testEmptyDocIdSet() {
+    assertSame(EmptyDocIdSet.getInstance().withDocIdRange(0, NUM_DOCS), EmptyDocIdSet.getInstance());
+  }
+
+  private static List<Integer> getDocIds(BlockDocIdSet docIdSet) {
+    BlockDocIdIterator docIdIterator = docIdSet.iterator();
+    List<Integer> docIds = new ArrayList<>();
+    int docId;
+    while ((docId = docIdIterator.next()) != Constants.EOF) {
+      docIds.add(docId);
+    }
+    return docIds;
+  }
+}
@@ -392,6 +392,49 @@ public class NoDictionaryRangePredicateEvaluatorTest {
     }
   }
 
+  @Test
+  public void testBatchApply() {
+    int numValues = 100;
+    int[] intValues = new int[numValues];
+    long[] longValues = new long[numValues];
+    double[] doubleValues = new double[numValues];
+    for (int i = 0; i < numValues; i++) {
+      intValues[i] = i - 50;
+      longValues[i] = i - 50;
+      doubleValues[i] = i - 50;
+    }
+
+    PredicateEvaluator predicateEvaluator = buildRangePredicate("[-10\00010)", FieldSpec.DataType.INT);
+    int[] docIds = getDocIds(numValues);
+    int numMatches = predicateEvaluator.applySV(numValues, docIds, intValues);
+    assertMatchingDocIds(docIds, numMatches, 40, 60);
+
+    predicateEvaluator = buildRangePredicate("[-10\00010)", FieldSpec.DataType.LONG);
+    docIds = getDocIds(numValues);
+    numMatches = predicateEvaluator.applySV(numValues, docIds, longValues);
+    assertMatchingDocIds(docIds, numMatches, 40, 60);
+
+    predicateEvaluator = buildRangePredicate("(-10\00010]", FieldSpec.DataType.DOUBLE);
+    docIds = getDocIds(numValues);
+    numMatches = predicateEvaluator.applySV(numValues, docIds, doubleValues);
+    assertMatchingDocIds(docIds, numMatches, 41, 61);
+  }
+
+  private static int[] getDocIds(int numDocs) {
+    int[] docIds = new int[numDocs];
+    for (int i = 0; i < numDocs; i++) {
+      docIds[i] = i;
+    }
+    return docIds;
+  }
+
+  private static void assertMatchingDocIds(int[] docIds, int numMatches, int startDocId, int endDocId) {
+    Assert.assertEquals(numMatches, endDocId - startDocId);
+    for (int i = 0; i < numMatches; i++) {
+      Assert.assertEquals(docIds[i], startDocId + i);
+    }
+  }
+
   private PredicateEvaluator buildRangePredicate(String rangeString, FieldSpec.DataType dataType) {
     RangePredicate predicate = new RangePredicate(COLUMN_EXPRESSION, rangeString);
     return RangePredicateEvaluatorFactory.newRawValueBasedEvaluator(predicate, dataType);
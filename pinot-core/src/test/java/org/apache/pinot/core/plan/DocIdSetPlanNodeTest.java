@@ -0,0 +1,123 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.plan;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.apache.pinot.core.operator.filter.AndFilterOperator;
+import org.apache.pinot.core.operator.filter.BaseFilterOperator;
+import org.apache.pinot.core.operator.filter.OrFilterOperator;
+import org.apache.pinot.core.operator.filter.ScanBasedFilterOperator;
+import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.query.request.context.utils.QueryContextConverterUtils;
+import org.apache.pinot.segment.spi.datasource.DataSource;
+import org.apache.pinot.segment.spi.datasource.DataSourceMetadata;
+import org.apache.pinot.segment.spi.index.reader.Dictionary;
+import org.apache.pinot.segment.spi.index.reader.ForwardIndexReader;
+import org.apache.pinot.spi.data.DimensionFieldSpec;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+
+public class DocIdSetPlanNodeTest {
+  private static final int NUM_DOCS = 1000;
+
+  @Test
+  public void testAdaptiveMaxDocPerCall() {
+    // Single narrow column should use the largest block
+    List<DataSource> dataSources = Collections.singletonList(mockDataSource(DataType.INT, false));
+    assertEquals(DocIdSetPlanNode.getAdaptiveMaxDocPerCall(dataSources, 1.0), DocIdSetPlanNode.MAX_DOC_PER_CALL);
+
+    // Wide projection should use smaller blocks
+    dataSources = new ArrayList<>();
+    for (int i = 0; i < 40; i++) {
+      dataSources.add(mockDataSource(DataType.LONG, true));
+    }
+    int maxDocPerCall = DocIdSetPlanNode.getAdaptiveMaxDocPerCall(dataSources, 1.0);
+    assertTrue(maxDocPerCall < DocIdSetPlanNode.MAX_DOC_PER_CALL);
+    assertTrue(maxDocPerCall >= DocIdSetPlanNode.MIN_ADAPTIVE_DOC_PER_CALL);
+
+    // Sparse filter should further reduce the block size
+    int sparseMaxDocPerCall = DocIdSetPlanNode.getAdaptiveMaxDocPerCall(dataSources, 0.1);
+    assertTrue(sparseMaxDocPerCall <= maxDocPerCall);
+    assertTrue(sparseMaxDocPerCall >= DocIdSetPlanNode.MIN_ADAPTIVE_DOC_PER_CALL);
+
+    // Very wide projection should be bounded by the minimum block size
+    dataSources = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      dataSources.add(mockDataSource(DataType.STRING, true));
+    }
+    assertEquals(DocIdSetPlanNode.getAdaptiveMaxDocPerCall(dataSources, 1.0),
+        DocIdSetPlanNode.MIN_ADAPTIVE_DOC_PER_CALL);
+  }
+
+  @Test
+  public void testEstimatedSelectivity() {
+    QueryContext queryContext = QueryContextConverterUtils.getQueryContext("SELECT * FROM testTable");
+    DataSource dataSource = mockDataSource(DataType.INT, true);
+    when(dataSource.getDataSourceMetadata().getCardinality()).thenReturn(100);
+    when(dataSource.getDataSourceMetadata().getFieldSpec()).thenReturn(
+        new DimensionFieldSpec("column", DataType.INT, true));
+    when(dataSource.getForwardIndex()).thenReturn(mock(ForwardIndexReader.class));
+
+    // EQ matches 1 out of 100 values, NOT_EQ excludes 1 out of 100 values, RANGE cannot be estimated
+    BaseFilterOperator eqFilter =
+        new ScanBasedFilterOperator(queryContext, mockPredicateEvaluator(1), dataSource, NUM_DOCS);
+    assertEquals(eqFilter.getEstimatedSelectivity(), 0.01, 1e-9);
+    BaseFilterOperator notEqFilter =
+        new ScanBasedFilterOperator(queryContext, mockPredicateEvaluator(-1), dataSource, NUM_DOCS);
+    assertEquals(notEqFilter.getEstimatedSelectivity(), 0.99, 1e-9);
+    BaseFilterOperator rangeFilter =
+        new ScanBasedFilterOperator(queryContext, mockPredicateEvaluator(Integer.MIN_VALUE), dataSource, NUM_DOCS);
+    assertEquals(rangeFilter.getEstimatedSelectivity(), 1.0);
+
+    assertEquals(new AndFilterOperator(Arrays.asList(eqFilter, notEqFilter), null, NUM_DOCS, false)
+        .getEstimatedSelectivity(), 0.0099, 1e-9);
+    assertEquals(new OrFilterOperator(Arrays.asList(eqFilter, eqFilter), null, NUM_DOCS, false)
+        .getEstimatedSelectivity(), 0.02, 1e-9);
+    assertEquals(new OrFilterOperator(Arrays.asList(eqFilter, rangeFilter), null, NUM_DOCS, false)
+        .getEstimatedSelectivity(), 1.0);
+  }
+
+  private static PredicateEvaluator mockPredicateEvaluator(int numMatchingItems) {
+    PredicateEvaluator predicateEvaluator = mock(PredicateEvaluator.class);
+    when(predicateEvaluator.getNumMatchingItems()).thenReturn(numMatchingItems);
+    return predicateEvaluator;
+  }
+
+  private static DataSource mockDataSource(DataType dataType, boolean hasDictionary) {
+    DataSourceMetadata dataSourceMetadata = mock(DataSourceMetadata.class);
+    when(dataSourceMetadata.getDataType()).thenReturn(dataType);
+    when(dataSourceMetadata.isSingleValue()).thenReturn(true);
+    DataSource dataSource = mock(DataSource.class);
+    when(dataSource.getDataSourceMetadata()).thenReturn(dataSourceMetadata);
+    if (hasDictionary) {
+      when(dataSource.getDictionary()).thenReturn(mock(Dictionary.class));
+    }
+    return dataSource;
+  }
+}
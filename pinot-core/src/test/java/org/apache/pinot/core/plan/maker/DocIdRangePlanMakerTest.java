@@ -0,0 +1,156 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.plan.maker;
+
+import java.util.Collections;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.query.request.context.utils.QueryContextConverterUtils;
+import org.apache.pinot.segment.spi.ImmutableSegment;
+import org.apache.pinot.segment.spi.IndexSegment;
+import org.apache.pinot.segment.spi.MutableSegment;
+import org.apache.pinot.segment.spi.SegmentMetadata;
+import org.apache.pinot.segment.spi.datasource.DataSource;
+import org.apache.pinot.segment.spi.datasource.DataSourceMetadata;
+import org.apache.pinot.segment.spi.index.reader.Dictionary;
+import org.apache.pinot.segment.spi.index.mutable.ThreadSafeMutableRoaringBitmap;
+import org.apache.pinot.segment.spi.index.startree.StarTreeV2;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+
+
+/**
+ * Tests for the segment eligibility of splitting into doc id ranges in {@link InstancePlanMakerImplV2}.
+ */
+public class DocIdRangePlanMakerTest {
+  private static final int NUM_DOCS = 100_000;
+  private static final int MIN_DOCS_PER_SEGMENT_RANGE = 10_000;
+  private static final int MAX_EXECUTION_THREADS = 4;
+
+  @DataProvider
+  public Object[][] queryProvider() {
+    return new Object[][]{
+        // Group-by
+        new Object[]{"SELECT col1, SUM(col2) FROM testTable GROUP BY col1", MAX_EXECUTION_THREADS},
+        new Object[]{"SELECT col1, COUNT(*) FROM testTable WHERE col2 > 5 GROUP BY col1", MAX_EXECUTION_THREADS},
+        // Aggregation that needs to scan the segment
+        new Object[]{"SELECT SUM(col2) FROM testTable WHERE col1 = 'a'", MAX_EXECUTION_THREADS},
+        // Selection-only
+        new Object[]{"SELECT col1, col2 FROM testTable LIMIT 100", MAX_EXECUTION_THREADS},
+        new Object[]{"SELECT * FROM testTable WHERE col2 > 5 LIMIT 100", MAX_EXECUTION_THREADS},
+        // Selection with LIMIT 0 only processes one segment to get the data schema
+        new Object[]{"SELECT col1 FROM testTable LIMIT 0", 1},
+        // Selection order-by relies on the segment level min/max values and sorted columns
+        new Object[]{"SELECT col1, col2 FROM testTable ORDER BY col2 LIMIT 100", 1},
+        // Distinct can be solved with the dictionary
+        new Object[]{"SELECT DISTINCT col1 FROM testTable", 1},
+        // Unfiltered aggregation that can be solved with the metadata or dictionary
+        new Object[]{"SELECT COUNT(*) FROM testTable", 1},
+        new Object[]{"SELECT MAX(col1), DISTINCTCOUNT(col1) FROM testTable", 1},
+        // Unfiltered aggregation that needs to scan the segment
+        new Object[]{"SELECT SUM(col2) FROM testTable", MAX_EXECUTION_THREADS},
+        new Object[]{"SELECT SUM(col1) FROM testTable", MAX_EXECUTION_THREADS},
+        new Object[]{"SELECT COUNT(*), MAX(col2) FROM testTable", MAX_EXECUTION_THREADS},
+        // Filtered COUNT can be solved with the index based count
+        new Object[]{"SELECT COUNT(*) FROM testTable WHERE col1 = 'a'", 1},
+        // Each filtered aggregation has its own filter
+        new Object[]{"SELECT SUM(col2) FILTER(WHERE col1 = 'a') FROM testTable WHERE col2 > 5", 1}
+    };
+  }
+
+  @Test(dataProvider = "queryProvider")
+  public void testGetNumDocIdRanges(String query, int expectedNumDocIdRanges) {
+    IndexSegment indexSegment = mockSegment(ImmutableSegment.class, NUM_DOCS);
+    assertEquals(InstancePlanMakerImplV2.getNumDocIdRanges(indexSegment, getQueryContext(query)),
+        expectedNumDocIdRanges);
+  }
+
+  @Test
+  public void testNumDocIdRangesBounds() {
+    String query = "SELECT col1, SUM(col2) FROM testTable GROUP BY col1";
+
+    // Not enabled
+    QueryContext queryContext = QueryContextConverterUtils.getQueryContext(query);
+    assertEquals(InstancePlanMakerImplV2.getNumDocIdRanges(mockSegment(ImmutableSegment.class, NUM_DOCS),
+        queryContext), 1);
+
+    // Segment not large enough
+    assertEquals(InstancePlanMakerImplV2.getNumDocIdRanges(
+        mockSegment(ImmutableSegment.class, 2 * MIN_DOCS_PER_SEGMENT_RANGE - 1), getQueryContext(query)), 1);
+
+    // Bounded by the number of docs
+    assertEquals(InstancePlanMakerImplV2.getNumDocIdRanges(
+        mockSegment(ImmutableSegment.class, 3 * MIN_DOCS_PER_SEGMENT_RANGE), getQueryContext(query)), 3);
+  }
+
+  @Test
+  public void testIneligibleSegments() {
+    String query = "SELECT col1, SUM(col2) FROM testTable GROUP BY col1";
+
+    // Mutable segment keeps growing while consuming
+    assertEquals(InstancePlanMakerImplV2.getNumDocIdRanges(mockSegment(MutableSegment.class, NUM_DOCS),
+        getQueryContext(query)), 1);
+
+    // Upsert segment needs a consistent valid docs snapshot across the ranges
+    IndexSegment upsertSegment = mockSegment(ImmutableSegment.class, NUM_DOCS);
+    when(upsertSegment.getValidDocIds()).thenReturn(new ThreadSafeMutableRoaringBitmap());
+    assertEquals(InstancePlanMakerImplV2.getNumDocIdRanges(upsertSegment, getQueryContext(query)), 1);
+    QueryContext queryContext = getQueryContext(query);
+    queryContext.setSkipUpsert(true);
+    assertEquals(InstancePlanMakerImplV2.getNumDocIdRanges(upsertSegment, queryContext), MAX_EXECUTION_THREADS);
+
+    // Star-tree documents are not the segment documents
+    IndexSegment starTreeSegment = mockSegment(ImmutableSegment.class, NUM_DOCS);
+    when(starTreeSegment.getStarTrees()).thenReturn(Collections.singletonList(mock(StarTreeV2.class)));
+    assertEquals(InstancePlanMakerImplV2.getNumDocIdRanges(starTreeSegment, getQueryContext(query)), 1);
+    queryContext = getQueryContext(query);
+    queryContext.setSkipStarTree(true);
+    assertEquals(InstancePlanMakerImplV2.getNumDocIdRanges(starTreeSegment, queryContext), MAX_EXECUTION_THREADS);
+  }
+
+  private static QueryContext getQueryContext(String query) {
+    QueryContext queryContext = QueryContextConverterUtils.getQueryContext(query);
+    queryContext.setMinDocsPerSegmentRange(MIN_DOCS_PER_SEGMENT_RANGE);
+    queryContext.setMaxExecutionThreads(MAX_EXECUTION_THREADS);
+    return queryContext;
+  }
+
+  private static IndexSegment mockSegment(Class<? extends IndexSegment> segmentClass, int numDocs) {
+    IndexSegment indexSegment = mock(segmentClass);
+    SegmentMetadata segmentMetadata = mock(SegmentMetadata.class);
+    when(segmentMetadata.getTotalDocs()).thenReturn(numDocs);
+    when(indexSegment.getSegmentMetadata()).thenReturn(segmentMetadata);
+    when(indexSegment.getStarTrees()).thenReturn(null);
+    // col1 is dictionary encoded with min/max value, col2 is raw without min/max value
+    DataSourceMetadata col1Metadata = mock(DataSourceMetadata.class);
+    when(col1Metadata.getMinValue()).thenReturn("a");
+    when(col1Metadata.getMaxValue()).thenReturn("z");
+    DataSource col1DataSource = mock(DataSource.class);
+    when(col1DataSource.getDataSourceMetadata()).thenReturn(col1Metadata);
+    when(col1DataSource.getDictionary()).thenReturn(mock(Dictionary.class));
+    when(indexSegment.getDataSource("col1")).thenReturn(col1DataSource);
+    DataSource col2DataSource = mock(DataSource.class);
+    when(col2DataSource.getDataSourceMetadata()).thenReturn(mock(DataSourceMetadata.class));
+    when(indexSegment.getDataSource("col2")).thenReturn(col2DataSource);
+    return indexSegment;
+  }
+}
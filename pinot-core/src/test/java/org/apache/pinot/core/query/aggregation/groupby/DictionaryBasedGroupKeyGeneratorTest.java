@@ -219,6 +219,31 @@ public class DictionaryBasedGroupKeyGeneratorTest {
     testGetGroupKeys(dictionaryBasedGroupKeyGenerator.getGroupKeys(), 2);
   }
 
+  @Test
+  public void testOffHeapLongMapBasedSingleValue() {
+    // Cardinality product (10,000,000,000) larger than Integer.MAX_VALUE but smaller than LONG.MAX_VALUE
+    String[] groupByColumns = {"s1", "s2", "s3", "s4", "s5"};
+
+    // Test initial status
+    DictionaryBasedGroupKeyGenerator dictionaryBasedGroupKeyGenerator =
+        new DictionaryBasedGroupKeyGenerator(_projectOperator, getExpressions(groupByColumns),
+            InstancePlanMakerImplV2.DEFAULT_NUM_GROUPS_LIMIT,
+            InstancePlanMakerImplV2.DEFAULT_MAX_INITIAL_RESULT_HOLDER_CAPACITY, true);
+    try {
+      assertEquals(dictionaryBasedGroupKeyGenerator.getGlobalGroupKeyUpperBound(),
+          InstancePlanMakerImplV2.DEFAULT_NUM_GROUPS_LIMIT, _errorMessage);
+      assertEquals(dictionaryBasedGroupKeyGenerator.getCurrentGroupKeyUpperBound(), 0, _errorMessage);
+
+      // Test group key generation
+      dictionaryBasedGroupKeyGenerator.generateKeysForBlock(_valueBlock, SV_GROUP_KEY_BUFFER);
+      assertEquals(dictionaryBasedGroupKeyGenerator.getCurrentGroupKeyUpperBound(), 2, _errorMessage);
+      compareSingleValueBuffer();
+      testGetGroupKeys(dictionaryBasedGroupKeyGenerator.getGroupKeys(), 2);
+    } finally {
+      dictionaryBasedGroupKeyGenerator.close();
+    }
+  }
+
   @Test
   public void testArrayMapBasedSingleValue() {
     // Cardinality product larger than Long.MAX_VALUE
@@ -320,6 +345,33 @@ public class DictionaryBasedGroupKeyGeneratorTest {
     testGetGroupKeys(dictionaryBasedGroupKeyGenerator.getGroupKeys(), numUniqueKeys);
   }
 
+  @Test
+  public void testOffHeapLongMapBasedMultiValue() {
+    // Cardinality product (10,000,000,000 - 1,000,000,000,000) larger than Integer.MAX_VALUE but smaller than LONG
+    // .MAX_VALUE
+    String[] groupByColumns = {"m1", "m2", "s1", "s2", "s3"};
+
+    // Test initial status
+    DictionaryBasedGroupKeyGenerator dictionaryBasedGroupKeyGenerator =
+        new DictionaryBasedGroupKeyGenerator(_projectOperator, getExpressions(groupByColumns),
+            InstancePlanMakerImplV2.DEFAULT_NUM_GROUPS_LIMIT,
+            InstancePlanMakerImplV2.DEFAULT_MAX_INITIAL_RESULT_HOLDER_CAPACITY, true);
+    try {
+      assertEquals(dictionaryBasedGroupKeyGenerator.getGlobalGroupKeyUpperBound(),
+          InstancePlanMakerImplV2.DEFAULT_NUM_GROUPS_LIMIT, _errorMessage);
+      assertEquals(dictionaryBasedGroupKeyGenerator.getCurrentGroupKeyUpperBound(), 0, _errorMessage);
+
+      // Test group key generation
+      dictionaryBasedGroupKeyGenerator.generateKeysForBlock(_valueBlock, MV_GROUP_KEY_BUFFER);
+      int numUniqueKeys = MV_GROUP_KEY_BUFFER[0].length + MV_GROUP_KEY_BUFFER[1].length;
+      assertEquals(dictionaryBasedGroupKeyGenerator.getCurrentGroupKeyUpperBound(), numUniqueKeys, _errorMessage);
+      compareMultiValueBuffer();
+      testGetGroupKeys(dictionaryBasedGroupKeyGenerator.getGroupKeys(), numUniqueKeys);
+    } finally {
+      dictionaryBasedGroupKeyGenerator.close();
+    }
+  }
+
   @Test
   public void testArrayMapBasedMultiValue() {
     // Cardinality product larger than Long.MAX_VALUE
@@ -94,6 +94,29 @@ public class DoubleGroupByResultHolderTest {
     testValues(resultHolder, _expected, 0, MAX_CAPACITY);
   }
 
+  /**
+   * This test is for the GroupByResultHolder.clearResults api.
+   * - Fills the result holder with a set of values.
+   * - Clears the results for the filled group keys.
+   * - Checks that the result holder contains {@ref #DEFAULT_VALUE} and can be filled again.
+   */
+  @Test
+  void testClearResults() {
+    GroupByResultHolder resultHolder = new DoubleGroupByResultHolder(INITIAL_CAPACITY, MAX_CAPACITY, DEFAULT_VALUE);
+
+    for (int i = 0; i < INITIAL_CAPACITY; i++) {
+      resultHolder.setValueForKey(i, _expected[i]);
+    }
+
+    resultHolder.clearResults(INITIAL_CAPACITY);
+    for (int i = 0; i < INITIAL_CAPACITY; i++) {
+      Assert.assertEquals(resultHolder.getDoubleResult(i), DEFAULT_VALUE);
+      resultHolder.setValueForKey(i, _expected[i]);
+    }
+
+    testValues(resultHolder, _expected, 0, INITIAL_CAPACITY);
+  }
+
   /**
    * Helper method to test values within resultHolder against the provided expected values array.
    *
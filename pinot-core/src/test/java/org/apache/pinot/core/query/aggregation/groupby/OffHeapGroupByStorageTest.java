@@ -0,0 +1,195 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.aggregation.groupby;
+
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.query.request.context.utils.QueryContextConverterUtils;
+import org.apache.pinot.segment.local.customobject.AvgPair;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+
+
+/**
+ * Tests for the off-heap group-by storage: {@link OffHeapLongGroupIdMap}, {@link OffHeapDoubleGroupByResultHolder} and
+ * {@link OffHeapAvgPairGroupByResultHolder}.
+ */
+public class OffHeapGroupByStorageTest {
+  private static final long RANDOM_SEED = System.nanoTime();
+  private static final Random RANDOM = new Random(RANDOM_SEED);
+  private static final String ERROR_MESSAGE = "Random seed: " + RANDOM_SEED;
+
+  @Test
+  public void testLongGroupIdMap() {
+    int numKeys = 10_000;
+    int groupIdUpperBound = 5_000;
+    Long2IntOpenHashMap expected = new Long2IntOpenHashMap();
+    expected.defaultReturnValue(GroupKeyGenerator.INVALID_ID);
+    // Start with a small capacity to exercise the expansion
+    try (OffHeapLongGroupIdMap groupIdMap = new OffHeapLongGroupIdMap(4)) {
+      for (int i = 0; i < numKeys; i++) {
+        long rawKey = RANDOM.nextLong() & (Long.MAX_VALUE - 1);
+        int groupId = groupIdMap.getGroupId(rawKey, groupIdUpperBound);
+        int expectedGroupId = expected.get(rawKey);
+        if (expectedGroupId == GroupKeyGenerator.INVALID_ID && expected.size() < groupIdUpperBound) {
+          expectedGroupId = expected.size();
+          expected.put(rawKey, expectedGroupId);
+        }
+        assertEquals(groupId, expectedGroupId, ERROR_MESSAGE);
+        // Looking up the same key again should return the same group id
+        assertEquals(groupIdMap.getGroupId(rawKey, groupIdUpperBound), expectedGroupId, ERROR_MESSAGE);
+        assertEquals(groupIdMap.get(rawKey), expectedGroupId, ERROR_MESSAGE);
+      }
+      assertEquals(groupIdMap.size(), expected.size(), ERROR_MESSAGE);
+
+      // Raw key 0 should not collide with the empty slots
+      int groupIdForZero = groupIdMap.get(0L);
+      assertEquals(groupIdForZero, expected.get(0L), ERROR_MESSAGE);
+
+      Iterator<OffHeapLongGroupIdMap.Entry> iterator = groupIdMap.iterator();
+      int numEntries = 0;
+      while (iterator.hasNext()) {
+        OffHeapLongGroupIdMap.Entry entry = iterator.next();
+        assertEquals(entry._groupId, expected.get(entry._rawKey), ERROR_MESSAGE);
+        numEntries++;
+      }
+      assertEquals(numEntries, expected.size(), ERROR_MESSAGE);
+    }
+  }
+
+  @Test
+  public void testLongGroupIdMapZeroKey() {
+    try (OffHeapLongGroupIdMap groupIdMap = new OffHeapLongGroupIdMap()) {
+      assertEquals(groupIdMap.get(0L), GroupKeyGenerator.INVALID_ID);
+      assertEquals(groupIdMap.getGroupId(0L, 10), 0);
+      assertEquals(groupIdMap.getGroupId(Long.MAX_VALUE - 1, 10), 1);
+      assertEquals(groupIdMap.get(0L), 0);
+      assertEquals(groupIdMap.get(Long.MAX_VALUE - 1), 1);
+      Iterator<OffHeapLongGroupIdMap.Entry> iterator = groupIdMap.iterator();
+      assertEquals(iterator.next()._rawKey + iterator.next()._rawKey, Long.MAX_VALUE - 1);
+      assertFalse(iterator.hasNext());
+    }
+  }
+
+  @Test
+  public void testDoubleResultHolder() {
+    int initialCapacity = 100;
+    int maxCapacity = 1000;
+    double defaultValue = Double.NEGATIVE_INFINITY;
+    double[] expected = new double[maxCapacity];
+    try (OffHeapDoubleGroupByResultHolder resultHolder = new OffHeapDoubleGroupByResultHolder(initialCapacity,
+        maxCapacity, defaultValue)) {
+      for (int i = 0; i < initialCapacity; i++) {
+        assertEquals(resultHolder.getDoubleResult(i), defaultValue, ERROR_MESSAGE);
+        expected[i] = RANDOM.nextDouble();
+        resultHolder.setValueForKey(i, expected[i]);
+      }
+
+      resultHolder.ensureCapacity(maxCapacity);
+      for (int i = initialCapacity; i < maxCapacity; i++) {
+        assertEquals(resultHolder.getDoubleResult(i), defaultValue, ERROR_MESSAGE);
+        expected[i] = RANDOM.nextDouble();
+        resultHolder.setValueForKey(i, expected[i]);
+      }
+      for (int i = 0; i < maxCapacity; i++) {
+        assertEquals(resultHolder.getDoubleResult(i), expected[i], ERROR_MESSAGE);
+      }
+
+      // Invalid group id should be ignored
+      resultHolder.setValueForKey(GroupKeyGenerator.INVALID_ID, 1.0);
+      assertEquals(resultHolder.getDoubleResult(GroupKeyGenerator.INVALID_ID), defaultValue);
+
+      // Cleared results should be reset to the default value
+      resultHolder.clearResults(maxCapacity);
+      for (int i = 0; i < maxCapacity; i++) {
+        assertEquals(resultHolder.getDoubleResult(i), defaultValue, ERROR_MESSAGE);
+      }
+    }
+  }
+
+  @Test
+  public void testAvgPairResultHolder() {
+    int initialCapacity = 10;
+    int maxCapacity = 100;
+    double[] expectedSums = new double[maxCapacity];
+    long[] expectedCounts = new long[maxCapacity];
+    try (OffHeapAvgPairGroupByResultHolder resultHolder = new OffHeapAvgPairGroupByResultHolder(initialCapacity,
+        maxCapacity)) {
+      for (int i = 0; i < initialCapacity; i++) {
+        assertNull(resultHolder.getResult(i));
+      }
+      resultHolder.ensureCapacity(maxCapacity);
+      for (int i = 0; i < 1000; i++) {
+        int groupKey = RANDOM.nextInt(maxCapacity);
+        double value = RANDOM.nextDouble();
+        resultHolder.apply(groupKey, value, 1L);
+        expectedSums[groupKey] += value;
+        expectedCounts[groupKey]++;
+      }
+      // Explicitly set an empty pair, which should be distinguishable from no result
+      resultHolder.setValueForKey(0, new AvgPair(0.0, 0L));
+      expectedSums[0] = 0.0;
+      expectedCounts[0] = 0L;
+
+      for (int i = 0; i < maxCapacity; i++) {
+        AvgPair avgPair = resultHolder.getResult(i);
+        if (i != 0 && expectedCounts[i] == 0) {
+          assertNull(avgPair, ERROR_MESSAGE);
+        } else {
+          assertEquals(avgPair.getSum(), expectedSums[i], 1e-9, ERROR_MESSAGE);
+          assertEquals(avgPair.getCount(), expectedCounts[i], ERROR_MESSAGE);
+        }
+      }
+      assertNull(resultHolder.getResult(GroupKeyGenerator.INVALID_ID));
+
+      // Cleared results should have no result
+      resultHolder.clearResults(maxCapacity);
+      for (int i = 0; i < maxCapacity; i++) {
+        assertNull(resultHolder.getResult(i), ERROR_MESSAGE);
+      }
+    }
+  }
+
+  @Test
+  public void testReleaseResources() {
+    QueryContext queryContext = QueryContextConverterUtils.getQueryContext(
+        "SELECT SUM(column1) FROM testTable GROUP BY column2 OPTION(enableOffHeapGroupBy=true)");
+    OffHeapDoubleGroupByResultHolder resultHolder = new OffHeapDoubleGroupByResultHolder(10, 100, 0.0);
+    OffHeapLongGroupIdMap groupIdMap = new OffHeapLongGroupIdMap();
+    AtomicInteger numReleased = new AtomicInteger();
+    queryContext.registerResourceToRelease(resultHolder);
+    queryContext.registerResourceToRelease(groupIdMap);
+    queryContext.registerResourceToRelease(numReleased::incrementAndGet);
+
+    // Resources already closed by the operator should be safe to be released again
+    resultHolder.close();
+    queryContext.releaseResources();
+    assertEquals(numReleased.get(), 1);
+
+    // Released resources should be unregistered
+    queryContext.releaseResources();
+    assertEquals(numReleased.get(), 1);
+  }
+}
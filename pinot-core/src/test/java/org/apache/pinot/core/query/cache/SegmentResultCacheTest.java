@@ -0,0 +1,103 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.cache;
+
+import java.util.List;
+import org.apache.pinot.common.metrics.ServerGauge;
+import org.apache.pinot.common.metrics.ServerMetrics;
+import org.apache.pinot.segment.spi.ImmutableSegment;
+import org.apache.pinot.segment.spi.IndexSegment;
+import org.apache.pinot.segment.spi.SegmentMetadata;
+import org.mockito.ArgumentCaptor;
+import org.testng.annotations.Test;
+
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+
+public class SegmentResultCacheTest {
+
+  @Test
+  public void testGetKey() {
+    String queryKey = "testTable|filter:null";
+    String key = SegmentResultCache.getKey(mockSegment("segment", 123L, 1000L), queryKey);
+    // Key should not depend on the segment instance so that the entries can be shared across the instances of the same
+    // segment
+    assertEquals(SegmentResultCache.getKey(mockSegment("segment", 123L, 1000L), queryKey), key);
+    // Replaced or regenerated segment should not share the entries
+    assertNotEquals(SegmentResultCache.getKey(mockSegment("segment", 456L, 1000L), queryKey), key);
+    assertNotEquals(SegmentResultCache.getKey(mockSegment("segment", 123L, 2000L), queryKey), key);
+    assertNotEquals(SegmentResultCache.getKey(mockSegment("segment2", 123L, 1000L), queryKey), key);
+  }
+
+  @Test
+  public void testSizeInBytes() {
+    // Use single entry size of 100 bytes (2 * 10 bytes key + 80 bytes value)
+    int entrySize = 100;
+    long maxSizeInBytes = 1000;
+    SegmentResultCache segmentResultCache = new SegmentResultCache(maxSizeInBytes);
+    ServerMetrics serverMetrics = mock(ServerMetrics.class);
+    segmentResultCache.setServerMetrics(serverMetrics);
+
+    // Entry larger than 1/10 of the cache should not be cached
+    assertFalse(segmentResultCache.put("largeEntry", new byte[81]));
+    assertNull(segmentResultCache.get("largeEntry"));
+    assertEquals(segmentResultCache.getSizeInBytes(), 0);
+
+    // Evicted entries should be excluded from the size
+    for (int i = 0; i < 100; i++) {
+      assertTrue(segmentResultCache.put(String.format("entry%05d", i), new byte[80]));
+      assertTrue(segmentResultCache.getSizeInBytes() <= maxSizeInBytes);
+      assertEquals(segmentResultCache.getSizeInBytes(), segmentResultCache.getNumEntries() * entrySize);
+    }
+    ArgumentCaptor<Long> sizeCaptor = ArgumentCaptor.forClass(Long.class);
+    verify(serverMetrics, atLeastOnce()).setValueOfGlobalGauge(eq(ServerGauge.SEGMENT_RESULT_CACHE_SIZE_BYTES),
+        sizeCaptor.capture());
+    List<Long> sizes = sizeCaptor.getAllValues();
+    assertEquals((long) sizes.get(sizes.size() - 1), segmentResultCache.getSizeInBytes());
+
+    // Replaced entry should not be double counted
+    String key = String.format("entry%05d", 99);
+    assertTrue(segmentResultCache.put(key, new byte[80]));
+    assertEquals(segmentResultCache.getSizeInBytes(), segmentResultCache.getNumEntries() * entrySize);
+
+    segmentResultCache.invalidateAll();
+    assertEquals(segmentResultCache.getNumEntries(), 0);
+    assertEquals(segmentResultCache.getSizeInBytes(), 0);
+    verify(serverMetrics).setValueOfGlobalGauge(ServerGauge.SEGMENT_RESULT_CACHE_SIZE_BYTES, 0L);
+  }
+
+  private static IndexSegment mockSegment(String segmentName, long crc, long creationTime) {
+    IndexSegment indexSegment = mock(ImmutableSegment.class);
+    SegmentMetadata segmentMetadata = mock(SegmentMetadata.class);
+    when(indexSegment.getSegmentName()).thenReturn(segmentName);
+    when(segmentMetadata.getCrc()).thenReturn(Long.toString(crc));
+    when(segmentMetadata.getIndexCreationTime()).thenReturn(creationTime);
+    when(indexSegment.getSegmentMetadata()).thenReturn(segmentMetadata);
+    return indexSegment;
+  }
+}
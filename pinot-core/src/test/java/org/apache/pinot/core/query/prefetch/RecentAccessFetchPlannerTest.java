@@ -0,0 +1,121 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.prefetch;
+
+import com.google.common.collect.ImmutableSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.query.request.context.utils.QueryContextConverterUtils;
+import org.apache.pinot.segment.spi.FetchContext;
+import org.apache.pinot.segment.spi.IndexSegment;
+import org.apache.pinot.segment.spi.SegmentMetadata;
+import org.apache.pinot.segment.spi.datasource.DataSource;
+import org.apache.pinot.segment.spi.index.IndexType;
+import org.apache.pinot.segment.spi.index.StandardIndexes;
+import org.apache.pinot.segment.spi.index.reader.BloomFilterReader;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+
+public class RecentAccessFetchPlannerTest {
+  @Test
+  public void testPlanFetchForWarmup() {
+    RecentAccessFetchPlanner planner = new RecentAccessFetchPlanner();
+    IndexSegment queriedSegment = mockSegment("s0", "testTable");
+    IndexSegment loadedSegment = mockSegment("s1", "testTable");
+    IndexSegment otherTableSegment = mockSegment("s2", "otherTable");
+
+    // Nothing to warm up before any query
+    assertTrue(planner.planFetchForWarmup(loadedSegment).isEmpty());
+
+    String query = "SELECT c1 FROM testTable_OFFLINE WHERE c0 = 0 AND c2 = 1";
+    QueryContext queryContext = QueryContextConverterUtils.getQueryContext(query);
+    DataSource ds0 = mock(DataSource.class);
+    when(ds0.getBloomFilter()).thenReturn(mock(BloomFilterReader.class));
+    when(queriedSegment.getDataSource("c0")).thenReturn(ds0);
+    DataSource ds2 = mock(DataSource.class);
+    when(queriedSegment.getDataSource("c2")).thenReturn(ds2);
+    planner.planFetchForPruning(queriedSegment, queryContext);
+
+    // Columns only accessed for pruning only warm up the bloom filter
+    FetchContext fetchContext = planner.planFetchForWarmup(loadedSegment);
+    assertEquals(fetchContext.getSegmentName(), "s1");
+    Map<String, List<IndexType<?, ?, ?>>> columns = fetchContext.getColumnToIndexList();
+    assertEquals(columns.size(), 1);
+    assertEquals(columns.get("c0"), Collections.singletonList(StandardIndexes.bloomFilter()));
+
+    // Columns accessed for processing warm up all the indexes
+    planner.planFetchForProcessing(queriedSegment, queryContext);
+    columns = planner.planFetchForWarmup(loadedSegment).getColumnToIndexList();
+    assertEquals(columns.size(), 3);
+    assertNull(columns.get("c0"));
+    assertNull(columns.get("c1"));
+    assertNull(columns.get("c2"));
+
+    // Accesses are tracked per table
+    assertTrue(planner.planFetchForWarmup(otherTableSegment).isEmpty());
+  }
+
+  @Test
+  public void testAccessWindow() {
+    RecentAccessFetchPlanner planner = new RecentAccessFetchPlanner(-1L);
+    IndexSegment queriedSegment = mockSegment("s0", "testTable");
+    QueryContext queryContext = QueryContextConverterUtils.getQueryContext("SELECT c1 FROM testTable");
+    planner.planFetchForProcessing(queriedSegment, queryContext);
+    // Accesses out of the window are not warmed up
+    assertTrue(planner.planFetchForWarmup(mockSegment("s1", "testTable")).isEmpty());
+  }
+
+  @Test
+  public void testRecordAccessOncePerQuery() {
+    RecentAccessFetchPlanner planner = new RecentAccessFetchPlanner();
+    IndexSegment firstSegment = mockSegment("s0", "testTable");
+    when(firstSegment.getPhysicalColumnNames()).thenReturn(ImmutableSet.of("c0"));
+    QueryContext queryContext = QueryContextConverterUtils.getQueryContext("SELECT * FROM testTable");
+    planner.planFetchForProcessing(firstSegment, queryContext);
+    // Accesses are only recorded for the first segment planned by the query
+    planner.planFetchForProcessing(mockSegment("s1", "testTable"), queryContext);
+    Map<String, List<IndexType<?, ?, ?>>> columns =
+        planner.planFetchForWarmup(mockSegment("s2", "testTable")).getColumnToIndexList();
+    assertEquals(columns.keySet(), ImmutableSet.of("c0"));
+
+    // Another query records its own accesses
+    planner.planFetchForProcessing(mockSegment("s1", "testTable"),
+        QueryContextConverterUtils.getQueryContext("SELECT * FROM testTable"));
+    columns = planner.planFetchForWarmup(mockSegment("s2", "testTable")).getColumnToIndexList();
+    assertEquals(columns.keySet(), ImmutableSet.of("c0", "c1", "c2"));
+  }
+
+  private static IndexSegment mockSegment(String segmentName, String tableName) {
+    IndexSegment indexSegment = mock(IndexSegment.class);
+    when(indexSegment.getSegmentName()).thenReturn(segmentName);
+    SegmentMetadata segmentMetadata = mock(SegmentMetadata.class);
+    when(segmentMetadata.getTableName()).thenReturn(tableName);
+    when(indexSegment.getSegmentMetadata()).thenReturn(segmentMetadata);
+    when(indexSegment.getPhysicalColumnNames()).thenReturn(ImmutableSet.of("c0", "c1", "c2"));
+    return indexSegment;
+  }
+}
@@ -0,0 +1,55 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.selection;
+
+import java.util.Comparator;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+
+public class SelectionOrderByBoundaryTest {
+
+  @Test
+  public void testUpdate() {
+    // ORDER BY col1 ASC, col2 DESC
+    Comparator<Object[]> comparator =
+        Comparator.<Object[], Integer>comparing(row -> (Integer) row[0]).thenComparing(row -> (String) row[1],
+            Comparator.reverseOrder());
+    SelectionOrderByBoundary boundary = new SelectionOrderByBoundary(comparator, 2);
+    assertNull(boundary.get());
+
+    // Only the order-by values should be kept
+    boundary.update(new Object[]{5, "b", 1.0});
+    assertEquals(boundary.get(), new Object[]{5, "b"});
+
+    // Worse rows should not replace the boundary
+    boundary.update(new Object[]{6, "z", 2.0});
+    assertEquals(boundary.get(), new Object[]{5, "b"});
+    boundary.update(new Object[]{5, "a", 3.0});
+    assertEquals(boundary.get(), new Object[]{5, "b"});
+
+    // Better rows should replace the boundary
+    boundary.update(new Object[]{5, "c", 4.0});
+    assertEquals(boundary.get(), new Object[]{5, "c"});
+    boundary.update(new Object[]{1, "a", 5.0});
+    assertEquals(boundary.get(), new Object[]{1, "a"});
+  }
+}
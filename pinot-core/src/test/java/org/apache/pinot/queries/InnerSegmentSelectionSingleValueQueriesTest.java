@@ -18,6 +18,9 @@
  */
 package org.apache.pinot.queries;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -31,6 +34,7 @@ import org.apache.pinot.core.operator.query.EmptySelectionOperator;
 import org.apache.pinot.core.operator.query.SelectionPartiallyOrderedByAscOperator;
 import org.apache.pinot.core.operator.query.SelectionPartiallyOrderedByDescOperation;
 import org.apache.pinot.spi.accounting.ThreadResourceUsageProvider;
+import org.apache.pinot.spi.utils.CommonConstants.Broker.Request.QueryOptionKey;
 import org.testng.annotations.Test;
 
 import static org.testng.Assert.assertEquals;
@@ -613,4 +617,34 @@ public class InnerSegmentSelectionSingleValueQueriesTest extends BaseSingleValue
     assertEquals(brokerResponse.getOfflineThreadCpuTimeNs(), 0);
     assertEquals(brokerResponse.getRealtimeThreadCpuTimeNs(), 0);
   }
+
+  @Test
+  public void testSelectionOnlyWithDocIdRanges() {
+    // Split each segment into doc id ranges, which should not change the results and the statistics
+    String query = SELECTION_QUERY + FILTER + " LIMIT 1000000";
+    Map<String, String> queryOptions = Collections.singletonMap(QueryOptionKey.MIN_DOCS_PER_SEGMENT_RANGE, "5000");
+    BrokerResponseNative expectedBrokerResponse = getBrokerResponse(query);
+    BrokerResponseNative brokerResponse = getBrokerResponse(query, queryOptions);
+    assertEquals(brokerResponse.getNumDocsScanned(), expectedBrokerResponse.getNumDocsScanned());
+    assertEquals(brokerResponse.getTotalDocs(), expectedBrokerResponse.getTotalDocs());
+    assertEquals(brokerResponse.getNumSegmentsProcessed(), expectedBrokerResponse.getNumSegmentsProcessed());
+    assertEquals(brokerResponse.getNumSegmentsMatched(), expectedBrokerResponse.getNumSegmentsMatched());
+    // Selection-only query does not guarantee the order of the rows
+    assertEquals(getSortedRows(brokerResponse), getSortedRows(expectedBrokerResponse));
+
+    // Query should be early terminated when enough rows are collected
+    brokerResponse = getBrokerResponse(SELECTION_QUERY + " LIMIT 10", queryOptions);
+    assertEquals(brokerResponse.getResultTable().getRows().size(), 10);
+    assertTrue(brokerResponse.getNumDocsScanned() < brokerResponse.getTotalDocs());
+  }
+
+  private static List<String> getSortedRows(BrokerResponseNative brokerResponse) {
+    List<Object[]> rows = brokerResponse.getResultTable().getRows();
+    List<String> sortedRows = new ArrayList<>(rows.size());
+    for (Object[] row : rows) {
+      sortedRows.add(Arrays.toString(row));
+    }
+    Collections.sort(sortedRows);
+    return sortedRows;
+  }
 }
@@ -27,10 +27,13 @@ import org.apache.pinot.common.response.broker.ResultTable;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
 import org.apache.pinot.core.common.ObjectSerDeUtils;
+import org.apache.pinot.core.plan.DocIdSetPlanNode;
 import org.apache.pinot.core.plan.maker.InstancePlanMakerImplV2;
 import org.apache.pinot.spi.utils.BytesUtils;
+import org.apache.pinot.spi.utils.CommonConstants.Broker.Request.QueryOptionKey;
 import org.testng.annotations.Test;
 
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
@@ -43,6 +46,25 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
   // Allow 2% quantile error due to the randomness of KLL merge
   private static final double PERCENTILE_KLL_DELTA = 0.02 * Integer.MAX_VALUE;
 
+  @Test
+  public void testAdaptiveMaxDocsPerCall() {
+    String query = "SELECT SUM(column1), SUM(column3) FROM testTable";
+    assertEquals(getBrokerResponse(query).getAdaptiveMaxDocsPerCall(), 0);
+
+    // Narrow aggregation should keep the largest block size
+    BrokerResponseNative brokerResponse =
+        getBrokerResponse(query, Collections.singletonMap(QueryOptionKey.ENABLE_ADAPTIVE_MAX_DOCS_PER_CALL, "true"));
+    assertEquals(brokerResponse.getAdaptiveMaxDocsPerCall(), DocIdSetPlanNode.MAX_DOC_PER_CALL);
+
+    // Wide projection should pick a smaller block size
+    query = "SELECT COUNT(*) FROM testTable GROUP BY column1, column5, column6, column7, column9, column11, column12";
+    brokerResponse =
+        getBrokerResponse(query, Collections.singletonMap(QueryOptionKey.ENABLE_ADAPTIVE_MAX_DOCS_PER_CALL, "true"));
+    int adaptiveMaxDocsPerCall = brokerResponse.getAdaptiveMaxDocsPerCall();
+    assertTrue(adaptiveMaxDocsPerCall >= DocIdSetPlanNode.MIN_ADAPTIVE_DOC_PER_CALL
+        && adaptiveMaxDocsPerCall < DocIdSetPlanNode.MAX_DOC_PER_CALL, "Got: " + adaptiveMaxDocsPerCall);
+  }
+
   @Test
   public void testCount() {
     String query = "SELECT COUNT(*) FROM testTable";
@@ -22,13 +22,17 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import org.apache.pinot.common.response.broker.BrokerResponseNative;
 import org.apache.pinot.common.response.broker.ResultTable;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
 import org.apache.pinot.core.plan.maker.InstancePlanMakerImplV2;
+import org.apache.pinot.spi.utils.CommonConstants.Broker.Request.QueryOptionKey;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
+import static org.testng.Assert.assertEquals;
+
 
 /**
  * Tests order by queries
@@ -54,6 +58,28 @@ public class InterSegmentGroupBySingleValueQueriesTest extends BaseSingleValueQu
         expectedNumEntriesScannedPostFilter, 120000L, expectedResultTable);
   }
 
+  @Test(dataProvider = "groupByOrderByDataProvider")
+  public void testGroupByOrderByWithDocIdRanges(String query, long expectedNumEntriesScannedPostFilter,
+      ResultTable expectedResultTable) {
+    // Split each segment into doc id ranges, which should not change the results and the statistics
+    BrokerResponseNative brokerResponse = getBrokerResponse(query,
+        Collections.singletonMap(QueryOptionKey.MIN_DOCS_PER_SEGMENT_RANGE, "5000"));
+    QueriesTestUtils.testInterSegmentsResult(brokerResponse, 120000L, 0L, expectedNumEntriesScannedPostFilter, 120000L,
+        expectedResultTable);
+    assertEquals(brokerResponse.getNumSegmentsProcessed(), 4L);
+    assertEquals(brokerResponse.getNumSegmentsMatched(), 4L);
+  }
+
+  @Test(dataProvider = "groupByOrderByDataProvider")
+  public void testGroupByOrderByWithOffHeapGroupBy(String query, long expectedNumEntriesScannedPostFilter,
+      ResultTable expectedResultTable) {
+    // Off-heap group-by storage should not change the results, and should be released when the query finishes
+    BrokerResponseNative brokerResponse = getBrokerResponse(query,
+        Collections.singletonMap(QueryOptionKey.ENABLE_OFF_HEAP_GROUP_BY, "true"));
+    QueriesTestUtils.testInterSegmentsResult(brokerResponse, 120000L, 0L, expectedNumEntriesScannedPostFilter, 120000L,
+        expectedResultTable);
+  }
+
   /**
    * Provides various combinations of order by in ResultTable.
    * In order to calculate the expected results, the results from a group by were taken, and then ordered accordingly.
@@ -0,0 +1,89 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.queries;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.pinot.common.response.broker.BrokerResponseNative;
+import org.apache.pinot.core.plan.maker.InstancePlanMakerImplV2;
+import org.apache.pinot.spi.env.PinotConfiguration;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+
+
+/**
+ * Tests that the queries served from the segment result cache return the same results as the regular execution.
+ */
+public class SegmentResultCacheQueriesTest extends BaseSingleValueQueriesTest {
+
+  @DataProvider
+  public Object[][] queryProvider() {
+    return new Object[][]{
+        new Object[]{"SELECT COUNT(*), SUM(column1), MAX(column3), DISTINCTCOUNTHLL(column6) FROM testTable"},
+        new Object[]{
+            "SELECT COUNT(*), MIN(column1), PERCENTILE(column6, 90) FROM testTable WHERE column3 > 1000000000"
+        },
+        new Object[]{
+            "SELECT SUM(column1) FILTER(WHERE column11 = 'P'), AVG(column3) FROM testTable WHERE column1 > 100000000"
+        },
+        new Object[]{"SELECT column11, SUM(column1) FROM testTable GROUP BY column11 ORDER BY column11"},
+        new Object[]{
+            "SELECT column11, column12, MAX(column6), DISTINCTCOUNT(column3) FROM testTable WHERE column1 > 100000000 "
+                + "GROUP BY column11, column12 ORDER BY MAX(column6) DESC, column11, column12 LIMIT 20"
+        }
+    };
+  }
+
+  @Test(dataProvider = "queryProvider")
+  public void testSegmentResultCache(String query) {
+    testSegmentResultCache(query, getPlanMaker(false));
+  }
+
+  @Test(dataProvider = "queryProvider")
+  public void testSegmentResultCacheWithSegmentGroupTrim(String query) {
+    testSegmentResultCache(query, getPlanMaker(true));
+  }
+
+  private void testSegmentResultCache(String query, InstancePlanMakerImplV2 planMaker) {
+    BrokerResponseNative expectedResponse = getBrokerResponse(query);
+
+    // First execution populates the cache
+    QueriesTestUtils.testInterSegmentsResult(getBrokerResponse(query, planMaker), expectedResponse.getResultTable());
+
+    // Second execution is served from the cache without scanning any entry
+    BrokerResponseNative cachedResponse = getBrokerResponse(query, planMaker);
+    QueriesTestUtils.testInterSegmentsResult(cachedResponse, expectedResponse.getNumDocsScanned(), 0L, 0L,
+        expectedResponse.getTotalDocs(), expectedResponse.getResultTable());
+    assertEquals(cachedResponse.getNumSegmentsProcessed(), expectedResponse.getNumSegmentsProcessed());
+    assertEquals(cachedResponse.getNumSegmentsMatched(), expectedResponse.getNumSegmentsMatched());
+  }
+
+  private static InstancePlanMakerImplV2 getPlanMaker(boolean segmentGroupTrim) {
+    Map<String, Object> properties = new HashMap<>();
+    properties.put(InstancePlanMakerImplV2.SEGMENT_RESULT_CACHE_SIZE_BYTES_KEY, 10_000_000L);
+    if (segmentGroupTrim) {
+      properties.put(InstancePlanMakerImplV2.MIN_SEGMENT_GROUP_TRIM_SIZE_KEY, 5);
+    }
+    InstancePlanMakerImplV2 planMaker = new InstancePlanMakerImplV2();
+    planMaker.init(new PinotConfiguration(properties));
+    return planMaker;
+  }
+}
@@ -0,0 +1,188 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.queries;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.response.broker.BrokerResponseNative;
+import org.apache.pinot.core.operator.blocks.results.SelectionResultsBlock;
+import org.apache.pinot.core.operator.query.SelectionOrderByOperator;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.query.request.context.utils.QueryContextConverterUtils;
+import org.apache.pinot.segment.local.indexsegment.immutable.ImmutableSegmentLoader;
+import org.apache.pinot.segment.local.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import org.apache.pinot.segment.local.segment.readers.GenericRowRecordReader;
+import org.apache.pinot.segment.spi.ImmutableSegment;
+import org.apache.pinot.segment.spi.IndexSegment;
+import org.apache.pinot.segment.spi.creator.SegmentGeneratorConfig;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.utils.CommonConstants.Broker.Request.QueryOptionKey;
+import org.apache.pinot.spi.utils.ReadMode;
+import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+
+/**
+ * Queries test for the segment and row pruning based on the selection order-by boundary shared across the segments.
+ * <p>The low segment has values [0, 1000) and the high segment has values [1000, 2000) for the INT column, stored
+ * in a non-sorted order so that the rows are processed with the {@link SelectionOrderByOperator}.
+ */
+public class SelectionOrderByBoundaryQueriesTest extends BaseQueriesTest {
+  private static final File INDEX_DIR = new File(FileUtils.getTempDirectory(), "SelectionOrderByBoundaryQueriesTest");
+  private static final String RAW_TABLE_NAME = "testTable";
+  private static final String LOW_SEGMENT_NAME = "lowSegment";
+  private static final String HIGH_SEGMENT_NAME = "highSegment";
+
+  private static final int NUM_RECORDS = 1000;
+  private static final int LIMIT = 10;
+
+  private static final String INT_COLUMN = "intColumn";
+  private static final String STRING_COLUMN = "stringColumn";
+  private static final Schema SCHEMA = new Schema.SchemaBuilder().addSingleValueDimension(INT_COLUMN, DataType.INT)
+      .addSingleValueDimension(STRING_COLUMN, DataType.STRING).build();
+  private static final TableConfig TABLE_CONFIG =
+      new TableConfigBuilder(TableType.OFFLINE).setTableName(RAW_TABLE_NAME).build();
+
+  private IndexSegment _lowSegment;
+  private IndexSegment _highSegment;
+
+  @Override
+  protected String getFilter() {
+    return "";
+  }
+
+  @Override
+  protected IndexSegment getIndexSegment() {
+    return _lowSegment;
+  }
+
+  @Override
+  protected List<IndexSegment> getIndexSegments() {
+    // The second low segment can prune its rows with the boundary from the first one
+    return Arrays.asList(_lowSegment, _lowSegment, _highSegment);
+  }
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteDirectory(INDEX_DIR);
+    _lowSegment = buildSegment(LOW_SEGMENT_NAME, 0);
+    _highSegment = buildSegment(HIGH_SEGMENT_NAME, NUM_RECORDS);
+  }
+
+  private ImmutableSegment buildSegment(String segmentName, int baseValue)
+      throws Exception {
+    List<GenericRow> records = new ArrayList<>(NUM_RECORDS);
+    for (int i = 0; i < NUM_RECORDS; i++) {
+      // Shuffle the values so that the column is not sorted
+      int value = baseValue + (i * 7) % NUM_RECORDS;
+      GenericRow record = new GenericRow();
+      record.putValue(INT_COLUMN, value);
+      record.putValue(STRING_COLUMN, "s" + value);
+      records.add(record);
+    }
+
+    SegmentGeneratorConfig segmentGeneratorConfig = new SegmentGeneratorConfig(TABLE_CONFIG, SCHEMA);
+    segmentGeneratorConfig.setTableName(RAW_TABLE_NAME);
+    segmentGeneratorConfig.setSegmentName(segmentName);
+    segmentGeneratorConfig.setOutDir(INDEX_DIR.getPath());
+
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    driver.init(segmentGeneratorConfig, new GenericRowRecordReader(records));
+    driver.build();
+
+    return ImmutableSegmentLoader.load(new File(INDEX_DIR, segmentName), ReadMode.mmap);
+  }
+
+  @Test
+  public void testSegmentSkipping() {
+    testSegmentSkipping("SELECT intColumn FROM testTable ORDER BY intColumn LIMIT " + LIMIT);
+    testSegmentSkipping("SELECT intColumn, stringColumn FROM testTable ORDER BY intColumn LIMIT " + LIMIT);
+  }
+
+  private void testSegmentSkipping(String query) {
+    // Run the operators sequentially with the same query context so that they share the boundary
+    QueryContext queryContext = QueryContextConverterUtils.getQueryContext(query);
+
+    // The first segment fills up the boundary without pruning
+    SelectionOrderByOperator lowOperator = getOperator(_lowSegment, queryContext);
+    SelectionResultsBlock resultsBlock = lowOperator.nextBlock();
+    assertEquals(resultsBlock.getNumRows(), LIMIT);
+    assertEquals(lowOperator.getExecutionStatistics().getNumDocsScanned(), NUM_RECORDS);
+    assertEquals(queryContext.getNumSegmentsPrunedByOrderByBoundary(), 0);
+    assertEquals(queryContext.getNumDocsPrunedByOrderByBoundary(), 0L);
+
+    // The min value of the high segment (1000) cannot beat the boundary (9), so the segment should be skipped
+    SelectionOrderByOperator highOperator = getOperator(_highSegment, queryContext);
+    resultsBlock = highOperator.nextBlock();
+    assertEquals(resultsBlock.getNumRows(), 0);
+    assertEquals(highOperator.getExecutionStatistics().getNumDocsScanned(), 0);
+    assertEquals(highOperator.getExecutionStatistics().getNumEntriesScannedPostFilter(), 0L);
+    assertEquals(queryContext.getNumSegmentsPrunedByOrderByBoundary(), 1);
+    assertEquals(queryContext.getNumDocsPrunedByOrderByBoundary(), 0L);
+
+    // The low segment overlaps with the boundary, so it is scanned but only the rows with value < 9 are kept
+    SelectionOrderByOperator overlappingOperator = getOperator(_lowSegment, queryContext);
+    resultsBlock = overlappingOperator.nextBlock();
+    assertEquals(resultsBlock.getNumRows(), LIMIT - 1);
+    assertEquals(overlappingOperator.getExecutionStatistics().getNumDocsScanned(), NUM_RECORDS);
+    assertEquals(queryContext.getNumSegmentsPrunedByOrderByBoundary(), 1);
+    assertEquals(queryContext.getNumDocsPrunedByOrderByBoundary(), NUM_RECORDS - LIMIT + 1);
+  }
+
+  private SelectionOrderByOperator getOperator(IndexSegment indexSegment, QueryContext queryContext) {
+    return (SelectionOrderByOperator) PLAN_MAKER.makeSegmentPlanNode(indexSegment, queryContext).run();
+  }
+
+  @Test
+  public void testPrunedStatsInBrokerResponse() {
+    // Process the segments sequentially so that the boundary is shared deterministically
+    BrokerResponseNative brokerResponse =
+        getBrokerResponse("SELECT intColumn, stringColumn FROM testTable ORDER BY intColumn LIMIT " + LIMIT,
+            Collections.singletonMap(QueryOptionKey.MAX_EXECUTION_THREADS, "1"));
+    List<Object[]> rows = brokerResponse.getResultTable().getRows();
+    assertEquals(rows.size(), LIMIT);
+    for (int i = 0; i < LIMIT; i++) {
+      assertEquals(rows.get(i)[0], i / 4);
+    }
+    // Each of the 2 servers prunes the rows of the second low segment
+    assertEquals(brokerResponse.getNumDocsPrunedByOrderByBoundary(), 2L * (NUM_RECORDS - LIMIT + 1));
+    assertTrue(brokerResponse.getNumDocsScanned() >= 4L * NUM_RECORDS);
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _lowSegment.destroy();
+    _highSegment.destroy();
+    FileUtils.deleteQuietly(INDEX_DIR);
+  }
+}
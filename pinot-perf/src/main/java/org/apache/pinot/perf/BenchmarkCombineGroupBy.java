@@ -21,7 +21,6 @@ package org.apache.pinot.perf;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
@@ -29,11 +28,13 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeoutException;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.core.data.table.ConcurrentIndexedTable;
 import org.apache.pinot.core.data.table.IndexedTable;
+import org.apache.pinot.core.data.table.PartitionedIndexedTable;
 import org.apache.pinot.core.data.table.Record;
 import org.apache.pinot.core.plan.maker.InstancePlanMakerImplV2;
 import org.apache.pinot.core.query.request.context.QueryContext;
@@ -44,6 +45,7 @@ import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Fork;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
@@ -57,11 +59,13 @@ import org.openjdk.jmh.runner.options.TimeValue;
 @State(Scope.Benchmark)
 @Fork(value = 1, jvmArgs = {"-server", "-Xmx8G", "-XX:MaxDirectMemorySize=16G"})
 public class BenchmarkCombineGroupBy {
-  private static final int NUM_SEGMENTS = 4;
   private static final int NUM_RECORDS_PER_SEGMENT = 100_000;
   private static final int CARDINALITY_D1 = 500;
   private static final int CARDINALITY_D2 = 500;
-  private static final Random RANDOM = new Random();
+
+  // Each thread processes one segment
+  @Param({"1", "4", "8", "16", "32"})
+  private int _numThreads;
 
   private QueryContext _queryContext;
   private DataSchema _dataSchema;
@@ -94,7 +98,7 @@ public class BenchmarkCombineGroupBy {
         DataSchema.ColumnDataType.DOUBLE
     });
 
-    _executorService = Executors.newFixedThreadPool(10);
+    _executorService = Executors.newFixedThreadPool(_numThreads);
   }
 
   @TearDown
@@ -103,9 +107,11 @@ public class BenchmarkCombineGroupBy {
   }
 
   private Record getRecord() {
+    // NOTE: Use ThreadLocalRandom to avoid contention on the random generator across the threads
+    ThreadLocalRandom random = ThreadLocalRandom.current();
     Object[] columns = new Object[]{
-        _d1.get(RANDOM.nextInt(_d1.size())), _d2.get(RANDOM.nextInt(_d2.size())), (double) RANDOM.nextInt(
-        1000), (double) RANDOM.nextInt(1000)
+        _d1.get(random.nextInt(_d1.size())), _d2.get(random.nextInt(_d2.size())), (double) random.nextInt(
+        1000), (double) random.nextInt(1000)
     };
     return new Record(columns);
   }
@@ -121,11 +127,11 @@ public class BenchmarkCombineGroupBy {
     IndexedTable concurrentIndexedTable = new ConcurrentIndexedTable(_dataSchema, _queryContext, trimSize, trimSize,
         InstancePlanMakerImplV2.DEFAULT_GROUPBY_TRIM_THRESHOLD);
 
-    List<Callable<Void>> innerSegmentCallables = new ArrayList<>(NUM_SEGMENTS);
+    List<Callable<Void>> innerSegmentCallables = new ArrayList<>(_numThreads);
 
-    // 10 parallel threads putting 10k records into the table
+    // numThreads parallel threads putting 100k records into the table
 
-    for (int i = 0; i < NUM_SEGMENTS; i++) {
+    for (int i = 0; i < _numThreads; i++) {
 
       Callable<Void> callable = () -> {
 
@@ -145,6 +151,51 @@ public class BenchmarkCombineGroupBy {
     concurrentIndexedTable.finish(false);
   }
 
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public void partitionedIndexedTableForCombineGroupBy()
+      throws InterruptedException, ExecutionException, TimeoutException {
+    int trimSize = GroupByUtils.getTableCapacity(_queryContext.getLimit());
+
+    // make 1 partitioned table with one partition per thread
+    PartitionedIndexedTable partitionedIndexedTable =
+        new PartitionedIndexedTable(_dataSchema, _queryContext, trimSize, trimSize,
+            InstancePlanMakerImplV2.DEFAULT_GROUPBY_TRIM_THRESHOLD, _numThreads, _numThreads);
+
+    // Phase 1: numThreads parallel threads putting 100k records into their own partitions
+    List<Callable<Void>> innerSegmentCallables = new ArrayList<>(_numThreads);
+    for (int i = 0; i < _numThreads; i++) {
+      int workerId = i;
+      Callable<Void> callable = () -> {
+        for (int r = 0; r < NUM_RECORDS_PER_SEGMENT; r++) {
+          Record record = getRecord();
+          partitionedIndexedTable.upsert(workerId, record);
+        }
+        return null;
+      };
+      innerSegmentCallables.add(callable);
+    }
+    for (Future<Void> future : _executorService.invokeAll(innerSegmentCallables)) {
+      future.get(30, TimeUnit.SECONDS);
+    }
+
+    // Phase 2: merge the partitions in parallel
+    List<Callable<Void>> mergeCallables = new ArrayList<>(_numThreads);
+    for (int i = 0; i < _numThreads; i++) {
+      int partitionId = i;
+      mergeCallables.add(() -> {
+        partitionedIndexedTable.mergePartition(partitionId);
+        return null;
+      });
+    }
+    for (Future<Void> future : _executorService.invokeAll(mergeCallables)) {
+      future.get(30, TimeUnit.SECONDS);
+    }
+
+    partitionedIndexedTable.finish(false);
+  }
+
   public static void main(String[] args)
       throws Exception {
     ChainedOptionsBuilder opt =
@@ -24,6 +24,10 @@ import java.nio.ByteBuffer;
 import java.util.concurrent.TimeUnit;
 import net.jpountz.lz4.LZ4Factory;
 import org.apache.commons.lang3.RandomUtils;
+import org.apache.pinot.segment.local.io.compression.ChunkCompressorFactory;
+import org.apache.pinot.segment.spi.compression.ChunkCompressionType;
+import org.apache.pinot.segment.spi.compression.ChunkCompressor;
+import org.apache.pinot.segment.spi.compression.ChunkDecompressor;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Fork;
@@ -47,12 +51,17 @@ import org.xerial.snappy.Snappy;
 @Warmup(iterations = 3)
 @Measurement(iterations = 5)
 @State(Scope.Benchmark)
-// Test to get memory statistics for snappy, zstandard and lz4 long compression techniques
+// Test to get memory statistics for snappy, zstandard, lz4 and lightweight integer (FOR, DELTA, DELTA_DELTA) long
+// compression techniques
 public class BenchmarkNoDictionaryLongCompression {
 
   @Param({"500000", "1000000", "2000000", "3000000", "4000000", "5000000"})
   public static int _rowLength;
 
+  // RANDOM: uniformly distributed longs, MONOTONIC: increasing timestamps with some jitter
+  @Param({"RANDOM", "MONOTONIC"})
+  public static String _distribution;
+
   @State(Scope.Thread)
   public static class BenchmarkNoDictionaryLongCompressionState {
 
@@ -70,6 +79,16 @@ public class BenchmarkNoDictionaryLongCompression {
 
     private static LZ4Factory _factory;
 
+    private static ChunkCompressor _forCompressor;
+    private static ChunkCompressor _deltaCompressor;
+    private static ChunkCompressor _deltaDeltaCompressor;
+    private static ChunkDecompressor _integerCodecDecompressor;
+    private static ByteBuffer _forCompressedLongInput;
+    private static ByteBuffer _deltaCompressedLongInput;
+    private static ByteBuffer _deltaDeltaCompressedLongInput;
+    private static ByteBuffer _integerCodecCompressedLongOutput;
+    private static ByteBuffer _integerCodecLongDecompressed;
+
     @Setup(Level.Invocation)
     public void setUp()
         throws Exception {
@@ -84,6 +103,12 @@ public class BenchmarkNoDictionaryLongCompression {
       // position for lz4 is required
       _uncompressedLong.flip();
       _factory.fastCompressor().compress(_uncompressedLong, _lz4CompressedLongInput);
+      _uncompressedLong.flip();
+      _forCompressor.compress(_uncompressedLong, _forCompressedLongInput);
+      _uncompressedLong.flip();
+      _deltaCompressor.compress(_uncompressedLong, _deltaCompressedLongInput);
+      _uncompressedLong.flip();
+      _deltaDeltaCompressor.compress(_uncompressedLong, _deltaDeltaCompressedLongInput);
 
       _zstandardLongDecompressedOutput.rewind();
       _zstandardCompressedLongInput.flip();
@@ -95,8 +120,16 @@ public class BenchmarkNoDictionaryLongCompression {
     private void generateRandomLongBuffer() {
       //Generate Random Long
       _uncompressedLong = ByteBuffer.allocateDirect(_rowLength * Long.BYTES);
-      for (int i = 0; i < _rowLength; i++) {
-        _uncompressedLong.putLong(RandomUtils.nextLong());
+      if ("MONOTONIC".equals(_distribution)) {
+        long timestamp = System.currentTimeMillis();
+        for (int i = 0; i < _rowLength; i++) {
+          timestamp += 1000 + RandomUtils.nextInt(0, 10);
+          _uncompressedLong.putLong(timestamp);
+        }
+      } else {
+        for (int i = 0; i < _rowLength; i++) {
+          _uncompressedLong.putLong(RandomUtils.nextLong());
+        }
       }
       _uncompressedLong.flip();
     }
@@ -104,6 +137,11 @@ public class BenchmarkNoDictionaryLongCompression {
     private void initializeCompressors() {
       //Initialize compressors and decompressors for lz4
       _factory = LZ4Factory.fastestInstance();
+      //Initialize compressors and decompressor for the lightweight integer codecs
+      _forCompressor = ChunkCompressorFactory.getCompressor(ChunkCompressionType.FOR, Long.BYTES);
+      _deltaCompressor = ChunkCompressorFactory.getCompressor(ChunkCompressionType.DELTA, Long.BYTES);
+      _deltaDeltaCompressor = ChunkCompressorFactory.getCompressor(ChunkCompressionType.DELTA_DELTA, Long.BYTES);
+      _integerCodecDecompressor = ChunkCompressorFactory.getDecompressor(ChunkCompressionType.FOR);
     }
 
     private void allocateBufferMemory() {
@@ -116,6 +154,12 @@ public class BenchmarkNoDictionaryLongCompression {
       _lz4LongDecompressed = ByteBuffer.allocateDirect(_uncompressedLong.capacity() * 2);
       _lz4CompressedLongOutput = ByteBuffer.allocateDirect(_uncompressedLong.capacity() * 2);
       _lz4CompressedLongInput = ByteBuffer.allocateDirect(_uncompressedLong.capacity() * 2);
+      int maxIntegerCodecCompressedSize = _forCompressor.maxCompressedSize(_uncompressedLong.capacity());
+      _forCompressedLongInput = ByteBuffer.allocateDirect(maxIntegerCodecCompressedSize);
+      _deltaCompressedLongInput = ByteBuffer.allocateDirect(maxIntegerCodecCompressedSize);
+      _deltaDeltaCompressedLongInput = ByteBuffer.allocateDirect(maxIntegerCodecCompressedSize);
+      _integerCodecCompressedLongOutput = ByteBuffer.allocateDirect(maxIntegerCodecCompressedSize);
+      _integerCodecLongDecompressed = ByteBuffer.allocateDirect(_uncompressedLong.capacity());
     }
 
     @TearDown(Level.Invocation)
@@ -127,6 +171,8 @@ public class BenchmarkNoDictionaryLongCompression {
       _zstandardLongDecompressedOutput.clear();
       _lz4CompressedLongOutput.clear();
       _lz4LongDecompressed.clear();
+      _integerCodecCompressedLongOutput.clear();
+      _integerCodecLongDecompressed.clear();
 
       _uncompressedLong.rewind();
       _zstandardCompressedLongInput.rewind();
@@ -210,6 +256,57 @@ public class BenchmarkNoDictionaryLongCompression {
     return state._lz4LongDecompressed.position();
   }
 
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public int benchmarkFORLongCompression(BenchmarkNoDictionaryLongCompressionState state)
+      throws IOException {
+    return state._forCompressor.compress(state._uncompressedLong, state._integerCodecCompressedLongOutput);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public int benchmarkFORLongDecompression(BenchmarkNoDictionaryLongCompressionState state)
+      throws IOException {
+    return state._integerCodecDecompressor.decompress(state._forCompressedLongInput,
+        state._integerCodecLongDecompressed);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public int benchmarkDeltaLongCompression(BenchmarkNoDictionaryLongCompressionState state)
+      throws IOException {
+    return state._deltaCompressor.compress(state._uncompressedLong, state._integerCodecCompressedLongOutput);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public int benchmarkDeltaLongDecompression(BenchmarkNoDictionaryLongCompressionState state)
+      throws IOException {
+    return state._integerCodecDecompressor.decompress(state._deltaCompressedLongInput,
+        state._integerCodecLongDecompressed);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public int benchmarkDeltaDeltaLongCompression(BenchmarkNoDictionaryLongCompressionState state)
+      throws IOException {
+    return state._deltaDeltaCompressor.compress(state._uncompressedLong, state._integerCodecCompressedLongOutput);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public int benchmarkDeltaDeltaLongDecompression(BenchmarkNoDictionaryLongCompressionState state)
+      throws IOException {
+    return state._integerCodecDecompressor.decompress(state._deltaDeltaCompressedLongInput,
+        state._integerCodecLongDecompressed);
+  }
+
   public static void main(String[] args)
       throws Exception {
     new Runner(new OptionsBuilder().include(BenchmarkNoDictionaryLongCompression.class.getSimpleName()).build()).run();
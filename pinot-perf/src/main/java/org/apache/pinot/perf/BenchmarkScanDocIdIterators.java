@@ -24,11 +24,18 @@ import java.util.Arrays;
 import java.util.concurrent.TimeUnit;
 import java.util.function.LongSupplier;
 import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.request.context.ExpressionContext;
 import org.apache.pinot.common.request.context.predicate.Predicate;
+import org.apache.pinot.common.request.context.predicate.RangePredicate;
 import org.apache.pinot.core.operator.dociditerators.SVScanDocIdIterator;
 import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
+import org.apache.pinot.core.operator.filter.predicate.RangePredicateEvaluatorFactory;
 import org.apache.pinot.segment.local.io.writer.impl.FixedBitSVForwardIndexWriter;
+import org.apache.pinot.segment.local.io.writer.impl.FixedByteChunkSVForwardIndexWriter;
 import org.apache.pinot.segment.local.segment.index.readers.forward.FixedBitSVForwardIndexReaderV2;
+import org.apache.pinot.segment.local.segment.index.readers.forward.FixedByteChunkSVForwardIndexReader;
+import org.apache.pinot.segment.spi.Constants;
+import org.apache.pinot.segment.spi.compression.ChunkCompressionType;
 import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
 import org.apache.pinot.spi.data.FieldSpec;
 import org.openjdk.jmh.annotations.Benchmark;
@@ -80,6 +87,9 @@ public class BenchmarkScanDocIdIterators {
   private FixedBitSVForwardIndexReaderV2 _readerV2;
   private ImmutableRoaringBitmap _bitmap;
   private PinotDataBuffer _dataBuffer;
+  private PredicateEvaluator _rawRangePredicateEvaluator;
+  private FixedByteChunkSVForwardIndexReader _rawReader;
+  private PinotDataBuffer _rawDataBuffer;
 
   @Setup(Level.Trial)
   public void setUp()
@@ -112,12 +122,28 @@ public class BenchmarkScanDocIdIterators {
     _bitmap = writer.get();
     _predicateEvaluator = new DummyPredicateEvaluator(sorted[_thresholdQuantile * sorted.length / 10]);
     _readerV2 = new FixedBitSVForwardIndexReaderV2(_dataBuffer, values.length, numBits);
+
+    File rawIndexFile = new File(INDEX_DIR, "raw-index-file");
+    try (FixedByteChunkSVForwardIndexWriter rawIndexWriter = new FixedByteChunkSVForwardIndexWriter(rawIndexFile,
+        ChunkCompressionType.PASS_THROUGH, _numDocs, 1000, Integer.BYTES, 3)) {
+      for (int i = 0; i < _numDocs; i++) {
+        rawIndexWriter.putInt(values[i]);
+      }
+    }
+    _rawDataBuffer = PinotDataBuffer.mapReadOnlyBigEndianFile(rawIndexFile);
+    _rawReader = new FixedByteChunkSVForwardIndexReader(_rawDataBuffer, FieldSpec.DataType.INT);
+    RangePredicate rangePredicate =
+        new RangePredicate(ExpressionContext.forIdentifier("col"), false, RangePredicate.UNBOUNDED, false,
+            Integer.toString(sorted[_thresholdQuantile * sorted.length / 10]));
+    _rawRangePredicateEvaluator =
+        RangePredicateEvaluatorFactory.newRawValueBasedEvaluator(rangePredicate, FieldSpec.DataType.INT);
   }
 
   @TearDown(Level.Trial)
   public void tearDown()
       throws Exception {
     _dataBuffer.close();
+    _rawDataBuffer.close();
     FileUtils.deleteDirectory(INDEX_DIR);
   }
 
@@ -126,6 +152,21 @@ public class BenchmarkScanDocIdIterators {
     return new SVScanDocIdIterator(_predicateEvaluator, _readerV2, _numDocs).applyAnd(_bitmap);
   }
 
+  @Benchmark
+  public MutableRoaringBitmap benchmarkSVRawIntRange() {
+    return new SVScanDocIdIterator(_rawRangePredicateEvaluator, _rawReader, _numDocs).applyAnd(_bitmap);
+  }
+
+  @Benchmark
+  public int benchmarkSVRawIntRangeFullScan() {
+    SVScanDocIdIterator iterator = new SVScanDocIdIterator(_rawRangePredicateEvaluator, _rawReader, _numDocs);
+    int numMatchingDocs = 0;
+    while (iterator.next() != Constants.EOF) {
+      numMatchingDocs++;
+    }
+    return numMatchingDocs;
+  }
+
   public static class DummyPredicateEvaluator implements PredicateEvaluator {
 
     private final int _threshold;
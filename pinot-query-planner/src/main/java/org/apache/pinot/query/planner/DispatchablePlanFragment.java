@@ -46,6 +46,10 @@ public class DispatchablePlanFragment {
   // used for passing custom properties to build StageMetadata on the server.
   private final Map<String, String> _customProperties;
 
+  // This is used at broker stage to explain the plan - whether each worker only sends data to the worker with the same
+  // worker id because the scanned table is partitioned.
+  private boolean _isPartitionedTableScan;
+
   public DispatchablePlanFragment(PlanFragment planFragment) {
     this(planFragment, new ArrayList<>(), new HashMap<>(), new HashMap<>());
   }
@@ -102,6 +106,14 @@ public class DispatchablePlanFragment {
     _workerIdToSegmentsMap.putAll(workerIdToSegmentsMap);
   }
 
+  public boolean isPartitionedTableScan() {
+    return _isPartitionedTableScan;
+  }
+
+  public void setPartitionedTableScan(boolean isPartitionedTableScan) {
+    _isPartitionedTableScan = isPartitionedTableScan;
+  }
+
   public void setWorkerMetadataList(List<WorkerMetadata> workerMetadataList) {
     _workerMetadataList.clear();
     _workerMetadataList.addAll(workerMetadataList);
@@ -197,6 +197,14 @@ public class PhysicalExplainPlanVisitor implements PlanNodeVisitor<StringBuilder
         _dispatchableSubPlan.getQueryStageList().get(receiverStageId)
             .getServerInstanceToWorkerIdMap();
     context._builder.append("->");
+    if (_dispatchableSubPlan.getQueryStageList().get(node.getPlanFragmentId()).isPartitionedTableScan()) {
+      // partitioned table scan only sends data to the worker with the same worker id
+      String receiver = servers.entrySet().stream()
+          .filter(e -> e.getValue().contains(context._workerId))
+          .map(e -> "[" + receiverStageId + "]@" + e.getKey() + "|[" + context._workerId + "]")
+          .collect(Collectors.joining(",", "{", "}"));
+      return context._builder.append(receiver).append(" (PARTITIONED)");
+    }
     String receivers = servers.entrySet().stream()
         .map(PhysicalExplainPlanVisitor::stringifyQueryServerInstanceToWorkerIdsEntry)
         .map(s -> "[" + receiverStageId + "]@" + s)
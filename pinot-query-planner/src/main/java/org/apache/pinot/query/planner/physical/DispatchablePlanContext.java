@@ -125,6 +125,7 @@ public class DispatchablePlanContext {
         dispatchablePlanFragment.setWorkerIdToSegmentsMap(workerIdToSegmentsMap);
       }
       dispatchablePlanFragment.setServerInstanceToWorkerIdMap(serverInstanceToWorkerIdsMap);
+      dispatchablePlanFragment.setPartitionedTableScan(dispatchablePlanMetadata.isPartitionedTableScan());
       Preconditions.checkState(dispatchablePlanMetadata.getScannedTables().size() <= 1,
           "More than one table is not supported yet");
       if (dispatchablePlanMetadata.getScannedTables().size() == 1) {
@@ -26,11 +26,14 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Random;
 import java.util.Set;
 import javax.annotation.Nullable;
+import org.apache.calcite.rel.RelDistribution;
 import org.apache.calcite.rel.hint.PinotHintOptions;
 import org.apache.commons.lang3.ArrayUtils;
+import org.apache.pinot.common.utils.config.QueryOptionsUtils;
 import org.apache.pinot.core.routing.RoutingManager;
 import org.apache.pinot.core.routing.RoutingTable;
 import org.apache.pinot.core.routing.TablePartitionInfo;
@@ -38,8 +41,16 @@ import org.apache.pinot.core.routing.TablePartitionInfo.PartitionInfo;
 import org.apache.pinot.core.routing.TimeBoundaryInfo;
 import org.apache.pinot.core.transport.ServerInstance;
 import org.apache.pinot.query.planner.PlanFragment;
+import org.apache.pinot.query.planner.logical.RexExpression;
+import org.apache.pinot.query.planner.partitioning.FieldSelectionKeySelector;
 import org.apache.pinot.query.planner.physical.DispatchablePlanContext;
 import org.apache.pinot.query.planner.physical.DispatchablePlanMetadata;
+import org.apache.pinot.query.planner.plannode.FilterNode;
+import org.apache.pinot.query.planner.plannode.JoinNode;
+import org.apache.pinot.query.planner.plannode.MailboxReceiveNode;
+import org.apache.pinot.query.planner.plannode.MailboxSendNode;
+import org.apache.pinot.query.planner.plannode.PlanNode;
+import org.apache.pinot.query.planner.plannode.ProjectNode;
 import org.apache.pinot.query.planner.plannode.TableScanNode;
 import org.apache.pinot.spi.config.table.TableType;
 import org.apache.pinot.spi.utils.CommonConstants.Broker.Request.QueryOptionKey;
@@ -242,8 +253,10 @@ public class WorkerManager {
 
   private void assignWorkersToIntermediateFragment(PlanFragment fragment, DispatchablePlanContext context) {
     List<PlanFragment> children = fragment.getChildren();
-    for (PlanFragment child : children) {
-      assignWorkersToNonRootFragment(child, context);
+    if (!assignWorkersToColocatedJoinInputs(fragment, context)) {
+      for (PlanFragment child : children) {
+        assignWorkersToNonRootFragment(child, context);
+      }
     }
 
     Map<Integer, DispatchablePlanMetadata> metadataMap = context.getDispatchablePlanMetadataMap();
@@ -299,6 +312,217 @@ public class WorkerManager {
     }
   }
 
+  /**
+   * Tries to assign the workers of the 2 leaf fragments feeding a JOIN in the given fragment so that each partition of
+   * both tables is scanned and joined on the same server, in which case the hash exchange between the leaf fragments
+   * and the JOIN becomes a 1-to-1 local exchange. This is possible when both tables are partitioned on the join key
+   * with the same partition function and number of partitions, and the segments of each partition of both tables are
+   * fully replicated on at least one common enabled server.
+   *
+   * @return {@code true} if the workers of the leaf fragments are assigned, {@code false} otherwise
+   */
+  private boolean assignWorkersToColocatedJoinInputs(PlanFragment fragment, DispatchablePlanContext context) {
+    List<PlanFragment> children = fragment.getChildren();
+    if (children.size() != 2 || !QueryOptionsUtils.isInferPartitionedJoin(
+        context.getPlannerContext().getOptions())) {
+      return false;
+    }
+    JoinNode joinNode = findJoinNode(fragment.getFragmentRoot());
+    if (joinNode == null) {
+      return false;
+    }
+    Map<Integer, DispatchablePlanMetadata> metadataMap = context.getDispatchablePlanMetadataMap();
+    PlanFragment[] inputFragments = new PlanFragment[2];
+    for (int i = 0; i < 2; i++) {
+      int senderStageId = ((MailboxReceiveNode) joinNode.getInputs().get(i)).getSenderStageId();
+      for (PlanFragment child : children) {
+        if (child.getFragmentId() == senderStageId) {
+          inputFragments[i] = child;
+        }
+      }
+      if (inputFragments[i] == null || !inputFragments[i].getChildren().isEmpty()) {
+        return false;
+      }
+      DispatchablePlanMetadata inputMetadata = metadataMap.get(senderStageId);
+      if (!isLeafPlan(inputMetadata) || (inputMetadata.getTableOptions() != null
+          && inputMetadata.getTableOptions().containsKey(PinotHintOptions.TableHintOptions.PARTITION_KEY))) {
+        return false;
+      }
+    }
+
+    // Find a pair of join keys where both sides are the partition column of the scanned table
+    List<String> leftKeys = getScanColumnsForPartitionKeys(inputFragments[0]);
+    List<String> rightKeys = getScanColumnsForPartitionKeys(inputFragments[1]);
+    if (leftKeys == null || rightKeys == null || leftKeys.size() != rightKeys.size()) {
+      return false;
+    }
+    String leftTableName = metadataMap.get(inputFragments[0].getFragmentId()).getScannedTables().get(0);
+    String rightTableName = metadataMap.get(inputFragments[1].getFragmentId()).getScannedTables().get(0);
+    List<TablePartitionInfo> leftPartitionInfos = getTablePartitionInfos(leftTableName);
+    List<TablePartitionInfo> rightPartitionInfos = getTablePartitionInfos(rightTableName);
+    if (leftPartitionInfos == null || rightPartitionInfos == null) {
+      return false;
+    }
+    TablePartitionInfo partitionInfo = leftPartitionInfos.get(0);
+    int keyIndex = leftKeys.indexOf(partitionInfo.getPartitionColumn());
+    if (keyIndex < 0 || !isCopartitioned(leftPartitionInfos, partitionInfo, leftKeys.get(keyIndex))
+        || !isCopartitioned(rightPartitionInfos, partitionInfo, rightKeys.get(keyIndex))) {
+      return false;
+    }
+
+    int numPartitions = partitionInfo.getNumPartitions();
+    ColocatedTableInfo leftTableInfo;
+    ColocatedTableInfo rightTableInfo;
+    try {
+      leftTableInfo = getColocatedTableInfo(leftTableName, leftKeys.get(keyIndex), numPartitions);
+      rightTableInfo = getColocatedTableInfo(rightTableName, rightKeys.get(keyIndex), numPartitions);
+    } catch (IllegalStateException e) {
+      // Hybrid table without common server for the OFFLINE and REALTIME segments of a partition
+      LOGGER.debug("[RequestId: {}] Cannot colocate join between tables: {} and {}", context.getRequestId(),
+          leftTableName, rightTableName, e);
+      return false;
+    }
+
+    // Pick one server hosting both sides per partition
+    // TODO: Support the case when a partition doesn't contain any segment (see assignWorkersToPartitionedLeafFragment)
+    Map<String, ServerInstance> enabledServerInstanceMap = _routingManager.getEnabledServerInstanceMap();
+    Map<Integer, QueryServerInstance> workerIdToServerInstanceMap = new HashMap<>();
+    long indexToPick = context.getRequestId();
+    for (int i = 0; i < numPartitions; i++) {
+      ColocatedPartitionInfo leftPartitionInfo = leftTableInfo._partitionInfoMap[i];
+      ColocatedPartitionInfo rightPartitionInfo = rightTableInfo._partitionInfoMap[i];
+      if (leftPartitionInfo == null || rightPartitionInfo == null) {
+        return false;
+      }
+      Set<String> fullyReplicatedServers = new HashSet<>(leftPartitionInfo._fullyReplicatedServers);
+      fullyReplicatedServers.retainAll(rightPartitionInfo._fullyReplicatedServers);
+      ServerInstance serverInstance =
+          pickEnabledServer(fullyReplicatedServers, enabledServerInstanceMap, indexToPick++);
+      if (serverInstance == null) {
+        return false;
+      }
+      workerIdToServerInstanceMap.put(i, new QueryServerInstance(serverInstance));
+    }
+    assignWorkersToColocatedLeafFragment(metadataMap.get(inputFragments[0].getFragmentId()),
+        workerIdToServerInstanceMap, leftTableInfo);
+    assignWorkersToColocatedLeafFragment(metadataMap.get(inputFragments[1].getFragmentId()),
+        workerIdToServerInstanceMap, rightTableInfo);
+    LOGGER.debug("[RequestId: {}] Colocated join between tables: {} and {} on {} partitions", context.getRequestId(),
+        leftTableName, rightTableName, numPartitions);
+    return true;
+  }
+
+  private static void assignWorkersToColocatedLeafFragment(DispatchablePlanMetadata metadata,
+      Map<Integer, QueryServerInstance> workerIdToServerInstanceMap, ColocatedTableInfo colocatedTableInfo) {
+    Map<Integer, Map<String, List<String>>> workerIdToSegmentsMap = new HashMap<>();
+    for (int workerId = 0; workerId < workerIdToServerInstanceMap.size(); workerId++) {
+      workerIdToSegmentsMap.put(workerId, getSegmentsMap(colocatedTableInfo._partitionInfoMap[workerId]));
+    }
+    metadata.setWorkerIdToServerInstanceMap(workerIdToServerInstanceMap);
+    metadata.setWorkerIdToSegmentsMap(workerIdToSegmentsMap);
+    metadata.setTimeBoundaryInfo(colocatedTableInfo._timeBoundaryInfo);
+    metadata.setPartitionedTableScan(true);
+  }
+
+  /**
+   * Returns the JOIN node within the fragment with both inputs directly received from other fragments, or
+   * {@code null} if there is no such JOIN.
+   */
+  @Nullable
+  private static JoinNode findJoinNode(PlanNode node) {
+    if (node instanceof JoinNode) {
+      List<PlanNode> inputs = node.getInputs();
+      return inputs.get(0) instanceof MailboxReceiveNode && inputs.get(1) instanceof MailboxReceiveNode
+          ? (JoinNode) node : null;
+    }
+    if (node instanceof MailboxReceiveNode || node.getInputs().size() != 1) {
+      return null;
+    }
+    return findJoinNode(node.getInputs().get(0));
+  }
+
+  /**
+   * Resolves the hash partition keys of the exchange sending the leaf fragment data to the scanned columns, or returns
+   * {@code null} if any key is not a plain column of the scanned table.
+   */
+  @Nullable
+  private static List<String> getScanColumnsForPartitionKeys(PlanFragment leafFragment) {
+    MailboxSendNode sendNode = (MailboxSendNode) leafFragment.getFragmentRoot();
+    if (sendNode.getDistributionType() != RelDistribution.Type.HASH_DISTRIBUTED
+        || !(sendNode.getPartitionKeySelector() instanceof FieldSelectionKeySelector)) {
+      return null;
+    }
+    List<String> columns = new ArrayList<>();
+    for (int keyIndex : ((FieldSelectionKeySelector) sendNode.getPartitionKeySelector()).getColumnIndices()) {
+      int index = keyIndex;
+      PlanNode node = sendNode.getInputs().get(0);
+      while (!(node instanceof TableScanNode)) {
+        if (node instanceof ProjectNode) {
+          RexExpression project = ((ProjectNode) node).getProjects().get(index);
+          if (!(project instanceof RexExpression.InputRef)) {
+            return null;
+          }
+          index = ((RexExpression.InputRef) project).getIndex();
+        } else if (!(node instanceof FilterNode)) {
+          return null;
+        }
+        node = node.getInputs().get(0);
+      }
+      columns.add(((TableScanNode) node).getTableScanColumns().get(index));
+    }
+    return columns;
+  }
+
+  /**
+   * Returns the partition info for all the physical tables of the given table, or {@code null} if any of them is not
+   * partitioned or has segments with invalid partition.
+   */
+  @Nullable
+  private List<TablePartitionInfo> getTablePartitionInfos(String tableName) {
+    List<String> tableNamesWithType = new ArrayList<>(2);
+    if (TableNameBuilder.getTableTypeFromTableName(tableName) == null) {
+      for (TableType tableType : TableType.values()) {
+        String tableNameWithType = TableNameBuilder.forType(tableType).tableNameWithType(tableName);
+        if (_routingManager.routingExists(tableNameWithType)) {
+          tableNamesWithType.add(tableNameWithType);
+        }
+      }
+    } else {
+      tableNamesWithType.add(tableName);
+    }
+    if (tableNamesWithType.isEmpty()) {
+      return null;
+    }
+    List<TablePartitionInfo> tablePartitionInfos = new ArrayList<>(tableNamesWithType.size());
+    for (String tableNameWithType : tableNamesWithType) {
+      TablePartitionInfo tablePartitionInfo = _routingManager.getTablePartitionInfo(tableNameWithType);
+      if (tablePartitionInfo == null || !tablePartitionInfo.getSegmentsWithInvalidPartition().isEmpty()) {
+        return null;
+      }
+      tablePartitionInfos.add(tablePartitionInfo);
+    }
+    return tablePartitionInfos;
+  }
+
+  /**
+   * Returns whether all the given partition infos are partitioned on the given column with the same partition function
+   * (name, number of partitions and function config) as the expected partition info.
+   */
+  private static boolean isCopartitioned(List<TablePartitionInfo> tablePartitionInfos,
+      TablePartitionInfo expectedPartitionInfo, String partitionColumn) {
+    for (TablePartitionInfo tablePartitionInfo : tablePartitionInfos) {
+      if (!tablePartitionInfo.getPartitionColumn().equals(partitionColumn)
+          || tablePartitionInfo.getNumPartitions() != expectedPartitionInfo.getNumPartitions()
+          || !tablePartitionInfo.getPartitionFunctionName()
+          .equalsIgnoreCase(expectedPartitionInfo.getPartitionFunctionName())
+          || !Objects.equals(tablePartitionInfo.getPartitionFunctionConfig(),
+          expectedPartitionInfo.getPartitionFunctionConfig())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   private ColocatedTableInfo getColocatedTableInfo(String tableName, String partitionKey, int numPartitions) {
     TableType tableType = TableNameBuilder.getTableTypeFromTableName(tableName);
     if (tableType == null) {
@@ -19,6 +19,7 @@
 package org.apache.pinot.query;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -29,6 +30,7 @@ import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 import org.apache.calcite.rel.RelDistribution;
+import org.apache.commons.lang3.tuple.Pair;
 import org.apache.pinot.query.planner.DispatchablePlanFragment;
 import org.apache.pinot.query.planner.DispatchableSubPlan;
 import org.apache.pinot.query.planner.PhysicalExplainPlanVisitor;
@@ -154,6 +156,59 @@ public class QueryCompilationTest extends QueryEnvironmentTestBase {
     }
   }
 
+  @Test
+  public void testQueryColocatedJoinOnPartitionedTables() {
+    Map<String, Pair<String, List<List<String>>>> partitionedSegmentsMap =
+        ImmutableMap.of("a_REALTIME", Pair.of("col1", ImmutableList.of(ImmutableList.of("a1"), ImmutableList.of("a2"))),
+            "b_REALTIME", Pair.of("col1", ImmutableList.of(ImmutableList.of("b1"), ImmutableList.of("b2"))));
+    QueryEnvironment queryEnvironment = getQueryEnvironment(3, 1, 2, TABLE_SCHEMAS,
+        ImmutableMap.of("a_REALTIME", ImmutableList.of("a1"), "b_REALTIME", ImmutableList.of("b1")),
+        ImmutableMap.of("a_REALTIME", ImmutableList.of("a2"), "b_REALTIME", ImmutableList.of("b2")),
+        partitionedSegmentsMap);
+
+    // Both tables are partitioned on the join key, each partition is joined on the server hosting it
+    String query = "SELECT a.col1, b.col3 FROM a JOIN b ON a.col1 = b.col1 WHERE b.col3 > 0";
+    DispatchableSubPlan dispatchableSubPlan = queryEnvironment.planQuery(query);
+    Assert.assertEquals(dispatchableSubPlan.getQueryStageList().size(), 4);
+    for (int stageId = 1; stageId < dispatchableSubPlan.getQueryStageList().size(); stageId++) {
+      DispatchablePlanFragment dispatchablePlanFragment = dispatchableSubPlan.getQueryStageList().get(stageId);
+      Assert.assertEquals(dispatchablePlanFragment.isPartitionedTableScan(),
+          dispatchablePlanFragment.getTableName() != null);
+      Assert.assertEquals(dispatchablePlanFragment.getServerInstanceToWorkerIdMap().entrySet().stream()
+              .map(PhysicalExplainPlanVisitor::stringifyQueryServerInstanceToWorkerIdsEntry)
+              .collect(Collectors.toSet()),
+          ImmutableSet.of("localhost@{1,1}|[0]", "localhost@{2,2}|[1]"));
+    }
+    String explainedPlan = queryEnvironment.explainQuery("EXPLAIN IMPLEMENTATION PLAN FOR " + query, 0);
+    Assert.assertTrue(explainedPlan.contains(
+        "[2]@localhost:1 MAIL_SEND(HASH_DISTRIBUTED)->{[1]@localhost@{1,1}|[0]} (PARTITIONED)"), explainedPlan);
+    Assert.assertTrue(explainedPlan.contains(
+        "[3]@localhost:2 MAIL_SEND(HASH_DISTRIBUTED)->{[1]@localhost@{2,2}|[1]} (PARTITIONED)"), explainedPlan);
+
+    // Join key is not the partition column of both tables
+    dispatchableSubPlan = queryEnvironment.planQuery("SELECT a.col1, b.col3 FROM a JOIN b ON a.col1 = b.col2");
+    for (DispatchablePlanFragment dispatchablePlanFragment : dispatchableSubPlan.getQueryStageList()) {
+      Assert.assertFalse(dispatchablePlanFragment.isPartitionedTableScan());
+    }
+
+    // Colocated join disabled with query option
+    dispatchableSubPlan = queryEnvironment.planQuery("SET inferPartitionedJoin = false; " + query);
+    for (DispatchablePlanFragment dispatchablePlanFragment : dispatchableSubPlan.getQueryStageList()) {
+      Assert.assertFalse(dispatchablePlanFragment.isPartitionedTableScan());
+    }
+
+    // Same partition function name and number of partitions, but different partition function config
+    queryEnvironment = getQueryEnvironment(3, 1, 2, TABLE_SCHEMAS,
+        ImmutableMap.of("a_REALTIME", ImmutableList.of("a1"), "b_REALTIME", ImmutableList.of("b1")),
+        ImmutableMap.of("a_REALTIME", ImmutableList.of("a2"), "b_REALTIME", ImmutableList.of("b2")),
+        partitionedSegmentsMap, ImmutableMap.of("a_REALTIME", ImmutableMap.of("columnValues", "foo|bar"),
+            "b_REALTIME", ImmutableMap.of("columnValues", "bar|foo")));
+    dispatchableSubPlan = queryEnvironment.planQuery(query);
+    for (DispatchablePlanFragment dispatchablePlanFragment : dispatchableSubPlan.getQueryStageList()) {
+      Assert.assertFalse(dispatchablePlanFragment.isPartitionedTableScan());
+    }
+  }
+
   @Test
   public void testQueryProjectFilterPushDownForJoin() {
     String query = "SELECT a.col1, a.ts, b.col2, b.col3 FROM a JOIN b ON a.col1 = b.col2 "
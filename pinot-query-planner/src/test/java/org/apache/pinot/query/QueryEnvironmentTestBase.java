@@ -171,6 +171,14 @@ public class QueryEnvironmentTestBase {
   public static QueryEnvironment getQueryEnvironment(int reducerPort, int port1, int port2,
       Map<String, Schema> schemaMap, Map<String, List<String>> segmentMap1, Map<String, List<String>> segmentMap2,
       @Nullable Map<String, Pair<String, List<List<String>>>> partitionedSegmentsMap) {
+    return getQueryEnvironment(reducerPort, port1, port2, schemaMap, segmentMap1, segmentMap2, partitionedSegmentsMap,
+        null);
+  }
+
+  public static QueryEnvironment getQueryEnvironment(int reducerPort, int port1, int port2,
+      Map<String, Schema> schemaMap, Map<String, List<String>> segmentMap1, Map<String, List<String>> segmentMap2,
+      @Nullable Map<String, Pair<String, List<List<String>>>> partitionedSegmentsMap,
+      @Nullable Map<String, Map<String, String>> partitionFunctionConfigMap) {
     MockRoutingManagerFactory factory = new MockRoutingManagerFactory(port1, port2);
     for (Map.Entry<String, Schema> entry : schemaMap.entrySet()) {
       factory.registerTable(entry.getValue(), entry.getKey());
@@ -201,8 +209,9 @@ public class QueryEnvironmentTestBase {
           partitionIdToInfoMap[i] = new PartitionInfo(Collections.singleton(hostname), partitionIdToSegmentsMap.get(i));
         }
         TablePartitionInfo tablePartitionInfo =
-            new TablePartitionInfo(tableNameWithType, partitionColumn, "hashCode", numPartitions, partitionIdToInfoMap,
-                Collections.emptySet());
+            new TablePartitionInfo(tableNameWithType, partitionColumn, "hashCode", numPartitions,
+                partitionFunctionConfigMap != null ? partitionFunctionConfigMap.get(tableNameWithType) : null,
+                partitionIdToInfoMap, Collections.emptySet());
         partitionInfoMap.put(tableNameWithType, tablePartitionInfo);
       }
     }
@@ -18,12 +18,14 @@
  */
 package org.apache.pinot.query.mailbox;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.protobuf.ByteString;
 import com.google.protobuf.UnsafeByteOperations;
 import io.grpc.stub.StreamObserver;
 import java.io.IOException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import org.apache.pinot.common.datablock.DataBlock;
 import org.apache.pinot.common.proto.Mailbox.MailboxContent;
 import org.apache.pinot.common.proto.PinotMailboxGrpc;
@@ -37,6 +39,10 @@ import org.slf4j.LoggerFactory;
 
 /**
  * gRPC implementation of the {@link SendingMailbox}. The gRPC stream is created on the first call to {@link #send}.
+ *
+ * <p>The blocks are sent with credit-based flow control (see {@link MailboxStatusObserver}), where {@link #send} waits
+ * for the receiver to consume the pending blocks when the pending bytes would exceed the max pending bytes. The credits
+ * are only enforced after the receiver advertises the credit-based flow control.
  */
 public class GrpcSendingMailbox implements SendingMailbox {
   private static final Logger LOGGER = LoggerFactory.getLogger(GrpcSendingMailbox.class);
@@ -46,16 +52,18 @@ public class GrpcSendingMailbox implements SendingMailbox {
   private final String _hostname;
   private final int _port;
   private final long _deadlineMs;
-  private final MailboxStatusObserver _statusObserver = new MailboxStatusObserver();
+  private final MailboxStatusObserver _statusObserver;
 
   private StreamObserver<MailboxContent> _contentObserver;
 
-  public GrpcSendingMailbox(String id, ChannelManager channelManager, String hostname, int port, long deadlineMs) {
+  public GrpcSendingMailbox(String id, ChannelManager channelManager, String hostname, int port, long deadlineMs,
+      long maxPendingBytes) {
     _id = id;
     _channelManager = channelManager;
     _hostname = hostname;
     _port = port;
     _deadlineMs = deadlineMs;
+    _statusObserver = new MailboxStatusObserver(maxPendingBytes);
   }
 
   @Override
@@ -65,7 +73,17 @@ public class GrpcSendingMailbox implements SendingMailbox {
       _contentObserver = getContentObserver();
     }
     Preconditions.checkState(!_statusObserver.isFinished(), "Mailbox: %s is already closed", _id);
-    _contentObserver.onNext(toMailboxContent(block));
+    MailboxContent mailboxContent = toMailboxContent(block);
+    try {
+      _statusObserver.acquireCredits(mailboxContent.getPayload().size(), _deadlineMs);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting for credits to send to mailbox: " + _id, e);
+    } catch (TimeoutException e) {
+      throw new IOException("Failed to send to mailbox: " + _id, e);
+    }
+    Preconditions.checkState(!_statusObserver.isFinished(), "Mailbox: %s is already closed", _id);
+    _contentObserver.onNext(mailboxContent);
   }
 
   @Override
@@ -92,6 +110,11 @@ public class GrpcSendingMailbox implements SendingMailbox {
     }
   }
 
+  @VisibleForTesting
+  boolean isCreditEnabled() {
+    return _statusObserver.isCreditEnabled();
+  }
+
   private StreamObserver<MailboxContent> getContentObserver() {
     return PinotMailboxGrpc.newStub(_channelManager.getChannel(_hostname, _port))
         .withDeadlineAfter(_deadlineMs - System.currentTimeMillis(), TimeUnit.MILLISECONDS).open(_statusObserver);
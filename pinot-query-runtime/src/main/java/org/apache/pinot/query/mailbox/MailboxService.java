@@ -34,6 +34,7 @@ import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 import org.apache.pinot.query.runtime.blocks.TransferableBlockUtils;
 import org.apache.pinot.query.runtime.operator.OpChainId;
 import org.apache.pinot.query.runtime.operator.exchange.BlockExchange;
+import org.apache.pinot.query.service.QueryConfig;
 import org.apache.pinot.spi.env.PinotConfiguration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -88,6 +89,7 @@ public class MailboxService {
   private final Consumer<OpChainId> _unblockOpChainCallback;
   private final ExecutorService _exchangeExecutor;
   private final ChannelManager _channelManager = new ChannelManager();
+  private final long _maxPendingBytes;
 
   private GrpcMailboxServer _grpcMailboxServer;
 
@@ -97,6 +99,8 @@ public class MailboxService {
     _port = port;
     _config = config;
     _unblockOpChainCallback = unblockOpChainCallback;
+    _maxPendingBytes = config.getProperty(QueryConfig.KEY_OF_MAILBOX_MAX_PENDING_BYTES,
+        QueryConfig.DEFAULT_MAILBOX_MAX_PENDING_BYTES);
     _exchangeExecutor = Executors.newCachedThreadPool();
     LOGGER.info("Initialized MailboxService with hostname: {}, port: {}", hostname, port);
   }
@@ -140,7 +144,7 @@ public class MailboxService {
     if (_hostname.equals(hostname) && _port == port) {
       return new InMemorySendingMailbox(mailboxId, this, deadlineMs);
     } else {
-      return new GrpcSendingMailbox(mailboxId, _channelManager, hostname, port, deadlineMs);
+      return new GrpcSendingMailbox(mailboxId, _channelManager, hostname, port, deadlineMs, _maxPendingBytes);
     }
   }
 
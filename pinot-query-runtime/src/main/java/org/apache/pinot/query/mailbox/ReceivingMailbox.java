@@ -18,13 +18,18 @@
  */
 package org.apache.pinot.query.mailbox;
 
+import java.nio.ByteBuffer;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
+import java.util.function.LongConsumer;
 import javax.annotation.Nullable;
+import org.apache.pinot.common.datablock.DataBlockUtils;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 import org.apache.pinot.query.runtime.blocks.TransferableBlockUtils;
 import org.apache.pinot.query.runtime.operator.OpChainId;
@@ -37,9 +42,17 @@ import org.slf4j.LoggerFactory;
  * the {@link SendingMailbox} whose ownership lies with the send operator. This is because the ReceivingMailbox can be
  * initialized even before the corresponding OpChain is registered on the receiver, whereas the SendingMailbox is
  * initialized when the send operator is running.
+ *
+ * <p>Blocks from a local sender are offered as is, and the sender is blocked when there are too many pending blocks.
+ * Blocks from a remote sender are offered in the serialized format, and are deserialized lazily when polled by the
+ * receive operator. The remote sender applies the credit-based flow control, where the consumed bytes are reported to
+ * the credit listener so that the credits can be returned to the remote sender. The queue is still bounded so that a
+ * remote sender without credit-based flow control (e.g. during rolling upgrade) is blocked when there are too many
+ * pending blocks.
  */
 public class ReceivingMailbox {
   public static final int DEFAULT_MAX_PENDING_BLOCKS = 5;
+  public static final int DEFAULT_MAX_PENDING_SERIALIZED_BLOCKS = 64;
 
   private static final Logger LOGGER = LoggerFactory.getLogger(ReceivingMailbox.class);
   private static final TransferableBlock CANCELLED_ERROR_BLOCK =
@@ -47,11 +60,14 @@ public class ReceivingMailbox {
 
   private final String _id;
   private final Consumer<OpChainId> _receiveMailCallback;
-  // TODO: Make the queue size configurable
-  // TODO: Revisit if this is the correct way to apply back pressure
-  private final BlockingQueue<TransferableBlock> _blocks = new ArrayBlockingQueue<>(DEFAULT_MAX_PENDING_BLOCKS);
+  // TODO: Make the number of pending blocks configurable
+  private final BlockingQueue<PendingBlock> _blocks = new ArrayBlockingQueue<>(DEFAULT_MAX_PENDING_SERIALIZED_BLOCKS);
+  private final Semaphore _localBlockPermits = new Semaphore(DEFAULT_MAX_PENDING_BLOCKS);
+  private final AtomicLong _numPendingBytes = new AtomicLong();
   private final AtomicReference<TransferableBlock> _errorBlock = new AtomicReference<>();
 
+  private volatile LongConsumer _creditListener;
+
   public ReceivingMailbox(String id, Consumer<OpChainId> receiveMailCallback) {
     _id = id;
     _receiveMailCallback = receiveMailCallback;
@@ -61,6 +77,13 @@ public class ReceivingMailbox {
     return _id;
   }
 
+  /**
+   * Sets the listener to be notified with the bytes of the serialized blocks consumed from the mailbox.
+   */
+  public void setCreditListener(LongConsumer creditListener) {
+    _creditListener = creditListener;
+  }
+
   /**
    * Offers a non-error block into the mailbox within the timeout specified, returns whether the block is successfully
    * added. If the block is not added, an error block is added to the mailbox.
@@ -77,15 +100,10 @@ public class ReceivingMailbox {
       return false;
     }
     try {
-      if (_blocks.offer(block, timeoutMs, TimeUnit.MILLISECONDS)) {
-        if (_errorBlock.get() == null) {
-          _receiveMailCallback.accept(MailboxIdUtils.toOpChainId(_id));
-          return true;
-        } else {
-          LOGGER.debug("Mailbox: {} is already cancelled or errored out, ignoring the late block", _id);
-          _blocks.clear();
-          return false;
-        }
+      if (_localBlockPermits.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS)) {
+        // NOTE: The queue always has capacity for the local blocks, which are limited by the permits
+        _blocks.add(new PendingBlock(block, null, 0));
+        return onBlockAdded();
       } else {
         LOGGER.debug("Failed to offer block into mailbox: {} within: {}ms", _id, timeoutMs);
         setErrorBlock(TransferableBlockUtils.getErrorTransferableBlock(
@@ -99,12 +117,60 @@ public class ReceivingMailbox {
     }
   }
 
+  /**
+   * Offers a serialized non-error block from a remote sender into the mailbox within the timeout specified, returns
+   * whether the block is successfully added. If the block is not added, an error block is added to the mailbox. The
+   * block is deserialized when it is polled.
+   */
+  public boolean offerSerialized(ByteBuffer serializedBlock, long timeoutMs) {
+    if (_errorBlock.get() != null) {
+      LOGGER.debug("Mailbox: {} is already cancelled or errored out, ignoring the late block", _id);
+      return false;
+    }
+    if (timeoutMs < 0) {
+      LOGGER.debug("Mailbox: {} is already timed out", _id);
+      setErrorBlock(TransferableBlockUtils.getErrorTransferableBlock(
+          new TimeoutException("Timed out while offering data to mailbox: " + _id)));
+      return false;
+    }
+    int numBytes = serializedBlock.remaining();
+    // Count the pending bytes before adding the block so that it is never negative when the block is polled
+    _numPendingBytes.addAndGet(numBytes);
+    try {
+      if (_blocks.offer(new PendingBlock(null, serializedBlock, numBytes), timeoutMs, TimeUnit.MILLISECONDS)) {
+        return onBlockAdded();
+      } else {
+        _numPendingBytes.addAndGet(-numBytes);
+        LOGGER.debug("Failed to offer block into mailbox: {} within: {}ms", _id, timeoutMs);
+        setErrorBlock(TransferableBlockUtils.getErrorTransferableBlock(
+            new TimeoutException("Timed out while waiting for receive operator to consume data from mailbox: " + _id)));
+        return false;
+      }
+    } catch (InterruptedException e) {
+      _numPendingBytes.addAndGet(-numBytes);
+      LOGGER.error("Interrupted while offering block into mailbox: {}", _id);
+      setErrorBlock(TransferableBlockUtils.getErrorTransferableBlock(e));
+      return false;
+    }
+  }
+
+  private boolean onBlockAdded() {
+    if (_errorBlock.get() == null) {
+      _receiveMailCallback.accept(MailboxIdUtils.toOpChainId(_id));
+      return true;
+    } else {
+      LOGGER.debug("Mailbox: {} is already cancelled or errored out, ignoring the late block", _id);
+      clearBlocks();
+      return false;
+    }
+  }
+
   /**
    * Sets an error block into the mailbox. No more blocks are accepted after calling this method.
    */
   public void setErrorBlock(TransferableBlock errorBlock) {
     if (_errorBlock.compareAndSet(null, errorBlock)) {
-      _blocks.clear();
+      clearBlocks();
       _receiveMailCallback.accept(MailboxIdUtils.toOpChainId(_id));
     }
   }
@@ -116,7 +182,25 @@ public class ReceivingMailbox {
   @Nullable
   public TransferableBlock poll() {
     TransferableBlock errorBlock = _errorBlock.get();
-    return errorBlock != null ? errorBlock : _blocks.poll();
+    if (errorBlock != null) {
+      return errorBlock;
+    }
+    PendingBlock pendingBlock = _blocks.poll();
+    if (pendingBlock == null) {
+      return null;
+    }
+    release(pendingBlock);
+    if (pendingBlock._block != null) {
+      return pendingBlock._block;
+    }
+    try {
+      return new TransferableBlock(DataBlockUtils.getDataBlock(pendingBlock._serializedBlock));
+    } catch (Exception e) {
+      LOGGER.error("Caught exception while deserializing block from mailbox: {}", _id, e);
+      setErrorBlock(TransferableBlockUtils.getErrorTransferableBlock(
+          new RuntimeException("Caught exception while deserializing block from mailbox: " + _id, e)));
+      return _errorBlock.get();
+    }
   }
 
   /**
@@ -126,11 +210,54 @@ public class ReceivingMailbox {
   public void cancel() {
     LOGGER.debug("Cancelling mailbox: {}", _id);
     if (_errorBlock.compareAndSet(null, CANCELLED_ERROR_BLOCK)) {
-      _blocks.clear();
+      clearBlocks();
+    }
+  }
+
+  private void clearBlocks() {
+    PendingBlock pendingBlock;
+    while ((pendingBlock = _blocks.poll()) != null) {
+      release(pendingBlock);
+    }
+  }
+
+  /**
+   * Releases the resources held by a block removed from the queue: the permit for local block, or the credits for
+   * serialized block.
+   */
+  private void release(PendingBlock pendingBlock) {
+    if (pendingBlock._block != null) {
+      _localBlockPermits.release();
+    } else {
+      _numPendingBytes.addAndGet(-pendingBlock._numBytes);
+      LongConsumer creditListener = _creditListener;
+      if (creditListener != null) {
+        creditListener.accept(pendingBlock._numBytes);
+      }
     }
   }
 
   public int getNumPendingBlocks() {
     return _blocks.size();
   }
+
+  public long getNumPendingBytes() {
+    return _numPendingBytes.get();
+  }
+
+  /**
+   * Block pending in the mailbox, which holds either the block from a local sender, or the serialized block from a
+   * remote sender.
+   */
+  private static class PendingBlock {
+    final TransferableBlock _block;
+    final ByteBuffer _serializedBlock;
+    final int _numBytes;
+
+    PendingBlock(@Nullable TransferableBlock block, @Nullable ByteBuffer serializedBlock, int numBytes) {
+      _block = block;
+      _serializedBlock = serializedBlock;
+      _numBytes = numBytes;
+    }
+  }
 }
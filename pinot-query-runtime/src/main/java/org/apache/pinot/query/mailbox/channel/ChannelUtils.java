@@ -23,5 +23,7 @@ public class ChannelUtils {
   }
 
   public static final String MAILBOX_METADATA_BUFFER_SIZE_KEY = "buffer.size";
+  // Bytes of the blocks consumed by the receiver, which are returned to the sender as credits
+  public static final String MAILBOX_METADATA_CREDIT_BYTES_KEY = "credit.bytes";
   public static final String MAILBOX_METADATA_BEGIN_OF_STREAM_KEY = "begin.of.stream";
 }
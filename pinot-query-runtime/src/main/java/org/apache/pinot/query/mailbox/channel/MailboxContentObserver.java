@@ -20,16 +20,15 @@ package org.apache.pinot.query.mailbox.channel;
 
 import io.grpc.Context;
 import io.grpc.stub.StreamObserver;
+import java.nio.ByteBuffer;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import org.apache.pinot.common.datablock.DataBlock;
 import org.apache.pinot.common.datablock.DataBlockUtils;
-import org.apache.pinot.common.datablock.MetadataBlock;
 import org.apache.pinot.common.proto.Mailbox.MailboxContent;
 import org.apache.pinot.common.proto.Mailbox.MailboxStatus;
 import org.apache.pinot.query.mailbox.MailboxService;
 import org.apache.pinot.query.mailbox.ReceivingMailbox;
-import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 import org.apache.pinot.query.runtime.blocks.TransferableBlockUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,8 +38,11 @@ import org.slf4j.LoggerFactory;
  * {@code MailboxContentObserver} is the content streaming observer used to receive mailbox content.
  *
  * <p>When the observer onNext() is called (e.g. when data packet has arrived at the receiving end), it puts the
- * mailbox content to the receiving mailbox buffer; response with the remaining buffer size of the receiving mailbox
- * to the sender side.
+ * serialized mailbox content to the receiving mailbox buffer, and responds with the number of pending blocks of the
+ * receiving mailbox to the sender side. When the receive operator consumes the block from the mailbox, the bytes of the
+ * block are returned to the sender side as credits (credit-based flow control, see {@link MailboxStatusObserver}). The
+ * first response also advertises the credit-based flow control to the sender (with 0 credit bytes), so that the
+ * sender only enforces the credits when the receiver supports it.
  */
 public class MailboxContentObserver implements StreamObserver<MailboxContent> {
   private static final Logger LOGGER = LoggerFactory.getLogger(MailboxContentObserver.class);
@@ -49,6 +51,7 @@ public class MailboxContentObserver implements StreamObserver<MailboxContent> {
   private final StreamObserver<MailboxStatus> _responseObserver;
 
   private transient ReceivingMailbox _mailbox;
+  private transient boolean _creditAdvertised;
 
   public MailboxContentObserver(MailboxService mailboxService, StreamObserver<MailboxStatus> responseObserver) {
     _mailboxService = mailboxService;
@@ -60,27 +63,22 @@ public class MailboxContentObserver implements StreamObserver<MailboxContent> {
     String mailboxId = mailboxContent.getMailboxId();
     if (_mailbox == null) {
       _mailbox = _mailboxService.getReceivingMailbox(mailboxId);
+      _mailbox.setCreditListener(this::returnCredits);
     }
     try {
-      TransferableBlock block;
-      DataBlock dataBlock = DataBlockUtils.getDataBlock(mailboxContent.getPayload().asReadOnlyByteBuffer());
-      if (dataBlock instanceof MetadataBlock) {
+      ByteBuffer payload = mailboxContent.getPayload().asReadOnlyByteBuffer();
+      if (DataBlockUtils.getDataBlockType(payload) == DataBlock.Type.METADATA) {
+        // Error block should be handled immediately to clean up the pending blocks
+        DataBlock dataBlock = DataBlockUtils.getDataBlock(payload.duplicate());
         Map<Integer, String> exceptions = dataBlock.getExceptions();
-        if (exceptions.isEmpty()) {
-          block = TransferableBlockUtils.getEndOfStreamTransferableBlock(((MetadataBlock) dataBlock).getStats());
-        } else {
+        if (!exceptions.isEmpty()) {
           _mailbox.setErrorBlock(TransferableBlockUtils.getErrorTransferableBlock(exceptions));
           return;
         }
-      } else {
-        block = new TransferableBlock(dataBlock);
       }
-
       long timeoutMs = Context.current().getDeadline().timeRemaining(TimeUnit.MILLISECONDS);
-      if (_mailbox.offer(block, timeoutMs)) {
-        _responseObserver.onNext(MailboxStatus.newBuilder().setMailboxId(mailboxId)
-            .putMetadata(ChannelUtils.MAILBOX_METADATA_BUFFER_SIZE_KEY,
-                Integer.toString(_mailbox.getNumPendingBlocks())).build());
+      if (_mailbox.offerSerialized(payload, timeoutMs)) {
+        sendStatus();
       } else {
         LOGGER.warn("Failed to add block into mailbox: {} within timeout: {}ms", mailboxId, timeoutMs);
         cancelStream();
@@ -93,7 +91,34 @@ public class MailboxContentObserver implements StreamObserver<MailboxContent> {
     }
   }
 
-  private void cancelStream() {
+  /**
+   * Responds with the number of pending blocks of the mailbox to the sender, and advertises the credit-based flow
+   * control on the first response.
+   */
+  private synchronized void sendStatus() {
+    MailboxStatus.Builder statusBuilder = MailboxStatus.newBuilder().setMailboxId(_mailbox.getId())
+        .putMetadata(ChannelUtils.MAILBOX_METADATA_BUFFER_SIZE_KEY, Integer.toString(_mailbox.getNumPendingBlocks()));
+    if (!_creditAdvertised) {
+      statusBuilder.putMetadata(ChannelUtils.MAILBOX_METADATA_CREDIT_BYTES_KEY, "0");
+      _creditAdvertised = true;
+    }
+    _responseObserver.onNext(statusBuilder.build());
+  }
+
+  /**
+   * Returns the credits for the blocks consumed by the receive operator to the sender.
+   */
+  private synchronized void returnCredits(long numBytes) {
+    try {
+      _responseObserver.onNext(MailboxStatus.newBuilder().setMailboxId(_mailbox.getId())
+          .putMetadata(ChannelUtils.MAILBOX_METADATA_CREDIT_BYTES_KEY, Long.toString(numBytes)).build());
+    } catch (Exception e) {
+      // Exception can be thrown if the stream is already closed, so we simply ignore it
+      LOGGER.debug("Caught exception returning credits for mailbox: {}", _mailbox.getId(), e);
+    }
+  }
+
+  private synchronized void cancelStream() {
     try {
       // NOTE: DO NOT use onError() because it will terminate the stream, and sender might not get the callback
       _responseObserver.onCompleted();
@@ -115,7 +140,7 @@ public class MailboxContentObserver implements StreamObserver<MailboxContent> {
   }
 
   @Override
-  public void onCompleted() {
+  public synchronized void onCompleted() {
     try {
       _responseObserver.onCompleted();
     } catch (Exception e) {
@@ -19,8 +19,7 @@
 package org.apache.pinot.query.mailbox.channel;
 
 import io.grpc.stub.StreamObserver;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.TimeoutException;
 import org.apache.pinot.common.proto.Mailbox.MailboxStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,43 +27,84 @@ import org.slf4j.LoggerFactory;
 
 /**
  * {@code MailboxStatusStreamObserver} is the status streaming observer used to track the status by the sender.
+ *
+ * <p>It also implements the sender side of the credit-based flow control: the sender acquires credits (in bytes) for
+ * each block before sending it, and the receiver returns the credits once the block is consumed, so that the bytes
+ * pending on the receiver side never exceed the max pending bytes. A single block larger than the max pending bytes can
+ * still be sent when there is no pending block to avoid blocking forever. The credits are only enforced after the
+ * receiver advertises the credit-based flow control (with the credit bytes metadata), so that the sender can still send
+ * to a receiver without credit-based flow control (e.g. during rolling upgrade), which applies back pressure by
+ * blocking on its bounded mailbox instead.
  */
 public class MailboxStatusObserver implements StreamObserver<MailboxStatus> {
   private static final Logger LOGGER = LoggerFactory.getLogger(MailboxStatusObserver.class);
-  private static final int DEFAULT_MAILBOX_QUEUE_CAPACITY = 5;
 
-  private final AtomicInteger _bufferSize = new AtomicInteger(DEFAULT_MAILBOX_QUEUE_CAPACITY);
-  private final AtomicBoolean _finished = new AtomicBoolean();
+  private final long _maxPendingBytes;
+
+  // Guarded by this
+  private long _numPendingBytes;
+  private boolean _creditEnabled;
+  private volatile boolean _finished;
+
+  public MailboxStatusObserver(long maxPendingBytes) {
+    _maxPendingBytes = maxPendingBytes;
+  }
 
   @Override
   public void onNext(MailboxStatus mailboxStatus) {
-    // when received a mailbox status from the receiving end, sending end update the known buffer size available
-    // so we can make better throughput send judgement. here is a simple example.
-    // TODO: this feedback info is not used to throttle the send speed. it is currently being discarded.
-    if (mailboxStatus.getMetadataMap().containsKey(ChannelUtils.MAILBOX_METADATA_BUFFER_SIZE_KEY)) {
-      _bufferSize.set(
-          Integer.parseInt(mailboxStatus.getMetadataMap().get(ChannelUtils.MAILBOX_METADATA_BUFFER_SIZE_KEY)));
-    } else {
-      _bufferSize.set(DEFAULT_MAILBOX_QUEUE_CAPACITY); // DEFAULT_AVAILABILITY;
+    String creditBytes = mailboxStatus.getMetadataMap().get(ChannelUtils.MAILBOX_METADATA_CREDIT_BYTES_KEY);
+    if (creditBytes != null) {
+      synchronized (this) {
+        _creditEnabled = true;
+        _numPendingBytes -= Long.parseLong(creditBytes);
+        notifyAll();
+      }
     }
   }
 
-  public int getBufferSize() {
-    return _bufferSize.get();
+  /**
+   * Acquires the credits to send a block with the given size, waits until enough credits are returned by the receiver
+   * or the deadline is reached. Returns immediately if the stream is already finished, or the receiver does not support
+   * the credit-based flow control.
+   */
+  public synchronized void acquireCredits(int numBytes, long deadlineMs)
+      throws InterruptedException, TimeoutException {
+    while (_creditEnabled && !_finished && _numPendingBytes > 0 && _numPendingBytes + numBytes > _maxPendingBytes) {
+      long waitMs = deadlineMs - System.currentTimeMillis();
+      if (waitMs <= 0) {
+        throw new TimeoutException(
+            String.format("Timed out waiting for the receiver to consume %d pending bytes", _numPendingBytes));
+      }
+      wait(waitMs);
+    }
+    _numPendingBytes += numBytes;
+  }
+
+  public synchronized boolean isCreditEnabled() {
+    return _creditEnabled;
+  }
+
+  public synchronized long getNumPendingBytes() {
+    return _numPendingBytes;
   }
 
   @Override
   public void onError(Throwable t) {
     LOGGER.warn("Error on sender side", t);
-    _finished.set(true);
+    finish();
   }
 
   @Override
   public void onCompleted() {
-    _finished.set(true);
+    finish();
+  }
+
+  private synchronized void finish() {
+    _finished = true;
+    notifyAll();
   }
 
   public boolean isFinished() {
-    return _finished.get();
+    return _finished;
   }
 }
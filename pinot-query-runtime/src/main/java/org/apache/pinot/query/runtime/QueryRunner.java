@@ -19,8 +19,10 @@
 package org.apache.pinot.query.runtime;
 
 import com.google.common.annotations.VisibleForTesting;
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
@@ -77,6 +79,9 @@ public class QueryRunner {
   private MailboxService _mailboxService;
   private String _hostname;
   private int _port;
+  private long _joinSpillThresholdBytes;
+  private long _sortSpillThresholdBytes;
+  private String _spillDir;
 
   private ExecutorService _queryWorkerIntermExecutorService;
   private ExecutorService _queryWorkerLeafExecutorService;
@@ -94,6 +99,16 @@ public class QueryRunner {
         CommonConstants.Helix.SERVER_INSTANCE_PREFIX_LENGTH) : instanceName;
     _port = config.getProperty(QueryConfig.KEY_OF_QUERY_RUNNER_PORT, QueryConfig.DEFAULT_QUERY_RUNNER_PORT);
     _helixManager = helixManager;
+    _joinSpillThresholdBytes = config.getProperty(QueryConfig.KEY_OF_JOIN_SPILL_THRESHOLD_BYTES,
+        QueryConfig.DEFAULT_JOIN_SPILL_THRESHOLD_BYTES);
+    _sortSpillThresholdBytes = config.getProperty(QueryConfig.KEY_OF_SORT_SPILL_THRESHOLD_BYTES,
+        QueryConfig.DEFAULT_SORT_SPILL_THRESHOLD_BYTES);
+    _spillDir = config.getProperty(QueryConfig.KEY_OF_SPILL_DIR);
+    if (_spillDir == null) {
+      String dataDir = config.getProperty(CommonConstants.Server.CONFIG_OF_INSTANCE_DATA_DIR,
+          CommonConstants.Server.DEFAULT_INSTANCE_DATA_DIR);
+      _spillDir = new File(dataDir, QueryConfig.DEFAULT_SPILL_DIR_NAME).getPath();
+    }
     try {
       long releaseMs = config.getProperty(QueryConfig.KEY_OF_SCHEDULER_RELEASE_TIMEOUT_MS,
           QueryConfig.DEFAULT_SCHEDULER_RELEASE_TIMEOUT_MS);
@@ -101,8 +116,14 @@ public class QueryRunner {
           new NamedThreadFactory("query_intermediate_worker_on_" + _port + "_port"));
       _queryWorkerLeafExecutorService = Executors.newFixedThreadPool(ResourceManager.DEFAULT_QUERY_WORKER_THREADS,
           new NamedThreadFactory("query_leaf_worker_on_" + _port + "_port"));
-      _scheduler = new OpChainSchedulerService(new RoundRobinScheduler(releaseMs),
-          getQueryWorkerIntermExecutorService());
+      long timeSliceMs = config.getProperty(QueryConfig.KEY_OF_SCHEDULER_TIME_SLICE_MS,
+          QueryConfig.DEFAULT_SCHEDULER_TIME_SLICE_MS);
+      int maxRunningOpChains = config.getProperty(QueryConfig.KEY_OF_SCHEDULER_MAX_RUNNING_OPCHAINS,
+          QueryConfig.DEFAULT_SCHEDULER_MAX_RUNNING_OPCHAINS);
+      int maxPriority = config.getProperty(QueryConfig.KEY_OF_SCHEDULER_MAX_PRIORITY,
+          QueryConfig.DEFAULT_SCHEDULER_MAX_PRIORITY);
+      _scheduler = new OpChainSchedulerService(new RoundRobinScheduler(releaseMs, maxPriority),
+          getQueryWorkerIntermExecutorService(), timeSliceMs, maxRunningOpChains);
       _mailboxService = new MailboxService(_hostname, _port, config, _scheduler::onDataAvailable);
       _serverExecutor = new ServerQueryExecutorV1Impl();
       _serverExecutor.init(config.subset(PINOT_V1_SERVER_QUERY_CONFIG_PREFIX), instanceDataManager, serverMetrics);
@@ -138,6 +159,14 @@ public class QueryRunner {
     boolean isTraceEnabled =
         Boolean.parseBoolean(requestMetadataMap.getOrDefault(CommonConstants.Broker.Request.TRACE, "false"));
     long deadlineMs = System.currentTimeMillis() + timeoutMs;
+    // Apply the server level spill thresholds when they are not set in the query options, and the server level spill
+    // directory
+    requestMetadataMap = new HashMap<>(requestMetadataMap);
+    applyDefaultSpillThreshold(requestMetadataMap,
+        CommonConstants.Broker.Request.QueryOptionKey.JOIN_SPILL_THRESHOLD_BYTES, _joinSpillThresholdBytes);
+    applyDefaultSpillThreshold(requestMetadataMap,
+        CommonConstants.Broker.Request.QueryOptionKey.SORT_SPILL_THRESHOLD_BYTES, _sortSpillThresholdBytes);
+    requestMetadataMap.put(QueryConfig.KEY_OF_SPILL_DIR, _spillDir);
 
     // run pre-stage execution for all pipeline breakers
     PipelineBreakerResult pipelineBreakerResult = PipelineBreakerExecutor.executePipelineBreakers(_scheduler,
@@ -181,14 +210,21 @@ public class QueryRunner {
     return _queryWorkerIntermExecutorService;
   }
 
+  private static void applyDefaultSpillThreshold(Map<String, String> requestMetadataMap, String key,
+      long defaultSpillThresholdBytes) {
+    if (defaultSpillThresholdBytes > 0) {
+      requestMetadataMap.putIfAbsent(key, Long.toString(defaultSpillThresholdBytes));
+    }
+  }
+
   private OpChain compileIntermediateStage(long requestId, DistributedStagePlan distributedStagePlan,
       Map<String, String> requestMetadataMap, PipelineBreakerResult pipelineBreakerResult, long deadlineMs,
       boolean isTraceEnabled) {
     PlanNode stageRoot = distributedStagePlan.getStageRoot();
     return PhysicalPlanVisitor.walkPlanNode(stageRoot,
         new PhysicalPlanContext(_mailboxService, requestId, stageRoot.getPlanFragmentId(), deadlineMs,
-            distributedStagePlan.getServer(), distributedStagePlan.getStageMetadata(), pipelineBreakerResult,
-            isTraceEnabled));
+            distributedStagePlan.getServer(), distributedStagePlan.getStageMetadata(), requestMetadataMap,
+            pipelineBreakerResult, isTraceEnabled));
   }
 
   private OpChain compileLeafStage(long requestId, DistributedStagePlan distributedStagePlan,
@@ -196,7 +232,7 @@ public class QueryRunner {
       boolean isTraceEnabled) {
     PhysicalPlanContext planContext = new PhysicalPlanContext(_mailboxService, requestId,
         distributedStagePlan.getStageId(), deadlineMs, distributedStagePlan.getServer(),
-        distributedStagePlan.getStageMetadata(), pipelineBreakerResult, isTraceEnabled);
+        distributedStagePlan.getStageMetadata(), requestMetadataMap, pipelineBreakerResult, isTraceEnabled);
     List<ServerPlanRequestContext> serverPlanRequestContexts = ServerPlanRequestUtils.constructServerQueryRequests(
         planContext, distributedStagePlan, requestMetadataMap, _helixPropertyStore);
     List<ServerQueryRequest> serverQueryRequests = new ArrayList<>(serverPlanRequestContexts.size());
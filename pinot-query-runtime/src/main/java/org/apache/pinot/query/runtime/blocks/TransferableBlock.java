@@ -104,6 +104,14 @@ public class TransferableBlock implements Block {
     return _container;
   }
 
+  /**
+   * Returns whether the {@link TransferableBlock#_container} is already constructed, i.e. the rows can be accessed
+   * without extracting them from the binary-packed format.
+   */
+  public boolean isContainerConstructed() {
+    return _container != null;
+  }
+
   /**
    * Retrieve the binary-packed version of the data block.
    * If not already constructed. It will use {@link DataBlockBuilder} to construct the binary-packed format from
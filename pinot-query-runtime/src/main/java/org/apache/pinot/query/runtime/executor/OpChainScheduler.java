@@ -52,6 +52,12 @@ public interface OpChainScheduler {
    */
   void yield(OpChain opChain);
 
+  /**
+   * Used by {@link OpChainSchedulerService} to indicate that a given OpChain has used up its time slice but still has
+   * work to do. Unlike {@link #yield}, the OpChain should be made ready again without waiting for any data.
+   */
+  void preempt(OpChain opChain);
+
   /**
    * A callback called whenever data is received for the given opChain. This can be used by the scheduler
    * implementations to re-scheduled suspended OpChains. This method may be called for an OpChain that has not yet
@@ -22,11 +22,13 @@ import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.util.concurrent.AbstractExecutionThreadService;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import org.apache.pinot.core.util.trace.TraceRunnable;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 import org.apache.pinot.query.runtime.operator.OpChain;
 import org.apache.pinot.query.runtime.operator.OpChainId;
+import org.apache.pinot.query.service.QueryConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -36,6 +38,11 @@ import org.slf4j.LoggerFactory;
  * on the {@link OpChainScheduler} logic that is passed in. Multistage queries support partial execution
  * and will return a NOOP metadata block as a "yield" signal, indicating that the next operator
  * chain ({@link OpChainScheduler#next} will be requested.
+ *
+ * <p>Optionally, the number of OpChains running concurrently can be limited, in which case the
+ * {@link OpChainScheduler} decides which ready OpChain gets the next free worker, and an OpChain that keeps producing
+ * data is preempted once it has run for longer than the time slice, so that the worker can be handed to the other
+ * ready OpChains. Without a limit every ready OpChain gets a worker right away, so there is nothing to preempt for.
  */
 @SuppressWarnings("UnstableApiUsage")
 public class OpChainSchedulerService extends AbstractExecutionThreadService {
@@ -52,12 +59,29 @@ public class OpChainSchedulerService extends AbstractExecutionThreadService {
 
   private final OpChainScheduler _scheduler;
   private final ExecutorService _workerPool;
+  private final long _timeSliceNs;
+  // Null when the number of running OpChains is not limited
+  private final Semaphore _runningOpChainPermits;
   private final Cache<Long, Long> _cancelledRequests = CacheBuilder.newBuilder()
       .expireAfterWrite(SCHEDULER_CANCELLATION_SIGNAL_RETENTION_MS, TimeUnit.MILLISECONDS).build();
 
   public OpChainSchedulerService(OpChainScheduler scheduler, ExecutorService workerPool) {
+    this(scheduler, workerPool, QueryConfig.DEFAULT_SCHEDULER_TIME_SLICE_MS,
+        QueryConfig.DEFAULT_SCHEDULER_MAX_RUNNING_OPCHAINS);
+  }
+
+  /**
+   * @param timeSliceMs time an OpChain can keep running before it is preempted, non-positive to disable preemption;
+   *                    only applies when the number of running OpChains is limited
+   * @param maxRunningOpChains max number of OpChains running concurrently, non-positive for no limit
+   */
+  public OpChainSchedulerService(OpChainScheduler scheduler, ExecutorService workerPool, long timeSliceMs,
+      int maxRunningOpChains) {
     _scheduler = scheduler;
     _workerPool = workerPool;
+    _timeSliceNs =
+        timeSliceMs > 0 && maxRunningOpChains > 0 ? TimeUnit.MILLISECONDS.toNanos(timeSliceMs) : Long.MAX_VALUE;
+    _runningOpChainPermits = maxRunningOpChains > 0 ? new Semaphore(maxRunningOpChains) : null;
   }
 
   @Override
@@ -70,8 +94,19 @@ public class OpChainSchedulerService extends AbstractExecutionThreadService {
   protected void run()
       throws Exception {
     while (isRunning()) {
-      OpChain operatorChain = _scheduler.next(DEFAULT_SCHEDULER_NEXT_WAIT_MS, TimeUnit.MILLISECONDS);
+      if (_runningOpChainPermits != null && !_runningOpChainPermits.tryAcquire(DEFAULT_SCHEDULER_NEXT_WAIT_MS,
+          TimeUnit.MILLISECONDS)) {
+        continue;
+      }
+      OpChain operatorChain;
+      try {
+        operatorChain = _scheduler.next(DEFAULT_SCHEDULER_NEXT_WAIT_MS, TimeUnit.MILLISECONDS);
+      } catch (Exception e) {
+        releaseRunningOpChainPermit();
+        throw e;
+      }
       if (operatorChain == null) {
+        releaseRunningOpChainPermit();
         continue;
       }
       LOGGER.trace("({}): Scheduling", operatorChain);
@@ -91,12 +126,21 @@ public class OpChainSchedulerService extends AbstractExecutionThreadService {
             // so long as there's work to be done, keep getting the next block
             // when the operator chain returns a NOOP block, then yield the execution
             // of this to another worker
+            // when the operator chain used up its time slice, then preempt it so other operator chains can run
+            long sliceStartTimeNs = System.nanoTime();
             TransferableBlock result = operatorChain.getRoot().nextBlock();
             while (!result.isNoOpBlock() && !result.isEndOfStreamBlock()) {
+              if (System.nanoTime() - sliceStartTimeNs > _timeSliceNs) {
+                break;
+              }
               result = operatorChain.getRoot().nextBlock();
             }
 
-            if (result.isNoOpBlock()) {
+            if (!result.isNoOpBlock() && !result.isEndOfStreamBlock()) {
+              LOGGER.trace("({}): Preempted", operatorChain);
+              operatorChain.getStats().queued();
+              _scheduler.preempt(operatorChain);
+            } else if (result.isNoOpBlock()) {
               // TODO: There should be a waiting-for-data state in OpChainStats.
               operatorChain.getStats().queued();
               _scheduler.yield(operatorChain);
@@ -114,10 +158,14 @@ public class OpChainSchedulerService extends AbstractExecutionThreadService {
             LOGGER.error("({}): Failed to execute operator chain! {}", operatorChain, operatorChain.getStats(), e);
             thrown = e;
           } finally {
-            if (returnedErrorBlock || thrown != null) {
-              cancelOpChain(operatorChain, thrown);
-            } else if (isFinished) {
-              closeOpChain(operatorChain);
+            try {
+              if (returnedErrorBlock || thrown != null) {
+                cancelOpChain(operatorChain, thrown);
+              } else if (isFinished) {
+                closeOpChain(operatorChain);
+              }
+            } finally {
+              releaseRunningOpChainPermit();
             }
           }
         }
@@ -163,6 +211,12 @@ public class OpChainSchedulerService extends AbstractExecutionThreadService {
     return _workerPool;
   }
 
+  private void releaseRunningOpChainPermit() {
+    if (_runningOpChainPermits != null) {
+      _runningOpChainPermits.release();
+    }
+  }
+
   private void closeOpChain(OpChain opChain) {
     try {
       opChain.close();
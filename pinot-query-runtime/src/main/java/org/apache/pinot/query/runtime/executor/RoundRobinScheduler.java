@@ -25,10 +25,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
@@ -37,13 +35,16 @@ import java.util.function.Supplier;
 import javax.annotation.concurrent.ThreadSafe;
 import org.apache.pinot.query.runtime.operator.OpChain;
 import org.apache.pinot.query.runtime.operator.OpChainId;
+import org.apache.pinot.query.service.QueryConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 
 /**
  * This is a scheduler that schedules operator chains in round-robin fashion, but will only schedule them when there is
- * work to be done. The availability of work is signaled using the {@link #onDataAvailable} callback.
+ * work to be done. The availability of work is signaled using the {@link #onDataAvailable} callback. Ready OpChains
+ * are picked using weighted fair queuing across queries (see {@link WeightedFairQueue}), so that the OpChains of a
+ * heavy query cannot starve the OpChains of the other queries.
  * <p>
  *   Design: There are 3 states for a OpChain:
  *
@@ -62,8 +63,10 @@ import org.slf4j.LoggerFactory;
  *                                   entry for the corresponding OpChainId, which means there was some data received
  *                                   by MailboxReceiveOperator after the last poll. (2) When a sender has died or hasn't
  *                                   sent any data in the last _releaseTimeoutMs milliseconds.
+ *   4. Running ==> Ready: This happens when a running OpChain has used up its time slice, following which a preempt is
+ *                         called.
  *
- *                      |--------------( #yield() )---------|
+ *                      |------( #yield() or #preempt() )---|
  *                      |                                   |
  *                     \/                                   |
  *   [ START ] --> [ READY ] -----------( #next() )--> [ RUNNING ]
@@ -97,19 +100,28 @@ public class RoundRobinScheduler implements OpChainScheduler {
   private final Set<OpChainId> _seenMail = Sets.newConcurrentHashSet();
   private final Map<OpChainId, Long> _available = new ConcurrentHashMap<>();
 
-  private final BlockingQueue<OpChain> _ready = new LinkedBlockingQueue<>();
+  private final WeightedFairQueue _ready;
 
   private final Lock _lock = new ReentrantLock();
   private final ScheduledExecutorService _availableOpChainReleaseService;
 
   public RoundRobinScheduler(long releaseTimeoutMs) {
-    this(releaseTimeoutMs, System::currentTimeMillis);
+    this(releaseTimeoutMs, QueryConfig.DEFAULT_SCHEDULER_MAX_PRIORITY);
+  }
+
+  public RoundRobinScheduler(long releaseTimeoutMs, int maxPriority) {
+    this(releaseTimeoutMs, maxPriority, System::currentTimeMillis);
   }
 
   RoundRobinScheduler(long releaseTimeoutMs, Supplier<Long> ticker) {
+    this(releaseTimeoutMs, QueryConfig.DEFAULT_SCHEDULER_MAX_PRIORITY, ticker);
+  }
+
+  RoundRobinScheduler(long releaseTimeoutMs, int maxPriority, Supplier<Long> ticker) {
     Preconditions.checkArgument(releaseTimeoutMs > 0, "Release timeout for round-robin scheduler should be > 0ms");
     _releaseTimeoutMs = releaseTimeoutMs;
     _ticker = ticker;
+    _ready = new WeightedFairQueue(maxPriority);
     _availableOpChainReleaseService = Executors.newSingleThreadScheduledExecutor(r -> {
       Thread t = new Thread(r);
       t.setName(AVAILABLE_RELEASE_THREAD_NAME);
@@ -148,6 +160,7 @@ public class RoundRobinScheduler implements OpChainScheduler {
     _lock.lock();
     try {
       _aliveChains.put(operatorChain.getId(), operatorChain);
+      _ready.register(operatorChain);
       _ready.offer(operatorChain);
     } finally {
       _lock.unlock();
@@ -166,6 +179,7 @@ public class RoundRobinScheduler implements OpChainScheduler {
       // it could be that the onDataAvailable callback was called when the OpChain was executing, in which case there
       // could be a dangling entry in _seenMail.
       _seenMail.remove(chainId);
+      _ready.deregister(operatorChain);
     } finally {
       _lock.unlock();
     }
@@ -176,13 +190,14 @@ public class RoundRobinScheduler implements OpChainScheduler {
   @Override
   public void yield(OpChain operatorChain) {
     long releaseTs = _ticker.get() + _releaseTimeoutMs;
+    _ready.charge(operatorChain);
     _lock.lock();
     try {
       // It could be that this OpChain received data before it could be yielded completely. In that case, mark it ready
       // to get it scheduled asap.
       if (_seenMail.contains(operatorChain.getId())) {
         _seenMail.remove(operatorChain.getId());
-        _ready.add(operatorChain);
+        _ready.offer(operatorChain);
         return;
       }
       _available.put(operatorChain.getId(), releaseTs);
@@ -191,6 +206,19 @@ public class RoundRobinScheduler implements OpChainScheduler {
     }
   }
 
+  @Override
+  public void preempt(OpChain operatorChain) {
+    _ready.charge(operatorChain);
+    _lock.lock();
+    try {
+      // The OpChain is going to be polled again, so any data received while it was running will be processed.
+      _seenMail.remove(operatorChain.getId());
+      _ready.offer(operatorChain);
+    } finally {
+      _lock.unlock();
+    }
+  }
+
   @Override
   public void onDataAvailable(OpChainId opChainId) {
     // If this chain isn't alive as per the scheduler, don't do anything. If the OpChain is registered after this, it
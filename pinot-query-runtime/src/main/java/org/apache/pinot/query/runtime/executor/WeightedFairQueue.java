@@ -0,0 +1,245 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.executor;
+
+import com.google.common.base.Preconditions;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Queue;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.pinot.query.runtime.operator.OpChain;
+import org.apache.pinot.query.runtime.operator.OpChainId;
+import org.apache.pinot.query.service.QueryConfig;
+
+
+/**
+ * Queue of the ready OpChains which applies weighted fair queuing across queries.
+ *
+ * <p>Each query is charged with the execution time of its OpChains divided by its priority (see
+ * {@link OpChain#getPriority()}), and the next OpChain is always picked from the query with the least charged time
+ * (virtual time), so that a heavy query cannot starve the other queries. OpChains of the same query are picked in
+ * FIFO order. A query becoming ready after being idle (e.g. waiting for data) starts from the virtual time of the last
+ * picked query, so that it cannot accumulate credits while being idle. The priority of a query is capped by the max
+ * priority (see {@link QueryConfig#KEY_OF_SCHEDULER_MAX_PRIORITY}) so that a query cannot take over the queue by
+ * setting a huge priority.
+ *
+ * <p>The queries with ready OpChains are kept sorted by the virtual time, so that picking the next OpChain takes
+ * logarithmic time to the number of ready queries.
+ *
+ * <p>The time an OpChain spends in the queue is recorded into its stats as the scheduler wait time.
+ */
+@ThreadSafe
+class WeightedFairQueue {
+  private static final Comparator<QueryState> VIRTUAL_TIME_COMPARATOR =
+      Comparator.<QueryState>comparingLong(queryState -> queryState._virtualTimeNs)
+          .thenComparingLong(queryState -> queryState._requestId);
+
+  private final LongSupplier _nanoTicker;
+  private final int _maxPriority;
+  private final Lock _lock = new ReentrantLock();
+  private final Condition _notEmpty = _lock.newCondition();
+
+  // Guarded by _lock
+  private final Map<Long, QueryState> _queryStates = new HashMap<>();
+  // Queries with ready OpChains sorted by the virtual time, where the virtual time must not be modified while the query
+  // is in the set
+  private final NavigableSet<QueryState> _readyQueryStates = new TreeSet<>(VIRTUAL_TIME_COMPARATOR);
+  private final Map<OpChainId, Long> _runStartTimeNsMap = new HashMap<>();
+  private long _virtualTimeNs;
+  private int _size;
+
+  WeightedFairQueue() {
+    this(QueryConfig.DEFAULT_SCHEDULER_MAX_PRIORITY);
+  }
+
+  WeightedFairQueue(int maxPriority) {
+    this(System::nanoTime, maxPriority);
+  }
+
+  WeightedFairQueue(LongSupplier nanoTicker) {
+    this(nanoTicker, QueryConfig.DEFAULT_SCHEDULER_MAX_PRIORITY);
+  }
+
+  WeightedFairQueue(LongSupplier nanoTicker, int maxPriority) {
+    Preconditions.checkArgument(maxPriority > 0, "Max scheduler priority must be positive, got: %s", maxPriority);
+    _nanoTicker = nanoTicker;
+    _maxPriority = maxPriority;
+  }
+
+  /**
+   * Registers an OpChain so that the state of its query is kept until all the OpChains of the query are de-registered.
+   */
+  void register(OpChain opChain) {
+    _lock.lock();
+    try {
+      getOrCreateQueryState(opChain)._numOpChains++;
+    } finally {
+      _lock.unlock();
+    }
+  }
+
+  /**
+   * De-registers an OpChain after charging its last run.
+   */
+  void deregister(OpChain opChain) {
+    _lock.lock();
+    try {
+      charge(opChain);
+      long requestId = opChain.getId().getRequestId();
+      QueryState queryState = _queryStates.get(requestId);
+      if (queryState != null && --queryState._numOpChains <= 0 && queryState._readyOpChains.isEmpty()) {
+        _queryStates.remove(requestId);
+      }
+    } finally {
+      _lock.unlock();
+    }
+  }
+
+  void offer(OpChain opChain) {
+    _lock.lock();
+    try {
+      QueryState queryState = getOrCreateQueryState(opChain);
+      if (queryState._readyOpChains.isEmpty()) {
+        queryState._virtualTimeNs = Math.max(queryState._virtualTimeNs, _virtualTimeNs);
+        _readyQueryStates.add(queryState);
+      }
+      queryState._readyOpChains.add(new ReadyOpChain(opChain, _nanoTicker.getAsLong()));
+      _size++;
+      _notEmpty.signal();
+    } finally {
+      _lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the next OpChain to run, waiting for the given time if there is no ready OpChain, or null if there is still
+   * no ready OpChain after the wait. The OpChain returned should be charged via {@link #charge(OpChain)} once it stops
+   * running.
+   */
+  @Nullable
+  OpChain poll(long time, TimeUnit timeUnit)
+      throws InterruptedException {
+    _lock.lockInterruptibly();
+    try {
+      long remainingNs = timeUnit.toNanos(time);
+      while (_size == 0) {
+        if (remainingNs <= 0) {
+          return null;
+        }
+        remainingNs = _notEmpty.awaitNanos(remainingNs);
+      }
+      QueryState nextQueryState = _readyQueryStates.pollFirst();
+      assert nextQueryState != null;
+      ReadyOpChain readyOpChain = nextQueryState._readyOpChains.poll();
+      if (!nextQueryState._readyOpChains.isEmpty()) {
+        _readyQueryStates.add(nextQueryState);
+      }
+      _size--;
+      _virtualTimeNs = Math.max(_virtualTimeNs, nextQueryState._virtualTimeNs);
+      OpChain opChain = readyOpChain._opChain;
+      long currentTimeNs = _nanoTicker.getAsLong();
+      opChain.getStats().recordSchedulerWaitTime(currentTimeNs - readyOpChain._enqueueTimeNs);
+      _runStartTimeNsMap.put(opChain.getId(), currentTimeNs);
+      return opChain;
+    } finally {
+      _lock.unlock();
+    }
+  }
+
+  /**
+   * Charges the query of the OpChain with the time since the OpChain was returned by {@link #poll}. No-op if the
+   * OpChain is already charged.
+   */
+  void charge(OpChain opChain) {
+    _lock.lock();
+    try {
+      Long runStartTimeNs = _runStartTimeNsMap.remove(opChain.getId());
+      if (runStartTimeNs != null) {
+        QueryState queryState = _queryStates.get(opChain.getId().getRequestId());
+        if (queryState != null) {
+          // Re-insert the query to keep the ready queries sorted
+          boolean ready = _readyQueryStates.remove(queryState);
+          queryState._virtualTimeNs += (_nanoTicker.getAsLong() - runStartTimeNs) / queryState._priority;
+          if (ready) {
+            _readyQueryStates.add(queryState);
+          }
+        }
+      }
+    } finally {
+      _lock.unlock();
+    }
+  }
+
+  int size() {
+    _lock.lock();
+    try {
+      return _size;
+    } finally {
+      _lock.unlock();
+    }
+  }
+
+  private QueryState getOrCreateQueryState(OpChain opChain) {
+    return _queryStates.computeIfAbsent(opChain.getId().getRequestId(),
+        requestId -> new QueryState(requestId, Math.min(opChain.getPriority(), _maxPriority)));
+  }
+
+  @Override
+  public String toString() {
+    _lock.lock();
+    try {
+      return "WeightedFairQueue{size=" + _size + ", virtualTimeNs=" + _virtualTimeNs + "}";
+    } finally {
+      _lock.unlock();
+    }
+  }
+
+  private static class QueryState {
+    final long _requestId;
+    final int _priority;
+    final Queue<ReadyOpChain> _readyOpChains = new ArrayDeque<>();
+    int _numOpChains;
+    long _virtualTimeNs;
+
+    QueryState(long requestId, int priority) {
+      _requestId = requestId;
+      _priority = priority;
+    }
+  }
+
+  private static class ReadyOpChain {
+    final OpChain _opChain;
+    final long _enqueueTimeNs;
+
+    ReadyOpChain(OpChain opChain, long enqueueTimeNs) {
+      _opChain = opChain;
+      _enqueueTimeNs = enqueueTimeNs;
+    }
+  }
+}
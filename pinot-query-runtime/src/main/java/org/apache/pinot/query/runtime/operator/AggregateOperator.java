@@ -30,10 +30,12 @@ import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import org.apache.calcite.rel.hint.PinotHintOptions;
 import org.apache.pinot.common.datablock.DataBlock;
+import org.apache.pinot.common.datatable.DataTable;
 import org.apache.pinot.common.request.Literal;
 import org.apache.pinot.common.request.context.ExpressionContext;
 import org.apache.pinot.common.request.context.FunctionContext;
 import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.config.QueryOptionsUtils;
 import org.apache.pinot.core.common.BlockValSet;
 import org.apache.pinot.core.query.aggregation.function.AggregationFunction;
 import org.apache.pinot.core.query.aggregation.function.AggregationFunctionFactory;
@@ -69,10 +71,21 @@ import org.apache.pinot.spi.data.FieldSpec;
  * If the list of aggregation calls is not empty, the input of aggregation has to be a number.
  * Note: This class performs aggregation over the double value of input.
  * If the input is single value, the output type will be input type. Otherwise, the output type will be double.
+ *
+ * When the group by aggregation produces intermediate results (LEAF and INTERMEDIATE) and the partial aggregation is
+ * enabled (see {@link QueryOptionsUtils#getPartialAggregationMaxNumGroups}, disabled by default), it runs in partial
+ * mode: once the number of groups reaches the limit, the partial results are flushed downstream, where they are merged
+ * by the next aggregate. If the flushed groups show that the aggregation doesn't reduce the number of rows enough, the
+ * operator switches to pass-through mode and converts each input block into intermediate results without keeping any
+ * groups.
  */
 // TODO(Sonam): Rename to AggregateOperator when merging Planner support.
 public class AggregateOperator extends MultiStageOperator {
   private static final String EXPLAIN_NAME = "AGGREGATE_OPERATOR";
+  // Partial aggregation is disabled by default
+  private static final int DEFAULT_PARTIAL_AGGREGATION_MAX_NUM_GROUPS = 0;
+  // Switch to pass-through when the flushed groups are more than this fraction of the input rows
+  private static final double PASS_THROUGH_MIN_GROUPS_TO_ROWS_RATIO = 0.9;
 
   private final MultiStageOperator _inputOperator;
   private final DataSchema _resultSchema;
@@ -92,6 +105,13 @@ public class AggregateOperator extends MultiStageOperator {
   private MultistageAggregationExecutor _aggregationExecutor;
   private MultistageGroupByExecutor _groupByExecutor;
 
+  // Partial aggregation, only for group by aggregation producing intermediate results
+  private final int _partialAggregationMaxNumGroups;
+  private boolean _isPassThrough;
+  private long _numInputRows;
+  private long _numFlushedGroups;
+  private int _numPartialAggregationFlushes;
+
   @VisibleForTesting
   public AggregateOperator(OpChainExecutionContext context, MultiStageOperator inputOperator, DataSchema resultSchema,
       DataSchema inputSchema, List<RexExpression> aggCalls, List<RexExpression> groupSet, AggType aggType,
@@ -145,6 +165,15 @@ public class AggregateOperator extends MultiStageOperator {
           new MultistageAggregationExecutor(aggFunctions, filterArgIndexArray, aggType, _colNameToIndexMap,
               _resultSchema);
     }
+    _partialAggregationMaxNumGroups =
+        _isGroupByAggregation && aggType.isOutputIntermediateFormat() ? getPartialAggregationMaxNumGroups(context) : 0;
+  }
+
+  private static int getPartialAggregationMaxNumGroups(OpChainExecutionContext context) {
+    Map<String, String> opChainMetadata = context.getOpChainMetadata();
+    Integer maxNumGroups =
+        opChainMetadata != null ? QueryOptionsUtils.getPartialAggregationMaxNumGroups(opChainMetadata) : null;
+    return maxNumGroups != null ? maxNumGroups : DEFAULT_PARTIAL_AGGREGATION_MAX_NUM_GROUPS;
   }
 
   @Override
@@ -161,6 +190,9 @@ public class AggregateOperator extends MultiStageOperator {
   @Override
   protected TransferableBlock getNextBlock() {
     try {
+      if (_partialAggregationMaxNumGroups > 0) {
+        return getNextPartialAggregatedBlock();
+      }
       if (!_readyToConstruct && !consumeInputBlocks()) {
         return TransferableBlockUtils.getNoOpTransferableBlock();
       }
@@ -176,6 +208,9 @@ public class AggregateOperator extends MultiStageOperator {
         return TransferableBlockUtils.getEndOfStreamTransferableBlock();
       }
     } catch (Exception e) {
+      if (_partialAggregationMaxNumGroups > 0) {
+        recordPartialAggregationStats();
+      }
       return TransferableBlockUtils.getErrorTransferableBlock(e);
     }
   }
@@ -196,6 +231,59 @@ public class AggregateOperator extends MultiStageOperator {
     }
   }
 
+  private TransferableBlock getNextPartialAggregatedBlock() {
+    if (_hasReturnedAggregateBlock) {
+      return TransferableBlockUtils.getEndOfStreamTransferableBlock();
+    }
+    TransferableBlock block = _inputOperator.nextBlock();
+    while (!block.isNoOpBlock()) {
+      if (block.isErrorBlock()) {
+        recordPartialAggregationStats();
+        return block;
+      }
+      if (block.isEndOfStreamBlock()) {
+        _hasReturnedAggregateBlock = true;
+        recordPartialAggregationStats();
+        return _groupByExecutor.getNumGroups() > 0 ? flushPartialAggregatedBlock()
+            : TransferableBlockUtils.getEndOfStreamTransferableBlock();
+      }
+      if (_isPassThrough) {
+        List<Object[]> rows = _groupByExecutor.processBlockWithoutGrouping(block, _inputSchema);
+        if (!rows.isEmpty()) {
+          return new TransferableBlock(rows, _resultSchema, DataBlock.Type.ROW);
+        }
+      } else {
+        _groupByExecutor.processBlock(block, _inputSchema);
+        _numInputRows += block.getNumRows();
+        if (_groupByExecutor.getNumGroups() >= _partialAggregationMaxNumGroups) {
+          TransferableBlock partialAggregatedBlock = flushPartialAggregatedBlock();
+          _numPartialAggregationFlushes++;
+          _isPassThrough = _numFlushedGroups > PASS_THROUGH_MIN_GROUPS_TO_ROWS_RATIO * _numInputRows;
+          return partialAggregatedBlock;
+        }
+      }
+      block = _inputOperator.nextBlock();
+    }
+    return TransferableBlockUtils.getNoOpTransferableBlock();
+  }
+
+  private TransferableBlock flushPartialAggregatedBlock() {
+    List<Object[]> rows = _groupByExecutor.getResult();
+    _groupByExecutor.reset();
+    _numFlushedGroups += rows.size();
+    return new TransferableBlock(rows, _resultSchema, DataBlock.Type.ROW);
+  }
+
+  private void recordPartialAggregationStats() {
+    if (shouldCollectStats()) {
+      OperatorStats operatorStats = _opChainStats.getOperatorStats(_context, _operatorId);
+      operatorStats.recordSingleStat(DataTable.MetadataKey.NUM_PARTIAL_AGGREGATION_FLUSHES.getName(),
+          Integer.toString(_numPartialAggregationFlushes));
+      operatorStats.recordSingleStat(DataTable.MetadataKey.PARTIAL_AGGREGATION_PASS_THROUGH.getName(),
+          Boolean.toString(_isPassThrough));
+    }
+  }
+
   /**
    * @return whether or not the operator is ready to move on (EOS or ERROR)
    */
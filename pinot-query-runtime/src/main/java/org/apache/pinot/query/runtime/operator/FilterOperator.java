@@ -19,7 +19,6 @@
 package org.apache.pinot.query.runtime.operator;
 
 import com.google.common.collect.ImmutableList;
-import java.util.ArrayList;
 import java.util.List;
 import javax.annotation.Nullable;
 import org.apache.pinot.common.datablock.DataBlock;
@@ -27,6 +26,8 @@ import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.query.planner.logical.RexExpression;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 import org.apache.pinot.query.runtime.blocks.TransferableBlockUtils;
+import org.apache.pinot.query.runtime.operator.block.VectorizedBlock;
+import org.apache.pinot.query.runtime.operator.operands.FilterOperand;
 import org.apache.pinot.query.runtime.operator.operands.TransformOperand;
 import org.apache.pinot.query.runtime.operator.utils.TypeUtils;
 import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
@@ -46,6 +47,8 @@ import org.slf4j.LoggerFactory;
     2) Binary Operand: equals, notEquals, greaterThan, greaterThanOrEqual, lessThan, lessThanOrEqual
     3) All boolean scalar functions we have that take tranformOperand.
     Note: Scalar functions are the ones we have in v1 engine and only do function name and arg # matching.
+   The filter is evaluated column-at-a-time over the block (see VectorizedBlock), and the matching rows are tracked with
+   a selection vector so that only the matching rows are extracted from the upstream data block.
  */
 public class FilterOperator extends MultiStageOperator {
   private static final String EXPLAIN_NAME = "FILTER";
@@ -97,13 +100,27 @@ public class FilterOperator extends MultiStageOperator {
       return block;
     }
 
-    List<Object[]> resultRows = new ArrayList<>();
-    List<Object[]> container = block.getContainer();
-    for (Object[] row : container) {
-      if ((Boolean) TypeUtils.convert(_filterOperand.apply(row), DataSchema.ColumnDataType.BOOLEAN)) {
-        resultRows.add(row);
+    // Evaluate the filter column-at-a-time, and only keep the ids of the matching rows (selection vector)
+    VectorizedBlock vectorizedBlock = new VectorizedBlock(block);
+    int numRows = vectorizedBlock.getNumRows();
+    int[] selectedRowIds = new int[numRows];
+    int numSelectedRows = 0;
+    if (_filterOperand instanceof FilterOperand) {
+      boolean[] matches = ((FilterOperand) _filterOperand).applyFilter(vectorizedBlock, null);
+      for (int rowId = 0; rowId < numRows; rowId++) {
+        if (matches[rowId]) {
+          selectedRowIds[numSelectedRows++] = rowId;
+        }
+      }
+    } else {
+      Object[] values = _filterOperand.apply(vectorizedBlock, null).getValues();
+      for (int rowId = 0; rowId < numRows; rowId++) {
+        if ((Boolean) TypeUtils.convert(values[rowId], DataSchema.ColumnDataType.BOOLEAN)) {
+          selectedRowIds[numSelectedRows++] = rowId;
+        }
       }
     }
-    return new TransferableBlock(resultRows, _dataSchema, DataBlock.Type.ROW);
+    return new TransferableBlock(vectorizedBlock.getRows(selectedRowIds, numSelectedRows), _dataSchema,
+        DataBlock.Type.ROW);
   }
 }
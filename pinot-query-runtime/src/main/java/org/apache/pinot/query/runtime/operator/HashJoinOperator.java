@@ -18,35 +18,45 @@
  */
 package org.apache.pinot.query.runtime.operator;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import it.unimi.dsi.fastutil.HashCommon;
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import javax.annotation.Nullable;
 import org.apache.calcite.rel.core.JoinRelType;
+import org.apache.commons.io.FileUtils;
 import org.apache.pinot.common.datablock.DataBlock;
+import org.apache.pinot.common.datatable.DataTable;
 import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.config.QueryOptionsUtils;
 import org.apache.pinot.core.data.table.Key;
 import org.apache.pinot.query.planner.logical.RexExpression;
+import org.apache.pinot.query.planner.partitioning.FieldSelectionKeySelector;
 import org.apache.pinot.query.planner.partitioning.KeySelector;
 import org.apache.pinot.query.planner.plannode.JoinNode;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 import org.apache.pinot.query.runtime.blocks.TransferableBlockUtils;
 import org.apache.pinot.query.runtime.operator.operands.TransformOperand;
+import org.apache.pinot.query.runtime.operator.utils.JoinHashTable;
+import org.apache.pinot.query.runtime.operator.utils.SpillFile;
 import org.apache.pinot.query.runtime.operator.utils.TypeUtils;
 import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 
 /**
  * This basic {@code BroadcastJoinOperator} implement a basic broadcast join algorithm.
- * This algorithm assumes that the broadcast table has to fit in memory since we are not supporting any spilling.
+ * By default, this algorithm assumes that the broadcast table has to fit in memory.
  *
  * For left join, inner join, right join and full join,
  * <p>It takes the right table as the broadcast side and materialize a hash table. Then for each of the left table row,
@@ -55,26 +65,33 @@ import org.slf4j.LoggerFactory;
  * <p>For each of the data block received from the left table, it will generate a joint data block.
  * We currently support left join, inner join, right join and full join.
  * The output is in the format of [left_row, right_row]
+ *
+ * <p>When the join spill threshold is configured (see {@link QueryOptionsUtils#getJoinSpillThresholdBytes}) and the
+ * estimated size of the right table exceeds it, the operator switches to a grace hash join: both tables are
+ * partitioned on the join keys into local spill files (in the {@link DataBlock} binary format), then the partitions are
+ * joined one by one so that only one partition of the right table is held in memory at a time. The partitions are
+ * not further partitioned, so the query fails when a partition of the right table exceeds the threshold (e.g. skewed
+ * join keys). The spill files are written under the spill directory of the server (see
+ * {@link org.apache.pinot.query.service.QueryConfig#KEY_OF_SPILL_DIR}).
  */
 // TODO: Move inequi out of hashjoin. (https://github.com/apache/pinot/issues/9728)
 public class HashJoinOperator extends MultiStageOperator {
   private static final String EXPLAIN_NAME = "HASH_JOIN";
-  private static final int INITIAL_HEURISTIC_SIZE = 16;
-  private static final Logger LOGGER = LoggerFactory.getLogger(AggregateOperator.class);
+  private static final int NUM_SPILL_PARTITIONS = 16;
+  private static final int MAX_ROWS_PER_SPILL_BLOCK = 1024;
+  private static final Logger LOGGER = LoggerFactory.getLogger(HashJoinOperator.class);
 
   private static final Set<JoinRelType> SUPPORTED_JOIN_TYPES = ImmutableSet.of(
       JoinRelType.INNER, JoinRelType.LEFT, JoinRelType.RIGHT, JoinRelType.FULL, JoinRelType.SEMI, JoinRelType.ANTI);
 
-  private final HashMap<Key, ArrayList<Object[]>> _broadcastRightTable;
-
-  // Used to track matched right rows.
-  // Only used for right join and full join to output non-matched right rows.
-  // TODO: Replace hashset with rolling bit map.
-  private final HashMap<Key, HashSet<Integer>> _matchedRightRows;
+  // Hash table of the right rows, which also tracks the matched right rows.
+  // Matched right rows are only tracked for right join and full join to output non-matched right rows.
+  private final JoinHashTable _rightTable;
 
   private final MultiStageOperator _leftTableOperator;
   private final MultiStageOperator _rightTableOperator;
   private final JoinRelType _joinType;
+  private final DataSchema _leftSchema;
   private final DataSchema _resultSchema;
   private final int _leftColumnSize;
   private final int _resultColumnSize;
@@ -89,6 +106,14 @@ public class HashJoinOperator extends MultiStageOperator {
   private KeySelector<Object[], Object[]> _leftKeySelector;
   private KeySelector<Object[], Object[]> _rightKeySelector;
 
+  // Used by the spilled (grace hash) join. Non-positive threshold disables spilling.
+  private final long _spillThresholdBytes;
+  private File _spillDir;
+  private SpillFile[] _rightSpillFiles;
+  private SpillFile[] _leftSpillFiles;
+  private boolean _isLeftTableSpilled;
+  private int _currentPartitionId = -1;
+
   public HashJoinOperator(OpChainExecutionContext context, MultiStageOperator leftTableOperator,
       MultiStageOperator rightTableOperator, DataSchema leftSchema, JoinNode node) {
     super(context);
@@ -99,6 +124,7 @@ public class HashJoinOperator extends MultiStageOperator {
     _rightKeySelector = node.getJoinKeys().getRightJoinKeySelector();
     Preconditions.checkState(_leftKeySelector != null, "LeftKeySelector for join cannot be null");
     Preconditions.checkState(_rightKeySelector != null, "RightKeySelector for join cannot be null");
+    _leftSchema = leftSchema;
     _leftColumnSize = leftSchema.size();
     Preconditions.checkState(_leftColumnSize > 0, "leftColumnSize has to be greater than zero:" + _leftColumnSize);
     _resultSchema = node.getDataSchema();
@@ -113,13 +139,12 @@ public class HashJoinOperator extends MultiStageOperator {
       _joinClauseEvaluators.add(TransformOperand.toTransformOperand(joinClause, _resultSchema));
     }
     _isHashTableBuilt = false;
-    _broadcastRightTable = new HashMap<>();
-    if (needUnmatchedRightRows()) {
-      _matchedRightRows = new HashMap<>();
-    } else {
-      _matchedRightRows = null;
-    }
+    Preconditions.checkState(_rightKeySelector instanceof FieldSelectionKeySelector,
+        "Unsupported right key selector: %s", _rightKeySelector);
+    _rightTable = new JoinHashTable(((FieldSelectionKeySelector) _rightKeySelector).getColumnIndices());
     _upstreamErrorBlock = null;
+    Long spillThresholdBytes = QueryOptionsUtils.getJoinSpillThresholdBytes(context.getOpChainMetadata());
+    _spillThresholdBytes = spillThresholdBytes != null ? spillThresholdBytes : -1L;
   }
 
   // TODO: Separate left and right table operator.
@@ -149,6 +174,9 @@ public class HashJoinOperator extends MultiStageOperator {
       } else if (!_isHashTableBuilt) {
         return TransferableBlockUtils.getNoOpTransferableBlock();
       }
+      if (_rightSpillFiles != null) {
+        return getNextSpilledJoinBlock();
+      }
       TransferableBlock leftBlock = _leftTableOperator.nextBlock();
       // JOIN each left block with the right block.
       return buildJoinedDataBlock(leftBlock);
@@ -157,7 +185,8 @@ public class HashJoinOperator extends MultiStageOperator {
     }
   }
 
-  private void buildBroadcastHashTable() {
+  private void buildBroadcastHashTable()
+      throws IOException {
     TransferableBlock rightBlock = _rightTableOperator.nextBlock();
     while (!rightBlock.isNoOpBlock()) {
       if (rightBlock.isErrorBlock()) {
@@ -165,24 +194,194 @@ public class HashJoinOperator extends MultiStageOperator {
         return;
       }
       if (TransferableBlockUtils.isEndOfStream(rightBlock)) {
+        if (_rightSpillFiles != null) {
+          for (SpillFile spillFile : _rightSpillFiles) {
+            spillFile.finishWriting();
+          }
+        }
         _isHashTableBuilt = true;
         return;
       }
       List<Object[]> container = rightBlock.getContainer();
-      // put all the rows into corresponding hash collections keyed by the key selector function.
-      for (Object[] row : container) {
-        ArrayList<Object[]> hashCollection = _broadcastRightTable.computeIfAbsent(
-            new Key(_rightKeySelector.getKey(row)), k -> new ArrayList<>(INITIAL_HEURISTIC_SIZE));
-        int size = hashCollection.size();
-        if ((size & size - 1) == 0 && size < Integer.MAX_VALUE / 2) { // is power of 2
-          hashCollection.ensureCapacity(size << 1);
+      if (_rightSpillFiles != null) {
+        spillRows(container, _rightKeySelector, _rightSpillFiles);
+      } else {
+        _rightTable.addRows(container);
+        if (_spillThresholdBytes > 0 && _rightTable.getSizeInBytes() > _spillThresholdBytes) {
+          spillRightTable(rightBlock.getDataSchema());
         }
-        hashCollection.add(row);
       }
       rightBlock = _rightTableOperator.nextBlock();
     }
   }
 
+  /**
+   * Switches to the spilled join by moving the right table rows collected so far into the partitioned spill files.
+   */
+  private void spillRightTable(DataSchema rightSchema)
+      throws IOException {
+    _spillDir = SpillFile.createSpillDir(_context.getOpChainMetadata(),
+        "pinot_hash_join_" + _context.getRequestId() + "_" + _context.getStageId() + "_");
+    LOGGER.info("Spilling hash join with right table size: {} bytes (threshold: {} bytes) to: {}",
+        _rightTable.getSizeInBytes(), _spillThresholdBytes, _spillDir);
+    _rightSpillFiles = createSpillFiles("right", rightSchema);
+    _leftSpillFiles = createSpillFiles("left", _leftSchema);
+    int numRows = _rightTable.getNumRows();
+    for (int rowId = 0; rowId < numRows; rowId++) {
+      Object[] row = _rightTable.getRow(rowId);
+      _rightSpillFiles[getPartitionId(new Key(_rightKeySelector.getKey(row)))].add(row);
+    }
+    _rightTable.clear();
+  }
+
+  private SpillFile[] createSpillFiles(String prefix, DataSchema dataSchema)
+      throws IOException {
+    SpillFile[] spillFiles = new SpillFile[NUM_SPILL_PARTITIONS];
+    for (int i = 0; i < NUM_SPILL_PARTITIONS; i++) {
+      spillFiles[i] = new SpillFile(new File(_spillDir, prefix + "_" + i), dataSchema, MAX_ROWS_PER_SPILL_BLOCK);
+    }
+    return spillFiles;
+  }
+
+  private static void spillRows(List<Object[]> rows, KeySelector<Object[], Object[]> keySelector,
+      SpillFile[] spillFiles)
+      throws IOException {
+    for (Object[] row : rows) {
+      spillFiles[getPartitionId(new Key(keySelector.getKey(row)))].add(row);
+    }
+  }
+
+  /**
+   * Returns the spill partition for the join key. The hash code is remixed before the modulo because the rows received
+   * by this operator are already hash partitioned on the same keys by the upstream exchange, which would otherwise
+   * put all the rows into a few spill partitions.
+   */
+  @VisibleForTesting
+  static int getPartitionId(Key key) {
+    return (HashCommon.mix(key.hashCode()) & Integer.MAX_VALUE) % NUM_SPILL_PARTITIONS;
+  }
+
+  /**
+   * Returns the next block of the spilled join. The left table is first partitioned into the spill files, then each
+   * partition of the right table is loaded into the hash table and joined with the same partition of the left table.
+   */
+  private TransferableBlock getNextSpilledJoinBlock()
+      throws IOException {
+    if (!_isLeftTableSpilled) {
+      TransferableBlock leftBlock = _leftTableOperator.nextBlock();
+      while (!TransferableBlockUtils.isEndOfStream(leftBlock)) {
+        if (leftBlock.isNoOpBlock()) {
+          return leftBlock;
+        }
+        spillRows(leftBlock.getContainer(), _leftKeySelector, _leftSpillFiles);
+        leftBlock = _leftTableOperator.nextBlock();
+      }
+      if (leftBlock.isErrorBlock()) {
+        _upstreamErrorBlock = leftBlock;
+        return leftBlock;
+      }
+      for (SpillFile spillFile : _leftSpillFiles) {
+        spillFile.finishWriting();
+      }
+      _isLeftTableSpilled = true;
+      recordSpillStats();
+    }
+    while (_currentPartitionId < NUM_SPILL_PARTITIONS) {
+      if (_currentPartitionId >= 0) {
+        List<Object[]> leftRows = _leftSpillFiles[_currentPartitionId].read();
+        if (leftRows != null) {
+          return new TransferableBlock(joinRows(leftRows), _resultSchema, DataBlock.Type.ROW);
+        }
+      }
+      List<Object[]> unmatchedRightRows =
+          _currentPartitionId >= 0 && needUnmatchedRightRows() ? getUnmatchedRightRows() : Collections.emptyList();
+      loadNextPartition();
+      if (!unmatchedRightRows.isEmpty()) {
+        return new TransferableBlock(unmatchedRightRows, _resultSchema, DataBlock.Type.ROW);
+      }
+    }
+    _isTerminated = true;
+    return TransferableBlockUtils.getEndOfStreamTransferableBlock();
+  }
+
+  /**
+   * Releases the current partition and loads the right table rows of the next partition into the hash table.
+   */
+  private void loadNextPartition()
+      throws IOException {
+    if (_currentPartitionId >= 0) {
+      _leftSpillFiles[_currentPartitionId].close();
+      _rightSpillFiles[_currentPartitionId].close();
+    }
+    _rightTable.clear();
+    _currentPartitionId++;
+    if (_currentPartitionId < NUM_SPILL_PARTITIONS) {
+      // The right table rows are not needed when there is no left table row and the unmatched right rows are not
+      // returned
+      if (_leftSpillFiles[_currentPartitionId].getNumRows() == 0 && !needUnmatchedRightRows()) {
+        return;
+      }
+      SpillFile rightSpillFile = _rightSpillFiles[_currentPartitionId];
+      List<Object[]> rightRows;
+      while ((rightRows = rightSpillFile.read()) != null) {
+        _rightTable.addRows(rightRows);
+        // The partitions are not further partitioned, so fail the query instead of holding a skewed partition larger
+        // than the threshold in memory
+        Preconditions.checkState(_rightTable.getSizeInBytes() <= _spillThresholdBytes,
+            "Spilled hash join partition: %s of the right table exceeds the spill threshold: %s bytes (%s rows spilled "
+                + "to the partition), consider increasing the threshold or check for skewed join keys",
+            _currentPartitionId, _spillThresholdBytes, rightSpillFile.getNumRows());
+      }
+    }
+  }
+
+  private void recordSpillStats() {
+    long numRowsSpilled = 0;
+    long numBytesSpilled = 0;
+    for (int i = 0; i < NUM_SPILL_PARTITIONS; i++) {
+      numRowsSpilled += _leftSpillFiles[i].getNumRows() + _rightSpillFiles[i].getNumRows();
+      numBytesSpilled += _leftSpillFiles[i].getNumBytes() + _rightSpillFiles[i].getNumBytes();
+    }
+    LOGGER.info("Spilled {} rows ({} bytes) for hash join to: {}", numRowsSpilled, numBytesSpilled, _spillDir);
+    if (shouldCollectStats()) {
+      OperatorStats operatorStats = _opChainStats.getOperatorStats(_context, _operatorId);
+      operatorStats.recordSingleStat(DataTable.MetadataKey.NUM_ROWS_SPILLED.getName(), Long.toString(numRowsSpilled));
+      operatorStats.recordSingleStat(DataTable.MetadataKey.NUM_BYTES_SPILLED.getName(),
+          Long.toString(numBytesSpilled));
+    }
+  }
+
+  private void cleanUpSpillFiles() {
+    if (_spillDir != null) {
+      for (int i = 0; i < NUM_SPILL_PARTITIONS; i++) {
+        closeQuietly(_leftSpillFiles[i]);
+        closeQuietly(_rightSpillFiles[i]);
+      }
+      FileUtils.deleteQuietly(_spillDir);
+      _spillDir = null;
+    }
+  }
+
+  private static void closeQuietly(SpillFile spillFile) {
+    try {
+      spillFile.close();
+    } catch (Exception e) {
+      LOGGER.warn("Failed to close spill file", e);
+    }
+  }
+
+  @Override
+  public void close() {
+    super.close();
+    cleanUpSpillFiles();
+  }
+
+  @Override
+  public void cancel(Throwable e) {
+    super.cancel(e);
+    cleanUpSpillFiles();
+  }
+
   private TransferableBlock buildJoinedDataBlock(TransferableBlock leftBlock)
       throws Exception {
     if (leftBlock.isErrorBlock()) {
@@ -202,19 +401,7 @@ public class HashJoinOperator extends MultiStageOperator {
     // TODO: Moved to a different function.
     if (leftBlock.isSuccessfulEndOfStreamBlock() && needUnmatchedRightRows()) {
       // Return remaining non-matched rows for non-inner join.
-      List<Object[]> returnRows = new ArrayList<>();
-      for (Map.Entry<Key, ArrayList<Object[]>> entry : _broadcastRightTable.entrySet()) {
-        Set<Integer> matchedIdx = _matchedRightRows.getOrDefault(entry.getKey(), new HashSet<>());
-        List<Object[]> rightRows = entry.getValue();
-        if (rightRows.size() == matchedIdx.size()) {
-          continue;
-        }
-        for (int i = 0; i < rightRows.size(); i++) {
-          if (!matchedIdx.contains(i)) {
-            returnRows.add(joinRow(null, rightRows.get(i)));
-          }
-        }
-      }
+      List<Object[]> returnRows = getUnmatchedRightRows();
       _isTerminated = true;
       return new TransferableBlock(returnRows, _resultSchema, DataBlock.Type.ROW);
     }
@@ -222,32 +409,38 @@ public class HashJoinOperator extends MultiStageOperator {
     if (leftBlock.isEndOfStreamBlock()) {
       rows = new ArrayList<>();
     } else {
-      switch (_joinType) {
-        case SEMI: {
-          rows = buildJoinedDataBlockSemi(leftBlock);
-          break;
-        }
-        case ANTI: {
-          rows = buildJoinedDataBlockAnti(leftBlock);
-          break;
-        }
-        default: { // INNER, LEFT, RIGHT, FULL
-          rows = buildJoinedDataBlockDefault(leftBlock);
-          break;
-        }
-      }
+      rows = joinRows(leftBlock.getContainer());
     }
     return new TransferableBlock(rows, _resultSchema, DataBlock.Type.ROW);
   }
 
-  private List<Object[]> buildJoinedDataBlockSemi(TransferableBlock leftBlock) {
-    List<Object[]> container = leftBlock.getContainer();
+  private List<Object[]> joinRows(List<Object[]> container) {
+    switch (_joinType) {
+      case SEMI:
+        return buildJoinedDataBlockSemi(container);
+      case ANTI:
+        return buildJoinedDataBlockAnti(container);
+      default: // INNER, LEFT, RIGHT, FULL
+        return buildJoinedDataBlockDefault(container);
+    }
+  }
+
+  private List<Object[]> getUnmatchedRightRows() {
+    RoaringBitmap unmatchedRowIds = _rightTable.getUnmatchedRowIds();
+    List<Object[]> returnRows = new ArrayList<>(unmatchedRowIds.getCardinality());
+    PeekableIntIterator iterator = unmatchedRowIds.getIntIterator();
+    while (iterator.hasNext()) {
+      returnRows.add(joinRow(null, iterator.next()));
+    }
+    return returnRows;
+  }
+
+  private List<Object[]> buildJoinedDataBlockSemi(List<Object[]> container) {
     List<Object[]> rows = new ArrayList<>(container.size());
 
     for (Object[] leftRow : container) {
-      Key key = new Key(_leftKeySelector.getKey(leftRow));
       // SEMI-JOIN only checks existence of the key
-      if (_broadcastRightTable.containsKey(key)) {
+      if (_rightTable.containsKey(_leftKeySelector.getKey(leftRow))) {
         rows.add(joinRow(leftRow, null));
       }
     }
@@ -255,36 +448,31 @@ public class HashJoinOperator extends MultiStageOperator {
     return rows;
   }
 
-  private List<Object[]> buildJoinedDataBlockDefault(TransferableBlock leftBlock) {
-    List<Object[]> container = leftBlock.getContainer();
+  private List<Object[]> buildJoinedDataBlockDefault(List<Object[]> container) {
     ArrayList<Object[]> rows = new ArrayList<>(container.size());
 
     for (Object[] leftRow : container) {
-      Key key = new Key(_leftKeySelector.getKey(leftRow));
       // NOTE: Empty key selector will always give same hash code.
-      List<Object[]> matchedRightRows = _broadcastRightTable.getOrDefault(key, null);
-      if (matchedRightRows == null) {
+      int rightRowId = _rightTable.getFirstRowId(_leftKeySelector.getKey(leftRow));
+      if (rightRowId == JoinHashTable.NO_ROW) {
         if (needUnmatchedLeftRows()) {
           rows.add(joinRow(leftRow, null));
         }
         continue;
       }
       boolean hasMatchForLeftRow = false;
-      rows.ensureCapacity(rows.size() + matchedRightRows.size());
-      for (int i = 0; i < matchedRightRows.size(); i++) {
-        Object[] rightRow = matchedRightRows.get(i);
-        // TODO: Optimize this to avoid unnecessary object copy.
-        Object[] resultRow = joinRow(leftRow, rightRow);
+      while (rightRowId != JoinHashTable.NO_ROW) {
+        Object[] resultRow = joinRow(leftRow, rightRowId);
         if (_joinClauseEvaluators.isEmpty() || _joinClauseEvaluators.stream().allMatch(
             evaluator -> (Boolean) TypeUtils.convert(evaluator.apply(resultRow),
                 DataSchema.ColumnDataType.BOOLEAN))) {
           rows.add(resultRow);
           hasMatchForLeftRow = true;
-          if (_matchedRightRows != null) {
-            HashSet<Integer> matchedRows = _matchedRightRows.computeIfAbsent(key, k -> new HashSet<>());
-            matchedRows.add(i);
+          if (needUnmatchedRightRows()) {
+            _rightTable.markMatched(rightRowId);
           }
         }
+        rightRowId = _rightTable.getNextRowId(rightRowId);
       }
       if (!hasMatchForLeftRow && needUnmatchedLeftRows()) {
         rows.add(joinRow(leftRow, null));
@@ -294,20 +482,27 @@ public class HashJoinOperator extends MultiStageOperator {
     return rows;
   }
 
-  private List<Object[]> buildJoinedDataBlockAnti(TransferableBlock leftBlock) {
-    List<Object[]> container = leftBlock.getContainer();
+  private List<Object[]> buildJoinedDataBlockAnti(List<Object[]> container) {
     List<Object[]> rows = new ArrayList<>(container.size());
 
     for (Object[] leftRow : container) {
-      Key key = new Key(_leftKeySelector.getKey(leftRow));
       // ANTI-JOIN only checks non-existence of the key
-      if (!_broadcastRightTable.containsKey(key)) {
+      if (!_rightTable.containsKey(_leftKeySelector.getKey(leftRow))) {
         rows.add(joinRow(leftRow, null));
       }
     }
     return rows;
   }
 
+  private Object[] joinRow(@Nullable Object[] leftRow, int rightRowId) {
+    Object[] resultRow = new Object[_resultColumnSize];
+    if (leftRow != null) {
+      System.arraycopy(leftRow, 0, resultRow, 0, leftRow.length);
+    }
+    _rightTable.getRow(rightRowId, resultRow, _leftColumnSize);
+    return resultRow;
+  }
+
   private Object[] joinRow(@Nullable Object[] leftRow, @Nullable Object[] rightRow) {
     Object[] resultRow = new Object[_resultColumnSize];
     int idx = 0;
@@ -29,6 +29,7 @@ import java.util.concurrent.TimeoutException;
 import javax.annotation.Nullable;
 import org.apache.calcite.rel.RelDistribution;
 import org.apache.calcite.rel.RelFieldCollation;
+import org.apache.pinot.common.datatable.DataTable;
 import org.apache.pinot.query.mailbox.MailboxIdUtils;
 import org.apache.pinot.query.mailbox.MailboxService;
 import org.apache.pinot.query.mailbox.SendingMailbox;
@@ -128,6 +129,11 @@ public class MailboxSendOperator extends MultiStageOperator {
         if (transferableBlock.isSuccessfulEndOfStreamBlock()) {
           // Stats need to be populated here because the block is being sent to the mailbox
           // and the receiving opChain will not be able to access the stats from the previous opChain
+          if (shouldCollectStats()) {
+            _opChainStats.getOperatorStats(_context, _operatorId)
+                .recordSingleStat(DataTable.MetadataKey.SCHEDULER_WAIT_TIME_MS.getName(),
+                    Long.toString(_opChainStats.getSchedulerWaitTimeMs()));
+          }
           TransferableBlock eosBlockWithStats = TransferableBlockUtils.getEndOfStreamTransferableBlock(
               OperatorUtils.getMetadataFromOperatorStats(_opChainStats.getOperatorStatsMap()));
           sendTransferableBlock(eosBlockWithStats);
@@ -74,6 +74,10 @@ public class MultistageGroupByExecutor {
 
     _groupKeyToIdMap = new HashMap<>();
 
+    createAggregateResultHolders();
+  }
+
+  private void createAggregateResultHolders() {
     for (int i = 0; i < _aggFunctions.length; i++) {
       _aggregateResultHolders[i] = _aggFunctions[i].createGroupByResultHolder(
           InstancePlanMakerImplV2.DEFAULT_MAX_INITIAL_RESULT_HOLDER_CAPACITY,
@@ -81,6 +85,62 @@ public class MultistageGroupByExecutor {
     }
   }
 
+  /**
+   * Returns the number of groups aggregated so far.
+   */
+  public int getNumGroups() {
+    return _groupKeyToIdMap.size();
+  }
+
+  /**
+   * Drops all the groups aggregated so far, e.g. after their partial results are flushed downstream. The result holders
+   * are cleared and reused without re-allocating the storage.
+   */
+  public void reset() {
+    int numGroups = _groupKeyToIdMap.size();
+    _groupKeyToIdMap.clear();
+    _mergeResultHolder.clear();
+    if (!_aggType.isInputIntermediateFormat()) {
+      for (GroupByResultHolder groupByResultHolder : _aggregateResultHolders) {
+        groupByResultHolder.clearResults(numGroups);
+      }
+    }
+  }
+
+  /**
+   * Returns the intermediate results for the rows in the block without grouping them with the rows of other blocks.
+   * This is only valid when the result is in intermediate format, i.e. it will be merged by another aggregate.
+   * <p>
+   * For intermediate input the rows are only projected to the result format. For raw input, the rows within the block
+   * are aggregated together as the v1 aggregation functions don't expose the conversion of a single value into an
+   * intermediate result.
+   */
+  public List<Object[]> processBlockWithoutGrouping(TransferableBlock block, DataSchema inputDataSchema) {
+    assert _aggType.isOutputIntermediateFormat();
+    if (!_aggType.isInputIntermediateFormat()) {
+      assert _groupKeyToIdMap.isEmpty() : "Groups should be flushed before processing blocks without grouping";
+      processAggregate(block, inputDataSchema);
+      List<Object[]> rows = getResult();
+      reset();
+      return rows;
+    }
+    List<Object[]> container = block.getContainer();
+    List<Object[]> rows = new ArrayList<>(container.size());
+    int numKeys = _groupSet.size();
+    int numFunctions = _aggFunctions.length;
+    for (Object[] inputRow : container) {
+      Object[] row = new Object[numKeys + numFunctions];
+      for (int j = 0; j < numKeys; j++) {
+        row[j] = inputRow[_colNameToIndexMap.get(_groupSet.get(j).getIdentifier())];
+      }
+      for (int i = 0; i < numFunctions; i++) {
+        row[numKeys + i] = AggregateOperator.extractValueFromRow(_aggFunctions[i], inputRow, _colNameToIndexMap);
+      }
+      rows.add(TypeUtils.canonicalizeRow(row, _resultSchema));
+    }
+    return rows;
+  }
+
   /**
    * Performs group-by aggregation for the data in the block.
    */
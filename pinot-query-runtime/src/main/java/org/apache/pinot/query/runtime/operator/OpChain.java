@@ -18,8 +18,11 @@
  */
 package org.apache.pinot.query.runtime.operator;
 
+import com.google.common.base.Preconditions;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Consumer;
+import org.apache.pinot.common.utils.config.QueryOptionsUtils;
 import org.apache.pinot.core.common.Operator;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
@@ -30,11 +33,14 @@ import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
  * by send/receive stages.
  */
 public class OpChain implements AutoCloseable {
+  public static final int DEFAULT_PRIORITY = 1;
+
   private final MultiStageOperator _root;
   private final List<String> _receivingMailboxIds;
   private final OpChainId _id;
   private final OpChainStats _stats;
   private final Consumer<OpChainId> _opChainFinishCallback;
+  private final int _priority;
 
   public OpChain(OpChainExecutionContext context, MultiStageOperator root, List<String> receivingMailboxIds) {
     this(context, root, receivingMailboxIds, (id) -> { });
@@ -47,6 +53,16 @@ public class OpChain implements AutoCloseable {
     _id = context.getId();
     _stats = context.getStats();
     _opChainFinishCallback = opChainFinishCallback;
+    _priority = getPriority(context.getOpChainMetadata());
+  }
+
+  private static int getPriority(Map<String, String> opChainMetadata) {
+    Integer priority = opChainMetadata != null ? QueryOptionsUtils.getSchedulerPriority(opChainMetadata) : null;
+    if (priority == null) {
+      return DEFAULT_PRIORITY;
+    }
+    Preconditions.checkArgument(priority > 0, "Scheduler priority must be positive, got: %s", priority);
+    return priority;
   }
 
   public Operator<TransferableBlock> getRoot() {
@@ -65,6 +81,13 @@ public class OpChain implements AutoCloseable {
     return _id;
   }
 
+  /**
+   * Returns the scheduling priority of the OpChain, which is the weight of the query in the weighted fair queuing.
+   */
+  public int getPriority() {
+    return _priority;
+  }
+
   // TODO: Move OperatorStats here.
   public OpChainStats getStats() {
     return _stats;
@@ -49,6 +49,8 @@ public class OpChainStats {
   private final Stopwatch _executeStopwatch = Stopwatch.createUnstarted();
   private final Stopwatch _queuedStopwatch = Stopwatch.createUnstarted();
   private final AtomicLong _queuedCount = new AtomicLong();
+  // Time spent in the ready queue waiting for a worker, excluding the time waiting for data
+  private final AtomicLong _schedulerWaitTimeNs = new AtomicLong();
 
   private final String _id;
   private final ConcurrentHashMap<String, OperatorStats> _operatorStatsMap = new ConcurrentHashMap<>();
@@ -74,6 +76,14 @@ public class OpChainStats {
     }
   }
 
+  public void recordSchedulerWaitTime(long waitTimeNs) {
+    _schedulerWaitTimeNs.addAndGet(waitTimeNs);
+  }
+
+  public long getSchedulerWaitTimeMs() {
+    return TimeUnit.NANOSECONDS.toMillis(_schedulerWaitTimeNs.get());
+  }
+
   public ConcurrentHashMap<String, OperatorStats> getOperatorStatsMap() {
     return _operatorStatsMap;
   }
@@ -102,8 +112,9 @@ public class OpChainStats {
 
   @Override
   public String toString() {
-    return String.format("(%s) Queued Count: %s, Executing Time: %sms, Queued Time: %sms", _id, _queuedCount.get(),
-        _exTimerStarted ? _executeStopwatch.elapsed(TimeUnit.MILLISECONDS) : 0,
-        _queuedStopwatch.elapsed(TimeUnit.MILLISECONDS));
+    return String.format(
+        "(%s) Queued Count: %s, Executing Time: %sms, Queued Time: %sms, Scheduler Wait Time: %sms", _id,
+        _queuedCount.get(), _exTimerStarted ? _executeStopwatch.elapsed(TimeUnit.MILLISECONDS) : 0,
+        _queuedStopwatch.elapsed(TimeUnit.MILLISECONDS), getSchedulerWaitTimeMs());
   }
 }
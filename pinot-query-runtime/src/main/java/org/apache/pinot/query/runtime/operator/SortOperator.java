@@ -20,37 +20,65 @@ package org.apache.pinot.query.runtime.operator;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.PriorityQueue;
 import javax.annotation.Nullable;
 import org.apache.calcite.rel.RelFieldCollation;
+import org.apache.commons.io.FileUtils;
 import org.apache.pinot.common.datablock.DataBlock;
+import org.apache.pinot.common.datatable.DataTable;
 import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.config.QueryOptionsUtils;
 import org.apache.pinot.core.query.selection.SelectionOperatorUtils;
 import org.apache.pinot.query.planner.logical.RexExpression;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 import org.apache.pinot.query.runtime.blocks.TransferableBlockUtils;
+import org.apache.pinot.query.runtime.operator.utils.OperatorUtils;
 import org.apache.pinot.query.runtime.operator.utils.SortUtils;
+import org.apache.pinot.query.runtime.operator.utils.SpillFile;
 import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
 import org.apache.pinot.spi.utils.CommonConstants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 
+/**
+ * The {@code SortOperator} sorts the rows from the upstream operator and applies the limit and offset.
+ *
+ * <p>With a limit, the top rows are kept in a bounded priority queue. Without a limit, when the sort spill threshold
+ * is configured (see {@link QueryOptionsUtils#getSortSpillThresholdBytes}), the rows are buffered until their
+ * estimated size exceeds the threshold, then sorted and written to a local spill file as a sorted run (in the
+ * {@link DataBlock} binary format). Once all the rows are received, the sorted runs are k-way merged and streamed out
+ * block by block, so that only one block per run is held in memory.
+ */
 public class SortOperator extends MultiStageOperator {
   private static final String EXPLAIN_NAME = "SORT";
+  private static final int MAX_ROWS_PER_BLOCK = 1024;
   private static final Logger LOGGER = LoggerFactory.getLogger(SortOperator.class);
 
   private final MultiStageOperator _upstreamOperator;
   private final int _fetch;
   private final int _offset;
   private final DataSchema _dataSchema;
-  private final PriorityQueue<Object[]> _priorityQueue;
+  // Used by the bounded top rows, where the rows are kept with the extracted sort keys
+  private final SortUtils.SortComparator _sortComparator;
+  private final PriorityQueue<SortUtils.SortKeyRow> _priorityQueue;
   private final ArrayList<Object[]> _rows;
   private final int _numRowsToKeep;
 
+  // Used by the external merge sort, where the comparator is non-null. Non-positive threshold disables spilling.
+  private final SortUtils.SortComparator _externalSortComparator;
+  private final long _spillThresholdBytes;
+  private final List<SpillFile> _spillFiles = new ArrayList<>();
+  private File _spillDir;
+  private long _numBufferedBytes;
+  private PriorityQueue<SortedRun> _mergeQueue;
+  private int _numRowsMerged;
+
   private boolean _readyToConstruct;
   private boolean _isSortedBlockConstructed;
   private TransferableBlock _upstreamErrorBlock;
@@ -79,18 +107,32 @@ public class SortOperator extends MultiStageOperator {
     // Setting numRowsToKeep as default maximum on Broker if limit not set.
     // TODO: make this default behavior configurable.
     _numRowsToKeep = _fetch > 0 ? _fetch + _offset : defaultResponseLimit;
+    Long spillThresholdBytes = QueryOptionsUtils.getSortSpillThresholdBytes(context.getOpChainMetadata());
+    _spillThresholdBytes = spillThresholdBytes != null ? spillThresholdBytes : -1L;
     // Under the following circumstances, the SortOperator is a simple selection with row trim on limit & offset:
     // - There are no collationKeys
     // - 'isInputSorted' is set to true indicating that the data was already sorted
     if (collationKeys.isEmpty() || isInputSorted) {
+      _sortComparator = null;
       _priorityQueue = null;
       _rows = new ArrayList<>();
+      _externalSortComparator = null;
+    } else if (_fetch <= 0 && _spillThresholdBytes > 0) {
+      // Without limit, buffer the rows and sort them at the end, spilling sorted runs to disk when needed
+      _sortComparator = null;
+      _priorityQueue = null;
+      _rows = new ArrayList<>();
+      _externalSortComparator =
+          new SortUtils.SortComparator(collationKeys, collationDirections, collationNullDirections, dataSchema, false);
     } else {
       // Use the opposite direction as specified by the collation directions since we need the PriorityQueue to decide
       // which elements to keep and which to remove based on the limits.
+      _sortComparator =
+          new SortUtils.SortComparator(collationKeys, collationDirections, collationNullDirections, dataSchema, true);
       _priorityQueue = new PriorityQueue<>(Math.min(defaultHolderCapacity, _numRowsToKeep),
-          new SortUtils.SortComparator(collationKeys, collationDirections, collationNullDirections, dataSchema, true));
+          _sortComparator::compareSortKeyRows);
       _rows = null;
+      _externalSortComparator = null;
     }
   }
 
@@ -99,8 +141,15 @@ public class SortOperator extends MultiStageOperator {
     return ImmutableList.of(_upstreamOperator);
   }
 
+  @Override
+  public void close() {
+    super.close();
+    cleanUpSpillFiles();
+  }
+
   @Override
   public void cancel(Throwable e) {
+    cleanUpSpillFiles();
   }
 
   @Nullable
@@ -119,7 +168,8 @@ public class SortOperator extends MultiStageOperator {
     }
   }
 
-  private TransferableBlock produceSortedBlock() {
+  private TransferableBlock produceSortedBlock()
+      throws IOException {
     if (_upstreamErrorBlock != null) {
       return _upstreamErrorBlock;
     } else if (!_readyToConstruct) {
@@ -128,7 +178,9 @@ public class SortOperator extends MultiStageOperator {
 
     if (!_isSortedBlockConstructed) {
       _isSortedBlockConstructed = true;
-      if (_priorityQueue == null) {
+      if (_externalSortComparator != null) {
+        return produceExternalSortedBlock();
+      } else if (_priorityQueue == null) {
         if (_rows.size() > _offset) {
           List<Object[]> row = _rows.subList(_offset, _rows.size());
           return new TransferableBlock(row, _dataSchema, DataBlock.Type.ROW);
@@ -136,23 +188,133 @@ public class SortOperator extends MultiStageOperator {
           return TransferableBlockUtils.getEndOfStreamTransferableBlock();
         }
       } else {
-        LinkedList<Object[]> rows = new LinkedList<>();
-        while (_priorityQueue.size() > _offset) {
-          Object[] row = _priorityQueue.poll();
-          rows.addFirst(row);
-        }
-        if (rows.size() == 0) {
+        int numRows = _priorityQueue.size() - _offset;
+        if (numRows <= 0) {
           return TransferableBlockUtils.getEndOfStreamTransferableBlock();
-        } else {
-          return new TransferableBlock(rows, _dataSchema, DataBlock.Type.ROW);
         }
+        // The priority queue polls the rows in reverse order
+        Object[][] rows = new Object[numRows][];
+        for (int i = numRows - 1; i >= 0; i--) {
+          rows[i] = _priorityQueue.poll().getRow();
+        }
+        return new TransferableBlock(Arrays.asList(rows), _dataSchema, DataBlock.Type.ROW);
       }
+    } else if (_mergeQueue != null) {
+      return getNextMergedBlock();
     } else {
       return TransferableBlockUtils.getEndOfStreamTransferableBlock();
     }
   }
 
-  private void consumeInputBlocks() {
+  private TransferableBlock produceExternalSortedBlock()
+      throws IOException {
+    if (_spillFiles.isEmpty()) {
+      _rows.sort(_externalSortComparator);
+      int numRows = Math.min(_rows.size(), _numRowsToKeep);
+      if (numRows > _offset) {
+        return new TransferableBlock(_rows.subList(_offset, numRows), _dataSchema, DataBlock.Type.ROW);
+      } else {
+        return TransferableBlockUtils.getEndOfStreamTransferableBlock();
+      }
+    }
+    recordSpillStats();
+    _mergeQueue = new PriorityQueue<>(_spillFiles.size() + 1,
+        (run1, run2) -> _externalSortComparator.compare(run1.peek(), run2.peek()));
+    // Keep the last run in memory
+    if (!_rows.isEmpty()) {
+      _rows.sort(_externalSortComparator);
+      _mergeQueue.add(new SortedRun(_rows, null));
+    }
+    for (SpillFile spillFile : _spillFiles) {
+      _mergeQueue.add(new SortedRun(spillFile.read(), spillFile));
+    }
+    return getNextMergedBlock();
+  }
+
+  /**
+   * Returns the next block of the k-way merge of the sorted runs.
+   */
+  private TransferableBlock getNextMergedBlock()
+      throws IOException {
+    List<Object[]> rows = new ArrayList<>();
+    while (rows.size() < MAX_ROWS_PER_BLOCK && _numRowsMerged < _numRowsToKeep && !_mergeQueue.isEmpty()) {
+      SortedRun run = _mergeQueue.poll();
+      if (_numRowsMerged >= _offset) {
+        rows.add(run.peek());
+      }
+      _numRowsMerged++;
+      if (run.next()) {
+        _mergeQueue.offer(run);
+      }
+    }
+    if (rows.isEmpty()) {
+      _mergeQueue = null;
+      cleanUpSpillFiles();
+      return TransferableBlockUtils.getEndOfStreamTransferableBlock();
+    } else {
+      return new TransferableBlock(rows, _dataSchema, DataBlock.Type.ROW);
+    }
+  }
+
+  /**
+   * Sorts the buffered rows and writes them to a new spill file as a sorted run.
+   */
+  private void spillSortedRun()
+      throws IOException {
+    if (_spillDir == null) {
+      _spillDir = SpillFile.createSpillDir(_context.getOpChainMetadata(),
+          "pinot_sort_" + _context.getRequestId() + "_" + _context.getStageId() + "_");
+      LOGGER.info("Spilling sort with buffered rows size: {} bytes (threshold: {} bytes) to: {}", _numBufferedBytes,
+          _spillThresholdBytes, _spillDir);
+    }
+    _rows.sort(_externalSortComparator);
+    SpillFile spillFile =
+        new SpillFile(new File(_spillDir, "run_" + _spillFiles.size()), _dataSchema, MAX_ROWS_PER_BLOCK);
+    _spillFiles.add(spillFile);
+    // Rows beyond the response limit can never be returned
+    int numRows = Math.min(_rows.size(), _numRowsToKeep);
+    for (int i = 0; i < numRows; i++) {
+      spillFile.add(_rows.get(i));
+    }
+    spillFile.finishWriting();
+    _rows.clear();
+    _numBufferedBytes = 0;
+  }
+
+  private void recordSpillStats() {
+    long numRowsSpilled = 0;
+    long numBytesSpilled = 0;
+    for (SpillFile spillFile : _spillFiles) {
+      numRowsSpilled += spillFile.getNumRows();
+      numBytesSpilled += spillFile.getNumBytes();
+    }
+    LOGGER.info("Spilled {} rows ({} bytes) in {} sorted runs for sort to: {}", numRowsSpilled, numBytesSpilled,
+        _spillFiles.size(), _spillDir);
+    if (shouldCollectStats()) {
+      OperatorStats operatorStats = _opChainStats.getOperatorStats(_context, _operatorId);
+      operatorStats.recordSingleStat(DataTable.MetadataKey.NUM_ROWS_SPILLED.getName(), Long.toString(numRowsSpilled));
+      operatorStats.recordSingleStat(DataTable.MetadataKey.NUM_BYTES_SPILLED.getName(),
+          Long.toString(numBytesSpilled));
+    }
+  }
+
+  private void cleanUpSpillFiles() {
+    if (_spillDir != null) {
+      for (SpillFile spillFile : _spillFiles) {
+        try {
+          spillFile.close();
+        } catch (Exception e) {
+          LOGGER.warn("Failed to close spill file", e);
+        }
+      }
+      _spillFiles.clear();
+      FileUtils.deleteQuietly(_spillDir);
+      _spillDir = null;
+    }
+  }
+
+  private void consumeInputBlocks()
+      throws IOException {
     if (!_isSortedBlockConstructed) {
       TransferableBlock block = _upstreamOperator.nextBlock();
       while (!block.isNoOpBlock()) {
@@ -166,7 +328,15 @@ public class SortOperator extends MultiStageOperator {
         }
 
         List<Object[]> container = block.getContainer();
-        if (_priorityQueue == null) {
+        if (_externalSortComparator != null) {
+          _rows.addAll(container);
+          for (Object[] row : container) {
+            _numBufferedBytes += OperatorUtils.estimateRowSizeInBytes(row);
+          }
+          if (_numBufferedBytes > _spillThresholdBytes) {
+            spillSortedRun();
+          }
+        } else if (_priorityQueue == null) {
           // TODO: when push-down properly, we shouldn't get more than _numRowsToKeep
           if (_rows.size() <= _numRowsToKeep) {
             if (_rows.size() + container.size() <= _numRowsToKeep) {
@@ -176,12 +346,48 @@ public class SortOperator extends MultiStageOperator {
             }
           }
         } else {
+          // Extract the sort keys once per row instead of on every comparison within the priority queue
           for (Object[] row : container) {
-            SelectionOperatorUtils.addToPriorityQueue(row, _priorityQueue, _numRowsToKeep);
+            SelectionOperatorUtils.addToPriorityQueue(_sortComparator.toSortKeyRow(row), _priorityQueue,
+                _numRowsToKeep);
           }
         }
         block = _upstreamOperator.nextBlock();
       }
     }
   }
+
+  /**
+   * A sorted run of rows, either held in memory or read block by block from a spill file.
+   */
+  private static class SortedRun {
+    private final SpillFile _spillFile;
+    private List<Object[]> _rows;
+    private int _index;
+
+    SortedRun(List<Object[]> rows, @Nullable SpillFile spillFile) {
+      _rows = rows;
+      _spillFile = spillFile;
+    }
+
+    Object[] peek() {
+      return _rows.get(_index);
+    }
+
+    /**
+     * Moves to the next row, and returns {@code false} if the run is exhausted.
+     */
+    boolean next()
+        throws IOException {
+      if (++_index < _rows.size()) {
+        return true;
+      }
+      if (_spillFile == null) {
+        return false;
+      }
+      _rows = _spillFile.read();
+      _index = 0;
+      return _rows != null;
+    }
+  }
 }
@@ -21,6 +21,7 @@ package org.apache.pinot.query.runtime.operator;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import javax.annotation.Nullable;
 import org.apache.pinot.common.datablock.DataBlock;
@@ -28,8 +29,8 @@ import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.query.planner.logical.RexExpression;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 import org.apache.pinot.query.runtime.blocks.TransferableBlockUtils;
+import org.apache.pinot.query.runtime.operator.block.VectorizedBlock;
 import org.apache.pinot.query.runtime.operator.operands.TransformOperand;
-import org.apache.pinot.query.runtime.operator.utils.TypeUtils;
 import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -44,6 +45,9 @@ import org.slf4j.LoggerFactory;
  * - Function transform, which runs a function on function operands. Function operands and be any of 3 the transform.
  * Note: Function transform only runs functions from v1 engine scalar function factory, which only does argument count
  * and canonicalized function name matching (lower case).
+ *
+ * The transforms are evaluated column-at-a-time over the block (see {@link VectorizedBlock}), where the numeric
+ * columns and arithmetic functions work on primitive arrays, and the values are only boxed into the result rows.
  */
 public class TransformOperator extends MultiStageOperator {
   private static final String EXPLAIN_NAME = "TRANSFORM";
@@ -108,15 +112,17 @@ public class TransformOperator extends MultiStageOperator {
       return block;
     }
 
-    List<Object[]> container = block.getContainer();
-    List<Object[]> resultRows = new ArrayList<>(container.size());
-    for (Object[] row : container) {
-      Object[] resultRow = new Object[_resultColumnSize];
-      for (int i = 0; i < _resultColumnSize; i++) {
-        resultRow[i] = TypeUtils.convert(_transformOperandsList.get(i).apply(row), _resultSchema.getColumnDataType(i));
+    // Evaluate the operands column-at-a-time, and only box the values when constructing the result rows
+    VectorizedBlock vectorizedBlock = new VectorizedBlock(block);
+    int numRows = vectorizedBlock.getNumRows();
+    Object[][] resultRows = new Object[numRows][_resultColumnSize];
+    for (int i = 0; i < _resultColumnSize; i++) {
+      Object[] values =
+          _transformOperandsList.get(i).apply(vectorizedBlock, null).getValues(_resultSchema.getColumnDataType(i));
+      for (int rowId = 0; rowId < numRows; rowId++) {
+        resultRows[rowId][i] = values[rowId];
       }
-      resultRows.add(resultRow);
     }
-    return new TransferableBlock(resultRows, _resultSchema, DataBlock.Type.ROW);
+    return new TransferableBlock(Arrays.asList(resultRows), _resultSchema, DataBlock.Type.ROW);
   }
 }
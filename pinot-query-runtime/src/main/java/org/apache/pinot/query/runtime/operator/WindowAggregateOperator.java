@@ -69,6 +69,12 @@ import org.slf4j.LoggerFactory;
  * Note: This class performs aggregation over the double value of input.
  * If the input is single value, the output type will be input type. Otherwise, the output type will be double.
  *
+ * When the frame upper bound is CURRENT ROW and the input is known to be contiguous per partition and sorted on the
+ * ORDER BY keys (ORDER BY without PARTITION BY, or ORDER BY keys starting with all the PARTITION BY keys), the operator
+ * runs in streaming mode: it only buffers the rows sharing the current ORDER BY key (peer rows), emits them as soon as
+ * the ORDER BY key or the partition changes, and maintains the aggregations incrementally in the input type
+ * (converted to the result type) instead of buffering all the input rows.
+ *
  * TODO:
  *     1. Add support for additional rank window functions
  *     2. Add support for value window functions
@@ -96,6 +102,16 @@ public class WindowAggregateOperator extends MultiStageOperator {
   private final Map<Key, List<Object[]>> _partitionRows;
   private final boolean _isPartitionByOnly;
 
+  // Used by the streaming mode, where the accumulators are non-null
+  private final StreamingWindowAccumulator[] _streamingAccumulators;
+  private final List<Object[]> _peerRows = new ArrayList<>();
+  private Key _currentPartitionKey;
+  private Key _currentOrderKey;
+  // Number of rows before the current peer rows within the current partition
+  private long _numRowsInPartition;
+  // Number of distinct ORDER BY keys within the current partition
+  private long _numOrderKeysInPartition;
+
   private TransferableBlock _upstreamErrorBlock;
 
   private int _numRows;
@@ -146,6 +162,17 @@ public class WindowAggregateOperator extends MultiStageOperator {
     }
 
     _partitionRows = new HashMap<>();
+    if (isStreamingSupported(groupSet, orderSet)) {
+      _streamingAccumulators = new StreamingWindowAccumulator[aggCallsSize];
+      int numInputColumns = inputSchema.size();
+      for (int i = 0; i < aggCallsSize; i++) {
+        RexExpression.FunctionCall agg = _aggCalls.get(i);
+        _streamingAccumulators[i] = new StreamingWindowAccumulator(agg, mergers, agg.getFunctionName(), inputSchema,
+            resultSchema.getColumnDataType(numInputColumns + i));
+      }
+    } else {
+      _streamingAccumulators = null;
+    }
 
     _numRows = 0;
     _readyToConstruct = false;
@@ -166,6 +193,9 @@ public class WindowAggregateOperator extends MultiStageOperator {
   @Override
   protected TransferableBlock getNextBlock() {
     try {
+      if (_streamingAccumulators != null) {
+        return getNextStreamingBlock();
+      }
       if (!_readyToConstruct && !consumeInputBlocks()) {
         return TransferableBlockUtils.getNoOpTransferableBlock();
       }
@@ -222,6 +252,120 @@ public class WindowAggregateOperator extends MultiStageOperator {
     return partitionByInputRefIndexes.equals(orderByInputRefIndexes);
   }
 
+  /**
+   * Returns whether the window can be computed in streaming mode, which requires the rows of each partition to be
+   * contiguous and sorted on the ORDER BY keys, and the frame to end at the current row. The planner sorts the input on
+   * the ORDER BY keys only (within each hash partition), so the rows of each partition are contiguous only when the
+   * ORDER BY keys start with all the PARTITION BY keys.
+   */
+  private boolean isStreamingSupported(List<RexExpression> groupSet, List<RexExpression> orderSet) {
+    if (_isPartitionByOnly || !_windowFrame.isUpperBoundCurrentRow()) {
+      return false;
+    }
+    int groupSetSize = groupSet.size();
+    if (groupSetSize > orderSet.size()) {
+      return false;
+    }
+    Set<Integer> partitionByInputRefIndexes = new HashSet<>();
+    Set<Integer> orderByInputRefIndexes = new HashSet<>();
+    for (int i = 0; i < groupSetSize; i++) {
+      partitionByInputRefIndexes.add(((RexExpression.InputRef) groupSet.get(i)).getIndex());
+      orderByInputRefIndexes.add(((RexExpression.InputRef) orderSet.get(i)).getIndex());
+    }
+    return partitionByInputRefIndexes.equals(orderByInputRefIndexes);
+  }
+
+  private TransferableBlock getNextStreamingBlock() {
+    if (_upstreamErrorBlock != null) {
+      return _upstreamErrorBlock;
+    }
+    if (_hasReturnedWindowAggregateBlock) {
+      return TransferableBlockUtils.getEndOfStreamTransferableBlock();
+    }
+    List<Object[]> rows = new ArrayList<>();
+    TransferableBlock block = _inputOperator.nextBlock();
+    while (!block.isNoOpBlock()) {
+      if (block.isErrorBlock()) {
+        _upstreamErrorBlock = block;
+        return block;
+      }
+      if (block.isEndOfStreamBlock()) {
+        flushPeerRows(rows);
+        _hasReturnedWindowAggregateBlock = true;
+        if (rows.isEmpty()) {
+          return TransferableBlockUtils.getEndOfStreamTransferableBlock();
+        } else {
+          return new TransferableBlock(rows, _resultSchema, DataBlock.Type.ROW);
+        }
+      }
+      for (Object[] row : block.getContainer()) {
+        addStreamingRow(row, rows);
+      }
+      if (!rows.isEmpty()) {
+        return new TransferableBlock(rows, _resultSchema, DataBlock.Type.ROW);
+      }
+      block = _inputOperator.nextBlock();
+    }
+    return TransferableBlockUtils.getNoOpTransferableBlock();
+  }
+
+  /**
+   * Adds a row in streaming mode, and appends the output rows that can be finalized to the given list.
+   */
+  private void addStreamingRow(Object[] row, List<Object[]> outputRows) {
+    Key partitionKey = AggregationUtils.extractRowKey(row, _groupSet);
+    if (_currentPartitionKey == null || !partitionKey.equals(_currentPartitionKey)) {
+      flushPeerRows(outputRows);
+      _currentPartitionKey = partitionKey;
+      _currentOrderKey = null;
+      _numRowsInPartition = 0;
+      _numOrderKeysInPartition = 0;
+      for (StreamingWindowAccumulator accumulator : _streamingAccumulators) {
+        accumulator.reset();
+      }
+    }
+    if (_windowFrame.getWindowFrameType() == WindowNode.WindowFrameType.ROWS) {
+      // Only ROW_NUMBER() window function is supported as ROWS type today, which does not depend on the peer rows
+      _numRowsInPartition++;
+      outputRows.add(buildStreamingRow(row, _numRowsInPartition, _numRowsInPartition));
+      return;
+    }
+    Key orderKey = AggregationUtils.extractRowKey(row, _orderSetInfo.getOrderSet());
+    if (_currentOrderKey == null || !orderKey.equals(_currentOrderKey)) {
+      flushPeerRows(outputRows);
+      _currentOrderKey = orderKey;
+    }
+    _peerRows.add(row);
+    for (StreamingWindowAccumulator accumulator : _streamingAccumulators) {
+      accumulator.accumulate(row);
+    }
+  }
+
+  /**
+   * Emits the buffered peer rows. For RANGE frames ending at the current row, all the peer rows share the same results.
+   */
+  private void flushPeerRows(List<Object[]> outputRows) {
+    if (_peerRows.isEmpty()) {
+      return;
+    }
+    _numOrderKeysInPartition++;
+    long rank = _numRowsInPartition + 1;
+    for (Object[] peerRow : _peerRows) {
+      outputRows.add(buildStreamingRow(peerRow, rank, _numOrderKeysInPartition));
+    }
+    _numRowsInPartition += _peerRows.size();
+    _peerRows.clear();
+  }
+
+  private Object[] buildStreamingRow(Object[] inputRow, long rank, long denseRank) {
+    Object[] row = new Object[inputRow.length + _streamingAccumulators.length];
+    System.arraycopy(inputRow, 0, row, 0, inputRow.length);
+    for (int i = 0; i < _streamingAccumulators.length; i++) {
+      row[inputRow.length + i] = _streamingAccumulators[i].getResult(rank, denseRank);
+    }
+    return row;
+  }
+
   private TransferableBlock produceWindowAggregatedBlock() {
     Key emptyOrderKey = AggregationUtils.extractEmptyKey();
     List<Object[]> rows = new ArrayList<>(_numRows);
@@ -568,4 +712,156 @@ public class WindowAggregateOperator extends MultiStageOperator {
       }
     }
   }
+
+  /**
+   * Accumulator for the streaming mode, which maintains the aggregation of the rows seen so far in the current
+   * partition. SUM/MIN/MAX/COUNT are maintained on primitive values in the input type and converted to the result type,
+   * and the other aggregations fall back to the merger.
+   */
+  private static class StreamingWindowAccumulator extends AggregationUtils.Accumulator {
+    private static final Set<String> SUM_FUNCTION_NAMES = ImmutableSet.of("SUM", "$SUM", "$SUM0");
+    private static final Set<String> MIN_FUNCTION_NAMES = ImmutableSet.of("MIN", "$MIN", "$MIN0");
+    private static final Set<String> MAX_FUNCTION_NAMES = ImmutableSet.of("MAX", "$MAX", "$MAX0");
+
+    private final String _functionName;
+    private final DataSchema.ColumnDataType _resultType;
+    private final boolean _isSum;
+    private final boolean _isMin;
+    private final boolean _isMax;
+    private final boolean _isCount;
+    private final boolean _isWholeNumberInput;
+
+    private boolean _hasValue;
+    private long _longValue;
+    private double _doubleValue;
+    // Whether the whole number SUM overflowed long and is accumulated as double in _doubleValue
+    private boolean _isLongSumOverflowed;
+    private Object _value;
+    private long _count;
+
+    StreamingWindowAccumulator(RexExpression.FunctionCall aggCall,
+        Map<String, Function<DataSchema.ColumnDataType, AggregationUtils.Merger>> mergers, String functionName,
+        DataSchema inputSchema, DataSchema.ColumnDataType resultType) {
+      super(aggCall, mergers, functionName, inputSchema);
+      _functionName = functionName;
+      _resultType = resultType;
+      _isSum = SUM_FUNCTION_NAMES.contains(functionName);
+      _isMin = MIN_FUNCTION_NAMES.contains(functionName);
+      _isMax = MAX_FUNCTION_NAMES.contains(functionName);
+      _isCount = functionName.equals("COUNT");
+      _isWholeNumberInput = _dataType.isWholeNumber();
+    }
+
+    void reset() {
+      _hasValue = false;
+      _longValue = 0;
+      _doubleValue = 0;
+      _isLongSumOverflowed = false;
+      _value = null;
+      _count = 0;
+    }
+
+    void accumulate(Object[] row) {
+      Object value = _inputRef == -1 ? _literal : row[_inputRef];
+      if (_isCount) {
+        if (value != null) {
+          _count++;
+        }
+        return;
+      }
+      if (_isSum || _isMin || _isMax) {
+        if (value == null) {
+          return;
+        }
+        if (_isWholeNumberInput) {
+          long longValue = ((Number) value).longValue();
+          if (!_hasValue) {
+            _longValue = longValue;
+          } else if (_isSum) {
+            addToLongSum(longValue);
+          } else if (_isMin) {
+            _longValue = Math.min(_longValue, longValue);
+          } else {
+            _longValue = Math.max(_longValue, longValue);
+          }
+        } else {
+          double doubleValue = ((Number) value).doubleValue();
+          if (!_hasValue) {
+            _doubleValue = doubleValue;
+          } else if (_isSum) {
+            _doubleValue += doubleValue;
+          } else if (_isMin) {
+            _doubleValue = Math.min(_doubleValue, doubleValue);
+          } else {
+            _doubleValue = Math.max(_doubleValue, doubleValue);
+          }
+        }
+        _hasValue = true;
+        return;
+      }
+      if (!RANKING_FUNCTION_NAMES.contains(_functionName) && !ROWS_ONLY_FUNCTION_NAMES.contains(_functionName)) {
+        _value = _hasValue ? _merger.merge(_value, value) : _merger.init(value, _dataType);
+        _hasValue = true;
+      }
+    }
+
+    /**
+     * Adds the value to the whole number SUM, and falls back to accumulating the SUM as double once it overflows long.
+     */
+    private void addToLongSum(long longValue) {
+      if (_isLongSumOverflowed) {
+        _doubleValue += longValue;
+        return;
+      }
+      try {
+        _longValue = Math.addExact(_longValue, longValue);
+      } catch (ArithmeticException e) {
+        _isLongSumOverflowed = true;
+        _doubleValue = (double) _longValue + longValue;
+      }
+    }
+
+    /**
+     * Returns the result for the current row, where the rank is the 1-based position of the first peer row (or the
+     * current row for ROWS frames) within the partition, and the dense rank is the 1-based position of the ORDER BY
+     * key.
+     */
+    @Nullable
+    Object getResult(long rank, long denseRank) {
+      switch (_functionName) {
+        case "ROW_NUMBER":
+        case "RANK":
+          return toResultType(rank);
+        case "DENSE_RANK":
+          return toResultType(denseRank);
+        default:
+          break;
+      }
+      if (_isCount) {
+        return toResultType(_count);
+      }
+      if (!_hasValue) {
+        return null;
+      }
+      if (_isSum || _isMin || _isMax) {
+        return _isWholeNumberInput && !_isLongSumOverflowed ? toResultType(_longValue) : toResultType(_doubleValue);
+      }
+      return _value;
+    }
+
+    private Object toResultType(Number value) {
+      switch (_resultType) {
+        case INT:
+          return value.intValue();
+        case LONG:
+          return value.longValue();
+        case FLOAT:
+          return value.floatValue();
+        case DOUBLE:
+          return value.doubleValue();
+        default:
+          return value;
+      }
+    }
+  }
 }
@@ -0,0 +1,343 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.operator.block;
+
+import java.util.Arrays;
+import javax.annotation.Nullable;
+import org.apache.pinot.common.datablock.DataBlock;
+import org.apache.pinot.common.datablock.DataBlockUtils;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.query.runtime.operator.utils.TypeUtils;
+import org.roaringbitmap.RoaringBitmap;
+
+
+/**
+ * {@code ColumnVector} holds the values of a column (or of an operand evaluated column-at-a-time) for all the rows of a
+ * block.
+ *
+ * <p>The values are kept in the representation they are produced in, either boxed values (e.g. column of the rows
+ * extracted in the block container) or primitive values with a null bitmap (e.g. column read from the data block or
+ * result of a numeric operand). The other representations are derived lazily on demand, so that the numeric operands
+ * can work on the primitive arrays without boxing each value.
+ */
+public class ColumnVector {
+  private final int _numRows;
+  // Stored type of the primitive values, null when the vector is created from boxed values
+  private final ColumnDataType _primitiveType;
+  private final RoaringBitmap _nullBitmap;
+
+  private Object[] _values;
+  private int[] _intValues;
+  private long[] _longValues;
+  private float[] _floatValues;
+  private double[] _doubleValues;
+
+  private ColumnVector(int numRows, @Nullable ColumnDataType primitiveType, @Nullable RoaringBitmap nullBitmap) {
+    _numRows = numRows;
+    _primitiveType = primitiveType;
+    _nullBitmap = nullBitmap;
+  }
+
+  /**
+   * Creates a vector from the boxed values, where {@code null} represents null value.
+   */
+  public static ColumnVector ofValues(Object[] values) {
+    ColumnVector vector = new ColumnVector(values.length, null, null);
+    vector._values = values;
+    return vector;
+  }
+
+  /**
+   * Creates a vector with the same value for all the rows.
+   */
+  public static ColumnVector ofConstant(@Nullable Object value, int numRows) {
+    Object[] values = new Object[numRows];
+    if (value != null) {
+      Arrays.fill(values, value);
+    }
+    return ofValues(values);
+  }
+
+  public static ColumnVector ofDoubles(double[] values, @Nullable RoaringBitmap nullBitmap) {
+    ColumnVector vector = new ColumnVector(values.length, ColumnDataType.DOUBLE, nullBitmap);
+    vector._doubleValues = values;
+    return vector;
+  }
+
+  /**
+   * Creates a vector by reading the primitive values of a column from a {@link DataBlock} with ROW format. The column
+   * must be one of INT, LONG, FLOAT and DOUBLE.
+   */
+  public static ColumnVector fromDataBlock(DataBlock dataBlock, int colId, ColumnDataType columnDataType) {
+    ColumnVector vector =
+        new ColumnVector(dataBlock.getNumberOfRows(), columnDataType, dataBlock.getNullRowIds(colId));
+    switch (columnDataType) {
+      case INT:
+        vector._intValues = DataBlockUtils.extractIntValuesForColumn(dataBlock, colId);
+        break;
+      case LONG:
+        vector._longValues = DataBlockUtils.extractLongValuesForColumn(dataBlock, colId);
+        break;
+      case FLOAT:
+        vector._floatValues = DataBlockUtils.extractFloatValuesForColumn(dataBlock, colId);
+        break;
+      case DOUBLE:
+        vector._doubleValues = DataBlockUtils.extractDoubleValuesForColumn(dataBlock, colId);
+        break;
+      default:
+        throw new IllegalStateException("Unsupported primitive type: " + columnDataType);
+    }
+    return vector;
+  }
+
+  /**
+   * Returns whether the given type can be stored as primitive values in the vector.
+   */
+  public static boolean isPrimitiveType(ColumnDataType columnDataType) {
+    switch (columnDataType) {
+      case INT:
+      case LONG:
+      case FLOAT:
+      case DOUBLE:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  public int getNumRows() {
+    return _numRows;
+  }
+
+  public boolean isNull(int rowId) {
+    if (_primitiveType == null) {
+      return _values[rowId] == null;
+    } else {
+      return _nullBitmap != null && _nullBitmap.contains(rowId);
+    }
+  }
+
+  /**
+   * Returns the boxed values, where {@code null} represents null value.
+   */
+  public Object[] getValues() {
+    if (_values == null) {
+      Object[] values = new Object[_numRows];
+      for (int rowId = 0; rowId < _numRows; rowId++) {
+        if (!isNull(rowId)) {
+          values[rowId] = getPrimitiveValue(rowId);
+        }
+      }
+      _values = values;
+    }
+    return _values;
+  }
+
+  /**
+   * Returns the boxed values converted to the given type (see {@link TypeUtils#convert(Object, ColumnDataType)}),
+   * where {@code null} represents null value. For primitive values, each value is boxed only once.
+   */
+  public Object[] getValues(ColumnDataType columnDataType) {
+    Object[] values = new Object[_numRows];
+    if (_primitiveType == null || !isPrimitiveType(columnDataType)) {
+      Object[] boxedValues = getValues();
+      for (int rowId = 0; rowId < _numRows; rowId++) {
+        values[rowId] = TypeUtils.convert(boxedValues[rowId], columnDataType);
+      }
+      return values;
+    }
+    switch (columnDataType) {
+      case INT: {
+        int[] intValues = getIntValues();
+        for (int rowId = 0; rowId < _numRows; rowId++) {
+          values[rowId] = isNull(rowId) ? null : intValues[rowId];
+        }
+        break;
+      }
+      case LONG: {
+        long[] longValues = getLongValues();
+        for (int rowId = 0; rowId < _numRows; rowId++) {
+          values[rowId] = isNull(rowId) ? null : longValues[rowId];
+        }
+        break;
+      }
+      case FLOAT: {
+        float[] floatValues = getFloatValues();
+        for (int rowId = 0; rowId < _numRows; rowId++) {
+          values[rowId] = isNull(rowId) ? null : floatValues[rowId];
+        }
+        break;
+      }
+      default: {
+        double[] doubleValues = getDoubleValues();
+        for (int rowId = 0; rowId < _numRows; rowId++) {
+          values[rowId] = isNull(rowId) ? null : doubleValues[rowId];
+        }
+        break;
+      }
+    }
+    return values;
+  }
+
+  /**
+   * Returns the values as int, where the value for null is undefined.
+   */
+  public int[] getIntValues() {
+    if (_intValues == null) {
+      int[] intValues = new int[_numRows];
+      for (int rowId = 0; rowId < _numRows; rowId++) {
+        if (!isNull(rowId)) {
+          intValues[rowId] = getIntValue(rowId);
+        }
+      }
+      _intValues = intValues;
+    }
+    return _intValues;
+  }
+
+  /**
+   * Returns the values as long, where the value for null is undefined.
+   */
+  public long[] getLongValues() {
+    if (_longValues == null) {
+      long[] longValues = new long[_numRows];
+      for (int rowId = 0; rowId < _numRows; rowId++) {
+        if (!isNull(rowId)) {
+          longValues[rowId] = getLongValue(rowId);
+        }
+      }
+      _longValues = longValues;
+    }
+    return _longValues;
+  }
+
+  /**
+   * Returns the values as float, where the value for null is undefined.
+   */
+  public float[] getFloatValues() {
+    if (_floatValues == null) {
+      float[] floatValues = new float[_numRows];
+      for (int rowId = 0; rowId < _numRows; rowId++) {
+        if (!isNull(rowId)) {
+          floatValues[rowId] = getFloatValue(rowId);
+        }
+      }
+      _floatValues = floatValues;
+    }
+    return _floatValues;
+  }
+
+  /**
+   * Returns the values as double, where the value for null is undefined.
+   */
+  public double[] getDoubleValues() {
+    if (_doubleValues == null) {
+      double[] doubleValues = new double[_numRows];
+      for (int rowId = 0; rowId < _numRows; rowId++) {
+        if (!isNull(rowId)) {
+          doubleValues[rowId] = getDoubleValue(rowId);
+        }
+      }
+      _doubleValues = doubleValues;
+    }
+    return _doubleValues;
+  }
+
+  // NOTE: The conversions on the primitive values below match the ones on the boxed values (e.g. Long.intValue()), so
+  //       that the result is the same regardless of the representation the vector is created from.
+
+  private int getIntValue(int rowId) {
+    if (_primitiveType == null) {
+      return ((Number) _values[rowId]).intValue();
+    }
+    switch (_primitiveType) {
+      case LONG:
+        return (int) _longValues[rowId];
+      case FLOAT:
+        return (int) _floatValues[rowId];
+      case DOUBLE:
+        return (int) _doubleValues[rowId];
+      default:
+        throw new IllegalStateException("Unsupported primitive type: " + _primitiveType);
+    }
+  }
+
+  private long getLongValue(int rowId) {
+    if (_primitiveType == null) {
+      return ((Number) _values[rowId]).longValue();
+    }
+    switch (_primitiveType) {
+      case INT:
+        return _intValues[rowId];
+      case FLOAT:
+        return (long) _floatValues[rowId];
+      case DOUBLE:
+        return (long) _doubleValues[rowId];
+      default:
+        throw new IllegalStateException("Unsupported primitive type: " + _primitiveType);
+    }
+  }
+
+  private float getFloatValue(int rowId) {
+    if (_primitiveType == null) {
+      return ((Number) _values[rowId]).floatValue();
+    }
+    switch (_primitiveType) {
+      case INT:
+        return _intValues[rowId];
+      case LONG:
+        return _longValues[rowId];
+      case DOUBLE:
+        return (float) _doubleValues[rowId];
+      default:
+        throw new IllegalStateException("Unsupported primitive type: " + _primitiveType);
+    }
+  }
+
+  private double getDoubleValue(int rowId) {
+    if (_primitiveType == null) {
+      return ((Number) _values[rowId]).doubleValue();
+    }
+    switch (_primitiveType) {
+      case INT:
+        return _intValues[rowId];
+      case LONG:
+        return _longValues[rowId];
+      case FLOAT:
+        return _floatValues[rowId];
+      default:
+        throw new IllegalStateException("Unsupported primitive type: " + _primitiveType);
+    }
+  }
+
+  private Object getPrimitiveValue(int rowId) {
+    switch (_primitiveType) {
+      case INT:
+        return _intValues[rowId];
+      case LONG:
+        return _longValues[rowId];
+      case FLOAT:
+        return _floatValues[rowId];
+      case DOUBLE:
+        return _doubleValues[rowId];
+      default:
+        throw new IllegalStateException("Unsupported primitive type: " + _primitiveType);
+    }
+  }
+}
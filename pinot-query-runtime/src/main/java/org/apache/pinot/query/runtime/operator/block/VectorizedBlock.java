@@ -0,0 +1,103 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.operator.block;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.pinot.common.datablock.DataBlock;
+import org.apache.pinot.common.datablock.DataBlockUtils;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.core.common.ObjectSerDeUtils;
+import org.apache.pinot.query.runtime.blocks.TransferableBlock;
+
+
+/**
+ * {@code VectorizedBlock} provides the column-at-a-time view of a ROW {@link TransferableBlock} for the operands to be
+ * evaluated column-at-a-time.
+ *
+ * <p>When the rows are not extracted from the {@link DataBlock} yet (e.g. block received from the mailbox), the numeric
+ * columns are read from the data block as primitive arrays without boxing, and the rows are only extracted when
+ * required (e.g. for the columns of other types, or for the rows selected by a filter).
+ */
+public class VectorizedBlock {
+  private final TransferableBlock _block;
+  private final DataSchema _dataSchema;
+  private final int _numRows;
+  private final ColumnVector[] _columns;
+
+  public VectorizedBlock(TransferableBlock block) {
+    assert block.getType() == DataBlock.Type.ROW;
+    _block = block;
+    _dataSchema = block.getDataSchema();
+    _numRows = block.getNumRows();
+    _columns = new ColumnVector[_dataSchema.size()];
+  }
+
+  public int getNumRows() {
+    return _numRows;
+  }
+
+  /**
+   * Returns the values of the given column, which are cached for the following calls.
+   */
+  public ColumnVector getColumn(int colId) {
+    ColumnVector column = _columns[colId];
+    if (column == null) {
+      DataSchema.ColumnDataType columnDataType = _dataSchema.getColumnDataType(colId);
+      if (!_block.isContainerConstructed() && ColumnVector.isPrimitiveType(columnDataType)) {
+        column = ColumnVector.fromDataBlock(_block.getDataBlock(), colId, columnDataType);
+      } else {
+        List<Object[]> rows = _block.getContainer();
+        Object[] values = new Object[_numRows];
+        for (int rowId = 0; rowId < _numRows; rowId++) {
+          values[rowId] = rows.get(rowId)[colId];
+        }
+        column = ColumnVector.ofValues(values);
+      }
+      _columns[colId] = column;
+    }
+    return column;
+  }
+
+  /**
+   * Returns all the rows of the block.
+   */
+  public List<Object[]> getRows() {
+    return _block.getContainer();
+  }
+
+  /**
+   * Returns the rows with the given row ids (selection vector), without extracting the other rows from the data block
+   * when they are not extracted yet.
+   */
+  public List<Object[]> getRows(int[] rowIds, int numRowIds) {
+    if (numRowIds == _numRows) {
+      return _block.getContainer();
+    }
+    if (!_block.isContainerConstructed()) {
+      return DataBlockUtils.extractRows(_block.getDataBlock(), ObjectSerDeUtils::deserialize, rowIds, numRowIds);
+    }
+    List<Object[]> rows = _block.getContainer();
+    List<Object[]> selectedRows = new ArrayList<>(numRowIds);
+    for (int i = 0; i < numRowIds; i++) {
+      selectedRows.add(rows.get(rowIds[i]));
+    }
+    return selectedRows;
+  }
+}
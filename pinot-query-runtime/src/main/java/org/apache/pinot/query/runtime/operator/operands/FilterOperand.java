@@ -20,10 +20,14 @@ package org.apache.pinot.query.runtime.operator.operands;
 
 import com.google.common.base.Preconditions;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.function.IntPredicate;
+import javax.annotation.Nullable;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.query.planner.logical.RexExpression;
+import org.apache.pinot.query.runtime.operator.block.ColumnVector;
+import org.apache.pinot.query.runtime.operator.block.VectorizedBlock;
 import org.apache.pinot.query.runtime.operator.utils.TypeUtils;
 import org.apache.pinot.spi.utils.BooleanUtils;
 
@@ -33,6 +37,66 @@ public abstract class FilterOperand extends TransformOperand {
   @Override
   public abstract Boolean apply(Object[] row);
 
+  /**
+   * Evaluates the filter column-at-a-time over the rows of the block, returns the matching flags of the rows. Only the
+   * rows selected by the given selection (all the rows when it is {@code null}) are evaluated, and the other rows are
+   * never matched.
+   *
+   * <p>The child operands are only evaluated on the rows they would be evaluated on with row-at-a-time evaluation (e.g.
+   * the second child of AND is only evaluated on the rows matching the first child).
+   */
+  public abstract boolean[] applyFilter(VectorizedBlock block, @Nullable boolean[] selection);
+
+  @Override
+  public ColumnVector apply(VectorizedBlock block, @Nullable boolean[] selection) {
+    boolean[] matches = applyFilter(block, selection);
+    int numRows = matches.length;
+    Object[] values = new Object[numRows];
+    for (int rowId = 0; rowId < numRows; rowId++) {
+      if (selection == null || selection[rowId]) {
+        values[rowId] = matches[rowId];
+      }
+    }
+    return ColumnVector.ofValues(values);
+  }
+
+  /**
+   * Evaluates the operand as a boolean (see {@link BooleanUtils#toBoolean(Object)}) column-at-a-time over the selected
+   * rows of the block.
+   */
+  private static boolean[] toBooleans(TransformOperand operand, VectorizedBlock block, @Nullable boolean[] selection) {
+    if (operand instanceof FilterOperand) {
+      return ((FilterOperand) operand).applyFilter(block, selection);
+    }
+    Object[] values = operand.apply(block, selection).getValues();
+    int numRows = values.length;
+    boolean[] matches = new boolean[numRows];
+    for (int rowId = 0; rowId < numRows; rowId++) {
+      if (selection == null || selection[rowId]) {
+        matches[rowId] = BooleanUtils.toBoolean(values[rowId]);
+      }
+    }
+    return matches;
+  }
+
+  private static boolean[] copyOrSelectAll(@Nullable boolean[] selection, int numRows) {
+    if (selection != null) {
+      return selection.clone();
+    }
+    boolean[] selectAll = new boolean[numRows];
+    Arrays.fill(selectAll, true);
+    return selectAll;
+  }
+
+  private static boolean hasSelected(boolean[] selection) {
+    for (boolean selected : selection) {
+      if (selected) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   public static class And extends FilterOperand {
     List<TransformOperand> _childOperands;
 
@@ -52,6 +116,19 @@ public abstract class FilterOperand extends TransformOperand {
       }
       return true;
     }
+
+    @Override
+    public boolean[] applyFilter(VectorizedBlock block, @Nullable boolean[] selection) {
+      // Each child is evaluated on the rows matching all the previous children
+      boolean[] matches = selection;
+      for (TransformOperand child : _childOperands) {
+        matches = toBooleans(child, block, matches);
+        if (!hasSelected(matches)) {
+          break;
+        }
+      }
+      return matches;
+    }
   }
 
   public static class Or extends FilterOperand {
@@ -73,6 +150,27 @@ public abstract class FilterOperand extends TransformOperand {
       }
       return false;
     }
+
+    @Override
+    public boolean[] applyFilter(VectorizedBlock block, @Nullable boolean[] selection) {
+      // Each child is evaluated on the rows not matching any of the previous children
+      int numRows = block.getNumRows();
+      boolean[] matches = new boolean[numRows];
+      boolean[] remaining = copyOrSelectAll(selection, numRows);
+      for (TransformOperand child : _childOperands) {
+        boolean[] childMatches = toBooleans(child, block, remaining);
+        for (int rowId = 0; rowId < numRows; rowId++) {
+          if (childMatches[rowId]) {
+            matches[rowId] = true;
+            remaining[rowId] = false;
+          }
+        }
+        if (!hasSelected(remaining)) {
+          break;
+        }
+      }
+      return matches;
+    }
   }
 
   public static class Not extends FilterOperand {
@@ -86,6 +184,15 @@ public abstract class FilterOperand extends TransformOperand {
     public Boolean apply(Object[] row) {
       return !BooleanUtils.toBoolean(_childOperand.apply(row));
     }
+
+    @Override
+    public boolean[] applyFilter(VectorizedBlock block, @Nullable boolean[] selection) {
+      boolean[] matches = toBooleans(_childOperand, block, selection);
+      for (int rowId = 0; rowId < matches.length; rowId++) {
+        matches[rowId] = (selection == null || selection[rowId]) && !matches[rowId];
+      }
+      return matches;
+    }
   }
 
   public static class True extends FilterOperand {
@@ -99,6 +206,11 @@ public abstract class FilterOperand extends TransformOperand {
     public Boolean apply(Object[] row) {
       return BooleanUtils.toBoolean(_childOperand.apply(row));
     }
+
+    @Override
+    public boolean[] applyFilter(VectorizedBlock block, @Nullable boolean[] selection) {
+      return toBooleans(_childOperand, block, selection);
+    }
   }
 
   public static class Predicate extends FilterOperand {
@@ -166,5 +278,79 @@ public abstract class FilterOperand extends TransformOperand {
       }
       return _comparisonResultPredicate.test(v1.compareTo(v2));
     }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    @Override
+    public boolean[] applyFilter(VectorizedBlock block, @Nullable boolean[] selection) {
+      int numRows = block.getNumRows();
+      // Same as row-at-a-time evaluation, RHS is only evaluated when LHS is not null
+      ColumnVector lhs = _lhs.apply(block, selection);
+      boolean[] matches = new boolean[numRows];
+      for (int rowId = 0; rowId < numRows; rowId++) {
+        matches[rowId] = (selection == null || selection[rowId]) && !lhs.isNull(rowId);
+      }
+      ColumnVector rhs = _rhs.apply(block, matches);
+      for (int rowId = 0; rowId < numRows; rowId++) {
+        if (rhs.isNull(rowId)) {
+          matches[rowId] = false;
+        }
+      }
+      if (_requireCasting) {
+        switch (_commonCastType) {
+          case INT: {
+            int[] lhsValues = lhs.getIntValues();
+            int[] rhsValues = rhs.getIntValues();
+            for (int rowId = 0; rowId < numRows; rowId++) {
+              matches[rowId] = matches[rowId] && _comparisonResultPredicate.test(
+                  Integer.compare(lhsValues[rowId], rhsValues[rowId]));
+            }
+            return matches;
+          }
+          case LONG: {
+            long[] lhsValues = lhs.getLongValues();
+            long[] rhsValues = rhs.getLongValues();
+            for (int rowId = 0; rowId < numRows; rowId++) {
+              matches[rowId] =
+                  matches[rowId] && _comparisonResultPredicate.test(Long.compare(lhsValues[rowId], rhsValues[rowId]));
+            }
+            return matches;
+          }
+          case FLOAT: {
+            float[] lhsValues = lhs.getFloatValues();
+            float[] rhsValues = rhs.getFloatValues();
+            for (int rowId = 0; rowId < numRows; rowId++) {
+              matches[rowId] =
+                  matches[rowId] && _comparisonResultPredicate.test(Float.compare(lhsValues[rowId], rhsValues[rowId]));
+            }
+            return matches;
+          }
+          case DOUBLE: {
+            double[] lhsValues = lhs.getDoubleValues();
+            double[] rhsValues = rhs.getDoubleValues();
+            for (int rowId = 0; rowId < numRows; rowId++) {
+              matches[rowId] = matches[rowId] && _comparisonResultPredicate.test(
+                  Double.compare(lhsValues[rowId], rhsValues[rowId]));
+            }
+            return matches;
+          }
+          default:
+            break;
+        }
+      }
+      Object[] lhsValues = lhs.getValues();
+      Object[] rhsValues = rhs.getValues();
+      for (int rowId = 0; rowId < numRows; rowId++) {
+        if (matches[rowId]) {
+          Comparable v1 = (Comparable) lhsValues[rowId];
+          Comparable v2 = (Comparable) rhsValues[rowId];
+          if (_requireCasting) {
+            v1 = (Comparable) TypeUtils.convert(v1, _commonCastType);
+            v2 = (Comparable) TypeUtils.convert(v2, _commonCastType);
+          }
+          matches[rowId] = _comparisonResultPredicate.test(v1.compareTo(v2));
+        }
+      }
+      return matches;
+    }
   }
 }
@@ -19,15 +19,22 @@
 package org.apache.pinot.query.runtime.operator.operands;
 
 import com.google.common.base.Preconditions;
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.DoubleBinaryOperator;
+import javax.annotation.Nullable;
 import org.apache.pinot.common.function.FunctionInfo;
 import org.apache.pinot.common.function.FunctionInvoker;
 import org.apache.pinot.common.function.FunctionRegistry;
 import org.apache.pinot.common.function.FunctionUtils;
+import org.apache.pinot.common.function.scalar.ArithmeticFunctions;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.query.planner.logical.RexExpression;
+import org.apache.pinot.query.runtime.operator.block.ColumnVector;
+import org.apache.pinot.query.runtime.operator.block.VectorizedBlock;
 import org.apache.pinot.query.runtime.operator.utils.OperatorUtils;
+import org.roaringbitmap.RoaringBitmap;
 
 /*
  * FunctionOperands are generated from {@link RexExpression}s.
@@ -36,6 +43,8 @@ public class FunctionOperand extends TransformOperand {
   private final List<TransformOperand> _childOperandList;
   private final FunctionInvoker _functionInvoker;
   private final Object[] _reusableOperandHolder;
+  // Primitive implementation of the arithmetic function for column-at-a-time evaluation, null for other functions
+  private final DoubleBinaryOperator _doubleOperator;
 
   public FunctionOperand(RexExpression.FunctionCall functionCall, DataSchema dataSchema) {
     // iteratively resolve child operands.
@@ -55,6 +64,38 @@ public class FunctionOperand extends TransformOperand {
       _resultType = DataSchema.ColumnDataType.fromDataType(functionCall.getDataType(), true);
     }
     _reusableOperandHolder = new Object[operandExpressions.size()];
+    _doubleOperator = getDoubleOperator(functionInfo, _childOperandList);
+  }
+
+  @Nullable
+  private static DoubleBinaryOperator getDoubleOperator(FunctionInfo functionInfo,
+      List<TransformOperand> childOperands) {
+    Method method = functionInfo.getMethod();
+    if (method.getDeclaringClass() != ArithmeticFunctions.class || method.getParameterCount() != 2
+        || functionInfo.hasNullableParameters()) {
+      return null;
+    }
+    // Only handle numeric operands, and leave the type mismatch to be reported by the function invoker
+    for (TransformOperand childOperand : childOperands) {
+      DataSchema.ColumnDataType resultType = childOperand.getResultType();
+      if (resultType == null || !ColumnVector.isPrimitiveType(resultType)) {
+        return null;
+      }
+    }
+    switch (method.getName()) {
+      case "plus":
+        return ArithmeticFunctions::plus;
+      case "minus":
+        return ArithmeticFunctions::minus;
+      case "times":
+        return ArithmeticFunctions::times;
+      case "divide":
+        return ArithmeticFunctions::divide;
+      case "mod":
+        return ArithmeticFunctions::mod;
+      default:
+        return null;
+    }
   }
 
   @Override
@@ -65,6 +106,50 @@ public class FunctionOperand extends TransformOperand {
     return _functionInvoker.invoke(_reusableOperandHolder);
   }
 
+  @Override
+  public ColumnVector apply(VectorizedBlock block, @Nullable boolean[] selection) {
+    int numOperands = _childOperandList.size();
+    ColumnVector[] operandVectors = new ColumnVector[numOperands];
+    for (int i = 0; i < numOperands; i++) {
+      operandVectors[i] = _childOperandList.get(i).apply(block, selection);
+    }
+    int numRows = block.getNumRows();
+    if (_doubleOperator != null) {
+      // Arithmetic function is null intolerant, so the result is null when any of the operands is null
+      ColumnVector lhs = operandVectors[0];
+      ColumnVector rhs = operandVectors[1];
+      double[] lhsValues = lhs.getDoubleValues();
+      double[] rhsValues = rhs.getDoubleValues();
+      double[] values = new double[numRows];
+      RoaringBitmap nullBitmap = null;
+      for (int rowId = 0; rowId < numRows; rowId++) {
+        if (lhs.isNull(rowId) || rhs.isNull(rowId)) {
+          if (nullBitmap == null) {
+            nullBitmap = new RoaringBitmap();
+          }
+          nullBitmap.add(rowId);
+        } else {
+          values[rowId] = _doubleOperator.applyAsDouble(lhsValues[rowId], rhsValues[rowId]);
+        }
+      }
+      return ColumnVector.ofDoubles(values, nullBitmap);
+    }
+    Object[][] operandValues = new Object[numOperands][];
+    for (int i = 0; i < numOperands; i++) {
+      operandValues[i] = operandVectors[i].getValues();
+    }
+    Object[] values = new Object[numRows];
+    for (int rowId = 0; rowId < numRows; rowId++) {
+      if (selection == null || selection[rowId]) {
+        for (int i = 0; i < numOperands; i++) {
+          _reusableOperandHolder[i] = operandValues[i][rowId];
+        }
+        values[rowId] = _functionInvoker.invoke(_reusableOperandHolder);
+      }
+    }
+    return ColumnVector.ofValues(values);
+  }
+
   private static String computeColumnName(String functionName, List<TransformOperand> childOperands) {
     StringBuilder sb = new StringBuilder();
     sb.append(functionName);
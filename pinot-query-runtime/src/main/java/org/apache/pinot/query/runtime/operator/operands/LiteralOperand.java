@@ -18,8 +18,11 @@
  */
 package org.apache.pinot.query.runtime.operator.operands;
 
+import javax.annotation.Nullable;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.query.planner.logical.RexExpression;
+import org.apache.pinot.query.runtime.operator.block.ColumnVector;
+import org.apache.pinot.query.runtime.operator.block.VectorizedBlock;
 
 
 public class LiteralOperand extends TransformOperand {
@@ -34,4 +37,9 @@ public class LiteralOperand extends TransformOperand {
   public Object apply(Object[] row) {
     return _value;
   }
+
+  @Override
+  public ColumnVector apply(VectorizedBlock block, @Nullable boolean[] selection) {
+    return ColumnVector.ofConstant(_value, block.getNumRows());
+  }
 }
@@ -18,8 +18,11 @@
  */
 package org.apache.pinot.query.runtime.operator.operands;
 
+import javax.annotation.Nullable;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.query.planner.logical.RexExpression;
+import org.apache.pinot.query.runtime.operator.block.ColumnVector;
+import org.apache.pinot.query.runtime.operator.block.VectorizedBlock;
 
 
 public class ReferenceOperand extends TransformOperand {
@@ -35,4 +38,9 @@ public class ReferenceOperand extends TransformOperand {
   public Object apply(Object[] row) {
     return row[_refIndex];
   }
+
+  @Override
+  public ColumnVector apply(VectorizedBlock block, @Nullable boolean[] selection) {
+    return block.getColumn(_refIndex);
+  }
 }
@@ -23,6 +23,8 @@ import java.util.List;
 import javax.annotation.Nullable;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.query.planner.logical.RexExpression;
+import org.apache.pinot.query.runtime.operator.block.ColumnVector;
+import org.apache.pinot.query.runtime.operator.block.VectorizedBlock;
 import org.apache.pinot.query.runtime.operator.utils.OperatorUtils;
 
 
@@ -89,4 +91,22 @@ public abstract class TransformOperand {
 
   @Nullable
   public abstract Object apply(Object[] row);
+
+  /**
+   * Evaluates the operand column-at-a-time over the rows of the block. Only the rows selected by the given selection
+   * (all the rows when it is {@code null}) are evaluated, and the values for the other rows are undefined.
+   *
+   * <p>The default implementation evaluates the operand row-at-a-time for the selected rows.
+   */
+  public ColumnVector apply(VectorizedBlock block, @Nullable boolean[] selection) {
+    List<Object[]> rows = block.getRows();
+    int numRows = block.getNumRows();
+    Object[] values = new Object[numRows];
+    for (int rowId = 0; rowId < numRows; rowId++) {
+      if (selection == null || selection[rowId]) {
+        values[rowId] = apply(rows.get(rowId));
+      }
+    }
+    return ColumnVector.ofValues(values);
+  }
 }
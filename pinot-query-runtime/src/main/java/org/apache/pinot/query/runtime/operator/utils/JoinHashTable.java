@@ -0,0 +1,624 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.operator.utils;
+
+import it.unimi.dsi.fastutil.HashCommon;
+import java.util.Arrays;
+import java.util.List;
+import org.roaringbitmap.RoaringBitmap;
+
+
+/**
+ * The {@code JoinHashTable} is a compact in-memory build side (right table) for the hash join.
+ * <ul>
+ *   <li>
+ *     The rows are stored column by column. The INT, LONG and DOUBLE columns are stored as primitive arrays (with a
+ *     bitmap for the null values), and fall back to an object array when a value of a different class shows up so
+ *     that the materialized rows always keep the original values.
+ *   </li>
+ *   <li>
+ *     The rows are indexed by an open addressing hash index over the row ids, where each slot points to the first and
+ *     the last row of a key, and the rows with the same key are chained in insertion order. When joining on a single
+ *     INT or LONG column, the keys are stored as primitive longs.
+ *   </li>
+ *   <li>The matched rows (for the joins returning the unmatched right rows) are tracked in a bitmap of row ids.</li>
+ * </ul>
+ * <p>The keys follow the same equality semantics as {@link org.apache.pinot.core.data.table.Key}, i.e. the values are
+ * compared with {@link Object#equals(Object)}.
+ */
+public class JoinHashTable {
+  public static final int NO_ROW = -1;
+
+  private static final int INITIAL_NUM_ROWS = 16;
+  private static final int INITIAL_NUM_SLOTS = 16;
+  private static final double LOAD_FACTOR = 0.5;
+
+  private final int[] _keyColumnIds;
+
+  private Column[] _columns;
+  private int _numRows;
+  private int[] _nextRowIds;
+
+  // Open addressing hash index, where each slot stores the first and the last row of a key
+  private boolean _isLongKey;
+  private Class<?> _longKeyClass;
+  private long[] _slotLongKeys;
+  private int[] _slotHashes;
+  private int[] _slotFirstRowIds;
+  private int[] _slotLastRowIds;
+  private int _mask;
+  private int _numKeys;
+  // Rows with null key in the long key mode
+  private int _nullKeyFirstRowId;
+  private int _nullKeyLastRowId;
+
+  private RoaringBitmap _matchedRowIds;
+
+  public JoinHashTable(List<Integer> keyColumnIds) {
+    _keyColumnIds = keyColumnIds.stream().mapToInt(Integer::intValue).toArray();
+    clear();
+  }
+
+  public void addRows(List<Object[]> rows) {
+    for (Object[] row : rows) {
+      addRow(row);
+    }
+  }
+
+  public void addRow(Object[] row) {
+    if (_columns == null) {
+      init(row);
+    }
+    int rowId = _numRows;
+    if (rowId == _nextRowIds.length) {
+      _nextRowIds = Arrays.copyOf(_nextRowIds, rowId << 1);
+    }
+    for (int i = 0; i < _columns.length; i++) {
+      Object value = row[i];
+      if (!_columns[i].add(rowId, value)) {
+        _columns[i] = toObjectColumn(_columns[i], rowId);
+        _columns[i].add(rowId, value);
+      }
+    }
+    _nextRowIds[rowId] = NO_ROW;
+    _numRows++;
+    if (_isLongKey) {
+      Object keyValue = row[_keyColumnIds[0]];
+      if (keyValue == null) {
+        if (_nullKeyFirstRowId == NO_ROW) {
+          _nullKeyFirstRowId = rowId;
+        } else {
+          _nextRowIds[_nullKeyLastRowId] = rowId;
+        }
+        _nullKeyLastRowId = rowId;
+      } else if (keyValue.getClass() == _longKeyClass) {
+        addLongKey(((Number) keyValue).longValue(), rowId);
+      } else {
+        // Key values of different classes are not equal, fall back to the object keys
+        _isLongKey = false;
+        rebuildIndex();
+      }
+    } else {
+      addObjectKey(rowId);
+    }
+  }
+
+  public int getNumRows() {
+    return _numRows;
+  }
+
+  /**
+   * Returns the first row id for the given key values, or {@link #NO_ROW} if the key does not exist.
+   */
+  public int getFirstRowId(Object[] key) {
+    if (_numRows == 0) {
+      return NO_ROW;
+    }
+    if (_isLongKey) {
+      Object keyValue = key[0];
+      if (keyValue == null) {
+        return _nullKeyFirstRowId;
+      }
+      if (keyValue.getClass() != _longKeyClass) {
+        return NO_ROW;
+      }
+      long longKey = ((Number) keyValue).longValue();
+      int slot = (int) HashCommon.mix(longKey) & _mask;
+      while (_slotFirstRowIds[slot] != NO_ROW) {
+        if (_slotLongKeys[slot] == longKey) {
+          return _slotFirstRowIds[slot];
+        }
+        slot = (slot + 1) & _mask;
+      }
+      return NO_ROW;
+    } else {
+      int hash = Arrays.hashCode(key);
+      int slot = HashCommon.mix(hash) & _mask;
+      while (_slotFirstRowIds[slot] != NO_ROW) {
+        if (_slotHashes[slot] == hash && keyEquals(_slotFirstRowIds[slot], key)) {
+          return _slotFirstRowIds[slot];
+        }
+        slot = (slot + 1) & _mask;
+      }
+      return NO_ROW;
+    }
+  }
+
+  /**
+   * Returns the next row id with the same key, or {@link #NO_ROW} if the row is the last one for the key.
+   */
+  public int getNextRowId(int rowId) {
+    return _nextRowIds[rowId];
+  }
+
+  public boolean containsKey(Object[] key) {
+    return getFirstRowId(key) != NO_ROW;
+  }
+
+  public Object[] getRow(int rowId) {
+    Object[] row = new Object[_columns.length];
+    getRow(rowId, row, 0);
+    return row;
+  }
+
+  /**
+   * Copies the values of the given row into the buffer starting from the given offset.
+   */
+  public void getRow(int rowId, Object[] buffer, int offset) {
+    for (int i = 0; i < _columns.length; i++) {
+      buffer[offset + i] = _columns[i].get(rowId);
+    }
+  }
+
+  public void markMatched(int rowId) {
+    _matchedRowIds.add(rowId);
+  }
+
+  public RoaringBitmap getUnmatchedRowIds() {
+    return RoaringBitmap.flip(_matchedRowIds, 0L, _numRows);
+  }
+
+  /**
+   * Returns the estimated heap size of the table.
+   */
+  public long getSizeInBytes() {
+    long sizeInBytes = 4L * _nextRowIds.length + 12L * _slotFirstRowIds.length;
+    if (_columns != null) {
+      for (Column column : _columns) {
+        sizeInBytes += column.getSizeInBytes();
+      }
+    }
+    return sizeInBytes;
+  }
+
+  /**
+   * Removes all the rows from the table.
+   */
+  public void clear() {
+    _columns = null;
+    _numRows = 0;
+    _nextRowIds = new int[INITIAL_NUM_ROWS];
+    _isLongKey = false;
+    _longKeyClass = null;
+    _nullKeyFirstRowId = NO_ROW;
+    _nullKeyLastRowId = NO_ROW;
+    initIndex(INITIAL_NUM_SLOTS);
+    _matchedRowIds = new RoaringBitmap();
+  }
+
+  private void init(Object[] row) {
+    int numColumns = row.length;
+    _columns = new Column[numColumns];
+    for (int i = 0; i < numColumns; i++) {
+      Object value = row[i];
+      if (value instanceof Integer) {
+        _columns[i] = new IntColumn();
+      } else if (value instanceof Long) {
+        _columns[i] = new LongColumn();
+      } else if (value instanceof Double) {
+        _columns[i] = new DoubleColumn();
+      } else {
+        _columns[i] = new ObjectColumn();
+      }
+    }
+    if (_keyColumnIds.length == 1) {
+      Object keyValue = row[_keyColumnIds[0]];
+      if (keyValue instanceof Integer || keyValue instanceof Long) {
+        _isLongKey = true;
+        _longKeyClass = keyValue.getClass();
+        initIndex(INITIAL_NUM_SLOTS);
+      }
+    }
+  }
+
+  private void initIndex(int numSlots) {
+    _mask = numSlots - 1;
+    _numKeys = 0;
+    if (_isLongKey) {
+      _slotLongKeys = new long[numSlots];
+      _slotHashes = null;
+    } else {
+      _slotLongKeys = null;
+      _slotHashes = new int[numSlots];
+    }
+    _slotFirstRowIds = new int[numSlots];
+    Arrays.fill(_slotFirstRowIds, NO_ROW);
+    _slotLastRowIds = new int[numSlots];
+  }
+
+  private void addLongKey(long longKey, int rowId) {
+    int slot = (int) HashCommon.mix(longKey) & _mask;
+    while (_slotFirstRowIds[slot] != NO_ROW) {
+      if (_slotLongKeys[slot] == longKey) {
+        _nextRowIds[_slotLastRowIds[slot]] = rowId;
+        _slotLastRowIds[slot] = rowId;
+        return;
+      }
+      slot = (slot + 1) & _mask;
+    }
+    _slotLongKeys[slot] = longKey;
+    _slotFirstRowIds[slot] = rowId;
+    _slotLastRowIds[slot] = rowId;
+    if (++_numKeys > LOAD_FACTOR * (_mask + 1)) {
+      resizeIndex();
+    }
+  }
+
+  private void addObjectKey(int rowId) {
+    int hash = keyHashCode(rowId);
+    int slot = HashCommon.mix(hash) & _mask;
+    while (_slotFirstRowIds[slot] != NO_ROW) {
+      if (_slotHashes[slot] == hash && keyEquals(_slotFirstRowIds[slot], rowId)) {
+        _nextRowIds[_slotLastRowIds[slot]] = rowId;
+        _slotLastRowIds[slot] = rowId;
+        return;
+      }
+      slot = (slot + 1) & _mask;
+    }
+    _slotHashes[slot] = hash;
+    _slotFirstRowIds[slot] = rowId;
+    _slotLastRowIds[slot] = rowId;
+    if (++_numKeys > LOAD_FACTOR * (_mask + 1)) {
+      resizeIndex();
+    }
+  }
+
+  private void resizeIndex() {
+    long[] slotLongKeys = _slotLongKeys;
+    int[] slotHashes = _slotHashes;
+    int[] slotFirstRowIds = _slotFirstRowIds;
+    int[] slotLastRowIds = _slotLastRowIds;
+    int numKeys = _numKeys;
+    initIndex(slotFirstRowIds.length << 1);
+    _numKeys = numKeys;
+    for (int i = 0; i < slotFirstRowIds.length; i++) {
+      if (slotFirstRowIds[i] == NO_ROW) {
+        continue;
+      }
+      int slot;
+      if (_isLongKey) {
+        slot = (int) HashCommon.mix(slotLongKeys[i]) & _mask;
+      } else {
+        slot = HashCommon.mix(slotHashes[i]) & _mask;
+      }
+      while (_slotFirstRowIds[slot] != NO_ROW) {
+        slot = (slot + 1) & _mask;
+      }
+      if (_isLongKey) {
+        _slotLongKeys[slot] = slotLongKeys[i];
+      } else {
+        _slotHashes[slot] = slotHashes[i];
+      }
+      _slotFirstRowIds[slot] = slotFirstRowIds[i];
+      _slotLastRowIds[slot] = slotLastRowIds[i];
+    }
+  }
+
+  /**
+   * Re-indexes all the rows with the object keys.
+   */
+  private void rebuildIndex() {
+    _nullKeyFirstRowId = NO_ROW;
+    _nullKeyLastRowId = NO_ROW;
+    initIndex(Math.max(INITIAL_NUM_SLOTS, HashCommon.nextPowerOfTwo((int) (_numRows / LOAD_FACTOR) + 1)));
+    for (int rowId = 0; rowId < _numRows; rowId++) {
+      _nextRowIds[rowId] = NO_ROW;
+      addObjectKey(rowId);
+    }
+  }
+
+  /**
+   * Same as {@link Arrays#hashCode(Object[])} on the key values of the row.
+   */
+  private int keyHashCode(int rowId) {
+    int hash = 1;
+    for (int keyColumnId : _keyColumnIds) {
+      hash = 31 * hash + _columns[keyColumnId].valueHashCode(rowId);
+    }
+    return hash;
+  }
+
+  private boolean keyEquals(int rowId, int otherRowId) {
+    for (int keyColumnId : _keyColumnIds) {
+      if (!_columns[keyColumnId].valueEquals(rowId, otherRowId)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean keyEquals(int rowId, Object[] key) {
+    for (int i = 0; i < _keyColumnIds.length; i++) {
+      if (!_columns[_keyColumnIds[i]].valueEquals(rowId, key[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static Column toObjectColumn(Column column, int numRows) {
+    ObjectColumn objectColumn = new ObjectColumn();
+    for (int rowId = 0; rowId < numRows; rowId++) {
+      objectColumn.add(rowId, column.get(rowId));
+    }
+    return objectColumn;
+  }
+
+  private static int getNewCapacity(int capacity, int rowId) {
+    return Math.max(capacity << 1, rowId + 1);
+  }
+
+  private interface Column {
+
+    /**
+     * Adds the value for the given row, returns {@code false} if the value is not supported by the column.
+     */
+    boolean add(int rowId, Object value);
+
+    Object get(int rowId);
+
+    boolean valueEquals(int rowId, int otherRowId);
+
+    boolean valueEquals(int rowId, Object value);
+
+    int valueHashCode(int rowId);
+
+    long getSizeInBytes();
+  }
+
+  private abstract static class PrimitiveColumn implements Column {
+    RoaringBitmap _nullRowIds;
+
+    void setNull(int rowId) {
+      if (_nullRowIds == null) {
+        _nullRowIds = new RoaringBitmap();
+      }
+      _nullRowIds.add(rowId);
+    }
+
+    boolean isNull(int rowId) {
+      return _nullRowIds != null && _nullRowIds.contains(rowId);
+    }
+
+    long getNullSizeInBytes() {
+      return _nullRowIds != null ? _nullRowIds.getSizeInBytes() : 0;
+    }
+  }
+
+  private static class IntColumn extends PrimitiveColumn {
+    int[] _values = new int[INITIAL_NUM_ROWS];
+
+    @Override
+    public boolean add(int rowId, Object value) {
+      if (value != null && !(value instanceof Integer)) {
+        return false;
+      }
+      if (rowId >= _values.length) {
+        _values = Arrays.copyOf(_values, getNewCapacity(_values.length, rowId));
+      }
+      if (value == null) {
+        setNull(rowId);
+      } else {
+        _values[rowId] = (Integer) value;
+      }
+      return true;
+    }
+
+    @Override
+    public Object get(int rowId) {
+      return isNull(rowId) ? null : _values[rowId];
+    }
+
+    @Override
+    public boolean valueEquals(int rowId, int otherRowId) {
+      boolean isNull = isNull(rowId);
+      if (isNull || isNull(otherRowId)) {
+        return isNull && isNull(otherRowId);
+      }
+      return _values[rowId] == _values[otherRowId];
+    }
+
+    @Override
+    public boolean valueEquals(int rowId, Object value) {
+      if (isNull(rowId)) {
+        return value == null;
+      }
+      return value instanceof Integer && _values[rowId] == (Integer) value;
+    }
+
+    @Override
+    public int valueHashCode(int rowId) {
+      return isNull(rowId) ? 0 : Integer.hashCode(_values[rowId]);
+    }
+
+    @Override
+    public long getSizeInBytes() {
+      return 4L * _values.length + getNullSizeInBytes();
+    }
+  }
+
+  private static class LongColumn extends PrimitiveColumn {
+    long[] _values = new long[INITIAL_NUM_ROWS];
+
+    @Override
+    public boolean add(int rowId, Object value) {
+      if (value != null && !(value instanceof Long)) {
+        return false;
+      }
+      if (rowId >= _values.length) {
+        _values = Arrays.copyOf(_values, getNewCapacity(_values.length, rowId));
+      }
+      if (value == null) {
+        setNull(rowId);
+      } else {
+        _values[rowId] = (Long) value;
+      }
+      return true;
+    }
+
+    @Override
+    public Object get(int rowId) {
+      return isNull(rowId) ? null : _values[rowId];
+    }
+
+    @Override
+    public boolean valueEquals(int rowId, int otherRowId) {
+      boolean isNull = isNull(rowId);
+      if (isNull || isNull(otherRowId)) {
+        return isNull && isNull(otherRowId);
+      }
+      return _values[rowId] == _values[otherRowId];
+    }
+
+    @Override
+    public boolean valueEquals(int rowId, Object value) {
+      if (isNull(rowId)) {
+        return value == null;
+      }
+      return value instanceof Long && _values[rowId] == (Long) value;
+    }
+
+    @Override
+    public int valueHashCode(int rowId) {
+      return isNull(rowId) ? 0 : Long.hashCode(_values[rowId]);
+    }
+
+    @Override
+    public long getSizeInBytes() {
+      return 8L * _values.length + getNullSizeInBytes();
+    }
+  }
+
+  private static class DoubleColumn extends PrimitiveColumn {
+    double[] _values = new double[INITIAL_NUM_ROWS];
+
+    @Override
+    public boolean add(int rowId, Object value) {
+      if (value != null && !(value instanceof Double)) {
+        return false;
+      }
+      if (rowId >= _values.length) {
+        _values = Arrays.copyOf(_values, getNewCapacity(_values.length, rowId));
+      }
+      if (value == null) {
+        setNull(rowId);
+      } else {
+        _values[rowId] = (Double) value;
+      }
+      return true;
+    }
+
+    @Override
+    public Object get(int rowId) {
+      return isNull(rowId) ? null : _values[rowId];
+    }
+
+    @Override
+    public boolean valueEquals(int rowId, int otherRowId) {
+      boolean isNull = isNull(rowId);
+      if (isNull || isNull(otherRowId)) {
+        return isNull && isNull(otherRowId);
+      }
+      // Same as Double.equals()
+      return Double.doubleToLongBits(_values[rowId]) == Double.doubleToLongBits(_values[otherRowId]);
+    }
+
+    @Override
+    public boolean valueEquals(int rowId, Object value) {
+      if (isNull(rowId)) {
+        return value == null;
+      }
+      return value instanceof Double && Double.doubleToLongBits(_values[rowId]) == Double.doubleToLongBits(
+          (Double) value);
+    }
+
+    @Override
+    public int valueHashCode(int rowId) {
+      return isNull(rowId) ? 0 : Double.hashCode(_values[rowId]);
+    }
+
+    @Override
+    public long getSizeInBytes() {
+      return 8L * _values.length + getNullSizeInBytes();
+    }
+  }
+
+  private static class ObjectColumn implements Column {
+    Object[] _values = new Object[INITIAL_NUM_ROWS];
+    long _valuesSizeInBytes;
+
+    @Override
+    public boolean add(int rowId, Object value) {
+      if (rowId >= _values.length) {
+        _values = Arrays.copyOf(_values, getNewCapacity(_values.length, rowId));
+      }
+      _values[rowId] = value;
+      _valuesSizeInBytes += OperatorUtils.estimateValueSizeInBytes(value);
+      return true;
+    }
+
+    @Override
+    public Object get(int rowId) {
+      return _values[rowId];
+    }
+
+    @Override
+    public boolean valueEquals(int rowId, int otherRowId) {
+      Object value = _values[rowId];
+      return value != null ? value.equals(_values[otherRowId]) : _values[otherRowId] == null;
+    }
+
+    @Override
+    public boolean valueEquals(int rowId, Object value) {
+      Object thisValue = _values[rowId];
+      return thisValue != null ? thisValue.equals(value) : value == null;
+    }
+
+    @Override
+    public int valueHashCode(int rowId) {
+      Object value = _values[rowId];
+      return value != null ? value.hashCode() : 0;
+    }
+
+    @Override
+    public long getSizeInBytes() {
+      return 8L * _values.length + _valuesSizeInBytes;
+    }
+  }
+}
@@ -20,14 +20,17 @@ package org.apache.pinot.query.runtime.operator.utils;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
+import java.lang.reflect.Array;
 import java.util.HashMap;
 import java.util.Map;
+import javax.annotation.Nullable;
 import org.apache.commons.lang.StringUtils;
 import org.apache.pinot.common.datablock.MetadataBlock;
 import org.apache.pinot.common.datatable.DataTable;
 import org.apache.pinot.query.planner.DispatchablePlanFragment;
 import org.apache.pinot.query.routing.VirtualServerAddress;
 import org.apache.pinot.query.runtime.operator.OperatorStats;
+import org.apache.pinot.spi.utils.ByteArray;
 import org.apache.pinot.spi.utils.JsonUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -67,6 +70,44 @@ public class OperatorUtils {
     return functionName;
   }
 
+  /**
+   * Returns a rough estimate of the heap size of the given row, which is used to decide when to spill the intermediate
+   * rows to disk.
+   */
+  public static long estimateRowSizeInBytes(Object[] row) {
+    // Array header and references
+    long sizeInBytes = 16 + 8L * row.length;
+    for (Object value : row) {
+      sizeInBytes += estimateValueSizeInBytes(value);
+    }
+    return sizeInBytes;
+  }
+
+  /**
+   * Returns a rough estimate of the heap size of the given value (excluding the reference to it).
+   */
+  public static long estimateValueSizeInBytes(@Nullable Object value) {
+    if (value == null) {
+      return 0;
+    }
+    if (value instanceof String) {
+      return 40 + ((String) value).length();
+    } else if (value instanceof byte[]) {
+      return 16 + ((byte[]) value).length;
+    } else if (value instanceof ByteArray) {
+      return 32 + ((ByteArray) value).length();
+    } else if (value instanceof int[] || value instanceof float[]) {
+      return 16 + 4L * Array.getLength(value);
+    } else if (value instanceof long[] || value instanceof double[]) {
+      return 16 + 8L * Array.getLength(value);
+    } else if (value instanceof Object[]) {
+      return 16 + 48L * ((Object[]) value).length;
+    } else {
+      // Boxed primitive and other small objects
+      return 24;
+    }
+  }
+
   public static void recordTableName(OperatorStats operatorStats, DispatchablePlanFragment dispatchablePlanFragment) {
     String tableName = dispatchablePlanFragment.getTableName();
     if (tableName != null) {
@@ -35,7 +35,10 @@ public class SortUtils {
     private final int[] _valueIndices;
     private final int[] _multipliers;
     private final int[] _nullsMultipliers;
+    private final boolean[] _useLongComparison;
     private final boolean[] _useDoubleComparison;
+    private boolean _hasLongKeys;
+    private boolean _hasDoubleKeys;
 
     /**
      * Sort comparator for use with priority queues.
@@ -53,6 +56,7 @@ public class SortUtils {
       _valueIndices = new int[_size];
       _multipliers = new int[_size];
       _nullsMultipliers = new int[_size];
+      _useLongComparison = new boolean[_size];
       _useDoubleComparison = new boolean[_size];
       for (int i = 0; i < _size; i++) {
         _valueIndices[i] = ((RexExpression.InputRef) collationKeys.get(i)).getIndex();
@@ -60,10 +64,71 @@ public class SortUtils {
         _multipliers[i] = switchDirections ? -multiplier : multiplier;
         int nullsMultiplier = collationNullDirections.get(i) == NullDirection.LAST ? 1 : -1;
         _nullsMultipliers[i] = switchDirections ? -nullsMultiplier : nullsMultiplier;
+        // Compare INT/LONG keys as primitive long values, which is cheaper than comparing boxed values and does not
+        // lose precision for large LONG values
+        _useLongComparison[i] = columnDataTypes[_valueIndices[i]].isWholeNumber();
         _useDoubleComparison[i] = columnDataTypes[_valueIndices[i]].isNumber();
+        _hasLongKeys |= _useLongComparison[i];
+        _hasDoubleKeys |= _useDoubleComparison[i] && !_useLongComparison[i];
       }
     }
 
+    /**
+     * Returns the row with the numeric sort keys extracted into primitive arrays, to be compared with
+     * {@link #compareSortKeyRows(SortKeyRow, SortKeyRow)}. Extracting the keys once is cheaper than unboxing and
+     * checking the type of the values on every comparison when the row is compared multiple times (e.g. in a priority
+     * queue).
+     * <p>NOTE: The values of the numeric keys must match the column data type (INT/LONG values for whole number
+     *          columns).
+     */
+    public SortKeyRow toSortKeyRow(Object[] row) {
+      long[] longKeys = _hasLongKeys ? new long[_size] : null;
+      double[] doubleKeys = _hasDoubleKeys ? new double[_size] : null;
+      for (int i = 0; i < _size; i++) {
+        Object value = row[_valueIndices[i]];
+        if (value != null) {
+          if (_useLongComparison[i]) {
+            longKeys[i] = ((Number) value).longValue();
+          } else if (_useDoubleComparison[i]) {
+            doubleKeys[i] = ((Number) value).doubleValue();
+          }
+        }
+      }
+      return new SortKeyRow(row, longKeys, doubleKeys);
+    }
+
+    public int compareSortKeyRows(SortKeyRow r1, SortKeyRow r2) {
+      Object[] o1 = r1._row;
+      Object[] o2 = r2._row;
+      for (int i = 0; i < _size; i++) {
+        int index = _valueIndices[i];
+        Object v1 = o1[index];
+        Object v2 = o2[index];
+        if (v1 == null) {
+          if (v2 == null) {
+            continue;
+          }
+          return _nullsMultipliers[i];
+        }
+        if (v2 == null) {
+          return -_nullsMultipliers[i];
+        }
+        int result;
+        if (_useLongComparison[i]) {
+          result = Long.compare(r1._longKeys[i], r2._longKeys[i]);
+        } else if (_useDoubleComparison[i]) {
+          result = Double.compare(r1._doubleKeys[i], r2._doubleKeys[i]);
+        } else {
+          //noinspection unchecked
+          result = ((Comparable) v1).compareTo(v2);
+        }
+        if (result != 0) {
+          return result * _multipliers[i];
+        }
+      }
+      return 0;
+    }
+
     @Override
     public int compare(Object[] o1, Object[] o2) {
       for (int i = 0; i < _size; i++) {
@@ -80,7 +145,9 @@ public class SortUtils {
           return -_nullsMultipliers[i];
         }
         int result;
-        if (_useDoubleComparison[i]) {
+        if (_useLongComparison[i] && isWholeNumber(v1) && isWholeNumber(v2)) {
+          result = Long.compare(((Number) v1).longValue(), ((Number) v2).longValue());
+        } else if (_useDoubleComparison[i]) {
           result = Double.compare(((Number) v1).doubleValue(), ((Number) v2).doubleValue());
         } else {
           //noinspection unchecked
@@ -92,5 +159,28 @@ public class SortUtils {
       }
       return 0;
     }
+
+    private static boolean isWholeNumber(Object value) {
+      return value instanceof Integer || value instanceof Long;
+    }
+  }
+
+  /**
+   * A row with its numeric sort keys extracted by {@link SortComparator#toSortKeyRow(Object[])}.
+   */
+  public static class SortKeyRow {
+    private final Object[] _row;
+    private final long[] _longKeys;
+    private final double[] _doubleKeys;
+
+    private SortKeyRow(Object[] row, long[] longKeys, double[] doubleKeys) {
+      _row = row;
+      _longKeys = longKeys;
+      _doubleKeys = doubleKeys;
+    }
+
+    public Object[] getRow() {
+      return _row;
+    }
   }
 }
@@ -0,0 +1,172 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.operator.utils;
+
+import com.google.common.base.Preconditions;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.datablock.DataBlock;
+import org.apache.pinot.common.datablock.DataBlockUtils;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.core.common.ObjectSerDeUtils;
+import org.apache.pinot.core.common.datablock.DataBlockBuilder;
+import org.apache.pinot.query.service.QueryConfig;
+
+
+/**
+ * The {@code SpillFile} is a local file holding rows spilled by the multi-stage operators when the intermediate rows
+ * do not fit in memory. The rows are buffered and appended to the file as blocks in the {@link DataBlock} binary
+ * format, then read back block by block in the same order after {@link #finishWriting()} is called.
+ * <p>The file is deleted when the spill file is closed.
+ */
+public class SpillFile implements Closeable {
+  private final File _file;
+  private final DataSchema _dataSchema;
+  private final int _maxRowsPerBlock;
+
+  private List<Object[]> _buffer;
+  private DataOutputStream _outputStream;
+  private DataInputStream _inputStream;
+  private int _numBlocks;
+  private int _numBlocksRead;
+  private long _numRows;
+  private long _numBytes;
+
+  /**
+   * Creates a new directory with the given prefix for the spill files of an operator, under the spill directory of the
+   * server (see {@link QueryConfig#KEY_OF_SPILL_DIR}) in the request metadata, or under the default temporary directory
+   * when it is not set.
+   */
+  public static File createSpillDir(Map<String, String> opChainMetadata, String prefix)
+      throws IOException {
+    String spillDir = opChainMetadata.get(QueryConfig.KEY_OF_SPILL_DIR);
+    if (spillDir == null) {
+      return Files.createTempDirectory(prefix).toFile();
+    }
+    return Files.createTempDirectory(Files.createDirectories(Paths.get(spillDir)), prefix).toFile();
+  }
+
+  public SpillFile(File file, DataSchema dataSchema, int maxRowsPerBlock)
+      throws IOException {
+    _file = file;
+    _dataSchema = dataSchema;
+    _maxRowsPerBlock = maxRowsPerBlock;
+    _buffer = new ArrayList<>();
+    _outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+  }
+
+  /**
+   * Adds a row to the file. The rows are buffered in memory until a full block is collected.
+   */
+  public void add(Object[] row)
+      throws IOException {
+    Preconditions.checkState(_outputStream != null, "Spill file: %s is not writable", _file);
+    _buffer.add(row);
+    _numRows++;
+    if (_buffer.size() >= _maxRowsPerBlock) {
+      flush();
+    }
+  }
+
+  /**
+   * Flushes the buffered rows and closes the file for writing. Must be called before reading the rows.
+   */
+  public void finishWriting()
+      throws IOException {
+    if (_outputStream != null) {
+      flush();
+      _buffer = null;
+      _outputStream.close();
+      _outputStream = null;
+    }
+  }
+
+  /**
+   * Returns the next block of rows, or {@code null} if all the blocks are read.
+   */
+  @Nullable
+  public List<Object[]> read()
+      throws IOException {
+    Preconditions.checkState(_outputStream == null, "Spill file: %s is still being written", _file);
+    if (_numBlocksRead == _numBlocks) {
+      return null;
+    }
+    if (_inputStream == null) {
+      _inputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(_file)));
+    }
+    byte[] bytes = new byte[_inputStream.readInt()];
+    _inputStream.readFully(bytes);
+    _numBlocksRead++;
+    DataBlock dataBlock = DataBlockUtils.getDataBlock(ByteBuffer.wrap(bytes));
+    return DataBlockUtils.extractRows(dataBlock, ObjectSerDeUtils::deserialize);
+  }
+
+  public long getNumRows() {
+    return _numRows;
+  }
+
+  public long getNumBytes() {
+    return _numBytes;
+  }
+
+  private void flush()
+      throws IOException {
+    if (_buffer.isEmpty()) {
+      return;
+    }
+    byte[] bytes = DataBlockBuilder.buildFromRows(_buffer, _dataSchema).toBytes();
+    _outputStream.writeInt(bytes.length);
+    _outputStream.write(bytes);
+    _numBlocks++;
+    _numBytes += Integer.BYTES + bytes.length;
+    _buffer.clear();
+  }
+
+  @Override
+  public void close()
+      throws IOException {
+    try {
+      if (_outputStream != null) {
+        _outputStream.close();
+        _outputStream = null;
+      }
+      if (_inputStream != null) {
+        _inputStream.close();
+        _inputStream = null;
+      }
+    } finally {
+      FileUtils.deleteQuietly(_file);
+    }
+  }
+}
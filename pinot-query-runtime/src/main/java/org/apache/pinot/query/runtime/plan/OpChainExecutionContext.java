@@ -19,6 +19,8 @@
 package org.apache.pinot.query.runtime.plan;
 
 import com.google.common.annotations.VisibleForTesting;
+import java.util.Collections;
+import java.util.Map;
 import java.util.function.Consumer;
 import org.apache.pinot.query.mailbox.MailboxService;
 import org.apache.pinot.query.routing.VirtualServerAddress;
@@ -39,6 +41,7 @@ public class OpChainExecutionContext {
   private final VirtualServerAddress _server;
   private final long _deadlineMs;
   private final StageMetadata _stageMetadata;
+  private final Map<String, String> _opChainMetadata;
   private final OpChainId _id;
   private final OpChainStats _stats;
   private final boolean _traceEnabled;
@@ -47,12 +50,21 @@ public class OpChainExecutionContext {
   public OpChainExecutionContext(MailboxService mailboxService, long requestId, int stageId,
       VirtualServerAddress server, long deadlineMs, StageMetadata stageMetadata,
       PipelineBreakerResult pipelineBreakerResult, boolean traceEnabled) {
+    this(mailboxService, requestId, stageId, server, deadlineMs, stageMetadata, Collections.emptyMap(),
+        pipelineBreakerResult, traceEnabled);
+  }
+
+  @VisibleForTesting
+  public OpChainExecutionContext(MailboxService mailboxService, long requestId, int stageId,
+      VirtualServerAddress server, long deadlineMs, StageMetadata stageMetadata, Map<String, String> opChainMetadata,
+      PipelineBreakerResult pipelineBreakerResult, boolean traceEnabled) {
     _mailboxService = mailboxService;
     _requestId = requestId;
     _stageId = stageId;
     _server = server;
     _deadlineMs = deadlineMs;
     _stageMetadata = stageMetadata;
+    _opChainMetadata = opChainMetadata;
     _id = new OpChainId(requestId, server.workerId(), stageId);
     _stats = new OpChainStats(_id.toString());
     if (pipelineBreakerResult != null && pipelineBreakerResult.getOpChainStats() != null) {
@@ -65,7 +77,8 @@ public class OpChainExecutionContext {
   public OpChainExecutionContext(PhysicalPlanContext physicalPlanContext) {
     this(physicalPlanContext.getMailboxService(), physicalPlanContext.getRequestId(), physicalPlanContext.getStageId(),
         physicalPlanContext.getServer(), physicalPlanContext.getDeadlineMs(), physicalPlanContext.getStageMetadata(),
-        physicalPlanContext.getPipelineBreakerResult(), physicalPlanContext.isTraceEnabled());
+        physicalPlanContext.getOpChainMetadata(), physicalPlanContext.getPipelineBreakerResult(),
+        physicalPlanContext.isTraceEnabled());
   }
 
   public MailboxService getMailboxService() {
@@ -96,6 +109,13 @@ public class OpChainExecutionContext {
     return _stageMetadata;
   }
 
+  /**
+   * Returns the request metadata (including the query options) of the query.
+   */
+  public Map<String, String> getOpChainMetadata() {
+    return _opChainMetadata;
+  }
+
   public OpChainId getId() {
     return _id;
   }
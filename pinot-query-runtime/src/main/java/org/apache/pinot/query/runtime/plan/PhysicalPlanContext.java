@@ -19,7 +19,9 @@
 package org.apache.pinot.query.runtime.plan;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import org.apache.pinot.query.mailbox.MailboxService;
 import org.apache.pinot.query.routing.VirtualServerAddress;
 import org.apache.pinot.query.runtime.plan.pipeline.PipelineBreakerResult;
@@ -32,6 +34,7 @@ public class PhysicalPlanContext {
   private final long _deadlineMs;
   protected final VirtualServerAddress _server;
   protected final StageMetadata _stageMetadata;
+  protected final Map<String, String> _opChainMetadata;
   protected final PipelineBreakerResult _pipelineBreakerResult;
   protected final List<String> _receivingMailboxIds = new ArrayList<>();
   private final OpChainExecutionContext _opChainExecutionContext;
@@ -40,12 +43,20 @@ public class PhysicalPlanContext {
   public PhysicalPlanContext(MailboxService mailboxService, long requestId, int stageId, long deadlineMs,
       VirtualServerAddress server, StageMetadata stageMetadata, PipelineBreakerResult pipelineBreakerResult,
       boolean traceEnabled) {
+    this(mailboxService, requestId, stageId, deadlineMs, server, stageMetadata, Collections.emptyMap(),
+        pipelineBreakerResult, traceEnabled);
+  }
+
+  public PhysicalPlanContext(MailboxService mailboxService, long requestId, int stageId, long deadlineMs,
+      VirtualServerAddress server, StageMetadata stageMetadata, Map<String, String> opChainMetadata,
+      PipelineBreakerResult pipelineBreakerResult, boolean traceEnabled) {
     _mailboxService = mailboxService;
     _requestId = requestId;
     _stageId = stageId;
     _deadlineMs = deadlineMs;
     _server = server;
     _stageMetadata = stageMetadata;
+    _opChainMetadata = opChainMetadata;
     _pipelineBreakerResult = pipelineBreakerResult;
     _traceEnabled = traceEnabled;
     _opChainExecutionContext = new OpChainExecutionContext(this);
@@ -71,6 +82,10 @@ public class PhysicalPlanContext {
     return _stageMetadata;
   }
 
+  public Map<String, String> getOpChainMetadata() {
+    return _opChainMetadata;
+  }
+
   public PipelineBreakerResult getPipelineBreakerResult() {
     return _pipelineBreakerResult;
   }
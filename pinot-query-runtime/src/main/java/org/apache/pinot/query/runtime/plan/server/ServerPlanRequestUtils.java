@@ -20,13 +20,17 @@ package org.apache.pinot.query.runtime.plan.server;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import org.apache.helix.store.zk.ZkHelixPropertyStore;
 import org.apache.helix.zookeeper.datamodel.ZNRecord;
+import org.apache.pinot.common.function.TransformFunctionType;
 import org.apache.pinot.common.metadata.ZKMetadataProvider;
 import org.apache.pinot.common.request.BrokerRequest;
 import org.apache.pinot.common.request.DataSource;
@@ -38,6 +42,8 @@ import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.common.utils.config.QueryOptionsUtils;
 import org.apache.pinot.common.utils.request.RequestUtils;
 import org.apache.pinot.core.query.optimizer.QueryOptimizer;
+import org.apache.pinot.core.query.utils.idset.IdSet;
+import org.apache.pinot.core.query.utils.idset.IdSets;
 import org.apache.pinot.core.routing.TimeBoundaryInfo;
 import org.apache.pinot.query.planner.partitioning.FieldSelectionKeySelector;
 import org.apache.pinot.query.planner.plannode.JoinNode;
@@ -63,6 +69,11 @@ import org.slf4j.LoggerFactory;
 
 public class ServerPlanRequestUtils {
   private static final int DEFAULT_LEAF_NODE_LIMIT = Integer.MAX_VALUE;
+  static final int DEFAULT_RUNTIME_FILTER_MAX_IN_LIST_SIZE = 10_000;
+  // Segment pruners skip IN predicates with more values than this (see ValueBasedSegmentPruner), so a min/max range
+  // predicate is added for pruning on top of the longer IN-lists
+  private static final int IN_LIST_PRUNING_THRESHOLD =
+      CommonConstants.Server.DEFAULT_VALUE_PRUNER_IN_PREDICATE_THRESHOLD;
   private static final Logger LOGGER = LoggerFactory.getLogger(ServerPlanRequestUtils.class);
   private static final List<String> QUERY_REWRITERS_CLASS_NAMES =
       ImmutableList.of(PredicateComparisonRewriter.class.getName(),
@@ -216,85 +227,115 @@ public class ServerPlanRequestUtils {
 
   /**
    * attach the dynamic filter to the given PinotQuery.
+   *
+   * <p>The runtime filter for each join key is chosen from the number of distinct non-null build-side values:
+   * <ul>
+   *   <li>up to {@code maxInListSize} values: exact IN-list, plus a min/max range when the IN-list is too long to be
+   *   used for segment pruning;</li>
+   *   <li>more INT/LONG values: min/max range plus a serialized bitmap {@link IdSet}, which is exact and much more
+   *   compact than the IN-list;</li>
+   *   <li>more values of other types: IN-list plus min/max range, as the only compact alternative (bloom filter) is not
+   *   exact and the leaf stage join is replaced by this filter.</li>
+   * </ul>
+   *
+   * @return false if there is no non-null build-side value for some join key, in which case nothing can match
    */
-  static void attachDynamicFilter(PinotQuery pinotQuery, JoinNode.JoinKeys joinKeys, List<Object[]> dataContainer,
-      DataSchema dataSchema) {
+  static boolean attachDynamicFilter(PinotQuery pinotQuery, JoinNode.JoinKeys joinKeys, List<Object[]> dataContainer,
+      DataSchema dataSchema, int maxInListSize) {
     FieldSelectionKeySelector leftSelector = (FieldSelectionKeySelector) joinKeys.getLeftJoinKeySelector();
     FieldSelectionKeySelector rightSelector = (FieldSelectionKeySelector) joinKeys.getRightJoinKeySelector();
     List<Expression> expressions = new ArrayList<>();
     for (int i = 0; i < leftSelector.getColumnIndices().size(); i++) {
       Expression leftExpr = pinotQuery.getSelectList().get(leftSelector.getColumnIndices().get(i));
       int rightIdx = rightSelector.getColumnIndices().get(i);
-      Expression inFilterExpr = RequestUtils.getFunctionExpression(FilterKind.IN.name());
-      List<Expression> operands = new ArrayList<>(dataContainer.size() + 1);
-      operands.add(leftExpr);
-      operands.addAll(computeInOperands(dataContainer, dataSchema, rightIdx));
-      inFilterExpr.getFunctionCall().setOperands(operands);
-      expressions.add(inFilterExpr);
+      List<Object> values = computeDistinctValues(dataContainer, dataSchema, rightIdx);
+      if (values.isEmpty()) {
+        return false;
+      }
+      int numValues = values.size();
+      Object minValue = values.get(0);
+      Object maxValue = values.get(numValues - 1);
+      FieldSpec.DataType storedType = dataSchema.getColumnDataType(rightIdx).getStoredType().toDataType();
+      if (numValues > maxInListSize && (storedType == FieldSpec.DataType.INT
+          || storedType == FieldSpec.DataType.LONG)) {
+        expressions.add(getRangeFilterExpression(leftExpr, minValue, maxValue));
+        expressions.add(getIdSetFilterExpression(leftExpr, values, storedType));
+      } else {
+        Expression inFilterExpr = RequestUtils.getFunctionExpression(FilterKind.IN.name());
+        List<Expression> operands = new ArrayList<>(numValues + 1);
+        operands.add(leftExpr);
+        for (Object value : values) {
+          operands.add(RequestUtils.getLiteralExpression(value));
+        }
+        inFilterExpr.getFunctionCall().setOperands(operands);
+        expressions.add(inFilterExpr);
+        if (numValues > IN_LIST_PRUNING_THRESHOLD) {
+          expressions.add(getRangeFilterExpression(leftExpr, minValue, maxValue));
+        }
+      }
     }
     attachFilterExpression(pinotQuery, FilterKind.AND, expressions);
+    return true;
   }
 
-  private static List<Expression> computeInOperands(List<Object[]> dataContainer, DataSchema dataSchema, int colIdx) {
-    final DataSchema.ColumnDataType columnDataType = dataSchema.getColumnDataType(colIdx);
-    final FieldSpec.DataType storedType = columnDataType.getStoredType().toDataType();
-    final int numRows = dataContainer.size();
-    List<Expression> expressions = new ArrayList<>();
+  /**
+   * Returns the sorted distinct non-null values of the given column.
+   */
+  private static List<Object> computeDistinctValues(List<Object[]> dataContainer, DataSchema dataSchema,
+      int colIdx) {
+    final FieldSpec.DataType storedType = dataSchema.getColumnDataType(colIdx).getStoredType().toDataType();
     switch (storedType) {
       case INT:
-        int[] arrInt = new int[numRows];
-        for (int rowIdx = 0; rowIdx < numRows; rowIdx++) {
-          arrInt[rowIdx] = (int) dataContainer.get(rowIdx)[colIdx];
-        }
-        Arrays.sort(arrInt);
-        for (int rowIdx = 0; rowIdx < numRows; rowIdx++) {
-          expressions.add(RequestUtils.getLiteralExpression(arrInt[rowIdx]));
-        }
-        break;
       case LONG:
-        long[] arrLong = new long[numRows];
-        for (int rowIdx = 0; rowIdx < numRows; rowIdx++) {
-          arrLong[rowIdx] = (long) dataContainer.get(rowIdx)[colIdx];
-        }
-        Arrays.sort(arrLong);
-        for (int rowIdx = 0; rowIdx < numRows; rowIdx++) {
-          expressions.add(RequestUtils.getLiteralExpression(arrLong[rowIdx]));
-        }
-        break;
       case FLOAT:
-        float[] arrFloat = new float[numRows];
-        for (int rowIdx = 0; rowIdx < numRows; rowIdx++) {
-          arrFloat[rowIdx] = (float) dataContainer.get(rowIdx)[colIdx];
-        }
-        Arrays.sort(arrFloat);
-        for (int rowIdx = 0; rowIdx < numRows; rowIdx++) {
-          expressions.add(RequestUtils.getLiteralExpression(arrFloat[rowIdx]));
-        }
-        break;
       case DOUBLE:
-        double[] arrDouble = new double[numRows];
-        for (int rowIdx = 0; rowIdx < numRows; rowIdx++) {
-          arrDouble[rowIdx] = (double) dataContainer.get(rowIdx)[colIdx];
-        }
-        Arrays.sort(arrDouble);
-        for (int rowIdx = 0; rowIdx < numRows; rowIdx++) {
-          expressions.add(RequestUtils.getLiteralExpression(arrDouble[rowIdx]));
-        }
-        break;
       case STRING:
-        String[] arrString = new String[numRows];
-        for (int rowIdx = 0; rowIdx < numRows; rowIdx++) {
-          arrString[rowIdx] = (String) dataContainer.get(rowIdx)[colIdx];
-        }
-        Arrays.sort(arrString);
-        for (int rowIdx = 0; rowIdx < numRows; rowIdx++) {
-          expressions.add(RequestUtils.getLiteralExpression(arrString[rowIdx]));
-        }
         break;
       default:
-        throw new IllegalStateException("Illegal SV data type for ID_SET aggregation function: " + storedType);
+        throw new IllegalStateException("Illegal SV data type for dynamic filter: " + storedType);
+    }
+    Set<Object> valueSet = new HashSet<>();
+    for (Object[] row : dataContainer) {
+      Object value = row[colIdx];
+      if (value != null) {
+        valueSet.add(value);
+      }
+    }
+    List<Object> values = new ArrayList<>(valueSet);
+    values.sort(null);
+    return values;
+  }
+
+  private static Expression getRangeFilterExpression(Expression leftExpr, Object minValue, Object maxValue) {
+    Expression rangeFilterExpr = RequestUtils.getFunctionExpression(FilterKind.BETWEEN.name());
+    rangeFilterExpr.getFunctionCall().setOperands(Arrays.asList(leftExpr, RequestUtils.getLiteralExpression(minValue),
+        RequestUtils.getLiteralExpression(maxValue)));
+    return rangeFilterExpr;
+  }
+
+  private static Expression getIdSetFilterExpression(Expression leftExpr, List<Object> values,
+      FieldSpec.DataType storedType) {
+    // Without size threshold the IdSet never converts to the (inexact) bloom filter
+    IdSet idSet = IdSets.create(storedType, Integer.MAX_VALUE, IdSets.DEFAULT_EXPECTED_INSERTIONS, IdSets.DEFAULT_FPP);
+    for (Object value : values) {
+      if (storedType == FieldSpec.DataType.INT) {
+        idSet.add((int) value);
+      } else {
+        idSet.add((long) value);
+      }
+    }
+    String serializedIdSet;
+    try {
+      serializedIdSet = idSet.toBase64String();
+    } catch (IOException e) {
+      throw new RuntimeException("Caught exception while serializing the dynamic filter IdSet", e);
     }
-    return expressions;
+    Expression idSetExpr = RequestUtils.getFunctionExpression(TransformFunctionType.INIDSET.getName());
+    idSetExpr.getFunctionCall()
+        .setOperands(Arrays.asList(leftExpr, RequestUtils.getLiteralExpression(serializedIdSet)));
+    Expression idSetFilterExpr = RequestUtils.getFunctionExpression(FilterKind.EQUALS.name());
+    idSetFilterExpr.getFunctionCall().setOperands(Arrays.asList(idSetExpr, RequestUtils.getLiteralExpression(1)));
+    return idSetFilterExpr;
   }
 
   /**
@@ -21,11 +21,13 @@ package org.apache.pinot.query.runtime.plan.server;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import org.apache.pinot.common.datablock.DataBlock;
 import org.apache.pinot.common.request.DataSource;
 import org.apache.pinot.common.request.PinotQuery;
 import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.config.QueryOptionsUtils;
 import org.apache.pinot.common.utils.request.RequestUtils;
 import org.apache.pinot.query.parser.CalciteRexExpressionParser;
 import org.apache.pinot.query.planner.plannode.AggregateNode;
@@ -122,11 +124,9 @@ public class ServerPlanRequestVisitor implements PlanNodeVisitor<Void, ServerPla
       }
     }
 
-    if (resultDataContainer.size() > 0) {
-      // rewrite SEMI-JOIN as filter clause.
-      ServerPlanRequestUtils.attachDynamicFilter(context.getPinotQuery(), node.getJoinKeys(), resultDataContainer,
-          dataSchema);
-    } else {
+    // rewrite SEMI-JOIN as filter clause, the runtime filter is chosen based on the build-side cardinality.
+    if (resultDataContainer.isEmpty() || !ServerPlanRequestUtils.attachDynamicFilter(context.getPinotQuery(),
+        node.getJoinKeys(), resultDataContainer, dataSchema, getRuntimeFilterMaxInListSize(context))) {
       // do not pull any data out, this is constant false filter.
       context.getPinotQuery().setLimit(0);
     }
@@ -187,6 +187,13 @@ public class ServerPlanRequestVisitor implements PlanNodeVisitor<Void, ServerPla
     return null;
   }
 
+  private static int getRuntimeFilterMaxInListSize(ServerPlanRequestContext context) {
+    Map<String, String> opChainMetadata = context.getPlanContext().getOpChainMetadata();
+    Integer maxInListSize =
+        opChainMetadata != null ? QueryOptionsUtils.getRuntimeFilterMaxInListSize(opChainMetadata) : null;
+    return maxInListSize != null ? maxInListSize : ServerPlanRequestUtils.DEFAULT_RUNTIME_FILTER_MAX_IN_LIST_SIZE;
+  }
+
   private void visitChildren(PlanNode node, ServerPlanRequestContext context) {
     for (PlanNode child : node.getInputs()) {
       child.visit(this, context);
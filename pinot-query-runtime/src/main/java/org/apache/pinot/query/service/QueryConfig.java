@@ -31,6 +31,13 @@ public class QueryConfig {
   public static final String KEY_OF_MAILBOX_TIMEOUT_MS = "pinot.query.runner.mailbox.timeout.ms";
   public static final long DEFAULT_MAILBOX_TIMEOUT_MS = 10_000L;
 
+  /**
+   * Maximum bytes of serialized blocks sent to a remote mailbox but not yet consumed by the receiver (credit-based flow
+   * control). The sender waits for the receiver to consume the pending blocks before sending more.
+   */
+  public static final String KEY_OF_MAILBOX_MAX_PENDING_BYTES = "pinot.query.runner.mailbox.max.pending.bytes";
+  public static final long DEFAULT_MAILBOX_MAX_PENDING_BYTES = 16 * 1024 * 1024;
+
   /**
    * Configuration for server port, port that opens and accepts
    * {@link org.apache.pinot.query.runtime.plan.DistributedStagePlan} and start executing query stages.
@@ -47,6 +54,27 @@ public class QueryConfig {
   public static final String KEY_OF_QUERY_RUNNER_PORT = "pinot.query.runner.port";
   public static final int DEFAULT_QUERY_RUNNER_PORT = 0;
 
+  /**
+   * Default threshold (estimated size in bytes of the build side) to spill the hash join to local disk, which can be
+   * overridden with the query option. Non-positive value disables spilling.
+   */
+  public static final String KEY_OF_JOIN_SPILL_THRESHOLD_BYTES = "pinot.query.runner.join.spill.threshold.bytes";
+  public static final long DEFAULT_JOIN_SPILL_THRESHOLD_BYTES = -1L;
+
+  /**
+   * Default threshold (estimated size in bytes of the buffered rows) to spill the sort without limit to local disk,
+   * which can be overridden with the query option. Non-positive value disables spilling.
+   */
+  public static final String KEY_OF_SORT_SPILL_THRESHOLD_BYTES = "pinot.query.runner.sort.spill.threshold.bytes";
+  public static final long DEFAULT_SORT_SPILL_THRESHOLD_BYTES = -1L;
+
+  /**
+   * Local directory for the files spilled by the hash join and sort operators. Defaults to the
+   * {@value #DEFAULT_SPILL_DIR_NAME} directory under the server data directory.
+   */
+  public static final String KEY_OF_SPILL_DIR = "pinot.query.runner.spill.dir";
+  public static final String DEFAULT_SPILL_DIR_NAME = "multistage_spill";
+
   /**
    * Configuration keys for {@link org.apache.pinot.common.proto.Worker.QueryRequest} extra metadata.
    */
@@ -72,6 +100,31 @@ public class QueryConfig {
   public static final String KEY_OF_SCHEDULER_RELEASE_TIMEOUT_MS = "pinot.query.scheduler.release.timeout.ms";
   public static final long DEFAULT_SCHEDULER_RELEASE_TIMEOUT_MS = 10_000;
 
+  /**
+   * The maximum time that an operator chain keeps running before it is preempted and put back to the ready queue, so
+   * that the operator chains of other queries get a chance to run. Only applies when
+   * {@link #KEY_OF_SCHEDULER_MAX_RUNNING_OPCHAINS} is set, as otherwise every ready operator chain gets a worker right
+   * away. Non-positive value disables preemption.
+   */
+  public static final String KEY_OF_SCHEDULER_TIME_SLICE_MS = "pinot.query.scheduler.time.slice.ms";
+  public static final long DEFAULT_SCHEDULER_TIME_SLICE_MS = 100;
+
+  /**
+   * The maximum number of operator chains running concurrently. When the limit is reached, the ready operator chains
+   * are picked with weighted fair queuing across queries (see the schedulerPriority query option). Note that an
+   * operator chain blocked on sending data still holds its slot, so the limit should not be set too low. The default
+   * value, -1, indicates no limit, in which case neither weighted fair queuing nor preemption takes effect.
+   */
+  public static final String KEY_OF_SCHEDULER_MAX_RUNNING_OPCHAINS = "pinot.query.scheduler.max.running.opchains";
+  public static final int DEFAULT_SCHEDULER_MAX_RUNNING_OPCHAINS = -1;
+
+  /**
+   * The maximum scheduling priority of a query. The schedulerPriority query option is capped by this value so that a
+   * query cannot take over the operator chain scheduler by setting a huge priority.
+   */
+  public static final String KEY_OF_SCHEDULER_MAX_PRIORITY = "pinot.query.scheduler.max.priority";
+  public static final int DEFAULT_SCHEDULER_MAX_PRIORITY = 10;
+
   private QueryConfig() {
     // do not instantiate.
   }
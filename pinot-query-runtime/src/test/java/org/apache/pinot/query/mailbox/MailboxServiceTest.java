@@ -19,14 +19,21 @@
 package org.apache.pinot.query.mailbox;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
+import org.apache.pinot.common.proto.Mailbox.MailboxStatus;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.query.mailbox.channel.ChannelUtils;
+import org.apache.pinot.query.mailbox.channel.MailboxStatusObserver;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 import org.apache.pinot.query.runtime.blocks.TransferableBlockUtils;
 import org.apache.pinot.query.runtime.operator.OpChainId;
@@ -532,37 +539,142 @@ public class MailboxServiceTest {
   public void testRemoteBufferFull()
       throws Exception {
     AtomicInteger numCallbacks = new AtomicInteger();
-    CountDownLatch receiveMailLatch = new CountDownLatch(ReceivingMailbox.DEFAULT_MAX_PENDING_BLOCKS + 1);
+    Semaphore receivedMails = new Semaphore(0);
     _receiveMailCallback1.set(mailboxId -> {
       numCallbacks.getAndIncrement();
-      receiveMailLatch.countDown();
+      receivedMails.release();
     });
     String mailboxId = MailboxIdUtils.toMailboxId(_requestId++, SENDER_STAGE_ID, 0, RECEIVER_STAGE_ID, 0);
-    SendingMailbox sendingMailbox =
-        _mailboxService2.getSendingMailbox("localhost", _mailboxService1.getPort(), mailboxId,
-            System.currentTimeMillis() + 1000);
 
-    // Sends are non-blocking as long as channel capacity is not breached
-    for (int i = 0; i < ReceivingMailbox.DEFAULT_MAX_PENDING_BLOCKS; i++) {
-      sendingMailbox.send(OperatorTestUtil.block(DATA_SCHEMA, new Object[]{i}));
+    // Use a sender with max pending bytes of 1 so that only one block can be pending on the receiver side
+    PinotConfiguration config =
+        new PinotConfiguration(Collections.singletonMap(QueryConfig.KEY_OF_MAILBOX_MAX_PENDING_BYTES, 1));
+    MailboxService mailboxService3 = new MailboxService("localhost", QueryTestUtils.getAvailablePort(), config,
+        opChainId -> {
+        });
+    mailboxService3.start();
+    try {
+      SendingMailbox sendingMailbox =
+          mailboxService3.getSendingMailbox("localhost", _mailboxService1.getPort(), mailboxId,
+              System.currentTimeMillis() + 3000);
+      ReceivingMailbox receivingMailbox = _mailboxService1.getReceivingMailbox(mailboxId);
+
+      // Send is non-blocking when there is no pending block
+      sendingMailbox.send(OperatorTestUtil.block(DATA_SCHEMA, new Object[]{0}));
+      receivedMails.acquire();
+      assertEquals(receivingMailbox.getNumPendingBlocks(), 1);
+
+      // Credits are enforced after the receiver advertises the credit-based flow control on the first response
+      waitForCreditEnabled((GrpcSendingMailbox) sendingMailbox);
+
+      // Next send will be blocked until the pending block is consumed on the receiver side
+      CountDownLatch sendLatch = new CountDownLatch(1);
+      Thread sendThread = new Thread(() -> {
+        try {
+          sendingMailbox.send(OperatorTestUtil.block(DATA_SCHEMA, new Object[]{1}));
+          sendLatch.countDown();
+        } catch (Exception e) {
+          // Latch won't be counted down
+        }
+      });
+      sendThread.start();
+      assertFalse(sendLatch.await(100, TimeUnit.MILLISECONDS));
+      assertEquals(receivingMailbox.getNumPendingBlocks(), 1);
+      TransferableBlock block = receivingMailbox.poll();
+      assertNotNull(block);
+      assertEquals(block.getContainer().get(0), new Object[]{0});
+      assertTrue(sendLatch.await(1000, TimeUnit.MILLISECONDS));
+      sendThread.join();
+      receivedMails.acquire();
+      assertEquals(numCallbacks.get(), 2);
+      assertEquals(receivingMailbox.getNumPendingBlocks(), 1);
+
+      // Next send will be blocked and cause exception after timeout
+      try {
+        sendingMailbox.send(TransferableBlockUtils.getEndOfStreamTransferableBlock());
+        fail("Expect exception when sending data when the receiver does not consume the pending block");
+      } catch (Exception e) {
+        // Expected
+      }
+      sendingMailbox.cancel(new Exception("TEST ERROR"));
+      receivedMails.acquire();
+      assertEquals(numCallbacks.get(), 3);
+
+      // Data blocks will be cleaned up
+      assertEquals(receivingMailbox.getNumPendingBlocks(), 0);
+      assertEquals(receivingMailbox.getNumPendingBytes(), 0);
+      block = receivingMailbox.poll();
+      assertNotNull(block);
+      assertTrue(block.isErrorBlock());
+
+      // Cancel is idempotent for both sending and receiving mailbox, so safe to call multiple times
+      sendingMailbox.cancel(new Exception("TEST ERROR"));
+      receivingMailbox.cancel();
+      assertEquals(numCallbacks.get(), 3);
+      assertEquals(receivingMailbox.getNumPendingBlocks(), 0);
+    } finally {
+      mailboxService3.shutdown();
     }
+  }
 
-    // Next send will be blocked on the receiver side and cause exception after timeout
-    sendingMailbox.send(TransferableBlockUtils.getEndOfStreamTransferableBlock());
-    receiveMailLatch.await();
-    assertEquals(numCallbacks.get(), ReceivingMailbox.DEFAULT_MAX_PENDING_BLOCKS + 1);
+  @Test
+  public void testStatusObserverWithoutCredit()
+      throws Exception {
+    MailboxStatusObserver statusObserver = new MailboxStatusObserver(1);
+
+    // Receiver without credit-based flow control only responds with the buffer size, and should not block the sender
+    statusObserver.onNext(MailboxStatus.newBuilder().setMailboxId("testMailbox")
+        .putMetadata(ChannelUtils.MAILBOX_METADATA_BUFFER_SIZE_KEY, "1").build());
+    statusObserver.acquireCredits(10, System.currentTimeMillis() + 100);
+    statusObserver.acquireCredits(10, System.currentTimeMillis() + 100);
+    assertFalse(statusObserver.isCreditEnabled());
+    assertEquals(statusObserver.getNumPendingBytes(), 20);
+
+    // Credits are enforced once the receiver advertises the credit-based flow control
+    statusObserver.onNext(MailboxStatus.newBuilder().setMailboxId("testMailbox")
+        .putMetadata(ChannelUtils.MAILBOX_METADATA_BUFFER_SIZE_KEY, "2")
+        .putMetadata(ChannelUtils.MAILBOX_METADATA_CREDIT_BYTES_KEY, "0").build());
+    assertTrue(statusObserver.isCreditEnabled());
+    try {
+      statusObserver.acquireCredits(10, System.currentTimeMillis() + 100);
+      fail("Expect timeout when there is no credit");
+    } catch (TimeoutException e) {
+      // Expected
+    }
+    statusObserver.onNext(MailboxStatus.newBuilder().setMailboxId("testMailbox")
+        .putMetadata(ChannelUtils.MAILBOX_METADATA_CREDIT_BYTES_KEY, "20").build());
+    statusObserver.acquireCredits(10, System.currentTimeMillis() + 100);
+    assertEquals(statusObserver.getNumPendingBytes(), 10);
+  }
 
-    // Data blocks will be cleaned up
-    ReceivingMailbox receivingMailbox = _mailboxService1.getReceivingMailbox(mailboxId);
+  @Test
+  public void testReceivingMailboxBounded() {
+    // Serialized blocks from a remote sender without credit-based flow control are bounded by the mailbox capacity
+    AtomicInteger numCallbacks = new AtomicInteger();
+    String mailboxId = MailboxIdUtils.toMailboxId(_requestId++, SENDER_STAGE_ID, 0, RECEIVER_STAGE_ID, 0);
+    ReceivingMailbox receivingMailbox = new ReceivingMailbox(mailboxId, opChainId -> numCallbacks.getAndIncrement());
+    for (int i = 0; i < ReceivingMailbox.DEFAULT_MAX_PENDING_SERIALIZED_BLOCKS; i++) {
+      assertTrue(receivingMailbox.offerSerialized(ByteBuffer.allocate(10), 1000));
+    }
+    assertEquals(receivingMailbox.getNumPendingBlocks(), ReceivingMailbox.DEFAULT_MAX_PENDING_SERIALIZED_BLOCKS);
+    assertEquals(receivingMailbox.getNumPendingBytes(), 10L * ReceivingMailbox.DEFAULT_MAX_PENDING_SERIALIZED_BLOCKS);
+
+    // Offer times out when the mailbox is full, and the pending blocks are cleaned up
+    assertFalse(receivingMailbox.offerSerialized(ByteBuffer.allocate(10), 10));
+    assertEquals(numCallbacks.get(), ReceivingMailbox.DEFAULT_MAX_PENDING_SERIALIZED_BLOCKS + 1);
     assertEquals(receivingMailbox.getNumPendingBlocks(), 0);
+    assertEquals(receivingMailbox.getNumPendingBytes(), 0);
     TransferableBlock block = receivingMailbox.poll();
     assertNotNull(block);
     assertTrue(block.isErrorBlock());
+  }
 
-    // Cancel is idempotent for both sending and receiving mailbox, so safe to call multiple times
-    sendingMailbox.cancel(new Exception("TEST ERROR"));
-    receivingMailbox.cancel();
-    assertEquals(numCallbacks.get(), ReceivingMailbox.DEFAULT_MAX_PENDING_BLOCKS + 1);
-    assertEquals(receivingMailbox.getNumPendingBlocks(), 0);
+  private static void waitForCreditEnabled(GrpcSendingMailbox sendingMailbox)
+      throws InterruptedException {
+    long deadlineMs = System.currentTimeMillis() + 1000;
+    while (!sendingMailbox.isCreditEnabled()) {
+      assertTrue(System.currentTimeMillis() < deadlineMs, "Credit-based flow control is not advertised");
+      Thread.sleep(10);
+    }
   }
 }
@@ -25,6 +25,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import org.apache.pinot.query.routing.VirtualServerAddress;
+import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 import org.apache.pinot.query.runtime.blocks.TransferableBlockUtils;
 import org.apache.pinot.query.runtime.operator.MultiStageOperator;
 import org.apache.pinot.query.runtime.operator.OpChain;
@@ -120,6 +121,35 @@ public class OpChainSchedulerServiceTest {
     schedulerService.stopAsync().awaitTerminated();
   }
 
+  @Test
+  public void shouldPreemptOpChainAfterTimeSlice()
+      throws InterruptedException {
+    initExecutor(1);
+    OpChain opChain = getChain(_operatorA);
+    Mockito.when(_scheduler.next(Mockito.anyLong(), Mockito.any())).thenReturn(opChain).thenReturn(null);
+    OpChainSchedulerService schedulerService = new OpChainSchedulerService(_scheduler, _executor, 1, 1);
+
+    // The OpChain keeps returning data blocks, so it never yields on its own
+    TransferableBlock dataBlock = Mockito.mock(TransferableBlock.class);
+    Mockito.when(_operatorA.nextBlock()).thenAnswer(inv -> {
+      Thread.sleep(2);
+      return dataBlock;
+    });
+    CountDownLatch latch = new CountDownLatch(1);
+    Mockito.doAnswer(inv -> {
+      latch.countDown();
+      return null;
+    }).when(_scheduler).preempt(opChain);
+
+    schedulerService.startAsync().awaitRunning();
+    schedulerService.register(opChain);
+
+    Assert.assertTrue(latch.await(10, TimeUnit.SECONDS), "expected preempt to be called in less than 10 seconds");
+    Mockito.verify(_scheduler, Mockito.never()).yield(Mockito.any());
+    Mockito.verify(_scheduler, Mockito.never()).deregister(Mockito.any());
+    schedulerService.stopAsync().awaitTerminated();
+  }
+
   @Test
   public void shouldYieldOpChainOnNoOpBlock()
       throws InterruptedException {
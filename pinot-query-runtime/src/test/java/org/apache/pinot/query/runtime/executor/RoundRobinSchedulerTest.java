@@ -178,6 +178,30 @@ public class RoundRobinSchedulerTest {
         _scheduler.aliveChainsSize() + _scheduler.readySize() + _scheduler.seenMailSize() + _scheduler.availableSize());
   }
 
+  @Test
+  public void testSchedulerWhenPreempted()
+      throws InterruptedException {
+    OpChain chain = new OpChain(
+        getOpChainExecutionContext(DEFAULT_REQUEST_ID, DEFAULT_RECEIVER_STAGE_ID, DEFAULT_VIRTUAL_SERVER_ID), _operator,
+        ImmutableList.of(MAILBOX_1));
+    // Keep release timeout high to avoid unintended OpChain wake-ups.
+    _scheduler = new RoundRobinScheduler(10_000);
+    _scheduler.register(chain);
+
+    Assert.assertEquals(_scheduler.next(DEFAULT_POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS), chain);
+    // Data received while the OpChain is running
+    _scheduler.onDataAvailable(MailboxIdUtils.toOpChainId(MAILBOX_1));
+    // When the OpChain used up its time slice, it is ready again without waiting for data
+    _scheduler.preempt(chain);
+    Assert.assertEquals(_scheduler.seenMailSize(), 0);
+    Assert.assertEquals(_scheduler.next(DEFAULT_POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS), chain);
+    Assert.assertNull(_scheduler.next(DEFAULT_POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+    _scheduler.deregister(chain);
+
+    Assert.assertEquals(0,
+        _scheduler.aliveChainsSize() + _scheduler.readySize() + _scheduler.seenMailSize() + _scheduler.availableSize());
+  }
+
   private OpChainExecutionContext getOpChainExecutionContext(long requestId, int stageId, int virtualServerId) {
     return new OpChainExecutionContext(null, requestId, stageId,
         new VirtualServerAddress("localhost", 1234, virtualServerId), 0, null, null, true);
@@ -0,0 +1,187 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.executor;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.pinot.query.routing.VirtualServerAddress;
+import org.apache.pinot.query.runtime.operator.MultiStageOperator;
+import org.apache.pinot.query.runtime.operator.OpChain;
+import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
+import org.apache.pinot.spi.utils.CommonConstants.Broker.Request.QueryOptionKey;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+
+public class WeightedFairQueueTest {
+  private static final long RUN_TIME_NS = 1_000_000L;
+
+  @Mock
+  private MultiStageOperator _operator;
+
+  private AutoCloseable _mocks;
+
+  @BeforeClass
+  public void beforeClass() {
+    _mocks = MockitoAnnotations.openMocks(this);
+  }
+
+  @AfterClass
+  public void afterClass()
+      throws Exception {
+    _mocks.close();
+  }
+
+  @Test
+  public void shouldShareRunTimeByPriority()
+      throws InterruptedException {
+    AtomicLong ticker = new AtomicLong();
+    WeightedFairQueue queue = new WeightedFairQueue(ticker::get);
+    OpChain lowPriorityChain = getOpChain(1, 1, ImmutableMap.of());
+    OpChain highPriorityChain = getOpChain(2, 1, ImmutableMap.of(QueryOptionKey.SCHEDULER_PRIORITY, "2"));
+    queue.register(lowPriorityChain);
+    queue.register(highPriorityChain);
+    queue.offer(lowPriorityChain);
+    queue.offer(highPriorityChain);
+
+    // The high priority query should get twice the run time of the low priority query
+    Assert.assertEquals(runAndOffer(queue, ticker, 30), 20);
+
+    queue.deregister(lowPriorityChain);
+    queue.deregister(highPriorityChain);
+    Assert.assertEquals(queue.size(), 2);
+  }
+
+  @Test
+  public void shouldCapPriority()
+      throws InterruptedException {
+    AtomicLong ticker = new AtomicLong();
+    WeightedFairQueue queue = new WeightedFairQueue(ticker::get, 2);
+    OpChain lowPriorityChain = getOpChain(1, 1, ImmutableMap.of());
+    OpChain hugePriorityChain = getOpChain(2, 1, ImmutableMap.of(QueryOptionKey.SCHEDULER_PRIORITY, "1000000"));
+    queue.register(lowPriorityChain);
+    queue.register(hugePriorityChain);
+    queue.offer(lowPriorityChain);
+    queue.offer(hugePriorityChain);
+
+    // The huge priority is capped to the max priority, so the query only gets twice the run time
+    Assert.assertEquals(runAndOffer(queue, ticker, 30), 20);
+
+    queue.deregister(lowPriorityChain);
+    queue.deregister(hugePriorityChain);
+  }
+
+  @Test
+  public void shouldPickQueryWithLeastVirtualTime()
+      throws InterruptedException {
+    AtomicLong ticker = new AtomicLong();
+    WeightedFairQueue queue = new WeightedFairQueue(ticker::get);
+    int numQueries = 100;
+    OpChain[] opChains = new OpChain[numQueries];
+    for (int i = 0; i < numQueries; i++) {
+      opChains[i] = getOpChain(i, 1, ImmutableMap.of());
+      queue.register(opChains[i]);
+      queue.offer(opChains[i]);
+    }
+
+    // Each query should run once per round, in the order of the request id for the same virtual time
+    for (int round = 0; round < 3; round++) {
+      for (int i = 0; i < numQueries; i++) {
+        OpChain opChain = queue.poll(0, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(opChain, opChains[i]);
+        ticker.addAndGet(RUN_TIME_NS);
+        queue.charge(opChain);
+        queue.offer(opChain);
+      }
+    }
+    Assert.assertEquals(queue.size(), numQueries);
+
+    for (OpChain opChain : opChains) {
+      queue.deregister(opChain);
+    }
+  }
+
+  @Test
+  public void shouldNotStarveNewQueryAndRecordWaitTime()
+      throws InterruptedException {
+    AtomicLong ticker = new AtomicLong();
+    WeightedFairQueue queue = new WeightedFairQueue(ticker::get);
+    OpChain heavyChain1 = getOpChain(1, 1, ImmutableMap.of());
+    OpChain heavyChain2 = getOpChain(1, 2, ImmutableMap.of());
+    queue.register(heavyChain1);
+    queue.register(heavyChain2);
+    queue.offer(heavyChain1);
+    queue.offer(heavyChain2);
+    runAndOffer(queue, ticker, 10);
+
+    // A query arriving after the heavy query has run for a while is picked first, even though it was queued last
+    OpChain lightChain = getOpChain(2, 1, ImmutableMap.of());
+    queue.register(lightChain);
+    queue.offer(lightChain);
+    ticker.addAndGet(RUN_TIME_NS);
+    Assert.assertEquals(queue.poll(0, TimeUnit.MILLISECONDS), lightChain);
+    Assert.assertEquals(lightChain.getStats().getSchedulerWaitTimeMs(), 1);
+    ticker.addAndGet(RUN_TIME_NS);
+    queue.charge(lightChain);
+
+    // An idle query doesn't accumulate credits while waiting, so it alternates with the heavy query once it is ready
+    // again instead of taking over the queue
+    runAndOffer(queue, ticker, 10);
+    queue.offer(lightChain);
+    Assert.assertEquals(runAndOffer(queue, ticker, 5), 3);
+
+    queue.deregister(lightChain);
+    queue.deregister(heavyChain1);
+    queue.deregister(heavyChain2);
+    Assert.assertEquals(queue.size(), 3);
+  }
+
+  /**
+   * Runs the picked OpChains for a fixed time and puts them back, returns the number of runs of request 2.
+   */
+  private static int runAndOffer(WeightedFairQueue queue, AtomicLong ticker, int numRuns)
+      throws InterruptedException {
+    int numRequest2Runs = 0;
+    for (int i = 0; i < numRuns; i++) {
+      OpChain opChain = queue.poll(0, TimeUnit.MILLISECONDS);
+      Assert.assertNotNull(opChain);
+      if (opChain.getId().getRequestId() == 2) {
+        numRequest2Runs++;
+      }
+      ticker.addAndGet(RUN_TIME_NS);
+      queue.charge(opChain);
+      queue.offer(opChain);
+    }
+    return numRequest2Runs;
+  }
+
+  private OpChain getOpChain(long requestId, int virtualServerId, Map<String, String> opChainMetadata) {
+    OpChainExecutionContext context =
+        new OpChainExecutionContext(null, requestId, 1, new VirtualServerAddress("localhost", 1234, virtualServerId), 0,
+            null, opChainMetadata, null, true);
+    return new OpChain(context, _operator, ImmutableList.of());
+  }
+}
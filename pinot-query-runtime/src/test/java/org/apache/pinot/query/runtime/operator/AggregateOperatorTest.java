@@ -19,9 +19,13 @@
 package org.apache.pinot.query.runtime.operator;
 
 import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import org.apache.calcite.sql.SqlKind;
+import org.apache.pinot.common.datatable.DataTable;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
 import org.apache.pinot.query.planner.logical.RexExpression;
@@ -29,8 +33,10 @@ import org.apache.pinot.query.planner.plannode.AggregateNode.AggType;
 import org.apache.pinot.query.routing.VirtualServerAddress;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 import org.apache.pinot.query.runtime.blocks.TransferableBlockUtils;
+import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
 import org.apache.pinot.spi.data.FieldSpec;
 import org.apache.pinot.spi.exception.BadQueryRequestException;
+import org.apache.pinot.spi.utils.CommonConstants;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
@@ -259,6 +265,159 @@ public class AggregateOperatorTest {
         "expected it to fail with class cast exception");
   }
 
+  @Test
+  public void shouldFlushPartialAggregationWhenGroupLimitReached() {
+    // Given:
+    List<RexExpression> calls = ImmutableList.of(getSum(new RexExpression.InputRef(1)));
+    List<RexExpression> group = ImmutableList.of(new RexExpression.InputRef(0));
+
+    DataSchema inSchema = new DataSchema(new String[]{"group", "arg"}, new ColumnDataType[]{INT, DOUBLE});
+    Mockito.when(_input.nextBlock())
+        .thenReturn(OperatorTestUtil.block(inSchema, new Object[]{1, 1.0}, new Object[]{1, 2.0}, new Object[]{1, 3.0}))
+        .thenReturn(OperatorTestUtil.block(inSchema, new Object[]{2, 1.0}, new Object[]{1, 1.0}))
+        .thenReturn(OperatorTestUtil.block(inSchema, new Object[]{3, 1.0}))
+        .thenReturn(TransferableBlockUtils.getEndOfStreamTransferableBlock());
+
+    DataSchema outSchema = new DataSchema(new String[]{"group", "sum"}, new ColumnDataType[]{INT, DOUBLE});
+    OpChainExecutionContext context = getPartialAggregationContext(2);
+    AggregateOperator operator =
+        new AggregateOperator(context, _input, outSchema, inSchema, calls, group, AggType.INTERMEDIATE, null, null);
+
+    // When:
+    TransferableBlock block1 = operator.nextBlock();
+    TransferableBlock block2 = operator.nextBlock();
+    TransferableBlock block3 = operator.nextBlock();
+
+    // Then:
+    List<Object[]> flushedRows = sortByGroup(block1.getContainer());
+    Assert.assertEquals(flushedRows.size(), 2);
+    Assert.assertEquals(flushedRows.get(0), new Object[]{1, 7.0});
+    Assert.assertEquals(flushedRows.get(1), new Object[]{2, 1.0});
+    Assert.assertEquals(block2.getContainer().size(), 1);
+    Assert.assertEquals(block2.getContainer().get(0), new Object[]{3, 1.0});
+    Assert.assertTrue(block3.isEndOfStreamBlock());
+    Map<String, String> executionStats =
+        context.getStats().getOperatorStats(context, operator.getOperatorId()).getExecutionStats();
+    Assert.assertEquals(executionStats.get(DataTable.MetadataKey.NUM_PARTIAL_AGGREGATION_FLUSHES.getName()), "1");
+    Assert.assertEquals(executionStats.get(DataTable.MetadataKey.PARTIAL_AGGREGATION_PASS_THROUGH.getName()), "false");
+  }
+
+  @Test
+  public void shouldSwitchToPassThroughWhenAggregationDoesNotReduceRows() {
+    // Given:
+    List<RexExpression> calls = ImmutableList.of(getSum(new RexExpression.InputRef(1)));
+    List<RexExpression> group = ImmutableList.of(new RexExpression.InputRef(0));
+
+    DataSchema inSchema = new DataSchema(new String[]{"group", "arg"}, new ColumnDataType[]{INT, DOUBLE});
+    Mockito.when(_input.nextBlock())
+        .thenReturn(OperatorTestUtil.block(inSchema, new Object[]{1, 1.0}, new Object[]{2, 3.0}))
+        .thenReturn(OperatorTestUtil.block(inSchema, new Object[]{3, 1.0}, new Object[]{3, 2.0}, new Object[]{1, 1.0}))
+        .thenReturn(OperatorTestUtil.block(inSchema, new Object[]{1, 2.0}, new Object[]{3, 5.0}))
+        .thenReturn(TransferableBlockUtils.getEndOfStreamTransferableBlock());
+
+    DataSchema outSchema = new DataSchema(new String[]{"group", "sum"}, new ColumnDataType[]{INT, DOUBLE});
+    OpChainExecutionContext context = getPartialAggregationContext(2);
+    AggregateOperator operator =
+        new AggregateOperator(context, _input, outSchema, inSchema, calls, group, AggType.LEAF, null, null);
+
+    // When:
+    TransferableBlock block1 = operator.nextBlock();
+    TransferableBlock block2 = operator.nextBlock();
+    TransferableBlock block3 = operator.nextBlock();
+    TransferableBlock block4 = operator.nextBlock();
+
+    // Then:
+    // Every input row is a new group in the first block, the following blocks are not grouped with each other
+    Assert.assertEquals(block1.getContainer().size(), 2);
+    List<Object[]> passThroughRows = sortByGroup(block2.getContainer());
+    Assert.assertEquals(passThroughRows.size(), 2);
+    Assert.assertEquals(passThroughRows.get(0), new Object[]{1, 1.0});
+    Assert.assertEquals(passThroughRows.get(1), new Object[]{3, 3.0});
+    // The reused result holders should not carry the results of the previous block
+    passThroughRows = sortByGroup(block3.getContainer());
+    Assert.assertEquals(passThroughRows.size(), 2);
+    Assert.assertEquals(passThroughRows.get(0), new Object[]{1, 2.0});
+    Assert.assertEquals(passThroughRows.get(1), new Object[]{3, 5.0});
+    Assert.assertTrue(block4.isEndOfStreamBlock());
+    Map<String, String> executionStats =
+        context.getStats().getOperatorStats(context, operator.getOperatorId()).getExecutionStats();
+    Assert.assertEquals(executionStats.get(DataTable.MetadataKey.NUM_PARTIAL_AGGREGATION_FLUSHES.getName()), "1");
+    Assert.assertEquals(executionStats.get(DataTable.MetadataKey.PARTIAL_AGGREGATION_PASS_THROUGH.getName()), "true");
+  }
+
+  @Test
+  public void shouldNotPartiallyAggregateByDefault() {
+    // Given:
+    List<RexExpression> calls = ImmutableList.of(getSum(new RexExpression.InputRef(1)));
+    List<RexExpression> group = ImmutableList.of(new RexExpression.InputRef(0));
+
+    DataSchema inSchema = new DataSchema(new String[]{"group", "arg"}, new ColumnDataType[]{INT, DOUBLE});
+    Mockito.when(_input.nextBlock())
+        .thenReturn(OperatorTestUtil.block(inSchema, new Object[]{1, 1.0}, new Object[]{2, 3.0}))
+        .thenReturn(OperatorTestUtil.block(inSchema, new Object[]{3, 1.0}, new Object[]{1, 1.0}))
+        .thenReturn(TransferableBlockUtils.getEndOfStreamTransferableBlock());
+
+    DataSchema outSchema = new DataSchema(new String[]{"group", "sum"}, new ColumnDataType[]{INT, DOUBLE});
+    OpChainExecutionContext context = OperatorTestUtil.getDefaultContext();
+    AggregateOperator operator =
+        new AggregateOperator(context, _input, outSchema, inSchema, calls, group, AggType.LEAF, null, null);
+
+    // When:
+    TransferableBlock block1 = operator.nextBlock();
+    TransferableBlock block2 = operator.nextBlock();
+
+    // Then:
+    List<Object[]> rows = sortByGroup(block1.getContainer());
+    Assert.assertEquals(rows.size(), 3);
+    Assert.assertEquals(rows.get(0), new Object[]{1, 2.0});
+    Assert.assertEquals(rows.get(1), new Object[]{2, 3.0});
+    Assert.assertEquals(rows.get(2), new Object[]{3, 1.0});
+    Assert.assertTrue(block2.isEndOfStreamBlock());
+  }
+
+  @Test
+  public void shouldRecordPartialAggregationStatsOnUpstreamError() {
+    // Given:
+    List<RexExpression> calls = ImmutableList.of(getSum(new RexExpression.InputRef(1)));
+    List<RexExpression> group = ImmutableList.of(new RexExpression.InputRef(0));
+
+    DataSchema inSchema = new DataSchema(new String[]{"group", "arg"}, new ColumnDataType[]{INT, DOUBLE});
+    Mockito.when(_input.nextBlock())
+        .thenReturn(OperatorTestUtil.block(inSchema, new Object[]{1, 1.0}, new Object[]{2, 3.0}))
+        .thenReturn(TransferableBlockUtils.getErrorTransferableBlock(new Exception("foo!")));
+
+    DataSchema outSchema = new DataSchema(new String[]{"group", "sum"}, new ColumnDataType[]{INT, DOUBLE});
+    OpChainExecutionContext context = getPartialAggregationContext(2);
+    AggregateOperator operator =
+        new AggregateOperator(context, _input, outSchema, inSchema, calls, group, AggType.LEAF, null, null);
+
+    // When:
+    TransferableBlock block1 = operator.nextBlock();
+    TransferableBlock block2 = operator.nextBlock();
+
+    // Then:
+    Assert.assertEquals(block1.getContainer().size(), 2);
+    Assert.assertTrue(block2.isErrorBlock());
+    Map<String, String> executionStats =
+        context.getStats().getOperatorStats(context, operator.getOperatorId()).getExecutionStats();
+    Assert.assertEquals(executionStats.get(DataTable.MetadataKey.NUM_PARTIAL_AGGREGATION_FLUSHES.getName()), "1");
+    Assert.assertEquals(executionStats.get(DataTable.MetadataKey.PARTIAL_AGGREGATION_PASS_THROUGH.getName()), "true");
+  }
+
+  private static OpChainExecutionContext getPartialAggregationContext(int maxNumGroups) {
+    Map<String, String> opChainMetadata =
+        Collections.singletonMap(CommonConstants.Broker.Request.QueryOptionKey.PARTIAL_AGGREGATION_MAX_NUM_GROUPS,
+            Integer.toString(maxNumGroups));
+    return new OpChainExecutionContext(null, 1, 2, new VirtualServerAddress("mock", 80, 0), Long.MAX_VALUE, null,
+        opChainMetadata, null, true);
+  }
+
+  private static List<Object[]> sortByGroup(List<Object[]> rows) {
+    List<Object[]> sortedRows = new ArrayList<>(rows);
+    sortedRows.sort(Comparator.comparing(row -> (Integer) row[0]));
+    return sortedRows;
+  }
+
   private static RexExpression.FunctionCall getSum(RexExpression arg) {
     return new RexExpression.FunctionCall(SqlKind.SUM, FieldSpec.DataType.INT, "SUM", ImmutableList.of(arg));
   }
@@ -19,11 +19,13 @@
 package org.apache.pinot.query.runtime.operator;
 
 import com.google.common.collect.ImmutableList;
+import java.util.Arrays;
 import java.util.List;
 import org.apache.calcite.sql.SqlKind;
 import org.apache.pinot.common.datablock.DataBlock;
 import org.apache.pinot.common.exception.QueryException;
 import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.core.common.datablock.DataBlockBuilder;
 import org.apache.pinot.query.planner.logical.RexExpression;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 import org.apache.pinot.query.runtime.blocks.TransferableBlockUtils;
@@ -288,6 +290,47 @@ public class FilterOperatorTest {
     Assert.assertEquals(result.get(0), expectedResult.get(0));
   }
 
+  @Test
+  public void shouldFilterSerializedBlockSameAsRows()
+      throws Exception {
+    DataSchema inputSchema = new DataSchema(new String[]{"int0", "long1", "string2"}, new DataSchema.ColumnDataType[]{
+        DataSchema.ColumnDataType.INT, DataSchema.ColumnDataType.LONG, DataSchema.ColumnDataType.STRING
+    });
+    List<Object[]> rows = Arrays.asList(new Object[]{1, 10L, "a"}, new Object[]{2, null, "b"},
+        new Object[]{3, 30L, null}, new Object[]{null, 40L, "d"}, new Object[]{4, 40L, "e"});
+    // (int0 >= 2 AND NOT(long1 < 35)) OR string2 = 'a'
+    RexExpression.FunctionCall greaterThanOrEqual =
+        new RexExpression.FunctionCall(SqlKind.GREATER_THAN_OR_EQUAL, FieldSpec.DataType.BOOLEAN, "greaterThanOrEqual",
+            ImmutableList.of(new RexExpression.InputRef(0), new RexExpression.Literal(FieldSpec.DataType.INT, 2)));
+    RexExpression.FunctionCall lessThan =
+        new RexExpression.FunctionCall(SqlKind.LESS_THAN, FieldSpec.DataType.BOOLEAN, "lessThan",
+            ImmutableList.of(new RexExpression.InputRef(1), new RexExpression.Literal(FieldSpec.DataType.LONG, 35L)));
+    RexExpression.FunctionCall not =
+        new RexExpression.FunctionCall(SqlKind.NOT, FieldSpec.DataType.BOOLEAN, "NOT", ImmutableList.of(lessThan));
+    RexExpression.FunctionCall and = new RexExpression.FunctionCall(SqlKind.AND, FieldSpec.DataType.BOOLEAN, "AND",
+        ImmutableList.of(greaterThanOrEqual, not));
+    RexExpression.FunctionCall equals =
+        new RexExpression.FunctionCall(SqlKind.EQUALS, FieldSpec.DataType.BOOLEAN, "equals",
+            ImmutableList.of(new RexExpression.InputRef(2), new RexExpression.Literal(FieldSpec.DataType.STRING, "a")));
+    RexExpression.FunctionCall or =
+        new RexExpression.FunctionCall(SqlKind.OR, FieldSpec.DataType.BOOLEAN, "OR", ImmutableList.of(and, equals));
+
+    // Block received from the mailbox is backed by the serialized data block
+    Mockito.when(_upstreamOperator.nextBlock())
+        .thenReturn(new TransferableBlock(DataBlockBuilder.buildFromRows(rows, inputSchema)))
+        .thenReturn(new TransferableBlock(rows, inputSchema, DataBlock.Type.ROW));
+    FilterOperator op = new FilterOperator(OperatorTestUtil.getDefaultContext(), _upstreamOperator, inputSchema, or);
+    for (int i = 0; i < 2; i++) {
+      TransferableBlock dataBlock = op.getNextBlock();
+      Assert.assertFalse(dataBlock.isErrorBlock());
+      List<Object[]> result = dataBlock.getContainer();
+      Assert.assertEquals(result.size(), 3);
+      Assert.assertEquals(result.get(0), new Object[]{1, 10L, "a"});
+      Assert.assertEquals(result.get(1), new Object[]{2, null, "b"});
+      Assert.assertEquals(result.get(2), new Object[]{4, 40L, "e"});
+    }
+  }
+
   @Test(expectedExceptions = NullPointerException.class, expectedExceptionsMessageRegExp = ".*Cannot find function "
       + "with Name: startsWithError.*")
   public void shouldThrowOnUnfoundFunction() {
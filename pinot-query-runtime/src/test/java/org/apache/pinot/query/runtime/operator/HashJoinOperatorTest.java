@@ -19,21 +19,31 @@
 package org.apache.pinot.query.runtime.operator;
 
 import com.google.common.collect.ImmutableList;
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import org.apache.calcite.rel.core.JoinRelType;
 import org.apache.calcite.sql.SqlKind;
+import org.apache.commons.io.FileUtils;
 import org.apache.pinot.common.datablock.MetadataBlock;
+import org.apache.pinot.common.datatable.DataTable;
 import org.apache.pinot.common.exception.QueryException;
 import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.core.data.table.Key;
 import org.apache.pinot.query.planner.logical.RexExpression;
 import org.apache.pinot.query.planner.partitioning.FieldSelectionKeySelector;
 import org.apache.pinot.query.planner.plannode.JoinNode;
 import org.apache.pinot.query.routing.VirtualServerAddress;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 import org.apache.pinot.query.runtime.blocks.TransferableBlockUtils;
+import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
+import org.apache.pinot.query.service.QueryConfig;
 import org.apache.pinot.spi.data.FieldSpec;
+import org.apache.pinot.spi.utils.CommonConstants;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
@@ -44,6 +54,9 @@ import org.testng.annotations.Test;
 
 
 public class HashJoinOperatorTest {
+  private static final List<JoinRelType> SUPPORTED_JOIN_TYPES = Arrays.asList(JoinRelType.INNER, JoinRelType.LEFT,
+      JoinRelType.RIGHT, JoinRelType.FULL, JoinRelType.SEMI, JoinRelType.ANTI);
+
   private AutoCloseable _mocks;
 
   @Mock
@@ -701,5 +714,162 @@ public class HashJoinOperatorTest {
     result = join.nextBlock(); // last one is EOS.
     Assert.assertTrue(result.isEndOfStreamBlock());
   }
+
+  @Test
+  public void shouldReturnSameRowsWhenSpillingToDisk() {
+    DataSchema leftSchema = new DataSchema(new String[]{"int_col", "string_col"}, new DataSchema.ColumnDataType[]{
+        DataSchema.ColumnDataType.INT, DataSchema.ColumnDataType.STRING
+    });
+    DataSchema rightSchema = new DataSchema(new String[]{"int_col", "string_col"}, new DataSchema.ColumnDataType[]{
+        DataSchema.ColumnDataType.INT, DataSchema.ColumnDataType.STRING
+    });
+    DataSchema resultSchema = new DataSchema(new String[]{"int_col1", "string_col1", "int_col2", "string_col2"},
+        new DataSchema.ColumnDataType[]{
+            DataSchema.ColumnDataType.INT, DataSchema.ColumnDataType.STRING, DataSchema.ColumnDataType.INT,
+            DataSchema.ColumnDataType.STRING
+        });
+    List<Object[]> leftRows = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      leftRows.add(new Object[]{i % 50, "l" + i});
+    }
+    List<Object[]> rightRows = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      rightRows.add(new Object[]{i % 40 + 20, "r" + i});
+    }
+    // Spill the right table after the first block, while each spill partition of the right table fits in the threshold
+    File spillDir = new File(FileUtils.getTempDirectory(), "HashJoinOperatorTest_spill");
+    FileUtils.deleteQuietly(spillDir);
+    Map<String, String> opChainMetadata = new HashMap<>();
+    opChainMetadata.put(CommonConstants.Broker.Request.QueryOptionKey.JOIN_SPILL_THRESHOLD_BYTES, "1500");
+    opChainMetadata.put(QueryConfig.KEY_OF_SPILL_DIR, spillDir.getPath());
+    OpChainExecutionContext spillContext =
+        new OpChainExecutionContext(null, 1, 2, new VirtualServerAddress("mock", 80, 0), Long.MAX_VALUE, null,
+            opChainMetadata, null, true);
+    for (JoinRelType joinType : SUPPORTED_JOIN_TYPES) {
+      DataSchema joinResultSchema =
+          joinType == JoinRelType.SEMI || joinType == JoinRelType.ANTI ? leftSchema : resultSchema;
+      JoinNode node = new JoinNode(1, joinResultSchema, leftSchema, rightSchema, joinType,
+          getJoinKeys(Arrays.asList(0), Arrays.asList(0)), new ArrayList<>());
+      mockBlocks(leftSchema, leftRows, rightSchema, rightRows);
+      List<String> expectedRows = getSortedRows(
+          new HashJoinOperator(OperatorTestUtil.getDefaultContext(), _leftOperator, _rightOperator, leftSchema, node));
+      mockBlocks(leftSchema, leftRows, rightSchema, rightRows);
+      HashJoinOperator spilledJoin =
+          new HashJoinOperator(spillContext, _leftOperator, _rightOperator, leftSchema, node);
+      List<String> spilledRows = getSortedRows(spilledJoin);
+      Assert.assertFalse(expectedRows.isEmpty());
+      Assert.assertEquals(spilledRows, expectedRows, "Mismatch for join type: " + joinType);
+      Map<String, String> executionStats =
+          spillContext.getStats().getOperatorStats(spillContext, spilledJoin.getOperatorId()).getExecutionStats();
+      Assert.assertEquals(executionStats.get(DataTable.MetadataKey.NUM_ROWS_SPILLED.getName()), "300");
+      spilledJoin.close();
+      // The spill files should be written under the configured spill directory, and deleted when the join is closed
+      Assert.assertTrue(spillDir.isDirectory());
+      Assert.assertEquals(spillDir.list().length, 0);
+    }
+    FileUtils.deleteQuietly(spillDir);
+  }
+
+  @Test
+  public void shouldFailWhenSpillPartitionExceedsThreshold() {
+    DataSchema schema = new DataSchema(new String[]{"int_col", "string_col"}, new DataSchema.ColumnDataType[]{
+        DataSchema.ColumnDataType.INT, DataSchema.ColumnDataType.STRING
+    });
+    DataSchema resultSchema = new DataSchema(new String[]{"int_col1", "string_col1", "int_col2", "string_col2"},
+        new DataSchema.ColumnDataType[]{
+            DataSchema.ColumnDataType.INT, DataSchema.ColumnDataType.STRING, DataSchema.ColumnDataType.INT,
+            DataSchema.ColumnDataType.STRING
+        });
+    // All the rows share the same join key, so they are spilled to the same partition
+    List<Object[]> leftRows = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      leftRows.add(new Object[]{1, "l" + i});
+    }
+    List<Object[]> rightRows = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      rightRows.add(new Object[]{1, "r" + i});
+    }
+    Map<String, String> opChainMetadata =
+        Collections.singletonMap(CommonConstants.Broker.Request.QueryOptionKey.JOIN_SPILL_THRESHOLD_BYTES, "1500");
+    OpChainExecutionContext spillContext =
+        new OpChainExecutionContext(null, 1, 2, new VirtualServerAddress("mock", 80, 0), Long.MAX_VALUE, null,
+            opChainMetadata, null, true);
+    JoinNode node = new JoinNode(1, resultSchema, schema, schema, JoinRelType.INNER,
+        getJoinKeys(Arrays.asList(0), Arrays.asList(0)), new ArrayList<>());
+    mockBlocks(schema, leftRows, schema, rightRows);
+    HashJoinOperator spilledJoin = new HashJoinOperator(spillContext, _leftOperator, _rightOperator, schema, node);
+    TransferableBlock result = spilledJoin.nextBlock();
+    while (!result.isEndOfStreamBlock()) {
+      result = spilledJoin.nextBlock();
+    }
+    Assert.assertTrue(result.isErrorBlock());
+    Assert.assertTrue(result.getDataBlock().getExceptions().get(QueryException.UNKNOWN_ERROR_CODE)
+        .contains("exceeds the spill threshold: 1500 bytes"));
+    spilledJoin.close();
+  }
+
+  @Test
+  public void shouldSpreadPrePartitionedKeysAcrossSpillPartitions() {
+    // Simulate the rows received by one of the 16 workers after the upstream hash exchange on the join key, for both
+    // INT and STRING keys
+    int numPartitions = 16;
+    FieldSelectionKeySelector keySelector = new FieldSelectionKeySelector(0);
+    int numRows = 16000;
+    List<Object[]> intRows = new ArrayList<>(numRows);
+    for (int i = 0; intRows.size() < numRows; i++) {
+      Object[] row = new Object[]{i};
+      if (keySelector.computeHash(row) % numPartitions == 0) {
+        intRows.add(row);
+      }
+    }
+    List<Object[]> stringRows = new ArrayList<>(numRows);
+    for (int i = 0; stringRows.size() < numRows; i++) {
+      Object[] row = new Object[]{"key_" + i};
+      if (keySelector.computeHash(row) % numPartitions == 0) {
+        stringRows.add(row);
+      }
+    }
+
+    for (List<Object[]> rows : Arrays.asList(intRows, stringRows)) {
+      int[] numRowsPerPartition = new int[numPartitions];
+      for (Object[] row : rows) {
+        numRowsPerPartition[HashJoinOperator.getPartitionId(new Key(keySelector.getKey(row)))]++;
+      }
+      // Each spill partition should get roughly 1/16 of the rows (1000 rows)
+      for (int i = 0; i < numPartitions; i++) {
+        Assert.assertTrue(numRowsPerPartition[i] > 500 && numRowsPerPartition[i] < 1500,
+            "Unbalanced spill partitions: " + Arrays.toString(numRowsPerPartition));
+      }
+    }
+  }
+
+  private void mockBlocks(DataSchema leftSchema, List<Object[]> leftRows, DataSchema rightSchema,
+      List<Object[]> rightRows) {
+    Mockito.when(_leftOperator.nextBlock())
+        .thenReturn(OperatorTestUtil.block(leftSchema, leftRows.subList(0, 100).toArray(new Object[0][])))
+        .thenReturn(TransferableBlockUtils.getNoOpTransferableBlock())
+        .thenReturn(OperatorTestUtil.block(leftSchema, leftRows.subList(100, 200).toArray(new Object[0][])))
+        .thenReturn(TransferableBlockUtils.getEndOfStreamTransferableBlock());
+    Mockito.when(_rightOperator.nextBlock())
+        .thenReturn(OperatorTestUtil.block(rightSchema, rightRows.subList(0, 50).toArray(new Object[0][])))
+        .thenReturn(OperatorTestUtil.block(rightSchema, rightRows.subList(50, 100).toArray(new Object[0][])))
+        .thenReturn(TransferableBlockUtils.getEndOfStreamTransferableBlock());
+  }
+
+  private static List<String> getSortedRows(HashJoinOperator join) {
+    List<String> rows = new ArrayList<>();
+    TransferableBlock result = join.nextBlock();
+    while (!result.isEndOfStreamBlock()) {
+      if (!result.isNoOpBlock()) {
+        for (Object[] row : result.getContainer()) {
+          rows.add(Arrays.toString(row));
+        }
+      }
+      result = join.nextBlock();
+    }
+    Assert.assertTrue(result.isSuccessfulEndOfStreamBlock());
+    Collections.sort(rows);
+    return rows;
+  }
 }
 // TODO: Add more inequi join tests.
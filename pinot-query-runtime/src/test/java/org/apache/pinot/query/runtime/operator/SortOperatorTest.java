@@ -19,17 +19,24 @@
 package org.apache.pinot.query.runtime.operator;
 
 import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import org.apache.calcite.rel.RelFieldCollation.Direction;
 import org.apache.calcite.rel.RelFieldCollation.NullDirection;
 import org.apache.pinot.common.datablock.DataBlock;
+import org.apache.pinot.common.datatable.DataTable;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.query.planner.logical.RexExpression;
 import org.apache.pinot.query.routing.VirtualServerAddress;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 import org.apache.pinot.query.runtime.blocks.TransferableBlockUtils;
+import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
+import org.apache.pinot.spi.utils.CommonConstants;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
@@ -38,7 +45,9 @@ import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import static org.apache.pinot.common.utils.DataSchema.ColumnDataType.DOUBLE;
 import static org.apache.pinot.common.utils.DataSchema.ColumnDataType.INT;
+import static org.apache.pinot.common.utils.DataSchema.ColumnDataType.LONG;
 import static org.apache.pinot.common.utils.DataSchema.ColumnDataType.STRING;
 
 
@@ -640,6 +649,116 @@ public class SortOperatorTest {
     Assert.assertTrue(block2.isEndOfStreamBlock(), "expected EOS block to propagate");
   }
 
+  @Test
+  public void shouldCompareLongKeysWithoutPrecisionLoss() {
+    // Given:
+    List<RexExpression> collation = collation(0);
+    List<Direction> directions = ImmutableList.of(Direction.DESCENDING);
+    List<NullDirection> nullDirections = ImmutableList.of(NullDirection.LAST);
+    DataSchema schema = new DataSchema(new String[]{"sort"}, new DataSchema.ColumnDataType[]{LONG});
+    SortOperator op =
+        new SortOperator(OperatorTestUtil.getDefaultContext(), _input, collation, directions, nullDirections, 1, 0,
+            schema, false);
+
+    // Long values that cannot be distinguished as double
+    long value = 1L << 53;
+    Mockito.when(_input.nextBlock())
+        .thenReturn(block(schema, new Object[]{value + 1}, new Object[]{value}, new Object[]{value + 1 - 2}))
+        .thenReturn(TransferableBlockUtils.getEndOfStreamTransferableBlock());
+
+    // When:
+    TransferableBlock block = op.nextBlock(); // construct
+
+    // Then:
+    Assert.assertEquals(block.getNumRows(), 1);
+    Assert.assertEquals(block.getContainer().get(0), new Object[]{value + 1});
+  }
+
+  @Test
+  public void shouldKeepTopRowsWithNumericAndStringKeys() {
+    // Given:
+    List<RexExpression> collation = collation(0, 1, 2);
+    List<Direction> directions = ImmutableList.of(Direction.ASCENDING, Direction.DESCENDING, Direction.ASCENDING);
+    List<NullDirection> nullDirections = ImmutableList.of(NullDirection.LAST, NullDirection.FIRST, NullDirection.LAST);
+    DataSchema schema =
+        new DataSchema(new String[]{"sort1", "sort2", "sort3"}, new DataSchema.ColumnDataType[]{DOUBLE, LONG, STRING});
+    List<Object[]> rows = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      rows.add(new Object[]{i % 11 == 0 ? null : (i % 5) / 2.0, i % 13 == 0 ? null : (long) (i % 7), "s" + i});
+    }
+    SortOperator op =
+        new SortOperator(OperatorTestUtil.getDefaultContext(), _input, collation, directions, nullDirections, 100, 10,
+            schema, false);
+    Mockito.when(_input.nextBlock())
+        .thenReturn(block(schema, rows.subList(0, 500).toArray(new Object[0][])))
+        .thenReturn(block(schema, rows.subList(500, 1000).toArray(new Object[0][])))
+        .thenReturn(TransferableBlockUtils.getEndOfStreamTransferableBlock());
+
+    // When:
+    TransferableBlock block = op.nextBlock();
+
+    // Then:
+    List<Object[]> expectedRows = new ArrayList<>(rows);
+    expectedRows.sort(Comparator.comparing((Object[] row) -> (Double) row[0],
+            Comparator.nullsLast(Comparator.<Double>naturalOrder()))
+        .thenComparing(row -> (Long) row[1], Comparator.nullsFirst(Comparator.<Long>reverseOrder()))
+        .thenComparing(row -> (String) row[2]));
+    Assert.assertEquals(block.getNumRows(), 100);
+    for (int i = 0; i < 100; i++) {
+      Assert.assertEquals(block.getContainer().get(i), expectedRows.get(i + 10));
+    }
+  }
+
+  @Test
+  public void shouldReturnSameRowsWhenSpillingToDisk() {
+    // Given:
+    List<RexExpression> collation = collation(0, 1);
+    List<Direction> directions = ImmutableList.of(Direction.DESCENDING, Direction.ASCENDING);
+    List<NullDirection> nullDirections = ImmutableList.of(NullDirection.FIRST, NullDirection.LAST);
+    DataSchema schema = new DataSchema(new String[]{"sort1", "sort2"}, new DataSchema.ColumnDataType[]{INT, STRING});
+    List<Object[]> rows = new ArrayList<>();
+    for (int i = 0; i < 3000; i++) {
+      rows.add(new Object[]{i % 7 == 0 ? null : i % 100, "s" + i});
+    }
+    Map<String, String> opChainMetadata =
+        Collections.singletonMap(CommonConstants.Broker.Request.QueryOptionKey.SORT_SPILL_THRESHOLD_BYTES, "1");
+    OpChainExecutionContext spillContext =
+        new OpChainExecutionContext(null, 1, 2, new VirtualServerAddress("mock", 80, 0), Long.MAX_VALUE, null,
+            opChainMetadata, null, true);
+    SortOperator op =
+        new SortOperator(spillContext, _input, collation, directions, nullDirections, 0, 5, schema, false);
+
+    Mockito.when(_input.nextBlock())
+        .thenReturn(block(schema, rows.subList(0, 1000).toArray(new Object[0][])))
+        .thenReturn(block(schema, rows.subList(1000, 2000).toArray(new Object[0][])))
+        .thenReturn(TransferableBlockUtils.getNoOpTransferableBlock())
+        .thenReturn(block(schema, rows.subList(2000, 3000).toArray(new Object[0][])))
+        .thenReturn(TransferableBlockUtils.getEndOfStreamTransferableBlock());
+
+    // When:
+    List<Object[]> sortedRows = new ArrayList<>();
+    TransferableBlock block = op.nextBlock();
+    while (!block.isEndOfStreamBlock()) {
+      if (!block.isNoOpBlock()) {
+        sortedRows.addAll(block.getContainer());
+      }
+      block = op.nextBlock();
+    }
+
+    // Then:
+    List<Object[]> expectedRows = new ArrayList<>(rows);
+    expectedRows.sort(Comparator.comparing((Object[] row) -> (Integer) row[0],
+        Comparator.nullsFirst(Comparator.<Integer>reverseOrder())).thenComparing(row -> (String) row[1]));
+    Assert.assertTrue(block.isSuccessfulEndOfStreamBlock());
+    Assert.assertEquals(sortedRows.size(), 2995);
+    for (int i = 0; i < 2995; i++) {
+      Assert.assertEquals(sortedRows.get(i), expectedRows.get(i + 5));
+    }
+    Map<String, String> executionStats =
+        spillContext.getStats().getOperatorStats(spillContext, op.getOperatorId()).getExecutionStats();
+    Assert.assertEquals(executionStats.get(DataTable.MetadataKey.NUM_ROWS_SPILLED.getName()), "3000");
+  }
+
   private static List<RexExpression> collation(int... indexes) {
     return Arrays.stream(indexes).mapToObj(RexExpression.InputRef::new).collect(Collectors.toList());
   }
@@ -25,6 +25,7 @@ import java.util.List;
 import org.apache.pinot.common.datablock.DataBlock;
 import org.apache.pinot.common.exception.QueryException;
 import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.core.common.datablock.DataBlockBuilder;
 import org.apache.pinot.query.planner.logical.RexExpression;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 import org.apache.pinot.query.runtime.blocks.TransferableBlockUtils;
@@ -39,6 +40,7 @@ import org.testng.annotations.Test;
 
 import static org.apache.calcite.sql.SqlKind.MINUS;
 import static org.apache.calcite.sql.SqlKind.PLUS;
+import static org.apache.calcite.sql.SqlKind.TIMES;
 
 
 public class TransformOperatorTest {
@@ -138,6 +140,35 @@ public class TransformOperatorTest {
     Assert.assertEquals(resultRows.get(1), expectedRows.get(1));
   }
 
+  @Test
+  public void shouldHandleArithmeticTransformOnSerializedBlock()
+      throws Exception {
+    DataSchema upStreamSchema = new DataSchema(new String[]{"int0", "long1"}, new DataSchema.ColumnDataType[]{
+        DataSchema.ColumnDataType.INT, DataSchema.ColumnDataType.LONG
+    });
+    List<Object[]> rows = Arrays.asList(new Object[]{1, 10L}, new Object[]{2, null}, new Object[]{null, 30L});
+    // Block received from the mailbox is backed by the serialized data block
+    Mockito.when(_upstreamOp.nextBlock())
+        .thenReturn(new TransferableBlock(DataBlockBuilder.buildFromRows(rows, upStreamSchema)));
+    RexExpression.FunctionCall plus01 = new RexExpression.FunctionCall(PLUS, FieldSpec.DataType.DOUBLE, "plus",
+        ImmutableList.of(new RexExpression.InputRef(0), new RexExpression.InputRef(1)));
+    RexExpression.FunctionCall times1 = new RexExpression.FunctionCall(TIMES, FieldSpec.DataType.LONG, "times",
+        ImmutableList.of(new RexExpression.InputRef(1), new RexExpression.Literal(FieldSpec.DataType.LONG, 2L)));
+    DataSchema resultSchema = new DataSchema(new String[]{"plusR", "timesR", "int0"},
+        new DataSchema.ColumnDataType[]{
+            DataSchema.ColumnDataType.DOUBLE, DataSchema.ColumnDataType.LONG, DataSchema.ColumnDataType.INT
+        });
+    TransformOperator op = new TransformOperator(OperatorTestUtil.getDefaultContext(), _upstreamOp, resultSchema,
+        ImmutableList.of(plus01, times1, new RexExpression.InputRef(0)), upStreamSchema);
+    TransferableBlock result = op.nextBlock();
+    Assert.assertFalse(result.isErrorBlock());
+    List<Object[]> resultRows = result.getContainer();
+    Assert.assertEquals(resultRows.size(), 3);
+    Assert.assertEquals(resultRows.get(0), new Object[]{11.0, 20L, 1});
+    Assert.assertEquals(resultRows.get(1), new Object[]{null, null, 2});
+    Assert.assertEquals(resultRows.get(2), new Object[]{null, 60L, null});
+  }
+
   @Test
   public void shouldThrowOnTypeMismatchFuncTransform() {
     DataSchema upStreamSchema = new DataSchema(new String[]{"string1", "string2"}, new DataSchema.ColumnDataType[]{
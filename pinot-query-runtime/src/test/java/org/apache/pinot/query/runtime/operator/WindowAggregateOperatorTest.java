@@ -725,7 +725,134 @@ public class WindowAggregateOperatorTest {
         "expected it to fail with class cast exception");
   }
 
+  @Test
+  public void testStreamingWindowAggregateWithOrderByOnly() {
+    // Given:
+    List<RexExpression> calls = ImmutableList.of(getSum(new RexExpression.InputRef(1)),
+        new RexExpression.FunctionCall(SqlKind.MIN, FieldSpec.DataType.INT, "MIN",
+            ImmutableList.of(new RexExpression.InputRef(1))),
+        new RexExpression.FunctionCall(SqlKind.COUNT, FieldSpec.DataType.LONG, "COUNT", ImmutableList.of()),
+        new RexExpression.FunctionCall(SqlKind.RANK, FieldSpec.DataType.INT, "RANK", ImmutableList.of()),
+        new RexExpression.FunctionCall(SqlKind.DENSE_RANK, FieldSpec.DataType.INT, "DENSE_RANK", ImmutableList.of()));
+    List<RexExpression> order = ImmutableList.of(new RexExpression.InputRef(0));
+
+    DataSchema inSchema = new DataSchema(new String[]{"order", "arg"}, new DataSchema.ColumnDataType[]{INT, LONG});
+    // Input should be in sorted order on the order by key as SortExchange will handle pre-sorting the data
+    long largeValue = 1L << 60;
+    Mockito.when(_input.nextBlock())
+        .thenReturn(OperatorTestUtil.block(inSchema, new Object[]{1, largeValue}, new Object[]{2, 3L},
+            new Object[]{2, 1L}))
+        .thenReturn(TransferableBlockUtils.getNoOpTransferableBlock())
+        .thenReturn(OperatorTestUtil.block(inSchema, new Object[]{2, null}, new Object[]{5, 2L}))
+        .thenReturn(TransferableBlockUtils.getEndOfStreamTransferableBlock());
+
+    DataSchema outSchema = new DataSchema(new String[]{"order", "arg", "sum", "min", "count", "rank", "dense_rank"},
+        new DataSchema.ColumnDataType[]{INT, LONG, LONG, LONG, LONG, LONG, LONG});
+    WindowAggregateOperator operator =
+        new WindowAggregateOperator(OperatorTestUtil.getDefaultContext(), _input, Collections.emptyList(), order,
+            Collections.emptyList(), Collections.emptyList(), calls, Integer.MIN_VALUE, 0,
+            WindowNode.WindowFrameType.RANGE, Collections.emptyList(), outSchema, inSchema);
+
+    // When:
+    TransferableBlock block1 = operator.nextBlock();
+    TransferableBlock block2 = operator.nextBlock();
+    TransferableBlock block3 = operator.nextBlock();
+    TransferableBlock block4 = operator.nextBlock();
+    TransferableBlock block5 = operator.nextBlock();
+
+    // Then:
+    // The rows of the first ORDER BY key are emitted before the end of the input
+    assertRows(block1, new Object[]{1, largeValue, largeValue, largeValue, 1L, 1L, 1L});
+    Assert.assertTrue(block2.isNoOpBlock());
+    assertRows(block3,
+        new Object[]{2, 3L, largeValue + 4, 1L, 4L, 2L, 2L},
+        new Object[]{2, 1L, largeValue + 4, 1L, 4L, 2L, 2L},
+        new Object[]{2, null, largeValue + 4, 1L, 4L, 2L, 2L});
+    assertRows(block4, new Object[]{5, 2L, largeValue + 6, 1L, 5L, 5L, 3L});
+    Assert.assertTrue(block5.isEndOfStreamBlock());
+  }
+
+  @Test
+  public void testStreamingWindowAggregateSumOverflow() {
+    // Given:
+    List<RexExpression> calls = ImmutableList.of(getSum(new RexExpression.InputRef(1)));
+    List<RexExpression> order = ImmutableList.of(new RexExpression.InputRef(0));
+
+    DataSchema inSchema = new DataSchema(new String[]{"order", "arg"}, new DataSchema.ColumnDataType[]{INT, LONG});
+    Mockito.when(_input.nextBlock())
+        .thenReturn(OperatorTestUtil.block(inSchema, new Object[]{1, Long.MAX_VALUE}, new Object[]{2, Long.MAX_VALUE},
+            new Object[]{3, -Long.MAX_VALUE}))
+        .thenReturn(TransferableBlockUtils.getEndOfStreamTransferableBlock());
+
+    DataSchema outSchema =
+        new DataSchema(new String[]{"order", "arg", "sum"}, new DataSchema.ColumnDataType[]{INT, LONG, DOUBLE});
+    WindowAggregateOperator operator =
+        new WindowAggregateOperator(OperatorTestUtil.getDefaultContext(), _input, Collections.emptyList(), order,
+            Collections.emptyList(), Collections.emptyList(), calls, Integer.MIN_VALUE, 0,
+            WindowNode.WindowFrameType.RANGE, Collections.emptyList(), outSchema, inSchema);
+
+    // When:
+    List<Object[]> rows = new ArrayList<>();
+    TransferableBlock block = operator.nextBlock();
+    while (!block.isEndOfStreamBlock()) {
+      if (!block.isNoOpBlock()) {
+        rows.addAll(block.getContainer());
+      }
+      block = operator.nextBlock();
+    }
+
+    // Then:
+    // The SUM falls back to double once it overflows long instead of wrapping around
+    Assert.assertTrue(block.isSuccessfulEndOfStreamBlock());
+    Assert.assertEquals(rows.size(), 3);
+    Assert.assertEquals(rows.get(0), new Object[]{1, Long.MAX_VALUE, (double) Long.MAX_VALUE});
+    Assert.assertEquals(rows.get(1), new Object[]{2, Long.MAX_VALUE, 2.0 * Long.MAX_VALUE});
+    Assert.assertEquals(rows.get(2), new Object[]{3, -Long.MAX_VALUE, (double) Long.MAX_VALUE});
+  }
+
+  @Test
+  public void testStreamingWindowAggregateWithPartitionByPrefixOfOrderBy() {
+    // Given:
+    List<RexExpression> calls = ImmutableList.of(
+        new RexExpression.FunctionCall(SqlKind.ROW_NUMBER, FieldSpec.DataType.INT, "ROW_NUMBER", ImmutableList.of()));
+    List<RexExpression> group = ImmutableList.of(new RexExpression.InputRef(0));
+    List<RexExpression> order = ImmutableList.of(new RexExpression.InputRef(0), new RexExpression.InputRef(1));
+
+    DataSchema inSchema = new DataSchema(new String[]{"group", "arg"}, new DataSchema.ColumnDataType[]{INT, STRING});
+    // Input is sorted on the order by keys, thus the rows of each partition are contiguous
+    Mockito.when(_input.nextBlock())
+        .thenReturn(OperatorTestUtil.block(inSchema, new Object[]{1, "a"}, new Object[]{1, "a"},
+            new Object[]{2, "a"}))
+        .thenReturn(OperatorTestUtil.block(inSchema, new Object[]{2, "b"}, new Object[]{3, "c"}))
+        .thenReturn(TransferableBlockUtils.getEndOfStreamTransferableBlock());
+
+    DataSchema outSchema =
+        new DataSchema(new String[]{"group", "arg", "row_number"}, new DataSchema.ColumnDataType[]{INT, STRING, LONG});
+    WindowAggregateOperator operator =
+        new WindowAggregateOperator(OperatorTestUtil.getDefaultContext(), _input, group, order,
+            Collections.emptyList(), Collections.emptyList(), calls, Integer.MIN_VALUE, 0,
+            WindowNode.WindowFrameType.ROWS, Collections.emptyList(), outSchema, inSchema);
+
+    // When:
+    TransferableBlock block1 = operator.nextBlock();
+    TransferableBlock block2 = operator.nextBlock();
+    TransferableBlock block3 = operator.nextBlock();
+
+    // Then:
+    assertRows(block1, new Object[]{1, "a", 1L}, new Object[]{1, "a", 2L}, new Object[]{2, "a", 1L});
+    assertRows(block2, new Object[]{2, "b", 2L}, new Object[]{3, "c", 1L});
+    Assert.assertTrue(block3.isEndOfStreamBlock());
+  }
+
   private static RexExpression.FunctionCall getSum(RexExpression arg) {
     return new RexExpression.FunctionCall(SqlKind.SUM, FieldSpec.DataType.INT, "SUM", ImmutableList.of(arg));
   }
+
+  private static void assertRows(TransferableBlock block, Object[]... expectedRows) {
+    List<Object[]> rows = block.getContainer();
+    Assert.assertEquals(rows.size(), expectedRows.length);
+    for (int i = 0; i < expectedRows.length; i++) {
+      Assert.assertEquals(rows.get(i), expectedRows[i]);
+    }
+  }
 }
@@ -0,0 +1,136 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.operator.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.roaringbitmap.RoaringBitmap;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+
+public class JoinHashTableTest {
+
+  @Test
+  public void testLongKey() {
+    JoinHashTable table = new JoinHashTable(Collections.singletonList(0));
+    List<Object[]> rows = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      rows.add(new Object[]{i % 100, "value" + i, (long) i, (double) i});
+    }
+    rows.add(new Object[]{null, "null1", null, null});
+    rows.add(new Object[]{null, "null2", 1L, 1.0});
+    table.addRows(rows);
+    assertEquals(table.getNumRows(), 1002);
+
+    // Rows with the same key should be returned in insertion order
+    for (int key = 0; key < 100; key++) {
+      List<Object[]> expected = new ArrayList<>();
+      for (int i = key; i < 1000; i += 100) {
+        expected.add(rows.get(i));
+      }
+      assertEquals(getRows(table, new Object[]{key}), toLists(expected));
+    }
+    assertEquals(getRows(table, new Object[]{null}), toLists(rows.subList(1000, 1002)));
+    assertFalse(table.containsKey(new Object[]{100}));
+    // Values of different classes should not match
+    assertFalse(table.containsKey(new Object[]{1L}));
+  }
+
+  @Test
+  public void testObjectKey() {
+    JoinHashTable table = new JoinHashTable(Arrays.asList(1, 0));
+    List<Object[]> rows = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      rows.add(new Object[]{i % 10, "key" + i % 20, i});
+    }
+    rows.add(new Object[]{null, null, 1000});
+    table.addRows(rows);
+
+    for (int key = 0; key < 20; key++) {
+      List<Object[]> expected = new ArrayList<>();
+      for (int i = key; i < 1000; i += 20) {
+        expected.add(rows.get(i));
+      }
+      assertEquals(getRows(table, new Object[]{"key" + key, key % 10}), toLists(expected));
+    }
+    assertEquals(getRows(table, new Object[]{null, null}), toLists(rows.subList(1000, 1001)));
+    assertFalse(table.containsKey(new Object[]{"key1", 2}));
+    assertFalse(table.containsKey(new Object[]{"key1", 1L}));
+  }
+
+  @Test
+  public void testMixedValueClasses() {
+    JoinHashTable table = new JoinHashTable(Collections.singletonList(0));
+    List<Object[]> rows = new ArrayList<>();
+    rows.add(new Object[]{1, 1});
+    rows.add(new Object[]{2, "2"});
+    // Falls back from the long key to the object key
+    rows.add(new Object[]{1L, 3.0});
+    rows.add(new Object[]{1, null});
+    table.addRows(rows);
+
+    // Original values should be kept
+    assertEquals(getRows(table, new Object[]{1}), toLists(Arrays.asList(rows.get(0), rows.get(3))));
+    assertEquals(getRows(table, new Object[]{2}), toLists(Collections.singletonList(rows.get(1))));
+    assertEquals(getRows(table, new Object[]{1L}), toLists(Collections.singletonList(rows.get(2))));
+  }
+
+  @Test
+  public void testMatchedRows() {
+    JoinHashTable table = new JoinHashTable(Collections.singletonList(0));
+    for (int i = 0; i < 10; i++) {
+      table.addRow(new Object[]{i});
+    }
+    table.markMatched(1);
+    table.markMatched(5);
+    table.markMatched(5);
+    assertEquals(table.getUnmatchedRowIds(), RoaringBitmap.bitmapOf(0, 2, 3, 4, 6, 7, 8, 9));
+
+    table.clear();
+    assertEquals(table.getNumRows(), 0);
+    assertFalse(table.containsKey(new Object[]{1}));
+    table.addRow(new Object[]{"a"});
+    assertTrue(table.containsKey(new Object[]{"a"}));
+    assertEquals(table.getUnmatchedRowIds(), RoaringBitmap.bitmapOf(0));
+  }
+
+  private static List<List<Object>> getRows(JoinHashTable table, Object[] key) {
+    List<List<Object>> rows = new ArrayList<>();
+    int rowId = table.getFirstRowId(key);
+    while (rowId != JoinHashTable.NO_ROW) {
+      rows.add(Arrays.asList(table.getRow(rowId)));
+      rowId = table.getNextRowId(rowId);
+    }
+    return rows;
+  }
+
+  private static List<List<Object>> toLists(List<Object[]> rows) {
+    List<List<Object>> lists = new ArrayList<>(rows.size());
+    for (Object[] row : rows) {
+      lists.add(Arrays.asList(row));
+    }
+    return lists;
+  }
+}
@@ -0,0 +1,144 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.plan.server;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.apache.pinot.common.request.Expression;
+import org.apache.pinot.common.request.Function;
+import org.apache.pinot.common.request.PinotQuery;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.common.utils.request.RequestUtils;
+import org.apache.pinot.core.query.utils.idset.IdSet;
+import org.apache.pinot.core.query.utils.idset.IdSets;
+import org.apache.pinot.query.planner.partitioning.FieldSelectionKeySelector;
+import org.apache.pinot.query.planner.plannode.JoinNode;
+import org.apache.pinot.sql.FilterKind;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class ServerPlanRequestUtilsTest {
+  private static final JoinNode.JoinKeys JOIN_KEYS =
+      new JoinNode.JoinKeys(new FieldSelectionKeySelector(0), new FieldSelectionKeySelector(1));
+
+  @Test
+  public void shouldAttachInListForSmallBuildSide() {
+    PinotQuery pinotQuery = getPinotQuery();
+    DataSchema dataSchema = getDataSchema(ColumnDataType.INT);
+    List<Object[]> rows = new ArrayList<>();
+    rows.add(new Object[]{"a", 3});
+    rows.add(new Object[]{"b", 1});
+    rows.add(new Object[]{"c", 3});
+    rows.add(new Object[]{"d", null});
+
+    Assert.assertTrue(ServerPlanRequestUtils.attachDynamicFilter(pinotQuery, JOIN_KEYS, rows, dataSchema, 100));
+
+    // Distinct non-null values, sorted
+    Function inFilter = pinotQuery.getFilterExpression().getFunctionCall();
+    Assert.assertEquals(inFilter.getOperator(), FilterKind.IN.name());
+    Assert.assertEquals(inFilter.getOperands().size(), 3);
+    Assert.assertEquals(inFilter.getOperands().get(0), RequestUtils.getIdentifierExpression("col"));
+    Assert.assertEquals(inFilter.getOperands().get(1), RequestUtils.getLiteralExpression(1));
+    Assert.assertEquals(inFilter.getOperands().get(2), RequestUtils.getLiteralExpression(3));
+  }
+
+  @Test
+  public void shouldAttachInListAndRangeForMediumBuildSide() {
+    PinotQuery pinotQuery = getPinotQuery();
+    DataSchema dataSchema = getDataSchema(ColumnDataType.STRING);
+    List<Object[]> rows = new ArrayList<>();
+    for (int i = 10; i < 30; i++) {
+      rows.add(new Object[]{"a", "v" + i});
+    }
+    // Use a max IN-list size smaller than the number of values, STRING values can only be filtered exactly by IN-list
+    Assert.assertTrue(ServerPlanRequestUtils.attachDynamicFilter(pinotQuery, JOIN_KEYS, rows, dataSchema, 5));
+
+    Function andFilter = pinotQuery.getFilterExpression().getFunctionCall();
+    Assert.assertEquals(andFilter.getOperator(), FilterKind.AND.name());
+    Function inFilter = andFilter.getOperands().get(0).getFunctionCall();
+    Assert.assertEquals(inFilter.getOperator(), FilterKind.IN.name());
+    Assert.assertEquals(inFilter.getOperands().size(), 21);
+    assertRangeFilter(andFilter.getOperands().get(1), RequestUtils.getLiteralExpression("v10"),
+        RequestUtils.getLiteralExpression("v29"));
+  }
+
+  @Test
+  public void shouldAttachRangeAndIdSetForLargeBuildSide()
+      throws Exception {
+    PinotQuery pinotQuery = getPinotQuery();
+    DataSchema dataSchema = getDataSchema(ColumnDataType.LONG);
+    List<Object[]> rows = new ArrayList<>();
+    for (long i = 0; i < 100; i++) {
+      rows.add(new Object[]{"a", i * 3});
+    }
+    Collections.shuffle(rows);
+
+    Assert.assertTrue(ServerPlanRequestUtils.attachDynamicFilter(pinotQuery, JOIN_KEYS, rows, dataSchema, 50));
+
+    Function andFilter = pinotQuery.getFilterExpression().getFunctionCall();
+    Assert.assertEquals(andFilter.getOperator(), FilterKind.AND.name());
+    assertRangeFilter(andFilter.getOperands().get(0), RequestUtils.getLiteralExpression(0L),
+        RequestUtils.getLiteralExpression(297L));
+    Function idSetFilter = andFilter.getOperands().get(1).getFunctionCall();
+    Assert.assertEquals(idSetFilter.getOperator(), FilterKind.EQUALS.name());
+    Assert.assertEquals(idSetFilter.getOperands().get(1), RequestUtils.getLiteralExpression(1));
+    Function inIdSet = idSetFilter.getOperands().get(0).getFunctionCall();
+    Assert.assertEquals(inIdSet.getOperator(), "inIdSet");
+    Assert.assertEquals(inIdSet.getOperands().get(0), RequestUtils.getIdentifierExpression("col"));
+    IdSet idSet = IdSets.fromBase64String(inIdSet.getOperands().get(1).getLiteral().getStringValue());
+    Assert.assertEquals(idSet.getType(), IdSet.Type.ROARING_64_NAVIGABLE_MAP);
+    for (long i = 0; i < 300; i++) {
+      Assert.assertEquals(idSet.contains(i), i % 3 == 0);
+    }
+  }
+
+  @Test
+  public void shouldReturnFalseWhenBuildSideOnlyHasNulls() {
+    PinotQuery pinotQuery = getPinotQuery();
+    List<Object[]> rows = new ArrayList<>();
+    rows.add(new Object[]{"a", null});
+
+    Assert.assertFalse(
+        ServerPlanRequestUtils.attachDynamicFilter(pinotQuery, JOIN_KEYS, rows, getDataSchema(ColumnDataType.INT),
+            100));
+    Assert.assertNull(pinotQuery.getFilterExpression());
+  }
+
+  private static void assertRangeFilter(Expression expression, Expression minValue, Expression maxValue) {
+    Function rangeFilter = expression.getFunctionCall();
+    Assert.assertEquals(rangeFilter.getOperator(), FilterKind.BETWEEN.name());
+    Assert.assertEquals(rangeFilter.getOperands().get(1), minValue);
+    Assert.assertEquals(rangeFilter.getOperands().get(2), maxValue);
+  }
+
+  private static PinotQuery getPinotQuery() {
+    PinotQuery pinotQuery = new PinotQuery();
+    List<Expression> selectList = new ArrayList<>();
+    selectList.add(RequestUtils.getIdentifierExpression("col"));
+    pinotQuery.setSelectList(selectList);
+    return pinotQuery;
+  }
+
+  private static DataSchema getDataSchema(ColumnDataType keyType) {
+    return new DataSchema(new String[]{"foo", "key"}, new ColumnDataType[]{ColumnDataType.STRING, keyType});
+  }
+}
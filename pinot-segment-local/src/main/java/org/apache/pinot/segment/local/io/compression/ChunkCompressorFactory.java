@@ -69,11 +69,32 @@ public class ChunkCompressorFactory {
       case LZ4_LENGTH_PREFIXED:
         return LZ4WithLengthCompressor.INSTANCE;
 
+      case FOR:
+      case DELTA:
+      case DELTA_DELTA:
+        throw new IllegalArgumentException(
+            "Compressor: " + compressionType + " requires the value size of the fixed width INT/LONG values");
+
       default:
         throw new IllegalArgumentException("Illegal compressor name " + compressionType);
     }
   }
 
+  /**
+   * Returns the chunk compressor for the specified name, for chunks of fixed width values of the given size. The
+   * lightweight integer encodings (FOR, DELTA and DELTA_DELTA) can only be created through this method.
+   *
+   * @param compressionType Type of compressor.
+   * @param valueSize Size of each value (in bytes).
+   * @return Compressor for the specified type.
+   */
+  public static ChunkCompressor getCompressor(ChunkCompressionType compressionType, int valueSize) {
+    if (IntegerCodec.isIntegerCodec(compressionType)) {
+      return new IntegerCodecCompressor(compressionType, valueSize);
+    }
+    return getCompressor(compressionType, false);
+  }
+
   /**
    * Returns the chunk decompressor for the specified name.
    *
@@ -97,6 +118,11 @@ public class ChunkCompressorFactory {
       case LZ4_LENGTH_PREFIXED:
         return LZ4WithLengthDecompressor.INSTANCE;
 
+      case FOR:
+      case DELTA:
+      case DELTA_DELTA:
+        return IntegerCodecDecompressor.INSTANCE;
+
       default:
         throw new IllegalArgumentException("Illegal compressor name " + compressionType);
     }
@@ -0,0 +1,339 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.io.compression;
+
+import java.nio.ByteBuffer;
+import org.apache.pinot.segment.spi.compression.ChunkCompressionType;
+
+
+/**
+ * Lightweight integer encodings for chunks of fixed width INT/LONG values, used by the
+ * {@link ChunkCompressionType#FOR}, {@link ChunkCompressionType#DELTA} and {@link ChunkCompressionType#DELTA_DELTA}
+ * compression types.
+ *
+ * <p>Values are split into blocks of {@link #BLOCK_SIZE} values, and each block is encoded independently so that a
+ * single value or a range of values can be decoded without decoding the whole chunk:
+ * <ul>
+ *   <li>FOR: values are stored as offsets from the min value of the block (frame of reference)</li>
+ *   <li>DELTA: the first value is stored, then the deltas between consecutive values are stored as FOR</li>
+ *   <li>
+ *     DELTA_DELTA: the first value and the first delta are stored, then the deltas between consecutive deltas are
+ *     stored as FOR
+ *   </li>
+ * </ul>
+ * The FOR offsets are bit-packed with the bit width minimizing the encoded size of the block. Offsets that don't fit
+ * into the bit width are stored separately as patched exceptions.
+ *
+ * <p>The layout of the encoded chunk is as follows (big-endian):
+ * <ul>
+ *   <li>Byte: Value size (4 for INT, 8 for LONG)</li>
+ *   <li>Byte: Order of the delta encoding (0 for FOR, 1 for DELTA, 2 for DELTA_DELTA)</li>
+ *   <li>Integer: Number of values</li>
+ *   <li>Integer array: Offsets of the blocks within the chunk</li>
+ *   <li>Blocks</li>
+ * </ul>
+ *
+ * <p>The layout of each block is as follows:
+ * <ul>
+ *   <li>Long array: First value, then first delta for DELTA_DELTA (up to order values)</li>
+ *   <li>Long: Frame of reference (min) of the remaining values/deltas</li>
+ *   <li>Byte: Bit width of the packed offsets</li>
+ *   <li>Byte: Number of exceptions (unsigned)</li>
+ *   <li>Long array: Bit-packed offsets, little-endian within each long</li>
+ *   <li>Exceptions: Byte index of the offset (unsigned) followed by Long offset, ordered by index</li>
+ * </ul>
+ */
+public final class IntegerCodec {
+  private IntegerCodec() {
+  }
+
+  public static final int BLOCK_SIZE = 128;
+
+  private static final int CHUNK_HEADER_SIZE = 2 + Integer.BYTES;
+  private static final int FOR_HEADER_SIZE = Long.BYTES + 2;
+  private static final int EXCEPTION_SIZE = 1 + Long.BYTES;
+
+  /**
+   * Returns whether the given compression type is a lightweight integer encoding handled by this class.
+   */
+  public static boolean isIntegerCodec(ChunkCompressionType compressionType) {
+    return getOrder(compressionType) >= 0;
+  }
+
+  /**
+   * Returns the order of the delta encoding for the given compression type, or -1 if it is not an integer codec.
+   */
+  static int getOrder(ChunkCompressionType compressionType) {
+    switch (compressionType) {
+      case FOR:
+        return 0;
+      case DELTA:
+        return 1;
+      case DELTA_DELTA:
+        return 2;
+      default:
+        return -1;
+    }
+  }
+
+  public static int getNumBlocks(int numValues) {
+    return (numValues + BLOCK_SIZE - 1) / BLOCK_SIZE;
+  }
+
+  /**
+   * Returns the max size of the encoded chunk for the given number of values. In the worst case all the offsets are
+   * packed with 64 bits.
+   */
+  static int maxEncodedSize(int numValues) {
+    return CHUNK_HEADER_SIZE + getNumBlocks(numValues) * (Integer.BYTES + 2 * Long.BYTES + FOR_HEADER_SIZE)
+        + numValues * Long.BYTES;
+  }
+
+  public static int getValueSize(ByteBuffer chunk) {
+    return chunk.get(0);
+  }
+
+  public static int getNumValues(ByteBuffer chunk) {
+    return chunk.getInt(2);
+  }
+
+  /**
+   * Encodes the remaining values of the input buffer into the output buffer from its current position.
+   *
+   * @return Size of the encoded chunk
+   */
+  static int encode(ByteBuffer input, ByteBuffer output, int valueSize, int order) {
+    int numValues = input.remaining() / valueSize;
+    int numBlocks = getNumBlocks(numValues);
+    int inputStart = input.position();
+    int outputStart = output.position();
+    output.put((byte) valueSize);
+    output.put((byte) order);
+    output.putInt(numValues);
+    output.position(outputStart + CHUNK_HEADER_SIZE + numBlocks * Integer.BYTES);
+
+    long[] values = new long[BLOCK_SIZE];
+    long[] offsets = new long[BLOCK_SIZE];
+    long[] packed = new long[BLOCK_SIZE];
+    for (int blockId = 0; blockId < numBlocks; blockId++) {
+      int blockStart = blockId * BLOCK_SIZE;
+      int numBlockValues = Math.min(BLOCK_SIZE, numValues - blockStart);
+      for (int i = 0; i < numBlockValues; i++) {
+        int position = inputStart + (blockStart + i) * valueSize;
+        values[i] = valueSize == Integer.BYTES ? input.getInt(position) : input.getLong(position);
+      }
+      output.putInt(outputStart + CHUNK_HEADER_SIZE + blockId * Integer.BYTES, output.position() - outputStart);
+      encodeBlock(values, numBlockValues, order, offsets, packed, output);
+    }
+    input.position(input.limit());
+    return output.position() - outputStart;
+  }
+
+  private static void encodeBlock(long[] values, int numValues, int order, long[] offsets, long[] packed,
+      ByteBuffer output) {
+    int numSeeds = Math.min(order, numValues);
+    if (numSeeds > 0) {
+      output.putLong(values[0]);
+    }
+    if (numSeeds > 1) {
+      output.putLong(values[1] - values[0]);
+    }
+
+    // Compute the values/deltas to be stored as FOR, and the frame of reference
+    int numOffsets = numValues - numSeeds;
+    long reference = Long.MAX_VALUE;
+    for (int i = 0; i < numOffsets; i++) {
+      int j = i + numSeeds;
+      long residual;
+      if (order == 0) {
+        residual = values[j];
+      } else if (order == 1) {
+        residual = values[j] - values[j - 1];
+      } else {
+        residual = (values[j] - values[j - 1]) - (values[j - 1] - values[j - 2]);
+      }
+      offsets[i] = residual;
+      reference = Math.min(reference, residual);
+    }
+    if (numOffsets == 0) {
+      reference = 0;
+    }
+
+    // Pick the bit width minimizing the encoded size, where offsets with more bits are stored as exceptions
+    int[] numOffsetsPerBitLength = new int[Long.SIZE + 1];
+    for (int i = 0; i < numOffsets; i++) {
+      offsets[i] -= reference;
+      numOffsetsPerBitLength[Long.SIZE - Long.numberOfLeadingZeros(offsets[i])]++;
+    }
+    int bitWidth = Long.SIZE;
+    int numExceptions = 0;
+    long minSize = getPackedSize(numOffsets, Long.SIZE);
+    int numLargerOffsets = 0;
+    for (int candidate = Long.SIZE; candidate >= 0; candidate--) {
+      long size = getPackedSize(numOffsets, candidate) + (long) numLargerOffsets * EXCEPTION_SIZE;
+      if (size < minSize) {
+        minSize = size;
+        bitWidth = candidate;
+        numExceptions = numLargerOffsets;
+      }
+      numLargerOffsets += numOffsetsPerBitLength[candidate];
+    }
+
+    output.putLong(reference);
+    output.put((byte) bitWidth);
+    output.put((byte) numExceptions);
+    int numPackedLongs = getPackedSize(numOffsets, bitWidth) / Long.BYTES;
+    if (bitWidth > 0) {
+      for (int i = 0; i < numPackedLongs; i++) {
+        packed[i] = 0;
+      }
+      for (int i = 0; i < numOffsets; i++) {
+        long offset = offsets[i];
+        if (Long.SIZE - Long.numberOfLeadingZeros(offset) > bitWidth) {
+          continue;
+        }
+        int bitOffset = i * bitWidth;
+        int index = bitOffset >>> 6;
+        int shift = bitOffset & 63;
+        packed[index] |= offset << shift;
+        if (shift + bitWidth > Long.SIZE) {
+          packed[index + 1] |= offset >>> (Long.SIZE - shift);
+        }
+      }
+      for (int i = 0; i < numPackedLongs; i++) {
+        output.putLong(packed[i]);
+      }
+    }
+    if (numExceptions > 0) {
+      for (int i = 0; i < numOffsets; i++) {
+        if (Long.SIZE - Long.numberOfLeadingZeros(offsets[i]) > bitWidth) {
+          output.put((byte) i);
+          output.putLong(offsets[i]);
+        }
+      }
+    }
+  }
+
+  private static int getPackedSize(int numOffsets, int bitWidth) {
+    return ((numOffsets * bitWidth + Long.SIZE - 1) >>> 6) * Long.BYTES;
+  }
+
+  /**
+   * Decodes all the values of the given block into the given array.
+   *
+   * @return Number of values in the block
+   */
+  public static int decodeBlock(ByteBuffer chunk, int blockId, long[] values) {
+    int order = chunk.get(1);
+    int numValues = Math.min(BLOCK_SIZE, getNumValues(chunk) - blockId * BLOCK_SIZE);
+    int offset = chunk.getInt(CHUNK_HEADER_SIZE + blockId * Integer.BYTES);
+    int numSeeds = Math.min(order, numValues);
+    offset += numSeeds * Long.BYTES;
+    decodeOffsets(chunk, offset, numValues - numSeeds, values, numSeeds);
+
+    // Reconstruct the values from the deltas
+    if (order == 1) {
+      values[0] = chunk.getLong(offset - Long.BYTES);
+      for (int i = 1; i < numValues; i++) {
+        values[i] += values[i - 1];
+      }
+    } else if (order == 2) {
+      values[0] = chunk.getLong(offset - numSeeds * Long.BYTES);
+      if (numValues > 1) {
+        long delta = chunk.getLong(offset - Long.BYTES);
+        values[1] = values[0] + delta;
+        for (int i = 2; i < numValues; i++) {
+          delta += values[i];
+          values[i] = values[i - 1] + delta;
+        }
+      }
+    }
+    return numValues;
+  }
+
+  private static void decodeOffsets(ByteBuffer chunk, int offset, int numOffsets, long[] values, int valuesOffset) {
+    long reference = chunk.getLong(offset);
+    int bitWidth = chunk.get(offset + Long.BYTES);
+    int numExceptions = chunk.get(offset + Long.BYTES + 1) & 0xFF;
+    int packedOffset = offset + FOR_HEADER_SIZE;
+    if (bitWidth == 0) {
+      for (int i = 0; i < numOffsets; i++) {
+        values[valuesOffset + i] = reference;
+      }
+    } else if (bitWidth == Long.SIZE) {
+      for (int i = 0; i < numOffsets; i++) {
+        values[valuesOffset + i] = reference + chunk.getLong(packedOffset + i * Long.BYTES);
+      }
+    } else {
+      long mask = (1L << bitWidth) - 1;
+      for (int i = 0; i < numOffsets; i++) {
+        values[valuesOffset + i] = reference + (unpack(chunk, packedOffset, i, bitWidth) & mask);
+      }
+    }
+    int exceptionOffset = packedOffset + getPackedSize(numOffsets, bitWidth);
+    for (int i = 0; i < numExceptions; i++) {
+      int index = chunk.get(exceptionOffset) & 0xFF;
+      values[valuesOffset + index] = reference + chunk.getLong(exceptionOffset + 1);
+      exceptionOffset += EXCEPTION_SIZE;
+    }
+  }
+
+  /**
+   * Decodes a single value from a chunk encoded with {@link ChunkCompressionType#FOR}, without decoding the block.
+   */
+  public static long decodeValue(ByteBuffer chunk, int index) {
+    int blockId = index / BLOCK_SIZE;
+    int indexInBlock = index - blockId * BLOCK_SIZE;
+    int numOffsets = Math.min(BLOCK_SIZE, getNumValues(chunk) - blockId * BLOCK_SIZE);
+    int offset = chunk.getInt(CHUNK_HEADER_SIZE + blockId * Integer.BYTES);
+    long reference = chunk.getLong(offset);
+    int bitWidth = chunk.get(offset + Long.BYTES);
+    int numExceptions = chunk.get(offset + Long.BYTES + 1) & 0xFF;
+    int packedOffset = offset + FOR_HEADER_SIZE;
+    int exceptionOffset = packedOffset + getPackedSize(numOffsets, bitWidth);
+    for (int i = 0; i < numExceptions; i++) {
+      int exceptionIndex = chunk.get(exceptionOffset) & 0xFF;
+      if (exceptionIndex == indexInBlock) {
+        return reference + chunk.getLong(exceptionOffset + 1);
+      }
+      if (exceptionIndex > indexInBlock) {
+        break;
+      }
+      exceptionOffset += EXCEPTION_SIZE;
+    }
+    if (bitWidth == 0) {
+      return reference;
+    }
+    if (bitWidth == Long.SIZE) {
+      return reference + chunk.getLong(packedOffset + indexInBlock * Long.BYTES);
+    }
+    return reference + (unpack(chunk, packedOffset, indexInBlock, bitWidth) & ((1L << bitWidth) - 1));
+  }
+
+  private static long unpack(ByteBuffer chunk, int packedOffset, int index, int bitWidth) {
+    int bitOffset = index * bitWidth;
+    int longOffset = packedOffset + ((bitOffset >>> 6) << 3);
+    int shift = bitOffset & 63;
+    long value = chunk.getLong(longOffset) >>> shift;
+    if (shift + bitWidth > Long.SIZE) {
+      value |= chunk.getLong(longOffset + Long.BYTES) << (Long.SIZE - shift);
+    }
+    return value;
+  }
+}
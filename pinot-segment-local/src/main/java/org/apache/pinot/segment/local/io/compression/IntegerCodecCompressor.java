@@ -0,0 +1,63 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.io.compression;
+
+import java.nio.ByteBuffer;
+import org.apache.pinot.segment.spi.compression.ChunkCompressionType;
+import org.apache.pinot.segment.spi.compression.ChunkCompressor;
+
+
+/**
+ * Implementation of {@link ChunkCompressor} for the lightweight integer encodings (FOR, DELTA and DELTA_DELTA) of
+ * fixed width INT/LONG values. See {@link IntegerCodec} for the encoded format.
+ */
+class IntegerCodecCompressor implements ChunkCompressor {
+  private final ChunkCompressionType _compressionType;
+  private final int _valueSize;
+  private final int _order;
+
+  IntegerCodecCompressor(ChunkCompressionType compressionType, int valueSize) {
+    if (valueSize != Integer.BYTES && valueSize != Long.BYTES) {
+      throw new IllegalArgumentException(
+          "Compression type: " + compressionType + " only applies to INT/LONG values, got value size: " + valueSize);
+    }
+    _compressionType = compressionType;
+    _valueSize = valueSize;
+    _order = IntegerCodec.getOrder(compressionType);
+  }
+
+  @Override
+  public int compress(ByteBuffer inUncompressed, ByteBuffer outCompressed) {
+    IntegerCodec.encode(inUncompressed, outCompressed, _valueSize, _order);
+
+    // Make the output ByteBuffer read for read.
+    outCompressed.flip();
+    return outCompressed.limit();
+  }
+
+  @Override
+  public int maxCompressedSize(int uncompressedSize) {
+    return IntegerCodec.maxEncodedSize(uncompressedSize / _valueSize);
+  }
+
+  @Override
+  public ChunkCompressionType compressionType() {
+    return _compressionType;
+  }
+}
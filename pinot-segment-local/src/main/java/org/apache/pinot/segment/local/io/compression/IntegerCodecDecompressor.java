@@ -0,0 +1,67 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.io.compression;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import org.apache.pinot.segment.spi.compression.ChunkDecompressor;
+
+
+/**
+ * Implementation of {@link ChunkDecompressor} for the lightweight integer encodings (FOR, DELTA and DELTA_DELTA) of
+ * fixed width INT/LONG values. The value size and the encoding are stored within the encoded chunk, so a single
+ * instance can decode all of them. See {@link IntegerCodec} for the encoded format.
+ */
+class IntegerCodecDecompressor implements ChunkDecompressor {
+
+  static final IntegerCodecDecompressor INSTANCE = new IntegerCodecDecompressor();
+
+  private IntegerCodecDecompressor() {
+  }
+
+  @Override
+  public int decompress(ByteBuffer compressedInput, ByteBuffer decompressedOutput) {
+    ByteBuffer chunk = compressedInput.slice().order(ByteOrder.BIG_ENDIAN);
+    int valueSize = IntegerCodec.getValueSize(chunk);
+    int numBlocks = IntegerCodec.getNumBlocks(IntegerCodec.getNumValues(chunk));
+    long[] values = new long[IntegerCodec.BLOCK_SIZE];
+    for (int blockId = 0; blockId < numBlocks; blockId++) {
+      int numValues = IntegerCodec.decodeBlock(chunk, blockId, values);
+      if (valueSize == Integer.BYTES) {
+        for (int i = 0; i < numValues; i++) {
+          decompressedOutput.putInt((int) values[i]);
+        }
+      } else {
+        for (int i = 0; i < numValues; i++) {
+          decompressedOutput.putLong(values[i]);
+        }
+      }
+    }
+
+    // Flip the output ByteBuffer for reading.
+    decompressedOutput.flip();
+    return decompressedOutput.limit();
+  }
+
+  @Override
+  public int decompressedLength(ByteBuffer compressedInput) {
+    ByteBuffer chunk = compressedInput.slice().order(ByteOrder.BIG_ENDIAN);
+    return IntegerCodec.getNumValues(chunk) * IntegerCodec.getValueSize(chunk);
+  }
+}
@@ -0,0 +1,251 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.realtime.impl.dictionary;
+
+import com.google.common.base.Preconditions;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.apache.pinot.segment.spi.index.mutable.MutableDictionary;
+import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
+import org.apache.pinot.segment.spi.memory.PinotDataBufferMemoryManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Off-heap mutable dictionary for variable length values (STRING and BYTES), designed for high cardinality columns.
+ * <p>The values are stored in an {@link OffHeapMutableBytesStore} (dictionary ID to value), and the reverse map (value
+ * to dictionary ID) is an off-heap open addressing hash table with linear probing. Each slot of the hash table is a
+ * long, with the high bits holding the high bits of the 64-bit hash of the value, and the low {@link #DICT_ID_BITS}
+ * bits holding the dictionary ID plus 1 (0 indicates an empty slot). Only values with matching hash bits are compared
+ * against the bytes store.
+ * <p>The hash table is doubled when it is half full. The new table is fully populated before being published, and the
+ * old tables are kept until the dictionary is closed because readers might still be probing them.
+ * <p>This class is thread-safe for single writer multiple readers without locking: the writer adds the value into the
+ * bytes store, then fills the slot, then publishes the number of entries through a volatile write. Readers only accept
+ * dictionary IDs smaller than the published number of entries, so they never see a partially added value.
+ * <p>The size of each value is limited to 1MB, and the number of values is limited to about 17M (limits of the bytes
+ * store).
+ */
+public abstract class BaseOffHeapHashMutableDictionary implements MutableDictionary {
+  private static final Logger LOGGER = LoggerFactory.getLogger(BaseOffHeapHashMutableDictionary.class);
+
+  // Number of bits to store the dictionary ID (plus 1) in a slot, which covers the max number of values in the bytes
+  // store
+  private static final int DICT_ID_BITS = 25;
+  private static final long DICT_ID_MASK = (1L << DICT_ID_BITS) - 1;
+  private static final long HASH_MASK = ~DICT_ID_MASK;
+  private static final int MIN_CAPACITY = 1 << 10;
+  private static final int MAX_CAPACITY = 1 << (DICT_ID_BITS + 1);
+
+  // Max size of each value, which is the size of a value buffer in the bytes store
+  public static final int MAX_VALUE_LENGTH = OffHeapMutableBytesStore.VALUE_BUFFER_SIZE;
+
+  private final PinotDataBufferMemoryManager _memoryManager;
+  private final String _allocationContext;
+  private final OffHeapMutableBytesStore _bytesStore;
+  // All the allocated hash table buffers
+  private final List<PinotDataBuffer> _hashTableBuffers = new CopyOnWriteArrayList<>();
+
+  private volatile HashTable _hashTable;
+  // Number of entries in the dictionary. Max dictId is _numEntries-1.
+  private volatile int _numEntries;
+
+  // Total size of the values, only accessed by the writer
+  private long _totalValueSize;
+
+  protected BaseOffHeapHashMutableDictionary(int estimatedCardinality, PinotDataBufferMemoryManager memoryManager,
+      String allocationContext) {
+    _memoryManager = memoryManager;
+    _allocationContext = allocationContext;
+    _bytesStore = new OffHeapMutableBytesStore(memoryManager, allocationContext);
+    // Keep the hash table at most half full for the estimated cardinality
+    long capacity = Math.max(MIN_CAPACITY, Long.highestOneBit(Math.max(estimatedCardinality, 1) * 2L - 1) << 1);
+    _hashTable = allocateHashTable((int) Math.min(capacity, MAX_CAPACITY));
+  }
+
+  /**
+   * A hash table buffer with the capacity (number of slots, power of 2) of the buffer.
+   */
+  private static class HashTable {
+    final PinotDataBuffer _buffer;
+    final int _mask;
+
+    HashTable(PinotDataBuffer buffer, int capacity) {
+      _buffer = buffer;
+      _mask = capacity - 1;
+    }
+  }
+
+  private HashTable allocateHashTable(int capacity) {
+    long size = (long) capacity * Long.BYTES;
+    LOGGER.info("Allocating {} bytes for: {}", size, _allocationContext);
+    // NOTE: PinotDataBuffer is tracked in the PinotDataBufferMemoryManager, but we close the buffers when the
+    //       dictionary is closed, same as the bytes store.
+    PinotDataBuffer buffer = _memoryManager.allocate(size, _allocationContext);
+    for (long offset = 0; offset < size; offset += Long.BYTES) {
+      buffer.putLong(offset, 0L);
+    }
+    _hashTableBuffers.add(buffer);
+    return new HashTable(buffer, capacity);
+  }
+
+  /**
+   * Indexes the serialized value into the dictionary, and returns the dictionary ID of the value.
+   */
+  protected int indexBytes(byte[] value) {
+    long hash = hash(value);
+    HashTable hashTable = _hashTable;
+    PinotDataBuffer buffer = hashTable._buffer;
+    int mask = hashTable._mask;
+    int slotId = getSlotId(hash, mask);
+    long slot;
+    while ((slot = buffer.getLong((long) slotId << 3)) != 0) {
+      if (((slot ^ hash) & HASH_MASK) == 0) {
+        int dictId = (int) (slot & DICT_ID_MASK) - 1;
+        if (_bytesStore.equalsValueAt(dictId, value)) {
+          return dictId;
+        }
+      }
+      slotId = (slotId + 1) & mask;
+    }
+
+    // New value
+    Preconditions.checkState(value.length <= MAX_VALUE_LENGTH,
+        "Value of size: %s bytes exceeds the max size: %s bytes of the dictionary for: %s", value.length,
+        MAX_VALUE_LENGTH, _allocationContext);
+    int numEntries = _numEntries;
+    if (numEntries >= (mask + 1) >>> 1) {
+      hashTable = expand(hashTable);
+      buffer = hashTable._buffer;
+      mask = hashTable._mask;
+      slotId = getEmptySlotId(buffer, mask, getSlotId(hash, mask));
+    }
+    int dictId = _bytesStore.add(value);
+    assert dictId == numEntries;
+    _totalValueSize += value.length;
+    buffer.putLong((long) slotId << 3, (hash & HASH_MASK) | (dictId + 1));
+    _numEntries = dictId + 1;
+    return dictId;
+  }
+
+  /**
+   * Returns the dictionary ID of the serialized value, or {@link #NULL_VALUE_INDEX} if the value does not exist.
+   */
+  protected int getDictId(byte[] value) {
+    // NOTE: Read the number of entries before the hash table so that the hash table always contains all the entries
+    int numEntries = _numEntries;
+    HashTable hashTable = _hashTable;
+    PinotDataBuffer buffer = hashTable._buffer;
+    int mask = hashTable._mask;
+    long hash = hash(value);
+    int slotId = getSlotId(hash, mask);
+    long slot;
+    while ((slot = buffer.getLong((long) slotId << 3)) != 0) {
+      if (((slot ^ hash) & HASH_MASK) == 0) {
+        int dictId = (int) (slot & DICT_ID_MASK) - 1;
+        // Skip the value being added
+        if (dictId < numEntries && _bytesStore.equalsValueAt(dictId, value)) {
+          return dictId;
+        }
+      }
+      slotId = (slotId + 1) & mask;
+    }
+    return NULL_VALUE_INDEX;
+  }
+
+  protected byte[] getBytes(int dictId) {
+    return _bytesStore.get(dictId);
+  }
+
+  private HashTable expand(HashTable hashTable) {
+    int capacity = hashTable._mask + 1;
+    Preconditions.checkState(capacity < MAX_CAPACITY, "Dictionary for: %s cannot hold more than %s values",
+        _allocationContext, MAX_CAPACITY >>> 1);
+    HashTable newHashTable = allocateHashTable(capacity << 1);
+    PinotDataBuffer oldBuffer = hashTable._buffer;
+    PinotDataBuffer newBuffer = newHashTable._buffer;
+    int newMask = newHashTable._mask;
+    for (int i = 0; i < capacity; i++) {
+      long slot = oldBuffer.getLong((long) i << 3);
+      if (slot != 0) {
+        int slotId = getEmptySlotId(newBuffer, newMask, getSlotId(slot, newMask));
+        newBuffer.putLong((long) slotId << 3, slot);
+      }
+    }
+    _hashTable = newHashTable;
+    return newHashTable;
+  }
+
+  private static int getSlotId(long hash, int mask) {
+    return (int) (hash >>> DICT_ID_BITS) & mask;
+  }
+
+  private static int getEmptySlotId(PinotDataBuffer buffer, int mask, int slotId) {
+    while (buffer.getLong((long) slotId << 3) != 0) {
+      slotId = (slotId + 1) & mask;
+    }
+    return slotId;
+  }
+
+  /**
+   * Returns the 64-bit FNV-1a hash of the value, finalized with the MurmurHash3 mixer to spread the bits.
+   */
+  private static long hash(byte[] value) {
+    long hash = 0xcbf29ce484222325L;
+    for (byte b : value) {
+      hash = (hash ^ b) * 0x100000001b3L;
+    }
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+
+  @Override
+  public int length() {
+    return _numEntries;
+  }
+
+  @Override
+  public int getAvgValueSize() {
+    int numEntries = _numEntries;
+    return numEntries > 0 ? (int) (_totalValueSize / numEntries) : 0;
+  }
+
+  public long getTotalOffHeapMemUsed() {
+    long size = _bytesStore.getTotalBufferSize();
+    for (PinotDataBuffer buffer : _hashTableBuffers) {
+      size += buffer.size();
+    }
+    return size;
+  }
+
+  @Override
+  public void close()
+      throws IOException {
+    _bytesStore.close();
+    for (PinotDataBuffer buffer : _hashTableBuffers) {
+      buffer.close();
+    }
+  }
+}
@@ -438,6 +438,7 @@ public abstract class BaseOffHeapMutableDictionary implements MutableDictionary
 
   protected abstract boolean equalsValueAt(int dictId, Object value, byte[] serializedValue);
 
+  @Override
   public abstract int getAvgValueSize();
 
   public abstract long getTotalOffHeapMemUsed();
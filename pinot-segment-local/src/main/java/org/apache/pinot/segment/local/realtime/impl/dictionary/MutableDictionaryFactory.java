@@ -24,11 +24,22 @@ import org.apache.pinot.spi.data.FieldSpec.DataType;
 
 
 public class MutableDictionaryFactory {
+  // Use the hash based off-heap dictionary for STRING/BYTES columns with estimated cardinality (from the realtime
+  // segment stats history) no less than this threshold
+  public static final int HASH_DICTIONARY_MIN_CARDINALITY = 100_000;
+  // Only use the hash based off-heap dictionary for columns with small values
+  public static final int HASH_DICTIONARY_MAX_AVG_LENGTH = 1024;
+
   private MutableDictionaryFactory() {
   }
 
+  /**
+   * Returns a mutable dictionary for the given data type. The max length is the max size in bytes of the values, or
+   * non-positive if unknown, and is used to decide whether the hash based off-heap dictionary can hold the values.
+   */
   public static MutableDictionary getMutableDictionary(DataType dataType, boolean isOffHeapAllocation,
-      PinotDataBufferMemoryManager memoryManager, int avgLength, int cardinality, String allocationContext) {
+      PinotDataBufferMemoryManager memoryManager, int avgLength, int maxLength, int cardinality,
+      String allocationContext) {
     if (isOffHeapAllocation) {
       // OnHeap allocation
       int maxOverflowSize = cardinality / 10;
@@ -45,9 +56,15 @@ public class MutableDictionaryFactory {
           return new BigDecimalOffHeapMutableDictionary(cardinality, maxOverflowSize, memoryManager, allocationContext,
               avgLength);
         case STRING:
+          if (useHashDictionary(avgLength, maxLength, cardinality)) {
+            return new StringOffHeapHashMutableDictionary(cardinality, memoryManager, allocationContext);
+          }
           return new StringOffHeapMutableDictionary(cardinality, maxOverflowSize, memoryManager, allocationContext,
               avgLength);
         case BYTES:
+          if (useHashDictionary(avgLength, maxLength, cardinality)) {
+            return new BytesOffHeapHashMutableDictionary(cardinality, memoryManager, allocationContext);
+          }
           return new BytesOffHeapMutableDictionary(cardinality, maxOverflowSize, memoryManager, allocationContext,
               avgLength);
         default:
@@ -75,4 +92,11 @@ public class MutableDictionaryFactory {
       }
     }
   }
+
+  private static boolean useHashDictionary(int avgLength, int maxLength, int cardinality) {
+    // The hash based off-heap dictionary limits the size of each value, so fall back to the default dictionary when the
+    // max length is unknown or too large
+    return cardinality >= HASH_DICTIONARY_MIN_CARDINALITY && avgLength <= HASH_DICTIONARY_MAX_AVG_LENGTH
+        && maxLength > 0 && maxLength <= BaseOffHeapHashMutableDictionary.MAX_VALUE_LENGTH;
+  }
 }
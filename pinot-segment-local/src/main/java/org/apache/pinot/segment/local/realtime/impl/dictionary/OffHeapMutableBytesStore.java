@@ -61,7 +61,7 @@ public class OffHeapMutableBytesStore implements Closeable {
   // Each value buffer holds up to 1_048_576 bytes, which is also the size limit for each value
   // VALUE_BUFFER_SIZE = 1_048_576
   private static final int VALUE_BUFFER_SHIFT_OFFSET = 20;
-  private static final int VALUE_BUFFER_SIZE = 1 << VALUE_BUFFER_SHIFT_OFFSET;
+  static final int VALUE_BUFFER_SIZE = 1 << VALUE_BUFFER_SHIFT_OFFSET;
   private static final int VALUE_BUFFER_MASK = (1 << VALUE_BUFFER_SHIFT_OFFSET) - 1;
 
   // With at most 2_048 buffers, we can store about 17M values of total size up to 2GB
@@ -155,8 +155,9 @@ public class OffHeapMutableBytesStore implements Closeable {
     int valueLength;
     if ((previousValueEndOffset - 1) >>> VALUE_BUFFER_SHIFT_OFFSET != valueBufferIndex) {
       // The first value in the value buffer
+      // NOTE: The value might fill up the whole value buffer, in which case the masked end offset is 0
       startOffsetInValueBuffer = 0;
-      valueLength = valueEndOffset & VALUE_BUFFER_MASK;
+      valueLength = ((valueEndOffset - 1) & VALUE_BUFFER_MASK) + 1;
     } else {
       // Not the first value in the value buffer
       startOffsetInValueBuffer = previousValueEndOffset & VALUE_BUFFER_MASK;
@@ -195,7 +196,7 @@ public class OffHeapMutableBytesStore implements Closeable {
     int startOffsetInValueBuffer;
     if ((previousValueEndOffset - 1) >>> VALUE_BUFFER_SHIFT_OFFSET != valueBufferIndex) {
       // The first value in the value buffer
-      if ((valueEndOffset & VALUE_BUFFER_MASK) != inputValueLength) {
+      if (((valueEndOffset - 1) & VALUE_BUFFER_MASK) + 1 != inputValueLength) {
         return false;
       }
       startOffsetInValueBuffer = 0;
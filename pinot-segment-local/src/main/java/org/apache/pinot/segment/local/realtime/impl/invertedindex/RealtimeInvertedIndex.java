@@ -18,66 +18,56 @@
  */
 package org.apache.pinot.segment.local.realtime.impl.invertedindex;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.Arrays;
 import org.apache.pinot.segment.spi.index.mutable.MutableInvertedIndex;
-import org.apache.pinot.segment.spi.index.mutable.ThreadSafeMutableRoaringBitmap;
 import org.roaringbitmap.buffer.MutableRoaringBitmap;
 
 
 /**
  * Real-time bitmap based inverted index reader which allows adding values on the fly.
- * <p>This class is thread-safe for single writer multiple readers.
+ * <p>This class is thread-safe for single writer multiple readers without locking. The posting lists are appended to an
+ * array published through a volatile size, and each posting list is a {@link RealtimePostingList}.
  */
 public class RealtimeInvertedIndex implements MutableInvertedIndex {
-  private final List<ThreadSafeMutableRoaringBitmap> _bitmaps = new ArrayList<>();
-  private final ReentrantReadWriteLock.ReadLock _readLock;
-  private final ReentrantReadWriteLock.WriteLock _writeLock;
+  private static final int INITIAL_CAPACITY = 16;
 
-  public RealtimeInvertedIndex() {
-    ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock();
-    _readLock = readWriteLock.readLock();
-    _writeLock = readWriteLock.writeLock();
-  }
+  private volatile RealtimePostingList[] _postingLists = new RealtimePostingList[INITIAL_CAPACITY];
+  private volatile int _numPostingLists;
 
   /**
    * Adds the document id to the bitmap of the given dictionary id.
    */
   @Override
   public void add(int dictId, int docId) {
-    if (_bitmaps.size() == dictId) {
-      // Bitmap for the dictionary id does not exist, add a new bitmap into the list
-      ThreadSafeMutableRoaringBitmap bitmap = new ThreadSafeMutableRoaringBitmap(docId);
-      try {
-        _writeLock.lock();
-        _bitmaps.add(bitmap);
-      } finally {
-        _writeLock.unlock();
+    int numPostingLists = _numPostingLists;
+    if (numPostingLists == dictId) {
+      // Posting list for the dictionary id does not exist, add a new posting list into the array
+      RealtimePostingList postingList = new RealtimePostingList();
+      postingList.add(docId);
+      RealtimePostingList[] postingLists = _postingLists;
+      if (numPostingLists == postingLists.length) {
+        postingLists = Arrays.copyOf(postingLists, numPostingLists << 1);
+        _postingLists = postingLists;
       }
+      postingLists[numPostingLists] = postingList;
+      _numPostingLists = numPostingLists + 1;
     } else {
-      // Bitmap for the dictionary id already exists, check and add document id into the bitmap
-      _bitmaps.get(dictId).add(docId);
+      // Posting list for the dictionary id already exists, add document id into the posting list
+      _postingLists[dictId].add(docId);
     }
   }
 
   @Override
   public MutableRoaringBitmap getDocIds(int dictId) {
-    ThreadSafeMutableRoaringBitmap bitmap;
-    try {
-      _readLock.lock();
-      // NOTE: the given dictionary id might not be added to the inverted index yet. We first add the value to the
-      // dictionary. Before the value is added to the inverted index, the query might have predicates that match the
-      // newly added value. In that case, the given dictionary id does not exist in the inverted index, and we return an
-      // empty bitmap. For multi-valued column, the dictionary id might be larger than the bitmap size (not equal).
-      if (_bitmaps.size() <= dictId) {
-        return new MutableRoaringBitmap();
-      }
-      bitmap = _bitmaps.get(dictId);
-    } finally {
-      _readLock.unlock();
+    // NOTE: the given dictionary id might not be added to the inverted index yet. We first add the value to the
+    // dictionary. Before the value is added to the inverted index, the query might have predicates that match the
+    // newly added value. In that case, the given dictionary id does not exist in the inverted index, and we return an
+    // empty bitmap. For multi-valued column, the dictionary id might be larger than the bitmap size (not equal).
+    // NOTE: Read the size before the array so that the array always contains the posting list of the dictionary id.
+    if (_numPostingLists <= dictId) {
+      return new MutableRoaringBitmap();
     }
-    return bitmap.getMutableRoaringBitmap();
+    return _postingLists[dictId].getDocIds();
   }
 
   @Override
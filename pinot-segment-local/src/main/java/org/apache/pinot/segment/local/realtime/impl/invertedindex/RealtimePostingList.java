@@ -0,0 +1,125 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.realtime.impl.invertedindex;
+
+import java.util.Arrays;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+
+/**
+ * Posting list for the mutable indexes which allows adding doc ids on the fly.
+ * <p>This class is thread-safe for single writer multiple readers without locking. Doc ids are appended to an active
+ * buffer which covers one roaring container key range (doc ids sharing the same high 16 bits). Once a doc id from
+ * another key range is added, the active buffer is sealed into an immutable bitmap chunk, so that the memory of a
+ * posting list is dominated by the compressed sealed chunks. The writer publishes the appended doc ids through volatile
+ * writes, and readers always see a consistent prefix of the added doc ids.
+ * <p>Doc ids are expected to be added in ascending order (as in the mutable segment), which is the most efficient case,
+ * but out of order doc ids are also handled correctly.
+ */
+public class RealtimePostingList {
+  private static final int MIN_CAPACITY = 4;
+  private static final Buffer EMPTY_BUFFER = new Buffer(new int[0], 0);
+  private static final MutableRoaringBitmap[] EMPTY_CHUNKS = new MutableRoaringBitmap[0];
+
+  // Read by the readers: both arrays are replaced (never modified in place below the published size) when growing
+  private volatile Buffer _activeBuffer = EMPTY_BUFFER;
+  private volatile MutableRoaringBitmap[] _sealedChunks = EMPTY_CHUNKS;
+  private volatile int _numSealedChunks;
+
+  // Only accessed by the writer
+  private int _activeKey = -1;
+  private int _lastDocId = -1;
+
+  /**
+   * Adds the doc id into the posting list. Adding the same doc id as the last added one is a no-op.
+   */
+  public void add(int docId) {
+    if (docId == _lastDocId) {
+      return;
+    }
+    _lastDocId = docId;
+    int key = docId >>> 16;
+    Buffer activeBuffer = _activeBuffer;
+    if (key != _activeKey) {
+      if (activeBuffer._size > 0) {
+        sealActiveBuffer(activeBuffer);
+      }
+      _activeKey = key;
+      // NOTE: Publish the new buffer after sealing the previous one so that readers never miss doc ids
+      activeBuffer = new Buffer(new int[MIN_CAPACITY], 0);
+      _activeBuffer = activeBuffer;
+    }
+    int size = activeBuffer._size;
+    int[] values = activeBuffer._values;
+    if (size == values.length) {
+      activeBuffer = new Buffer(Arrays.copyOf(values, size << 1), size);
+      _activeBuffer = activeBuffer;
+      values = activeBuffer._values;
+    }
+    values[size] = docId;
+    activeBuffer._size = size + 1;
+  }
+
+  private void sealActiveBuffer(Buffer activeBuffer) {
+    MutableRoaringBitmap chunk = new MutableRoaringBitmap();
+    chunk.addN(activeBuffer._values, 0, activeBuffer._size);
+    chunk.runOptimize();
+    int numSealedChunks = _numSealedChunks;
+    MutableRoaringBitmap[] sealedChunks = _sealedChunks;
+    if (numSealedChunks == sealedChunks.length) {
+      sealedChunks = Arrays.copyOf(sealedChunks, Math.max(MIN_CAPACITY, numSealedChunks << 1));
+      _sealedChunks = sealedChunks;
+    }
+    sealedChunks[numSealedChunks] = chunk;
+    _numSealedChunks = numSealedChunks + 1;
+  }
+
+  /**
+   * Returns a snapshot of the doc ids added to the posting list. The returned bitmap is owned by the caller.
+   */
+  public MutableRoaringBitmap getDocIds() {
+    // NOTE: Read the active buffer before the sealed chunks. A buffer is sealed before being replaced, so the doc ids
+    //       in the buffers not visible here are always covered by the sealed chunks read afterwards. A buffer might be
+    //       read both as active and sealed, which is fine as the doc ids are merged into a bitmap.
+    Buffer activeBuffer = _activeBuffer;
+    int size = activeBuffer._size;
+    int numSealedChunks = _numSealedChunks;
+    MutableRoaringBitmap[] sealedChunks = _sealedChunks;
+    MutableRoaringBitmap docIds = numSealedChunks > 0 ? sealedChunks[0].clone() : new MutableRoaringBitmap();
+    for (int i = 1; i < numSealedChunks; i++) {
+      docIds.or(sealedChunks[i]);
+    }
+    docIds.addN(activeBuffer._values, 0, size);
+    return docIds;
+  }
+
+  /**
+   * Append-only buffer with the size published to the readers. The values array is never replaced, and a new buffer is
+   * created when more capacity is needed.
+   */
+  private static final class Buffer {
+    final int[] _values;
+    volatile int _size;
+
+    Buffer(int[] values, int size) {
+      _values = values;
+      _size = size;
+    }
+  }
+}
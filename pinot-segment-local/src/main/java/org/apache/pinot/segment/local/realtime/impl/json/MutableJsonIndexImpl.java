@@ -19,13 +19,11 @@
 package org.apache.pinot.segment.local.realtime.impl.json;
 
 import com.google.common.base.Preconditions;
-import it.unimi.dsi.fastutil.ints.IntArrayList;
-import it.unimi.dsi.fastutil.ints.IntList;
 import java.io.IOException;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.ConcurrentHashMap;
 import org.apache.pinot.common.request.context.ExpressionContext;
 import org.apache.pinot.common.request.context.FilterContext;
 import org.apache.pinot.common.request.context.RequestContextUtils;
@@ -34,6 +32,7 @@ import org.apache.pinot.common.request.context.predicate.InPredicate;
 import org.apache.pinot.common.request.context.predicate.NotEqPredicate;
 import org.apache.pinot.common.request.context.predicate.NotInPredicate;
 import org.apache.pinot.common.request.context.predicate.Predicate;
+import org.apache.pinot.segment.local.realtime.impl.invertedindex.RealtimePostingList;
 import org.apache.pinot.segment.local.segment.creator.impl.inv.json.BaseJsonIndexCreator;
 import org.apache.pinot.segment.spi.index.creator.JsonIndexCreator;
 import org.apache.pinot.segment.spi.index.mutable.MutableJsonIndex;
@@ -42,31 +41,34 @@ import org.apache.pinot.spi.exception.BadQueryRequestException;
 import org.apache.pinot.spi.utils.JsonUtils;
 import org.apache.pinot.sql.parsers.CalciteSqlParser;
 import org.roaringbitmap.IntConsumer;
-import org.roaringbitmap.RoaringBitmap;
 import org.roaringbitmap.buffer.MutableRoaringBitmap;
 
 
 /**
  * Json index for mutable segment.
+ * <p>This class is thread-safe for single writer multiple readers without locking. The writer publishes the number of
+ * docs and flattened docs after each document is fully indexed, and readers only consider the published flattened docs
+ * so that they always see a consistent snapshot of the index.
  */
 public class MutableJsonIndexImpl implements MutableJsonIndex {
+  private static final int INITIAL_DOC_ID_MAPPING_CAPACITY = 1024;
+
   private final JsonIndexConfig _jsonIndexConfig;
-  private final Map<String, RoaringBitmap> _postingListMap;
-  private final IntList _docIdMapping;
-  private final ReentrantReadWriteLock.ReadLock _readLock;
-  private final ReentrantReadWriteLock.WriteLock _writeLock;
+  private final Map<String, RealtimePostingList> _postingListMap;
+
+  // Flattened doc id -> doc id, append-only and replaced when growing
+  private volatile int[] _docIdMapping;
+  // Number of docs (high 32 bits) and flattened docs (low 32 bits) published to the readers
+  private volatile long _numPublishedDocs;
 
+  // Only accessed by the writer
   private int _nextDocId;
   private int _nextFlattenedDocId;
 
   public MutableJsonIndexImpl(JsonIndexConfig jsonIndexConfig) {
     _jsonIndexConfig = jsonIndexConfig;
-    _postingListMap = new HashMap<>();
-    _docIdMapping = new IntArrayList();
-
-    ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock();
-    _readLock = readWriteLock.readLock();
-    _writeLock = readWriteLock.writeLock();
+    _postingListMap = new ConcurrentHashMap<>();
+    _docIdMapping = new int[INITIAL_DOC_ID_MAPPING_CAPACITY];
   }
 
   /**
@@ -76,16 +78,10 @@ public class MutableJsonIndexImpl implements MutableJsonIndex {
   public void add(String jsonString)
       throws IOException {
     try {
-      List<Map<String, String>> flattenedRecords =
-          JsonUtils.flatten(JsonUtils.stringToJsonNode(jsonString), _jsonIndexConfig);
-      _writeLock.lock();
-      try {
-        addFlattenedRecords(flattenedRecords);
-      } finally {
-        _writeLock.unlock();
-      }
+      addFlattenedRecords(JsonUtils.flatten(JsonUtils.stringToJsonNode(jsonString), _jsonIndexConfig));
     } finally {
       _nextDocId++;
+      _numPublishedDocs = ((long) _nextDocId << 32) | _nextFlattenedDocId;
     }
   }
 
@@ -94,20 +90,24 @@ public class MutableJsonIndexImpl implements MutableJsonIndex {
    */
   private void addFlattenedRecords(List<Map<String, String>> records) {
     int numRecords = records.size();
-    Preconditions.checkState(_nextFlattenedDocId + numRecords >= 0, "Got more than %s flattened records",
-        Integer.MAX_VALUE);
-    for (int i = 0; i < numRecords; i++) {
-      _docIdMapping.add(_nextDocId);
+    int numFlattenedDocs = _nextFlattenedDocId + numRecords;
+    Preconditions.checkState(numFlattenedDocs >= 0, "Got more than %s flattened records", Integer.MAX_VALUE);
+    int[] docIdMapping = _docIdMapping;
+    if (numFlattenedDocs > docIdMapping.length) {
+      docIdMapping = Arrays.copyOf(docIdMapping,
+          (int) Math.min(Math.max((long) docIdMapping.length << 1, numFlattenedDocs), Integer.MAX_VALUE));
+      _docIdMapping = docIdMapping;
     }
+    Arrays.fill(docIdMapping, _nextFlattenedDocId, numFlattenedDocs, _nextDocId);
     // TODO: Consider storing tuples as the key of the posting list so that the strings can be reused, and the hashcode
     //       can be cached.
     for (Map<String, String> record : records) {
       for (Map.Entry<String, String> entry : record.entrySet()) {
         // Put both key and key-value into the posting list. Key is useful for checking if a key exists in the json.
         String key = entry.getKey();
-        _postingListMap.computeIfAbsent(key, k -> new RoaringBitmap()).add(_nextFlattenedDocId);
+        _postingListMap.computeIfAbsent(key, k -> new RealtimePostingList()).add(_nextFlattenedDocId);
         String keyValue = key + JsonIndexCreator.KEY_VALUE_SEPARATOR + entry.getValue();
-        _postingListMap.computeIfAbsent(keyValue, k -> new RoaringBitmap()).add(_nextFlattenedDocId);
+        _postingListMap.computeIfAbsent(keyValue, k -> new RealtimePostingList()).add(_nextFlattenedDocId);
       }
       _nextFlattenedDocId++;
     }
@@ -122,27 +122,37 @@ public class MutableJsonIndexImpl implements MutableJsonIndex {
       throw new BadQueryRequestException("Invalid json match filter: " + filterString);
     }
 
-    _readLock.lock();
-    try {
-      if (filter.getType() == FilterContext.Type.PREDICATE && isExclusive(filter.getPredicate().getType())) {
-        // Handle exclusive predicate separately because the flip can only be applied to the unflattened doc ids in
-        // order to get the correct result, and it cannot be nested
-        RoaringBitmap matchingFlattenedDocIds = getMatchingFlattenedDocIds(filter.getPredicate());
-        MutableRoaringBitmap matchingDocIds = new MutableRoaringBitmap();
-        matchingFlattenedDocIds.forEach(
-            (IntConsumer) flattenedDocId -> matchingDocIds.add(_docIdMapping.getInt(flattenedDocId)));
-        matchingDocIds.flip(0, (long) _nextDocId);
-        return matchingDocIds;
-      } else {
-        RoaringBitmap matchingFlattenedDocIds = getMatchingFlattenedDocIds(filter);
-        MutableRoaringBitmap matchingDocIds = new MutableRoaringBitmap();
-        matchingFlattenedDocIds.forEach(
-            (IntConsumer) flattenedDocId -> matchingDocIds.add(_docIdMapping.getInt(flattenedDocId)));
-        return matchingDocIds;
-      }
-    } finally {
-      _readLock.unlock();
+    // NOTE: Read the published doc counts before the doc id mapping so that the mapping covers all the published
+    //       flattened docs. Flattened docs added after the snapshot might show up in the posting lists, and are
+    //       skipped.
+    long numPublishedDocs = _numPublishedDocs;
+    int numDocs = (int) (numPublishedDocs >>> 32);
+    int numFlattenedDocs = (int) numPublishedDocs;
+    int[] docIdMapping = _docIdMapping;
+    MutableRoaringBitmap matchingDocIds = new MutableRoaringBitmap();
+    if (filter.getType() == FilterContext.Type.PREDICATE && isExclusive(filter.getPredicate().getType())) {
+      // Handle exclusive predicate separately because the flip can only be applied to the unflattened doc ids in
+      // order to get the correct result, and it cannot be nested
+      MutableRoaringBitmap matchingFlattenedDocIds = getMatchingFlattenedDocIds(filter.getPredicate());
+      addDocIds(matchingFlattenedDocIds, numFlattenedDocs, docIdMapping, matchingDocIds);
+      matchingDocIds.flip(0, (long) numDocs);
+    } else {
+      MutableRoaringBitmap matchingFlattenedDocIds = getMatchingFlattenedDocIds(filter);
+      addDocIds(matchingFlattenedDocIds, numFlattenedDocs, docIdMapping, matchingDocIds);
     }
+    return matchingDocIds;
+  }
+
+  /**
+   * Adds the doc ids of the matching flattened docs within the published flattened docs into the given bitmap.
+   */
+  private static void addDocIds(MutableRoaringBitmap matchingFlattenedDocIds, int numFlattenedDocs,
+      int[] docIdMapping, MutableRoaringBitmap matchingDocIds) {
+    matchingFlattenedDocIds.forEach((IntConsumer) flattenedDocId -> {
+      if (flattenedDocId < numFlattenedDocs) {
+        matchingDocIds.add(docIdMapping[flattenedDocId]);
+      }
+    });
   }
 
   /**
@@ -156,12 +166,12 @@ public class MutableJsonIndexImpl implements MutableJsonIndex {
   /**
    * Returns the matching flattened doc ids for the given filter.
    */
-  private RoaringBitmap getMatchingFlattenedDocIds(FilterContext filter) {
+  private MutableRoaringBitmap getMatchingFlattenedDocIds(FilterContext filter) {
     switch (filter.getType()) {
       case AND: {
         List<FilterContext> children = filter.getChildren();
         int numChildren = children.size();
-        RoaringBitmap matchingDocIds = getMatchingFlattenedDocIds(children.get(0));
+        MutableRoaringBitmap matchingDocIds = getMatchingFlattenedDocIds(children.get(0));
         for (int i = 1; i < numChildren; i++) {
           matchingDocIds.and(getMatchingFlattenedDocIds(children.get(i)));
         }
@@ -170,7 +180,7 @@ public class MutableJsonIndexImpl implements MutableJsonIndex {
       case OR: {
         List<FilterContext> children = filter.getChildren();
         int numChildren = children.size();
-        RoaringBitmap matchingDocIds = getMatchingFlattenedDocIds(children.get(0));
+        MutableRoaringBitmap matchingDocIds = getMatchingFlattenedDocIds(children.get(0));
         for (int i = 1; i < numChildren; i++) {
           matchingDocIds.or(getMatchingFlattenedDocIds(children.get(i)));
         }
@@ -192,7 +202,7 @@ public class MutableJsonIndexImpl implements MutableJsonIndex {
    * <p>Exclusive predicate is handled as the inclusive predicate, and the caller should flip the unflattened doc ids in
    * order to get the correct exclusive predicate result.
    */
-  private RoaringBitmap getMatchingFlattenedDocIds(Predicate predicate) {
+  private MutableRoaringBitmap getMatchingFlattenedDocIds(Predicate predicate) {
     ExpressionContext lhs = predicate.getLhs();
     Preconditions.checkArgument(lhs.getType() == ExpressionContext.Type.IDENTIFIER,
         "Left-hand side of the predicate must be an identifier, got: %s (%s). Put double quotes around the identifier"
@@ -215,7 +225,7 @@ public class MutableJsonIndexImpl implements MutableJsonIndex {
     // E.g. ".foo[*].bar[*].foobar"='abc' -> ".foo..bar..foobar"='abc'
     // E.g. ".foo[0].bar[1].foobar"='abc' -> ".foo.$index"='0' && ".foo..bar.$index"='1' && ".foo..bar..foobar"='abc'
     // E.g. ".foo[0][1].bar"='abc' -> ".foo.$index"='0' && ".foo..$index"='1' && ".foo...bar"='abc'
-    RoaringBitmap matchingDocIds = null;
+    MutableRoaringBitmap matchingDocIds = null;
     int leftBracketIndex;
     while ((leftBracketIndex = key.indexOf('[')) >= 0) {
       int rightBracketIndex = key.indexOf(']', leftBracketIndex + 2);
@@ -229,15 +239,15 @@ public class MutableJsonIndexImpl implements MutableJsonIndex {
         // "[0]"=1 -> ".$index"='0' && "."='1'
         // ".foo[1].bar"='abc' -> ".foo.$index"=1 && ".foo..bar"='abc'
         String searchKey = leftPart + JsonUtils.ARRAY_INDEX_KEY + BaseJsonIndexCreator.KEY_VALUE_SEPARATOR + arrayIndex;
-        RoaringBitmap docIds = _postingListMap.get(searchKey);
-        if (docIds != null) {
+        RealtimePostingList postingList = _postingListMap.get(searchKey);
+        if (postingList != null) {
           if (matchingDocIds == null) {
-            matchingDocIds = docIds.clone();
+            matchingDocIds = postingList.getDocIds();
           } else {
-            matchingDocIds.and(docIds);
+            matchingDocIds.and(postingList.getDocIds());
           }
         } else {
-          return new RoaringBitmap();
+          return new MutableRoaringBitmap();
         }
       }
 
@@ -249,26 +259,26 @@ public class MutableJsonIndexImpl implements MutableJsonIndex {
       String value = predicateType == Predicate.Type.EQ ? ((EqPredicate) predicate).getValue()
           : ((NotEqPredicate) predicate).getValue();
       String keyValuePair = key + BaseJsonIndexCreator.KEY_VALUE_SEPARATOR + value;
-      RoaringBitmap matchingDocIdsForKeyValuePair = _postingListMap.get(keyValuePair);
-      if (matchingDocIdsForKeyValuePair != null) {
+      RealtimePostingList postingList = _postingListMap.get(keyValuePair);
+      if (postingList != null) {
         if (matchingDocIds == null) {
-          return matchingDocIdsForKeyValuePair.clone();
+          return postingList.getDocIds();
         } else {
-          matchingDocIds.and(matchingDocIdsForKeyValuePair);
+          matchingDocIds.and(postingList.getDocIds());
           return matchingDocIds;
         }
       } else {
-        return new RoaringBitmap();
+        return new MutableRoaringBitmap();
       }
     } else if (predicateType == Predicate.Type.IN || predicateType == Predicate.Type.NOT_IN) {
       List<String> values = predicateType == Predicate.Type.IN ? ((InPredicate) predicate).getValues()
           : ((NotInPredicate) predicate).getValues();
-      RoaringBitmap matchingDocIdsForKeyValuePairs = new RoaringBitmap();
+      MutableRoaringBitmap matchingDocIdsForKeyValuePairs = new MutableRoaringBitmap();
       for (String value : values) {
         String keyValuePair = key + BaseJsonIndexCreator.KEY_VALUE_SEPARATOR + value;
-        RoaringBitmap matchingDocIdsForKeyValuePair = _postingListMap.get(keyValuePair);
-        if (matchingDocIdsForKeyValuePair != null) {
-          matchingDocIdsForKeyValuePairs.or(matchingDocIdsForKeyValuePair);
+        RealtimePostingList postingList = _postingListMap.get(keyValuePair);
+        if (postingList != null) {
+          matchingDocIdsForKeyValuePairs.or(postingList.getDocIds());
         }
       }
       if (matchingDocIds == null) {
@@ -278,16 +288,16 @@ public class MutableJsonIndexImpl implements MutableJsonIndex {
         return matchingDocIds;
       }
     } else if (predicateType == Predicate.Type.IS_NOT_NULL || predicateType == Predicate.Type.IS_NULL) {
-      RoaringBitmap matchingDocIdsForKey = _postingListMap.get(key);
-      if (matchingDocIdsForKey != null) {
+      RealtimePostingList postingList = _postingListMap.get(key);
+      if (postingList != null) {
         if (matchingDocIds == null) {
-          return matchingDocIdsForKey.clone();
+          return postingList.getDocIds();
         } else {
-          matchingDocIds.and(matchingDocIdsForKey);
+          matchingDocIds.and(postingList.getDocIds());
           return matchingDocIds;
         }
       } else {
-        return new RoaringBitmap();
+        return new MutableRoaringBitmap();
       }
     } else {
       throw new IllegalStateException("Unsupported json_match predicate type: " + predicate);
@@ -438,6 +438,12 @@ public class DictionaryIndexType
     } else {
       dictionaryColumnSize = context.getEstimatedColSize();
     }
+    // Max size in bytes of the values, or -1 if unknown. STRING values are truncated to the max length of the field by
+    // the SanitizationTransformer, and each char takes at most 3 bytes in UTF-8.
+    int maxValueLength = -1;
+    if (storedType == FieldSpec.DataType.STRING) {
+      maxValueLength = (int) Math.min(context.getFieldSpec().getMaxLength() * 3L, Integer.MAX_VALUE);
+    }
     // NOTE: preserve 10% buffer for cardinality to reduce the chance of re-sizing the dictionary
     // TODO(mutable-index-spi): Actually this 10% extra was applied twice, multiplying the cardinality by 1.21
     //  first time it was applied in MutableSegmentImpl and then in DefaultMutableIndexProvider (where this code was
@@ -446,6 +452,7 @@ public class DictionaryIndexType
     String dictionaryAllocationContext =
         IndexUtil.buildAllocationContext(segmentName, column, V1Constants.Dict.FILE_EXTENSION);
     return MutableDictionaryFactory.getMutableDictionary(storedType, context.isOffHeap(), context.getMemoryManager(),
-        dictionaryColumnSize, Math.min(estimatedCardinality, context.getCapacity()), dictionaryAllocationContext);
+        dictionaryColumnSize, maxValueLength, Math.min(estimatedCardinality, context.getCapacity()),
+        dictionaryAllocationContext);
   }
 }
@@ -19,17 +19,20 @@
 
 package org.apache.pinot.segment.local.segment.index.forward;
 
+import org.apache.pinot.segment.local.io.compression.IntegerCodec;
 import org.apache.pinot.segment.local.io.writer.impl.VarByteChunkSVForwardIndexWriterV4;
 import org.apache.pinot.segment.local.segment.index.readers.forward.FixedBitMVForwardIndexReader;
 import org.apache.pinot.segment.local.segment.index.readers.forward.FixedBitSVForwardIndexReaderV2;
 import org.apache.pinot.segment.local.segment.index.readers.forward.FixedByteChunkMVForwardIndexReader;
 import org.apache.pinot.segment.local.segment.index.readers.forward.FixedByteChunkSVForwardIndexReader;
 import org.apache.pinot.segment.local.segment.index.readers.forward.FixedBytePower2ChunkSVForwardIndexReader;
+import org.apache.pinot.segment.local.segment.index.readers.forward.IntegerCodecChunkSVForwardIndexReader;
 import org.apache.pinot.segment.local.segment.index.readers.forward.VarByteChunkMVForwardIndexReader;
 import org.apache.pinot.segment.local.segment.index.readers.forward.VarByteChunkSVForwardIndexReader;
 import org.apache.pinot.segment.local.segment.index.readers.forward.VarByteChunkSVForwardIndexReaderV4;
 import org.apache.pinot.segment.local.segment.index.readers.sorted.SortedIndexReaderImpl;
 import org.apache.pinot.segment.spi.ColumnMetadata;
+import org.apache.pinot.segment.spi.compression.ChunkCompressionType;
 import org.apache.pinot.segment.spi.index.ForwardIndexConfig;
 import org.apache.pinot.segment.spi.index.IndexReaderConstraintException;
 import org.apache.pinot.segment.spi.index.IndexReaderFactory;
@@ -44,6 +47,9 @@ class ForwardIndexReaderFactory extends IndexReaderFactory.Default<ForwardIndexC
 
   public static final ForwardIndexReaderFactory INSTANCE = new ForwardIndexReaderFactory();
 
+  // Offset of the compression type within the header of the chunk-based raw forward index (version > 1)
+  private static final int COMPRESSION_TYPE_OFFSET = 5 * Integer.BYTES;
+
   @Override
   protected IndexType<ForwardIndexConfig, ForwardIndexReader, ?> getIndexType() {
     return StandardIndexes.forward();
@@ -73,6 +79,13 @@ class ForwardIndexReaderFactory extends IndexReaderFactory.Default<ForwardIndexC
       if (metadata.isSingleValue()) {
         int version = dataBuffer.getInt(0);
         if (storedType.isFixedWidth()) {
+          if (version > 1 && (storedType == FieldSpec.DataType.INT || storedType == FieldSpec.DataType.LONG)) {
+            ChunkCompressionType compressionType =
+                ChunkCompressionType.valueOf(dataBuffer.getInt(COMPRESSION_TYPE_OFFSET));
+            if (IntegerCodec.isIntegerCodec(compressionType)) {
+              return new IntegerCodecChunkSVForwardIndexReader(dataBuffer, storedType);
+            }
+          }
           return version >= FixedBytePower2ChunkSVForwardIndexReader.VERSION
               ? new FixedBytePower2ChunkSVForwardIndexReader(dataBuffer, storedType)
               : new FixedByteChunkSVForwardIndexReader(dataBuffer, storedType);
@@ -25,6 +25,7 @@ import java.nio.DoubleBuffer;
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
 import java.nio.LongBuffer;
+import javax.annotation.Nullable;
 import org.apache.pinot.segment.local.io.compression.ChunkCompressorFactory;
 import org.apache.pinot.segment.local.io.writer.impl.BaseChunkSVForwardIndexWriter;
 import org.apache.pinot.segment.spi.compression.ChunkCompressionType;
@@ -223,7 +224,21 @@ public abstract class BaseChunkForwardIndexReader implements ForwardIndexReader<
         default:
           throw new IllegalArgumentException();
       }
+    } else if (_storedType == DataType.INT && _isCompressed && _isSingleValue) {
+      prefetchChunks(docIds, length, context);
+      int i = 0;
+      while (i < length) {
+        ByteBuffer chunkBuffer = getChunkBuffer(docIds[i], context);
+        int chunkStartDocId = context.getChunkId() * _numDocsPerChunk;
+        int end = getChunkRunEnd(docIds, i, length, chunkStartDocId);
+        for (; i < end; i++) {
+          values[i] = chunkBuffer.getInt((docIds[i] - chunkStartDocId) * Integer.BYTES);
+        }
+      }
     } else {
+      if (_isCompressed) {
+        prefetchChunks(docIds, length, context);
+      }
       ForwardIndexReader.super.readValuesSV(docIds, length, values, context);
     }
   }
@@ -265,7 +280,21 @@ public abstract class BaseChunkForwardIndexReader implements ForwardIndexReader<
         default:
           throw new IllegalArgumentException();
       }
+    } else if (_storedType == DataType.LONG && _isCompressed && _isSingleValue) {
+      prefetchChunks(docIds, length, context);
+      int i = 0;
+      while (i < length) {
+        ByteBuffer chunkBuffer = getChunkBuffer(docIds[i], context);
+        int chunkStartDocId = context.getChunkId() * _numDocsPerChunk;
+        int end = getChunkRunEnd(docIds, i, length, chunkStartDocId);
+        for (; i < end; i++) {
+          values[i] = chunkBuffer.getLong((docIds[i] - chunkStartDocId) * Long.BYTES);
+        }
+      }
     } else {
+      if (_isCompressed) {
+        prefetchChunks(docIds, length, context);
+      }
       ForwardIndexReader.super.readValuesSV(docIds, length, values, context);
     }
   }
@@ -307,7 +336,21 @@ public abstract class BaseChunkForwardIndexReader implements ForwardIndexReader<
         default:
           throw new IllegalArgumentException();
       }
+    } else if (_storedType == DataType.FLOAT && _isCompressed && _isSingleValue) {
+      prefetchChunks(docIds, length, context);
+      int i = 0;
+      while (i < length) {
+        ByteBuffer chunkBuffer = getChunkBuffer(docIds[i], context);
+        int chunkStartDocId = context.getChunkId() * _numDocsPerChunk;
+        int end = getChunkRunEnd(docIds, i, length, chunkStartDocId);
+        for (; i < end; i++) {
+          values[i] = chunkBuffer.getFloat((docIds[i] - chunkStartDocId) * Float.BYTES);
+        }
+      }
     } else {
+      if (_isCompressed) {
+        prefetchChunks(docIds, length, context);
+      }
       ForwardIndexReader.super.readValuesSV(docIds, length, values, context);
     }
   }
@@ -350,7 +393,21 @@ public abstract class BaseChunkForwardIndexReader implements ForwardIndexReader<
         default:
           throw new IllegalArgumentException();
       }
+    } else if (_storedType == DataType.DOUBLE && _isCompressed && _isSingleValue) {
+      prefetchChunks(docIds, length, context);
+      int i = 0;
+      while (i < length) {
+        ByteBuffer chunkBuffer = getChunkBuffer(docIds[i], context);
+        int chunkStartDocId = context.getChunkId() * _numDocsPerChunk;
+        int end = getChunkRunEnd(docIds, i, length, chunkStartDocId);
+        for (; i < end; i++) {
+          values[i] = chunkBuffer.getDouble((docIds[i] - chunkStartDocId) * Double.BYTES);
+        }
+      }
     } else {
+      if (_isCompressed) {
+        prefetchChunks(docIds, length, context);
+      }
       ForwardIndexReader.super.readValuesSV(docIds, length, values, context);
     }
   }
@@ -361,6 +418,65 @@ public abstract class BaseChunkForwardIndexReader implements ForwardIndexReader<
     // caller is responsible of closing the PinotDataBuffer.
   }
 
+  /**
+   * Hints the data buffer to prefetch the chunks containing the given documents, except for the chunk already loaded
+   * in the reader context, so that the pages of the upcoming chunks can be read ahead while the current chunk is being
+   * decompressed. Adjacent chunks are merged into a single hint. The document ids are sorted, so the reader context
+   * tracks the last prefetched chunk to hint each chunk at most once across the batches read with the same context.
+   */
+  protected void prefetchChunks(int[] docIds, int length, @Nullable ChunkReaderContext context) {
+    if (context == null || length == 0) {
+      return;
+    }
+    int currentChunkId = context.getChunkId();
+    int lastPrefetchedChunkId = context.getLastPrefetchedChunkId();
+    if (docIds[length - 1] / _numDocsPerChunk <= lastPrefetchedChunkId) {
+      return;
+    }
+    int chunkStartDocId = 0;
+    int chunkEndDocId = 0;
+    long rangeStart = -1;
+    long rangeEnd = -1;
+    for (int i = 0; i < length; i++) {
+      int docId = docIds[i];
+      if (docId >= chunkStartDocId && docId < chunkEndDocId) {
+        continue;
+      }
+      int chunkId = docId / _numDocsPerChunk;
+      chunkStartDocId = chunkId * _numDocsPerChunk;
+      chunkEndDocId = chunkStartDocId + _numDocsPerChunk;
+      if (chunkId == currentChunkId || chunkId <= lastPrefetchedChunkId) {
+        continue;
+      }
+      long chunkPosition = getChunkPosition(chunkId);
+      if (chunkPosition != rangeEnd) {
+        if (rangeEnd > rangeStart) {
+          _dataBuffer.prefetch(rangeStart, rangeEnd - rangeStart);
+        }
+        rangeStart = chunkPosition;
+      }
+      rangeEnd = chunkId == _numChunks - 1 ? _dataBuffer.size() : getChunkPosition(chunkId + 1);
+      lastPrefetchedChunkId = chunkId;
+    }
+    if (rangeEnd > rangeStart) {
+      _dataBuffer.prefetch(rangeStart, rangeEnd - rangeStart);
+    }
+    context.setLastPrefetchedChunkId(lastPrefetchedChunkId);
+  }
+
+  /**
+   * Returns the end index (exclusive) of the run of documents starting at the given index that belong to the chunk
+   * starting at the given document id.
+   */
+  protected int getChunkRunEnd(int[] docIds, int start, int length, int chunkStartDocId) {
+    int chunkEndDocId = chunkStartDocId + _numDocsPerChunk;
+    int end = start + 1;
+    while (end < length && docIds[end] >= chunkStartDocId && docIds[end] < chunkEndDocId) {
+      end++;
+    }
+    return end;
+  }
+
   private boolean isContiguousRange(int[] docIds, int length) {
     return docIds[length - 1] - docIds[0] == length - 1;
   }
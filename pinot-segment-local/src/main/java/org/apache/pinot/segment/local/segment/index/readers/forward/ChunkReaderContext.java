@@ -33,15 +33,18 @@ import org.apache.pinot.segment.spi.memory.CleanerUtil;
  *     chunk decompression.
  *   </li>
  *   <li>Id for the chunk</li>
+ *   <li>Id of the last chunk hinted for prefetch, so that each chunk is prefetched at most once</li>
  * </ul>
  */
 public class ChunkReaderContext implements ForwardIndexReaderContext {
   private final ByteBuffer _chunkBuffer;
   private int _chunkId;
+  private int _lastPrefetchedChunkId;
 
   public ChunkReaderContext(int maxChunkSize) {
     _chunkBuffer = ByteBuffer.allocateDirect(maxChunkSize);
     _chunkId = -1;
+    _lastPrefetchedChunkId = -1;
   }
 
   public ByteBuffer getChunkBuffer() {
@@ -56,6 +59,14 @@ public class ChunkReaderContext implements ForwardIndexReaderContext {
     _chunkId = chunkId;
   }
 
+  public int getLastPrefetchedChunkId() {
+    return _lastPrefetchedChunkId;
+  }
+
+  public void setLastPrefetchedChunkId(int lastPrefetchedChunkId) {
+    _lastPrefetchedChunkId = lastPrefetchedChunkId;
+  }
+
   @Override
   public void close()
       throws IOException {
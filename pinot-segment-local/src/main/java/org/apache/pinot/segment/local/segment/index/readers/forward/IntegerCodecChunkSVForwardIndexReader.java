@@ -0,0 +1,166 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.segment.index.readers.forward;
+
+import com.google.common.base.Preconditions;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import org.apache.pinot.segment.local.io.compression.IntegerCodec;
+import org.apache.pinot.segment.local.io.writer.impl.FixedByteChunkSVForwardIndexWriter;
+import org.apache.pinot.segment.spi.compression.ChunkCompressionType;
+import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+
+
+/**
+ * Chunk-based single-value raw (non-dictionary-encoded) forward index reader for INT/LONG values encoded with the
+ * lightweight integer encodings (FOR, DELTA and DELTA_DELTA). Instead of decompressing the whole chunk, values are
+ * decoded directly from the encoded chunk:
+ * <ul>
+ *   <li>FOR: single values are decoded without decoding the block</li>
+ *   <li>DELTA/DELTA_DELTA: the block (of {@link IntegerCodec#BLOCK_SIZE} values) containing the value is decoded and
+ *   cached in the reader context</li>
+ * </ul>
+ * Ranges of values are decoded block by block.
+ * <p>For data layout, please refer to the documentation for {@link FixedByteChunkSVForwardIndexWriter} and
+ * {@link IntegerCodec}
+ */
+public final class IntegerCodecChunkSVForwardIndexReader extends BaseChunkForwardIndexReader {
+  private final boolean _isRandomAccess;
+
+  public IntegerCodecChunkSVForwardIndexReader(PinotDataBuffer dataBuffer, DataType storedType) {
+    super(dataBuffer, storedType, true);
+    Preconditions.checkState(storedType == DataType.INT || storedType == DataType.LONG,
+        "Unsupported stored type: %s for compression type: %s", storedType, _compressionType);
+    Preconditions.checkState(IntegerCodec.isIntegerCodec(_compressionType), "Unsupported compression type: %s",
+        _compressionType);
+    _isRandomAccess = _compressionType == ChunkCompressionType.FOR;
+  }
+
+  @Override
+  public ChunkReaderContext createContext() {
+    return new Context();
+  }
+
+  @Override
+  public int getInt(int docId, ChunkReaderContext context) {
+    return (int) getValue(docId, (Context) context);
+  }
+
+  @Override
+  public long getLong(int docId, ChunkReaderContext context) {
+    return getValue(docId, (Context) context);
+  }
+
+  @Override
+  public void readValuesSV(int[] docIds, int length, int[] values, ChunkReaderContext context) {
+    Context readerContext = (Context) context;
+    prefetchChunks(docIds, length, context);
+    int i = 0;
+    while (i < length) {
+      int blockStartDocId = loadBlock(docIds[i], readerContext);
+      int blockEndDocId = blockStartDocId + readerContext._numBlockValues;
+      long[] block = readerContext._block;
+      int docId = docIds[i];
+      while (docId >= blockStartDocId && docId < blockEndDocId) {
+        values[i] = (int) block[docId - blockStartDocId];
+        if (++i == length) {
+          break;
+        }
+        docId = docIds[i];
+      }
+    }
+  }
+
+  @Override
+  public void readValuesSV(int[] docIds, int length, long[] values, ChunkReaderContext context) {
+    Context readerContext = (Context) context;
+    prefetchChunks(docIds, length, context);
+    int i = 0;
+    while (i < length) {
+      int blockStartDocId = loadBlock(docIds[i], readerContext);
+      int blockEndDocId = blockStartDocId + readerContext._numBlockValues;
+      long[] block = readerContext._block;
+      int docId = docIds[i];
+      while (docId >= blockStartDocId && docId < blockEndDocId) {
+        values[i] = block[docId - blockStartDocId];
+        if (++i == length) {
+          break;
+        }
+        docId = docIds[i];
+      }
+    }
+  }
+
+  private long getValue(int docId, Context context) {
+    if (_isRandomAccess) {
+      int chunkId = docId / _numDocsPerChunk;
+      return IntegerCodec.decodeValue(getEncodedChunk(chunkId, context), docId - chunkId * _numDocsPerChunk);
+    } else {
+      int blockStartDocId = loadBlock(docId, context);
+      return context._block[docId - blockStartDocId];
+    }
+  }
+
+  /**
+   * Decodes the block containing the given document into the reader context if it is not already cached, and returns
+   * the first document id of the block.
+   */
+  private int loadBlock(int docId, Context context) {
+    int chunkId = docId / _numDocsPerChunk;
+    int chunkStartDocId = chunkId * _numDocsPerChunk;
+    ByteBuffer chunk = getEncodedChunk(chunkId, context);
+    int blockId = (docId - chunkStartDocId) / IntegerCodec.BLOCK_SIZE;
+    if (context._blockId != blockId) {
+      context._numBlockValues = IntegerCodec.decodeBlock(chunk, blockId, context._block);
+      context._blockId = blockId;
+    }
+    return chunkStartDocId + blockId * IntegerCodec.BLOCK_SIZE;
+  }
+
+  private ByteBuffer getEncodedChunk(int chunkId, Context context) {
+    if (context.getChunkId() != chunkId) {
+      long chunkPosition = getChunkPosition(chunkId);
+      int chunkSize;
+      if (chunkId == _numChunks - 1) { // Last chunk.
+        chunkSize = (int) (_dataBuffer.size() - chunkPosition);
+      } else {
+        chunkSize = (int) (getChunkPosition(chunkId + 1) - chunkPosition);
+      }
+      context._encodedChunk = _dataBuffer.toDirectByteBuffer(chunkPosition, chunkSize, ByteOrder.BIG_ENDIAN);
+      context._blockId = -1;
+      context.setChunkId(chunkId);
+    }
+    return context._encodedChunk;
+  }
+
+  /**
+   * Reader context caching the encoded chunk and the last decoded block.
+   */
+  private static final class Context extends ChunkReaderContext {
+    final long[] _block = new long[IntegerCodec.BLOCK_SIZE];
+    ByteBuffer _encodedChunk;
+    int _blockId = -1;
+    int _numBlockValues;
+
+    Context() {
+      super(0);
+    }
+  }
+}
@@ -107,6 +107,61 @@ public final class VarByteChunkSVForwardIndexReader extends BaseChunkForwardInde
     return new String(bytes, 0, length, UTF_8);
   }
 
+  /**
+   * Reads the STRING values from the compressed index chunk by chunk: each chunk is decompressed once and the values of
+   * all the requested documents within it are decoded directly from the decompressed chunk.
+   */
+  @Override
+  public void readValuesSV(int[] docIds, int length, String[] values, ChunkReaderContext context) {
+    if (!_isCompressed || _storedType != DataType.STRING) {
+      super.readValuesSV(docIds, length, values, context);
+      return;
+    }
+    prefetchChunks(docIds, length, context);
+    byte[] bytes = _reusableBytes.get();
+    int i = 0;
+    while (i < length) {
+      ByteBuffer chunkBuffer = getChunkBuffer(docIds[i], context);
+      int chunkStartDocId = context.getChunkId() * _numDocsPerChunk;
+      int end = getChunkRunEnd(docIds, i, length, chunkStartDocId);
+      for (; i < end; i++) {
+        int chunkRowId = docIds[i] - chunkStartDocId;
+        int valueStartOffset = chunkBuffer.getInt(chunkRowId * ROW_OFFSET_SIZE);
+        int valueLength = getValueEndOffset(chunkRowId, chunkBuffer) - valueStartOffset;
+        chunkBuffer.position(valueStartOffset);
+        chunkBuffer.get(bytes, 0, valueLength);
+        values[i] = new String(bytes, 0, valueLength, UTF_8);
+      }
+    }
+  }
+
+  /**
+   * Reads the BYTES values from the compressed index chunk by chunk: each chunk is decompressed once and the values of
+   * all the requested documents within it are copied directly from the decompressed chunk.
+   */
+  @Override
+  public void readValuesSV(int[] docIds, int length, byte[][] values, ChunkReaderContext context) {
+    if (!_isCompressed || _storedType != DataType.BYTES) {
+      super.readValuesSV(docIds, length, values, context);
+      return;
+    }
+    prefetchChunks(docIds, length, context);
+    int i = 0;
+    while (i < length) {
+      ByteBuffer chunkBuffer = getChunkBuffer(docIds[i], context);
+      int chunkStartDocId = context.getChunkId() * _numDocsPerChunk;
+      int end = getChunkRunEnd(docIds, i, length, chunkStartDocId);
+      for (; i < end; i++) {
+        int chunkRowId = docIds[i] - chunkStartDocId;
+        int valueStartOffset = chunkBuffer.getInt(chunkRowId * ROW_OFFSET_SIZE);
+        byte[] value = new byte[getValueEndOffset(chunkRowId, chunkBuffer) - valueStartOffset];
+        chunkBuffer.position(valueStartOffset);
+        chunkBuffer.get(value);
+        values[i] = value;
+      }
+    }
+  }
+
   @Override
   public byte[] getBytes(int docId, ChunkReaderContext context) {
     if (_isCompressed) {
@@ -90,7 +90,7 @@ public class VarByteChunkSVForwardIndexReaderV4
 
   @Override
   public String getString(int docId, ReaderContext context) {
-    return new String(context.getValue(docId), StandardCharsets.UTF_8);
+    return context.getString(docId);
   }
 
   @Override
@@ -98,6 +98,22 @@ public class VarByteChunkSVForwardIndexReaderV4
     return context.getValue(docId);
   }
 
+  @Override
+  public void readValuesSV(int[] docIds, int length, String[] values, ReaderContext context) {
+    context.prefetchChunks(docIds, length);
+    for (int i = 0; i < length; i++) {
+      values[i] = context.getString(docIds[i]);
+    }
+  }
+
+  @Override
+  public void readValuesSV(int[] docIds, int length, byte[][] values, ReaderContext context) {
+    context.prefetchChunks(docIds, length);
+    for (int i = 0; i < length; i++) {
+      values[i] = context.getValue(docIds[i]);
+    }
+  }
+
   @Nullable
   @Override
   public ReaderContext createContext() {
@@ -120,6 +136,10 @@ public class VarByteChunkSVForwardIndexReaderV4
     protected int _nextDocIdOffset;
     protected boolean _regularChunk;
     protected int _numDocsInCurrentChunk;
+    // Reusable buffer to decode STRING values from the current chunk without allocating an intermediate byte[]
+    private byte[] _reusableBytes = new byte[0];
+    // End offset of the chunks already hinted for prefetch, so that each chunk is prefetched at most once
+    private long _prefetchedChunksEnd;
 
     protected ReaderContext(PinotDataBuffer metadata, PinotDataBuffer chunks) {
       _chunks = chunks;
@@ -127,7 +147,7 @@ public class VarByteChunkSVForwardIndexReaderV4
     }
 
     public byte[] getValue(int docId) {
-      if (docId >= _docIdOffset && docId < _nextDocIdOffset) {
+      if (_regularChunk && docId >= _docIdOffset && docId < _nextDocIdOffset) {
         return readSmallUncompressedValue(docId);
       } else {
         try {
@@ -139,6 +159,75 @@ public class VarByteChunkSVForwardIndexReaderV4
       }
     }
 
+    public String getString(int docId) {
+      if (_regularChunk && docId >= _docIdOffset && docId < _nextDocIdOffset) {
+        ByteBuffer chunk = getChunkBuffer();
+        int index = docId - _docIdOffset;
+        int offset = chunk.getInt((index + 1) * Integer.BYTES);
+        int nextOffset = index == _numDocsInCurrentChunk - 1
+            ? chunk.limit()
+            : chunk.getInt((index + 2) * Integer.BYTES);
+        int length = nextOffset - offset;
+        if (_reusableBytes.length < length) {
+          _reusableBytes = new byte[Math.max(length, _reusableBytes.length * 2)];
+        }
+        chunk.position(offset);
+        chunk.get(_reusableBytes, 0, length);
+        chunk.position(0);
+        return new String(_reusableBytes, 0, length, StandardCharsets.UTF_8);
+      } else {
+        return new String(getValue(docId), StandardCharsets.UTF_8);
+      }
+    }
+
+    /**
+     * Hints the chunks buffer to prefetch the chunks containing the given documents, except for the current chunk, so
+     * that the pages of the upcoming chunks can be read ahead while the current chunk is being decompressed. Adjacent
+     * chunks are merged into a single hint. The document ids are sorted, so the chunks before the end of the previous
+     * hint are skipped to prefetch each chunk at most once across the batches read with the same context.
+     */
+    public void prefetchChunks(int[] docIds, int length) {
+      long rangeStart = -1;
+      long rangeEnd = -1;
+      int i = 0;
+      while (i < length) {
+        int docId = docIds[i];
+        if (docId >= _docIdOffset && docId < _nextDocIdOffset) {
+          i++;
+          continue;
+        }
+        long metadataEntry = chunkIndexFor(docId);
+        int chunkStartDocId = _metadata.getInt(metadataEntry) & 0x7FFFFFFF;
+        long offset = _metadata.getInt(metadataEntry + Integer.BYTES) & 0xFFFFFFFFL;
+        int chunkEndDocId;
+        long limit;
+        if (_metadata.size() - METADATA_ENTRY_SIZE > metadataEntry) {
+          chunkEndDocId = _metadata.getInt(metadataEntry + METADATA_ENTRY_SIZE) & 0x7FFFFFFF;
+          limit = _metadata.getInt(metadataEntry + METADATA_ENTRY_SIZE + Integer.BYTES) & 0xFFFFFFFFL;
+        } else {
+          chunkEndDocId = Integer.MAX_VALUE;
+          limit = _chunks.size();
+        }
+        if (offset >= _prefetchedChunksEnd) {
+          if (offset != rangeEnd) {
+            if (rangeEnd > rangeStart) {
+              _chunks.prefetch(rangeStart, rangeEnd - rangeStart);
+            }
+            rangeStart = offset;
+          }
+          rangeEnd = limit;
+        }
+        // Skip the other documents within the same chunk
+        do {
+          i++;
+        } while (i < length && docIds[i] >= chunkStartDocId && docIds[i] < chunkEndDocId);
+      }
+      if (rangeEnd > rangeStart) {
+        _chunks.prefetch(rangeStart, rangeEnd - rangeStart);
+        _prefetchedChunksEnd = rangeEnd;
+      }
+    }
+
     protected long chunkIndexFor(int docId) {
       long low = 0;
       long high = (_metadata.size() / METADATA_ENTRY_SIZE) - 1;
@@ -162,6 +251,11 @@ public class VarByteChunkSVForwardIndexReaderV4
 
     protected abstract byte[] readSmallUncompressedValue(int docId);
 
+    /**
+     * Returns the buffer of the current (regular) chunk.
+     */
+    protected abstract ByteBuffer getChunkBuffer();
+
     private byte[] decompressAndRead(int docId)
         throws IOException {
       long metadataEntry = chunkIndexFor(docId);
@@ -199,6 +293,11 @@ public class VarByteChunkSVForwardIndexReaderV4
       return readSmallUncompressedValue(docId);
     }
 
+    @Override
+    protected ByteBuffer getChunkBuffer() {
+      return _chunk;
+    }
+
     private byte[] readHugeValue() {
       byte[] value = new byte[_chunk.capacity()];
       _chunk.get(value);
@@ -267,6 +366,11 @@ public class VarByteChunkSVForwardIndexReaderV4
       return bytes;
     }
 
+    @Override
+    protected ByteBuffer getChunkBuffer() {
+      return _decompressedBuffer;
+    }
+
     private byte[] readHugeCompressedValue(ByteBuffer compressed, int decompressedLength)
         throws IOException {
       // huge values don't have length prefixes; they occupy the entire chunk so are unambiguous
@@ -20,18 +20,27 @@ package org.apache.pinot.segment.local.segment.store;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.File;
 import java.io.IOException;
 import java.net.URI;
 import java.nio.file.Path;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import javax.annotation.Nullable;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.configuration.ConfigurationException;
 import org.apache.commons.io.FileUtils;
+import org.apache.pinot.segment.spi.FetchContext;
 import org.apache.pinot.segment.spi.creator.SegmentVersion;
+import org.apache.pinot.segment.spi.index.IndexService;
 import org.apache.pinot.segment.spi.index.IndexType;
 import org.apache.pinot.segment.spi.index.metadata.SegmentMetadataImpl;
 import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
@@ -57,6 +66,11 @@ public class SegmentLocalFSDirectory extends SegmentDirectory {
   private static final long MAX_MMAP_PREFETCH_PAGES = 100 * 1024 * 1024 * 1024L / PAGE_SIZE_BYTES;
   private static final double PREFETCH_SLOWDOWN_PCT = 0.67;
   private static final AtomicLong PREFETCHED_PAGES = new AtomicLong(0);
+  // Bounded pool issuing the asynchronous prefetch hints. Prefetch is best-effort, so hints are dropped when the queue
+  // is full instead of blocking the caller.
+  private static final int NUM_PREFETCH_THREADS = 2;
+  private static final int MAX_PENDING_PREFETCHES = 1024;
+  private static final ThreadPoolExecutor PREFETCH_EXECUTOR = createPrefetchExecutor();
 
   private final File _indexDir;
   private final File _segmentDirectory;
@@ -215,6 +229,53 @@ public class SegmentLocalFSDirectory extends SegmentDirectory {
     return _columnIndexDirectory.getColumnsWithIndex(type);
   }
 
+  /**
+   * Asynchronously hints the OS (MADV_WILLNEED) to page in the buffers of the columns in the fetch context. Hints are
+   * issued on a small shared pool in submission order, so segments queued ahead of query execution are warmed up while
+   * earlier segments are being processed. This is a no-op unless the segment is memory mapped.
+   */
+  @Override
+  public void prefetch(FetchContext fetchContext) {
+    if (_readMode != ReadMode.mmap || fetchContext.isEmpty()) {
+      return;
+    }
+    PREFETCH_EXECUTOR.execute(() -> prefetchBuffers(fetchContext));
+  }
+
+  private synchronized void prefetchBuffers(FetchContext fetchContext) {
+    // The segment might have been closed before the prefetch gets executed
+    if (_columnIndexDirectory == null) {
+      return;
+    }
+    for (Map.Entry<String, List<IndexType<?, ?, ?>>> entry : fetchContext.getColumnToIndexList().entrySet()) {
+      String column = entry.getKey();
+      // null means to prefetch all index types created for the column
+      Collection<IndexType<?, ?, ?>> indexTypes =
+          entry.getValue() != null ? entry.getValue() : IndexService.getInstance().getAllIndexes();
+      for (IndexType<?, ?, ?> indexType : indexTypes) {
+        try {
+          if (_columnIndexDirectory.hasIndexFor(column, indexType)) {
+            PinotDataBuffer buffer = _columnIndexDirectory.getBuffer(column, indexType);
+            buffer.prefetch(0, buffer.size());
+          }
+        } catch (Exception e) {
+          // Some indexes (e.g. text index) are not backed by a buffer
+          LOGGER.debug("Skipped prefetching index: {} for column: {} in segment: {}", indexType, column,
+              fetchContext.getSegmentName(), e);
+        }
+      }
+    }
+  }
+
+  private static ThreadPoolExecutor createPrefetchExecutor() {
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(NUM_PREFETCH_THREADS, NUM_PREFETCH_THREADS, 60L,
+        TimeUnit.SECONDS, new ArrayBlockingQueue<>(MAX_PENDING_PREFETCHES),
+        new ThreadFactoryBuilder().setNameFormat("segment-prefetch-%d").setDaemon(true).build(),
+        new ThreadPoolExecutor.DiscardPolicy());
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
   public Reader createReader()
       throws IOException {
 
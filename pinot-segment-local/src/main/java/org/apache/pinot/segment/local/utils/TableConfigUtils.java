@@ -1017,6 +1017,16 @@ public final class TableConfigUtils {
       Preconditions.checkState(fieldConfigColSpec != null,
           "Column Name " + columnName + " defined in field config list must be a valid column defined in the schema");
 
+      FieldConfig.CompressionCodec compressionCodec = fieldConfig.getCompressionCodec();
+      if (compressionCodec == FieldConfig.CompressionCodec.FOR || compressionCodec == FieldConfig.CompressionCodec.DELTA
+          || compressionCodec == FieldConfig.CompressionCodec.DELTA_DELTA) {
+        DataType storedType = fieldConfigColSpec.getDataType().getStoredType();
+        Preconditions.checkState(
+            fieldConfigColSpec.isSingleValueField() && (storedType == DataType.INT || storedType == DataType.LONG),
+            "Compression codec: %s is only supported for single value INT/LONG columns, got column: %s",
+            compressionCodec, columnName);
+      }
+
       if (indexingConfigs != null) {
         List<String> noDictionaryColumns = indexingConfigs.getNoDictionaryColumns();
         switch (fieldConfig.getEncodingType()) {
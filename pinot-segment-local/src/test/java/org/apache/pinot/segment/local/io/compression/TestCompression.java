@@ -21,6 +21,9 @@ package org.apache.pinot.segment.local.io.compression;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
 import org.apache.pinot.segment.spi.compression.ChunkCompressionType;
 import org.apache.pinot.segment.spi.compression.ChunkCompressor;
 import org.apache.pinot.segment.spi.compression.ChunkDecompressor;
@@ -66,6 +69,56 @@ public class TestCompression {
     roundtrip(compressor, rawInput);
   }
 
+  @DataProvider
+  public Object[][] integerFormats() {
+    Random random = new Random();
+    long[] randomValues = new long[1000];
+    long[] timestamps = new long[1000];
+    long[] mostlySmallValues = new long[1000];
+    long timestamp = System.currentTimeMillis();
+    for (int i = 0; i < 1000; i++) {
+      randomValues[i] = random.nextLong();
+      timestamp += 1000 + random.nextInt(10);
+      timestamps[i] = timestamp;
+      mostlySmallValues[i] = random.nextInt(100) == 0 ? random.nextLong() : random.nextInt(16);
+    }
+    long[][] valueSets = new long[][]{
+        randomValues, timestamps, mostlySmallValues, new long[]{42}, new long[]{Long.MIN_VALUE, Long.MAX_VALUE, 0},
+        new long[]{-1, -2, -3, Integer.MIN_VALUE, Integer.MAX_VALUE}
+    };
+    List<Object[]> formats = new ArrayList<>();
+    for (ChunkCompressionType type : new ChunkCompressionType[]{
+        ChunkCompressionType.FOR, ChunkCompressionType.DELTA, ChunkCompressionType.DELTA_DELTA
+    }) {
+      for (long[] values : valueSets) {
+        ByteBuffer intBuffer = ByteBuffer.allocateDirect(values.length * Integer.BYTES);
+        ByteBuffer longBuffer = ByteBuffer.allocateDirect(values.length * Long.BYTES);
+        for (long value : values) {
+          intBuffer.putInt((int) value);
+          longBuffer.putLong(value);
+        }
+        intBuffer.flip();
+        longBuffer.flip();
+        formats.add(new Object[]{type, Integer.BYTES, intBuffer});
+        formats.add(new Object[]{type, Long.BYTES, longBuffer});
+      }
+    }
+    return formats.toArray(new Object[0][]);
+  }
+
+  @Test(dataProvider = "integerFormats")
+  public void testIntegerCodecRoundtrip(ChunkCompressionType type, int valueSize, ByteBuffer rawInput)
+      throws IOException {
+    ChunkCompressor compressor = ChunkCompressorFactory.getCompressor(type, valueSize);
+    assertEquals(compressor.compressionType(), type);
+    roundtrip(compressor, rawInput);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testIntegerCodecRequiresValueSize() {
+    ChunkCompressorFactory.getCompressor(ChunkCompressionType.FOR);
+  }
+
   private void roundtrip(ChunkCompressor compressor, ByteBuffer rawInput)
       throws IOException {
     ByteBuffer compressedOutput = ByteBuffer.allocateDirect(compressor.maxCompressedSize(rawInput.limit()));
@@ -30,6 +30,7 @@ import java.util.SplittableRandom;
 import java.util.UUID;
 import java.util.stream.IntStream;
 import org.apache.commons.io.FileUtils;
+import org.apache.pinot.segment.local.io.compression.IntegerCodec;
 import org.apache.pinot.segment.local.segment.index.readers.forward.ChunkReaderContext;
 import org.apache.pinot.segment.local.segment.index.readers.forward.VarByteChunkSVForwardIndexReader;
 import org.apache.pinot.segment.spi.V1Constants;
@@ -68,6 +69,7 @@ public class VarByteChunkSVForwardIndexWriterTest {
     int[][] entryLengths = {{1, 1}, {0, 10}, {0, 100}, {100, 100}, {900, 1000}};
     int[] versions = {2, 3};
     return Arrays.stream(ChunkCompressionType.values())
+        .filter(chunkCompressionType -> !IntegerCodec.isIntegerCodec(chunkCompressionType))
         .flatMap(chunkCompressionType -> IntStream.of(versions).boxed().flatMap(
             version -> IntStream.of(numbersOfDocs).boxed()
                 .flatMap(totalDocs -> IntStream.of(numDocsPerChunks).boxed().flatMap(
@@ -75,6 +75,10 @@ public class MutableDictionaryTest {
           "stringColumn", 32)) {
         testSingleReaderSingleWriter(dictionary, FieldSpec.DataType.STRING);
       }
+      try (MutableDictionary dictionary = new StringOffHeapHashMutableDictionary(EST_CARDINALITY, _memoryManager,
+          "stringColumn")) {
+        testSingleReaderSingleWriter(dictionary, FieldSpec.DataType.STRING);
+      }
     } catch (Throwable t) {
       Assert.fail("Failed with random seed: " + RANDOM_SEED, t);
     }
@@ -103,6 +107,10 @@ public class MutableDictionaryTest {
           "stringColumn", 32)) {
         testMultiReadersSingleWriter(dictionary, FieldSpec.DataType.STRING);
       }
+      try (MutableDictionary dictionary = new StringOffHeapHashMutableDictionary(EST_CARDINALITY, _memoryManager,
+          "stringColumn")) {
+        testMultiReadersSingleWriter(dictionary, FieldSpec.DataType.STRING);
+      }
     } catch (Throwable t) {
       Assert.fail("Failed with random seed: " + RANDOM_SEED, t);
     }
@@ -127,7 +135,7 @@ public class MutableDictionaryTest {
     try {
       for (FieldSpec.DataType dataType : DATA_TYPES) {
         try (MutableDictionary dictionary = MutableDictionaryFactory
-            .getMutableDictionary(dataType, false, null, 0, 0, null)) {
+            .getMutableDictionary(dataType, false, null, 0, 0, 0, null)) {
           testMutableDictionary(dictionary, dataType);
         }
       }
@@ -153,6 +161,75 @@ public class MutableDictionaryTest {
     }
   }
 
+  @Test
+  public void testOffHeapHashMutableDictionary() {
+    // Use a small estimated cardinality to also exercise hash table expansion
+    int[] estCardinalities = {1, EST_CARDINALITY};
+
+    try {
+      for (int estCardinality : estCardinalities) {
+        try (MutableDictionary dictionary = new StringOffHeapHashMutableDictionary(estCardinality, _memoryManager,
+            "stringColumn")) {
+          testMutableDictionary(dictionary, FieldSpec.DataType.STRING);
+        }
+        try (MutableDictionary dictionary = new BytesOffHeapHashMutableDictionary(estCardinality, _memoryManager,
+            "bytesColumn")) {
+          testMutableDictionary(dictionary, FieldSpec.DataType.BYTES);
+        }
+      }
+    } catch (Throwable t) {
+      Assert.fail("Failed with random seed: " + RANDOM_SEED, t);
+    }
+  }
+
+  @Test
+  public void testHashMutableDictionarySelection()
+      throws Exception {
+    int highCardinality = MutableDictionaryFactory.HASH_DICTIONARY_MIN_CARDINALITY;
+    try (MutableDictionary dictionary = MutableDictionaryFactory.getMutableDictionary(FieldSpec.DataType.STRING, true,
+        _memoryManager, 32, 1536, highCardinality, "stringColumn")) {
+      Assert.assertTrue(dictionary instanceof StringOffHeapHashMutableDictionary);
+    }
+    try (MutableDictionary dictionary = MutableDictionaryFactory.getMutableDictionary(FieldSpec.DataType.BYTES, true,
+        _memoryManager, 32, 1536, highCardinality, "bytesColumn")) {
+      Assert.assertTrue(dictionary instanceof BytesOffHeapHashMutableDictionary);
+    }
+    try (MutableDictionary dictionary = MutableDictionaryFactory.getMutableDictionary(FieldSpec.DataType.STRING, true,
+        _memoryManager, 32, 1536, EST_CARDINALITY, "stringColumn")) {
+      Assert.assertTrue(dictionary instanceof StringOffHeapMutableDictionary);
+    }
+    // Fall back to the default dictionary when the max length is unknown or too large
+    try (MutableDictionary dictionary = MutableDictionaryFactory.getMutableDictionary(FieldSpec.DataType.BYTES, true,
+        _memoryManager, 32, -1, highCardinality, "bytesColumn")) {
+      Assert.assertTrue(dictionary instanceof BytesOffHeapMutableDictionary);
+    }
+    try (MutableDictionary dictionary = MutableDictionaryFactory.getMutableDictionary(FieldSpec.DataType.STRING, true,
+        _memoryManager, 32, BaseOffHeapHashMutableDictionary.MAX_VALUE_LENGTH + 1, highCardinality, "stringColumn")) {
+      Assert.assertTrue(dictionary instanceof StringOffHeapMutableDictionary);
+    }
+  }
+
+  @Test
+  public void testHashMutableDictionaryValueTooLarge()
+      throws Exception {
+    try (BytesOffHeapHashMutableDictionary dictionary = new BytesOffHeapHashMutableDictionary(EST_CARDINALITY,
+        _memoryManager, "bytesColumn")) {
+      byte[] maxValue = new byte[BaseOffHeapHashMutableDictionary.MAX_VALUE_LENGTH];
+      Assert.assertEquals(dictionary.index(maxValue), 0);
+      try {
+        dictionary.index(new byte[BaseOffHeapHashMutableDictionary.MAX_VALUE_LENGTH + 1]);
+        Assert.fail("Expected IllegalStateException for value exceeding the max size");
+      } catch (IllegalStateException e) {
+        Assert.assertTrue(e.getMessage().contains("exceeds the max size"), e.getMessage());
+      }
+      // The dictionary is not affected by the rejected value
+      Assert.assertEquals(dictionary.length(), 1);
+      Assert.assertEquals(dictionary.getMaxVal(), new ByteArray(maxValue));
+      Assert.assertEquals(dictionary.index(new byte[]{1}), 1);
+      Assert.assertEquals(dictionary.indexOf(new ByteArray(maxValue)), 0);
+    }
+  }
+
   private void testMutableDictionary(MutableDictionary dictionary, FieldSpec.DataType dataType) {
     Map<Object, Integer> valueToDictId = new HashMap<>();
     int numEntries = 0;
@@ -66,6 +66,28 @@ public class OffHeapMutableBytesStoreTest {
     }
   }
 
+  @Test
+  public void testMaxSizeValue()
+      throws Exception {
+    try (OffHeapMutableBytesStore offHeapMutableBytesStore = new OffHeapMutableBytesStore(_memoryManager, null)) {
+      // Each value fills up a whole value buffer
+      byte[] value1 = new byte[OffHeapMutableBytesStore.VALUE_BUFFER_SIZE];
+      Arrays.fill(value1, (byte) 1);
+      byte[] value2 = new byte[OffHeapMutableBytesStore.VALUE_BUFFER_SIZE];
+      Arrays.fill(value2, (byte) 2);
+      Assert.assertEquals(offHeapMutableBytesStore.add(value1), 0);
+      Assert.assertEquals(offHeapMutableBytesStore.add(value2), 1);
+      Assert.assertEquals(offHeapMutableBytesStore.add(_values[0]), 2);
+      assertTrue(Arrays.equals(offHeapMutableBytesStore.get(0), value1));
+      assertTrue(Arrays.equals(offHeapMutableBytesStore.get(1), value2));
+      assertTrue(Arrays.equals(offHeapMutableBytesStore.get(2), _values[0]));
+      assertTrue(offHeapMutableBytesStore.equalsValueAt(0, value1));
+      assertFalse(offHeapMutableBytesStore.equalsValueAt(0, value2));
+      assertTrue(offHeapMutableBytesStore.equalsValueAt(1, value2));
+      assertTrue(offHeapMutableBytesStore.equalsValueAt(2, _values[0]));
+    }
+  }
+
   @Test
   public void testGet()
       throws Exception {
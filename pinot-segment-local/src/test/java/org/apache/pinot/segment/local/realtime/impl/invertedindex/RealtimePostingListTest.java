@@ -0,0 +1,96 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.realtime.impl.invertedindex;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+
+public class RealtimePostingListTest {
+
+  @Test
+  public void testAdd() {
+    RealtimePostingList postingList = new RealtimePostingList();
+    assertTrue(postingList.getDocIds().isEmpty());
+
+    // Doc ids across multiple key ranges, with duplicates
+    MutableRoaringBitmap expected = new MutableRoaringBitmap();
+    for (int docId = 0; docId < 500_000; docId += 3) {
+      postingList.add(docId);
+      postingList.add(docId);
+      expected.add(docId);
+    }
+    assertEquals(postingList.getDocIds(), expected);
+
+    // Out of order doc ids
+    postingList.add(1);
+    postingList.add(70_000);
+    postingList.add(10_000_000);
+    expected.add(1, 70_000, 10_000_000);
+    assertEquals(postingList.getDocIds(), expected);
+
+    // Returned bitmap is a snapshot owned by the caller
+    MutableRoaringBitmap docIds = postingList.getDocIds();
+    docIds.add(2);
+    postingList.add(10_000_001);
+    assertTrue(docIds.contains(2));
+    assertFalse(docIds.contains(10_000_001));
+    assertFalse(postingList.getDocIds().contains(2));
+  }
+
+  @Test
+  public void testConcurrentAddAndRead()
+      throws Exception {
+    int numDocs = 1_000_000;
+    RealtimePostingList postingList = new RealtimePostingList();
+    ExecutorService executorService = Executors.newFixedThreadPool(2);
+    try {
+      Future<?> writerFuture = executorService.submit(() -> {
+        for (int docId = 0; docId < numDocs; docId++) {
+          postingList.add(docId);
+        }
+      });
+      Future<?> readerFuture = executorService.submit(() -> {
+        while (!writerFuture.isDone()) {
+          // Readers should always see a prefix of the added doc ids
+          MutableRoaringBitmap docIds = postingList.getDocIds();
+          int numDocIds = docIds.getCardinality();
+          if (numDocIds > 0) {
+            assertEquals(docIds.first(), 0);
+            assertEquals(docIds.last(), numDocIds - 1);
+          }
+        }
+      });
+      writerFuture.get();
+      readerFuture.get();
+    } finally {
+      executorService.shutdown();
+    }
+    MutableRoaringBitmap docIds = postingList.getDocIds();
+    assertEquals(docIds.getCardinality(), numDocs);
+    assertEquals(docIds.last(), numDocs - 1);
+  }
+}
@@ -29,6 +29,7 @@ import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import org.apache.commons.io.FileUtils;
+import org.apache.pinot.segment.local.io.compression.IntegerCodec;
 import org.apache.pinot.segment.local.segment.creator.impl.fwd.MultiValueFixedByteRawIndexCreator;
 import org.apache.pinot.segment.local.segment.index.readers.forward.ChunkReaderContext;
 import org.apache.pinot.segment.local.segment.index.readers.forward.FixedByteChunkMVForwardIndexReader;
@@ -52,7 +53,8 @@ public class MultiValueFixedByteRawIndexCreatorTest {
 
   @DataProvider(name = "compressionTypes")
   public Object[][] compressionTypes() {
-    return Arrays.stream(ChunkCompressionType.values()).map(ct -> new Object[]{ct}).toArray(Object[][]::new);
+    return Arrays.stream(ChunkCompressionType.values()).filter(ct -> !IntegerCodec.isIntegerCodec(ct))
+        .map(ct -> new Object[]{ct}).toArray(Object[][]::new);
   }
 
   @BeforeClass
@@ -29,6 +29,7 @@ import java.util.UUID;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import org.apache.commons.io.FileUtils;
+import org.apache.pinot.segment.local.io.compression.IntegerCodec;
 import org.apache.pinot.segment.local.segment.creator.impl.fwd.MultiValueVarByteRawIndexCreator;
 import org.apache.pinot.segment.local.segment.index.readers.forward.ChunkReaderContext;
 import org.apache.pinot.segment.local.segment.index.readers.forward.VarByteChunkMVForwardIndexReader;
@@ -57,6 +58,7 @@ public class MultiValueVarByteRawIndexCreatorTest {
   @DataProvider
   public Object[][] params() {
     return Arrays.stream(ChunkCompressionType.values())
+        .filter(chunkCompressionType -> !IntegerCodec.isIntegerCodec(chunkCompressionType))
         .flatMap(chunkCompressionType -> IntStream.of(10, 15, 20, 1000).boxed()
             .flatMap(useFullSize -> Stream.of(true, false)
                 .flatMap(maxLength -> IntStream.range(1, 20).map(i -> i * 2 - 1).boxed()
@@ -100,6 +100,36 @@ public class VarByteChunkV4Test {
         VarByteChunkSVForwardIndexWriterV4::putBytes, (reader, context, docId) -> reader.getBytes(docId, context));
   }
 
+  @Test(dataProvider = "params")
+  public void testBulkReadSV(ChunkCompressionType compressionType, int longestEntry, int chunkSize)
+      throws IOException {
+    _file = new File(TEST_DIR, "testBulkReadSV");
+    List<String> values = randomStrings(1000, longestEntry).collect(Collectors.toList());
+    try (VarByteChunkSVForwardIndexWriterV4 writer = new VarByteChunkSVForwardIndexWriterV4(_file, compressionType,
+        chunkSize)) {
+      for (String value : values) {
+        writer.putString(value);
+      }
+    }
+    try (PinotDataBuffer buffer = PinotDataBuffer.mapReadOnlyBigEndianFile(_file)) {
+      try (VarByteChunkSVForwardIndexReaderV4 reader = new VarByteChunkSVForwardIndexReaderV4(buffer,
+          FieldSpec.DataType.STRING);
+          VarByteChunkSVForwardIndexReaderV4.ReaderContext context = reader.createContext()) {
+        for (int step : new int[]{1, 2, 7, 100}) {
+          int[] docIds = IntStream.range(0, values.size()).filter(i -> i % step == step - 1).toArray();
+          String[] strings = new String[docIds.length];
+          reader.readValuesSV(docIds, docIds.length, strings, context);
+          byte[][] bytes = new byte[docIds.length][];
+          reader.readValuesSV(docIds, docIds.length, bytes, context);
+          for (int i = 0; i < docIds.length; i++) {
+            assertEquals(strings[i], values.get(docIds[i]));
+            assertEquals(bytes[i], values.get(docIds[i]).getBytes(StandardCharsets.UTF_8));
+          }
+        }
+      }
+    }
+  }
+
   private <T> void testSV(ChunkCompressionType compressionType, int longestEntry, int chunkSize,
       FieldSpec.DataType dataType, Function<String, T> forwardMapper,
       BiConsumer<VarByteChunkSVForwardIndexWriterV4, T> write,
@@ -253,6 +253,57 @@ public class FixedByteChunkSVForwardIndexTest {
     FileUtils.deleteQuietly(outFileEightByte);
   }
 
+  @Test(dataProvider = "combinations")
+  public void testReadValuesSV(ChunkCompressionType compressionType, int version)
+      throws Exception {
+    long[] expected = new long[NUM_VALUES];
+    for (int i = 0; i < NUM_VALUES; i++) {
+      expected[i] = RANDOM.nextLong();
+    }
+
+    File outFile = new File(TEST_FILE);
+    FileUtils.deleteQuietly(outFile);
+    try (FixedByteChunkSVForwardIndexWriter writer = new FixedByteChunkSVForwardIndexWriter(outFile, compressionType,
+        NUM_VALUES, NUM_DOCS_PER_CHUNK, Long.BYTES, version)) {
+      for (long value : expected) {
+        writer.putLong(value);
+      }
+    }
+
+    try (ForwardIndexReader<ChunkReaderContext> reader = version >= 4
+        ? new FixedBytePower2ChunkSVForwardIndexReader(PinotDataBuffer.mapReadOnlyBigEndianFile(outFile),
+        DataType.LONG)
+        : new FixedByteChunkSVForwardIndexReader(PinotDataBuffer.mapReadOnlyBigEndianFile(outFile), DataType.LONG);
+        ChunkReaderContext context = reader.createContext()) {
+      if (context != null) {
+        // Each chunk is hinted for prefetch at most once per reader context
+        long[] values = new long[2];
+        reader.readValuesSV(new int[]{0, NUM_VALUES - 1}, 2, values, context);
+        int lastChunkId = context.getLastPrefetchedChunkId();
+        Assert.assertTrue(lastChunkId > 0);
+        reader.readValuesSV(new int[]{1, NUM_VALUES - 2}, 2, values, context);
+        Assert.assertEquals(context.getLastPrefetchedChunkId(), lastChunkId);
+        Assert.assertEquals(values[0], expected[1]);
+        Assert.assertEquals(values[1], expected[NUM_VALUES - 2]);
+      }
+
+      // Contiguous and sparse doc ids spanning multiple chunks
+      for (int step : new int[]{1, 3, 1000}) {
+        int[] docIds = IntStream.range(0, NUM_VALUES).filter(i -> i % step == 0).toArray();
+        long[] longValues = new long[docIds.length];
+        reader.readValuesSV(docIds, docIds.length, longValues, context);
+        int[] intValues = new int[docIds.length];
+        reader.readValuesSV(docIds, docIds.length, intValues, context);
+        for (int i = 0; i < docIds.length; i++) {
+          Assert.assertEquals(longValues[i], expected[docIds[i]]);
+          Assert.assertEquals(intValues[i], (int) expected[docIds[i]]);
+        }
+      }
+    }
+
+    FileUtils.deleteQuietly(outFile);
+  }
+
   /**
    * This test ensures that the reader can read in an data file from version 1.
    */
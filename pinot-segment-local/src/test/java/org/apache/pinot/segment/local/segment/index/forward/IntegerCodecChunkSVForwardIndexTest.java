@@ -0,0 +1,192 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.segment.index.forward;
+
+import java.io.File;
+import java.util.Random;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.segment.local.io.writer.impl.FixedByteChunkSVForwardIndexWriter;
+import org.apache.pinot.segment.local.segment.index.readers.forward.ChunkReaderContext;
+import org.apache.pinot.segment.local.segment.index.readers.forward.IntegerCodecChunkSVForwardIndexReader;
+import org.apache.pinot.segment.spi.compression.ChunkCompressionType;
+import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+
+/**
+ * Unit test for {@link IntegerCodecChunkSVForwardIndexReader}, which reads INT/LONG values encoded with the lightweight
+ * integer encodings (FOR, DELTA and DELTA_DELTA) without decompressing the whole chunk.
+ *
+ * Number of docs and docs per chunk are chosen to generate complete as well partial chunks and blocks.
+ */
+public class IntegerCodecChunkSVForwardIndexTest {
+  private static final int NUM_VALUES = 10009;
+  private static final int NUM_DOCS_PER_CHUNK = 1000;
+  private static final File TEST_FILE =
+      new File(FileUtils.getTempDirectory(), IntegerCodecChunkSVForwardIndexTest.class.getSimpleName());
+  private static final Random RANDOM = new Random();
+
+  @DataProvider(name = "combinations")
+  public static Object[][] combinations() {
+    return Stream.of(ChunkCompressionType.FOR, ChunkCompressionType.DELTA, ChunkCompressionType.DELTA_DELTA)
+        .flatMap(compressionType -> IntStream.of(2, 3, 4).boxed()
+            .flatMap(version -> Stream.of(true, false)
+                .map(monotonic -> new Object[]{compressionType, version, monotonic})))
+        .toArray(Object[][]::new);
+  }
+
+  @Test(dataProvider = "combinations")
+  public void testInt(ChunkCompressionType compressionType, int version, boolean monotonic)
+      throws Exception {
+    long[] values = generateValues(monotonic);
+    int[] expected = new int[NUM_VALUES];
+    for (int i = 0; i < NUM_VALUES; i++) {
+      expected[i] = (int) values[i];
+    }
+
+    FileUtils.deleteQuietly(TEST_FILE);
+    try (FixedByteChunkSVForwardIndexWriter writer = new FixedByteChunkSVForwardIndexWriter(TEST_FILE,
+        compressionType, NUM_VALUES, NUM_DOCS_PER_CHUNK, Integer.BYTES, version)) {
+      for (int value : expected) {
+        writer.putInt(value);
+      }
+    }
+
+    try (PinotDataBuffer dataBuffer = PinotDataBuffer.mapReadOnlyBigEndianFile(TEST_FILE);
+        IntegerCodecChunkSVForwardIndexReader reader = new IntegerCodecChunkSVForwardIndexReader(dataBuffer,
+            DataType.INT)) {
+      Assert.assertEquals(reader.getCompressionType(), compressionType);
+
+      // Sequential access
+      try (ChunkReaderContext context = reader.createContext()) {
+        for (int i = 0; i < NUM_VALUES; i++) {
+          Assert.assertEquals(reader.getInt(i, context), expected[i]);
+        }
+      }
+
+      // Random access
+      try (ChunkReaderContext context = reader.createContext()) {
+        for (int i = 0; i < 1000; i++) {
+          int docId = RANDOM.nextInt(NUM_VALUES);
+          Assert.assertEquals(reader.getInt(docId, context), expected[docId]);
+        }
+      }
+
+      // Batch access (contiguous and sparse)
+      try (ChunkReaderContext context = reader.createContext()) {
+        for (int[] docIds : generateDocIdBatches()) {
+          int[] actual = new int[docIds.length];
+          reader.readValuesSV(docIds, docIds.length, actual, context);
+          for (int i = 0; i < docIds.length; i++) {
+            Assert.assertEquals(actual[i], expected[docIds[i]]);
+          }
+        }
+      }
+    }
+
+    FileUtils.deleteQuietly(TEST_FILE);
+  }
+
+  @Test(dataProvider = "combinations")
+  public void testLong(ChunkCompressionType compressionType, int version, boolean monotonic)
+      throws Exception {
+    long[] expected = generateValues(monotonic);
+
+    FileUtils.deleteQuietly(TEST_FILE);
+    try (FixedByteChunkSVForwardIndexWriter writer = new FixedByteChunkSVForwardIndexWriter(TEST_FILE,
+        compressionType, NUM_VALUES, NUM_DOCS_PER_CHUNK, Long.BYTES, version)) {
+      for (long value : expected) {
+        writer.putLong(value);
+      }
+    }
+
+    try (PinotDataBuffer dataBuffer = PinotDataBuffer.mapReadOnlyBigEndianFile(TEST_FILE);
+        IntegerCodecChunkSVForwardIndexReader reader = new IntegerCodecChunkSVForwardIndexReader(dataBuffer,
+            DataType.LONG)) {
+      Assert.assertEquals(reader.getCompressionType(), compressionType);
+
+      // Sequential access
+      try (ChunkReaderContext context = reader.createContext()) {
+        for (int i = 0; i < NUM_VALUES; i++) {
+          Assert.assertEquals(reader.getLong(i, context), expected[i]);
+        }
+      }
+
+      // Random access
+      try (ChunkReaderContext context = reader.createContext()) {
+        for (int i = 0; i < 1000; i++) {
+          int docId = RANDOM.nextInt(NUM_VALUES);
+          Assert.assertEquals(reader.getLong(docId, context), expected[docId]);
+        }
+      }
+
+      // Batch access (contiguous and sparse)
+      try (ChunkReaderContext context = reader.createContext()) {
+        for (int[] docIds : generateDocIdBatches()) {
+          long[] actual = new long[docIds.length];
+          reader.readValuesSV(docIds, docIds.length, actual, context);
+          for (int i = 0; i < docIds.length; i++) {
+            Assert.assertEquals(actual[i], expected[docIds[i]]);
+          }
+        }
+      }
+    }
+
+    FileUtils.deleteQuietly(TEST_FILE);
+  }
+
+  /**
+   * Generates either monotonic timestamps with some jitter, or small values with occasional outliers (exceptions).
+   */
+  private static long[] generateValues(boolean monotonic) {
+    long[] values = new long[NUM_VALUES];
+    long timestamp = System.currentTimeMillis();
+    for (int i = 0; i < NUM_VALUES; i++) {
+      if (monotonic) {
+        timestamp += 1000 + RANDOM.nextInt(5);
+        values[i] = timestamp;
+      } else {
+        values[i] = RANDOM.nextInt(50) == 0 ? RANDOM.nextLong() : RANDOM.nextInt(1000);
+      }
+    }
+    return values;
+  }
+
+  private static int[][] generateDocIdBatches() {
+    int[][] batches = new int[20][];
+    for (int i = 0; i < batches.length; i++) {
+      int length = 1 + RANDOM.nextInt(2000);
+      int start = RANDOM.nextInt(NUM_VALUES - length + 1);
+      if (i % 2 == 0) {
+        batches[i] = IntStream.range(start, start + length).toArray();
+      } else {
+        batches[i] = IntStream.range(start, NUM_VALUES).filter(docId -> RANDOM.nextInt(3) == 0).toArray();
+        if (batches[i].length == 0) {
+          batches[i] = new int[]{start};
+        }
+      }
+    }
+    return batches;
+  }
+}
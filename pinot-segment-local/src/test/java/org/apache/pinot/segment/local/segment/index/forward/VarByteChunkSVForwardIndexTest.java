@@ -24,6 +24,7 @@ import java.net.URL;
 import java.nio.ByteOrder;
 import java.nio.file.Files;
 import java.util.Random;
+import java.util.stream.IntStream;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang.RandomStringUtils;
 import org.apache.commons.lang.StringUtils;
@@ -130,6 +131,29 @@ public class VarByteChunkSVForwardIndexTest {
         Assert.assertEquals(fourByteOffsetReader.getString(i, fourByteOffsetReaderContext), expected[i]);
         Assert.assertEquals(eightByteOffsetReader.getString(i, eightByteOffsetReaderContext), expected[i]);
       }
+
+      // Bulk read of sparse doc ids spanning multiple chunks
+      int[] docIds = IntStream.range(0, NUM_ENTRIES).filter(i -> i % 3 == 0).toArray();
+      String[] fourByteOffsetValues = new String[docIds.length];
+      fourByteOffsetReader.readValuesSV(docIds, docIds.length, fourByteOffsetValues, fourByteOffsetReaderContext);
+      String[] eightByteOffsetValues = new String[docIds.length];
+      eightByteOffsetReader.readValuesSV(docIds, docIds.length, eightByteOffsetValues, eightByteOffsetReaderContext);
+      for (int i = 0; i < docIds.length; i++) {
+        Assert.assertEquals(fourByteOffsetValues[i], expected[docIds[i]]);
+        Assert.assertEquals(eightByteOffsetValues[i], expected[docIds[i]]);
+      }
+    }
+
+    // STRING values are stored as UTF-8 encoded bytes, so the same index can be bulk read as BYTES
+    try (VarByteChunkSVForwardIndexReader bytesReader = new VarByteChunkSVForwardIndexReader(
+        PinotDataBuffer.mapReadOnlyBigEndianFile(outFileFourByte), DataType.BYTES);
+        ChunkReaderContext bytesReaderContext = bytesReader.createContext()) {
+      int[] docIds = IntStream.range(0, NUM_ENTRIES).filter(i -> i % 3 == 1).toArray();
+      byte[][] values = new byte[docIds.length][];
+      bytesReader.readValuesSV(docIds, docIds.length, values, bytesReaderContext);
+      for (int i = 0; i < docIds.length; i++) {
+        Assert.assertEquals(values[i], expected[docIds[i]].getBytes(UTF_8));
+      }
     }
 
     FileUtils.deleteQuietly(outFileFourByte);
@@ -18,8 +18,12 @@
  */
 package org.apache.pinot.segment.local.segment.store;
 
+import com.google.common.collect.ImmutableSet;
 import java.io.File;
+import java.util.Collections;
+import java.util.UUID;
 import org.apache.commons.io.FileUtils;
+import org.apache.pinot.segment.spi.FetchContext;
 import org.apache.pinot.segment.spi.creator.SegmentVersion;
 import org.apache.pinot.segment.spi.index.StandardIndexes;
 import org.apache.pinot.segment.spi.index.metadata.SegmentMetadataImpl;
@@ -116,6 +120,25 @@ public class SegmentLocalFSDirectoryTest {
     }
   }
 
+  @Test
+  public void testPrefetch()
+      throws Exception {
+    try (SegmentDirectory.Writer writer = _segmentDirectory.createWriter()) {
+      Assert.assertNotNull(writer);
+      PinotDataBuffer buffer = writer.newIndexFor("prefetchColumn", StandardIndexes.forward(), 1024);
+      loadData(buffer);
+      writer.save();
+    }
+    // Prefetch is asynchronous and best-effort, and should not affect the data or fail on unknown columns
+    _segmentDirectory.prefetch(new FetchContext(UUID.randomUUID(), "segment", ImmutableSet.of("prefetchColumn")));
+    _segmentDirectory.prefetch(new FetchContext(UUID.randomUUID(), "segment",
+        Collections.singletonMap("unknownColumn", Collections.singletonList(StandardIndexes.forward()))));
+    try (SegmentDirectory.Reader reader = _segmentDirectory.createReader()) {
+      Assert.assertNotNull(reader);
+      verifyData(reader.getIndexFor("prefetchColumn", StandardIndexes.forward()));
+    }
+  }
+
   @Test
   public void testDirectorySize()
       throws Exception {
@@ -992,6 +992,30 @@ public class TableConfigUtilsTest {
       Assert.assertEquals(e.getMessage(), "Set compression codec to null for dictionary encoding type");
     }
 
+    tableConfig = new TableConfigBuilder(TableType.OFFLINE).setTableName(TABLE_NAME)
+        .setNoDictionaryColumns(Arrays.asList("myCol1", "myCol2", "intCol")).build();
+    try {
+      FieldConfig fieldConfig = new FieldConfig("intCol", FieldConfig.EncodingType.RAW, Collections.emptyList(),
+          FieldConfig.CompressionCodec.DELTA, null);
+      tableConfig.setFieldConfigList(Arrays.asList(fieldConfig));
+      TableConfigUtils.validate(tableConfig, schema);
+    } catch (Exception e) {
+      Assert.fail("Should not fail since compression codec delta is supported for single value INT columns", e);
+    }
+
+    for (String column : Arrays.asList("myCol1", "myCol2")) {
+      try {
+        FieldConfig fieldConfig = new FieldConfig(column, FieldConfig.EncodingType.RAW, Collections.emptyList(),
+            FieldConfig.CompressionCodec.FOR, null);
+        tableConfig.setFieldConfigList(Arrays.asList(fieldConfig));
+        TableConfigUtils.validate(tableConfig, schema);
+        Assert.fail("Should fail since compression codec FOR is only supported for single value INT/LONG columns");
+      } catch (Exception e) {
+        Assert.assertEquals(e.getMessage(),
+            "Compression codec: FOR is only supported for single value INT/LONG columns, got column: " + column);
+      }
+    }
+
     tableConfig = new TableConfigBuilder(TableType.OFFLINE).setTableName(TABLE_NAME)
         .setNoDictionaryColumns(Arrays.asList("myCol1")).build();
     try {
@@ -19,7 +19,9 @@
 package org.apache.pinot.segment.spi.compression;
 
 public enum ChunkCompressionType {
-  PASS_THROUGH(0), SNAPPY(1), ZSTANDARD(2), LZ4(3), LZ4_LENGTH_PREFIXED(4);
+  PASS_THROUGH(0), SNAPPY(1), ZSTANDARD(2), LZ4(3), LZ4_LENGTH_PREFIXED(4),
+  // Lightweight integer encodings for INT/LONG values, which can be decoded without decompressing the whole chunk
+  FOR(5), DELTA(6), DELTA_DELTA(7);
 
   private static final ChunkCompressionType[] VALUES = values();
 
@@ -38,6 +38,14 @@ public interface MutableDictionary extends Dictionary {
    */
   int[] index(Object[] values);
 
+  /**
+   * Returns the average size in bytes of the values in the dictionary, which is tracked by the off-heap dictionaries to
+   * size the dictionaries of the next consuming segments. Returns 0 if the average value size is not tracked.
+   */
+  default int getAvgValueSize() {
+    return 0;
+  }
+
   @Override
   default boolean isSorted() {
     return false;
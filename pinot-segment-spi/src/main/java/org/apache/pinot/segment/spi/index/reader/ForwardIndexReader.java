@@ -361,6 +361,42 @@ public interface ForwardIndexReader<T extends ForwardIndexReaderContext> extends
     }
   }
 
+  /**
+   * Fills the String values for the given document ids. Only supported when the stored type is STRING, no type
+   * conversion is performed.
+   * <p>By default the values are read one by one, readers that can decode the values in batch should override it.
+   * @param docIds Array containing the document ids to read
+   * @param length Number of values to read
+   * @param values String values to fill
+   * @param context Reader context
+   */
+  default void readValuesSV(int[] docIds, int length, String[] values, T context) {
+    if (getStoredType() != DataType.STRING) {
+      throw new IllegalArgumentException();
+    }
+    for (int i = 0; i < length; i++) {
+      values[i] = getString(docIds[i], context);
+    }
+  }
+
+  /**
+   * Fills the byte[] values for the given document ids. Only supported when the stored type is BYTES, no type
+   * conversion is performed.
+   * <p>By default the values are read one by one, readers that can decode the values in batch should override it.
+   * @param docIds Array containing the document ids to read
+   * @param length Number of values to read
+   * @param values byte[] values to fill
+   * @param context Reader context
+   */
+  default void readValuesSV(int[] docIds, int length, byte[][] values, T context) {
+    if (getStoredType() != DataType.BYTES) {
+      throw new IllegalArgumentException();
+    }
+    for (int i = 0; i < length; i++) {
+      values[i] = getBytes(docIds[i], context);
+    }
+  }
+
   /**
    * Reads the INT value at the given document id.
    *
@@ -245,6 +245,11 @@ public class NonNativePinotDataBuffer extends PinotDataBuffer {
     _nativeBuffer.flush();
   }
 
+  @Override
+  public void prefetch(long offset, long size) {
+    _nativeBuffer.prefetch(offset, size);
+  }
+
   @Override
   public void release()
       throws IOException {
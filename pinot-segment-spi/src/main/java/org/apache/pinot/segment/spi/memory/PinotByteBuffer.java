@@ -27,6 +27,7 @@ import java.nio.ByteOrder;
 import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 import javax.annotation.concurrent.ThreadSafe;
+import org.apache.pinot.segment.spi.memory.unsafe.PrefetchUtils;
 
 
 @ThreadSafe
@@ -325,6 +326,14 @@ public class PinotByteBuffer extends PinotDataBuffer {
     }
   }
 
+  @Override
+  public void prefetch(long offset, long size) {
+    if (_buffer instanceof MappedByteBuffer) {
+      checkLimits(_buffer.capacity(), offset, size);
+      PrefetchUtils.willNeed(_buffer, offset, size);
+    }
+  }
+
   @Override
   public void release()
       throws IOException {
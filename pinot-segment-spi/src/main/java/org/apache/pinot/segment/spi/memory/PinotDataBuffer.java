@@ -617,6 +617,13 @@ public abstract class PinotDataBuffer implements Closeable {
 
   public abstract void flush();
 
+  /**
+   * Hints that the range [offset, offset + size) of this buffer is going to be read soon, so that the underlying pages
+   * can be loaded ahead (e.g. with madvise for memory mapped files). This is best effort, and does nothing by default.
+   */
+  public void prefetch(long offset, long size) {
+  }
+
   public abstract void release()
       throws IOException;
 
@@ -43,6 +43,13 @@ public interface Memory extends Closeable {
     */
    void flush();
 
+   /**
+    * Hints that the memory within [address, address + size) is going to be accessed soon. This is best effort, and does
+    * nothing by default.
+    */
+   default void prefetch(long address, long size) {
+   }
+
    /**
     * Close this object, releasing the reserved memory.
     */
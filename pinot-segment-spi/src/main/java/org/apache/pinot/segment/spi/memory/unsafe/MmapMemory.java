@@ -97,6 +97,11 @@ public class MmapMemory implements Memory {
     PosixAPI.posix().msync(_address, _size, mode);
   }
 
+  @Override
+  public void prefetch(long address, long size) {
+    PrefetchUtils.willNeed(address, size);
+  }
+
   @Override
   public void close()
       throws IOException {
@@ -0,0 +1,86 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.spi.memory.unsafe;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import net.openhft.chronicle.core.OS;
+import net.openhft.posix.MAdviseFlag;
+import net.openhft.posix.PosixAPI;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Utility to hint the OS that a range of (memory mapped) memory is going to be accessed soon, so that the pages can be
+ * read ahead asynchronously (madvise with MADV_WILLNEED) instead of being faulted in one by one while reading.
+ *
+ * All the methods are best effort: they do nothing when madvise is not available on the platform, and errors returned
+ * by madvise are ignored.
+ */
+public class PrefetchUtils {
+  private static final Logger LOGGER = LoggerFactory.getLogger(PrefetchUtils.class);
+
+  private static final boolean ENABLED;
+  private static final long PAGE_SIZE;
+  private static final long BUFFER_ADDRESS_OFFSET;
+
+  static {
+    boolean enabled = false;
+    long pageSize = 4096;
+    long bufferAddressOffset = -1;
+    try {
+      pageSize = OS.pageSize();
+      PosixAPI.posix();
+      bufferAddressOffset = Unsafer.UNSAFE.objectFieldOffset(Buffer.class.getDeclaredField("address"));
+      enabled = true;
+    } catch (Throwable t) {
+      LOGGER.warn("madvise is not available, prefetch hints will be ignored", t);
+    }
+    ENABLED = enabled;
+    PAGE_SIZE = pageSize;
+    BUFFER_ADDRESS_OFFSET = bufferAddressOffset;
+  }
+
+  private PrefetchUtils() {
+  }
+
+  /**
+   * Hints that the memory within [address, address + size) is going to be accessed soon.
+   */
+  public static void willNeed(long address, long size) {
+    if (!ENABLED || size <= 0) {
+      return;
+    }
+    // madvise requires the address to be page aligned
+    long pageAlignedAddress = address & -PAGE_SIZE;
+    PosixAPI.posix().madvise(pageAlignedAddress, size + address - pageAlignedAddress, MAdviseFlag.MADV_WILLNEED);
+  }
+
+  /**
+   * Hints that the memory within [offset, offset + size) of the given buffer is going to be accessed soon. Heap
+   * buffers are ignored.
+   */
+  public static void willNeed(ByteBuffer buffer, long offset, long size) {
+    if (!ENABLED || !buffer.isDirect()) {
+      return;
+    }
+    willNeed(Unsafer.UNSAFE.getLong(buffer, BUFFER_ADDRESS_OFFSET) + offset, size);
+  }
+}
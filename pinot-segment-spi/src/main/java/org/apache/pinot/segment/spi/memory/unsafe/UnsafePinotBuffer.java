@@ -176,6 +176,12 @@ public class UnsafePinotBuffer extends PinotDataBuffer {
     _memory.flush();
   }
 
+  @Override
+  public void prefetch(long offset, long size) {
+    checkOffset(offset, size);
+    _memory.prefetch(_address + offset, size);
+  }
+
   @Override
   public void release()
       throws IOException {
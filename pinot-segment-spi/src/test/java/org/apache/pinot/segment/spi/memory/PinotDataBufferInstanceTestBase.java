@@ -157,6 +157,31 @@ public abstract class PinotDataBufferInstanceTestBase extends PinotDataBufferTes
     }
   }
 
+  @Test
+  public void testPrefetch()
+      throws Exception {
+    try (RandomAccessFile randomAccessFile = new RandomAccessFile(TEMP_FILE, "rw")) {
+      randomAccessFile.setLength(FILE_OFFSET + BUFFER_SIZE);
+      try (PinotDataBuffer buffer = _factory
+          .mapFile(TEMP_FILE, false, FILE_OFFSET, BUFFER_SIZE, ByteOrder.BIG_ENDIAN)) {
+        for (int i = 0; i < NUM_ROUNDS; i++) {
+          buffer.putInt(i * Integer.BYTES, _ints[i]);
+        }
+        // Prefetch is only a hint, and should not change the content of the buffer or its views
+        buffer.prefetch(0, BUFFER_SIZE);
+        buffer.prefetch(1, BUFFER_SIZE / 2);
+        PinotDataBuffer view = buffer.view(Integer.BYTES, BUFFER_SIZE, ByteOrder.LITTLE_ENDIAN);
+        view.prefetch(0, view.size());
+        for (int i = 0; i < NUM_ROUNDS; i++) {
+          Assert.assertEquals(buffer.getInt(i * Integer.BYTES), _ints[i]);
+        }
+      }
+    }
+    try (PinotDataBuffer buffer = _factory.allocateDirect(BUFFER_SIZE, ByteOrder.BIG_ENDIAN)) {
+      buffer.prefetch(0, BUFFER_SIZE);
+    }
+  }
+
   protected void testPinotDataBuffer(PinotDataBuffer buffer)
       throws Exception {
     Assert.assertEquals(buffer.size(), BUFFER_SIZE);
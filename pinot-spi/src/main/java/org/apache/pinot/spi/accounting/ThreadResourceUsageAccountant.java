@@ -52,6 +52,20 @@ public interface ThreadResourceUsageAccountant {
    */
   void setThreadResourceUsageProvider(ThreadResourceUsageProvider threadResourceUsageProvider);
 
+  /**
+   * record off-heap bytes allocated by the current thread, which cannot be sampled from the JVM
+   * @param bytes number of off-heap bytes allocated
+   */
+  default void recordOffHeapBytesAllocated(long bytes) {
+  }
+
+  /**
+   * record off-heap bytes released, which were previously recorded through {@link #recordOffHeapBytesAllocated(long)}
+   * @param bytes number of off-heap bytes released
+   */
+  default void recordOffHeapBytesReleased(long bytes) {
+  }
+
   /**
    * call to sample usage
    */
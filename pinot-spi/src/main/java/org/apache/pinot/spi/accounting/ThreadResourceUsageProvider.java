@@ -28,7 +28,9 @@ import org.slf4j.LoggerFactory;
 
 /**
  * The {@code ThreadResourceUsageProvider} class providing the functionality of measuring the CPU time
- * and allocateBytes (JVM heap) for the current thread.
+ * and allocateBytes (JVM heap) for the current thread. Off-heap allocations made on behalf of the thread (e.g. direct
+ * buffers backing group-by results) are not visible to the {@link ThreadMXBean}, and are recorded explicitly through
+ * {@link #recordOffHeapBytesAllocated(long)} and {@link #recordOffHeapBytesReleased(long)}.
  */
 public class ThreadResourceUsageProvider {
   private static final Logger LOGGER = LoggerFactory.getLogger(ThreadResourceUsageProvider.class);
@@ -54,6 +56,10 @@ public class ThreadResourceUsageProvider {
   // reference point for start time/bytes
   private final long _startTimeNs;
   private final long _startBytesAllocated;
+  // off-heap bytes explicitly recorded by the thread (allocated minus released), only accessed from the thread owning
+  // this provider. Can be negative when the thread releases the off-heap memory allocated by another thread of the
+  // same query.
+  private long _offHeapBytesAllocated;
 
   public ThreadResourceUsageProvider() {
     _startTimeNs = _isThreadCpuTimeMeasurementEnabled ? MX_BEAN.getCurrentThreadCpuTime() : -1;
@@ -107,13 +113,33 @@ public class ThreadResourceUsageProvider {
   public long getThreadAllocatedBytes() {
     try {
       return _isThreadMemoryMeasurementEnabled ? (long) SUN_THREAD_MXBEAN_GET_BYTES_ALLOCATED_METHOD
-          .invoke(MX_BEAN, Thread.currentThread().getId()) - _startBytesAllocated : 0;
+          .invoke(MX_BEAN, Thread.currentThread().getId()) - _startBytesAllocated + _offHeapBytesAllocated : 0;
     } catch (IllegalAccessException | InvocationTargetException e) {
       LOGGER.error("Exception happened during the invocation of getting initial bytes allocated", e);
       return 0;
     }
   }
 
+  public long getOffHeapBytesAllocated() {
+    return _offHeapBytesAllocated;
+  }
+
+  /**
+   * Records off-heap bytes allocated by the current thread, which are then included in
+   * {@link #getThreadAllocatedBytes()}.
+   */
+  public void recordOffHeapBytesAllocated(long bytes) {
+    _offHeapBytesAllocated += bytes;
+  }
+
+  /**
+   * Records off-heap bytes released by the current thread, which are then excluded from
+   * {@link #getThreadAllocatedBytes()}.
+   */
+  public void recordOffHeapBytesReleased(long bytes) {
+    _offHeapBytesAllocated -= bytes;
+  }
+
   //initialize the com.sun.management.ThreadMXBean related variables using reflection
   static {
     Class<?> sunThreadMXBeanClass;
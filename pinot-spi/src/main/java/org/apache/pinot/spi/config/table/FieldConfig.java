@@ -117,7 +117,12 @@ public class FieldConfig extends BaseJsonConfig {
   }
 
   public enum CompressionCodec {
-    PASS_THROUGH, SNAPPY, ZSTANDARD, LZ4
+    PASS_THROUGH, SNAPPY, ZSTANDARD, LZ4,
+    // Lightweight integer encodings, only supported for single-value INT/LONG raw columns:
+    // - FOR: frame-of-reference with bit-packing and patched exceptions
+    // - DELTA: FOR on the deltas between consecutive values, e.g. for monotonic counters
+    // - DELTA_DELTA: FOR on the deltas of deltas, e.g. for timestamps with regular intervals
+    FOR, DELTA, DELTA_DELTA
   }
 
   public String getName() {
@@ -77,6 +77,14 @@ public interface InvocationRecording {
   default void setNumSegments(int numSegments) {
   }
 
+  /**
+   * Records the maximum number of documents processed per block, which is chosen per query when adaptive block sizing
+   * is enabled.
+   * @param maxDocsPerCall the maximum number of documents per block
+   */
+  default void setMaxDocsPerCall(int maxDocsPerCall) {
+  }
+
   /**
    * If the operator is a filter, determines the filter type (scan or index) and the predicate type
    * @param filterType SCAN or INDEX
@@ -257,6 +257,14 @@ public class Tracing {
       Tracing.getThreadAccountant().clear();
     }
 
+    public static void recordOffHeapBytesAllocated(long bytes) {
+      Tracing.getThreadAccountant().recordOffHeapBytesAllocated(bytes);
+    }
+
+    public static void recordOffHeapBytesReleased(long bytes) {
+      Tracing.getThreadAccountant().recordOffHeapBytesReleased(bytes);
+    }
+
     public static void initializeThreadAccountant(PinotConfiguration config, String instanceId) {
       String factoryName = config.getProperty(CommonConstants.Accounting.CONFIG_OF_FACTORY_NAME);
       if (factoryName == null) {
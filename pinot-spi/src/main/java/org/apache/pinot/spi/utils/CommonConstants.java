@@ -313,6 +313,15 @@ public class CommonConstants {
         "pinot.broker.enable.partition.metadata.manager";
     public static final boolean DEFAULT_ENABLE_PARTITION_METADATA_MANAGER = false;
 
+    // Max size of the broker result cache in bytes. Non-positive value disables the cache.
+    public static final String CONFIG_OF_BROKER_RESULT_CACHE_SIZE_BYTES = "pinot.broker.result.cache.size.bytes";
+    public static final long DEFAULT_BROKER_RESULT_CACHE_SIZE_BYTES = 0L;
+    // TTL of the cached results for the queries that touch the real-time table (consuming segments). Non-positive
+    // value disables caching for these queries.
+    public static final String CONFIG_OF_BROKER_RESULT_CACHE_REALTIME_TTL_MS =
+        "pinot.broker.result.cache.realtime.ttl.ms";
+    public static final long DEFAULT_BROKER_RESULT_CACHE_REALTIME_TTL_MS = 0L;
+
     public static class Request {
       public static final String SQL = "sql";
       public static final String TRACE = "trace";
@@ -343,13 +352,48 @@ public class CommonConstants {
         public static final String NUM_GROUPS_LIMIT = "numGroupsLimit";
         public static final String MAX_INITIAL_RESULT_HOLDER_CAPACITY = "maxInitialResultHolderCapacity";
         public static final String GROUP_TRIM_THRESHOLD = "groupTrimThreshold";
+        // Store the group-by keys and the fixed-width aggregation results off-heap to reduce GC pressure for high
+        // cardinality group-by queries
+        public static final String ENABLE_OFF_HEAP_GROUP_BY = "enableOffHeapGroupBy";
+        // Number of partitions to merge the group-by results into in the server combine, where each combine thread
+        // merges into its own partitions instead of a shared concurrent table. Non-positive value disables it.
+        public static final String NUM_GROUP_BY_COMBINE_PARTITIONS = "numGroupByCombinePartitions";
         public static final String STAGE_PARALLELISM = "stageParallelism";
+        // Spill the multi-stage hash join to local disk (grace hash join) when the estimated size of the build (right)
+        // side exceeds this number of bytes. Non-positive value disables spilling.
+        public static final String JOIN_SPILL_THRESHOLD_BYTES = "joinSpillThresholdBytes";
+        // Spill the multi-stage sort without limit to local disk (external merge sort) when the estimated size of the
+        // buffered rows exceeds this number of bytes. Non-positive value disables spilling.
+        public static final String SORT_SPILL_THRESHOLD_BYTES = "sortSpillThresholdBytes";
+        // Relative share of the multi-stage scheduler execution time given to the query when competing with other
+        // queries on the same server (positive integer, 1 by default).
+        public static final String SCHEDULER_PRIORITY = "schedulerPriority";
+        // Max number of distinct build-side join keys shipped to the multi-stage leaf stage as an exact IN-list runtime
+        // filter. Larger INT/LONG key sets are shipped as a min/max range plus a serialized bitmap id set instead.
+        public static final String RUNTIME_FILTER_MAX_IN_LIST_SIZE = "runtimeFilterMaxInListSize";
+        // Max number of groups kept by a multi-stage aggregate producing intermediate results before the partial
+        // results are flushed downstream. Partial aggregation is disabled by default or with non-positive value.
+        public static final String PARTIAL_AGGREGATION_MAX_NUM_GROUPS = "partialAggregationMaxNumGroups";
+        // Run multi-stage joins between tables partitioned on the join key with the same partition function and
+        // partition count on the servers hosting both sides of each partition, without shuffling (true by default).
+        public static final String INFER_PARTITIONED_JOIN = "inferPartitionedJoin";
 
         // Handle IN predicate evaluation for big IN lists
         public static final String IN_PREDICATE_SORT_THRESHOLD = "inPredicateSortThreshold";
 
         public static final String DROP_RESULTS = "dropResults";
 
+        // Pick the number of docs per block based on the projected columns instead of using the fixed maximum
+        public static final String ENABLE_ADAPTIVE_MAX_DOCS_PER_CALL = "enableAdaptiveMaxDocsPerCall";
+        // Let the server combine threads claim the segments in the order of the estimated cost (most expensive first)
+        // so that the large or unpruned segments do not end up as stragglers at the tail of the query
+        public static final String ENABLE_COST_BASED_SEGMENT_SCHEDULING = "enableCostBasedSegmentScheduling";
+        // Split the large segments into disjoint doc id ranges with at least this many docs, and process the ranges in
+        // parallel like separate segments. Non-positive value disables it.
+        public static final String MIN_DOCS_PER_SEGMENT_RANGE = "minDocsPerSegmentRange";
+        // Bypass the broker result cache (neither read from nor write to it)
+        public static final String SKIP_RESULT_CACHE = "skipResultCache";
+
         // TODO: Remove these keys (only apply to PQL) after releasing 0.11.0
         @Deprecated
         public static final String PRESERVE_TYPE = "preserveType";